@@ -0,0 +1,294 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * The <code>BulkInsert</code> interface defines support for streaming a large
+ * number of POJOs into Cassandra. Unlike a {@link Group} which materializes
+ * all its statements before executing them, a bulk insert builds its
+ * statements lazily as POJOs are pulled from the source. POJOs read ahead
+ * within a window are grouped by partition into unlogged batches and at most
+ * a bounded number of requests are kept in flight such that the producer of
+ * POJOs is throttled to the pace of the cluster.
+ * <p>
+ * Failed requests are retried when they were explicitly marked idempotent
+ * (see {@link GenericStatement#setIdempotent(boolean)}) and the failure is
+ * transient (timeouts, unavailable or overloaded replicas). The bulk insert
+ * will stop pulling POJOs at the first request that cannot be retried and
+ * will fail once all in-flight requests have completed. It will not revert
+ * any of the POJOs previously inserted.
+ * <p>
+ * <i>Note:</i> A bulk insert can only be executed once.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 12, 2017 - paouelle - Creation
+ *
+ * @param <T> The type of POJO to insert
+ *
+ * @since 1.0
+ */
+public interface BulkInsert<T> {
+  /**
+   * Specifies the tables in which to insert the POJOs. By default, POJOs are
+   * inserted in all tables defined by their class.
+   *
+   * @author paouelle
+   *
+   * @param  tables the names of the tables in which to insert
+   * @return this bulk insert
+   * @throws NullPointerException if any of the tables are <code>null</code>
+   * @throws IllegalArgumentException if <code>tables</code> is empty
+   * @throws IllegalStateException if the bulk insert was already executed
+   */
+  public BulkInsert<T> into(String... tables);
+
+  /**
+   * Specifies that POJOs should be inserted in all tables defined by their
+   * class. This is the default.
+   *
+   * @author paouelle
+   *
+   * @return this bulk insert
+   * @throws IllegalStateException if the bulk insert was already executed
+   */
+  public BulkInsert<T> intoAll();
+
+  /**
+   * Sets the maximum number of statements grouped together in an unlogged
+   * batch when they target the same partition. Defaults to 20.
+   *
+   * @author paouelle
+   *
+   * @param  size the maximum number of statements per batch (1 disables
+   *         batching)
+   * @return this bulk insert
+   * @throws IllegalArgumentException if <code>size</code> is not positive
+   * @throws IllegalStateException if the bulk insert was already executed
+   */
+  public BulkInsert<T> batchSize(int size);
+
+  /**
+   * Sets the number of POJOs read ahead from the source and grouped by
+   * partition before their statements are sent. Defaults to 1000.
+   *
+   * @author paouelle
+   *
+   * @param  size the number of POJOs to read ahead
+   * @return this bulk insert
+   * @throws IllegalArgumentException if <code>size</code> is not positive
+   * @throws IllegalStateException if the bulk insert was already executed
+   */
+  public BulkInsert<T> window(int size);
+
+  /**
+   * Sets the maximum number of requests in flight at any given time. The
+   * producer of POJOs is blocked while this limit is reached. Defaults to the
+   * number of nodes in the Cassandra cluster multiplied by 32 just like a
+   * {@link Group}'s parallel factor.
+   *
+   * @author paouelle
+   *
+   * @param  max the maximum number of requests in flight
+   * @return this bulk insert
+   * @throws IllegalArgumentException if <code>max</code> is not positive
+   * @throws IllegalStateException if the bulk insert was already executed
+   */
+  public BulkInsert<T> inflight(int max);
+
+  /**
+   * Sets the number of times a failed idempotent request is retried and the
+   * initial delay between retries which is doubled after each attempt.
+   * Defaults to 3 retries starting with 100 milliseconds.
+   *
+   * @author paouelle
+   *
+   * @param  retries the maximum number of retries (0 disables retries)
+   * @param  delay the initial delay between retries
+   * @param  unit the unit for <code>delay</code>
+   * @return this bulk insert
+   * @throws NullPointerException if <code>unit</code> is <code>null</code>
+   * @throws IllegalArgumentException if <code>retries</code> or
+   *         <code>delay</code> is negative
+   * @throws IllegalStateException if the bulk insert was already executed
+   */
+  public BulkInsert<T> retries(int retries, long delay, TimeUnit unit);
+
+  /**
+   * Registers a listener to be periodically notified of the progress of the
+   * bulk insert. The listener is called from the thread executing the bulk
+   * insert and is always called a last time once completed.
+   *
+   * @author paouelle
+   *
+   * @param  listener the listener to notify
+   * @param  interval the minimum interval between notifications
+   * @param  unit the unit for <code>interval</code>
+   * @return this bulk insert
+   * @throws NullPointerException if <code>listener</code> or <code>unit</code>
+   *         is <code>null</code>
+   * @throws IllegalArgumentException if <code>interval</code> is negative
+   * @throws IllegalStateException if the bulk insert was already executed
+   */
+  public BulkInsert<T> progress(
+    Consumer<? super Progress> listener, long interval, TimeUnit unit
+  );
+
+  /**
+   * Gets a snapshot of the current progress of this bulk insert.
+   *
+   * @author paouelle
+   *
+   * @return a non-<code>null</code> snapshot of the current progress
+   */
+  public Progress getProgress();
+
+  /**
+   * Executes this bulk insert, blocking until all POJOs have been inserted.
+   *
+   * @author paouelle
+   *
+   * @return the final progress
+   * @throws IllegalStateException if the bulk insert was already executed
+   * @throws com.datastax.driver.core.exceptions.DriverException if a request
+   *         failed and could not be retried
+   */
+  public Progress execute();
+
+  /**
+   * Executes this bulk insert asynchronously. The POJOs are pulled from the
+   * source using a thread from the statement manager's pool.
+   *
+   * @author paouelle
+   *
+   * @return a future for the final progress
+   * @throws IllegalStateException if the bulk insert was already executed
+   */
+  public ListenableFuture<Progress> executeAsync();
+
+  /**
+   * The <code>Progress</code> interface provides a snapshot of the progress of
+   * a bulk insert.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 12, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  public interface Progress {
+    /**
+     * Gets the number of POJOs pulled from the source so far.
+     *
+     * @author paouelle
+     *
+     * @return the number of POJOs pulled from the source
+     */
+    public long getObjects();
+
+    /**
+     * Gets the number of insert statements built so far.
+     *
+     * @author paouelle
+     *
+     * @return the number of insert statements built
+     */
+    public long getStatements();
+
+    /**
+     * Gets the number of insert statements successfully executed so far.
+     *
+     * @author paouelle
+     *
+     * @return the number of insert statements successfully executed
+     */
+    public long getCompleted();
+
+    /**
+     * Gets the number of insert statements which failed and were not retried.
+     *
+     * @author paouelle
+     *
+     * @return the number of insert statements which failed
+     */
+    public long getFailed();
+
+    /**
+     * Gets the number of requests (single statements or batches) sent so far
+     * excluding retries.
+     *
+     * @author paouelle
+     *
+     * @return the number of requests sent
+     */
+    public long getRequests();
+
+    /**
+     * Gets the number of requests which were retried.
+     *
+     * @author paouelle
+     *
+     * @return the number of retries
+     */
+    public long getRetries();
+
+    /**
+     * Gets the number of requests currently in flight or waiting to be
+     * retried.
+     *
+     * @author paouelle
+     *
+     * @return the number of requests in flight
+     */
+    public int getInflight();
+
+    /**
+     * Gets the time elapsed since the bulk insert started.
+     *
+     * @author paouelle
+     *
+     * @param  unit the unit in which to report the elapsed time
+     * @return the elapsed time in the given unit
+     */
+    public long getElapsed(TimeUnit unit);
+
+    /**
+     * Gets the throughput in statements successfully executed per second.
+     *
+     * @author paouelle
+     *
+     * @return the throughput in statements per second
+     */
+    public double getThroughput();
+
+    /**
+     * Checks if the bulk insert is done.
+     *
+     * @author paouelle
+     *
+     * @return <code>true</code> if the bulk insert is done; <code>false</code>
+     *         otherwise
+     */
+    public boolean isDone();
+  }
+}
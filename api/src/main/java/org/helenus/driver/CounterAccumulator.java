@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The <code>CounterAccumulator</code> interface defines support for summing
+ * counter increments and decrements in memory before they are written to
+ * Cassandra. Deltas are accumulated per keyspace, table, primary key, and
+ * counter column in striped cells such that concurrent increments of the same
+ * counter do not contend. The accumulated deltas are flushed periodically as
+ * counter batches grouped by partition; these batches never include
+ * non-counter statements.
+ * <p>
+ * Only counter assignments created with {@link StatementBuilder#incr} or
+ * {@link StatementBuilder#decr} with actual values are supported.
+ * <p>
+ * <i>Note:</i> Deltas are only written once flushed. Failures from a
+ * background flush are reported by the next explicit call to {@link #flush}
+ * or {@link #close}. Since counter updates are not idempotent, failed batches
+ * are not retried.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 15, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public interface CounterAccumulator extends AutoCloseable {
+  /**
+   * Sets the interval at which accumulated deltas are flushed. Defaults to 1
+   * second.
+   *
+   * @author paouelle
+   *
+   * @param  interval the flush interval or 0 to only flush based on staleness
+   *         or explicitly
+   * @param  unit the unit for the interval
+   * @return this counter accumulator
+   * @throws NullPointerException if <code>unit</code> is <code>null</code>
+   * @throws IllegalArgumentException if <code>interval</code> is negative
+   * @throws IllegalStateException if the counter accumulator was closed
+   */
+  public CounterAccumulator flushEvery(long interval, TimeUnit unit);
+
+  /**
+   * Sets the maximum amount of time a delta can stay pending. A flush is
+   * triggered as soon as a delta is recorded while the oldest pending one is
+   * older than this. This bounds the staleness of hot counters regardless of
+   * the flush interval. Disabled by default.
+   *
+   * @author paouelle
+   *
+   * @param  staleness the maximum staleness or 0 to disable
+   * @param  unit the unit for the staleness
+   * @return this counter accumulator
+   * @throws NullPointerException if <code>unit</code> is <code>null</code>
+   * @throws IllegalArgumentException if <code>staleness</code> is negative
+   * @throws IllegalStateException if the counter accumulator was closed
+   */
+  public CounterAccumulator maxStaleness(long staleness, TimeUnit unit);
+
+  /**
+   * Sets the maximum number of counter updates grouped together in a counter
+   * batch when they belong to the same partition. Defaults to 20.
+   *
+   * @author paouelle
+   *
+   * @param  size the maximum number of updates per batch (1 disables batching)
+   * @return this counter accumulator
+   * @throws IllegalArgumentException if <code>size</code> is not positive
+   * @throws IllegalStateException if the counter accumulator was closed
+   */
+  public CounterAccumulator batchSize(int size);
+
+  /**
+   * Accumulates the specified counter increments and decrements for the row
+   * identified by the primary key of the specified POJO in all tables defined
+   * by its class which define the counter columns.
+   *
+   * @author paouelle
+   *
+   * @param <T> The type of POJO to update
+   *
+   * @param  object the POJO identifying the row to update
+   * @param  assignments the counter assignments to accumulate
+   * @return this counter accumulator
+   * @throws NullPointerException if <code>object</code> or any of the
+   *         assignments are <code>null</code>
+   * @throws IllegalArgumentException if the POJO is invalid or if any of the
+   *         assignments are not counter increments or decrements with a value
+   * @throws IllegalStateException if the counter accumulator was closed
+   */
+  public <T> CounterAccumulator update(T object, Assignment... assignments);
+
+  /**
+   * Gets the number of rows with pending deltas.
+   *
+   * @author paouelle
+   *
+   * @return the number of pending rows
+   */
+  public int getPending();
+
+  /**
+   * Writes all accumulated deltas and waits for them to complete.
+   *
+   * @author paouelle
+   *
+   * @throws com.datastax.driver.core.exceptions.NoHostAvailableException if
+   *         no host in the cluster can be contacted successfully to execute
+   *         the statements
+   * @throws com.datastax.driver.core.exceptions.QueryExecutionException if
+   *         a statement triggered an execution exception, i.e. an exception
+   *         thrown by Cassandra when it cannot execute the query with the
+   *         requested consistency level successfully
+   * @throws com.datastax.driver.core.exceptions.QueryValidationException if
+   *         a statement is invalid (syntax error, unauthorized or any other
+   *         validation problem)
+   */
+  public void flush();
+
+  /**
+   * Stops the periodic flush, writes all accumulated deltas, and waits for
+   * them to complete. No more deltas can be accumulated afterward.
+   *
+   * @author paouelle
+   *
+   * @throws com.datastax.driver.core.exceptions.NoHostAvailableException if
+   *         no host in the cluster can be contacted successfully to execute
+   *         the statements
+   * @throws com.datastax.driver.core.exceptions.QueryExecutionException if
+   *         a statement triggered an execution exception, i.e. an exception
+   *         thrown by Cassandra when it cannot execute the query with the
+   *         requested consistency level successfully
+   * @throws com.datastax.driver.core.exceptions.QueryValidationException if
+   *         a statement is invalid (syntax error, unauthorized or any other
+   *         validation problem)
+   *
+   * @see java.lang.AutoCloseable#close()
+   */
+  @Override
+  public void close();
+}
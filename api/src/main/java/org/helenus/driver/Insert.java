@@ -170,6 +170,22 @@ public interface Insert<T>
    */
   public Insert<T> ifNotExists();
 
+  /**
+   * Omits non-mandatory columns extracted from the POJO with <code>null</code>
+   * values from this INSERT statement instead of inserting them as
+   * <code>null</code>, which would generate tombstones. Primary key and mandatory
+   * columns are still validated and values specifically provided with
+   * {@link #value(String, Object)} are always inserted.
+   * <p>
+   * <i>Note:</i> This is automatically the case for POJOs annotated with
+   * {@link org.helenus.driver.persistence.OmitNulls}.
+   *
+   * @author paouelle
+   *
+   * @return this INSERT statement.
+   */
+  public Insert<T> omitNulls();
+
   /**
    * The <code>Builder</code> interface defines an in-construction INSERT statement.
    *
@@ -18,6 +18,7 @@ package org.helenus.driver;
 import java.lang.reflect.Field;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -1152,6 +1153,82 @@ public final class StatementBuilder {
     return StatementManager.getManager().group(Optional.of(recorder), statements);
   }
 
+  /**
+   * Starts building a new bulk insert of all POJOs provided by the specified
+   * stream.
+   * <p>
+   * <i>Note:</i> Statements are built lazily as POJOs are pulled from the
+   * stream. POJOs read ahead are grouped by partition into unlogged batches
+   * and the number of requests in flight is bounded such that the stream is
+   * only consumed as fast as the cluster can absorb it. The stream is not
+   * closed by the bulk insert.
+   *
+   * @author paouelle
+   *
+   * @param <T> The type of POJO to insert
+   *
+   * @param  objects the stream of POJOs to insert
+   * @return a new {@code BulkInsert} for {@code objects}
+   * @throws NullPointerException if <code>objects</code> is <code>null</code>
+   */
+  public static <T> BulkInsert<T> bulkInsert(Stream<T> objects) {
+    org.apache.commons.lang3.Validate.notNull(objects, "invalid null objects");
+    return StatementManager.getManager().bulkInsert(objects.iterator());
+  }
+
+  /**
+   * Starts building a new bulk insert of all POJOs provided by the specified
+   * iterator.
+   * <p>
+   * <i>Note:</i> Statements are built lazily as POJOs are pulled from the
+   * iterator. POJOs read ahead are grouped by partition into unlogged batches
+   * and the number of requests in flight is bounded such that the iterator is
+   * only consumed as fast as the cluster can absorb it.
+   *
+   * @author paouelle
+   *
+   * @param <T> The type of POJO to insert
+   *
+   * @param  objects the iterator of POJOs to insert
+   * @return a new {@code BulkInsert} for {@code objects}
+   * @throws NullPointerException if <code>objects</code> is <code>null</code>
+   */
+  public static <T> BulkInsert<T> bulkInsert(Iterator<T> objects) {
+    return StatementManager.getManager().bulkInsert(objects);
+  }
+
+  /**
+   * Creates a new write-behind buffer for coalescing frequent updates to
+   * POJOs. Successive updates to the same rows are merged together and
+   * flushed periodically as unlogged batches grouped by partition.
+   * <p>
+   * <i>Note:</i> The returned buffer should be closed in order to write any
+   * remaining updates and to stop its periodic flush.
+   *
+   * @author paouelle
+   *
+   * @return a new {@code WriteBehind} buffer
+   */
+  public static WriteBehind writeBehind() {
+    return StatementManager.getManager().writeBehind();
+  }
+
+  /**
+   * Creates a new accumulator for aggregating counter increments and
+   * decrements in memory. Accumulated deltas are flushed periodically as
+   * counter batches grouped by partition.
+   * <p>
+   * <i>Note:</i> The returned accumulator should be closed in order to write
+   * any remaining deltas and to stop its periodic flush.
+   *
+   * @author paouelle
+   *
+   * @return a new {@code CounterAccumulator}
+   */
+  public static CounterAccumulator counterAccumulator() {
+    return StatementManager.getManager().counterAccumulator();
+  }
+
   /**
    * Quotes a column name to make it case sensitive.
    *
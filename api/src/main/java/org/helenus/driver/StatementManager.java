@@ -18,6 +18,7 @@ package org.helenus.driver;
 import java.lang.reflect.Field;
 
 import java.util.Collection;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
@@ -909,6 +910,39 @@ public abstract class StatementManager {
     Optional<Recorder> recorder, Iterable<GroupableStatement<?, ?>> statements
   );
 
+  /**
+   * Starts building a new bulk insert of all POJOs provided by the specified
+   * iterator. Statements are built lazily as POJOs are pulled from the
+   * iterator.
+   *
+   * @author paouelle
+   *
+   * @param <T> The type of POJO to insert
+   *
+   * @param  objects the iterator of POJOs to insert
+   * @return a new {@code BulkInsert} for {@code objects}
+   * @throws NullPointerException if <code>objects</code> is <code>null</code>
+   */
+  protected abstract <T> BulkInsert<T> bulkInsert(Iterator<T> objects);
+
+  /**
+   * Creates a new write-behind buffer for coalescing updates to POJOs.
+   *
+   * @author paouelle
+   *
+   * @return a new {@code WriteBehind} buffer
+   */
+  protected abstract WriteBehind writeBehind();
+
+  /**
+   * Creates a new accumulator for aggregating counter increments.
+   *
+   * @author paouelle
+   *
+   * @return a new {@code CounterAccumulator}
+   */
+  protected abstract CounterAccumulator counterAccumulator();
+
   /**
    * Quotes a column name to make it case sensitive.
    *
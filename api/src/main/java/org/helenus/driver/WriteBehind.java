@@ -0,0 +1,178 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The <code>WriteBehind</code> interface defines support for coalescing
+ * frequent updates to the same POJOs before they are written to Cassandra.
+ * Pending updates are kept per keyspace, table, and primary key. Successive
+ * updates to the same row are merged such that the last value assigned to a
+ * column wins while collection operations (adding/removing elements to/from a
+ * set, putting mappings into a map, prepending/appending elements to a list)
+ * are combined into a single operation. Pending rows are then flushed
+ * periodically or once too many of them are pending as unlogged batches
+ * grouped by partition.
+ * <p>
+ * Updates are captured at the time they are submitted such that POJOs can be
+ * further modified afterward without affecting pending updates. Operations
+ * that cannot be combined with a pending one for the same column (e.g.
+ * discarding elements from a list after having appended to it) will cause the
+ * pending row to be written right away before the new operation is recorded.
+ * <p>
+ * <i>Note:</i> Updates are only written once flushed. Failures from a
+ * background flush are reported by the next explicit call to {@link #flush}
+ * or {@link #close}. Counter columns and assignments that change primary key
+ * columns are not supported.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 14, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public interface WriteBehind extends AutoCloseable {
+  /**
+   * Sets the maximum amount of time an update stays pending before being
+   * flushed. Defaults to 1 second.
+   *
+   * @author paouelle
+   *
+   * @param  delay the maximum delay or 0 to only flush based on size or
+   *         explicitly
+   * @param  unit the unit for the delay
+   * @return this write-behind buffer
+   * @throws NullPointerException if <code>unit</code> is <code>null</code>
+   * @throws IllegalArgumentException if <code>delay</code> is negative
+   * @throws IllegalStateException if the write-behind buffer was closed
+   */
+  public WriteBehind flushEvery(long delay, TimeUnit unit);
+
+  /**
+   * Sets the number of pending rows after which a flush is automatically
+   * triggered. Defaults to 1000.
+   *
+   * @author paouelle
+   *
+   * @param  rows the number of pending rows triggering a flush
+   * @return this write-behind buffer
+   * @throws IllegalArgumentException if <code>rows</code> is not positive
+   * @throws IllegalStateException if the write-behind buffer was closed
+   */
+  public WriteBehind flushAt(int rows);
+
+  /**
+   * Sets the maximum number of rows grouped together in an unlogged batch when
+   * they belong to the same partition. Defaults to 20.
+   *
+   * @author paouelle
+   *
+   * @param  size the maximum number of rows per batch (1 disables batching)
+   * @return this write-behind buffer
+   * @throws IllegalArgumentException if <code>size</code> is not positive
+   * @throws IllegalStateException if the write-behind buffer was closed
+   */
+  public WriteBehind batchSize(int size);
+
+  /**
+   * Records an update of all non primary key columns of the specified POJO in
+   * all tables defined by its class.
+   *
+   * @author paouelle
+   *
+   * @param <T> The type of POJO to update
+   *
+   * @param  object the POJO to update
+   * @return this write-behind buffer
+   * @throws NullPointerException if <code>object</code> is <code>null</code>
+   * @throws IllegalArgumentException if the POJO is invalid or defines
+   *         counter columns
+   * @throws IllegalStateException if the write-behind buffer was closed
+   */
+  public <T> WriteBehind update(T object);
+
+  /**
+   * Records the specified assignments for the row identified by the primary
+   * key of the specified POJO in all tables defined by its class which define
+   * the assigned columns.
+   *
+   * @author paouelle
+   *
+   * @param <T> The type of POJO to update
+   *
+   * @param  object the POJO identifying the row to update
+   * @param  assignments the assignments to record
+   * @return this write-behind buffer
+   * @throws NullPointerException if <code>object</code> or any of the
+   *         assignments are <code>null</code>
+   * @throws IllegalArgumentException if the POJO is invalid or if any of the
+   *         assignments are not supported (counters, primary keys, bind
+   *         markers)
+   * @throws IllegalStateException if the write-behind buffer was closed
+   */
+  public <T> WriteBehind update(T object, Assignment... assignments);
+
+  /**
+   * Gets the number of rows currently pending.
+   *
+   * @author paouelle
+   *
+   * @return the number of pending rows
+   */
+  public int getPending();
+
+  /**
+   * Writes all pending rows and waits for them to complete.
+   *
+   * @author paouelle
+   *
+   * @throws com.datastax.driver.core.exceptions.NoHostAvailableException if
+   *         no host in the cluster can be contacted successfully to execute
+   *         the statements
+   * @throws com.datastax.driver.core.exceptions.QueryExecutionException if
+   *         a statement triggered an execution exception, i.e. an exception
+   *         thrown by Cassandra when it cannot execute the query with the
+   *         requested consistency level successfully
+   * @throws com.datastax.driver.core.exceptions.QueryValidationException if
+   *         a statement is invalid (syntax error, unauthorized or any other
+   *         validation problem)
+   */
+  public void flush();
+
+  /**
+   * Stops the periodic flush, writes all pending rows, and waits for them to
+   * complete. No more updates can be recorded afterward.
+   *
+   * @author paouelle
+   *
+   * @throws com.datastax.driver.core.exceptions.NoHostAvailableException if
+   *         no host in the cluster can be contacted successfully to execute
+   *         the statements
+   * @throws com.datastax.driver.core.exceptions.QueryExecutionException if
+   *         a statement triggered an execution exception, i.e. an exception
+   *         thrown by Cassandra when it cannot execute the query with the
+   *         requested consistency level successfully
+   * @throws com.datastax.driver.core.exceptions.QueryValidationException if
+   *         a statement is invalid (syntax error, unauthorized or any other
+   *         validation problem)
+   *
+   * @see java.lang.AutoCloseable#close()
+   */
+  @Override
+  public void close();
+}
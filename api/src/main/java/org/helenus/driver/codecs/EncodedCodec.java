@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.codecs;
+
+import java.io.Serializable;
+
+import java.nio.ByteBuffer;
+
+import org.apache.commons.lang3.SerializationException;
+import org.apache.commons.lang3.StringUtils;
+
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.TypeCodec;
+import com.datastax.driver.core.exceptions.InvalidTypeException;
+import com.datastax.driver.core.utils.Bytes;
+
+import org.helenus.commons.lang3.CompressionCodec;
+import org.helenus.commons.lang3.SerializationCodec;
+import org.helenus.commons.lang3.SerializationUtils;
+
+/**
+ * The <code>EncodedCodec</code> class provides an implementation for a codec
+ * capable of encoding objects into blobs using a given serialization format
+ * and compression algorithm.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @param <T> the type of objects to encode
+ *
+ * @since 3.0
+ *
+ * @see org.helenus.driver.persistence.Encoded
+ */
+public class EncodedCodec<T> extends TypeCodec<T> {
+  /**
+   * Holds the serialization format to use when encoding.
+   *
+   * @author paouelle
+   */
+  private final SerializationCodec serialization;
+
+  /**
+   * Holds the compression algorithm to use when encoding.
+   *
+   * @author paouelle
+   */
+  private final CompressionCodec compression;
+
+  /**
+   * Instantiates a new <code>EncodedCodec</code> object.
+   *
+   * @author paouelle
+   *
+   * @param  clazz the class of objects to encode
+   * @param  serialization the serialization format to use when encoding
+   * @param  compression the compression algorithm to use when encoding
+   * @throws NullPointerException if <code>clazz</code>, <code>serialization</code>,
+   *         or <code>compression</code> is <code>null</code>
+   */
+  public EncodedCodec(
+    Class<T> clazz, SerializationCodec serialization, CompressionCodec compression
+  ) {
+    super(com.datastax.driver.core.DataType.blob(), clazz);
+    org.apache.commons.lang3.Validate.notNull(serialization, "invalid null serialization");
+    org.apache.commons.lang3.Validate.notNull(compression, "invalid null compression");
+    this.serialization = serialization;
+    this.compression = compression;
+  }
+
+  /**
+   * Encodes the specified value.
+   *
+   * @author paouelle
+   *
+   * @param  value the non-<code>null</code> value to encode
+   * @return the corresponding blob
+   * @throws InvalidTypeException if unable to encode the value
+   */
+  private byte[] encode(T value) {
+    if (!(value instanceof Serializable)) {
+      throw new InvalidTypeException(
+        "unable to encode non-serializable value of class: "
+        + value.getClass().getName()
+      );
+    }
+    try {
+      return SerializationUtils.encode((Serializable)value, serialization, compression);
+    } catch (SerializationException e) {
+      throw new InvalidTypeException("unable to encode value: " + value, e);
+    }
+  }
+
+  /**
+   * Decodes the specified blob.
+   *
+   * @author paouelle
+   *
+   * @param  bytes the non-<code>null</code> blob to decode
+   * @return the corresponding value
+   * @throws InvalidTypeException if unable to decode the blob or if it does not
+   *         represent a value of the expected class
+   */
+  @SuppressWarnings("unchecked")
+  private T decode(ByteBuffer bytes) {
+    final Object value;
+
+    try {
+      value = SerializationUtils.decode(bytes);
+    } catch (SerializationException e) {
+      throw new InvalidTypeException("unable to decode blob", e);
+    }
+    if ((value != null) && !getJavaType().getRawType().isInstance(value)) {
+      throw new InvalidTypeException(
+        "invalid decoded value; expecting class '"
+        + getJavaType().getRawType().getName()
+        + "' but found '"
+        + value.getClass().getName()
+        + "'"
+      );
+    }
+    return (T)value;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.TypeCodec#parse(java.lang.String)
+   */
+  @Override
+  public T parse(String value) {
+    if (StringUtils.isEmpty(value) || value.equalsIgnoreCase("NULL")) {
+      return null;
+    }
+    if ((value.length() & 1) == 1) {
+      throw new InvalidTypeException(
+        "a CQL blob string must have an even length (since one byte is always 2 hexadecimal character)"
+      );
+    }
+    if ((value.charAt(0) != '0') || (value.charAt(1) != 'x')) {
+      throw new InvalidTypeException("a CQL blob string must start with \"0x\"");
+    }
+    return decode(ByteBuffer.wrap(Bytes.fromRawHexString(value, 2)));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.TypeCodec#format(java.lang.Object)
+   */
+  @Override
+  public String format(T value) {
+    if (value == null) {
+      return "NULL";
+    }
+    return Bytes.toHexString(encode(value));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.TypeCodec#serialize(java.lang.Object, com.datastax.driver.core.ProtocolVersion)
+   */
+  @Override
+  public ByteBuffer serialize(T value, ProtocolVersion protocolVersion) {
+    return (value == null) ? null : ByteBuffer.wrap(encode(value));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.TypeCodec#deserialize(java.nio.ByteBuffer, com.datastax.driver.core.ProtocolVersion)
+   */
+  @Override
+  public T deserialize(ByteBuffer bytes, ProtocolVersion protocolVersion) {
+    if ((bytes == null) || !bytes.hasRemaining()) {
+      return null;
+    }
+    return decode(bytes); // decode directly from the buffer without copying
+  }
+}
@@ -58,6 +58,33 @@ public final class BlobCodecProvider implements CodecProvider {
     return ByteArrayCodec.instance;
   }
 
+  /**
+   * Gets a codec to decode {@link ByteBuffer} objects as writable buffers.
+   *
+   * @author paouelle
+   *
+   * @return a non-<code>null</code> codec to decode {@link ByteBuffer} objects
+   */
+  @SuppressWarnings("synthetic-access")
+  public static TypeCodec<ByteBuffer> bytebuffer() {
+    return ByteBufferCodec.instance;
+  }
+
+  /**
+   * Gets a codec to decode {@link ByteBuffer} objects as read-only views of the
+   * received data without copying it.
+   *
+   * @author paouelle
+   *
+   * @return a non-<code>null</code> codec to decode {@link ByteBuffer} objects
+   *
+   * @see org.helenus.driver.persistence.ReadOnlyBlob
+   */
+  @SuppressWarnings("synthetic-access")
+  public static TypeCodec<ByteBuffer> readonlybytebuffer() {
+    return ByteBufferCodec.readonly;
+  }
+
   /**
    * Instantiates a new <code>BlobCodecProvider</code> object.
    *
@@ -79,7 +106,7 @@ public final class BlobCodecProvider implements CodecProvider {
     if (clazz.isArray() && (Byte.TYPE == clazz.getComponentType())) {
       return (TypeCodec<T>)BlobCodecProvider.bytearray();
     } else if (ByteBuffer.class.isAssignableFrom(clazz)) {
-      return (TypeCodec<T>)TypeCodec.blob();
+      return (TypeCodec<T>)BlobCodecProvider.bytebuffer();
     }
     throw new CodecNotFoundException(
       "unsupported Helenus codec from '"
@@ -181,10 +208,124 @@ public final class BlobCodecProvider implements CodecProvider {
       if (bytes == null) {
         return null;
       }
+      // always copy as the backing array is shared with the received row
       final byte[] bs = new byte[bytes.remaining()];
 
-      bytes.get(bs);
+      bytes.duplicate().get(bs);
       return bs;
     }
   }
+
+  /**
+   * The <code>ByteBufferCodec</code> class provides an implementation for a
+   * codec capable of handling {@link ByteBuffer} objects. Decoded buffers
+   * share the content of the received data and are either writable duplicates
+   * or read-only views of it.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author The Helenus Driver Project Authors
+   * @version 1 - Feb 18, 2017 - paouelle - Creation
+   *
+   * @since 3.0
+   */
+  private static class ByteBufferCodec extends TypeCodec<ByteBuffer> {
+    /**
+     * Holds the instance for this codec.
+     *
+     * @author paouelle
+     */
+    private final static TypeCodec<ByteBuffer> instance = new ByteBufferCodec(false);
+
+    /**
+     * Holds the read-only instance for this codec.
+     *
+     * @author paouelle
+     */
+    private final static TypeCodec<ByteBuffer> readonly = new ByteBufferCodec(true);
+
+    /**
+     * Flag indicating if decoded buffers are read-only views.
+     *
+     * @author paouelle
+     */
+    private final boolean isReadOnly;
+
+    /**
+     * Instantiates a new <code>ByteBufferCodec</code> object.
+     *
+     * @author paouelle
+     *
+     * @param isReadOnly <code>true</code> if decoded buffers should be
+     *        read-only views; <code>false</code> for writable duplicates
+     */
+    private ByteBufferCodec(boolean isReadOnly) {
+      super(com.datastax.driver.core.DataType.blob(), ByteBuffer.class);
+      this.isReadOnly = isReadOnly;
+    }
+
+    /**
+     * Gets a view of the specified buffer as decoded by this codec.
+     *
+     * @author paouelle
+     *
+     * @param  bb the buffer to view
+     * @return a read-only view or a duplicate of <code>bb</code> or
+     *         <code>null</code> if <code>bb</code> is <code>null</code>
+     */
+    private ByteBuffer view(ByteBuffer bb) {
+      if (bb == null) {
+        return null;
+      }
+      return isReadOnly ? bb.asReadOnlyBuffer() : bb.duplicate();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see com.datastax.driver.core.TypeCodec#parse(java.lang.String)
+     */
+    @Override
+    public ByteBuffer parse(String value) {
+      return view(TypeCodec.blob().parse(value));
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see com.datastax.driver.core.TypeCodec#format(java.lang.Object)
+     */
+    @Override
+    public String format(ByteBuffer value) {
+      return TypeCodec.blob().format(value);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see com.datastax.driver.core.TypeCodec#serialize(java.lang.Object, com.datastax.driver.core.ProtocolVersion)
+     */
+    @Override
+    public ByteBuffer serialize(ByteBuffer value, ProtocolVersion protocolVersion) {
+      return (value == null) ? null : value.duplicate();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see com.datastax.driver.core.TypeCodec#deserialize(java.nio.ByteBuffer, com.datastax.driver.core.ProtocolVersion)
+     */
+    @Override
+    public ByteBuffer deserialize(ByteBuffer bytes, ProtocolVersion protocolVersion) {
+      return view(bytes);
+    }
+  }
 }
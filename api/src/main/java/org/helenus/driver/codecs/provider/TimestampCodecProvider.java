@@ -23,6 +23,7 @@ import java.time.Instant;
 import com.datastax.driver.core.ProtocolVersion;
 import com.datastax.driver.core.TypeCodec;
 import com.datastax.driver.core.exceptions.CodecNotFoundException;
+import com.datastax.driver.core.exceptions.InvalidTypeException;
 import com.google.common.reflect.TypeToken;
 
 import org.helenus.driver.persistence.DataType;
@@ -107,7 +108,9 @@ public final class TimestampCodecProvider implements CodecProvider {
 
   /**
    * The <code>LongCodec</code> class defines a type codec for {@link Long}
-   * objects.
+   * objects. Values are encoded directly as the number of milliseconds since
+   * the epoch without going through {@link Date} and without boxing when used
+   * with primitive <code>long</code> values.
    *
    * @copyright 2015-2017 The Helenus Driver Project Authors
    *
@@ -116,7 +119,7 @@ public final class TimestampCodecProvider implements CodecProvider {
    *
    * @since 3.0
    */
-  private static class LongCodec extends TypeCodec<Long> {
+  private static class LongCodec extends TypeCodec.PrimitiveLongCodec {
     /**
      * Holds the instance for this codec.
      *
@@ -125,7 +128,7 @@ public final class TimestampCodecProvider implements CodecProvider {
     private static LongCodec instance = new LongCodec();
 
     /**
-     * Holds the internal codec used to decode.
+     * Holds the internal codec used to parse and format.
      *
      * @author paouelle
      */
@@ -137,7 +140,7 @@ public final class TimestampCodecProvider implements CodecProvider {
      * @author paouelle
      */
     private LongCodec() {
-      super(com.datastax.driver.core.DataType.timestamp(), Long.class);
+      super(com.datastax.driver.core.DataType.timestamp());
     }
 
     /**
@@ -171,11 +174,14 @@ public final class TimestampCodecProvider implements CodecProvider {
      *
      * @author paouelle
      *
-     * @see com.datastax.driver.core.TypeCodec#serialize(java.lang.Object, com.datastax.driver.core.ProtocolVersion)
+     * @see com.datastax.driver.core.TypeCodec.PrimitiveLongCodec#serializeNoBoxing(long, com.datastax.driver.core.ProtocolVersion)
      */
     @Override
-    public ByteBuffer serialize(Long value, ProtocolVersion protocolVersion) {
-      return LongCodec.icodec.serialize((value != null) ? new Date(value) : null, protocolVersion);
+    public ByteBuffer serializeNoBoxing(long value, ProtocolVersion protocolVersion) {
+      final ByteBuffer bb = ByteBuffer.allocate(8);
+
+      bb.putLong(0, value);
+      return bb;
     }
 
     /**
@@ -183,13 +189,20 @@ public final class TimestampCodecProvider implements CodecProvider {
      *
      * @author paouelle
      *
-     * @see com.datastax.driver.core.TypeCodec#deserialize(java.nio.ByteBuffer, com.datastax.driver.core.ProtocolVersion)
+     * @see com.datastax.driver.core.TypeCodec.PrimitiveLongCodec#deserializeNoBoxing(java.nio.ByteBuffer, com.datastax.driver.core.ProtocolVersion)
      */
     @Override
-    public Long deserialize(ByteBuffer bytes, ProtocolVersion protocolVersion) {
-      final Date date = LongCodec.icodec.deserialize(bytes, protocolVersion);
-
-      return (date != null) ? date.getTime() : null;
+    public long deserializeNoBoxing(ByteBuffer bytes, ProtocolVersion protocolVersion) {
+      if ((bytes == null) || (bytes.remaining() == 0)) {
+        return 0L;
+      }
+      if (bytes.remaining() != 8) {
+        throw new InvalidTypeException(
+          "invalid 64-bits long value, expecting 8 bytes but got "
+          + bytes.remaining()
+        );
+      }
+      return bytes.getLong(bytes.position());
     }
   }
 
@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.persistence;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+import org.helenus.commons.lang3.Compression;
+import org.helenus.commons.lang3.CompressionCodec;
+import org.helenus.commons.lang3.Serialization;
+import org.helenus.commons.lang3.SerializationCodec;
+
+/**
+ * The <code>Encoded</code> annotation can be used to annotate an attribute or
+ * property of an object to indicate it should be persisted as a
+ * {@link DataType#BLOB} column by encoding its value using the specified
+ * serialization format and compression algorithm. Encoded blobs carry a small
+ * header describing how they were encoded such that the format can be changed
+ * later without having to migrate existing data. Blobs compressed with GZIP
+ * via {@link org.helenus.commons.lang3.SerializationUtils#serializeAndCompress}
+ * remain readable.
+ * <p>
+ * The built-in formats and algorithms are selected with {@link #serialization}
+ * and {@link #compression}. Custom ones registered with the
+ * {@link org.helenus.commons.lang3.EncodingRegistry} (e.g. via
+ * {@link java.util.ServiceLoader}) are selected with
+ * {@link #serializationCodec} and {@link #compressionCodec} which take
+ * precedence when specified.
+ * <p>
+ * <i>Note:</i> The attribute or property must be {@link java.io.Serializable}.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface Encoded {
+  /**
+   * The serialization format to use when encoding values.
+   *
+   * @author paouelle
+   *
+   * @return the serialization format to use when encoding values
+   */
+  Serialization serialization() default Serialization.COMPACT;
+
+  /**
+   * The compression algorithm to use when encoding values.
+   *
+   * @author paouelle
+   *
+   * @return the compression algorithm to use when encoding values
+   */
+  Compression compression() default Compression.LZ4;
+
+  /**
+   * The class of a custom serialization codec to use when encoding values
+   * instead of {@link #serialization}. The codec must be registered with the
+   * {@link org.helenus.commons.lang3.EncodingRegistry}.
+   *
+   * @author paouelle
+   *
+   * @return the class of the custom serialization codec to use or
+   *         {@link SerializationCodec} to use {@link #serialization}
+   */
+  Class<? extends SerializationCodec> serializationCodec() default SerializationCodec.class;
+
+  /**
+   * The class of a custom compression codec to use when encoding values
+   * instead of {@link #compression}. The codec must be registered with the
+   * {@link org.helenus.commons.lang3.EncodingRegistry}.
+   *
+   * @author paouelle
+   *
+   * @return the class of the custom compression codec to use or
+   *         {@link CompressionCodec} to use {@link #compression}
+   */
+  Class<? extends CompressionCodec> compressionCodec() default CompressionCodec.class;
+}
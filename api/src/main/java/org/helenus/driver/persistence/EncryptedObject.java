@@ -20,14 +20,40 @@ import java.io.ObjectInputStream;
 import java.io.ObjectOutputStream;
 import java.io.Serializable;
 
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+
+import org.apache.commons.lang3.SerializationException;
+
+import org.helenus.commons.lang3.Compression;
+import org.helenus.commons.lang3.Serialization;
 import org.helenus.commons.lang3.SerializationUtils;
 
 /**
  * The <code>EncryptedObject</code> class defines a wrapper around an object
  * which provides encryption support when the object is serialized.
  * <p>
+ * The object is first encoded and compressed using
+ * {@link SerializationUtils#encode(Serializable)} and then encrypted using
+ * AES-GCM with a key retrieved from the registered
+ * {@link EncryptionKeyProvider}. The identifier of the key and the random IV
+ * used are stored in front of the encrypted blob such that keys can be
+ * rotated.
+ * <p>
+ * Serializing an object fails until a key provider is registered such that
+ * objects are never silently stored unencrypted. Applications which do not
+ * require encryption must explicitly opt in by registering
+ * {@link EncryptionKeyProvider#UNENCRYPTED} in which case objects are only
+ * encoded and compressed as they were before encryption was supported.
+ * <p>
  * <i>Note:</i> Decryption is lazily performed on-demand when the contained
- * object is accessed for the first time.
+ * object is accessed for the first time. Blobs which were serialized before
+ * encryption was supported or without a key provider are still readable.
  *
  * @copyright 2015-2015 The Helenus Driver Project Authors
  *
@@ -46,6 +72,213 @@ public class EncryptedObject<T extends Serializable> implements Serializable {
    */
   private static final long serialVersionUID = -6109621505397950062L;
 
+  /**
+   * Holds the magic byte prefixing encrypted blobs. It cannot be confused with
+   * the first byte of unencrypted blobs.
+   *
+   * @author paouelle
+   */
+  private final static byte MAGIC = (byte)0xe6;
+
+  /**
+   * Holds the length of the IVs in bytes.
+   *
+   * @author paouelle
+   */
+  private final static int IV_LENGTH = 12;
+
+  /**
+   * Holds the length of the authentication tags in bits.
+   *
+   * @author paouelle
+   */
+  private final static int TAG_LENGTH = 128;
+
+  /**
+   * Holds the per-thread cached ciphers since instantiating a cipher is
+   * expensive.
+   *
+   * @author paouelle
+   */
+  private final static ThreadLocal<Cipher> ciphers = ThreadLocal.withInitial(() -> {
+    try {
+      return Cipher.getInstance("AES/GCM/NoPadding");
+    } catch (GeneralSecurityException e) {
+      throw new IllegalStateException("AES-GCM is not supported", e);
+    }
+  });
+
+  /**
+   * Holds the random generator for IVs.
+   *
+   * @author paouelle
+   */
+  private final static SecureRandom random = new SecureRandom();
+
+  /**
+   * Holds the registered key provider or <code>null</code> if none registered.
+   *
+   * @author paouelle
+   */
+  private static volatile EncryptionKeyProvider provider = null;
+
+  /**
+   * Registers the key provider to use when encrypting and decrypting objects.
+   * Registering {@link EncryptionKeyProvider#UNENCRYPTED} explicitly allows
+   * objects to be serialized without encryption.
+   *
+   * @author paouelle
+   *
+   * @param provider the key provider to use or <code>null</code> to unregister
+   *        the current one such that serializing objects fails
+   */
+  public static void setKeyProvider(EncryptionKeyProvider provider) {
+    EncryptedObject.provider = provider;
+  }
+
+  /**
+   * Gets the registered key provider.
+   *
+   * @author paouelle
+   *
+   * @return the registered key provider or <code>null</code> if none registered
+   */
+  public static EncryptionKeyProvider getKeyProvider() {
+    return EncryptedObject.provider;
+  }
+
+  /**
+   * Encodes and encrypts the specified object. The object is only encoded if
+   * {@link EncryptionKeyProvider#UNENCRYPTED} is registered.
+   *
+   * @author paouelle
+   *
+   * @param  object the non-<code>null</code> object to encrypt
+   * @return the corresponding encrypted blob
+   * @throws IOException if no key provider is registered or if unable to
+   *         encrypt the object
+   */
+  private static byte[] encrypt(Serializable object) throws IOException {
+    final EncryptionKeyProvider provider = EncryptedObject.provider;
+
+    if (provider == null) {
+      throw new IOException(
+        "no encryption key provider registered; register "
+        + "EncryptionKeyProvider.UNENCRYPTED to serialize objects unencrypted"
+      );
+    }
+    if (provider == EncryptionKeyProvider.UNENCRYPTED) {
+      try {
+        return SerializationUtils.encode(object);
+      } catch (SerializationException e) {
+        throw new IOException(e);
+      }
+    }
+    final String id = provider.getCurrentKeyId();
+    final byte[] bid = (id != null) ? id.getBytes(StandardCharsets.UTF_8) : null;
+
+    if ((bid == null) || (bid.length > 255)) {
+      throw new IOException("invalid encryption key identifier: " + id);
+    }
+    final SecretKey key = provider.getKey(id);
+
+    if (key == null) {
+      throw new IOException("unknown encryption key: " + id);
+    }
+    final Cipher cipher = EncryptedObject.ciphers.get();
+    final int hlen = 2 + bid.length;
+    final byte[] iv = new byte[EncryptedObject.IV_LENGTH];
+
+    EncryptedObject.random.nextBytes(iv);
+    try {
+      // compress before encrypting straight from the pooled encoding buffers
+      return SerializationUtils.encode(
+        object,
+        Serialization.COMPACT,
+        Compression.LZ4,
+        (data, off, dlen) -> {
+          try {
+            cipher.init(
+              Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(EncryptedObject.TAG_LENGTH, iv)
+            );
+            // encrypt directly into the blob right after the header and IV
+            final byte[] blob = new byte[
+              hlen + iv.length + cipher.getOutputSize(dlen)
+            ];
+
+            blob[0] = EncryptedObject.MAGIC;
+            blob[1] = (byte)bid.length;
+            System.arraycopy(bid, 0, blob, 2, bid.length);
+            System.arraycopy(iv, 0, blob, hlen, iv.length);
+            cipher.updateAAD(blob, 0, hlen); // authenticate the key identifier
+            final int len = cipher.doFinal(data, off, dlen, blob, hlen + iv.length);
+
+            if (len != blob.length - hlen - iv.length) { // should not happen
+              throw new IOException("unexpected encrypted length: " + len);
+            }
+            return blob;
+          } catch (GeneralSecurityException e) {
+            throw new IOException("unable to encrypt object with key: " + id, e);
+          }
+        }
+      );
+    } catch (SerializationException e) {
+      throw new IOException(e);
+    }
+  }
+
+  /**
+   * Decrypts and decodes the specified blob.
+   *
+   * @author paouelle
+   *
+   * @param  blob the non-<code>null</code> blob to decrypt
+   * @return the corresponding object
+   * @throws IOException if unable to decrypt the blob
+   */
+  private static Object decrypt(byte[] blob) throws IOException {
+    if ((blob.length == 0) || (blob[0] != EncryptedObject.MAGIC)) {
+      // serialized before encryption was supported
+      return SerializationUtils.decode(blob);
+    }
+    final int hlen = (blob.length > 1) ? 2 + (blob[1] & 0xff) : 2;
+
+    if (blob.length < hlen + EncryptedObject.IV_LENGTH) {
+      throw new IOException("corrupted encrypted blob");
+    }
+    final String id = new String(blob, 2, hlen - 2, StandardCharsets.UTF_8);
+    final EncryptionKeyProvider provider = EncryptedObject.provider;
+
+    if ((provider == null) || (provider == EncryptionKeyProvider.UNENCRYPTED)) {
+      throw new IOException(
+        "no encryption key provider registered to decrypt with key: " + id
+      );
+    }
+    final SecretKey key = provider.getKey(id);
+
+    if (key == null) {
+      throw new IOException("unknown encryption key: " + id);
+    }
+    final Cipher cipher = EncryptedObject.ciphers.get();
+    final int off = hlen + EncryptedObject.IV_LENGTH;
+    final byte[] data;
+
+    try {
+      cipher.init(
+        Cipher.DECRYPT_MODE,
+        key,
+        new GCMParameterSpec(
+          EncryptedObject.TAG_LENGTH, blob, hlen, EncryptedObject.IV_LENGTH
+        )
+      );
+      cipher.updateAAD(blob, 0, hlen);
+      data = cipher.doFinal(blob, off, blob.length - off);
+    } catch (GeneralSecurityException e) {
+      throw new IOException("unable to decrypt object with key: " + id, e);
+    }
+    return SerializationUtils.decode(data);
+  }
+
   /**
    * Holds the encrypted object.
    *
@@ -127,8 +360,7 @@ public class EncryptedObject<T extends Serializable> implements Serializable {
    */
   private synchronized void writeObject(ObjectOutputStream out) throws IOException {
     if (!encrypted) {
-      // TODO: encrypt the object
-      this.blob = (object != null) ? SerializationUtils.serializeAndCompress(object) : null;
+      this.blob = (object != null) ? EncryptedObject.encrypt(object) : null;
       this.encrypted = true;
     }
     out.writeObject(blob);
@@ -153,6 +385,7 @@ public class EncryptedObject<T extends Serializable> implements Serializable {
    * @author paouelle
    *
    * @return the decrypted object
+   * @throws SerializationException (runtime) if unable to decrypt the object
    */
   @SuppressWarnings("unchecked")
   public synchronized T getObject() {
@@ -163,8 +396,11 @@ public class EncryptedObject<T extends Serializable> implements Serializable {
       return null;
     }
     // go ahead and decrypt it
-    // TODO: decrypt the object
-    this.object = (blob != null) ? (T)SerializationUtils.decompressAndDeserialize(blob) : null;
+    try {
+      this.object = (blob != null) ? (T)EncryptedObject.decrypt(blob) : null;
+    } catch (IOException e) {
+      throw new SerializationException(e);
+    }
     this.decrypted = true;
     return object;
   }
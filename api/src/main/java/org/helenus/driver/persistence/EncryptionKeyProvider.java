@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.persistence;
+
+import javax.crypto.SecretKey;
+
+/**
+ * The <code>EncryptionKeyProvider</code> interface defines the service used by
+ * {@link EncryptedObject} to retrieve the AES keys used to encrypt and decrypt
+ * objects. Keys are identified such that they can be rotated; new objects are
+ * always encrypted with the current key while existing ones are decrypted with
+ * the key they were originally encrypted with.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ *
+ * @see EncryptedObject#setKeyProvider(EncryptionKeyProvider)
+ */
+public interface EncryptionKeyProvider {
+  /**
+   * Holds the provider to register in order to explicitly allow objects to be
+   * serialized unencrypted as they were before encryption was supported. It
+   * provides no keys. Once a real provider is registered, new blobs get
+   * encrypted while existing ones remain readable.
+   *
+   * @author paouelle
+   */
+  public final static EncryptionKeyProvider UNENCRYPTED = new EncryptionKeyProvider() {
+    @Override
+    public String getCurrentKeyId() {
+      return null;
+    }
+    @Override
+    public SecretKey getKey(String id) {
+      return null;
+    }
+  };
+
+  /**
+   * Gets the identifier of the key to use when encrypting new objects.
+   *
+   * @author paouelle
+   *
+   * @return the non-<code>null</code> identifier for the current key (at most
+   *         255 bytes once encoded in UTF-8)
+   */
+  public String getCurrentKeyId();
+
+  /**
+   * Gets the AES key corresponding to the specified identifier.
+   *
+   * @author paouelle
+   *
+   * @param  id the key identifier
+   * @return the corresponding AES key or <code>null</code> if unknown
+   */
+  public SecretKey getKey(String id);
+}
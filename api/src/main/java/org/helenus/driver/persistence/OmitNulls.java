@@ -0,0 +1,47 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.persistence;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Inherited;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The <code>OmitNulls</code> annotation can be used to annotate an entity to
+ * indicate that its non-mandatory columns should be omitted instead of being
+ * inserted as <code>null</code> when the corresponding attributes or properties
+ * are <code>null</code>. Inserting a <code>null</code> value generates a
+ * tombstone whereas omitting the column simply leaves it untouched.
+ * <p>
+ * <i>Note:</i> Primary key and mandatory columns are still validated as usual.
+ * This is equivalent to using {@link org.helenus.driver.Insert#omitNulls} on
+ * every INSERT statement for the annotated entity.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 17, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+@Target(ElementType.TYPE)
+@Retention(RetentionPolicy.RUNTIME)
+@Inherited
+@Documented
+public @interface OmitNulls {}
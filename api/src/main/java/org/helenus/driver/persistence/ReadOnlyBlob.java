@@ -0,0 +1,44 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.persistence;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * The <code>ReadOnlyBlob</code> annotation can be used to annotate a
+ * {@link java.nio.ByteBuffer} attribute or property persisted as a
+ * {@link DataType#BLOB} column to indicate it should receive a read-only view
+ * of the data received from Cassandra instead of a writable buffer. This
+ * avoids having the received data being modified in place by the POJO.
+ * <p>
+ * <i>Note:</i> Read-only buffers do not expose their backing array so
+ * {@link java.nio.ByteBuffer#array} cannot be used on them.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+@Target(ElementType.FIELD)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface ReadOnlyBlob {}
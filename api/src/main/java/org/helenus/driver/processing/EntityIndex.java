@@ -0,0 +1,653 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.processing;
+
+import java.lang.annotation.Annotation;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+
+import java.net.URL;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.stream.Collectors;
+
+import java.nio.charset.StandardCharsets;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * The <code>EntityIndex</code> class provides access to the compile-time index
+ * generated by the {@link EntityIndexProcessor} for all POJO classes annotated
+ * with one of the entity annotations or with {@link org.helenus.driver.persistence.ObjectCreator}.
+ * <p>
+ * The index is used at startup in place of scanning the classpath and provides
+ * the precomputed column and keyspace key field layouts for each indexed class.
+ * Layouts are only trusted when the class hierarchy and the names and types of
+ * the declared fields still match what was compiled; otherwise callers are
+ * expected to fall back to reflection. Similarly, packages are only considered
+ * covered when every classpath location providing them carries its own index.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public final class EntityIndex {
+  /**
+   * Holds the name of the resource where the index is generated.
+   *
+   * @author paouelle
+   */
+  public final static String RESOURCE = "META-INF/helenus/entities.index";
+
+  /**
+   * Holds the prefix for lines introducing an annotated class.
+   *
+   * @author paouelle
+   */
+  final static String TYPE = "@";
+
+  /**
+   * Holds the keyword for lines recording a class in the hierarchy along with
+   * the fingerprint of its declared fields.
+   *
+   * @author paouelle
+   */
+  final static String CLASS = "class";
+
+  /**
+   * Holds the keyword for lines recording a field annotated as a column.
+   *
+   * @author paouelle
+   */
+  final static String COLUMN = "column";
+
+  /**
+   * Holds the keyword for lines recording a field annotated as a keyspace key.
+   *
+   * @author paouelle
+   */
+  final static String KEYSPACE_KEY = "keyspaceKey";
+
+  /**
+   * Holds the hexadecimal digits used to encode fingerprints.
+   *
+   * @author paouelle
+   */
+  private final static char[] HEX = "0123456789abcdef".toCharArray();
+
+  /**
+   * Holds the indexes already loaded keyed by their class loaders.
+   *
+   * @author paouelle
+   */
+  private final static Map<ClassLoader, EntityIndex> indexes = new WeakHashMap<>(4);
+
+  /**
+   * Gets the index for all resources visible from the specified class loader.
+   *
+   * @author paouelle
+   *
+   * @param  loader the class loader from which to load the index (if
+   *         <code>null</code>, the system class loader is used)
+   * @return the non-<code>null</code> corresponding index (may be empty)
+   * @throws UncheckedIOException if an I/O error occurs while loading the index
+   */
+  public static EntityIndex get(ClassLoader loader) {
+    if (loader == null) {
+      loader = ClassLoader.getSystemClassLoader();
+    }
+    synchronized (EntityIndex.indexes) {
+      EntityIndex index = EntityIndex.indexes.get(loader);
+
+      if (index == null) {
+        index = new EntityIndex(loader);
+        EntityIndex.indexes.put(loader, index);
+      }
+      return index;
+    }
+  }
+
+  /**
+   * Gets the index applicable to the specified class.
+   *
+   * @author paouelle
+   *
+   * @param  clazz the class for which to get the index
+   * @return the non-<code>null</code> corresponding index (may be empty)
+   * @throws UncheckedIOException if an I/O error occurs while loading the index
+   */
+  public static EntityIndex get(Class<?> clazz) {
+    return EntityIndex.get(clazz.getClassLoader());
+  }
+
+  /**
+   * Computes a fingerprint for the specified declared fields independently of
+   * the order in which they are reported.
+   *
+   * @author paouelle
+   *
+   * @param  fields the declared fields each described as "name:type" where
+   *         type is the canonical name of the erased field type
+   * @return the corresponding fingerprint
+   */
+  static String fingerprint(List<String> fields) {
+    final String joined = fields.stream()
+      .sorted()
+      .collect(Collectors.joining(";"));
+    final byte[] digest;
+
+    try {
+      digest = MessageDigest.getInstance("SHA-1").digest(
+        joined.getBytes(StandardCharsets.UTF_8)
+      );
+    } catch (NoSuchAlgorithmException e) { // should not happen
+      throw new IllegalStateException(e);
+    }
+    final char[] hex = new char[16];
+
+    for (int i = 0; i < 8; i++) {
+      hex[i * 2] = EntityIndex.HEX[(digest[i] >> 4) & 0x0f];
+      hex[i * 2 + 1] = EntityIndex.HEX[digest[i] & 0x0f];
+    }
+    return new String(hex);
+  }
+
+  /**
+   * Computes a fingerprint for the non-synthetic fields declared by a given
+   * class. This matches what the annotation processor sees from the source
+   * code.
+   *
+   * @author paouelle
+   *
+   * @param  clazz the class for which to fingerprint the declared fields
+   * @return the corresponding fingerprint
+   */
+  private static String fingerprint(Class<?> clazz) {
+    final List<String> fields = new ArrayList<>(16);
+
+    for (final Field f: clazz.getDeclaredFields()) {
+      if (!f.isSynthetic()) {
+        final String type = f.getType().getCanonicalName();
+
+        fields.add(f.getName() + ':' + ((type != null) ? type : f.getType().getName()));
+      }
+    }
+    return EntityIndex.fingerprint(fields);
+  }
+
+  /**
+   * Gets the root of the classpath location from which the specified resource
+   * was loaded.
+   *
+   * @author paouelle
+   *
+   * @param  url the url of the resource
+   * @param  path the path of the resource relative to its classpath location
+   * @return the root of the classpath location or <code>null</code> if it
+   *         cannot be determined
+   */
+  private static String rootOf(URL url, String path) {
+    String u = url.toExternalForm();
+
+    if (u.endsWith("/")) {
+      u = u.substring(0, u.length() - 1);
+    }
+    return u.endsWith(path) ? u.substring(0, u.length() - path.length()) : null;
+  }
+
+  /**
+   * The <code>Layout</code> class keeps track of the precomputed field layout
+   * for an indexed class.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 18, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  private static final class Layout {
+    /**
+     * Holds the fingerprint of the declared fields for each class in the
+     * hierarchy keyed by their binary names.
+     *
+     * @author paouelle
+     */
+    private final Map<String, String> classes = new HashMap<>(4);
+
+    /**
+     * Holds the declaring class and field names for all fields annotated as
+     * columns in top-down hierarchy order.
+     *
+     * @author paouelle
+     */
+    private final List<String[]> columns = new ArrayList<>(16);
+
+    /**
+     * Holds the declaring class and field names for all fields annotated as
+     * keyspace keys in top-down hierarchy order.
+     *
+     * @author paouelle
+     */
+    private final List<String[]> keyspaceKeys = new ArrayList<>(2);
+
+    /**
+     * Holds the fields last resolved for this layout or <code>null</code> if
+     * not resolved yet.
+     *
+     * @author paouelle
+     */
+    private volatile Resolved resolved = null;
+  }
+
+  /**
+   * The <code>Resolved</code> class keeps track of the fields resolved from a
+   * layout against the actual class hierarchy such that the hierarchy is only
+   * verified once per class.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 18, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  private static final class Resolved {
+    /**
+     * Holds the class for which fields were resolved.
+     *
+     * @author paouelle
+     */
+    private final Class<?> clazz;
+
+    /**
+     * Holds the resolved column fields or <code>null</code> if the class
+     * hierarchy no longer matches the layout.
+     *
+     * @author paouelle
+     */
+    private final List<Field> columns;
+
+    /**
+     * Holds the resolved keyspace key fields or <code>null</code> if the class
+     * hierarchy no longer matches the layout.
+     *
+     * @author paouelle
+     */
+    private final List<Field> keyspaceKeys;
+
+    /**
+     * Instantiates a new <code>Resolved</code> object.
+     *
+     * @author paouelle
+     *
+     * @param clazz the class for which fields were resolved
+     * @param columns the resolved column fields or <code>null</code>
+     * @param keyspaceKeys the resolved keyspace key fields or <code>null</code>
+     */
+    private Resolved(
+      Class<?> clazz, List<Field> columns, List<Field> keyspaceKeys
+    ) {
+      this.clazz = clazz;
+      this.columns = columns;
+      this.keyspaceKeys = keyspaceKeys;
+    }
+  }
+
+  /**
+   * Holds the class loader from which the index was loaded. It is weakly
+   * referenced since indexes are cached keyed by their class loaders.
+   *
+   * @author paouelle
+   */
+  private final WeakReference<ClassLoader> loader;
+
+  /**
+   * Holds the roots of all classpath locations which provided an index.
+   *
+   * @author paouelle
+   */
+  private final Set<String> roots = new HashSet<>(8);
+
+  /**
+   * Holds the binary names of all indexed classes keyed by the fully qualified
+   * names of their annotations.
+   *
+   * @author paouelle
+   */
+  private final Map<String, Set<String>> classes = new HashMap<>(8);
+
+  /**
+   * Holds the layouts for all indexed classes keyed by their binary names.
+   *
+   * @author paouelle
+   */
+  private final Map<String, Layout> layouts = new HashMap<>(64);
+
+  /**
+   * Instantiates a new <code>EntityIndex</code> object.
+   *
+   * @author paouelle
+   *
+   * @param  loader the non-<code>null</code> class loader from which to load
+   *         the index
+   * @throws UncheckedIOException if an I/O error occurs while loading the index
+   */
+  private EntityIndex(ClassLoader loader) {
+    this.loader = new WeakReference<>(loader);
+    try {
+      final Enumeration<URL> urls = loader.getResources(EntityIndex.RESOURCE);
+
+      while (urls.hasMoreElements()) {
+        final URL url = urls.nextElement();
+        final String root = EntityIndex.rootOf(url, EntityIndex.RESOURCE);
+
+        if (root != null) {
+          roots.add(root);
+        }
+        load(url);
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Loads the index from the specified resource.
+   *
+   * @author paouelle
+   *
+   * @param  url the url of the resource to load
+   * @throws IOException if an I/O error occurs while loading the index
+   */
+  private void load(URL url) throws IOException {
+    try (
+      final BufferedReader r = new BufferedReader(
+        new InputStreamReader(url.openStream(), StandardCharsets.UTF_8)
+      );
+    ) {
+      Layout layout = null;
+      String line;
+
+      while ((line = r.readLine()) != null) {
+        line = line.trim();
+        if (line.isEmpty() || line.startsWith("#")) {
+          continue;
+        }
+        final String[] tokens = line.split("\\s+");
+
+        if (line.startsWith(EntityIndex.TYPE) && (tokens.length == 2)) {
+          classes.computeIfAbsent(
+            tokens[0].substring(EntityIndex.TYPE.length()), a -> new LinkedHashSet<>(16)
+          ).add(tokens[1]);
+          layout = new Layout();
+          layouts.put(tokens[1], layout);
+        } else if ((layout != null) && (tokens.length == 3)) {
+          if (EntityIndex.CLASS.equals(tokens[0])) {
+            layout.classes.put(tokens[1], tokens[2]);
+          } else if (EntityIndex.COLUMN.equals(tokens[0])) {
+            layout.columns.add(new String[] { tokens[1], tokens[2] });
+          } else if (EntityIndex.KEYSPACE_KEY.equals(tokens[0])) {
+            layout.keyspaceKeys.add(new String[] { tokens[1], tokens[2] });
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * Checks if this index is empty.
+   *
+   * @author paouelle
+   *
+   * @return <code>true</code> if no classes were indexed; <code>false</code>
+   *         otherwise
+   */
+  public boolean isEmpty() {
+    return layouts.isEmpty();
+  }
+
+  /**
+   * Checks if this index is complete for each of the specified packages. This
+   * is the case when every classpath location (e.g. jar or directory) providing
+   * one of the packages carries its own index such that classes compiled
+   * without the annotation processor are never silently skipped.
+   * <p>
+   * <i>Note:</i> Jars built without directory entries cannot be detected as
+   * providing a package and must therefore carry an index when they define
+   * POJO classes in packages also provided by other locations.
+   *
+   * @author paouelle
+   *
+   * @param  pkgs the packages to check
+   * @return <code>true</code> if the index is complete for all packages;
+   *         <code>false</code> if the classpath should be scanned instead
+   */
+  public boolean covers(String... pkgs) {
+    final ClassLoader loader = this.loader.get();
+
+    if (isEmpty() || (loader == null)) {
+      return false;
+    }
+    for (final String pkg: pkgs) {
+      final String path = pkg.replace('.', '/');
+
+      try {
+        final Enumeration<URL> urls = loader.getResources(path);
+
+        if (!urls.hasMoreElements()) { // cannot tell where it comes from
+          return false;
+        }
+        while (urls.hasMoreElements()) {
+          final String root = EntityIndex.rootOf(urls.nextElement(), path);
+
+          if ((root == null) || !roots.contains(root)) {
+            return false; // this location was not indexed
+          }
+        }
+      } catch (IOException e) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Gets all indexed classes directly annotated with the specified annotation
+   * and defined in one of the specified packages or their sub-packages.
+   *
+   * @author paouelle
+   *
+   * @param  annotation the annotation to search for
+   * @param  pkgs the packages to search in
+   * @return a non-<code>null</code> set of all indexed classes found
+   * @throws IllegalArgumentException if an indexed class cannot be found
+   */
+  public Set<Class<?>> getTypesAnnotatedWith(
+    Class<? extends Annotation> annotation, String... pkgs
+  ) {
+    final Set<String> names = classes.get(annotation.getName());
+
+    if (names == null) {
+      return Collections.emptySet();
+    }
+    final ClassLoader loader = this.loader.get();
+
+    if (loader == null) {
+      throw new IllegalStateException("class loader is no longer available");
+    }
+    final Set<Class<?>> found = new LinkedHashSet<>(names.size() * 3 / 2);
+
+    for (final String name: names) {
+      for (final String pkg: pkgs) {
+        if (name.startsWith(pkg + '.')) {
+          try {
+            found.add(Class.forName(name, false, loader));
+          } catch (ClassNotFoundException e) {
+            throw new IllegalArgumentException(
+              "indexed class not found; recompile: " + name, e
+            );
+          }
+          break;
+        }
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Gets all fields in the class hierarchy annotated as columns in top-down
+   * hierarchy order.
+   *
+   * @author paouelle
+   *
+   * @param  clazz the class for which to get the column fields
+   * @return the list of all column fields or <code>null</code> if the class
+   *         is not indexed or if its index is out of date
+   */
+  public List<Field> getColumnFields(Class<?> clazz) {
+    final Resolved resolved = resolve(clazz);
+
+    return (resolved != null) ? resolved.columns : null;
+  }
+
+  /**
+   * Gets all fields in the class hierarchy annotated as keyspace keys in
+   * top-down hierarchy order.
+   *
+   * @author paouelle
+   *
+   * @param  clazz the class for which to get the keyspace key fields
+   * @return the list of all keyspace key fields or <code>null</code> if the
+   *         class is not indexed or if its index is out of date
+   */
+  public List<Field> getKeyspaceKeyFields(Class<?> clazz) {
+    final Resolved resolved = resolve(clazz);
+
+    return (resolved != null) ? resolved.keyspaceKeys : null;
+  }
+
+  /**
+   * Resolves the layout recorded for the specified class against its actual
+   * class hierarchy. The result is cached such that the hierarchy is only
+   * fingerprinted once per class.
+   *
+   * @author paouelle
+   *
+   * @param  clazz the class for which to resolve fields
+   * @return the resolved fields or <code>null</code> if the class is not
+   *         indexed
+   */
+  private Resolved resolve(Class<?> clazz) {
+    final Layout layout = layouts.get(clazz.getName());
+
+    if (layout == null) {
+      return null;
+    }
+    Resolved resolved = layout.resolved;
+
+    if ((resolved == null) || (resolved.clazz != clazz)) {
+      final boolean valid = verify(clazz, layout);
+
+      resolved = new Resolved(
+        clazz,
+        valid ? resolve(clazz, layout.columns) : null,
+        valid ? resolve(clazz, layout.keyspaceKeys) : null
+      );
+      layout.resolved = resolved;
+    }
+    return resolved;
+  }
+
+  /**
+   * Verifies that the actual class hierarchy still matches the recorded
+   * layout.
+   *
+   * @author paouelle
+   *
+   * @param  clazz the class to verify
+   * @param  layout the layout recorded for the class
+   * @return <code>true</code> if the class hierarchy matches the recorded
+   *         layout; <code>false</code> if it is out of date
+   */
+  private static boolean verify(Class<?> clazz, Layout layout) {
+    int n = 0;
+
+    for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+      final String fp = layout.classes.get(c.getName());
+
+      if (fp != null) {
+        if (!fp.equals(EntityIndex.fingerprint(c))) {
+          return false; // out of date
+        }
+        n++;
+      } else if (!c.getName().startsWith("java.")) {
+        return false; // hierarchy has changed since it was indexed
+      }
+    }
+    // make sure the hierarchy has not changed since it was indexed
+    return n == layout.classes.size();
+  }
+
+  /**
+   * Resolves the recorded fields against the verified class hierarchy.
+   *
+   * @author paouelle
+   *
+   * @param  clazz the class for which to resolve fields
+   * @param  fields the declaring class and field names to resolve
+   * @return the unmodifiable list of all resolved fields or <code>null</code>
+   *         if a field can no longer be found
+   */
+  private static List<Field> resolve(Class<?> clazz, List<String[]> fields) {
+    final List<Field> resolved = new ArrayList<>(fields.size());
+
+    for (final String[] f: fields) {
+      Class<?> c = clazz;
+
+      while ((c != null) && !c.getName().equals(f[0])) {
+        c = c.getSuperclass();
+      }
+      if (c == null) {
+        return null;
+      }
+      try {
+        resolved.add(c.getDeclaredField(f[1]));
+      } catch (NoSuchFieldException e) {
+        return null; // out of date
+      }
+    }
+    return Collections.unmodifiableList(resolved);
+  }
+}
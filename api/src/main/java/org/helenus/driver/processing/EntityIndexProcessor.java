@@ -0,0 +1,382 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.processing;
+
+import java.io.BufferedReader;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.NoSuchFileException;
+
+import javax.annotation.processing.AbstractProcessor;
+import javax.annotation.processing.RoundEnvironment;
+import javax.lang.model.SourceVersion;
+import javax.lang.model.element.AnnotationMirror;
+import javax.lang.model.element.Element;
+import javax.lang.model.element.TypeElement;
+import javax.lang.model.element.VariableElement;
+import javax.lang.model.type.DeclaredType;
+import javax.lang.model.type.TypeKind;
+import javax.lang.model.type.TypeMirror;
+import javax.lang.model.util.ElementFilter;
+import javax.tools.Diagnostic;
+import javax.tools.FileObject;
+import javax.tools.StandardLocation;
+
+import org.helenus.driver.persistence.Column;
+import org.helenus.driver.persistence.Columns;
+import org.helenus.driver.persistence.Entity;
+import org.helenus.driver.persistence.KeyspaceKey;
+import org.helenus.driver.persistence.KeyspaceKeys;
+import org.helenus.driver.persistence.ObjectCreator;
+import org.helenus.driver.persistence.RootEntity;
+import org.helenus.driver.persistence.TypeEntity;
+import org.helenus.driver.persistence.UDTEntity;
+import org.helenus.driver.persistence.UDTRootEntity;
+import org.helenus.driver.persistence.UDTTypeEntity;
+
+/**
+ * The <code>EntityIndexProcessor</code> class defines an annotation processor
+ * which generates the {@link EntityIndex#RESOURCE} index of all classes
+ * annotated with one of the entity annotations or with {@link ObjectCreator}
+ * along with the layout of their column and keyspace key fields.
+ * <p>
+ * The processor is automatically registered with the compiler for all modules
+ * depending on the API. When compiling incrementally, entries from a previously
+ * generated index are preserved as long as their classes are still annotated.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class EntityIndexProcessor extends AbstractProcessor {
+  /**
+   * Holds the annotations for which classes are indexed.
+   *
+   * @author paouelle
+   */
+  private final static List<String> ANNOTATIONS = Collections.unmodifiableList(
+    Arrays.asList(
+      Entity.class.getName(),
+      RootEntity.class.getName(),
+      TypeEntity.class.getName(),
+      UDTEntity.class.getName(),
+      UDTRootEntity.class.getName(),
+      UDTTypeEntity.class.getName(),
+      ObjectCreator.class.getName()
+    )
+  );
+
+  /**
+   * Holds the annotations identifying column fields.
+   *
+   * @author paouelle
+   */
+  private final static List<String> COLUMNS = Arrays.asList(
+    Column.class.getCanonicalName(), Columns.class.getCanonicalName()
+  );
+
+  /**
+   * Holds the annotations identifying keyspace key fields.
+   *
+   * @author paouelle
+   */
+  private final static List<String> KEYSPACE_KEYS = Arrays.asList(
+    KeyspaceKey.class.getCanonicalName(), KeyspaceKeys.class.getCanonicalName()
+  );
+
+  /**
+   * Holds all classes indexed so far keyed by their binary names.
+   *
+   * @author paouelle
+   */
+  private final Map<String, TypeElement> types = new TreeMap<>();
+
+  /**
+   * Holds the annotation found so far for all indexed classes keyed by their
+   * binary names.
+   *
+   * @author paouelle
+   */
+  private final Map<String, String> annotations = new TreeMap<>();
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see javax.annotation.processing.AbstractProcessor#getSupportedAnnotationTypes()
+   */
+  @Override
+  public Set<String> getSupportedAnnotationTypes() {
+    return ANNOTATIONS.stream().collect(Collectors.toSet());
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see javax.annotation.processing.AbstractProcessor#getSupportedSourceVersion()
+   */
+  @Override
+  public SourceVersion getSupportedSourceVersion() {
+    return SourceVersion.latestSupported();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see javax.annotation.processing.AbstractProcessor#process(java.util.Set, javax.annotation.processing.RoundEnvironment)
+   */
+  @Override
+  public boolean process(
+    Set<? extends TypeElement> elements, RoundEnvironment env
+  ) {
+    for (final TypeElement a: elements) {
+      for (final Element e: env.getElementsAnnotatedWith(a)) {
+        if (e instanceof TypeElement) {
+          record((TypeElement)e, a.getQualifiedName().toString());
+        }
+      }
+    }
+    if (env.processingOver()) {
+      merge();
+      write();
+    }
+    return false;
+  }
+
+  /**
+   * Records an annotated class to be indexed.
+   *
+   * @author paouelle
+   *
+   * @param type the annotated class
+   * @param annotation the name of the annotation
+   */
+  private void record(TypeElement type, String annotation) {
+    final String name = processingEnv.getElementUtils().getBinaryName(type).toString();
+
+    types.put(name, type);
+    annotations.put(name, annotation);
+  }
+
+  /**
+   * Merges entries from a previously generated index for classes which were
+   * not recompiled but which are still annotated.
+   *
+   * @author paouelle
+   */
+  private void merge() {
+    try {
+      final FileObject fo = processingEnv.getFiler().getResource(
+        StandardLocation.CLASS_OUTPUT, "", EntityIndex.RESOURCE
+      );
+
+      try (
+        final BufferedReader r = new BufferedReader(
+          new InputStreamReader(fo.openInputStream(), StandardCharsets.UTF_8)
+        );
+      ) {
+        String line;
+
+        while ((line = r.readLine()) != null) {
+          if (!line.startsWith(EntityIndex.TYPE)) {
+            continue;
+          }
+          final String[] tokens = line.trim().split("\\s+");
+
+          if ((tokens.length != 2) || annotations.containsKey(tokens[1])) {
+            continue;
+          }
+          final String annotation = tokens[0].substring(EntityIndex.TYPE.length());
+          final TypeElement type = processingEnv.getElementUtils().getTypeElement(
+            tokens[1].replace('$', '.')
+          );
+
+          if ((type != null) && isAnnotatedWith(type, annotation)) {
+            record(type, annotation);
+          }
+        }
+      }
+    } catch (FileNotFoundException|NoSuchFileException e) { // no previous index
+    } catch (IOException|IllegalArgumentException e) { // ignore previous index
+      processingEnv.getMessager().printMessage(
+        Diagnostic.Kind.NOTE,
+        "unable to read previous " + EntityIndex.RESOURCE + ": " + e.getMessage()
+      );
+    }
+  }
+
+  /**
+   * Writes out the index.
+   *
+   * @author paouelle
+   */
+  private void write() {
+    if (types.isEmpty()) {
+      return;
+    }
+    try {
+      final FileObject fo = processingEnv.getFiler().createResource(
+        StandardLocation.CLASS_OUTPUT,
+        "",
+        EntityIndex.RESOURCE,
+        types.values().toArray(new Element[types.size()])
+      );
+
+      try (
+        final PrintWriter w = new PrintWriter(
+          new OutputStreamWriter(fo.openOutputStream(), StandardCharsets.UTF_8)
+        );
+      ) {
+        w.println("# Generated by " + EntityIndexProcessor.class.getName());
+        for (final Map.Entry<String, TypeElement> e: types.entrySet()) {
+          w.println(EntityIndex.TYPE + annotations.get(e.getKey()) + ' ' + e.getKey());
+          writeLayout(w, e.getValue());
+        }
+      }
+    } catch (IOException e) {
+      processingEnv.getMessager().printMessage(
+        Diagnostic.Kind.ERROR,
+        "unable to write " + EntityIndex.RESOURCE + ": " + e.getMessage()
+      );
+    }
+  }
+
+  /**
+   * Writes out the field layout for a given class walking down its class
+   * hierarchy.
+   *
+   * @author paouelle
+   *
+   * @param w the writer where to write out the layout
+   * @param type the class for which to write out the layout
+   */
+  private void writeLayout(PrintWriter w, TypeElement type) {
+    final LinkedList<TypeElement> hierarchy = new LinkedList<>();
+
+    for (TypeElement t = type; t != null; t = superclassOf(t)) {
+      if (t.getQualifiedName().toString().startsWith("java.")) {
+        break;
+      }
+      hierarchy.push(t);
+    }
+    final List<String> columns = new ArrayList<>(16);
+    final List<String> kkeys = new ArrayList<>(2);
+
+    for (final TypeElement t: hierarchy) {
+      final String name = processingEnv.getElementUtils().getBinaryName(t).toString();
+      final List<VariableElement> fields = ElementFilter.fieldsIn(t.getEnclosedElements());
+
+      w.println(
+        EntityIndex.CLASS
+        + ' '
+        + name
+        + ' '
+        + EntityIndex.fingerprint(fields.stream()
+            .map(f -> f.getSimpleName()
+                      + ":"
+                      + processingEnv.getTypeUtils().erasure(f.asType()))
+            .collect(Collectors.toList()))
+      );
+      for (final VariableElement f: fields) {
+        if (isAnnotatedWith(f, EntityIndexProcessor.COLUMNS)) {
+          columns.add(name + ' ' + f.getSimpleName());
+        }
+        if (isAnnotatedWith(f, EntityIndexProcessor.KEYSPACE_KEYS)) {
+          kkeys.add(name + ' ' + f.getSimpleName());
+        }
+      }
+    }
+    columns.forEach(c -> w.println(EntityIndex.COLUMN + ' ' + c));
+    kkeys.forEach(k -> w.println(EntityIndex.KEYSPACE_KEY + ' ' + k));
+  }
+
+  /**
+   * Gets the superclass of a given class.
+   *
+   * @author paouelle
+   *
+   * @param  type the class for which to get its superclass
+   * @return the superclass or <code>null</code> if none
+   */
+  private TypeElement superclassOf(TypeElement type) {
+    final TypeMirror sc = type.getSuperclass();
+
+    if (sc.getKind() != TypeKind.DECLARED) {
+      return null;
+    }
+    return (TypeElement)((DeclaredType)sc).asElement();
+  }
+
+  /**
+   * Checks if a given element is directly annotated with the specified
+   * annotation.
+   *
+   * @author paouelle
+   *
+   * @param  e the element to check
+   * @param  annotation the name of the annotation to check for
+   * @return <code>true</code> if the element is annotated; <code>false</code>
+   *         otherwise
+   */
+  private boolean isAnnotatedWith(Element e, String annotation) {
+    return isAnnotatedWith(e, Collections.singletonList(annotation));
+  }
+
+  /**
+   * Checks if a given element is directly annotated with one of the specified
+   * annotations.
+   *
+   * @author paouelle
+   *
+   * @param  e the element to check
+   * @param  annotations the canonical names of the annotations to check for
+   * @return <code>true</code> if the element is annotated; <code>false</code>
+   *         otherwise
+   */
+  private boolean isAnnotatedWith(Element e, List<String> annotations) {
+    for (final AnnotationMirror am: e.getAnnotationMirrors()) {
+      final TypeElement a = (TypeElement)am.getAnnotationType().asElement();
+
+      if (annotations.contains(a.getQualifiedName().toString())) {
+        return true;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.codecs;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import java.nio.ByteBuffer;
+
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.exceptions.InvalidTypeException;
+
+import org.helenus.commons.lang3.Compression;
+import org.helenus.commons.lang3.Serialization;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * The <code>EncodedCodecTest</code> class tests decoding encoded blobs
+ * directly from received buffers.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class EncodedCodecTest {
+  /**
+   * Holds the protocol version to use.
+   *
+   * @author paouelle
+   */
+  private final static ProtocolVersion PVERSION = ProtocolVersion.V4;
+
+  /**
+   * Holds the value to encode.
+   *
+   * @author paouelle
+   */
+  private final static ArrayList<String> VALUE
+    = new ArrayList<>(Arrays.asList("a", "b", "c"));
+
+  /**
+   * Embeds the specified blob within a larger buffer as if received within a
+   * frame.
+   *
+   * @author paouelle
+   *
+   * @param  blob the blob to embed
+   * @param  direct <code>true</code> to use a direct buffer
+   * @return a buffer positioned on the blob
+   */
+  private static ByteBuffer received(ByteBuffer blob, boolean direct) {
+    final int len = blob.remaining();
+    final ByteBuffer bb = (
+      direct ? ByteBuffer.allocateDirect(len + 8) : ByteBuffer.allocate(len + 8)
+    );
+
+    bb.position(3);
+    bb.put(blob.duplicate());
+    bb.position(3).limit(3 + len);
+    return bb.slice();
+  }
+
+  /**
+   * Tests round-trips with every built-in compression from heap and direct
+   * buffers positioned within larger frames.
+   *
+   * @author paouelle
+   */
+  @Test
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  public void testRoundTrip() {
+    for (final Compression c: Compression.values()) {
+      final EncodedCodec<ArrayList> codec = new EncodedCodec<>(
+        ArrayList.class, Serialization.COMPACT, c
+      );
+      final ByteBuffer blob = codec.serialize(EncodedCodecTest.VALUE, PVERSION);
+
+      for (final boolean direct: new boolean[] { false, true }) {
+        final ByteBuffer bb = EncodedCodecTest.received(blob, direct);
+
+        Assert.assertEquals(EncodedCodecTest.VALUE, codec.deserialize(bb, PVERSION));
+        Assert.assertEquals(0, bb.position()); // not consumed
+      }
+      Assert.assertEquals(
+        EncodedCodecTest.VALUE, codec.parse(codec.format(EncodedCodecTest.VALUE))
+      );
+    }
+  }
+
+  /**
+   * Tests that <code>null</code> and empty blobs decode to <code>null</code>.
+   *
+   * @author paouelle
+   */
+  @Test
+  @SuppressWarnings("rawtypes")
+  public void testNull() {
+    final EncodedCodec<ArrayList> codec = new EncodedCodec<>(
+      ArrayList.class, Serialization.COMPACT, Compression.LZ4
+    );
+
+    Assert.assertNull(codec.serialize(null, PVERSION));
+    Assert.assertNull(codec.deserialize(null, PVERSION));
+    Assert.assertNull(codec.deserialize(ByteBuffer.allocate(0), PVERSION));
+  }
+
+  /**
+   * Tests that blobs decoding to an unexpected class are rejected.
+   *
+   * @author paouelle
+   */
+  @Test(expected=InvalidTypeException.class)
+  public void testWrongClass() {
+    final EncodedCodec<String> scodec = new EncodedCodec<>(
+      String.class, Serialization.COMPACT, Compression.NONE
+    );
+    final EncodedCodec<Integer> icodec = new EncodedCodec<>(
+      Integer.class, Serialization.COMPACT, Compression.NONE
+    );
+
+    icodec.deserialize(scodec.serialize("helenus", PVERSION), PVERSION);
+  }
+
+  /**
+   * Tests that corrupted blobs are rejected.
+   *
+   * @author paouelle
+   */
+  @Test(expected=InvalidTypeException.class)
+  public void testCorrupted() {
+    final EncodedCodec<String> codec = new EncodedCodec<>(
+      String.class, Serialization.COMPACT, Compression.LZ4
+    );
+    final ByteBuffer blob = codec.serialize("helenus", PVERSION);
+
+    blob.limit(blob.limit() - 2);
+    codec.deserialize(blob, PVERSION);
+  }
+}
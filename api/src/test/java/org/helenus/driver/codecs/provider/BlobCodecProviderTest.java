@@ -0,0 +1,158 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.codecs.provider;
+
+import java.nio.ByteBuffer;
+import java.nio.ReadOnlyBufferException;
+
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.TypeCodec;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * The <code>BlobCodecProviderTest</code> class tests the codecs used to decode
+ * blobs into byte arrays and byte buffers.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class BlobCodecProviderTest {
+  /**
+   * Holds the protocol version to use.
+   *
+   * @author paouelle
+   */
+  private final static ProtocolVersion PVERSION = ProtocolVersion.V4;
+
+  /**
+   * Creates a buffer simulating a blob received within a larger frame.
+   *
+   * @author paouelle
+   *
+   * @return a buffer positioned on the bytes 1, 2, 3
+   */
+  private static ByteBuffer received() {
+    final ByteBuffer bb = ByteBuffer.wrap(new byte[] { 9, 1, 2, 3, 9 });
+
+    bb.position(1).limit(4);
+    return bb.slice();
+  }
+
+  /**
+   * Tests that byte arrays are always copied from the received data.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testByteArrayIsCopied() {
+    final ByteBuffer bb = BlobCodecProviderTest.received();
+    final byte[] bytes = BlobCodecProvider.bytearray().deserialize(bb, PVERSION);
+
+    Assert.assertArrayEquals(new byte[] { 1, 2, 3 }, bytes);
+    bytes[0] = 42;
+    Assert.assertEquals(1, bb.get(0));
+    Assert.assertEquals(0, bb.position());
+  }
+
+  /**
+   * Tests that byte buffers are writable duplicates sharing the received
+   * data.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testByteBufferIsDuplicate() {
+    final ByteBuffer bb = BlobCodecProviderTest.received();
+    final ByteBuffer d = BlobCodecProvider.bytebuffer().deserialize(bb, PVERSION);
+
+    Assert.assertNotSame(bb, d);
+    Assert.assertFalse(d.isReadOnly());
+    Assert.assertEquals(bb, d);
+    d.get();
+    Assert.assertEquals(0, bb.position());
+  }
+
+  /**
+   * Tests that read-only byte buffers are views of the received data which
+   * cannot be modified.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testReadOnlyByteBuffer() {
+    final ByteBuffer bb = BlobCodecProviderTest.received();
+    final ByteBuffer r = BlobCodecProvider.readonlybytebuffer().deserialize(bb, PVERSION);
+
+    Assert.assertTrue(r.isReadOnly());
+    Assert.assertEquals(bb, r);
+    try {
+      r.put(0, (byte)42);
+      Assert.fail("expected ReadOnlyBufferException");
+    } catch (ReadOnlyBufferException e) { // expected
+    }
+  }
+
+  /**
+   * Tests that <code>null</code> values are preserved and that values
+   * serialize and format like the standard blob codec.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testSerializeAndFormat() {
+    final byte[] bytes = new byte[] { 1, 2, 3 };
+
+    Assert.assertNull(BlobCodecProvider.bytearray().deserialize(null, PVERSION));
+    Assert.assertNull(BlobCodecProvider.bytebuffer().deserialize(null, PVERSION));
+    Assert.assertNull(BlobCodecProvider.readonlybytebuffer().deserialize(null, PVERSION));
+    Assert.assertEquals(
+      ByteBuffer.wrap(bytes), BlobCodecProvider.bytearray().serialize(bytes, PVERSION)
+    );
+    Assert.assertEquals(
+      TypeCodec.blob().format(ByteBuffer.wrap(bytes)),
+      BlobCodecProvider.bytearray().format(bytes)
+    );
+    Assert.assertArrayEquals(
+      bytes,
+      BlobCodecProvider.bytearray().parse(BlobCodecProvider.bytearray().format(bytes))
+    );
+    Assert.assertEquals(
+      ByteBuffer.wrap(bytes),
+      BlobCodecProvider.readonlybytebuffer().parse(TypeCodec.blob().format(ByteBuffer.wrap(bytes)))
+    );
+  }
+
+  /**
+   * Tests that the provider selects the right codec for each class.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testCodecFor() {
+    Assert.assertSame(
+      BlobCodecProvider.bytearray(), BlobCodecProvider.INSTANCE.codecFor(byte[].class)
+    );
+    Assert.assertSame(
+      BlobCodecProvider.bytebuffer(), BlobCodecProvider.INSTANCE.codecFor(ByteBuffer.class)
+    );
+  }
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.persistence;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import java.security.GeneralSecurityException;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+
+import org.apache.commons.lang3.SerializationException;
+import org.apache.commons.lang3.SerializationUtils;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * The <code>EncryptedObjectTest</code> class tests the serialization of
+ * encrypted objects.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class EncryptedObjectTest {
+  /**
+   * Creates a key provider with a single newly generated key.
+   *
+   * @author paouelle
+   *
+   * @param  id the identifier for the key
+   * @return the corresponding key provider
+   * @throws GeneralSecurityException if unable to generate a key
+   */
+  private static EncryptionKeyProvider provider(String id)
+    throws GeneralSecurityException {
+    final KeyGenerator generator = KeyGenerator.getInstance("AES");
+
+    generator.init(128);
+    final SecretKey key = generator.generateKey();
+
+    return new EncryptionKeyProvider() {
+      @Override
+      public String getCurrentKeyId() {
+        return id;
+      }
+      @Override
+      public SecretKey getKey(String kid) {
+        return id.equals(kid) ? key : null;
+      }
+    };
+  }
+
+  /**
+   * Round-trips the specified object through Java serialization.
+   *
+   * @author paouelle
+   *
+   * @param  object the object to round-trip
+   * @return the corresponding deserialized object
+   */
+  private static ArrayList<String> roundTrip(ArrayList<String> object) {
+    final EncryptedObject<ArrayList<String>> eo
+      = SerializationUtils.roundtrip(new EncryptedObject<>(object));
+
+    return eo.getObject();
+  }
+
+  /**
+   * Unregisters the key provider after each test.
+   *
+   * @author paouelle
+   */
+  @After
+  public void tearDown() {
+    EncryptedObject.setKeyProvider(null);
+  }
+
+  /**
+   * Tests that serializing fails when no key provider is registered.
+   *
+   * @author paouelle
+   */
+  @Test(expected=SerializationException.class)
+  public void testFailsWithoutKeyProvider() {
+    EncryptedObject.setKeyProvider(null);
+    SerializationUtils.serialize(new EncryptedObject<>("secret"));
+  }
+
+  /**
+   * Tests that objects are serialized unencrypted when explicitly opted in.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testUnencryptedOptIn() {
+    final ArrayList<String> list = new ArrayList<>(Arrays.asList("a", "b"));
+
+    EncryptedObject.setKeyProvider(EncryptionKeyProvider.UNENCRYPTED);
+    Assert.assertEquals(list, EncryptedObjectTest.roundTrip(list));
+  }
+
+  /**
+   * Tests that objects are encrypted and decrypted with a registered key
+   * provider and that unencrypted blobs remain readable.
+   *
+   * @author paouelle
+   *
+   * @throws GeneralSecurityException if the test fails
+   */
+  @Test
+  public void testEncrypted() throws GeneralSecurityException {
+    final ArrayList<String> list = new ArrayList<>(Arrays.asList("secret"));
+
+    EncryptedObject.setKeyProvider(EncryptionKeyProvider.UNENCRYPTED);
+    final byte[] plain = SerializationUtils.serialize(new EncryptedObject<>(list));
+
+    EncryptedObject.setKeyProvider(EncryptedObjectTest.provider("k1"));
+    Assert.assertEquals(list, EncryptedObjectTest.roundTrip(list));
+    final EncryptedObject<ArrayList<String>> eo = SerializationUtils.deserialize(plain);
+
+    Assert.assertEquals(list, eo.getObject());
+  }
+
+  /**
+   * Tests that objects encrypted with an unknown key cannot be decrypted.
+   *
+   * @author paouelle
+   *
+   * @throws GeneralSecurityException if the test fails
+   */
+  @Test
+  public void testUnknownKey() throws GeneralSecurityException {
+    EncryptedObject.setKeyProvider(EncryptedObjectTest.provider("k1"));
+    final byte[] blob = SerializationUtils.serialize(
+      new EncryptedObject<>(new ArrayList<>(Arrays.asList("secret")))
+    );
+
+    EncryptedObject.setKeyProvider(EncryptedObjectTest.provider("k2"));
+    final EncryptedObject<ArrayList<String>> eo = SerializationUtils.deserialize(blob);
+
+    try {
+      eo.getObject();
+      Assert.fail("expected SerializationException");
+    } catch (SerializationException e) { // expected
+    }
+    EncryptedObject.setKeyProvider(EncryptionKeyProvider.UNENCRYPTED);
+    final EncryptedObject<ArrayList<String>> eo2 = SerializationUtils.deserialize(blob);
+
+    try {
+      eo2.getObject();
+      Assert.fail("expected SerializationException");
+    } catch (SerializationException e) { // expected
+    }
+  }
+}
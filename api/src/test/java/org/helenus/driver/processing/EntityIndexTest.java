@@ -0,0 +1,383 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.processing;
+
+import java.lang.reflect.Field;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.net.URL;
+import java.net.URLClassLoader;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+
+import org.helenus.driver.persistence.Entity;
+import org.helenus.driver.persistence.RootEntity;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * The <code>EntityIndexTest</code> class tests the loading of the compile-time
+ * entity index and the verification of its recorded field layouts.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class EntityIndexTest {
+  /**
+   * Holds the binary name of the indexed base class.
+   *
+   * @author paouelle
+   */
+  private final static String BASE = Base.class.getName();
+
+  /**
+   * Holds the binary name of the indexed POJO class.
+   *
+   * @author paouelle
+   */
+  private final static String POJO = Pojo.class.getName();
+
+  /**
+   * The <code>Base</code> class defines a base class for an indexed POJO.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 18, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  static class Base {
+    String id;
+  }
+
+  /**
+   * The <code>Pojo</code> class defines an indexed POJO.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 18, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  static class Pojo extends Base {
+    String name;
+    int count;
+    String region;
+  }
+
+  /**
+   * Holds the temporary folder where to generate indexes.
+   *
+   * @author paouelle
+   */
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Creates a class loader exposing an index with the specified lines on top
+   * of the test classes.
+   *
+   * @author paouelle
+   *
+   * @param  lines the lines of the index
+   * @return the corresponding class loader
+   * @throws IOException if unable to write the index
+   */
+  private URLClassLoader index(String... lines) throws IOException {
+    final File root = folder.newFolder();
+    final File file = new File(root, EntityIndex.RESOURCE);
+
+    Assert.assertTrue(file.getParentFile().mkdirs());
+    Files.write(file.toPath(), Arrays.asList(lines), StandardCharsets.UTF_8);
+    return new URLClassLoader(
+      new URL[] { root.toURI().toURL() }, EntityIndexTest.class.getClassLoader()
+    );
+  }
+
+  /**
+   * Gets the lines of a valid index for the POJO class.
+   *
+   * @author paouelle
+   *
+   * @param  pojo the fingerprint to record for the POJO class
+   * @return the corresponding lines
+   */
+  private static String[] lines(String pojo) {
+    return new String[] {
+      "# test index",
+      EntityIndex.TYPE + Entity.class.getName() + ' ' + EntityIndexTest.POJO,
+      EntityIndex.CLASS + ' ' + EntityIndexTest.BASE + ' ' + EntityIndex.fingerprint(
+        Collections.singletonList("id:java.lang.String")
+      ),
+      EntityIndex.CLASS + ' ' + EntityIndexTest.POJO + ' ' + pojo,
+      EntityIndex.COLUMN + ' ' + EntityIndexTest.BASE + " id",
+      EntityIndex.COLUMN + ' ' + EntityIndexTest.POJO + " name",
+      EntityIndex.KEYSPACE_KEY + ' ' + EntityIndexTest.POJO + " region"
+    };
+  }
+
+  /**
+   * Gets the fingerprint matching the declared fields of the POJO class.
+   *
+   * @author paouelle
+   *
+   * @return the corresponding fingerprint
+   */
+  private static String pojo() {
+    return EntityIndex.fingerprint(Arrays.asList(
+      "name:java.lang.String", "count:int", "region:java.lang.String"
+    ));
+  }
+
+  /**
+   * Tests that fingerprints are hex encoded and do not depend on the order of
+   * the fields.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testFingerprint() {
+    final String fp = EntityIndex.fingerprint(Arrays.asList("a:int", "b:long"));
+
+    Assert.assertTrue(fp, fp.matches("[0-9a-f]{16}"));
+    Assert.assertEquals(fp, EntityIndex.fingerprint(Arrays.asList("b:long", "a:int")));
+    Assert.assertNotEquals(fp, EntityIndex.fingerprint(Arrays.asList("a:int", "b:int")));
+    Assert.assertNotEquals(fp, EntityIndex.fingerprint(Collections.emptyList()));
+  }
+
+  /**
+   * Tests that a class loader without any index yields an empty index which
+   * covers no packages.
+   *
+   * @author paouelle
+   *
+   * @throws IOException if the test fails
+   */
+  @Test
+  public void testEmpty() throws IOException {
+    try (final URLClassLoader loader = new URLClassLoader(new URL[0], null)) {
+      final EntityIndex index = EntityIndex.get(loader);
+
+      Assert.assertTrue(index.isEmpty());
+      Assert.assertFalse(index.covers("java.lang"));
+      Assert.assertNull(index.getColumnFields(Pojo.class));
+      Assert.assertNull(index.getKeyspaceKeyFields(Pojo.class));
+      Assert.assertTrue(index.getTypesAnnotatedWith(Entity.class, "org").isEmpty());
+    }
+  }
+
+  /**
+   * Tests that indexes are cached per class loader.
+   *
+   * @author paouelle
+   *
+   * @throws IOException if the test fails
+   */
+  @Test
+  public void testCached() throws IOException {
+    try (
+      final URLClassLoader loader = index(EntityIndexTest.lines(EntityIndexTest.pojo()));
+      final URLClassLoader other = index(EntityIndexTest.lines(EntityIndexTest.pojo()));
+    ) {
+      final EntityIndex index = EntityIndex.get(loader);
+
+      Assert.assertSame(index, EntityIndex.get(loader));
+      Assert.assertNotSame(index, EntityIndex.get(other));
+    }
+  }
+
+  /**
+   * Tests that indexed classes are found by annotation and package.
+   *
+   * @author paouelle
+   *
+   * @throws IOException if the test fails
+   */
+  @Test
+  public void testTypesAnnotatedWith() throws IOException {
+    try (final URLClassLoader loader = index(EntityIndexTest.lines(EntityIndexTest.pojo()))) {
+      final EntityIndex index = EntityIndex.get(loader);
+
+      Assert.assertFalse(index.isEmpty());
+      Assert.assertEquals(
+        Collections.singleton(Pojo.class),
+        index.getTypesAnnotatedWith(Entity.class, "org.helenus.driver.processing")
+      );
+      Assert.assertEquals(
+        Collections.singleton(Pojo.class),
+        index.getTypesAnnotatedWith(Entity.class, "org.helenus")
+      );
+      // package prefixes must match complete package names
+      Assert.assertTrue(
+        index.getTypesAnnotatedWith(Entity.class, "org.helenus.driver.proc").isEmpty()
+      );
+      Assert.assertTrue(
+        index.getTypesAnnotatedWith(RootEntity.class, "org.helenus").isEmpty()
+      );
+    }
+  }
+
+  /**
+   * Tests that indexed classes which cannot be found are reported.
+   *
+   * @author paouelle
+   *
+   * @throws IOException if the test fails
+   */
+  @Test
+  public void testTypeNotFound() throws IOException {
+    try (
+      final URLClassLoader loader = index(
+        EntityIndex.TYPE + Entity.class.getName() + " org.helenus.driver.processing.Missing"
+      );
+    ) {
+      EntityIndex.get(loader).getTypesAnnotatedWith(Entity.class, "org.helenus");
+      Assert.fail("expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) { // expected
+    }
+  }
+
+  /**
+   * Tests that recorded layouts are resolved in top-down hierarchy order and
+   * cached once resolved.
+   *
+   * @author paouelle
+   *
+   * @throws Exception if the test fails
+   */
+  @Test
+  public void testLayout() throws Exception {
+    try (final URLClassLoader loader = index(EntityIndexTest.lines(EntityIndexTest.pojo()))) {
+      final EntityIndex index = EntityIndex.get(loader);
+      final List<Field> columns = index.getColumnFields(Pojo.class);
+
+      Assert.assertEquals(
+        Arrays.asList(
+          Base.class.getDeclaredField("id"), Pojo.class.getDeclaredField("name")
+        ),
+        columns
+      );
+      Assert.assertSame(columns, index.getColumnFields(Pojo.class));
+      Assert.assertEquals(
+        Collections.singletonList(Pojo.class.getDeclaredField("region")),
+        index.getKeyspaceKeyFields(Pojo.class)
+      );
+      Assert.assertNull(index.getColumnFields(Base.class)); // not indexed
+      try {
+        columns.clear();
+        Assert.fail("expected UnsupportedOperationException");
+      } catch (UnsupportedOperationException e) { // expected
+      }
+    }
+  }
+
+  /**
+   * Tests that layouts are not trusted once the declared fields or the class
+   * hierarchy no longer match what was indexed.
+   *
+   * @author paouelle
+   *
+   * @throws IOException if the test fails
+   */
+  @Test
+  public void testOutOfDate() throws IOException {
+    try (
+      final URLClassLoader loader = index(EntityIndexTest.lines(
+        EntityIndex.fingerprint(Arrays.asList("name:java.lang.String", "count:int"))
+      ))
+    ) {
+      final EntityIndex index = EntityIndex.get(loader);
+
+      Assert.assertNull(index.getColumnFields(Pojo.class));
+      Assert.assertNull(index.getKeyspaceKeyFields(Pojo.class));
+    }
+    // base class missing from the recorded hierarchy
+    try (
+      final URLClassLoader loader = index(
+        EntityIndex.TYPE + Entity.class.getName() + ' ' + EntityIndexTest.POJO,
+        EntityIndex.CLASS + ' ' + EntityIndexTest.POJO + ' ' + EntityIndexTest.pojo(),
+        EntityIndex.COLUMN + ' ' + EntityIndexTest.POJO + " name"
+      )
+    ) {
+      Assert.assertNull(EntityIndex.get(loader).getColumnFields(Pojo.class));
+    }
+    // recorded field no longer declared
+    try (
+      final URLClassLoader loader = index(
+        EntityIndex.TYPE + Entity.class.getName() + ' ' + EntityIndexTest.POJO,
+        EntityIndex.CLASS + ' ' + EntityIndexTest.BASE + ' ' + EntityIndex.fingerprint(
+          Collections.singletonList("id:java.lang.String")
+        ),
+        EntityIndex.CLASS + ' ' + EntityIndexTest.POJO + ' ' + EntityIndexTest.pojo(),
+        EntityIndex.COLUMN + ' ' + EntityIndexTest.POJO + " removed"
+      )
+    ) {
+      Assert.assertNull(EntityIndex.get(loader).getColumnFields(Pojo.class));
+    }
+  }
+
+  /**
+   * Tests that packages are only covered when every location providing them
+   * carries an index.
+   *
+   * @author paouelle
+   *
+   * @throws IOException if the test fails
+   */
+  @Test
+  public void testCovers() throws IOException {
+    final File indexed = folder.newFolder();
+    final File plain = folder.newFolder();
+    final File file = new File(indexed, EntityIndex.RESOURCE);
+
+    Assert.assertTrue(file.getParentFile().mkdirs());
+    Files.write(
+      file.toPath(), Arrays.asList(EntityIndexTest.lines(EntityIndexTest.pojo())), StandardCharsets.UTF_8
+    );
+    Assert.assertTrue(new File(indexed, "org/helenus/indexed").mkdirs());
+    Assert.assertTrue(new File(indexed, "org/helenus/shared").mkdirs());
+    Assert.assertTrue(new File(plain, "org/helenus/shared").mkdirs());
+    try (
+      final URLClassLoader loader = new URLClassLoader(
+        new URL[] { indexed.toURI().toURL(), plain.toURI().toURL() }, null
+      );
+    ) {
+      final EntityIndex index = EntityIndex.get(loader);
+
+      Assert.assertTrue(index.covers("org.helenus.indexed"));
+      // also provided by a location which was not indexed
+      Assert.assertFalse(index.covers("org.helenus.shared"));
+      Assert.assertFalse(index.covers("org.helenus.indexed", "org.helenus.shared"));
+      // not provided by any location
+      Assert.assertFalse(index.covers("org.helenus.missing"));
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.util.List;
+
+import java.nio.ByteBuffer;
+
+/**
+ * The <code>RowBridge</code> class is used to access protected methods of
+ * the {@link ArrayBackedRow} and {@link ColumnDefinitions} in order to
+ * create result rows without having to go through a Cassandra cluster.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 6, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class RowBridge {
+  /**
+   * Creates a new column definition.
+   *
+   * @author paouelle
+   *
+   * @param  keyspace the keyspace for the column
+   * @param  table the table for the column
+   * @param  name the column name
+   * @param  type the column data type
+   * @return the corresponding column definition
+   */
+  public static ColumnDefinitions.Definition newDefinition(
+    String keyspace, String table, String name, DataType type
+  ) {
+    return new ColumnDefinitions.Definition(keyspace, table, name, type);
+  }
+
+  /**
+   * Creates a new set of column definitions.
+   *
+   * @author paouelle
+   *
+   * @param  definitions the column definitions
+   * @param  registry the codec registry to use
+   * @return the corresponding column definitions
+   */
+  public static ColumnDefinitions newDefinitions(
+    ColumnDefinitions.Definition[] definitions, CodecRegistry registry
+  ) {
+    return new ColumnDefinitions(definitions, registry);
+  }
+
+  /**
+   * Creates a new row from serialized values.
+   *
+   * @author paouelle
+   *
+   * @param  definitions the column definitions for the row
+   * @param  protocolVersion the protocol version used to serialize the values
+   * @param  values the serialized values in the same order as the definitions
+   * @return the corresponding row
+   */
+  public static Row newRow(
+    ColumnDefinitions definitions,
+    ProtocolVersion protocolVersion,
+    List<ByteBuffer> values
+  ) {
+    return ArrayBackedRow.fromData(definitions, null, protocolVersion, values);
+  }
+}
@@ -0,0 +1,41 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.driver.core;
+
+/**
+ * The <code>SessionBridge</code> class is used to access protected methods of
+ * the driver which are required when implementing a {@link Session} that does
+ * not rely on a Cassandra cluster.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 8, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class SessionBridge {
+  /**
+   * Creates a close future which is already completed.
+   *
+   * @author paouelle
+   *
+   * @return a completed close future
+   */
+  public static CloseFuture newCloseFuture() {
+    return CloseFuture.immediateFuture();
+  }
+}
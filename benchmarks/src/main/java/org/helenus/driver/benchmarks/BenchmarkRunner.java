@@ -0,0 +1,360 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Map;
+import java.util.Properties;
+import java.util.TreeMap;
+
+import javax.json.Json;
+import javax.json.JsonArray;
+import javax.json.JsonObject;
+import javax.json.JsonReader;
+import javax.json.JsonValue;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * The <code>BenchmarkRunner</code> class provides the main entry point for
+ * running the benchmarks. Results are saved in a Json file named after the
+ * version of the driver being measured such that they can be kept around and
+ * compared release over release. When a baseline result file is provided, each
+ * benchmark is compared against it and the runner will exit with a non-zero
+ * status if any of them regressed by more than the configured threshold.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 6, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class BenchmarkRunner {
+  /**
+   * Holds the output directory option.
+   *
+   * @author paouelle
+   */
+  private final static Option output = Option.builder("o")
+    .longOpt("output")
+    .desc("to specify the directory where to save the results (defaults to target/jmh)")
+    .hasArg()
+    .argName("dir")
+    .build();
+
+  /**
+   * Holds the baseline option.
+   *
+   * @author paouelle
+   */
+  private final static Option baseline = Option.builder("b")
+    .longOpt("baseline")
+    .desc("to specify a previous result file to compare against")
+    .hasArg()
+    .argName("file")
+    .build();
+
+  /**
+   * Holds the results option.
+   *
+   * @author paouelle
+   */
+  private final static Option results = Option.builder("r")
+    .longOpt("results")
+    .desc("to specify an existing result file to compare instead of running the benchmarks")
+    .hasArg()
+    .argName("file")
+    .build();
+
+  /**
+   * Holds the threshold option.
+   *
+   * @author paouelle
+   */
+  private final static Option threshold = Option.builder("t")
+    .longOpt("threshold")
+    .desc("to specify the percentage after which a slowdown is reported as a regression (defaults to 10)")
+    .hasArg()
+    .argName("percent")
+    .build();
+
+  /**
+   * Holds the forks option.
+   *
+   * @author paouelle
+   */
+  private final static Option forks = Option.builder("f")
+    .longOpt("forks")
+    .desc("to override the number of forks for each benchmark")
+    .hasArg()
+    .argName("number")
+    .build();
+
+  /**
+   * Holds the GC profiler option.
+   *
+   * @author paouelle
+   */
+  private final static Option gc = Option.builder()
+    .longOpt("gc")
+    .desc("to enable the GC profiler in order to report allocation rates")
+    .build();
+
+  /**
+   * Holds the help option.
+   *
+   * @author paouelle
+   */
+  private final static Option help = Option.builder("?")
+    .longOpt("help")
+    .desc("to print this message")
+    .build();
+
+  /**
+   * Holds the command-line options definition.
+   *
+   * @author paouelle
+   */
+  private final static Options options
+    = (new Options()
+       .addOption(BenchmarkRunner.output)
+       .addOption(BenchmarkRunner.baseline)
+       .addOption(BenchmarkRunner.results)
+       .addOption(BenchmarkRunner.threshold)
+       .addOption(BenchmarkRunner.forks)
+       .addOption(BenchmarkRunner.gc)
+       .addOption(BenchmarkRunner.help)
+      );
+
+  /**
+   * Gets the version of the driver being benchmarked.
+   *
+   * @author paouelle
+   *
+   * @return the version of the driver being benchmarked
+   */
+  public static String getVersion() {
+    final Properties props = new Properties();
+
+    try (
+      final InputStream is = BenchmarkRunner.class.getResourceAsStream(
+        "/helenus-benchmarks.properties"
+      );
+    ) {
+      if (is != null) {
+        props.load(is);
+      }
+    } catch (IOException e) { // ignore and use default
+    }
+    return props.getProperty("version", "unknown");
+  }
+
+  /**
+   * Loads the scores from a Json result file as generated by JMH.
+   *
+   * @author paouelle
+   *
+   * @param  file the result file to load
+   * @return a map of the scores keyed by benchmark name and parameters
+   * @throws IOException if an I/O error occurs while loading the file
+   */
+  private static Map<String, JsonObject> load(File file) throws IOException {
+    final Map<String, JsonObject> scores = new TreeMap<>();
+
+    try (
+      final Reader r = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8);
+      final JsonReader jr = Json.createReader(r);
+    ) {
+      final JsonArray array = jr.readArray();
+
+      for (final JsonValue v: array) {
+        final JsonObject o = (JsonObject)v;
+        final StringBuilder sb = new StringBuilder(o.getString("benchmark"));
+        final JsonObject params = o.getJsonObject("params");
+
+        if (params != null) {
+          sb.append(new TreeMap<>(params));
+        }
+        scores.put(sb.toString(), o);
+      }
+    }
+    return scores;
+  }
+
+  /**
+   * Compares the specified results against a baseline and reports the
+   * differences.
+   *
+   * @author paouelle
+   *
+   * @param  baseline the baseline result file
+   * @param  current the current result file
+   * @param  threshold the percentage after which a slowdown is considered a
+   *         regression
+   * @return the number of regressions detected
+   * @throws IOException if an I/O error occurs while loading the files
+   */
+  public static int compare(File baseline, File current, double threshold)
+    throws IOException {
+    final Map<String, JsonObject> before = BenchmarkRunner.load(baseline);
+    final Map<String, JsonObject> after = BenchmarkRunner.load(current);
+    int regressions = 0;
+
+    System.out.printf(
+      "%nComparing %s against baseline %s (threshold: %.1f%%)%n",
+      current, baseline, threshold
+    );
+    for (final Map.Entry<String, JsonObject> e: after.entrySet()) {
+      final JsonObject b = before.get(e.getKey());
+      final JsonObject a = e.getValue().getJsonObject("primaryMetric");
+
+      if (b == null) {
+        System.out.printf(
+          "  %-80s %12.3f %s (new)%n",
+          e.getKey(),
+          a.getJsonNumber("score").doubleValue(),
+          a.getString("scoreUnit")
+        );
+        continue;
+      }
+      final double bscore = b.getJsonObject("primaryMetric").getJsonNumber("score").doubleValue();
+      final double ascore = a.getJsonNumber("score").doubleValue();
+      // throughput is better when higher whereas all other modes measure time
+      final boolean higherIsBetter = "thrpt".equals(e.getValue().getString("mode"));
+      final double change = (bscore != 0.0D) ? (ascore - bscore) * 100.0D / bscore : 0.0D;
+      final double slowdown = higherIsBetter ? -change : change;
+      final boolean regressed = (slowdown > threshold);
+
+      if (regressed) {
+        regressions++;
+      }
+      System.out.printf(
+        "  %-80s %12.3f -> %12.3f %s (%+.1f%%)%s%n",
+        e.getKey(),
+        bscore,
+        ascore,
+        a.getString("scoreUnit"),
+        change,
+        regressed ? " REGRESSION" : ""
+      );
+    }
+    return regressions;
+  }
+
+  /**
+   * Main point of entry for the benchmark runner.
+   *
+   * @author paouelle
+   *
+   * @param args the command line arguments where any non-option arguments are
+   *        regular expressions used to select the benchmarks to run
+   */
+  public static void main(String[] args) {
+    try {
+      final CommandLineParser parser = new DefaultParser();
+      final CommandLine line = parser.parse(BenchmarkRunner.options, args);
+
+      if (line.hasOption(BenchmarkRunner.help.getLongOpt())) {
+        new HelpFormatter().printHelp(
+          BenchmarkRunner.class.getSimpleName() + " [options] [regexp...]",
+          BenchmarkRunner.options
+        );
+        System.exit(0);
+      }
+      final File current;
+
+      if (line.hasOption(BenchmarkRunner.results.getLongOpt())) {
+        current = new File(line.getOptionValue(BenchmarkRunner.results.getLongOpt()));
+      } else {
+        final File dir = new File(
+          line.getOptionValue(BenchmarkRunner.output.getLongOpt(), "target/jmh")
+        );
+
+        dir.mkdirs();
+        current = new File(dir, BenchmarkRunner.getVersion() + ".json");
+        final ChainedOptionsBuilder builder = new OptionsBuilder()
+          .resultFormat(ResultFormatType.JSON)
+          .result(current.getPath());
+
+        if (line.getArgs().length == 0) {
+          builder.include(BenchmarkRunner.class.getPackage().getName() + ".*");
+        } else {
+          for (final String regex: line.getArgs()) {
+            builder.include(regex);
+          }
+        }
+        if (line.hasOption(BenchmarkRunner.forks.getLongOpt())) {
+          builder.forks(Integer.parseInt(
+            line.getOptionValue(BenchmarkRunner.forks.getLongOpt())
+          ));
+        }
+        if (line.hasOption(BenchmarkRunner.gc.getLongOpt())) {
+          builder.addProfiler(GCProfiler.class);
+        }
+        new Runner(builder.build()).run();
+      }
+      if (line.hasOption(BenchmarkRunner.baseline.getLongOpt())) {
+        final int regressions = BenchmarkRunner.compare(
+          new File(line.getOptionValue(BenchmarkRunner.baseline.getLongOpt())),
+          current,
+          Double.parseDouble(
+            line.getOptionValue(BenchmarkRunner.threshold.getLongOpt(), "10")
+          )
+        );
+
+        if (regressions > 0) {
+          System.err.println(
+            BenchmarkRunner.class.getSimpleName()
+            + ": "
+            + regressions
+            + " regression(s) detected"
+          );
+          System.exit(1);
+        }
+      }
+    } catch (ParseException e) {
+      System.err.println(
+        BenchmarkRunner.class.getSimpleName() + ": " + e.getMessage()
+      );
+      System.exit(2);
+    } catch (IOException|RunnerException e) {
+      System.err.print(
+        BenchmarkRunner.class.getSimpleName() + ": unexpected exception: "
+      );
+      e.printStackTrace(System.err);
+      System.exit(1);
+    }
+  }
+}
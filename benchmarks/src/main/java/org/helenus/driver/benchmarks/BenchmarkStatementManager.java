@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks;
+
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.ProtocolVersion;
+
+import org.helenus.driver.impl.StatementManagerImpl;
+
+/**
+ * The <code>BenchmarkStatementManager</code> class extends on the
+ * {@link StatementManagerImpl} in order to provide a statement manager which
+ * never connects to a Cassandra cluster. It is meant to be used for measuring
+ * the client-side cost of building statements and mapping POJOs.
+ * <p>
+ * <i>Note:</i> Only one statement manager can be installed per JVM which is
+ * fine since JMH forks a separate JVM for each benchmark.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 6, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class BenchmarkStatementManager extends StatementManagerImpl {
+  /**
+   * Holds the protocol version used when generating query strings.
+   *
+   * @author paouelle
+   */
+  public final static ProtocolVersion PROTOCOL_VERSION = ProtocolVersion.V4;
+
+  /**
+   * Holds the singleton instance.
+   *
+   * @author paouelle
+   */
+  private static BenchmarkStatementManager manager = null;
+
+  /**
+   * Gets the statement manager for benchmarks, installing it if not already
+   * done.
+   *
+   * @author paouelle
+   *
+   * @return the non-<code>null</code> statement manager for benchmarks
+   */
+  public static synchronized BenchmarkStatementManager get() {
+    if (manager == null) {
+      BenchmarkStatementManager.manager = new BenchmarkStatementManager(
+        Cluster.builder()
+          .addContactPoint("127.0.0.1")
+          .withProtocolVersion(BenchmarkStatementManager.PROTOCOL_VERSION)
+      );
+    }
+    return manager;
+  }
+
+  /**
+   * Instantiates a new <code>BenchmarkStatementManager</code> object.
+   *
+   * @author paouelle
+   *
+   * @param  initializer the cluster initializer to use to initialize Cassandra's
+   *         cluster
+   * @throws NullPointerException if <code>initializer</code> is <code>null</code>
+   * @throws SecurityException if the statement manager reference has already
+   *         been set
+   */
+  protected BenchmarkStatementManager(Cluster.Initializer initializer) {
+    super(initializer, false); // never connect
+  }
+
+  /**
+   * Clears all cached POJO class information such that they will be reloaded
+   * on their next use.
+   *
+   * @author paouelle
+   */
+  public void reset() {
+    clearCache();
+  }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.helenus.driver.impl.ClassInfoImpl;
+
+/**
+ * The <code>ClassInfoBenchmark</code> class measures the cost of introspecting
+ * a POJO class and loading its class information (tables, columns, keys,
+ * codecs, ...) when first used.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 6, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations=5, time=1, timeUnit=TimeUnit.SECONDS)
+@Measurement(iterations=10, time=1, timeUnit=TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ClassInfoBenchmark {
+  /**
+   * Holds the simple name of the benchmark entity to load.
+   *
+   * @author paouelle
+   */
+  @Param({"User", "Account", "Event"})
+  public String entity;
+
+  /**
+   * Holds the statement manager.
+   *
+   * @author paouelle
+   */
+  private BenchmarkStatementManager mgr;
+
+  /**
+   * Holds the entity class to load.
+   *
+   * @author paouelle
+   */
+  private Class<?> clazz;
+
+  /**
+   * Sets up the statement manager and resolves the entity class.
+   *
+   * @author paouelle
+   *
+   * @throws ClassNotFoundException if the entity class cannot be found
+   */
+  @Setup(Level.Trial)
+  public void setup() throws ClassNotFoundException {
+    this.mgr = BenchmarkStatementManager.get();
+    this.clazz = Class.forName(
+      "org.helenus.driver.benchmarks.entities." + entity
+    );
+  }
+
+  /**
+   * Benchmarks loading the class information for an entity which was not
+   * already cached.
+   *
+   * @author paouelle
+   *
+   * @return the loaded class info
+   */
+  @Benchmark
+  public ClassInfoImpl<?> load() {
+    mgr.reset();
+    return mgr.getClassInfoImpl(clazz);
+  }
+
+  /**
+   * Benchmarks retrieving the class information for an entity which is already
+   * cached.
+   *
+   * @author paouelle
+   *
+   * @return the cached class info
+   */
+  @Benchmark
+  public ClassInfoImpl<?> cached() {
+    return mgr.getClassInfoImpl(clazz);
+  }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import java.security.GeneralSecurityException;
+
+import javax.crypto.KeyGenerator;
+import javax.crypto.SecretKey;
+
+import org.apache.commons.lang3.SerializationUtils;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import org.helenus.driver.persistence.EncryptedObject;
+import org.helenus.driver.persistence.EncryptionKeyProvider;
+
+/**
+ * The <code>EncryptedObjectBenchmark</code> class measures the throughput of
+ * serializing and deserializing {@link EncryptedObject}s. Each operation
+ * processes exactly one megabyte of payload split into objects of the
+ * configured size such that the reported scores are in megabytes per second.
+ * Running it without encryption provides the baseline to compare against.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations=5, time=1, timeUnit=TimeUnit.SECONDS)
+@Measurement(iterations=10, time=1, timeUnit=TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EncryptedObjectBenchmark {
+  /**
+   * Holds the number of payload bytes processed by each operation.
+   *
+   * @author paouelle
+   */
+  private final static int MB = 1024 * 1024;
+
+  /**
+   * Holds the size in bytes of each encrypted object.
+   *
+   * @author paouelle
+   */
+  @Param({"1024", "16384", "262144"})
+  public int size;
+
+  /**
+   * Flag indicating if objects should be encrypted or only encoded.
+   *
+   * @author paouelle
+   */
+  @Param({"true", "false"})
+  public boolean encrypted;
+
+  /**
+   * Holds the payloads to serialize.
+   *
+   * @author paouelle
+   */
+  private byte[][] payloads;
+
+  /**
+   * Holds the serialized objects to deserialize.
+   *
+   * @author paouelle
+   */
+  private byte[][] serialized;
+
+  /**
+   * Generates a payload of the specified size which is partially compressible
+   * to mimic real data.
+   *
+   * @author paouelle
+   *
+   * @param  random the random generator to use
+   * @param  size the size of the payload
+   * @return the corresponding payload
+   */
+  private static byte[] payload(Random random, int size) {
+    final byte[] bytes = new byte[size];
+
+    random.nextBytes(bytes);
+    for (int i = 0; i < size; i += 2) { // make half of it compressible
+      bytes[i] = (byte)(i % 16);
+    }
+    return bytes;
+  }
+
+  /**
+   * Sets up the key provider and the payloads.
+   *
+   * @author paouelle
+   *
+   * @throws GeneralSecurityException if unable to generate a key
+   */
+  @Setup(Level.Trial)
+  public void setup() throws GeneralSecurityException {
+    if (encrypted) {
+      final KeyGenerator generator = KeyGenerator.getInstance("AES");
+
+      generator.init(128);
+      final SecretKey key = generator.generateKey();
+
+      EncryptedObject.setKeyProvider(new EncryptionKeyProvider() {
+        @Override
+        public String getCurrentKeyId() {
+          return "benchmark";
+        }
+        @Override
+        public SecretKey getKey(String id) {
+          return "benchmark".equals(id) ? key : null;
+        }
+      });
+    } else { // explicitly opt in to unencrypted serialization
+      EncryptedObject.setKeyProvider(EncryptionKeyProvider.UNENCRYPTED);
+    }
+    final Random random = new Random(42L);
+    final int count = Math.max(1, EncryptedObjectBenchmark.MB / size);
+
+    this.payloads = new byte[count][];
+    this.serialized = new byte[count][];
+    for (int i = 0; i < count; i++) {
+      payloads[i] = EncryptedObjectBenchmark.payload(random, size);
+      serialized[i] = SerializationUtils.serialize(new EncryptedObject<>(payloads[i]));
+    }
+  }
+
+  /**
+   * Unregisters the key provider.
+   *
+   * @author paouelle
+   */
+  @TearDown(Level.Trial)
+  public void tearDown() {
+    EncryptedObject.setKeyProvider(null);
+  }
+
+  /**
+   * Measures serializing one megabyte worth of objects.
+   *
+   * @author paouelle
+   *
+   * @param bh the blackhole where to consume results
+   */
+  @Benchmark
+  public void serialize(Blackhole bh) {
+    for (final byte[] payload: payloads) {
+      bh.consume(SerializationUtils.serialize(new EncryptedObject<>(payload)));
+    }
+  }
+
+  /**
+   * Measures deserializing one megabyte worth of objects.
+   *
+   * @author paouelle
+   *
+   * @param bh the blackhole where to consume results
+   */
+  @Benchmark
+  public void deserialize(Blackhole bh) {
+    for (final byte[] bytes: serialized) {
+      final EncryptedObject<byte[]> eo = SerializationUtils.deserialize(bytes);
+
+      bh.consume(eo.getObject());
+    }
+  }
+}
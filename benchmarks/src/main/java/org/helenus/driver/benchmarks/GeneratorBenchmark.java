@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.helenus.driver.benchmarks.generator.PojoGenerator;
+import org.helenus.driver.benchmarks.ycsb.KeyDistribution;
+
+/**
+ * The <code>GeneratorBenchmark</code> class measures the cost of generating
+ * synthetic POJOs from entity metadata such that load tests can confirm the
+ * generator is not their bottleneck.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 10, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations=5, time=1, timeUnit=TimeUnit.SECONDS)
+@Measurement(iterations=10, time=1, timeUnit=TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class GeneratorBenchmark {
+  /**
+   * Holds the simple name of the benchmark entity to generate.
+   *
+   * @author paouelle
+   */
+  @Param({"User", "Account", "Event", "CodecSample"})
+  public String entity;
+
+  /**
+   * Holds the distribution for partition keys.
+   *
+   * @author paouelle
+   */
+  @Param({"UNIFORM", "ZIPFIAN"})
+  public KeyDistribution skew;
+
+  /**
+   * Holds the generator.
+   *
+   * @author paouelle
+   */
+  private PojoGenerator<?> generator;
+
+  /**
+   * Sets up the generator for the entity class.
+   *
+   * @author paouelle
+   *
+   * @throws ClassNotFoundException if the entity class cannot be found
+   */
+  @Setup(Level.Trial)
+  public void setup() throws ClassNotFoundException {
+    this.generator = PojoGenerator.builder(
+      BenchmarkStatementManager.get(),
+      Class.forName("org.helenus.driver.benchmarks.entities." + entity)
+    ).partitionSkew(skew)
+     .partitions(100000L)
+     .build();
+  }
+
+  /**
+   * Benchmarks generating a single POJO.
+   *
+   * @author paouelle
+   *
+   * @return the generated POJO
+   */
+  @Benchmark
+  public Object next() {
+    return generator.next();
+  }
+}
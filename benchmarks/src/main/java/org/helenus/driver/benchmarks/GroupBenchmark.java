@@ -0,0 +1,171 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.helenus.driver.Batch;
+import org.helenus.driver.Group;
+import org.helenus.driver.StatementBuilder;
+import org.helenus.driver.benchmarks.entities.User;
+
+/**
+ * The <code>GroupBenchmark</code> class measures the cost of assembling
+ * batches and groups made of a large number of child statements and of
+ * generating their query strings.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 6, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations=3, time=2, timeUnit=TimeUnit.SECONDS)
+@Measurement(iterations=5, time=2, timeUnit=TimeUnit.SECONDS)
+@Fork(value=1, jvmArgsAppend={"-Xms2g", "-Xmx2g"})
+@State(Scope.Benchmark)
+public class GroupBenchmark {
+  /**
+   * Holds the number of child statements to assemble.
+   *
+   * @author paouelle
+   */
+  @Param({"1000", "10000", "100000"})
+  public int children;
+
+  /**
+   * Holds the users to insert.
+   *
+   * @author paouelle
+   */
+  private List<User> users;
+
+  /**
+   * Sets up the statement manager and the POJOs to benchmark with.
+   *
+   * @author paouelle
+   */
+  @Setup(Level.Trial)
+  public void setup() {
+    BenchmarkStatementManager.get();
+    this.users = new ArrayList<>(children);
+    for (int i = 0; i < children; i++) {
+      users.add(new User(
+        new UUID(0L, i), "user" + i + "@example.com", "User " + i, i % 100, 2, 16
+      ));
+    }
+    // make sure class info is loaded before measuring
+    StatementBuilder.getClassInfo(User.class);
+  }
+
+  /**
+   * Benchmarks assembling a logged batch of inserts without generating its
+   * query string.
+   *
+   * @author paouelle
+   *
+   * @return the assembled batch
+   */
+  @Benchmark
+  public Batch assembleBatch() {
+    final Batch batch = StatementBuilder.batch();
+
+    for (final User user: users) {
+      batch.add(StatementBuilder.insert(user).intoAll());
+    }
+    return batch;
+  }
+
+  /**
+   * Benchmarks assembling a logged batch of inserts and generating its query
+   * string.
+   *
+   * @author paouelle
+   *
+   * @return the query string
+   */
+  @Benchmark
+  public String buildBatch() {
+    return assembleBatch().getQueryString();
+  }
+
+  /**
+   * Benchmarks assembling an unlogged batch of updates and generating its
+   * query string.
+   *
+   * @author paouelle
+   *
+   * @return the query string
+   */
+  @Benchmark
+  public String buildUnloggedBatch() {
+    final Batch batch = StatementBuilder.unloggedBatch();
+
+    for (final User user: users) {
+      batch.add(StatementBuilder.update(user));
+    }
+    return batch.getQueryString();
+  }
+
+  /**
+   * Benchmarks assembling a group of inserts without generating its query
+   * string.
+   *
+   * @author paouelle
+   *
+   * @return the assembled group
+   */
+  @Benchmark
+  public Group assembleGroup() {
+    final Group group = StatementBuilder.group();
+
+    for (final User user: users) {
+      group.add(StatementBuilder.insert(user).intoAll());
+    }
+    return group;
+  }
+
+  /**
+   * Benchmarks assembling a group of inserts and generating its query string.
+   *
+   * @author paouelle
+   *
+   * @return the query string
+   */
+  @Benchmark
+  public String buildGroup() {
+    return assembleGroup().getQueryString();
+  }
+}
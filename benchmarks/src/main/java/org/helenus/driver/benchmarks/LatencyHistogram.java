@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * The <code>LatencyHistogram</code> class provides a thread-safe histogram
+ * for recording latencies with a bounded relative error (about 3%) and a
+ * fixed memory footprint no matter how many values are recorded.
+ * <p>
+ * Values are recorded in nanoseconds into log-linear buckets where each power
+ * of 2 is split into 32 linear sub-buckets.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 8, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class LatencyHistogram {
+  /**
+   * Holds the number of bits used for sub-buckets.
+   *
+   * @author paouelle
+   */
+  private final static int SUB_BITS = 5;
+
+  /**
+   * Holds the number of sub-buckets per power of 2.
+   *
+   * @author paouelle
+   */
+  private final static int SUB_COUNT = 1 << LatencyHistogram.SUB_BITS;
+
+  /**
+   * Holds the total number of buckets.
+   *
+   * @author paouelle
+   */
+  private final static int BUCKETS
+    = (64 - LatencyHistogram.SUB_BITS) * LatencyHistogram.SUB_COUNT;
+
+  /**
+   * Computes the bucket index for a given value.
+   *
+   * @author paouelle
+   *
+   * @param  value the non-negative value
+   * @return the corresponding bucket index
+   */
+  private static int indexOf(long value) {
+    if (value < LatencyHistogram.SUB_COUNT) {
+      return (int)value;
+    }
+    final int shift = (63 - Long.numberOfLeadingZeros(value)) - LatencyHistogram.SUB_BITS;
+
+    return ((shift + 1) << LatencyHistogram.SUB_BITS)
+      + (int)((value >>> shift) & (LatencyHistogram.SUB_COUNT - 1));
+  }
+
+  /**
+   * Computes the highest value that falls into a given bucket.
+   *
+   * @author paouelle
+   *
+   * @param  index the bucket index
+   * @return the highest value for the bucket
+   */
+  private static long highestValueOf(int index) {
+    if (index < LatencyHistogram.SUB_COUNT) {
+      return index;
+    }
+    final int shift = (index >>> LatencyHistogram.SUB_BITS) - 1;
+    final long sub = index & (LatencyHistogram.SUB_COUNT - 1);
+
+    return ((LatencyHistogram.SUB_COUNT + sub) << shift) + (1L << shift) - 1L;
+  }
+
+  /**
+   * Holds the bucket counts.
+   *
+   * @author paouelle
+   */
+  private final AtomicLongArray counts = new AtomicLongArray(LatencyHistogram.BUCKETS);
+
+  /**
+   * Holds the total number of recorded values.
+   *
+   * @author paouelle
+   */
+  private final AtomicLong count = new AtomicLong();
+
+  /**
+   * Holds the sum of all recorded values.
+   *
+   * @author paouelle
+   */
+  private final AtomicLong sum = new AtomicLong();
+
+  /**
+   * Holds the maximum recorded value.
+   *
+   * @author paouelle
+   */
+  private final AtomicLong max = new AtomicLong();
+
+  /**
+   * Records a latency.
+   *
+   * @author paouelle
+   *
+   * @param nanos the latency in nanoseconds to record (negative values are
+   *        recorded as 0)
+   */
+  public void record(long nanos) {
+    final long v = Math.max(0L, nanos);
+
+    counts.incrementAndGet(LatencyHistogram.indexOf(v));
+    count.incrementAndGet();
+    sum.addAndGet(v);
+    max.accumulateAndGet(v, Math::max);
+  }
+
+  /**
+   * Gets the number of recorded latencies.
+   *
+   * @author paouelle
+   *
+   * @return the number of recorded latencies
+   */
+  public long getCount() {
+    return count.get();
+  }
+
+  /**
+   * Gets the maximum recorded latency.
+   *
+   * @author paouelle
+   *
+   * @param  unit the unit to report the latency in
+   * @return the maximum recorded latency
+   */
+  public double getMax(TimeUnit unit) {
+    return (double)max.get() / unit.toNanos(1L);
+  }
+
+  /**
+   * Gets the mean of all recorded latencies.
+   *
+   * @author paouelle
+   *
+   * @param  unit the unit to report the latency in
+   * @return the mean latency or <code>0</code> if nothing was recorded
+   */
+  public double getMean(TimeUnit unit) {
+    final long c = count.get();
+
+    return (c == 0L) ? 0.0D : (double)sum.get() / c / unit.toNanos(1L);
+  }
+
+  /**
+   * Gets the latency at the specified percentile.
+   *
+   * @author paouelle
+   *
+   * @param  percentile the percentile (e.g. 99.9) to compute
+   * @param  unit the unit to report the latency in
+   * @return the corresponding latency or <code>0</code> if nothing was recorded
+   * @throws IllegalArgumentException if <code>percentile</code> is not between
+   *         0 and 100
+   */
+  public double getPercentile(double percentile, TimeUnit unit) {
+    Validate.inclusiveBetween(
+      0.0D, 100.0D, percentile, "invalid percentile: %f", percentile
+    );
+    final long c = count.get();
+
+    if (c == 0L) {
+      return 0.0D;
+    }
+    final long target = Math.max(1L, (long)Math.ceil(percentile * c / 100.0D));
+    long seen = 0L;
+
+    for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+      seen += counts.get(i);
+      if (seen >= target) {
+        return (double)Math.min(LatencyHistogram.highestValueOf(i), max.get()) / unit.toNanos(1L);
+      }
+    }
+    return getMax(unit);
+  }
+
+  /**
+   * Resets this histogram.
+   *
+   * @author paouelle
+   */
+  public void reset() {
+    for (int i = 0; i < LatencyHistogram.BUCKETS; i++) {
+      counts.set(i, 0L);
+    }
+    count.set(0L);
+    sum.set(0L);
+    max.set(0L);
+  }
+
+  /**
+   * Gets a summary of this histogram in milliseconds.
+   *
+   * @author paouelle
+   *
+   * @return a summary of this histogram
+   */
+  public String toSummary() {
+    return String.format(
+      "count=%d mean=%.3fms p50=%.3fms p99=%.3fms p99.9=%.3fms max=%.3fms",
+      getCount(),
+      getMean(TimeUnit.MILLISECONDS),
+      getPercentile(50.0D, TimeUnit.MILLISECONDS),
+      getPercentile(99.0D, TimeUnit.MILLISECONDS),
+      getPercentile(99.9D, TimeUnit.MILLISECONDS),
+      getMax(TimeUnit.MILLISECONDS)
+    );
+  }
+}
@@ -0,0 +1,187 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.datastax.driver.core.Row;
+
+import org.helenus.driver.benchmarks.entities.Account;
+import org.helenus.driver.benchmarks.entities.Constants;
+import org.helenus.driver.benchmarks.entities.Event;
+import org.helenus.driver.benchmarks.entities.User;
+import org.helenus.driver.impl.ClassInfoImpl;
+
+/**
+ * The <code>RowDecodingBenchmark</code> class measures the cost of converting
+ * result rows into POJOs using stubbed rows which are serialized exactly as
+ * they would be by Cassandra.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 6, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations=5, time=1, timeUnit=TimeUnit.SECONDS)
+@Measurement(iterations=10, time=1, timeUnit=TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class RowDecodingBenchmark {
+  /**
+   * Holds the number of elements in collections and the number of emails
+   * (i.e. multi-key elements) for accounts.
+   *
+   * @author paouelle
+   */
+  @Param({"1", "10", "100"})
+  public int entries;
+
+  /**
+   * Holds the empty keyspace keys used when decoding.
+   *
+   * @author paouelle
+   */
+  private final Map<String, Object> keyspaceKeys = Collections.emptyMap();
+
+  /**
+   * Holds the class info for users.
+   *
+   * @author paouelle
+   */
+  private ClassInfoImpl<User> users;
+
+  /**
+   * Holds the class info for accounts.
+   *
+   * @author paouelle
+   */
+  private ClassInfoImpl<Account> accounts;
+
+  /**
+   * Holds the class info for events.
+   *
+   * @author paouelle
+   */
+  private ClassInfoImpl<Event> events;
+
+  /**
+   * Holds the stubbed row for a user.
+   *
+   * @author paouelle
+   */
+  private Row user;
+
+  /**
+   * Holds the stubbed row for an account.
+   *
+   * @author paouelle
+   */
+  private Row account;
+
+  /**
+   * Holds the stubbed row for an event.
+   *
+   * @author paouelle
+   */
+  private Row event;
+
+  /**
+   * Sets up the statement manager and the stubbed rows to decode.
+   *
+   * @author paouelle
+   */
+  @Setup(Level.Trial)
+  public void setup() {
+    final BenchmarkStatementManager mgr = BenchmarkStatementManager.get();
+
+    this.users = mgr.getClassInfoImpl(User.class);
+    this.accounts = mgr.getClassInfoImpl(Account.class);
+    this.events = mgr.getClassInfoImpl(Event.class);
+    this.user = Rows.of(
+      mgr,
+      new User(UUID.randomUUID(), "john.doe@example.com", "John Doe", 42, entries, 256),
+      Constants.USERS
+    );
+    this.account = Rows.of(
+      mgr,
+      new Account(UUID.randomUUID(), "John.Doe", "John Doe", entries),
+      Constants.ACCOUNTS
+    );
+    this.event = Rows.of(
+      mgr,
+      new Event(
+        UUID.randomUUID(), UUID.randomUUID(), 1486339200000L, "temperature", 21.5D, entries
+      ),
+      Constants.EVENTS
+    );
+  }
+
+  /**
+   * Benchmarks decoding a user row.
+   *
+   * @author paouelle
+   *
+   * @return the decoded user
+   */
+  @Benchmark
+  public User decodeUser() {
+    return users.getObject(user, keyspaceKeys);
+  }
+
+  /**
+   * Benchmarks decoding an account row with case-insensitive multi-keys.
+   *
+   * @author paouelle
+   *
+   * @return the decoded account
+   */
+  @Benchmark
+  public Account decodeAccount() {
+    return accounts.getObject(account, keyspaceKeys);
+  }
+
+  /**
+   * Benchmarks decoding an event row.
+   *
+   * @author paouelle
+   *
+   * @return the decoded event
+   */
+  @Benchmark
+  public Event decodeEvent() {
+    return events.getObject(event, keyspaceKeys);
+  }
+}
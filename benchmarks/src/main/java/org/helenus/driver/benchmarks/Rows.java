@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import java.nio.ByteBuffer;
+
+import org.apache.commons.lang3.tuple.Triple;
+
+import com.datastax.driver.core.ColumnDefinitions;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.RowBridge;
+import com.datastax.driver.core.TypeCodec;
+
+import org.helenus.driver.impl.ClassInfoImpl;
+import org.helenus.driver.impl.StatementManagerImpl;
+import org.helenus.driver.persistence.CQLDataType;
+
+/**
+ * The <code>Rows</code> class provides utility functions for stubbing result
+ * rows out of POJOs as they would be returned by Cassandra.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 6, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public abstract class Rows {
+  /**
+   * Creates a result row for all the columns of a given POJO as it would be
+   * returned when selecting all columns from the specified table.
+   *
+   * @author paouelle
+   *
+   * @param <T> the type of POJO
+   *
+   * @param  mgr the statement manager to use
+   * @param  object the POJO to stub a row for
+   * @param  table the table from which the row should originate
+   * @return the corresponding result row
+   * @throws NullPointerException if <code>object</code> is <code>null</code>
+   * @throws IllegalArgumentException if the POJO class is invalid or if a
+   *         mandatory column is missing from the POJO
+   */
+  @SuppressWarnings("unchecked")
+  public static <T> Row of(StatementManagerImpl mgr, T object, String table) {
+    org.apache.commons.lang3.Validate.notNull(object, "invalid null object");
+    final ClassInfoImpl<T> cinfo = mgr.getClassInfoImpl((Class<T>)object.getClass());
+    final ClassInfoImpl<T>.POJOContext context = cinfo.newContext(object);
+    final String keyspace = context.getKeyspace();
+    final Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> columns
+      = context.getColumnValues(table);
+    final ColumnDefinitions.Definition[] defs
+      = new ColumnDefinitions.Definition[columns.size()];
+    final List<ByteBuffer> values = new ArrayList<>(columns.size());
+    int i = 0;
+
+    for (final Map.Entry<String, Triple<Object, CQLDataType, TypeCodec<?>>> e: columns.entrySet()) {
+      final Triple<Object, CQLDataType, TypeCodec<?>> t = e.getValue();
+      final TypeCodec<Object> codec = (TypeCodec<Object>)t.getRight();
+
+      defs[i++] = RowBridge.newDefinition(
+        keyspace, table, e.getKey(), codec.getCqlType()
+      );
+      values.add(
+        (t.getLeft() != null)
+        ? codec.serialize(t.getLeft(), mgr.getProtocolVersion())
+        : null
+      );
+    }
+    return RowBridge.newRow(
+      RowBridge.newDefinitions(defs, mgr.getCodecRegistry()),
+      mgr.getProtocolVersion(),
+      values
+    );
+  }
+
+  /**
+   * Prevents instantiation.
+   *
+   * @author paouelle
+   */
+  private Rows() {}
+}
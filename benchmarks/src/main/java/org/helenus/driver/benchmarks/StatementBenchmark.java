@@ -0,0 +1,279 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import java.time.Instant;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.helenus.driver.StatementBuilder;
+import org.helenus.driver.benchmarks.entities.Account;
+import org.helenus.driver.benchmarks.entities.Constants;
+import org.helenus.driver.benchmarks.entities.Event;
+import org.helenus.driver.benchmarks.entities.User;
+
+/**
+ * The <code>StatementBenchmark</code> class measures the cost of building
+ * the query strings for INSERT, UPDATE, DELETE and SELECT statements for a
+ * set of realistic entities; including ones with multi-keys and
+ * case-insensitive keys.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 6, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations=5, time=1, timeUnit=TimeUnit.SECONDS)
+@Measurement(iterations=10, time=1, timeUnit=TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class StatementBenchmark {
+  /**
+   * Holds the number of elements in collections and the number of emails
+   * (i.e. multi-key elements) for accounts.
+   *
+   * @author paouelle
+   */
+  @Param({"1", "10"})
+  public int entries;
+
+  /**
+   * Holds the user to benchmark with.
+   *
+   * @author paouelle
+   */
+  private User user;
+
+  /**
+   * Holds the account to benchmark with.
+   *
+   * @author paouelle
+   */
+  private Account account;
+
+  /**
+   * Holds the event to benchmark with.
+   *
+   * @author paouelle
+   */
+  private Event event;
+
+  /**
+   * Holds the device to select events for.
+   *
+   * @author paouelle
+   */
+  private UUID device;
+
+  /**
+   * Holds the time from which to select events.
+   *
+   * @author paouelle
+   */
+  private Instant since;
+
+  /**
+   * Sets up the statement manager and the POJOs to benchmark with.
+   *
+   * @author paouelle
+   */
+  @Setup(Level.Trial)
+  public void setup() {
+    BenchmarkStatementManager.get();
+    this.user = new User(
+      UUID.randomUUID(), "john.doe@example.com", "John Doe", 42, entries, 256
+    );
+    this.account = new Account(UUID.randomUUID(), "John.Doe", "John Doe", entries);
+    this.device = UUID.randomUUID();
+    this.since = Instant.ofEpochMilli(1486339200000L);
+    this.event = new Event(
+      device, UUID.randomUUID(), since.toEpochMilli(), "temperature", 21.5D, entries
+    );
+    // make sure class info is loaded before measuring
+    StatementBuilder.getClassInfo(User.class);
+    StatementBuilder.getClassInfo(Account.class);
+    StatementBuilder.getClassInfo(Event.class);
+  }
+
+  /**
+   * Benchmarks building an INSERT statement for a user.
+   *
+   * @author paouelle
+   *
+   * @return the query string
+   */
+  @Benchmark
+  public String insertUser() {
+    return StatementBuilder.insert(user).intoAll().getQueryString();
+  }
+
+  /**
+   * Benchmarks building an INSERT statement for an account with case-insensitive
+   * multi-keys.
+   *
+   * @author paouelle
+   *
+   * @return the query string
+   */
+  @Benchmark
+  public String insertAccount() {
+    return StatementBuilder.insert(account).intoAll().getQueryString();
+  }
+
+  /**
+   * Benchmarks building an INSERT statement for an event.
+   *
+   * @author paouelle
+   *
+   * @return the query string
+   */
+  @Benchmark
+  public String insertEvent() {
+    return StatementBuilder.insert(event).intoAll().getQueryString();
+  }
+
+  /**
+   * Benchmarks building an UPDATE statement for a user.
+   *
+   * @author paouelle
+   *
+   * @return the query string
+   */
+  @Benchmark
+  public String updateUser() {
+    return StatementBuilder.update(user).getQueryString();
+  }
+
+  /**
+   * Benchmarks building an UPDATE statement for an account with case-insensitive
+   * multi-keys.
+   *
+   * @author paouelle
+   *
+   * @return the query string
+   */
+  @Benchmark
+  public String updateAccount() {
+    return StatementBuilder.update(account).getQueryString();
+  }
+
+  /**
+   * Benchmarks building an UPDATE statement for an event.
+   *
+   * @author paouelle
+   *
+   * @return the query string
+   */
+  @Benchmark
+  public String updateEvent() {
+    return StatementBuilder.update(event).getQueryString();
+  }
+
+  /**
+   * Benchmarks building a DELETE statement for a user.
+   *
+   * @author paouelle
+   *
+   * @return the query string
+   */
+  @Benchmark
+  public String deleteUser() {
+    return StatementBuilder.delete(user).all().fromAll().getQueryString();
+  }
+
+  /**
+   * Benchmarks building a DELETE statement for an account with case-insensitive
+   * multi-keys.
+   *
+   * @author paouelle
+   *
+   * @return the query string
+   */
+  @Benchmark
+  public String deleteAccount() {
+    return StatementBuilder.delete(account).all().fromAll().getQueryString();
+  }
+
+  /**
+   * Benchmarks building a SELECT statement for a user by id.
+   *
+   * @author paouelle
+   *
+   * @return the query string
+   */
+  @Benchmark
+  public String selectUser() {
+    return StatementBuilder.select(User.class)
+      .all()
+      .from(Constants.USERS)
+      .where(StatementBuilder.eq(Constants.ID, user.getId()))
+      .getQueryString();
+  }
+
+  /**
+   * Benchmarks building a SELECT statement for an account by its case-insensitive
+   * login.
+   *
+   * @author paouelle
+   *
+   * @return the query string
+   */
+  @Benchmark
+  public String selectAccountIgnoreCase() {
+    return StatementBuilder.select(Account.class)
+      .all()
+      .from(Constants.ACCOUNTS)
+      .where(StatementBuilder.eq(Constants.LOGIN, account.getLogin()))
+      .getQueryString();
+  }
+
+  /**
+   * Benchmarks building a SELECT statement for a range of events.
+   *
+   * @author paouelle
+   *
+   * @return the query string
+   */
+  @Benchmark
+  public String selectEventRange() {
+    return StatementBuilder.select(Event.class)
+      .all()
+      .from(Constants.EVENTS)
+      .where(StatementBuilder.eq(Constants.DEVICE, device))
+      .and(StatementBuilder.eq(Constants.BUCKET, 17203))
+      .and(StatementBuilder.gte(Constants.TIME, since))
+      .limit(100)
+      .getQueryString();
+  }
+}
@@ -0,0 +1,341 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks.codecs;
+
+import java.util.Date;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.IntFunction;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.nio.ByteBuffer;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+
+import javax.json.Json;
+import javax.json.JsonObjectBuilder;
+import javax.json.JsonStructure;
+
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.TypeCodec;
+import com.datastax.driver.core.utils.UUIDs;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.helenus.driver.benchmarks.BenchmarkStatementManager;
+import org.helenus.driver.benchmarks.entities.Constants;
+import org.helenus.driver.benchmarks.entities.Strings;
+import org.helenus.driver.persistence.DataType;
+
+/**
+ * The <code>CodecProviderBenchmark</code> class measures the serialize,
+ * deserialize, format, and parse throughput of the codecs returned by each
+ * of the {@link org.helenus.driver.codecs.provider.CodecProvider} for every
+ * Java types they support. Run it with the GC profiler enabled to also report
+ * allocation rates.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 7, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations=5, time=1, timeUnit=TimeUnit.SECONDS)
+@Measurement(iterations=10, time=1, timeUnit=TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class CodecProviderBenchmark {
+  /**
+   * The <code>Sample</code> enumeration defines all data types and Java
+   * classes combinations supported by the codec providers along with a way to
+   * generate a sample value.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 7, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  public enum Sample {
+    ASCII_STRING(DataType.ASCII, String.class, s -> Strings.of(s)),
+    ASCII_ENUM(DataType.ASCII, TimeUnit.class, s -> TimeUnit.MILLISECONDS),
+    ASCII_CLASS(DataType.ASCII, Class.class, s -> String.class),
+    ASCII_LOCALE(DataType.ASCII, Locale.class, s -> Locale.CANADA_FRENCH),
+    ASCII_ZONE_ID(DataType.ASCII, ZoneId.class, s -> ZoneId.of("America/Montreal")),
+    BIGINT_LONG(DataType.BIGINT, Long.class, s -> 1486339200000L),
+    BLOB_BYTE_BUFFER(DataType.BLOB, ByteBuffer.class, s -> ByteBuffer.wrap(Sample.bytes(s))),
+    BLOB_BYTE_ARRAY(DataType.BLOB, byte[].class, s -> Sample.bytes(s)),
+    BOOLEAN_BOOLEAN(DataType.BOOLEAN, Boolean.class, s -> Boolean.TRUE),
+    COUNTER_LONG(DataType.COUNTER, Long.class, s -> 42L),
+    COUNTER_ATOMIC_LONG(DataType.COUNTER, AtomicLong.class, s -> new AtomicLong(42L)),
+    DATE_INTEGER(DataType.DATE, Integer.class, s -> 17203),
+    DATE_LOCAL_DATE(DataType.DATE, LocalDate.class, s -> LocalDate.of(2017, 2, 7)),
+    DATE_DRIVER_LOCAL_DATE(
+      DataType.DATE,
+      com.datastax.driver.core.LocalDate.class,
+      s -> com.datastax.driver.core.LocalDate.fromYearMonthDay(2017, 2, 7)
+    ),
+    DECIMAL_BIG_DECIMAL(DataType.DECIMAL, BigDecimal.class, s -> new BigDecimal(Sample.digits(s) + ".25")),
+    DOUBLE_DOUBLE(DataType.DOUBLE, Double.class, s -> 3.14159D),
+    FLOAT_FLOAT(DataType.FLOAT, Float.class, s -> 3.14159F),
+    INET_INET_ADDRESS(DataType.INET, InetAddress.class, s -> InetAddress.getLoopbackAddress()),
+    INT_INTEGER(DataType.INT, Integer.class, s -> 123456),
+    SMALLINT_SHORT(DataType.SMALLINT, Short.class, s -> (short)1234),
+    TINYINT_BYTE(DataType.TINYINT, Byte.class, s -> (byte)12),
+    TEXT_STRING(DataType.TEXT, String.class, s -> Strings.of(s)),
+    TIME_LONG(DataType.TIME, Long.class, s -> 49510000000000L),
+    TIME_LOCAL_TIME(DataType.TIME, LocalTime.class, s -> LocalTime.of(13, 45, 10)),
+    TIMEUUID_UUID(DataType.TIMEUUID, UUID.class, s -> UUIDs.timeBased()),
+    TIMESTAMP_LONG(DataType.TIMESTAMP, Long.class, s -> 1486339200000L),
+    TIMESTAMP_DATE(DataType.TIMESTAMP, Date.class, s -> new Date(1486339200000L)),
+    TIMESTAMP_INSTANT(DataType.TIMESTAMP, Instant.class, s -> Instant.ofEpochMilli(1486339200000L)),
+    UUID_UUID(DataType.UUID, UUID.class, s -> new UUID(0x0123456789abcdefL, 0xfedcba9876543210L)),
+    VARCHAR_STRING(DataType.VARCHAR, String.class, s -> Strings.of(s)),
+    VARCHAR_JSON(DataType.VARCHAR, JsonStructure.class, s -> Sample.json(s)),
+    VARINT_BIG_INTEGER(DataType.VARINT, BigInteger.class, s -> new BigInteger(Sample.digits(s)));
+
+    /**
+     * Holds the data type for this sample.
+     *
+     * @author paouelle
+     */
+    final DataType type;
+
+    /**
+     * Holds the Java class for this sample.
+     *
+     * @author paouelle
+     */
+    final Class<?> clazz;
+
+    /**
+     * Holds the generator for sample values.
+     *
+     * @author paouelle
+     */
+    final IntFunction<Object> generator;
+
+    /**
+     * Generates a byte array of the specified size.
+     *
+     * @author paouelle
+     *
+     * @param  size the size of the array
+     * @return the corresponding byte array
+     */
+    private static byte[] bytes(int size) {
+      final byte[] bytes = new byte[size];
+
+      for (int i = 0; i < size; i++) {
+        bytes[i] = (byte)i;
+      }
+      return bytes;
+    }
+
+    /**
+     * Generates a string of the specified number of digits.
+     *
+     * @author paouelle
+     *
+     * @param  size the number of digits
+     * @return the corresponding string of digits
+     */
+    private static String digits(int size) {
+      final StringBuilder sb = new StringBuilder(size);
+
+      for (int i = 0; i < size; i++) {
+        sb.append((char)('1' + (i % 9)));
+      }
+      return sb.toString();
+    }
+
+    /**
+     * Generates a Json object with the specified number of properties.
+     *
+     * @author paouelle
+     *
+     * @param  size the number of properties
+     * @return the corresponding Json object
+     */
+    private static JsonStructure json(int size) {
+      final JsonObjectBuilder builder = Json.createObjectBuilder();
+
+      for (int i = 0; i < size; i++) {
+        builder.add("property-" + i, i);
+      }
+      return builder.build();
+    }
+
+    /**
+     * Instantiates a new <code>Sample</code> object.
+     *
+     * @author paouelle
+     *
+     * @param type the data type for this sample
+     * @param clazz the Java class for this sample
+     * @param generator the generator for sample values
+     */
+    private Sample(DataType type, Class<?> clazz, IntFunction<Object> generator) {
+      this.type = type;
+      this.clazz = clazz;
+      this.generator = generator;
+    }
+  }
+
+  /**
+   * Holds the sample to benchmark.
+   *
+   * @author paouelle
+   */
+  @Param
+  public Sample sample;
+
+  /**
+   * Holds the size of variable-length values (strings, blobs, big numbers,
+   * and Json objects); ignored by fixed-length ones.
+   *
+   * @author paouelle
+   */
+  @Param({"16", "1024"})
+  public int size;
+
+  /**
+   * Holds the protocol version to use.
+   *
+   * @author paouelle
+   */
+  private ProtocolVersion protocolVersion;
+
+  /**
+   * Holds the codec being benchmarked.
+   *
+   * @author paouelle
+   */
+  private TypeCodec<Object> codec;
+
+  /**
+   * Holds the value to serialize and format.
+   *
+   * @author paouelle
+   */
+  private Object value;
+
+  /**
+   * Holds the serialized value to deserialize.
+   *
+   * @author paouelle
+   */
+  private ByteBuffer bytes;
+
+  /**
+   * Holds the formatted value to parse or <code>null</code> if the codec
+   * doesn't support parsing back its formatted values.
+   *
+   * @author paouelle
+   */
+  private String text;
+
+  /**
+   * Sets up the codec and the values to benchmark with.
+   *
+   * @author paouelle
+   */
+  @SuppressWarnings("unchecked")
+  @Setup(Level.Trial)
+  public void setup() {
+    this.protocolVersion = BenchmarkStatementManager.PROTOCOL_VERSION;
+    this.codec = (TypeCodec<Object>)sample.type.codecFor(Constants.BENCHMARKS, sample.clazz);
+    this.value = sample.generator.apply(size);
+    this.bytes = codec.serialize(value, protocolVersion);
+    final String text = codec.format(value);
+
+    try {
+      codec.parse(text);
+      this.text = text;
+    } catch (RuntimeException e) { // not all codecs can parse back
+      this.text = null;
+    }
+  }
+
+  /**
+   * Benchmarks serializing a value.
+   *
+   * @author paouelle
+   *
+   * @return the serialized value
+   */
+  @Benchmark
+  public ByteBuffer serialize() {
+    return codec.serialize(value, protocolVersion);
+  }
+
+  /**
+   * Benchmarks deserializing a value.
+   *
+   * @author paouelle
+   *
+   * @return the deserialized value
+   */
+  @Benchmark
+  public Object deserialize() {
+    return codec.deserialize(bytes.duplicate(), protocolVersion);
+  }
+
+  /**
+   * Benchmarks formatting a value.
+   *
+   * @author paouelle
+   *
+   * @return the formatted value
+   */
+  @Benchmark
+  public String format() {
+    return codec.format(value);
+  }
+
+  /**
+   * Benchmarks parsing a value.
+   *
+   * @author paouelle
+   *
+   * @return the parsed value or <code>null</code> if not supported by the codec
+   */
+  @Benchmark
+  public Object parse() {
+    return (text != null) ? codec.parse(text) : null;
+  }
+}
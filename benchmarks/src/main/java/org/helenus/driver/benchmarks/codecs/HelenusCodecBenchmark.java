@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks.codecs;
+
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import java.nio.ByteBuffer;
+
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.TypeCodec;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import org.helenus.driver.benchmarks.BenchmarkStatementManager;
+import org.helenus.driver.benchmarks.entities.CodecSample;
+import org.helenus.driver.benchmarks.entities.Constants;
+import org.helenus.driver.impl.ClassInfoImpl;
+import org.helenus.driver.impl.FieldInfoImpl;
+
+/**
+ * The <code>HelenusCodecBenchmark</code> class measures the serialize,
+ * deserialize, format, and parse throughput of the codecs resolved by Helenus
+ * for the different kinds of columns it supports (sorted/ordered collections,
+ * pairs, triples, mandatory collections and tuples, user-defined types, and
+ * the {@link org.helenus.driver.codecs.ArgumentsCodec} wrapping all of them).
+ * <p>
+ * The codecs are retrieved from the column definitions of the
+ * {@link CodecSample} entity such that the exact codec chain used in
+ * production gets measured. Run it with the GC profiler enabled to also
+ * report allocation rates.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 7, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations=5, time=1, timeUnit=TimeUnit.SECONDS)
+@Measurement(iterations=10, time=1, timeUnit=TimeUnit.SECONDS)
+@Fork(1)
+@State(Scope.Benchmark)
+public class HelenusCodecBenchmark {
+  /**
+   * Holds the name of the column whose codec should be benchmarked.
+   *
+   * @author paouelle
+   */
+  @Param({
+    Constants.LIST,
+    Constants.SET,
+    Constants.ORDERED_SET,
+    Constants.SORTED_SET,
+    Constants.MAP,
+    Constants.SORTED_MAP,
+    Constants.PAIR,
+    Constants.TRIPLE,
+    Constants.MANDATORY_LIST,
+    Constants.MANDATORY_MAP,
+    Constants.MANDATORY_PAIR,
+    Constants.MANDATORY_TRIPLE,
+    Constants.ADDRESS
+  })
+  public String column;
+
+  /**
+   * Holds the number of elements in collections and the length of strings.
+   *
+   * @author paouelle
+   */
+  @Param({"1", "16", "256"})
+  public int size;
+
+  /**
+   * Holds the protocol version to use.
+   *
+   * @author paouelle
+   */
+  private ProtocolVersion protocolVersion;
+
+  /**
+   * Holds the codec being benchmarked.
+   *
+   * @author paouelle
+   */
+  private TypeCodec<Object> codec;
+
+  /**
+   * Holds the value to serialize and format.
+   *
+   * @author paouelle
+   */
+  private Object value;
+
+  /**
+   * Holds the serialized value to deserialize.
+   *
+   * @author paouelle
+   */
+  private ByteBuffer bytes;
+
+  /**
+   * Holds the formatted value to parse or <code>null</code> if the codec
+   * doesn't support parsing back its formatted values.
+   *
+   * @author paouelle
+   */
+  private String text;
+
+  /**
+   * Sets up the codec and the values to benchmark with.
+   *
+   * @author paouelle
+   */
+  @SuppressWarnings("unchecked")
+  @Setup(Level.Trial)
+  public void setup() {
+    final BenchmarkStatementManager mgr = BenchmarkStatementManager.get();
+    final ClassInfoImpl<CodecSample> cinfo = mgr.getClassInfoImpl(CodecSample.class);
+    final FieldInfoImpl<CodecSample> finfo = cinfo
+      .getTableImpl(Constants.CODEC_SAMPLES)
+      .getColumnImpl(column);
+
+    org.apache.commons.lang3.Validate.isTrue(
+      finfo != null, "unknown column: %s", column
+    );
+    this.protocolVersion = mgr.getProtocolVersion();
+    this.codec = (TypeCodec<Object>)finfo.getCodec(Constants.BENCHMARKS);
+    this.value = finfo.getValue(new CodecSample(new UUID(0L, 1L), size));
+    this.bytes = codec.serialize(value, protocolVersion);
+    final String text = codec.format(value);
+
+    try {
+      codec.parse(text);
+      this.text = text;
+    } catch (RuntimeException e) { // not all codecs can parse back
+      this.text = null;
+    }
+  }
+
+  /**
+   * Benchmarks serializing a value.
+   *
+   * @author paouelle
+   *
+   * @return the serialized value
+   */
+  @Benchmark
+  public ByteBuffer serialize() {
+    return codec.serialize(value, protocolVersion);
+  }
+
+  /**
+   * Benchmarks deserializing a value.
+   *
+   * @author paouelle
+   *
+   * @return the deserialized value
+   */
+  @Benchmark
+  public Object deserialize() {
+    return codec.deserialize(bytes.duplicate(), protocolVersion);
+  }
+
+  /**
+   * Benchmarks formatting a value.
+   *
+   * @author paouelle
+   *
+   * @return the formatted value
+   */
+  @Benchmark
+  public String format() {
+    return codec.format(value);
+  }
+
+  /**
+   * Benchmarks parsing a value.
+   *
+   * @author paouelle
+   *
+   * @return the parsed value or <code>null</code> if not supported by the codec
+   */
+  @Benchmark
+  public Object parse() {
+    return (text != null) ? codec.parse(text) : null;
+  }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks.entities;
+
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.UUID;
+
+import org.helenus.driver.persistence.Column;
+import org.helenus.driver.persistence.Entity;
+import org.helenus.driver.persistence.Keyspace;
+import org.helenus.driver.persistence.Mandatory;
+import org.helenus.driver.persistence.PartitionKey;
+import org.helenus.driver.persistence.PlacementClass;
+import org.helenus.driver.persistence.Table;
+
+/**
+ * The <code>Account</code> class provides the definition for an account
+ * which can be looked up either by its login or by any of its emails. It
+ * exercises case-insensitive keys as well as multi-keys which results in
+ * the driver generating one row per email.
+ * <p>
+ * <ul>
+ *   <li>Keyspace: "helenus_benchmarks"</li>
+ *   <li>Table: "accounts"
+ *     <ul>
+ *       <li>Partition Key: [login] (case-insensitive)</li>
+ *     </ul>
+ *   </li>
+ *   <li>Table: "accounts_by_email"
+ *     <ul>
+ *       <li>Partition Key: [emails] (case-insensitive multi-key)</li>
+ *     </ul>
+ *   </li>
+ *   <li>Data:
+ *     <ul>
+ *       <li>[id]</li>
+ *       <li>[name]</li>
+ *       <li>[enabled]</li>
+ *     </ul>
+ *   </li>
+ * </ul>
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 6, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+@Keyspace(name=Constants.BENCHMARKS, placement=PlacementClass.SIMPLE, replicationFactor=1)
+@Table(name=Constants.ACCOUNTS, primary=true)
+@Table(name=Constants.ACCOUNTS_BY_EMAIL)
+@Entity
+public class Account {
+  /**
+   * Holds the account's login.
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.LOGIN)
+  @PartitionKey(table=Constants.ACCOUNTS, ignoreCase=true)
+  @Mandatory
+  private String login;
+
+  /**
+   * Holds the account's emails.
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.EMAILS)
+  @PartitionKey(table=Constants.ACCOUNTS_BY_EMAIL, ignoreCase=true)
+  @Mandatory
+  private Set<String> emails;
+
+  /**
+   * Holds the account's id.
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.ID)
+  @Mandatory
+  private UUID id;
+
+  /**
+   * Holds the account's display name.
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.NAME)
+  private String name;
+
+  /**
+   * Holds the flag indicating if the account is enabled.
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.ENABLED)
+  private boolean enabled;
+
+  /**
+   * Instantiates a new <code>Account</code> object.
+   *
+   * @author paouelle
+   *
+   * @param id the account id
+   * @param login the account login
+   * @param name the account display name
+   * @param emails the number of emails to generate for the account
+   */
+  public Account(UUID id, String login, String name, int emails) {
+    this.id = id;
+    this.login = login;
+    this.name = name;
+    this.enabled = true;
+    this.emails = new LinkedHashSet<>(emails * 2);
+    for (int i = 0; i < emails; i++) {
+      this.emails.add(login + '.' + i + "@Example.com");
+    }
+  }
+
+  /**
+   * Gets the account's login.
+   *
+   * @author paouelle
+   *
+   * @return the account's login
+   */
+  public String getLogin() {
+    return login;
+  }
+
+  /**
+   * Sets the flag indicating if the account is enabled.
+   *
+   * @author paouelle
+   *
+   * @param enabled <code>true</code> if the account is enabled; <code>false</code>
+   *        otherwise
+   */
+  public void setEnabled(boolean enabled) {
+    this.enabled = enabled;
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks.entities;
+
+import org.helenus.driver.persistence.Column;
+import org.helenus.driver.persistence.Keyspace;
+import org.helenus.driver.persistence.PlacementClass;
+import org.helenus.driver.persistence.UDTEntity;
+
+/**
+ * The <code>Address</code> class provides the definition for a user-defined
+ * type representing a postal address.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 7, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+@Keyspace(name=Constants.BENCHMARKS, placement=PlacementClass.SIMPLE, replicationFactor=1)
+@UDTEntity(name=Constants.ADDRESS)
+public class Address {
+  /**
+   * Holds the street.
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.STREET)
+  private String street;
+
+  /**
+   * Holds the city.
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.CITY)
+  private String city;
+
+  /**
+   * Holds the zip code.
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.ZIP)
+  private int zip;
+
+  /**
+   * Instantiates a new <code>Address</code> object.
+   *
+   * @author paouelle
+   *
+   * @param street the street
+   * @param city the city
+   * @param zip the zip code
+   */
+  public Address(String street, String city, int zip) {
+    this.street = street;
+    this.city = city;
+    this.zip = zip;
+  }
+}
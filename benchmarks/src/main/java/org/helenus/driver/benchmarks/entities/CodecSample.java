@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks.entities;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.Triple;
+
+import org.helenus.driver.persistence.Column;
+import org.helenus.driver.persistence.Entity;
+import org.helenus.driver.persistence.Keyspace;
+import org.helenus.driver.persistence.Mandatory;
+import org.helenus.driver.persistence.PartitionKey;
+import org.helenus.driver.persistence.PlacementClass;
+import org.helenus.driver.persistence.Table;
+
+/**
+ * The <code>CodecSample</code> class provides the definition for an entity
+ * defining one column for each kind of codec provided by Helenus such that
+ * the codecs resolved by the driver for each of them can be benchmarked.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 7, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+@Keyspace(name=Constants.BENCHMARKS, placement=PlacementClass.SIMPLE, replicationFactor=1)
+@Table(name=Constants.CODEC_SAMPLES)
+@Entity
+public class CodecSample {
+  /**
+   * Holds the unique sample id.
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.ID)
+  @PartitionKey
+  @Mandatory
+  private UUID id;
+
+  /**
+   * Holds a list (list codec).
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.LIST)
+  private List<String> list;
+
+  /**
+   * Holds a set (set codec).
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.SET)
+  private Set<String> set;
+
+  /**
+   * Holds an ordered set (linked hash set codec).
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.ORDERED_SET)
+  private LinkedHashSet<String> orderedSet;
+
+  /**
+   * Holds a sorted set (sorted set codec).
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.SORTED_SET)
+  private SortedSet<String> sortedSet;
+
+  /**
+   * Holds a map (map codec).
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.MAP)
+  private Map<String, Long> map;
+
+  /**
+   * Holds a sorted map (sorted map codec).
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.SORTED_MAP)
+  private SortedMap<String, Long> sortedMap;
+
+  /**
+   * Holds a pair (pair codec).
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.PAIR)
+  private Pair<String, Integer> pair;
+
+  /**
+   * Holds a triple (triple codec).
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.TRIPLE)
+  private Triple<String, Integer, UUID> triple;
+
+  /**
+   * Holds a mandatory list (mandatory collection codec).
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.MANDATORY_LIST)
+  @Mandatory
+  private List<String> mandatoryList;
+
+  /**
+   * Holds a mandatory map (mandatory map codec).
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.MANDATORY_MAP)
+  @Mandatory
+  private Map<String, Long> mandatoryMap;
+
+  /**
+   * Holds a mandatory pair (mandatory pair codec).
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.MANDATORY_PAIR)
+  @Mandatory
+  private Pair<String, Integer> mandatoryPair;
+
+  /**
+   * Holds a mandatory triple (mandatory triple codec).
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.MANDATORY_TRIPLE)
+  @Mandatory
+  private Triple<String, Integer, UUID> mandatoryTriple;
+
+  /**
+   * Holds an address (user-defined type codec).
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.ADDRESS)
+  private Address address;
+
+  /**
+   * Instantiates a new <code>CodecSample</code> object.
+   *
+   * @author paouelle
+   *
+   * @param id the sample id
+   * @param size the number of elements to generate for collections and the
+   *        length of the strings to generate
+   */
+  public CodecSample(UUID id, int size) {
+    final String s = Strings.of(size);
+
+    this.id = id;
+    this.list = new ArrayList<>(size);
+    this.set = new HashSet<>(size * 2);
+    this.orderedSet = new LinkedHashSet<>(size * 2);
+    this.sortedSet = new TreeSet<>();
+    this.map = new HashMap<>(size * 2);
+    this.sortedMap = new TreeMap<>();
+    this.mandatoryList = new ArrayList<>(size);
+    this.mandatoryMap = new HashMap<>(size * 2);
+    for (int i = 0; i < size; i++) {
+      final String e = "element-" + i;
+
+      list.add(e);
+      set.add(e);
+      orderedSet.add(e);
+      sortedSet.add(e);
+      map.put(e, (long)i);
+      sortedMap.put(e, (long)i);
+      mandatoryList.add(e);
+      mandatoryMap.put(e, (long)i);
+    }
+    this.pair = Pair.of(s, size);
+    this.triple = Triple.of(s, size, id);
+    this.mandatoryPair = Pair.of(s, size);
+    this.mandatoryTriple = Triple.of(s, size, id);
+    this.address = new Address(s, "Ottawa", 12345);
+  }
+}
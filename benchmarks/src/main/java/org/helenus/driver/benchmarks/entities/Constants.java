@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks.entities;
+
+/**
+ * The <code>Constants</code> class defines various constants used by the
+ * benchmark entities.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 6, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+@SuppressWarnings("javadoc")
+public abstract class Constants {
+  /**
+   * Holds keyspace constants.
+   *
+   * @author paouelle
+   */
+  public static final String BENCHMARKS = "helenus_benchmarks";
+
+  /**
+   * Holds table constants.
+   *
+   * @author paouelle
+   */
+  public static final String USERS = "users";
+  public static final String ACCOUNTS = "accounts";
+  public static final String ACCOUNTS_BY_EMAIL = "accounts_by_email";
+  public static final String EVENTS = "events";
+  public static final String CODEC_SAMPLES = "codec_samples";
+
+  /**
+   * Holds user-defined type constants.
+   *
+   * @author paouelle
+   */
+  public static final String ADDRESS = "address";
+
+  /**
+   * Holds column constants.
+   *
+   * @author paouelle
+   */
+  public static final String ID = "id";
+  public static final String EMAIL = "email";
+  public static final String EMAILS = "emails";
+  public static final String NAME = "name";
+  public static final String AGE = "age";
+  public static final String CREATED = "created";
+  public static final String ROLES = "roles";
+  public static final String HISTORY = "history";
+  public static final String COUNTERS = "counters";
+  public static final String AVATAR = "avatar";
+  public static final String LOGIN = "login";
+  public static final String ENABLED = "enabled";
+  public static final String DEVICE = "device";
+  public static final String BUCKET = "bucket";
+  public static final String TIME = "time";
+  public static final String TYPE = "type";
+  public static final String VALUE = "value";
+  public static final String ATTRIBUTES = "attributes";
+  public static final String STREET = "street";
+  public static final String CITY = "city";
+  public static final String ZIP = "zip";
+  public static final String LIST = "list";
+  public static final String SET = "set";
+  public static final String ORDERED_SET = "ordered_set";
+  public static final String SORTED_SET = "sorted_set";
+  public static final String MAP = "map";
+  public static final String SORTED_MAP = "sorted_map";
+  public static final String PAIR = "pair";
+  public static final String TRIPLE = "triple";
+  public static final String MANDATORY_LIST = "mandatory_list";
+  public static final String MANDATORY_MAP = "mandatory_map";
+  public static final String MANDATORY_PAIR = "mandatory_pair";
+  public static final String MANDATORY_TRIPLE = "mandatory_triple";
+
+  /**
+   * Prevents instantiation.
+   *
+   * @author paouelle
+   */
+  private Constants() {}
+}
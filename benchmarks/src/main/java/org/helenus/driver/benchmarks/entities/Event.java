@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks.entities;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import java.time.Instant;
+
+import org.helenus.driver.persistence.ClusteringKey;
+import org.helenus.driver.persistence.Column;
+import org.helenus.driver.persistence.Entity;
+import org.helenus.driver.persistence.Keyspace;
+import org.helenus.driver.persistence.Mandatory;
+import org.helenus.driver.persistence.Ordering;
+import org.helenus.driver.persistence.PartitionKey;
+import org.helenus.driver.persistence.PlacementClass;
+import org.helenus.driver.persistence.Table;
+
+/**
+ * The <code>Event</code> class provides the definition for a time series
+ * event reported by a device. It exercises composite partition keys and
+ * multiple clustering keys.
+ * <p>
+ * <ul>
+ *   <li>Keyspace: "helenus_benchmarks"</li>
+ *   <li>Table: "events"</li>
+ *   <li>Partition Key: [device, bucket]</li>
+ *   <li>Clustering Key: [time (desc), id]</li>
+ *   <li>Data:
+ *     <ul>
+ *       <li>[type]</li>
+ *       <li>[value]</li>
+ *       <li>[attributes]</li>
+ *     </ul>
+ *   </li>
+ * </ul>
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 6, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+@Keyspace(name=Constants.BENCHMARKS, placement=PlacementClass.SIMPLE, replicationFactor=1)
+@Table(name=Constants.EVENTS, partition={Constants.DEVICE, Constants.BUCKET}, clustering={Constants.TIME, Constants.ID})
+@Entity
+public class Event {
+  /**
+   * Holds the device which reported the event.
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.DEVICE)
+  @PartitionKey
+  @Mandatory
+  private UUID device;
+
+  /**
+   * Holds the day bucket for the event.
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.BUCKET)
+  @PartitionKey
+  @Mandatory
+  private int bucket;
+
+  /**
+   * Holds the time the event occurred.
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.TIME)
+  @ClusteringKey(order=Ordering.DESCENDING)
+  @Mandatory
+  private Instant time;
+
+  /**
+   * Holds the unique event id.
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.ID)
+  @ClusteringKey
+  @Mandatory
+  private UUID id;
+
+  /**
+   * Holds the event type.
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.TYPE)
+  private String type;
+
+  /**
+   * Holds the event value.
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.VALUE)
+  private double value;
+
+  /**
+   * Holds the event attributes.
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.ATTRIBUTES)
+  private Map<String, String> attributes;
+
+  /**
+   * Instantiates a new <code>Event</code> object.
+   *
+   * @author paouelle
+   *
+   * @param device the device which reported the event
+   * @param id the event id
+   * @param time the time in milliseconds when the event occurred
+   * @param type the event type
+   * @param value the event value
+   * @param entries the number of attributes to generate for the event
+   */
+  public Event(UUID device, UUID id, long time, String type, double value, int entries) {
+    this.device = device;
+    this.bucket = (int)(time / 86400000L);
+    this.time = Instant.ofEpochMilli(time);
+    this.id = id;
+    this.type = type;
+    this.value = value;
+    this.attributes = new LinkedHashMap<>(entries * 2);
+    for (int i = 0; i < entries; i++) {
+      attributes.put("attr-" + i, "value-" + i);
+    }
+  }
+
+  /**
+   * Sets the event value.
+   *
+   * @author paouelle
+   *
+   * @param value the new event value
+   */
+  public void setValue(double value) {
+    this.value = value;
+  }
+}
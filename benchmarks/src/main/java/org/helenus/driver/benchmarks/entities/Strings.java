@@ -0,0 +1,53 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks.entities;
+
+/**
+ * The <code>Strings</code> class provides utility functions for generating
+ * sample strings.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 7, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public abstract class Strings {
+  /**
+   * Generates a printable ASCII string of the specified length.
+   *
+   * @author paouelle
+   *
+   * @param  length the length of the string to generate
+   * @return the corresponding string
+   */
+  public static String of(int length) {
+    final StringBuilder sb = new StringBuilder(length);
+
+    for (int i = 0; i < length; i++) {
+      sb.append((char)('a' + (i % 26)));
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Prevents instantiation.
+   *
+   * @author paouelle
+   */
+  private Strings() {}
+}
@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks.entities;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import java.nio.ByteBuffer;
+import java.time.Instant;
+
+import org.helenus.driver.persistence.Column;
+import org.helenus.driver.persistence.Entity;
+import org.helenus.driver.persistence.Keyspace;
+import org.helenus.driver.persistence.Mandatory;
+import org.helenus.driver.persistence.PartitionKey;
+import org.helenus.driver.persistence.PlacementClass;
+import org.helenus.driver.persistence.Table;
+
+/**
+ * The <code>User</code> class provides the definition for a typical user
+ * profile with a simple partition key and a mix of scalar and collection
+ * columns.
+ * <p>
+ * <ul>
+ *   <li>Keyspace: "helenus_benchmarks"</li>
+ *   <li>Table: "users"</li>
+ *   <li>Partition Key: [id]</li>
+ *   <li>Data:
+ *     <ul>
+ *       <li>[email]</li>
+ *       <li>[name]</li>
+ *       <li>[age]</li>
+ *       <li>[created]</li>
+ *       <li>[roles]</li>
+ *       <li>[history]</li>
+ *       <li>[counters]</li>
+ *       <li>[avatar]</li>
+ *     </ul>
+ *   </li>
+ * </ul>
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 6, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+@Keyspace(name=Constants.BENCHMARKS, placement=PlacementClass.SIMPLE, replicationFactor=1)
+@Table(name=Constants.USERS)
+@Entity
+public class User {
+  /**
+   * Holds the unique user id.
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.ID)
+  @PartitionKey
+  @Mandatory
+  private UUID id;
+
+  /**
+   * Holds the user's email.
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.EMAIL)
+  @Mandatory
+  private String email;
+
+  /**
+   * Holds the user's name.
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.NAME)
+  private String name;
+
+  /**
+   * Holds the user's age.
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.AGE)
+  private int age;
+
+  /**
+   * Holds the time the user was created.
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.CREATED)
+  private Instant created;
+
+  /**
+   * Holds the user's roles.
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.ROLES)
+  private Set<String> roles;
+
+  /**
+   * Holds the user's recent history.
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.HISTORY)
+  private List<String> history;
+
+  /**
+   * Holds the user's counters.
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.COUNTERS)
+  private Map<String, Long> counters;
+
+  /**
+   * Holds the user's avatar.
+   *
+   * @author paouelle
+   */
+  @Column(name=Constants.AVATAR)
+  private ByteBuffer avatar;
+
+  /**
+   * Instantiates a new <code>User</code> object.
+   *
+   * @author paouelle
+   *
+   * @param id the user id
+   * @param email the user's email
+   * @param name the user's name
+   * @param age the user's age
+   * @param entries the number of elements to put in each collection
+   * @param avatarSize the size of the avatar blob
+   */
+  public User(UUID id, String email, String name, int age, int entries, int avatarSize) {
+    this.id = id;
+    this.email = email;
+    this.name = name;
+    this.age = age;
+    this.created = Instant.ofEpochMilli(1486339200000L + age);
+    this.roles = new HashSet<>(entries * 2);
+    this.history = new ArrayList<>(entries);
+    this.counters = new HashMap<>(entries * 2);
+    for (int i = 0; i < entries; i++) {
+      roles.add("role-" + i);
+      history.add("page-" + i);
+      counters.put("counter-" + i, (long)i);
+    }
+    final byte[] data = new byte[avatarSize];
+
+    for (int i = 0; i < avatarSize; i++) {
+      data[i] = (byte)i;
+    }
+    this.avatar = ByteBuffer.wrap(data);
+  }
+
+  /**
+   * Gets the user id.
+   *
+   * @author paouelle
+   *
+   * @return the user id
+   */
+  public UUID getId() {
+    return id;
+  }
+
+  /**
+   * Sets the user's name.
+   *
+   * @author paouelle
+   *
+   * @param name the new name for the user
+   */
+  public void setName(String name) {
+    this.name = name;
+  }
+}
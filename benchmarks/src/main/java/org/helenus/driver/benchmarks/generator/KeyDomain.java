@@ -0,0 +1,225 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks.generator;
+
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.apache.commons.lang3.Validate;
+
+import org.helenus.driver.benchmarks.ycsb.KeyDistribution;
+import org.helenus.driver.benchmarks.ycsb.ZipfianGenerator;
+
+/**
+ * The <code>KeyDomain</code> class defines a bounded domain of values for a
+ * key column. Each index in the domain always maps to the same value such that
+ * the number of distinct keys produced is controlled by the cardinality of the
+ * domain while the choice of indexes follows a given distribution.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 10, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+final class KeyDomain {
+  /**
+   * Holds the maximum number of values cached per domain.
+   *
+   * @author paouelle
+   */
+  private final static int MAX_CACHED = 1 << 16;
+
+  /**
+   * Mixes a seed with an index using the SplitMix64 finalizer in order to
+   * derive well distributed seeds for consecutive indexes.
+   *
+   * @author paouelle
+   *
+   * @param  seed the domain seed
+   * @param  index the index in the domain
+   * @return the corresponding seed
+   */
+  private static long mix(long seed, long index) {
+    long z = seed + (index + 1L) * 0x9E3779B97F4A7C15L;
+
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  /**
+   * Holds the number of distinct values in this domain.
+   *
+   * @author paouelle
+   */
+  private final long cardinality;
+
+  /**
+   * Holds the distribution used to select indexes.
+   *
+   * @author paouelle
+   */
+  private final KeyDistribution distribution;
+
+  /**
+   * Holds the Zipfian generator used by skewed distributions.
+   *
+   * @author paouelle
+   */
+  private final ZipfianGenerator zipf;
+
+  /**
+   * Holds the seed for this domain.
+   *
+   * @author paouelle
+   */
+  private final long seed;
+
+  /**
+   * Holds the generator for the values in this domain or <code>null</code> if
+   * the domain is defined from a fixed set of values.
+   *
+   * @author paouelle
+   */
+  private final ValueGenerator generator;
+
+  /**
+   * Holds the cached values or <code>null</code> if values are not cached.
+   *
+   * @author paouelle
+   */
+  private final AtomicReferenceArray<Object> cache;
+
+  /**
+   * Instantiates a new <code>KeyDomain</code> object.
+   *
+   * @author paouelle
+   *
+   * @param  cardinality the number of distinct values in the domain
+   * @param  distribution the distribution used to select indexes
+   * @param  theta the Zipfian constant
+   * @param  seed the seed for the domain
+   * @param  generator the generator for the values in this domain
+   * @param  immutable <code>true</code> if the generated values are immutable
+   *         and can therefore be cached and shared between POJOs
+   * @throws IllegalArgumentException if <code>cardinality</code> is not positive
+   */
+  KeyDomain(
+    long cardinality,
+    KeyDistribution distribution,
+    double theta,
+    long seed,
+    ValueGenerator generator,
+    boolean immutable
+  ) {
+    Validate.isTrue(cardinality > 0L, "invalid cardinality: %d", cardinality);
+    this.cardinality = cardinality;
+    this.distribution = distribution;
+    this.zipf = (distribution != KeyDistribution.UNIFORM)
+      ? new ZipfianGenerator(cardinality, theta)
+      : null;
+    this.seed = seed;
+    this.generator = generator;
+    this.cache = immutable
+      ? new AtomicReferenceArray<>((int)Math.min(cardinality, KeyDomain.MAX_CACHED))
+      : null;
+  }
+
+  /**
+   * Instantiates a new <code>KeyDomain</code> object defined from a fixed set
+   * of values.
+   *
+   * @author paouelle
+   *
+   * @param  values the values in the domain
+   * @param  distribution the distribution used to select values
+   * @param  theta the Zipfian constant
+   * @throws IllegalArgumentException if <code>values</code> is empty or
+   *         contains <code>null</code>
+   */
+  KeyDomain(Object[] values, KeyDistribution distribution, double theta) {
+    Validate.notEmpty(values, "invalid null or empty values");
+    Validate.noNullElements(values, "invalid null value");
+    this.cardinality = values.length;
+    this.distribution = distribution;
+    this.zipf = (distribution != KeyDistribution.UNIFORM)
+      ? new ZipfianGenerator(cardinality, theta)
+      : null;
+    this.seed = 0L;
+    this.generator = null;
+    this.cache = new AtomicReferenceArray<>(values);
+  }
+
+  /**
+   * Gets the number of distinct values in this domain.
+   *
+   * @author paouelle
+   *
+   * @return the cardinality of this domain
+   */
+  long getCardinality() {
+    return cardinality;
+  }
+
+  /**
+   * Selects the next index in this domain based on its distribution.
+   *
+   * @author paouelle
+   *
+   * @return the next index in the range [0, cardinality)
+   */
+  long nextIndex() {
+    return distribution.next(zipf, cardinality);
+  }
+
+  /**
+   * Gets the value for the specified index in this domain. The same value is
+   * always returned for the same index.
+   *
+   * @author paouelle
+   *
+   * @param  index the index in the domain
+   * @return the corresponding value
+   */
+  Object get(long index) {
+    if ((cache != null) && (index < cache.length())) {
+      final int i = (int)index;
+      Object val = cache.get(i);
+
+      if (val == null) {
+        val = generator.generate(new Random(KeyDomain.mix(seed, index)));
+        if (!cache.compareAndSet(i, null, val)) {
+          val = cache.get(i);
+        }
+      }
+      return val;
+    }
+    return generator.generate(new Random(KeyDomain.mix(seed, index)));
+  }
+
+  /**
+   * Selects the next value in this domain based on its distribution.
+   *
+   * @author paouelle
+   *
+   * @return the next value
+   */
+  Object next() {
+    return get(nextIndex());
+  }
+}
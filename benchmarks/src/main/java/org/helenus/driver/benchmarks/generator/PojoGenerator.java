@@ -0,0 +1,950 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks.generator;
+
+import java.lang.reflect.Type;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import org.apache.commons.lang3.ClassUtils;
+import org.apache.commons.lang3.Validate;
+
+import org.helenus.driver.benchmarks.ycsb.KeyDistribution;
+import org.helenus.driver.benchmarks.ycsb.ZipfianGenerator;
+import org.helenus.driver.impl.ClassInfoImpl;
+import org.helenus.driver.impl.FieldInfoImpl;
+import org.helenus.driver.impl.RootClassInfoImpl;
+import org.helenus.driver.impl.StatementManagerImpl;
+import org.helenus.driver.impl.TableInfoImpl;
+import org.helenus.driver.impl.TypeClassInfoImpl;
+import org.helenus.driver.info.TableInfo;
+import org.helenus.driver.persistence.CQLDataType;
+import org.helenus.driver.persistence.DataType;
+
+/**
+ * The <code>PojoGenerator</code> class generates valid random POJOs for a
+ * given entity class by walking its class, table, and field metadata. Key
+ * columns are drawn from bounded domains whose cardinality and skew are
+ * configurable such that the generated workload exercises a controlled number
+ * of partitions and rows while all other columns are generated randomly based
+ * on their Java types and CQL data types.
+ * <p>
+ * Generators are thread-safe and can be used with parallel streams.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 10, 2017 - paouelle - Creation
+ *
+ * @param <T> The type of POJO generated
+ *
+ * @since 1.0
+ */
+public class PojoGenerator<T> {
+  /**
+   * Holds the set of classes whose instances are immutable and can be shared
+   * between generated POJOs.
+   *
+   * @author paouelle
+   */
+  private final static Set<Class<?>> IMMUTABLES = new LinkedHashSet<>(32);
+
+  static {
+    Collections.addAll(
+      PojoGenerator.IMMUTABLES,
+      String.class, Boolean.class, Byte.class, Short.class, Integer.class,
+      Long.class, Float.class, Double.class, BigInteger.class, BigDecimal.class,
+      UUID.class, Instant.class, LocalDate.class, LocalTime.class,
+      com.datastax.driver.core.LocalDate.class, ZoneId.class, Locale.class
+    );
+  }
+
+  /**
+   * Creates a new builder for a generator of the specified POJO class.
+   *
+   * @author paouelle
+   *
+   * @param <T> The type of POJO generated
+   *
+   * @param  mgr the statement manager from which to get the class info
+   * @param  clazz the POJO class to generate
+   * @return a new builder
+   * @throws NullPointerException if <code>mgr</code> or <code>clazz</code> is
+   *         <code>null</code>
+   */
+  public static <T> Builder<T> builder(StatementManagerImpl mgr, Class<T> clazz) {
+    Validate.notNull(mgr, "invalid null statement manager");
+    Validate.notNull(clazz, "invalid null class");
+    return new Builder<>(mgr, clazz);
+  }
+
+  /**
+   * Checks if values of the given type are immutable.
+   *
+   * @author paouelle
+   *
+   * @param  clazz the class of values
+   * @return <code>true</code> if values are immutable
+   */
+  private static boolean isImmutable(Class<?> clazz) {
+    final Class<?> c = ClassUtils.primitiveToWrapper(clazz);
+
+    return PojoGenerator.IMMUTABLES.contains(c)
+      || c.isEnum()
+      || InetAddress.class.isAssignableFrom(c);
+  }
+
+  /**
+   * Holds the class info for the POJO class.
+   *
+   * @author paouelle
+   */
+  private final ClassInfoImpl<T> cinfo;
+
+  /**
+   * Holds the plans for each concrete class to generate. A single plan is
+   * defined unless the POJO class is a root entity in which case a plan is
+   * defined for each of its types.
+   *
+   * @author paouelle
+   */
+  private final Plan<? extends T>[] plans;
+
+  /**
+   * Instantiates a new <code>PojoGenerator</code> object.
+   *
+   * @author paouelle
+   *
+   * @param  builder the builder from which to create the generator
+   * @throws IllegalArgumentException if the POJO class or any of its columns
+   *         are not supported
+   */
+  @SuppressWarnings({"unchecked", "rawtypes"})
+  PojoGenerator(Builder<T> builder) {
+    this.cinfo = builder.mgr.getClassInfoImpl(builder.clazz);
+    final ValueGenerators values = new ValueGenerators(
+      builder.minString,
+      builder.maxString,
+      builder.minBlob,
+      builder.maxBlob,
+      builder.minCollection,
+      builder.maxCollection,
+      c -> new PojoGenerator<>(builder.derive(c))::next
+    );
+    final Map<String, KeyDomain> domains = new HashMap<>(16);
+
+    if (cinfo instanceof RootClassInfoImpl) {
+      final List<TypeClassInfoImpl<? extends T>> types
+        = ((RootClassInfoImpl<T>)cinfo).typeImpls().collect(Collectors.toList());
+
+      Validate.isTrue(
+        !types.isEmpty(),
+        "root entity '%s' has no types",
+        cinfo.getObjectClass().getSimpleName()
+      );
+      this.plans = types.stream()
+        .map(t -> new Plan(t, builder, values, domains))
+        .toArray(Plan[]::new);
+    } else {
+      this.plans = new Plan[] {new Plan<>(cinfo, builder, values, domains)};
+    }
+  }
+
+  /**
+   * Gets the class info for the POJOs generated.
+   *
+   * @author paouelle
+   *
+   * @return the class info for the POJOs generated
+   */
+  public ClassInfoImpl<T> getClassInfo() {
+    return cinfo;
+  }
+
+  /**
+   * Generates a new random POJO.
+   *
+   * @author paouelle
+   *
+   * @return a new random POJO
+   */
+  public T next() {
+    final ThreadLocalRandom random = ThreadLocalRandom.current();
+    final Plan<? extends T> plan
+      = (plans.length == 1) ? plans[0] : plans[random.nextInt(plans.length)];
+
+    return plan.next(random);
+  }
+
+  /**
+   * Gets a parallel stream of the specified number of random POJOs.
+   *
+   * @author paouelle
+   *
+   * @param  count the number of POJOs to generate
+   * @return a parallel stream of <code>count</code> random POJOs
+   * @throws IllegalArgumentException if <code>count</code> is negative
+   */
+  public Stream<T> stream(long count) {
+    Validate.isTrue(count >= 0L, "invalid negative count: %d", count);
+    return LongStream.range(0L, count).parallel().mapToObj(i -> next());
+  }
+
+  /**
+   * Gets an infinite stream of random POJOs.
+   *
+   * @author paouelle
+   *
+   * @return an infinite stream of random POJOs
+   */
+  public Stream<T> stream() {
+    return Stream.generate(this::next);
+  }
+
+  /**
+   * The <code>Role</code> enumeration defines the role a field plays in the
+   * POJO. When a field plays different roles in different tables, the lowest
+   * ordinal prevails.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 10, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  private enum Role {
+    PARTITION_KEY, CLUSTERING_KEY, REGULAR;
+
+    /**
+     * Gets the role of a given field.
+     *
+     * @author paouelle
+     *
+     * @param  field the field
+     * @return the role of the field
+     */
+    static Role of(FieldInfoImpl<?> field) {
+      if (field.isPartitionKey()) {
+        return Role.PARTITION_KEY;
+      } else if (field.isClusteringKey()) {
+        return Role.CLUSTERING_KEY;
+      }
+      return Role.REGULAR;
+    }
+  }
+
+  /**
+   * The <code>Column</code> class defines how to generate the value for a
+   * given field.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 10, 2017 - paouelle - Creation
+   *
+   * @param <T> The type of POJO
+   *
+   * @since 1.0
+   */
+  private static class Column<T> {
+    /**
+     * Holds the field to set.
+     *
+     * @author paouelle
+     */
+    private final FieldInfoImpl<T> field;
+
+    /**
+     * Holds the domain for key values or <code>null</code> if the column is
+     * not a key.
+     *
+     * @author paouelle
+     */
+    private final KeyDomain domain;
+
+    /**
+     * Holds the generator for non-key values or <code>null</code> if the
+     * column is a key.
+     *
+     * @author paouelle
+     */
+    private final ValueGenerator generator;
+
+    /**
+     * Holds the probability of generating <code>null</code>.
+     *
+     * @author paouelle
+     */
+    private final double nullRate;
+
+    /**
+     * Holds the number of elements to generate for a multi-key or
+     * <code>0</code> if the column is not a multi-key.
+     *
+     * @author paouelle
+     */
+    private final int multi;
+
+    /**
+     * Instantiates a new <code>Column</code> object.
+     *
+     * @author paouelle
+     *
+     * @param field the field to set
+     * @param domain the domain for key values or <code>null</code>
+     * @param generator the generator for non-key values or <code>null</code>
+     * @param nullRate the probability of generating <code>null</code>
+     * @param multi the number of elements to generate for a multi-key
+     */
+    Column(
+      FieldInfoImpl<T> field,
+      KeyDomain domain,
+      ValueGenerator generator,
+      double nullRate,
+      int multi
+    ) {
+      this.field = field;
+      this.domain = domain;
+      this.generator = generator;
+      this.nullRate = nullRate;
+      this.multi = multi;
+    }
+
+    /**
+     * Generates and sets the value for this column in the specified POJO.
+     *
+     * @author paouelle
+     *
+     * @param object the POJO to update
+     * @param random the source of randomness for non-key values
+     */
+    void set(T object, Random random) {
+      final Object val;
+
+      if (domain != null) {
+        if (multi > 0) { // first element drives the key, others are extras
+          final Set<Object> set = new LinkedHashSet<>(multi * 2);
+          final long n = domain.getCardinality();
+          final long i = domain.nextIndex();
+
+          for (int j = 0; j < multi; j++) {
+            set.add(domain.get((i + j) % n));
+          }
+          val = set;
+        } else {
+          val = domain.next();
+        }
+      } else if ((nullRate > 0.0D) && (random.nextDouble() < nullRate)) {
+        val = null;
+      } else {
+        val = generator.generate(random);
+      }
+      field.setValue(object, val);
+    }
+  }
+
+  /**
+   * The <code>Plan</code> class keeps track of how to generate a given
+   * concrete POJO class.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 10, 2017 - paouelle - Creation
+   *
+   * @param <T> The type of POJO
+   *
+   * @since 1.0
+   */
+  private static class Plan<T> {
+    /**
+     * Holds the class info for the POJO.
+     *
+     * @author paouelle
+     */
+    private final ClassInfoImpl<T> cinfo;
+
+    /**
+     * Holds the columns to generate in order.
+     *
+     * @author paouelle
+     */
+    private final Column<T>[] columns;
+
+    /**
+     * Instantiates a new <code>Plan</code> object.
+     *
+     * @author paouelle
+     *
+     * @param  cinfo the class info for the POJO
+     * @param  builder the builder with all settings
+     * @param  values the value generators factory
+     * @param  domains the key domains shared between all plans keyed by
+     *         column names
+     * @throws IllegalArgumentException if a column is not supported
+     */
+    @SuppressWarnings("unchecked")
+    Plan(
+      ClassInfoImpl<T> cinfo,
+      Builder<?> builder,
+      ValueGenerators values,
+      Map<String, KeyDomain> domains
+    ) {
+      this.cinfo = cinfo;
+      final Map<String, FieldInfoImpl<T>> fields = new LinkedHashMap<>(32);
+      final List<Column<T>> columns = new ArrayList<>(32);
+
+      // start with keyspace keys as they are not necessarily columns
+      for (final Map.Entry<String, FieldInfoImpl<T>> e: cinfo.getKeyspaceKeyTypes().entrySet()) {
+        final FieldInfoImpl<T> field = e.getValue();
+        final KeyDomain domain = domains.computeIfAbsent(
+          "@" + e.getKey(), k -> builder.keyspaceDomain(e.getKey(), field, values)
+        );
+
+        fields.put(field.getName(), field);
+        columns.add(new Column<>(field, domain, null, 0.0D, 0));
+      }
+      // collect all columns from all tables keeping the most restrictive role
+      final Map<String, FieldInfoImpl<T>> found = new LinkedHashMap<>(32);
+
+      for (final TableInfo<T> table: cinfo.getTables()) {
+        for (final FieldInfoImpl<T> field: ((TableInfoImpl<T>)table).getColumnsImpl()) {
+          if (fields.containsKey(field.getName())) {
+            continue;
+          }
+          found.merge(
+            field.getName(),
+            field,
+            (o, n) -> (Role.of(n).compareTo(Role.of(o)) < 0) ? n : o
+          );
+        }
+      }
+      for (final FieldInfoImpl<T> field: found.values()) {
+        if (field.isFinal() || field.isTypeKey()) { // restored by the class info
+          continue;
+        }
+        final Role role = Role.of(field);
+        final Type type = builder.genericType(field);
+        final CQLDataType cql = field.getDataType();
+
+        if (role == Role.REGULAR) {
+          final boolean nullable = !field.isMandatory() && !field.getType().isPrimitive();
+
+          columns.add(new Column<>(
+            field, null, values.of(type, cql), nullable ? builder.nullRate : 0.0D, 0
+          ));
+          continue;
+        }
+        final boolean multi = field.isMultiKey();
+        final Type etype = multi ? ValueGenerators.argument(type, 0) : type;
+        final CQLDataType ecql = (multi && (cql.getMainType() == DataType.SET))
+          ? cql.getElementType()
+          : cql;
+        final KeyDomain domain = domains.computeIfAbsent(
+          field.getColumnName(),
+          k -> builder.keyDomain(field, role == Role.PARTITION_KEY, etype, ecql, values)
+        );
+
+        columns.add(new Column<>(
+          field, domain, null, 0.0D, multi ? Math.max(1, builder.minCollection) : 0
+        ));
+      }
+      this.columns = columns.toArray(new Column[columns.size()]);
+    }
+
+    /**
+     * Generates a new random POJO.
+     *
+     * @author paouelle
+     *
+     * @param  random the source of randomness for non-key values
+     * @return a new random POJO
+     */
+    T next(Random random) {
+      final T object = cinfo.newObject();
+
+      for (final Column<T> column: columns) {
+        column.set(object, random);
+      }
+      return object;
+    }
+  }
+
+  /**
+   * The <code>Builder</code> class is used to configure and create POJO
+   * generators.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 10, 2017 - paouelle - Creation
+   *
+   * @param <T> The type of POJO generated
+   *
+   * @since 1.0
+   */
+  public static class Builder<T> {
+    /**
+     * Holds the statement manager.
+     *
+     * @author paouelle
+     */
+    private final StatementManagerImpl mgr;
+
+    /**
+     * Holds the POJO class to generate.
+     *
+     * @author paouelle
+     */
+    private final Class<T> clazz;
+
+    /**
+     * Holds the seed used to derive key values.
+     *
+     * @author paouelle
+     */
+    private long seed = 0x5EEDL;
+
+    /**
+     * Holds the default number of distinct values for partition keys.
+     *
+     * @author paouelle
+     */
+    private long partitions = 1000L;
+
+    /**
+     * Holds the default number of distinct values for clustering keys.
+     *
+     * @author paouelle
+     */
+    private long clusterings = 100L;
+
+    /**
+     * Holds the number of distinct values for specific key columns keyed by
+     * column names.
+     *
+     * @author paouelle
+     */
+    private final Map<String, Long> cardinalities = new HashMap<>(8);
+
+    /**
+     * Holds the values for keyspace keys keyed by their types.
+     *
+     * @author paouelle
+     */
+    private final Map<String, Object[]> keyspaceKeys = new HashMap<>(4);
+
+    /**
+     * Holds the distribution for partition keys.
+     *
+     * @author paouelle
+     */
+    private KeyDistribution partitionSkew = KeyDistribution.UNIFORM;
+
+    /**
+     * Holds the distribution for clustering keys.
+     *
+     * @author paouelle
+     */
+    private KeyDistribution clusteringSkew = KeyDistribution.UNIFORM;
+
+    /**
+     * Holds the Zipfian constant for skewed distributions.
+     *
+     * @author paouelle
+     */
+    private double theta = ZipfianGenerator.DEFAULT_CONSTANT;
+
+    /**
+     * Holds the minimum and maximum size for generated collections.
+     *
+     * @author paouelle
+     */
+    private int minCollection = 0, maxCollection = 5;
+
+    /**
+     * Holds the minimum and maximum length for generated strings.
+     *
+     * @author paouelle
+     */
+    private int minString = 8, maxString = 32;
+
+    /**
+     * Holds the minimum and maximum length for generated blobs.
+     *
+     * @author paouelle
+     */
+    private int minBlob = 16, maxBlob = 256;
+
+    /**
+     * Holds the probability of generating <code>null</code> for optional
+     * columns.
+     *
+     * @author paouelle
+     */
+    private double nullRate = 0.0D;
+
+    /**
+     * Instantiates a new <code>Builder</code> object.
+     *
+     * @author paouelle
+     *
+     * @param mgr the statement manager
+     * @param clazz the POJO class to generate
+     */
+    Builder(StatementManagerImpl mgr, Class<T> clazz) {
+      this.mgr = mgr;
+      this.clazz = clazz;
+    }
+
+    /**
+     * Derives a builder for a nested user-defined type with the same settings.
+     *
+     * @author paouelle
+     *
+     * @param <U> The type of user-defined type
+     *
+     * @param  uclazz the user-defined type class
+     * @return a new builder for <code>uclazz</code>
+     */
+    <U> Builder<U> derive(Class<U> uclazz) {
+      final Builder<U> b = new Builder<>(mgr, uclazz);
+
+      b.seed = seed ^ uclazz.getName().hashCode();
+      b.partitions = partitions;
+      b.clusterings = clusterings;
+      b.partitionSkew = partitionSkew;
+      b.clusteringSkew = clusteringSkew;
+      b.theta = theta;
+      b.minCollection = minCollection;
+      b.maxCollection = maxCollection;
+      b.minString = minString;
+      b.maxString = maxString;
+      b.minBlob = minBlob;
+      b.maxBlob = maxBlob;
+      b.nullRate = nullRate;
+      return b;
+    }
+
+    /**
+     * Gets the generic type of the specified field.
+     *
+     * @author paouelle
+     *
+     * @param  field the field
+     * @return the generic type of the field
+     */
+    Type genericType(FieldInfoImpl<?> field) {
+      try {
+        return field.getDeclaringClass().getDeclaredField(field.getName()).getGenericType();
+      } catch (NoSuchFieldException e) { // should not happen
+        return field.getType();
+      }
+    }
+
+    /**
+     * Creates a domain for a partition or clustering key.
+     *
+     * @author paouelle
+     *
+     * @param  field the key field
+     * @param  partition <code>true</code> if the field is a partition key
+     * @param  type the type of key values
+     * @param  cql the CQL data type of key values
+     * @param  values the value generators factory
+     * @return the corresponding domain
+     */
+    KeyDomain keyDomain(
+      FieldInfoImpl<?> field,
+      boolean partition,
+      Type type,
+      CQLDataType cql,
+      ValueGenerators values
+    ) {
+      final Long n = cardinalities.get(field.getColumnName());
+
+      return new KeyDomain(
+        (n != null) ? n : (partition ? partitions : clusterings),
+        partition ? partitionSkew : clusteringSkew,
+        theta,
+        seed ^ field.getColumnName().hashCode(),
+        values.of(type, cql),
+        PojoGenerator.isImmutable(ValueGenerators.rawClass(type))
+      );
+    }
+
+    /**
+     * Creates a domain for a keyspace key.
+     *
+     * @author paouelle
+     *
+     * @param  type the keyspace key type
+     * @param  field the keyspace key field
+     * @param  values the value generators factory
+     * @return the corresponding domain
+     */
+    KeyDomain keyspaceDomain(String type, FieldInfoImpl<?> field, ValueGenerators values) {
+      final Object[] vals = keyspaceKeys.get(type);
+
+      if (vals != null) {
+        return new KeyDomain(vals, partitionSkew, theta);
+      }
+      if (String.class == field.getType()) { // keep it a valid keyspace name
+        return new KeyDomain(
+          new Object[] {"k" + Long.toHexString(seed)}, partitionSkew, theta
+        );
+      }
+      return new KeyDomain(
+        1L,
+        partitionSkew,
+        theta,
+        seed ^ type.hashCode(),
+        values.of(genericType(field), field.getDataType()),
+        true
+      );
+    }
+
+    /**
+     * Sets the seed used to derive key values. Generators built with the same
+     * seed produce the same key domains.
+     *
+     * @author paouelle
+     *
+     * @param  seed the seed
+     * @return this for chaining
+     */
+    public Builder<T> seed(long seed) {
+      this.seed = seed;
+      return this;
+    }
+
+    /**
+     * Sets the number of distinct values for each partition key column.
+     *
+     * @author paouelle
+     *
+     * @param  n the number of distinct partition key values
+     * @return this for chaining
+     * @throws IllegalArgumentException if <code>n</code> is not positive
+     */
+    public Builder<T> partitions(long n) {
+      Validate.isTrue(n > 0L, "invalid number of partitions: %d", n);
+      this.partitions = n;
+      return this;
+    }
+
+    /**
+     * Sets the number of distinct values for each clustering key column.
+     *
+     * @author paouelle
+     *
+     * @param  n the number of distinct clustering key values
+     * @return this for chaining
+     * @throws IllegalArgumentException if <code>n</code> is not positive
+     */
+    public Builder<T> clusterings(long n) {
+      Validate.isTrue(n > 0L, "invalid number of clusterings: %d", n);
+      this.clusterings = n;
+      return this;
+    }
+
+    /**
+     * Sets the number of distinct values for a specific key column.
+     *
+     * @author paouelle
+     *
+     * @param  column the name of the key column
+     * @param  n the number of distinct values
+     * @return this for chaining
+     * @throws NullPointerException if <code>column</code> is <code>null</code>
+     * @throws IllegalArgumentException if <code>n</code> is not positive
+     */
+    public Builder<T> cardinality(String column, long n) {
+      Validate.notNull(column, "invalid null column");
+      Validate.isTrue(n > 0L, "invalid cardinality: %d", n);
+      cardinalities.put(column, n);
+      return this;
+    }
+
+    /**
+     * Sets the values to use for a given keyspace key type.
+     *
+     * @author paouelle
+     *
+     * @param  type the keyspace key type
+     * @param  values the values to use
+     * @return this for chaining
+     * @throws NullPointerException if <code>type</code> is <code>null</code>
+     * @throws IllegalArgumentException if <code>values</code> is empty or
+     *         contains <code>null</code>
+     */
+    public Builder<T> keyspaceKey(String type, Object... values) {
+      Validate.notNull(type, "invalid null keyspace key type");
+      Validate.notEmpty(values, "invalid null or empty values");
+      Validate.noNullElements(values, "invalid null value");
+      keyspaceKeys.put(type, values.clone());
+      return this;
+    }
+
+    /**
+     * Sets the distribution for partition keys.
+     *
+     * @author paouelle
+     *
+     * @param  skew the distribution for partition keys
+     * @return this for chaining
+     * @throws NullPointerException if <code>skew</code> is <code>null</code>
+     */
+    public Builder<T> partitionSkew(KeyDistribution skew) {
+      Validate.notNull(skew, "invalid null distribution");
+      this.partitionSkew = skew;
+      return this;
+    }
+
+    /**
+     * Sets the distribution for clustering keys.
+     *
+     * @author paouelle
+     *
+     * @param  skew the distribution for clustering keys
+     * @return this for chaining
+     * @throws NullPointerException if <code>skew</code> is <code>null</code>
+     */
+    public Builder<T> clusteringSkew(KeyDistribution skew) {
+      Validate.notNull(skew, "invalid null distribution");
+      this.clusteringSkew = skew;
+      return this;
+    }
+
+    /**
+     * Sets the Zipfian constant used by skewed distributions.
+     *
+     * @author paouelle
+     *
+     * @param  theta the Zipfian constant
+     * @return this for chaining
+     * @throws IllegalArgumentException if <code>theta</code> is not between 0
+     *         and 1 exclusively
+     */
+    public Builder<T> zipfianConstant(double theta) {
+      Validate.exclusiveBetween(0.0D, 1.0D, theta, "invalid Zipfian constant: %f", theta);
+      this.theta = theta;
+      return this;
+    }
+
+    /**
+     * Sets the size range for generated collections.
+     *
+     * @author paouelle
+     *
+     * @param  min the minimum size
+     * @param  max the maximum size
+     * @return this for chaining
+     * @throws IllegalArgumentException if the range is invalid
+     */
+    public Builder<T> collectionSize(int min, int max) {
+      Validate.isTrue((min >= 0) && (min <= max), "invalid collection size: [%d, %d]", min, max);
+      this.minCollection = min;
+      this.maxCollection = max;
+      return this;
+    }
+
+    /**
+     * Sets the length range for generated strings.
+     *
+     * @author paouelle
+     *
+     * @param  min the minimum length
+     * @param  max the maximum length
+     * @return this for chaining
+     * @throws IllegalArgumentException if the range is invalid
+     */
+    public Builder<T> stringLength(int min, int max) {
+      Validate.isTrue((min >= 0) && (min <= max), "invalid string length: [%d, %d]", min, max);
+      this.minString = min;
+      this.maxString = max;
+      return this;
+    }
+
+    /**
+     * Sets the length range for generated blobs.
+     *
+     * @author paouelle
+     *
+     * @param  min the minimum length
+     * @param  max the maximum length
+     * @return this for chaining
+     * @throws IllegalArgumentException if the range is invalid
+     */
+    public Builder<T> blobLength(int min, int max) {
+      Validate.isTrue((min >= 0) && (min <= max), "invalid blob length: [%d, %d]", min, max);
+      this.minBlob = min;
+      this.maxBlob = max;
+      return this;
+    }
+
+    /**
+     * Sets the probability of generating <code>null</code> for optional
+     * columns.
+     *
+     * @author paouelle
+     *
+     * @param  rate the probability of generating <code>null</code>
+     * @return this for chaining
+     * @throws IllegalArgumentException if <code>rate</code> is not between 0
+     *         and 1
+     */
+    public Builder<T> nullRate(double rate) {
+      Validate.inclusiveBetween(0.0D, 1.0D, rate, "invalid null rate: %f", rate);
+      this.nullRate = rate;
+      return this;
+    }
+
+    /**
+     * Builds a new generator.
+     *
+     * @author paouelle
+     *
+     * @return a new generator
+     * @throws IllegalArgumentException if the POJO class or any of its columns
+     *         are not supported
+     */
+    public PojoGenerator<T> build() {
+      return new PojoGenerator<>(this);
+    }
+  }
+}
@@ -0,0 +1,42 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks.generator;
+
+import java.util.Random;
+
+/**
+ * The <code>ValueGenerator</code> interface defines a generator of random
+ * values for a given POJO field.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 10, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+@FunctionalInterface
+public interface ValueGenerator {
+  /**
+   * Generates a new random value.
+   *
+   * @author paouelle
+   *
+   * @param  random the source of randomness to use
+   * @return a new random value
+   */
+  public Object generate(Random random);
+}
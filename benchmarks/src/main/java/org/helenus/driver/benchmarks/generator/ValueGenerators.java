@@ -0,0 +1,553 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks.generator;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.IntFunction;
+import java.util.function.Supplier;
+
+import java.nio.ByteBuffer;
+
+import javax.json.Json;
+import javax.json.JsonStructure;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.tuple.Triple;
+
+import com.datastax.driver.core.utils.UUIDs;
+
+import org.helenus.driver.persistence.CQLDataType;
+import org.helenus.driver.persistence.DataType;
+import org.helenus.driver.persistence.UDTEntity;
+import org.helenus.driver.persistence.UDTRootEntity;
+import org.helenus.driver.persistence.UDTTypeEntity;
+
+/**
+ * The <code>ValueGenerators</code> class creates value generators based on the
+ * Java type of a POJO field and the CQL data type it is persisted as.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 10, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+final class ValueGenerators {
+  /**
+   * Holds the characters used when generating strings.
+   *
+   * @author paouelle
+   */
+  private final static char[] ALPHABET
+    = "abcdefghijklmnopqrstuvwxyzABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789".toCharArray();
+
+  /**
+   * Holds the epoch millis around which timestamps are generated.
+   *
+   * @author paouelle
+   */
+  private final static long EPOCH = 1483228800000L; // 2017-01-01
+
+  /**
+   * Holds the range of milliseconds for generated timestamps (about 10 years).
+   *
+   * @author paouelle
+   */
+  private final static long RANGE = TimeUnit.DAYS.toMillis(3650L);
+
+  /**
+   * Holds a per-thread buffer used when generating strings in order to avoid
+   * allocating more than the resulting string.
+   *
+   * @author paouelle
+   */
+  private final static ThreadLocal<char[]> buffers
+    = ThreadLocal.withInitial(() -> new char[64]);
+
+  /**
+   * Holds the available locales.
+   *
+   * @author paouelle
+   */
+  private final static Locale[] LOCALES = Locale.getAvailableLocales();
+
+  /**
+   * Holds the available zone ids.
+   *
+   * @author paouelle
+   */
+  private final static ZoneId[] ZONES = ZoneId.getAvailableZoneIds().stream()
+    .sorted()
+    .map(ZoneId::of)
+    .toArray(ZoneId[]::new);
+
+  /**
+   * Gets the raw class for a given type.
+   *
+   * @author paouelle
+   *
+   * @param  type the type
+   * @return the corresponding raw class
+   * @throws IllegalArgumentException if the type cannot be resolved to a class
+   */
+  static Class<?> rawClass(Type type) {
+    if (type instanceof Class) {
+      return (Class<?>)type;
+    } else if (type instanceof ParameterizedType) {
+      return ValueGenerators.rawClass(((ParameterizedType)type).getRawType());
+    } else if (type instanceof WildcardType) {
+      return ValueGenerators.rawClass(((WildcardType)type).getUpperBounds()[0]);
+    } else if (type instanceof GenericArrayType) {
+      return java.lang.reflect.Array.newInstance(
+        ValueGenerators.rawClass(((GenericArrayType)type).getGenericComponentType()), 0
+      ).getClass();
+    }
+    throw new IllegalArgumentException("unsupported type: " + type);
+  }
+
+  /**
+   * Gets a type argument for a given parameterized type.
+   *
+   * @author paouelle
+   *
+   * @param  type the parameterized type
+   * @param  i the index of the type argument
+   * @return the corresponding type argument
+   * @throws IllegalArgumentException if the type is not parameterized
+   */
+  static Type argument(Type type, int i) {
+    if (type instanceof ParameterizedType) {
+      return ((ParameterizedType)type).getActualTypeArguments()[i];
+    }
+    throw new IllegalArgumentException("missing type arguments for: " + type);
+  }
+
+  /**
+   * Gets a CQL argument type if available.
+   *
+   * @author paouelle
+   *
+   * @param  cql the CQL data type or <code>null</code> if unknown
+   * @param  i the index of the argument type
+   * @return the corresponding CQL argument type or <code>null</code> if unknown
+   */
+  private static CQLDataType argument(CQLDataType cql, int i) {
+    if (cql == null) {
+      return null;
+    }
+    final List<CQLDataType> args = cql.getArgumentTypes();
+
+    return ((args != null) && (args.size() > i)) ? args.get(i) : null;
+  }
+
+  /**
+   * Checks if the specified CQL data type is of the given main type.
+   *
+   * @author paouelle
+   *
+   * @param  cql the CQL data type or <code>null</code> if unknown
+   * @param  type the main type to check for
+   * @return <code>true</code> if <code>cql</code> is of the given main type
+   */
+  private static boolean is(CQLDataType cql, DataType type) {
+    return (cql != null) && (cql.getMainType() == type);
+  }
+
+  /**
+   * Generates a random number within a range.
+   *
+   * @author paouelle
+   *
+   * @param  random the source of randomness
+   * @param  min the minimum (inclusive)
+   * @param  max the maximum (inclusive)
+   * @return a random number within the range
+   */
+  static int between(Random random, int min, int max) {
+    return (min == max) ? min : min + random.nextInt(max - min + 1);
+  }
+
+  /**
+   * Holds the minimum and maximum length for generated strings.
+   *
+   * @author paouelle
+   */
+  private final int minString, maxString;
+
+  /**
+   * Holds the minimum and maximum length for generated blobs.
+   *
+   * @author paouelle
+   */
+  private final int minBlob, maxBlob;
+
+  /**
+   * Holds the minimum and maximum size for generated collections.
+   *
+   * @author paouelle
+   */
+  private final int minCollection, maxCollection;
+
+  /**
+   * Holds a function to get a generator for user-defined types.
+   *
+   * @author paouelle
+   */
+  private final Function<Class<?>, Supplier<?>> udts;
+
+  /**
+   * Holds the cached generators for user-defined types.
+   *
+   * @author paouelle
+   */
+  private final Map<Class<?>, Supplier<?>> udtGenerators = new ConcurrentHashMap<>(8);
+
+  /**
+   * Instantiates a new <code>ValueGenerators</code> object.
+   *
+   * @author paouelle
+   *
+   * @param minString the minimum length for generated strings
+   * @param maxString the maximum length for generated strings
+   * @param minBlob the minimum length for generated blobs
+   * @param maxBlob the maximum length for generated blobs
+   * @param minCollection the minimum size for generated collections
+   * @param maxCollection the maximum size for generated collections
+   * @param udts a function to create a generator for a given user-defined type
+   */
+  ValueGenerators(
+    int minString,
+    int maxString,
+    int minBlob,
+    int maxBlob,
+    int minCollection,
+    int maxCollection,
+    Function<Class<?>, Supplier<?>> udts
+  ) {
+    this.minString = minString;
+    this.maxString = maxString;
+    this.minBlob = minBlob;
+    this.maxBlob = maxBlob;
+    this.minCollection = minCollection;
+    this.maxCollection = maxCollection;
+    this.udts = udts;
+  }
+
+  /**
+   * Generates a random alphanumeric string.
+   *
+   * @author paouelle
+   *
+   * @param  random the source of randomness
+   * @param  min the minimum length
+   * @param  max the maximum length
+   * @return a random string
+   */
+  static String string(Random random, int min, int max) {
+    final int len = ValueGenerators.between(random, min, max);
+    char[] buf = ValueGenerators.buffers.get();
+
+    if (buf.length < len) {
+      buf = new char[len];
+      ValueGenerators.buffers.set(buf);
+    }
+    for (int i = 0; i < len; i++) {
+      buf[i] = ValueGenerators.ALPHABET[random.nextInt(ValueGenerators.ALPHABET.length)];
+    }
+    return new String(buf, 0, len);
+  }
+
+  /**
+   * Generates random bytes.
+   *
+   * @author paouelle
+   *
+   * @param  random the source of randomness
+   * @return an array of random bytes
+   */
+  private byte[] bytes(Random random) {
+    final byte[] bytes = new byte[ValueGenerators.between(random, minBlob, maxBlob)];
+
+    random.nextBytes(bytes);
+    return bytes;
+  }
+
+  /**
+   * Generates a random timestamp in milliseconds.
+   *
+   * @author paouelle
+   *
+   * @param  random the source of randomness
+   * @return a random timestamp in milliseconds
+   */
+  private static long millis(Random random) {
+    return ValueGenerators.EPOCH + (long)(random.nextDouble() * ValueGenerators.RANGE);
+  }
+
+  /**
+   * Gets a generator for a user-defined type.
+   *
+   * @author paouelle
+   *
+   * @param  clazz the user-defined type class
+   * @return the corresponding generator
+   */
+  private Supplier<?> udt(Class<?> clazz) {
+    Supplier<?> s = udtGenerators.get(clazz);
+
+    if (s == null) { // don't use computeIfAbsent() as UDTs can be nested
+      s = udts.apply(clazz);
+      final Supplier<?> old = udtGenerators.putIfAbsent(clazz, s);
+
+      if (old != null) {
+        s = old;
+      }
+    }
+    return s;
+  }
+
+  /**
+   * Creates a collection generator.
+   *
+   * @author paouelle
+   *
+   * @param  factory the factory for new collections
+   * @param  element the generator for elements
+   * @return the corresponding generator
+   */
+  private ValueGenerator collection(
+    IntFunction<Collection<Object>> factory,
+    ValueGenerator element
+  ) {
+    return r -> {
+      final int size = ValueGenerators.between(r, minCollection, maxCollection);
+      final Collection<Object> c = factory.apply(size);
+
+      for (int i = 0; i < size; i++) {
+        c.add(element.generate(r));
+      }
+      return c;
+    };
+  }
+
+  /**
+   * Creates a map generator.
+   *
+   * @author paouelle
+   *
+   * @param  factory the factory for new maps
+   * @param  key the generator for keys
+   * @param  value the generator for values
+   * @return the corresponding generator
+   */
+  private ValueGenerator map(
+    IntFunction<Map<Object, Object>> factory,
+    ValueGenerator key,
+    ValueGenerator value
+  ) {
+    return r -> {
+      final int size = ValueGenerators.between(r, minCollection, maxCollection);
+      final Map<Object, Object> m = factory.apply(size);
+
+      for (int i = 0; i < size; i++) {
+        m.put(key.generate(r), value.generate(r));
+      }
+      return m;
+    };
+  }
+
+  /**
+   * Creates a generator for a given argument of a parameterized type.
+   *
+   * @author paouelle
+   *
+   * @param  type the parameterized Java type
+   * @param  cql the CQL data type or <code>null</code> if unknown
+   * @param  i the index of the argument
+   * @return the corresponding generator
+   * @throws IllegalArgumentException if the argument type is not supported
+   */
+  private ValueGenerator argument(Type type, CQLDataType cql, int i) {
+    return of(ValueGenerators.argument(type, i), ValueGenerators.argument(cql, i));
+  }
+
+  /**
+   * Creates a generator for the specified Java type persisted as the given
+   * CQL data type.
+   *
+   * @author paouelle
+   *
+   * @param  type the Java type for the values to generate
+   * @param  cql the CQL data type the values are persisted as or
+   *         <code>null</code> if unknown
+   * @return the corresponding generator
+   * @throws IllegalArgumentException if the type is not supported
+   */
+  ValueGenerator of(Type type, CQLDataType cql) {
+    final Class<?> clazz = ValueGenerators.rawClass(type);
+
+    if (Optional.class == clazz) {
+      return of(ValueGenerators.argument(type, 0), cql);
+    } else if (String.class == clazz) {
+      return r -> ValueGenerators.string(r, minString, maxString);
+    } else if (clazz.isEnum()) {
+      final Object[] constants = clazz.getEnumConstants();
+
+      return r -> constants[r.nextInt(constants.length)];
+    } else if (java.util.UUID.class == clazz) {
+      if (ValueGenerators.is(cql, DataType.TIMEUUID)) {
+        return r -> UUIDs.startOf(ValueGenerators.millis(r));
+      }
+      return r -> new java.util.UUID(
+        (r.nextLong() & ~0xF000L) | 0x4000L, // version 4
+        (r.nextLong() & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L // IETF variant
+      );
+    } else if ((Integer.class == clazz) || (Integer.TYPE == clazz)) {
+      return r -> r.nextInt();
+    } else if ((Long.class == clazz) || (Long.TYPE == clazz)) {
+      if (ValueGenerators.is(cql, DataType.TIME)) {
+        return r -> (long)(r.nextDouble() * TimeUnit.DAYS.toNanos(1L));
+      } else if (ValueGenerators.is(cql, DataType.TIMESTAMP)) {
+        return r -> ValueGenerators.millis(r);
+      }
+      return r -> r.nextLong();
+    } else if ((Short.class == clazz) || (Short.TYPE == clazz)) {
+      return r -> (short)r.nextInt();
+    } else if ((Byte.class == clazz) || (Byte.TYPE == clazz)) {
+      return r -> (byte)r.nextInt();
+    } else if ((Double.class == clazz) || (Double.TYPE == clazz)) {
+      return r -> r.nextDouble();
+    } else if ((Float.class == clazz) || (Float.TYPE == clazz)) {
+      return r -> r.nextFloat();
+    } else if ((Boolean.class == clazz) || (Boolean.TYPE == clazz)) {
+      return r -> r.nextBoolean();
+    } else if (BigInteger.class == clazz) {
+      return r -> BigInteger.valueOf(r.nextLong());
+    } else if (BigDecimal.class == clazz) {
+      return r -> BigDecimal.valueOf(r.nextLong(), 2);
+    } else if (AtomicLong.class == clazz) {
+      return r -> new AtomicLong(r.nextInt(1000));
+    } else if (Date.class == clazz) {
+      return r -> new Date(ValueGenerators.millis(r));
+    } else if (Instant.class == clazz) {
+      return r -> Instant.ofEpochMilli(ValueGenerators.millis(r));
+    } else if (LocalDate.class == clazz) {
+      return r -> LocalDate.ofEpochDay(TimeUnit.MILLISECONDS.toDays(ValueGenerators.millis(r)));
+    } else if (com.datastax.driver.core.LocalDate.class == clazz) {
+      return r -> com.datastax.driver.core.LocalDate.fromMillisSinceEpoch(ValueGenerators.millis(r));
+    } else if (LocalTime.class == clazz) {
+      return r -> LocalTime.ofNanoOfDay((long)(r.nextDouble() * TimeUnit.DAYS.toNanos(1L)));
+    } else if (Locale.class == clazz) {
+      return r -> ValueGenerators.LOCALES[r.nextInt(ValueGenerators.LOCALES.length)];
+    } else if (ZoneId.class == clazz) {
+      return r -> ValueGenerators.ZONES[r.nextInt(ValueGenerators.ZONES.length)];
+    } else if (InetAddress.class.isAssignableFrom(clazz)) {
+      return r -> {
+        final byte[] addr = new byte[4];
+
+        r.nextBytes(addr);
+        try {
+          return InetAddress.getByAddress(addr);
+        } catch (UnknownHostException e) { // should not happen for 4 bytes
+          throw new IllegalStateException(e);
+        }
+      };
+    } else if (ByteBuffer.class == clazz) {
+      return r -> ByteBuffer.wrap(bytes(r));
+    } else if (byte[].class == clazz) {
+      return this::bytes;
+    } else if (JsonStructure.class.isAssignableFrom(clazz)) {
+      return r -> Json.createObjectBuilder()
+        .add("id", r.nextLong())
+        .add("value", ValueGenerators.string(r, minString, maxString))
+        .build();
+    } else if (SortedSet.class.isAssignableFrom(clazz)) {
+      return collection(
+        s -> new TreeSet<>(),
+        argument(type, cql, 0)
+      );
+    } else if (Set.class.isAssignableFrom(clazz)) {
+      return collection(
+        s -> new LinkedHashSet<>(s * 3 / 2),
+        argument(type, cql, 0)
+      );
+    } else if (List.class.isAssignableFrom(clazz)) {
+      return collection(
+        ArrayList::new,
+        argument(type, cql, 0)
+      );
+    } else if (SortedMap.class.isAssignableFrom(clazz)) {
+      return map(
+        s -> new TreeMap<>(),
+        argument(type, cql, 0),
+        argument(type, cql, 1)
+      );
+    } else if (Map.class.isAssignableFrom(clazz)) {
+      return map(
+        s -> new LinkedHashMap<>(s * 3 / 2),
+        argument(type, cql, 0),
+        argument(type, cql, 1)
+      );
+    } else if (Triple.class.isAssignableFrom(clazz)) {
+      final ValueGenerator left = argument(type, cql, 0);
+      final ValueGenerator middle = argument(type, cql, 1);
+      final ValueGenerator right = argument(type, cql, 2);
+
+      return r -> Triple.of(left.generate(r), middle.generate(r), right.generate(r));
+    } else if (Pair.class.isAssignableFrom(clazz)) {
+      final ValueGenerator left = argument(type, cql, 0);
+      final ValueGenerator right = argument(type, cql, 1);
+
+      return r -> Pair.of(left.generate(r), right.generate(r));
+    } else if (clazz.isAnnotationPresent(UDTEntity.class)
+               || clazz.isAnnotationPresent(UDTRootEntity.class)
+               || clazz.isAnnotationPresent(UDTTypeEntity.class)) {
+      return r -> udt(clazz).get();
+    }
+    throw new IllegalArgumentException("unsupported type: " + type.getTypeName());
+  }
+}
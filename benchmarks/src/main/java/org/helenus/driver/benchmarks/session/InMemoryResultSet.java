@@ -0,0 +1,255 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks.session;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.datastax.driver.core.ColumnDefinitions;
+import com.datastax.driver.core.ExecutionInfo;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.Row;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * The <code>InMemoryResultSet</code> class provides a fully fetched result
+ * set backed by a list of rows kept in memory.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 8, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class InMemoryResultSet implements ResultSet {
+  /**
+   * Holds the name of the special column returned by conditional updates.
+   *
+   * @author paouelle
+   */
+  private final static String APPLIED = "[applied]";
+
+  /**
+   * Holds the column definitions for the rows.
+   *
+   * @author paouelle
+   */
+  private final ColumnDefinitions definitions;
+
+  /**
+   * Holds the rows.
+   *
+   * @author paouelle
+   */
+  private final List<Row> rows;
+
+  /**
+   * Holds the index of the next row to return.
+   *
+   * @author paouelle
+   */
+  private int i = 0;
+
+  /**
+   * Instantiates a new <code>InMemoryResultSet</code> object.
+   *
+   * @author paouelle
+   *
+   * @param  definitions the column definitions for the rows
+   * @param  rows the rows
+   * @throws NullPointerException if <code>rows</code> is <code>null</code>
+   */
+  public InMemoryResultSet(ColumnDefinitions definitions, List<Row> rows) {
+    org.apache.commons.lang3.Validate.notNull(rows, "invalid null rows");
+    this.definitions = definitions;
+    this.rows = rows;
+  }
+
+  /**
+   * Instantiates a new empty <code>InMemoryResultSet</code> object.
+   *
+   * @author paouelle
+   *
+   * @param rows the rows where the column definitions are extracted from the
+   *        first one (if any)
+   */
+  public InMemoryResultSet(List<Row> rows) {
+    this(rows.isEmpty() ? null : rows.get(0).getColumnDefinitions(), rows);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.ResultSet#getColumnDefinitions()
+   */
+  @Override
+  public ColumnDefinitions getColumnDefinitions() {
+    return definitions;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.PagingIterable#isExhausted()
+   */
+  @Override
+  public boolean isExhausted() {
+    return i >= rows.size();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.PagingIterable#isFullyFetched()
+   */
+  @Override
+  public boolean isFullyFetched() {
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.PagingIterable#getAvailableWithoutFetching()
+   */
+  @Override
+  public int getAvailableWithoutFetching() {
+    return rows.size() - i;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.PagingIterable#fetchMoreResults()
+   */
+  @Override
+  public ListenableFuture<ResultSet> fetchMoreResults() {
+    return Futures.immediateFuture(this);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.PagingIterable#one()
+   */
+  @Override
+  public Row one() {
+    return isExhausted() ? null : rows.get(i++);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.PagingIterable#all()
+   */
+  @Override
+  public List<Row> all() {
+    if (isExhausted()) {
+      return Collections.emptyList();
+    }
+    final List<Row> all = new ArrayList<>(rows.subList(i, rows.size()));
+
+    this.i = rows.size();
+    return all;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see java.lang.Iterable#iterator()
+   */
+  @Override
+  public Iterator<Row> iterator() {
+    return new Iterator<Row>() {
+      @Override
+      public boolean hasNext() {
+        return !isExhausted();
+      }
+      @Override
+      public Row next() {
+        if (isExhausted()) {
+          throw new NoSuchElementException();
+        }
+        return one();
+      }
+    };
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.PagingIterable#getExecutionInfo()
+   */
+  @Override
+  public ExecutionInfo getExecutionInfo() {
+    return null; // no execution info when not talking to a cluster
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.PagingIterable#getAllExecutionInfo()
+   */
+  @Override
+  public List<ExecutionInfo> getAllExecutionInfo() {
+    return Collections.emptyList();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.ResultSet#wasApplied()
+   */
+  @Override
+  public boolean wasApplied() {
+    if (rows.isEmpty()) {
+      return true;
+    }
+    final Row row = rows.get(0);
+
+    if (!row.getColumnDefinitions().contains(InMemoryResultSet.APPLIED)) {
+      return true;
+    }
+    return row.getBool(InMemoryResultSet.APPLIED);
+  }
+}
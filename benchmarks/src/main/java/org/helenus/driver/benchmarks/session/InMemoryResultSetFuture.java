@@ -0,0 +1,123 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks.session;
+
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.exceptions.DriverException;
+import com.datastax.driver.core.exceptions.DriverInternalError;
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * The <code>InMemoryResultSetFuture</code> class provides a result set future
+ * which is completed by the {@link InMemorySession} once its simulated
+ * latency has elapsed.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 8, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class InMemoryResultSetFuture
+  extends AbstractFuture<ResultSet>
+  implements ResultSetFuture {
+  /**
+   * Completes this future with the specified result set.
+   *
+   * @author paouelle
+   *
+   * @param  rs the result set
+   * @return <code>true</code> if this future was completed; <code>false</code>
+   *         if it was already completed or cancelled
+   */
+  boolean complete(ResultSet rs) {
+    return super.set(rs);
+  }
+
+  /**
+   * Fails this future with the specified error.
+   *
+   * @author paouelle
+   *
+   * @param  error the error
+   * @return <code>true</code> if this future was failed; <code>false</code>
+   *         if it was already completed or cancelled
+   */
+  boolean fail(Throwable error) {
+    return super.setException(error);
+  }
+
+  /**
+   * Extracts and re-creates the driver error from the specified execution
+   * exception so the stack trace points to the calling thread.
+   *
+   * @author paouelle
+   *
+   * @param  e the execution exception to extract from
+   * @return the corresponding runtime exception
+   */
+  private RuntimeException propagateError(ExecutionException e) {
+    final Throwable t = e.getCause();
+
+    if (t instanceof Error) {
+      throw (Error)t;
+    }
+    if (t instanceof DriverException) {
+      return ((DriverException)t).copy();
+    }
+    return new DriverInternalError("Unexpected exception thrown", t);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.ResultSetFuture#getUninterruptibly()
+   */
+  @Override
+  public ResultSet getUninterruptibly() {
+    try {
+      return Uninterruptibles.getUninterruptibly(this);
+    } catch (ExecutionException e) {
+      throw propagateError(e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.ResultSetFuture#getUninterruptibly(long, java.util.concurrent.TimeUnit)
+   */
+  @Override
+  public ResultSet getUninterruptibly(long timeout, TimeUnit unit)
+    throws TimeoutException {
+    try {
+      return Uninterruptibles.getUninterruptibly(this, timeout, unit);
+    } catch (ExecutionException e) {
+      throw propagateError(e);
+    }
+  }
+}
@@ -0,0 +1,568 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks.session;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import com.datastax.driver.core.CloseFuture;
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.Host;
+import com.datastax.driver.core.PreparedStatement;
+import com.datastax.driver.core.RegularStatement;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.Session;
+import com.datastax.driver.core.SessionBridge;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.Statement;
+import com.datastax.driver.core.WriteType;
+import com.datastax.driver.core.exceptions.DriverException;
+import com.datastax.driver.core.exceptions.WriteTimeoutException;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * The <code>InMemorySession</code> class provides a stand-in for a Cassandra
+ * session which never talks to a cluster. Statements are completed
+ * asynchronously after a simulated latency and can optionally fail at a
+ * configurable rate. This makes it possible to load test the whole statement
+ * pipeline (building, query string generation, grouping, result handling)
+ * without requiring a running Cassandra node.
+ * <p>
+ * Prepared statements are not supported.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 8, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class InMemorySession implements Session {
+  /**
+   * Holds the cluster reported by this session.
+   *
+   * @author paouelle
+   */
+  private final Cluster cluster;
+
+  /**
+   * Holds the scheduler used to complete requests after their simulated
+   * latency.
+   *
+   * @author paouelle
+   */
+  private final ScheduledExecutorService scheduler;
+
+  /**
+   * Holds the simulated latency distribution.
+   *
+   * @author paouelle
+   */
+  private volatile LatencyDistribution latency = LatencyDistribution.none();
+
+  /**
+   * Holds the probability (between 0 and 1) for a request to fail.
+   *
+   * @author paouelle
+   */
+  private volatile double errorRate = 0.0D;
+
+  /**
+   * Holds the supplier for errors to report when a request fails.
+   *
+   * @author paouelle
+   */
+  private volatile Supplier<? extends DriverException> errors
+    = () -> new WriteTimeoutException(ConsistencyLevel.ONE, WriteType.SIMPLE, 0, 1);
+
+  /**
+   * Holds the function used to provide rows for a given statement.
+   *
+   * @author paouelle
+   */
+  private volatile Function<Statement, List<Row>> results
+    = s -> Collections.emptyList();
+
+  /**
+   * Holds the number of requests executed.
+   *
+   * @author paouelle
+   */
+  private final AtomicLong executed = new AtomicLong();
+
+  /**
+   * Holds the number of requests which were failed.
+   *
+   * @author paouelle
+   */
+  private final AtomicLong failed = new AtomicLong();
+
+  /**
+   * Holds the number of requests currently in flight.
+   *
+   * @author paouelle
+   */
+  private final AtomicLong inflight = new AtomicLong();
+
+  /**
+   * Flag indicating if this session was closed.
+   *
+   * @author paouelle
+   */
+  private volatile boolean closed = false;
+
+  /**
+   * Instantiates a new <code>InMemorySession</code> object.
+   *
+   * @author paouelle
+   *
+   * @param  cluster the cluster to report for this session (it is never
+   *         initialized)
+   * @param  threads the number of threads used to complete requests
+   * @throws NullPointerException if <code>cluster</code> is <code>null</code>
+   * @throws IllegalArgumentException if <code>threads</code> is not positive
+   */
+  public InMemorySession(Cluster cluster, int threads) {
+    Validate.notNull(cluster, "invalid null cluster");
+    Validate.isTrue(threads > 0, "invalid number of threads: %d", threads);
+    this.cluster = cluster;
+    this.scheduler = Executors.newScheduledThreadPool(
+      threads,
+      new ThreadFactoryBuilder()
+        .setNameFormat("Helenus In-Memory Session-%d")
+        .setDaemon(true)
+        .build()
+    );
+  }
+
+  /**
+   * Sets the simulated latency distribution.
+   *
+   * @author paouelle
+   *
+   * @param  latency the latency distribution
+   * @return this for chaining
+   * @throws NullPointerException if <code>latency</code> is <code>null</code>
+   */
+  public InMemorySession withLatency(LatencyDistribution latency) {
+    Validate.notNull(latency, "invalid null latency");
+    this.latency = latency;
+    return this;
+  }
+
+  /**
+   * Sets the rate at which requests should fail.
+   *
+   * @author paouelle
+   *
+   * @param  errorRate the probability (between 0 and 1) for a request to fail
+   * @return this for chaining
+   * @throws IllegalArgumentException if <code>errorRate</code> is not between
+   *         0 and 1
+   */
+  public InMemorySession withErrorRate(double errorRate) {
+    Validate.inclusiveBetween(
+      0.0D, 1.0D, errorRate, "invalid error rate: %f", errorRate
+    );
+    this.errorRate = errorRate;
+    return this;
+  }
+
+  /**
+   * Sets the supplier of errors reported when a request fails.
+   *
+   * @author paouelle
+   *
+   * @param  errors the supplier of errors
+   * @return this for chaining
+   * @throws NullPointerException if <code>errors</code> is <code>null</code>
+   */
+  public InMemorySession withErrors(Supplier<? extends DriverException> errors) {
+    Validate.notNull(errors, "invalid null errors");
+    this.errors = errors;
+    return this;
+  }
+
+  /**
+   * Sets the function used to provide the rows returned for a given statement.
+   *
+   * @author paouelle
+   *
+   * @param  results the function providing rows for a given statement
+   * @return this for chaining
+   * @throws NullPointerException if <code>results</code> is <code>null</code>
+   */
+  public InMemorySession withResults(Function<Statement, List<Row>> results) {
+    Validate.notNull(results, "invalid null results");
+    this.results = results;
+    return this;
+  }
+
+  /**
+   * Gets the number of requests executed so far.
+   *
+   * @author paouelle
+   *
+   * @return the number of requests executed
+   */
+  public long getExecuted() {
+    return executed.get();
+  }
+
+  /**
+   * Gets the number of requests which were failed so far.
+   *
+   * @author paouelle
+   *
+   * @return the number of requests failed
+   */
+  public long getFailed() {
+    return failed.get();
+  }
+
+  /**
+   * Gets the number of requests currently in flight.
+   *
+   * @author paouelle
+   *
+   * @return the number of requests in flight
+   */
+  public long getInFlight() {
+    return inflight.get();
+  }
+
+  /**
+   * Completes the specified future with either a result set or an error.
+   *
+   * @author paouelle
+   *
+   * @param future the future to complete
+   * @param statement the statement being executed
+   */
+  private void complete(InMemoryResultSetFuture future, Statement statement) {
+    inflight.decrementAndGet();
+    if ((errorRate > 0.0D) && (ThreadLocalRandom.current().nextDouble() < errorRate)) {
+      failed.incrementAndGet();
+      future.fail(errors.get());
+      return;
+    }
+    try {
+      future.complete(new InMemoryResultSet(results.apply(statement)));
+    } catch (Error|RuntimeException e) {
+      failed.incrementAndGet();
+      future.fail(e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.Session#getLoggedKeyspace()
+   */
+  @Override
+  public String getLoggedKeyspace() {
+    return null;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.Session#init()
+   */
+  @Override
+  public Session init() {
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.Session#initAsync()
+   */
+  @Override
+  public ListenableFuture<Session> initAsync() {
+    return Futures.immediateFuture(this);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.Session#execute(java.lang.String)
+   */
+  @Override
+  public ResultSet execute(String query) {
+    return executeAsync(query).getUninterruptibly();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.Session#execute(java.lang.String, java.lang.Object[])
+   */
+  @Override
+  public ResultSet execute(String query, Object... values) {
+    return executeAsync(query, values).getUninterruptibly();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.Session#execute(java.lang.String, java.util.Map)
+   */
+  @Override
+  public ResultSet execute(String query, Map<String, Object> values) {
+    return executeAsync(query, values).getUninterruptibly();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.Session#execute(com.datastax.driver.core.Statement)
+   */
+  @Override
+  public ResultSet execute(Statement statement) {
+    return executeAsync(statement).getUninterruptibly();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.Session#executeAsync(java.lang.String)
+   */
+  @Override
+  public ResultSetFuture executeAsync(String query) {
+    return executeAsync(new SimpleStatement(query));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.Session#executeAsync(java.lang.String, java.lang.Object[])
+   */
+  @Override
+  public ResultSetFuture executeAsync(String query, Object... values) {
+    return executeAsync(new SimpleStatement(query, values));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.Session#executeAsync(java.lang.String, java.util.Map)
+   */
+  @Override
+  public ResultSetFuture executeAsync(String query, Map<String, Object> values) {
+    return executeAsync(new SimpleStatement(query, values));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.Session#executeAsync(com.datastax.driver.core.Statement)
+   */
+  @Override
+  public ResultSetFuture executeAsync(Statement statement) {
+    Validate.notNull(statement, "invalid null statement");
+    Validate.validState(!closed, "session is closed");
+    final InMemoryResultSetFuture future = new InMemoryResultSetFuture();
+    final long nanos = latency.nextNanos();
+
+    executed.incrementAndGet();
+    inflight.incrementAndGet();
+    if (nanos <= 0L) {
+      complete(future, statement);
+    } else {
+      scheduler.schedule(
+        () -> complete(future, statement), nanos, TimeUnit.NANOSECONDS
+      );
+    }
+    return future;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.Session#prepare(java.lang.String)
+   */
+  @Override
+  public PreparedStatement prepare(String query) {
+    throw new UnsupportedOperationException("prepared statements are not supported");
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.Session#prepare(com.datastax.driver.core.RegularStatement)
+   */
+  @Override
+  public PreparedStatement prepare(RegularStatement statement) {
+    throw new UnsupportedOperationException("prepared statements are not supported");
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.Session#prepareAsync(java.lang.String)
+   */
+  @Override
+  public ListenableFuture<PreparedStatement> prepareAsync(String query) {
+    return Futures.immediateFailedFuture(
+      new UnsupportedOperationException("prepared statements are not supported")
+    );
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.Session#prepareAsync(com.datastax.driver.core.RegularStatement)
+   */
+  @Override
+  public ListenableFuture<PreparedStatement> prepareAsync(
+    RegularStatement statement
+  ) {
+    return Futures.immediateFailedFuture(
+      new UnsupportedOperationException("prepared statements are not supported")
+    );
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.Session#closeAsync()
+   */
+  @Override
+  public CloseFuture closeAsync() {
+    close();
+    return SessionBridge.newCloseFuture();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.Session#close()
+   */
+  @Override
+  public void close() {
+    this.closed = true;
+    scheduler.shutdown();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.Session#isClosed()
+   */
+  @Override
+  public boolean isClosed() {
+    return closed;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.Session#getCluster()
+   */
+  @Override
+  public Cluster getCluster() {
+    return cluster;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.Session#getState()
+   */
+  @Override
+  public State getState() {
+    return new State() {
+      @Override
+      public Session getSession() {
+        return InMemorySession.this;
+      }
+      @Override
+      public Collection<Host> getConnectedHosts() {
+        return Collections.emptyList();
+      }
+      @Override
+      public int getOpenConnections(Host host) {
+        return 0;
+      }
+      @Override
+      public int getTrashedConnections(Host host) {
+        return 0;
+      }
+      @Override
+      public int getInFlightQueries(Host host) {
+        return 0;
+      }
+    };
+  }
+}
@@ -0,0 +1,204 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks.session;
+
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.Session;
+
+import org.apache.commons.lang3.Validate;
+import org.helenus.driver.benchmarks.BenchmarkStatementManager;
+import org.helenus.driver.impl.StatementManagerImpl;
+
+/**
+ * The <code>InMemoryStatementManager</code> class extends on the
+ * {@link StatementManagerImpl} in order to provide a statement manager which
+ * executes all its statements against an {@link InMemorySession} rather than
+ * a Cassandra cluster. The cluster is never initialized and cluster topology
+ * information is simulated.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 8, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class InMemoryStatementManager extends StatementManagerImpl {
+  /**
+   * Holds the in-memory session.
+   *
+   * @author paouelle
+   */
+  private final InMemorySession session;
+
+  /**
+   * Holds the simulated number of hosts in the cluster.
+   *
+   * @author paouelle
+   */
+  private volatile int hosts = 1;
+
+  /**
+   * Holds the simulated replication factor for all keyspaces.
+   *
+   * @author paouelle
+   */
+  private volatile int replicationFactor = 1;
+
+  /**
+   * Instantiates a new <code>InMemoryStatementManager</code> object.
+   *
+   * @author paouelle
+   *
+   * @param  threads the number of threads used by the session to complete
+   *         requests
+   * @throws IllegalArgumentException if <code>threads</code> is not positive
+   * @throws SecurityException if the statement manager reference has already
+   *         been set
+   */
+  public InMemoryStatementManager(int threads) {
+    super(
+      Cluster.builder()
+        .addContactPoint("127.0.0.1")
+        .withProtocolVersion(BenchmarkStatementManager.PROTOCOL_VERSION),
+      false // never connect
+    );
+    this.session = new InMemorySession(getCluster(), threads);
+  }
+
+  /**
+   * Sets the simulated number of hosts in the cluster. This affects how many
+   * statements are executed in parallel by groups.
+   *
+   * @author paouelle
+   *
+   * @param  hosts the number of hosts to simulate
+   * @return this for chaining
+   * @throws IllegalArgumentException if <code>hosts</code> is not positive
+   */
+  public InMemoryStatementManager withHosts(int hosts) {
+    Validate.isTrue(hosts > 0, "invalid number of hosts: %d", hosts);
+    this.hosts = hosts;
+    return this;
+  }
+
+  /**
+   * Sets the simulated replication factor for all keyspaces.
+   *
+   * @author paouelle
+   *
+   * @param  replicationFactor the replication factor to simulate
+   * @return this for chaining
+   * @throws IllegalArgumentException if <code>replicationFactor</code> is not
+   *         positive
+   */
+  public InMemoryStatementManager withReplicationFactor(int replicationFactor) {
+    Validate.isTrue(
+      replicationFactor > 0,
+      "invalid replication factor: %d", replicationFactor
+    );
+    this.replicationFactor = replicationFactor;
+    return this;
+  }
+
+  /**
+   * Gets the in-memory session used to execute statements.
+   *
+   * @author paouelle
+   *
+   * @return the non-<code>null</code> in-memory session
+   */
+  public InMemorySession getInMemorySession() {
+    return session;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.impl.StatementManagerImpl#getSession()
+   */
+  @Override
+  public Session getSession() {
+    return session;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * <i>Note:</i> Nothing to connect to.
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.impl.StatementManagerImpl#connect()
+   */
+  @Override
+  public void connect() {}
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.impl.StatementManagerImpl#getNumHosts()
+   */
+  @Override
+  public int getNumHosts() {
+    return hosts;
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * <i>Note:</i> No keyspaces are ever defined such that user-defined types
+   * will rely on their POJO definitions.
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.impl.StatementManagerImpl#getKeyspaceMetadata(java.lang.String)
+   */
+  @Override
+  public KeyspaceMetadata getKeyspaceMetadata(String keyspace) {
+    return null;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.impl.StatementManagerImpl#getMaximumKeyspaceReplicationFactor(java.lang.String)
+   */
+  @Override
+  public int getMaximumKeyspaceReplicationFactor(String keyspace) {
+    return replicationFactor;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.impl.StatementManagerImpl#close()
+   */
+  @Override
+  public void close() {
+    session.close();
+    super.close();
+  }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks.session;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * The <code>LatencyDistribution</code> interface defines a source of simulated
+ * server-side latencies used by the {@link InMemorySession}.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 8, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+@FunctionalInterface
+public interface LatencyDistribution {
+  /**
+   * Gets a distribution where requests complete immediately.
+   *
+   * @author paouelle
+   *
+   * @return a distribution with no latency
+   */
+  public static LatencyDistribution none() {
+    return () -> 0L;
+  }
+
+  /**
+   * Gets a distribution with a constant latency.
+   *
+   * @author paouelle
+   *
+   * @param  latency the latency
+   * @param  unit the unit for the latency
+   * @return a distribution with a constant latency
+   * @throws IllegalArgumentException if <code>latency</code> is negative
+   */
+  public static LatencyDistribution constant(long latency, TimeUnit unit) {
+    Validate.isTrue(latency >= 0L, "invalid negative latency: %d", latency);
+    final long nanos = unit.toNanos(latency);
+
+    return () -> nanos;
+  }
+
+  /**
+   * Gets a distribution with a latency uniformly distributed between two
+   * bounds.
+   *
+   * @author paouelle
+   *
+   * @param  min the minimum latency (inclusive)
+   * @param  max the maximum latency (exclusive)
+   * @param  unit the unit for the latencies
+   * @return a distribution with a uniform latency
+   * @throws IllegalArgumentException if <code>min</code> is negative or not
+   *         smaller than <code>max</code>
+   */
+  public static LatencyDistribution uniform(long min, long max, TimeUnit unit) {
+    Validate.isTrue(min >= 0L, "invalid negative latency: %d", min);
+    Validate.isTrue(min < max, "invalid latency range: [%d, %d)", min, max);
+    final long nmin = unit.toNanos(min);
+    final long nmax = unit.toNanos(max);
+
+    return () -> ThreadLocalRandom.current().nextLong(nmin, nmax);
+  }
+
+  /**
+   * Gets a distribution with an exponentially distributed latency.
+   *
+   * @author paouelle
+   *
+   * @param  mean the mean latency
+   * @param  unit the unit for the latency
+   * @return a distribution with an exponential latency
+   * @throws IllegalArgumentException if <code>mean</code> is negative
+   */
+  public static LatencyDistribution exponential(long mean, TimeUnit unit) {
+    Validate.isTrue(mean >= 0L, "invalid negative latency: %d", mean);
+    final double nmean = unit.toNanos(mean);
+
+    return () -> (long)(-nmean * Math.log(1.0D - ThreadLocalRandom.current().nextDouble()));
+  }
+
+  /**
+   * Gets a distribution which uses this distribution most of the time and the
+   * specified tail distribution for a given fraction of requests. This is
+   * useful to simulate garbage collection pauses or slow replicas.
+   *
+   * @author paouelle
+   *
+   * @param  probability the probability (between 0 and 1) that a request
+   *         uses the tail distribution
+   * @param  tail the tail distribution
+   * @return a distribution with the specified tail
+   * @throws NullPointerException if <code>tail</code> is <code>null</code>
+   * @throws IllegalArgumentException if <code>probability</code> is not
+   *         between 0 and 1
+   */
+  public default LatencyDistribution withTail(
+    double probability, LatencyDistribution tail
+  ) {
+    Validate.notNull(tail, "invalid null tail");
+    Validate.inclusiveBetween(
+      0.0D, 1.0D, probability, "invalid probability: %f", probability
+    );
+    return () -> (
+      (ThreadLocalRandom.current().nextDouble() < probability)
+      ? tail.nextNanos()
+      : nextNanos()
+    );
+  }
+
+  /**
+   * Gets the next simulated latency.
+   *
+   * @author paouelle
+   *
+   * @return the next latency in nanoseconds
+   */
+  public long nextNanos();
+}
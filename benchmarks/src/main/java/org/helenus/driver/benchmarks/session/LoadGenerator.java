@@ -0,0 +1,633 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks.session;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.datastax.driver.core.Row;
+import com.google.common.util.concurrent.ListenableFuture;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
+import org.helenus.driver.Batch;
+import org.helenus.driver.Group;
+import org.helenus.driver.ObjectSet;
+import org.helenus.driver.StatementBuilder;
+import org.helenus.driver.benchmarks.LatencyHistogram;
+import org.helenus.driver.benchmarks.Rows;
+import org.helenus.driver.benchmarks.entities.Constants;
+import org.helenus.driver.benchmarks.entities.User;
+
+/**
+ * The <code>LoadGenerator</code> class provides a closed-loop load generator
+ * which drives the complete statement pipeline (building, query string
+ * generation, execution, grouping and result decoding) against an
+ * {@link InMemorySession}. Since no Cassandra cluster is involved, it isolates
+ * the client-side throughput and latency overhead of the driver under
+ * concurrency, simulated server latencies and injected errors.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 8, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class LoadGenerator {
+  /**
+   * The <code>Workload</code> enumeration defines the supported workloads.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 8, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  public enum Workload {
+    /**
+     * Inserts a user.
+     *
+     * @author paouelle
+     */
+    INSERT {
+      @Override
+      ListenableFuture<?> submit(int size) {
+        return StatementBuilder.insert(Workload.newUser()).intoAll().executeAsync();
+      }
+    },
+
+    /**
+     * Updates a user.
+     *
+     * @author paouelle
+     */
+    UPDATE {
+      @Override
+      ListenableFuture<?> submit(int size) {
+        return StatementBuilder.update(Workload.newUser()).executeAsync();
+      }
+    },
+
+    /**
+     * Selects a user and decodes the returned row.
+     *
+     * @author paouelle
+     */
+    SELECT {
+      @Override
+      ListenableFuture<?> submit(int size) {
+        return StatementBuilder.select(User.class)
+          .all()
+          .from(Constants.USERS)
+          .where(StatementBuilder.eq(Constants.ID, UUID.randomUUID()))
+          .executeAsync();
+      }
+    },
+
+    /**
+     * Inserts users in a logged batch.
+     *
+     * @author paouelle
+     */
+    BATCH {
+      @Override
+      ListenableFuture<?> submit(int size) {
+        final Batch batch = StatementBuilder.batch();
+
+        for (int i = 0; i < size; i++) {
+          batch.add(StatementBuilder.insert(Workload.newUser()).intoAll());
+        }
+        return batch.executeAsync();
+      }
+    },
+
+    /**
+     * Inserts users in a group executed in parallel.
+     *
+     * @author paouelle
+     */
+    GROUP {
+      @Override
+      ListenableFuture<?> submit(int size) {
+        final Group group = StatementBuilder.group();
+
+        for (int i = 0; i < size; i++) {
+          group.add(StatementBuilder.insert(Workload.newUser()).intoAll());
+        }
+        return group.executeAsync();
+      }
+    };
+
+    /**
+     * Creates a new random user.
+     *
+     * @author paouelle
+     *
+     * @return a new random user
+     */
+    static User newUser() {
+      final int i = ThreadLocalRandom.current().nextInt(1000000);
+
+      return new User(
+        UUID.randomUUID(), "user" + i + "@example.com", "User " + i, i % 100, 2, 16
+      );
+    }
+
+    /**
+     * Builds and submits a statement for this workload.
+     *
+     * @author paouelle
+     *
+     * @param  size the number of statements to include in batches and groups
+     * @return a future for the completion of the statement
+     */
+    abstract ListenableFuture<?> submit(int size);
+  }
+
+  /**
+   * Holds the concurrency option.
+   *
+   * @author paouelle
+   */
+  private final static Option concurrency = Option.builder("c")
+    .longOpt("concurrency")
+    .desc("to specify the maximum number of outstanding requests (defaults to 128)")
+    .hasArg()
+    .argName("number")
+    .build();
+
+  /**
+   * Holds the producers option.
+   *
+   * @author paouelle
+   */
+  private final static Option producers = Option.builder("p")
+    .longOpt("producers")
+    .desc("to specify the number of threads building and submitting statements (defaults to 2)")
+    .hasArg()
+    .argName("number")
+    .build();
+
+  /**
+   * Holds the duration option.
+   *
+   * @author paouelle
+   */
+  private final static Option duration = Option.builder("d")
+    .longOpt("duration")
+    .desc("to specify the number of seconds to measure for (defaults to 30)")
+    .hasArg()
+    .argName("seconds")
+    .build();
+
+  /**
+   * Holds the warmup option.
+   *
+   * @author paouelle
+   */
+  private final static Option warmup = Option.builder("w")
+    .longOpt("warmup")
+    .desc("to specify the number of seconds to warm up for before measuring (defaults to 5)")
+    .hasArg()
+    .argName("seconds")
+    .build();
+
+  /**
+   * Holds the workload option.
+   *
+   * @author paouelle
+   */
+  private final static Option workload = Option.builder("W")
+    .longOpt("workload")
+    .desc("to specify the workload to run: insert, update, select, batch, or group (defaults to insert)")
+    .hasArg()
+    .argName("workload")
+    .build();
+
+  /**
+   * Holds the size option.
+   *
+   * @author paouelle
+   */
+  private final static Option size = Option.builder("s")
+    .longOpt("size")
+    .desc("to specify the number of statements in each batch or group (defaults to 10)")
+    .hasArg()
+    .argName("number")
+    .build();
+
+  /**
+   * Holds the latency option.
+   *
+   * @author paouelle
+   */
+  private final static Option latency = Option.builder("l")
+    .longOpt("latency")
+    .desc(
+      "to specify the simulated latency in microseconds as none, constant:<us>, "
+      + "uniform:<min>:<max>, or exp:<mean> optionally followed by "
+      + ",tail:<probability>:<us> (defaults to exp:500)"
+    )
+    .hasArg()
+    .argName("spec")
+    .build();
+
+  /**
+   * Holds the error rate option.
+   *
+   * @author paouelle
+   */
+  private final static Option errors = Option.builder("e")
+    .longOpt("error-rate")
+    .desc("to specify the probability (between 0 and 1) for a request to fail (defaults to 0)")
+    .hasArg()
+    .argName("rate")
+    .build();
+
+  /**
+   * Holds the threads option.
+   *
+   * @author paouelle
+   */
+  private final static Option threads = Option.builder("t")
+    .longOpt("threads")
+    .desc("to specify the number of threads completing requests (defaults to 4)")
+    .hasArg()
+    .argName("number")
+    .build();
+
+  /**
+   * Holds the hosts option.
+   *
+   * @author paouelle
+   */
+  private final static Option hosts = Option.builder("n")
+    .longOpt("hosts")
+    .desc("to specify the number of hosts to simulate (defaults to 1)")
+    .hasArg()
+    .argName("number")
+    .build();
+
+  /**
+   * Holds the help option.
+   *
+   * @author paouelle
+   */
+  private final static Option help = Option.builder("?")
+    .longOpt("help")
+    .desc("to print this message")
+    .build();
+
+  /**
+   * Holds the command-line options definition.
+   *
+   * @author paouelle
+   */
+  private final static Options options
+    = (new Options()
+       .addOption(LoadGenerator.concurrency)
+       .addOption(LoadGenerator.producers)
+       .addOption(LoadGenerator.duration)
+       .addOption(LoadGenerator.warmup)
+       .addOption(LoadGenerator.workload)
+       .addOption(LoadGenerator.size)
+       .addOption(LoadGenerator.latency)
+       .addOption(LoadGenerator.errors)
+       .addOption(LoadGenerator.threads)
+       .addOption(LoadGenerator.hosts)
+       .addOption(LoadGenerator.help)
+      );
+
+  /**
+   * Parses a latency distribution specification.
+   *
+   * @author paouelle
+   *
+   * @param  spec the specification to parse
+   * @return the corresponding latency distribution
+   * @throws IllegalArgumentException if the specification is invalid
+   */
+  static LatencyDistribution parseLatency(String spec) {
+    final String[] parts = spec.split(",", 2);
+    final String[] base = parts[0].trim().split(":");
+    LatencyDistribution d;
+
+    try {
+      switch (base[0].toLowerCase()) {
+        case "none":
+          d = LatencyDistribution.none();
+          break;
+        case "constant":
+          d = LatencyDistribution.constant(Long.parseLong(base[1]), TimeUnit.MICROSECONDS);
+          break;
+        case "uniform":
+          d = LatencyDistribution.uniform(
+            Long.parseLong(base[1]), Long.parseLong(base[2]), TimeUnit.MICROSECONDS
+          );
+          break;
+        case "exp":
+          d = LatencyDistribution.exponential(Long.parseLong(base[1]), TimeUnit.MICROSECONDS);
+          break;
+        default:
+          throw new IllegalArgumentException("unknown latency distribution: " + spec);
+      }
+      if (parts.length > 1) {
+        final String[] tail = parts[1].trim().split(":");
+
+        org.apache.commons.lang3.Validate.isTrue(
+          "tail".equalsIgnoreCase(tail[0]), "invalid latency tail: %s", spec
+        );
+        d = d.withTail(
+          Double.parseDouble(tail[1]),
+          LatencyDistribution.constant(Long.parseLong(tail[2]), TimeUnit.MICROSECONDS)
+        );
+      }
+    } catch (ArrayIndexOutOfBoundsException|NumberFormatException e) {
+      throw new IllegalArgumentException("invalid latency distribution: " + spec, e);
+    }
+    return d;
+  }
+
+  /**
+   * Holds the statement manager.
+   *
+   * @author paouelle
+   */
+  private final InMemoryStatementManager mgr;
+
+  /**
+   * Holds the workload to run.
+   *
+   * @author paouelle
+   */
+  private final Workload load;
+
+  /**
+   * Holds the number of statements to include in batches and groups.
+   *
+   * @author paouelle
+   */
+  private final int groupSize;
+
+  /**
+   * Holds the semaphore bounding the number of outstanding requests.
+   *
+   * @author paouelle
+   */
+  private final Semaphore permits;
+
+  /**
+   * Holds the latencies histogram as observed by the caller.
+   *
+   * @author paouelle
+   */
+  private final LatencyHistogram histogram = new LatencyHistogram();
+
+  /**
+   * Holds the number of successful requests.
+   *
+   * @author paouelle
+   */
+  private final AtomicLong succeeded = new AtomicLong();
+
+  /**
+   * Holds the number of failed requests.
+   *
+   * @author paouelle
+   */
+  private final AtomicLong failed = new AtomicLong();
+
+  /**
+   * Flag indicating if the load generator should keep submitting requests.
+   *
+   * @author paouelle
+   */
+  private volatile boolean running = true;
+
+  /**
+   * Instantiates a new <code>LoadGenerator</code> object.
+   *
+   * @author paouelle
+   *
+   * @param mgr the statement manager to use
+   * @param load the workload to run
+   * @param groupSize the number of statements to include in batches and groups
+   * @param concurrency the maximum number of outstanding requests
+   */
+  LoadGenerator(
+    InMemoryStatementManager mgr, Workload load, int groupSize, int concurrency
+  ) {
+    org.apache.commons.lang3.Validate.isTrue(
+      groupSize > 0, "invalid size: %d", groupSize
+    );
+    org.apache.commons.lang3.Validate.isTrue(
+      concurrency > 0, "invalid concurrency: %d", concurrency
+    );
+    this.mgr = mgr;
+    this.load = load;
+    this.groupSize = groupSize;
+    this.permits = new Semaphore(concurrency);
+  }
+
+  /**
+   * Builds, submits, and tracks requests until told to stop.
+   *
+   * @author paouelle
+   */
+  private void produce() {
+    while (running) {
+      permits.acquireUninterruptibly();
+      if (!running) {
+        permits.release();
+        break;
+      }
+      final long start = System.nanoTime();
+      final ListenableFuture<?> future;
+
+      try {
+        future = load.submit(groupSize);
+      } catch (Error|RuntimeException e) {
+        failed.incrementAndGet();
+        permits.release();
+        continue;
+      }
+      future.addListener(() -> {
+        try {
+          final Object result = future.get();
+
+          if (result instanceof ObjectSet) { // force decoding of all rows
+            ((ObjectSet<?>)result).all();
+          }
+          histogram.record(System.nanoTime() - start);
+          succeeded.incrementAndGet();
+        } catch (Exception e) {
+          failed.incrementAndGet();
+        } finally {
+          permits.release();
+        }
+      }, mgr.getDirectExecutor());
+    }
+  }
+
+  /**
+   * Resets all counters.
+   *
+   * @author paouelle
+   */
+  private void reset() {
+    histogram.reset();
+    succeeded.set(0L);
+    failed.set(0L);
+  }
+
+  /**
+   * Runs the load generator.
+   *
+   * @author paouelle
+   *
+   * @param  producers the number of threads building and submitting statements
+   * @param  warmup the number of seconds to warm up for
+   * @param  duration the number of seconds to measure for
+   * @throws InterruptedException if interrupted while running
+   */
+  void run(int producers, int warmup, int duration) throws InterruptedException {
+    final CountDownLatch done = new CountDownLatch(producers);
+
+    for (int i = 0; i < producers; i++) {
+      final Thread t = new Thread(() -> {
+        try {
+          produce();
+        } finally {
+          done.countDown();
+        }
+      }, "Helenus Load Generator-" + i);
+
+      t.setDaemon(true);
+      t.start();
+    }
+    if (warmup > 0) {
+      Thread.sleep(TimeUnit.SECONDS.toMillis(warmup));
+    }
+    reset();
+    final long start = System.nanoTime();
+
+    for (int i = 1; i <= duration; i++) {
+      Thread.sleep(1000L);
+      System.out.printf(
+        "%4ds: %,d requests (%,d failed), %d in flight%n",
+        i, succeeded.get(), failed.get(), mgr.getInMemorySession().getInFlight()
+      );
+    }
+    final double elapsed = (System.nanoTime() - start) / 1000000000.0D;
+    final long ok = succeeded.get();
+    final long ko = failed.get();
+
+    this.running = false;
+    done.await();
+    System.out.printf(
+      "%nWorkload: %s (size: %d)%n"
+      + "Throughput: %,.1f requests/s (%,.1f statements/s)%n"
+      + "Failed: %,d%n"
+      + "Latency: %s%n",
+      load.name().toLowerCase(),
+      groupSize,
+      ok / elapsed,
+      ok * ((load == Workload.BATCH) || (load == Workload.GROUP) ? groupSize : 1) / elapsed,
+      ko,
+      histogram.toSummary()
+    );
+  }
+
+  /**
+   * Main point of entry for the load generator.
+   *
+   * @author paouelle
+   *
+   * @param args the command line arguments
+   */
+  public static void main(String[] args) {
+    try {
+      final CommandLineParser parser = new DefaultParser();
+      final CommandLine line = parser.parse(LoadGenerator.options, args);
+
+      if (line.hasOption(LoadGenerator.help.getLongOpt())) {
+        new HelpFormatter().printHelp(
+          LoadGenerator.class.getSimpleName() + " [options]",
+          LoadGenerator.options
+        );
+        System.exit(0);
+      }
+      final Workload load = Workload.valueOf(
+        line.getOptionValue(LoadGenerator.workload.getLongOpt(), "insert").toUpperCase()
+      );
+      final InMemoryStatementManager mgr = new InMemoryStatementManager(
+        Integer.parseInt(line.getOptionValue(LoadGenerator.threads.getLongOpt(), "4"))
+      ).withHosts(
+        Integer.parseInt(line.getOptionValue(LoadGenerator.hosts.getLongOpt(), "1"))
+      );
+      final InMemorySession session = mgr.getInMemorySession()
+        .withLatency(LoadGenerator.parseLatency(
+          line.getOptionValue(LoadGenerator.latency.getLongOpt(), "exp:500")
+        ))
+        .withErrorRate(Double.parseDouble(
+          line.getOptionValue(LoadGenerator.errors.getLongOpt(), "0")
+        ));
+
+      if (load == Workload.SELECT) {
+        final List<Row> rows = Collections.singletonList(
+          Rows.of(mgr, Workload.newUser(), Constants.USERS)
+        );
+
+        session.withResults(s -> rows);
+      }
+      // make sure class info is loaded before starting
+      StatementBuilder.getClassInfo(User.class);
+      new LoadGenerator(
+        mgr,
+        load,
+        Integer.parseInt(line.getOptionValue(LoadGenerator.size.getLongOpt(), "10")),
+        Integer.parseInt(line.getOptionValue(LoadGenerator.concurrency.getLongOpt(), "128"))
+      ).run(
+        Integer.parseInt(line.getOptionValue(LoadGenerator.producers.getLongOpt(), "2")),
+        Integer.parseInt(line.getOptionValue(LoadGenerator.warmup.getLongOpt(), "5")),
+        Integer.parseInt(line.getOptionValue(LoadGenerator.duration.getLongOpt(), "30"))
+      );
+      mgr.close();
+    } catch (ParseException|IllegalArgumentException e) {
+      System.err.println(
+        LoadGenerator.class.getSimpleName() + ": " + e.getMessage()
+      );
+      System.exit(2);
+    } catch (InterruptedException e) {
+      System.err.println(LoadGenerator.class.getSimpleName() + ": interrupted");
+      System.exit(1);
+    }
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks.ycsb;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * The <code>KeyDistribution</code> enumeration defines the distributions
+ * available for choosing which record an operation should access.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 9, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public enum KeyDistribution {
+  /**
+   * All records are equally likely to be accessed.
+   *
+   * @author paouelle
+   */
+  UNIFORM {
+    @Override
+    public long next(ZipfianGenerator zipf, long n) {
+      return ThreadLocalRandom.current().nextLong(n);
+    }
+  },
+
+  /**
+   * Some records are extremely popular while most are rarely accessed. The
+   * popular records are scattered throughout the key space.
+   *
+   * @author paouelle
+   */
+  ZIPFIAN {
+    @Override
+    public long next(ZipfianGenerator zipf, long n) {
+      return KeyDistribution.fnvhash64(zipf.next(n)) % n;
+    }
+  },
+
+  /**
+   * The most recently inserted records are the most popular.
+   *
+   * @author paouelle
+   */
+  LATEST {
+    @Override
+    public long next(ZipfianGenerator zipf, long n) {
+      return n - 1L - zipf.next(n);
+    }
+  };
+
+  /**
+   * Holds the FNV-1a 64 bits offset basis.
+   *
+   * @author paouelle
+   */
+  private final static long FNV_OFFSET_BASIS_64 = 0xCBF29CE484222325L;
+
+  /**
+   * Holds the FNV-1a 64 bits prime.
+   *
+   * @author paouelle
+   */
+  private final static long FNV_PRIME_64 = 1099511628211L;
+
+  /**
+   * Hashes the specified value using FNV-1a in order to scatter popular items.
+   *
+   * @author paouelle
+   *
+   * @param  val the value to hash
+   * @return the corresponding non-negative hash
+   */
+  static long fnvhash64(long val) {
+    long hash = KeyDistribution.FNV_OFFSET_BASIS_64;
+
+    for (int i = 0; i < 8; i++) {
+      hash ^= val & 0xFF;
+      hash *= KeyDistribution.FNV_PRIME_64;
+      val >>>= 8;
+    }
+    return hash & Long.MAX_VALUE;
+  }
+
+  /**
+   * Chooses the next record to access.
+   *
+   * @author paouelle
+   *
+   * @param  zipf the Zipfian generator to use if required
+   * @param  n the current number of records
+   * @return the next record to access in the range [0, <code>n</code>)
+   */
+  public abstract long next(ZipfianGenerator zipf, long n);
+}
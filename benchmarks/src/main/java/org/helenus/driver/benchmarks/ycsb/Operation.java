@@ -0,0 +1,57 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks.ycsb;
+
+/**
+ * The <code>Operation</code> enumeration defines the operations that are part
+ * of a workload.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 9, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public enum Operation {
+  /**
+   * Reads a single record.
+   *
+   * @author paouelle
+   */
+  READ,
+
+  /**
+   * Updates a single record.
+   *
+   * @author paouelle
+   */
+  UPDATE,
+
+  /**
+   * Inserts a new record.
+   *
+   * @author paouelle
+   */
+  INSERT,
+
+  /**
+   * Reads a range of records.
+   *
+   * @author paouelle
+   */
+  SCAN;
+}
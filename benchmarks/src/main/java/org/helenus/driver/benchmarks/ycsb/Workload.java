@@ -0,0 +1,227 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks.ycsb;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * The <code>Workload</code> class defines a mix of operations in the spirit of
+ * the Yahoo! Cloud Serving Benchmark (YCSB) core workloads.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 9, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class Workload {
+  /**
+   * Gets one of the YCSB core workloads.
+   * <p>
+   * <ul>
+   *   <li>a: update heavy (50% reads, 50% updates, zipfian)</li>
+   *   <li>b: read mostly (95% reads, 5% updates, zipfian)</li>
+   *   <li>c: read only (100% reads, zipfian)</li>
+   *   <li>d: read latest (95% reads, 5% inserts, latest)</li>
+   *   <li>e: short ranges (95% scans, 5% inserts, zipfian)</li>
+   * </ul>
+   *
+   * @author paouelle
+   *
+   * @param  name the name of the core workload (a to e)
+   * @return the corresponding workload
+   * @throws IllegalArgumentException if <code>name</code> is not a known
+   *         core workload
+   */
+  public static Workload core(String name) {
+    switch (name.toLowerCase()) {
+      case "a":
+        return new Workload("a", 0.5D, 0.5D, 0.0D, 0.0D, KeyDistribution.ZIPFIAN);
+      case "b":
+        return new Workload("b", 0.95D, 0.05D, 0.0D, 0.0D, KeyDistribution.ZIPFIAN);
+      case "c":
+        return new Workload("c", 1.0D, 0.0D, 0.0D, 0.0D, KeyDistribution.ZIPFIAN);
+      case "d":
+        return new Workload("d", 0.95D, 0.0D, 0.05D, 0.0D, KeyDistribution.LATEST);
+      case "e":
+        return new Workload("e", 0.0D, 0.0D, 0.05D, 0.95D, KeyDistribution.ZIPFIAN);
+      default:
+        throw new IllegalArgumentException("unknown core workload: " + name);
+    }
+  }
+
+  /**
+   * Holds the name for this workload.
+   *
+   * @author paouelle
+   */
+  private final String name;
+
+  /**
+   * Holds the cumulative proportions for each operations.
+   *
+   * @author paouelle
+   */
+  private final double[] cumulative = new double[Operation.values().length];
+
+  /**
+   * Holds the key distribution.
+   *
+   * @author paouelle
+   */
+  private final KeyDistribution distribution;
+
+  /**
+   * Instantiates a new <code>Workload</code> object.
+   *
+   * @author paouelle
+   *
+   * @param  name the name for this workload
+   * @param  read the proportion of reads
+   * @param  update the proportion of updates
+   * @param  insert the proportion of inserts
+   * @param  scan the proportion of scans
+   * @param  distribution the key distribution
+   * @throws NullPointerException if <code>name</code> or
+   *         <code>distribution</code> is <code>null</code>
+   * @throws IllegalArgumentException if any proportions are negative or if
+   *         they are all 0
+   */
+  public Workload(
+    String name,
+    double read,
+    double update,
+    double insert,
+    double scan,
+    KeyDistribution distribution
+  ) {
+    Validate.notNull(name, "invalid null name");
+    Validate.notNull(distribution, "invalid null distribution");
+    Validate.isTrue(
+      (read >= 0.0D) && (update >= 0.0D) && (insert >= 0.0D) && (scan >= 0.0D),
+      "invalid negative proportion"
+    );
+    final double total = read + update + insert + scan;
+
+    Validate.isTrue(total > 0.0D, "invalid empty workload");
+    this.name = name;
+    this.distribution = distribution;
+    cumulative[Operation.READ.ordinal()] = read / total;
+    cumulative[Operation.UPDATE.ordinal()] = (read + update) / total;
+    cumulative[Operation.INSERT.ordinal()] = (read + update + insert) / total;
+    cumulative[Operation.SCAN.ordinal()] = 1.0D;
+  }
+
+  /**
+   * Instantiates a new <code>Workload</code> object as a copy of another one
+   * with a different key distribution.
+   *
+   * @author paouelle
+   *
+   * @param workload the workload to copy
+   * @param distribution the key distribution
+   */
+  private Workload(Workload workload, KeyDistribution distribution) {
+    this.name = workload.name;
+    this.distribution = distribution;
+    System.arraycopy(workload.cumulative, 0, cumulative, 0, cumulative.length);
+  }
+
+  /**
+   * Gets a copy of this workload using a different key distribution.
+   *
+   * @author paouelle
+   *
+   * @param  distribution the key distribution to use
+   * @return a new workload with the same operation mix and the specified
+   *         key distribution
+   * @throws NullPointerException if <code>distribution</code> is <code>null</code>
+   */
+  public Workload withDistribution(KeyDistribution distribution) {
+    Validate.notNull(distribution, "invalid null distribution");
+    return new Workload(this, distribution);
+  }
+
+  /**
+   * Gets the name for this workload.
+   *
+   * @author paouelle
+   *
+   * @return the name for this workload
+   */
+  public String getName() {
+    return name;
+  }
+
+  /**
+   * Gets the key distribution for this workload.
+   *
+   * @author paouelle
+   *
+   * @return the key distribution for this workload
+   */
+  public KeyDistribution getDistribution() {
+    return distribution;
+  }
+
+  /**
+   * Chooses the next operation to perform.
+   *
+   * @author paouelle
+   *
+   * @return the next operation to perform
+   */
+  public Operation nextOperation() {
+    final double r = ThreadLocalRandom.current().nextDouble();
+    final Operation[] ops = Operation.values();
+
+    for (int i = 0; i < ops.length; i++) {
+      if (r < cumulative[i]) {
+        return ops[i];
+      }
+    }
+    return Operation.SCAN;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see java.lang.Object#toString()
+   */
+  @Override
+  public String toString() {
+    final StringBuilder sb = new StringBuilder(name).append(" (");
+    double previous = 0.0D;
+
+    for (final Operation op: Operation.values()) {
+      final double p = cumulative[op.ordinal()] - previous;
+
+      if (p > 0.0D) {
+        if (previous > 0.0D) {
+          sb.append(", ");
+        }
+        sb.append(String.format("%.0f%% %s", p * 100.0D, op.name().toLowerCase()));
+      }
+      previous = cumulative[op.ordinal()];
+    }
+    return sb.append(", ").append(distribution.name().toLowerCase()).append(')').toString();
+  }
+}
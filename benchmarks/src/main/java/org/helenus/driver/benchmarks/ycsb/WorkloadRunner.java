@@ -0,0 +1,636 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks.ycsb;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+import java.nio.ByteBuffer;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
+import org.helenus.driver.StatementBuilder;
+import org.helenus.driver.benchmarks.LatencyHistogram;
+import org.helenus.driver.examples.music.Constants;
+import org.helenus.driver.examples.music.PlaylistEntry;
+import org.helenus.driver.examples.music.Song;
+import org.helenus.driver.junit.HelenusJUnit;
+import org.junit.runners.model.FrameworkMethod;
+import org.junit.runners.model.Statement;
+
+/**
+ * The <code>WorkloadRunner</code> class provides the main entry point for
+ * running YCSB-style mixed workloads end-to-end against an embedded Cassandra
+ * daemon started through {@link HelenusJUnit}. It uses the music service
+ * example POJOs where each record is a {@link Song} which is also listed in a
+ * playlist through a {@link PlaylistEntry} such that scans can be performed
+ * as range queries on a playlist partition.
+ * <p>
+ * Throughput and latency percentiles are reported for each operation.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 9, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class WorkloadRunner {
+  /**
+   * Holds the most significant bits used for song ids.
+   *
+   * @author paouelle
+   */
+  private final static long SONG_MSB = 0x5000L;
+
+  /**
+   * Holds the most significant bits used for playlist ids.
+   *
+   * @author paouelle
+   */
+  private final static long PLAYLIST_MSB = 0x9000L;
+
+  /**
+   * Holds the number of songs per playlist.
+   *
+   * @author paouelle
+   */
+  private final static int PLAYLIST_SIZE = 1000;
+
+  /**
+   * Holds the workload option.
+   *
+   * @author paouelle
+   */
+  private final static Option workload = Option.builder("w")
+    .longOpt("workload")
+    .desc("to specify the YCSB core workload to run: a, b, c, d, or e (defaults to a)")
+    .hasArg()
+    .argName("name")
+    .build();
+
+  /**
+   * Holds the distribution option.
+   *
+   * @author paouelle
+   */
+  private final static Option distribution = Option.builder("k")
+    .longOpt("distribution")
+    .desc("to override the key distribution: uniform, zipfian, or latest")
+    .hasArg()
+    .argName("name")
+    .build();
+
+  /**
+   * Holds the Zipfian constant option.
+   *
+   * @author paouelle
+   */
+  private final static Option zipf = Option.builder("z")
+    .longOpt("zipfian-constant")
+    .desc("to specify the Zipfian constant (defaults to 0.99)")
+    .hasArg()
+    .argName("theta")
+    .build();
+
+  /**
+   * Holds the records option.
+   *
+   * @author paouelle
+   */
+  private final static Option records = Option.builder("r")
+    .longOpt("records")
+    .desc("to specify the number of records to load (defaults to 10000)")
+    .hasArg()
+    .argName("number")
+    .build();
+
+  /**
+   * Holds the operations option.
+   *
+   * @author paouelle
+   */
+  private final static Option operations = Option.builder("o")
+    .longOpt("operations")
+    .desc("to specify the number of operations to run (defaults to 100000)")
+    .hasArg()
+    .argName("number")
+    .build();
+
+  /**
+   * Holds the threads option.
+   *
+   * @author paouelle
+   */
+  private final static Option threads = Option.builder("t")
+    .longOpt("threads")
+    .desc("to specify the number of client threads (defaults to 16)")
+    .hasArg()
+    .argName("number")
+    .build();
+
+  /**
+   * Holds the scan length option.
+   *
+   * @author paouelle
+   */
+  private final static Option scan = Option.builder("s")
+    .longOpt("scan-length")
+    .desc("to specify the maximum number of records returned by a scan (defaults to 100)")
+    .hasArg()
+    .argName("number")
+    .build();
+
+  /**
+   * Holds the field length option.
+   *
+   * @author paouelle
+   */
+  private final static Option length = Option.builder("l")
+    .longOpt("data-length")
+    .desc("to specify the size in bytes of each song's data (defaults to 100)")
+    .hasArg()
+    .argName("bytes")
+    .build();
+
+  /**
+   * Holds the Cassandra configuration option.
+   *
+   * @author paouelle
+   */
+  private final static Option cfg = Option.builder("c")
+    .longOpt("config")
+    .desc("to specify the Cassandra configuration resource (defaults to " + HelenusJUnit.DEFAULT_CFG_FILE + ")")
+    .hasArg()
+    .argName("resource")
+    .build();
+
+  /**
+   * Holds the help option.
+   *
+   * @author paouelle
+   */
+  private final static Option help = Option.builder("?")
+    .longOpt("help")
+    .desc("to print this message")
+    .build();
+
+  /**
+   * Holds the command-line options definition.
+   *
+   * @author paouelle
+   */
+  private final static Options options
+    = (new Options()
+       .addOption(WorkloadRunner.workload)
+       .addOption(WorkloadRunner.distribution)
+       .addOption(WorkloadRunner.zipf)
+       .addOption(WorkloadRunner.records)
+       .addOption(WorkloadRunner.operations)
+       .addOption(WorkloadRunner.threads)
+       .addOption(WorkloadRunner.scan)
+       .addOption(WorkloadRunner.length)
+       .addOption(WorkloadRunner.cfg)
+       .addOption(WorkloadRunner.help)
+      );
+
+  /**
+   * Gets the song id for a given record.
+   *
+   * @author paouelle
+   *
+   * @param  key the record key
+   * @return the corresponding song id
+   */
+  private static UUID songId(long key) {
+    return new UUID(WorkloadRunner.SONG_MSB, key);
+  }
+
+  /**
+   * Gets the playlist id for a given record.
+   *
+   * @author paouelle
+   *
+   * @param  key the record key
+   * @return the corresponding playlist id
+   */
+  private static UUID playlistId(long key) {
+    return new UUID(WorkloadRunner.PLAYLIST_MSB, key / WorkloadRunner.PLAYLIST_SIZE);
+  }
+
+  /**
+   * Holds the workload to run.
+   *
+   * @author paouelle
+   */
+  private final Workload load;
+
+  /**
+   * Holds the number of records to load.
+   *
+   * @author paouelle
+   */
+  private final long recordCount;
+
+  /**
+   * Holds the number of operations to run.
+   *
+   * @author paouelle
+   */
+  private final long operationCount;
+
+  /**
+   * Holds the number of client threads.
+   *
+   * @author paouelle
+   */
+  private final int threadCount;
+
+  /**
+   * Holds the maximum number of records returned by a scan.
+   *
+   * @author paouelle
+   */
+  private final int scanLength;
+
+  /**
+   * Holds the size in bytes of each song's data.
+   *
+   * @author paouelle
+   */
+  private final int dataLength;
+
+  /**
+   * Holds the Zipfian generator.
+   *
+   * @author paouelle
+   */
+  private final ZipfianGenerator zipfian;
+
+  /**
+   * Holds the next record key to insert.
+   *
+   * @author paouelle
+   */
+  private final AtomicLong nextKey = new AtomicLong();
+
+  /**
+   * Holds the number of records inserted so far and thus available to be
+   * accessed by other operations.
+   *
+   * @author paouelle
+   */
+  private final AtomicLong inserted = new AtomicLong();
+
+  /**
+   * Holds the latencies histogram for each operations.
+   *
+   * @author paouelle
+   */
+  private final Map<Operation, LatencyHistogram> histograms = new EnumMap<>(Operation.class);
+
+  /**
+   * Holds the number of failures for each operations.
+   *
+   * @author paouelle
+   */
+  private final Map<Operation, AtomicLong> failures = new EnumMap<>(Operation.class);
+
+  /**
+   * Instantiates a new <code>WorkloadRunner</code> object.
+   *
+   * @author paouelle
+   *
+   * @param  load the workload to run
+   * @param  theta the Zipfian constant
+   * @param  recordCount the number of records to load
+   * @param  operationCount the number of operations to run
+   * @param  threadCount the number of client threads
+   * @param  scanLength the maximum number of records returned by a scan
+   * @param  dataLength the size in bytes of each song's data
+   * @throws IllegalArgumentException if any of the counts are invalid
+   */
+  public WorkloadRunner(
+    Workload load,
+    double theta,
+    long recordCount,
+    long operationCount,
+    int threadCount,
+    int scanLength,
+    int dataLength
+  ) {
+    org.apache.commons.lang3.Validate.isTrue(recordCount > 0L, "invalid number of records: %d", recordCount);
+    org.apache.commons.lang3.Validate.isTrue(operationCount >= 0L, "invalid number of operations: %d", operationCount);
+    org.apache.commons.lang3.Validate.isTrue(threadCount > 0, "invalid number of threads: %d", threadCount);
+    org.apache.commons.lang3.Validate.isTrue(scanLength > 0, "invalid scan length: %d", scanLength);
+    org.apache.commons.lang3.Validate.isTrue(dataLength >= 0, "invalid data length: %d", dataLength);
+    this.load = load;
+    this.recordCount = recordCount;
+    this.operationCount = operationCount;
+    this.threadCount = threadCount;
+    this.scanLength = scanLength;
+    this.dataLength = dataLength;
+    this.zipfian = new ZipfianGenerator(recordCount, theta);
+    for (final Operation op: Operation.values()) {
+      histograms.put(op, new LatencyHistogram());
+      failures.put(op, new AtomicLong());
+    }
+  }
+
+  /**
+   * Creates the song for a given record.
+   *
+   * @author paouelle
+   *
+   * @param  key the record key
+   * @return the corresponding song
+   */
+  private Song newSong(long key) {
+    final byte[] data = new byte[dataLength];
+
+    ThreadLocalRandom.current().nextBytes(data);
+    return new Song(
+      WorkloadRunner.songId(key),
+      "Title " + key,
+      "Album " + (key / 10),
+      "Artist " + (key / 100),
+      ByteBuffer.wrap(data)
+    );
+  }
+
+  /**
+   * Creates the playlist entry for a given record.
+   *
+   * @author paouelle
+   *
+   * @param  key the record key
+   * @param  song the song for the record
+   * @return the corresponding playlist entry
+   */
+  private PlaylistEntry newEntry(long key, Song song) {
+    return new PlaylistEntry(
+      WorkloadRunner.playlistId(key), (int)(key % WorkloadRunner.PLAYLIST_SIZE), song
+    );
+  }
+
+  /**
+   * Chooses the next existing record to access.
+   *
+   * @author paouelle
+   *
+   * @return the next existing record key
+   */
+  private long nextExistingKey() {
+    return load.getDistribution().next(zipfian, Math.max(1L, inserted.get()));
+  }
+
+  /**
+   * Performs the specified operation.
+   *
+   * @author paouelle
+   *
+   * @param op the operation to perform
+   */
+  private void perform(Operation op) {
+    switch (op) {
+      case READ:
+        StatementBuilder.select(Song.class)
+          .all()
+          .from(Constants.SONGS)
+          .where(StatementBuilder.eq(Constants.ID, WorkloadRunner.songId(nextExistingKey())))
+          .execute()
+          .one();
+        break;
+      case UPDATE: {
+        final Song song = newSong(nextExistingKey());
+
+        song.setTitle("Updated " + song.getTitle());
+        StatementBuilder.update(song).execute();
+        break;
+      }
+      case INSERT: {
+        final long key = nextKey.getAndIncrement();
+        final Song song = newSong(key);
+
+        StatementBuilder.batch(
+          StatementBuilder.insert(song).intoAll(),
+          StatementBuilder.insert(newEntry(key, song)).intoAll()
+        ).execute();
+        inserted.incrementAndGet();
+        break;
+      }
+      case SCAN: {
+        final long key = nextExistingKey();
+
+        StatementBuilder.select(PlaylistEntry.class)
+          .all()
+          .from(Constants.PLAYLISTS)
+          .where(StatementBuilder.eq(Constants.ID, WorkloadRunner.playlistId(key)))
+          .and(StatementBuilder.gte(Constants.SONG_ORDER, (int)(key % WorkloadRunner.PLAYLIST_SIZE)))
+          .limit(ThreadLocalRandom.current().nextInt(scanLength) + 1)
+          .execute()
+          .all();
+        break;
+      }
+    }
+  }
+
+  /**
+   * Loads the initial records.
+   *
+   * @author paouelle
+   */
+  private void loadRecords() {
+    final long start = System.nanoTime();
+
+    StatementBuilder.bulkInsert(
+      LongStream.range(0L, recordCount)
+        .boxed()
+        .flatMap(key -> {
+          final Song song = newSong(key);
+
+          return Stream.of(song, newEntry(key, song));
+        })
+    ).execute();
+    nextKey.set(recordCount);
+    inserted.set(recordCount);
+    final double elapsed = (System.nanoTime() - start) / 1000000000.0D;
+
+    System.out.printf(
+      "Loaded %,d records in %.1fs (%,.1f records/s)%n",
+      recordCount, elapsed, recordCount / elapsed
+    );
+  }
+
+  /**
+   * Runs the workload operations using all client threads.
+   *
+   * @author paouelle
+   *
+   * @throws InterruptedException if interrupted while waiting for the client
+   *         threads to complete
+   */
+  private void runOperations() throws InterruptedException {
+    final AtomicLong remaining = new AtomicLong(operationCount);
+    final List<Thread> clients = new ArrayList<>(threadCount);
+    final long start = System.nanoTime();
+
+    for (int i = 0; i < threadCount; i++) {
+      final Thread t = new Thread(() -> {
+        while (remaining.getAndDecrement() > 0L) {
+          final Operation op = load.nextOperation();
+          final long ostart = System.nanoTime();
+
+          try {
+            perform(op);
+            histograms.get(op).record(System.nanoTime() - ostart);
+          } catch (Exception e) {
+            failures.get(op).incrementAndGet();
+          }
+        }
+      }, "Helenus Workload Client-" + i);
+
+      clients.add(t);
+      t.start();
+    }
+    for (final Thread t: clients) {
+      t.join();
+    }
+    final double elapsed = (System.nanoTime() - start) / 1000000000.0D;
+
+    System.out.printf(
+      "%nWorkload: %s%n"
+      + "Runtime: %.1fs%n"
+      + "Throughput: %,.1f ops/s%n",
+      load, elapsed, operationCount / elapsed
+    );
+    for (final Operation op: Operation.values()) {
+      final LatencyHistogram h = histograms.get(op);
+      final long failed = failures.get(op).get();
+
+      if ((h.getCount() == 0L) && (failed == 0L)) {
+        continue;
+      }
+      System.out.printf(
+        "%-6s %,.1f ops/s failed=%,d p50=%.3fms p99=%.3fms p99.9=%.3fms max=%.3fms%n",
+        op,
+        h.getCount() / elapsed,
+        failed,
+        h.getPercentile(50.0D, TimeUnit.MILLISECONDS),
+        h.getPercentile(99.0D, TimeUnit.MILLISECONDS),
+        h.getPercentile(99.9D, TimeUnit.MILLISECONDS),
+        h.getMax(TimeUnit.MILLISECONDS)
+      );
+    }
+  }
+
+  /**
+   * Creates the schemas, loads the records, and runs the workload against the
+   * embedded Cassandra daemon.
+   *
+   * @author paouelle
+   *
+   * @param  helenus the Helenus JUnit environment to use
+   * @throws InterruptedException if interrupted while running
+   */
+  public void run(HelenusJUnit helenus) throws InterruptedException {
+    helenus.schema(Song.class, PlaylistEntry.class);
+    loadRecords();
+    runOperations();
+  }
+
+  /**
+   * Main point of entry for the workload runner.
+   *
+   * @author paouelle
+   *
+   * @param args the command line arguments
+   */
+  public static void main(String[] args) {
+    try {
+      final CommandLineParser parser = new DefaultParser();
+      final CommandLine line = parser.parse(WorkloadRunner.options, args);
+
+      if (line.hasOption(WorkloadRunner.help.getLongOpt())) {
+        new HelpFormatter().printHelp(
+          WorkloadRunner.class.getSimpleName() + " [options]",
+          WorkloadRunner.options
+        );
+        System.exit(0);
+      }
+      Workload load = Workload.core(
+        line.getOptionValue(WorkloadRunner.workload.getLongOpt(), "a")
+      );
+
+      if (line.hasOption(WorkloadRunner.distribution.getLongOpt())) {
+        load = load.withDistribution(KeyDistribution.valueOf(
+          line.getOptionValue(WorkloadRunner.distribution.getLongOpt()).toUpperCase()
+        ));
+      }
+      final WorkloadRunner runner = new WorkloadRunner(
+        load,
+        Double.parseDouble(line.getOptionValue(
+          WorkloadRunner.zipf.getLongOpt(), String.valueOf(ZipfianGenerator.DEFAULT_CONSTANT)
+        )),
+        Long.parseLong(line.getOptionValue(WorkloadRunner.records.getLongOpt(), "10000")),
+        Long.parseLong(line.getOptionValue(WorkloadRunner.operations.getLongOpt(), "100000")),
+        Integer.parseInt(line.getOptionValue(WorkloadRunner.threads.getLongOpt(), "16")),
+        Integer.parseInt(line.getOptionValue(WorkloadRunner.scan.getLongOpt(), "100")),
+        Integer.parseInt(line.getOptionValue(WorkloadRunner.length.getLongOpt(), "100"))
+      );
+      final HelenusJUnit helenus = new HelenusJUnit(
+        line.getOptionValue(WorkloadRunner.cfg.getLongOpt(), HelenusJUnit.DEFAULT_CFG_FILE),
+        HelenusJUnit.DEFAULT_STARTUP_TIMEOUT
+      );
+
+      // drive the rule directly to start the embedded daemon and get a clean db
+      helenus.apply(new Statement() {
+        @Override
+        public void evaluate() throws Throwable {
+          runner.run(helenus);
+        }
+      }, new FrameworkMethod(
+        WorkloadRunner.class.getMethod("run", HelenusJUnit.class)
+      ), runner).evaluate();
+      System.exit(0); // make sure to stop the embedded Cassandra daemon
+    } catch (ParseException|IllegalArgumentException e) {
+      System.err.println(
+        WorkloadRunner.class.getSimpleName() + ": " + e.getMessage()
+      );
+      System.exit(2);
+    } catch (Throwable t) {
+      System.err.print(
+        WorkloadRunner.class.getSimpleName() + ": unexpected exception: "
+      );
+      t.printStackTrace(System.err);
+      System.exit(1);
+    }
+  }
+}
@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.benchmarks.ycsb;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+import org.apache.commons.lang3.Validate;
+
+/**
+ * The <code>ZipfianGenerator</code> class generates integers following a
+ * Zipfian distribution where a few items are extremely popular and most are
+ * rarely accessed. The implementation follows the algorithm from Gray et al.
+ * "Quickly Generating Billion-Record Synthetic Databases" as used by YCSB and
+ * supports a growing number of items by incrementally updating its zeta
+ * constant.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 9, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class ZipfianGenerator {
+  /**
+   * Holds the default Zipfian constant as used by YCSB.
+   *
+   * @author paouelle
+   */
+  public final static double DEFAULT_CONSTANT = 0.99D;
+
+  /**
+   * Computes the zeta constant incrementally.
+   *
+   * @author paouelle
+   *
+   * @param  from the number of items the initial sum was computed for
+   * @param  to the number of items to compute the zeta constant for
+   * @param  theta the Zipfian constant
+   * @param  initial the initial sum for <code>from</code> items
+   * @return the zeta constant for <code>to</code> items
+   */
+  private static double zeta(long from, long to, double theta, double initial) {
+    double sum = initial;
+
+    for (long i = from; i < to; i++) {
+      sum += 1.0D / Math.pow(i + 1, theta);
+    }
+    return sum;
+  }
+
+  /**
+   * Holds the Zipfian constant.
+   *
+   * @author paouelle
+   */
+  private final double theta;
+
+  /**
+   * Holds the pre-computed zeta constant for 2 items.
+   *
+   * @author paouelle
+   */
+  private final double zeta2;
+
+  /**
+   * Holds the pre-computed alpha value.
+   *
+   * @author paouelle
+   */
+  private final double alpha;
+
+  /**
+   * Holds the current state computed for a given number of items.
+   *
+   * @author paouelle
+   */
+  private volatile State state;
+
+  /**
+   * Instantiates a new <code>ZipfianGenerator</code> object.
+   *
+   * @author paouelle
+   *
+   * @param  items the initial number of items
+   * @param  theta the Zipfian constant (typically 0.99)
+   * @throws IllegalArgumentException if <code>items</code> is not positive or
+   *         if <code>theta</code> is not between 0 and 1 exclusively
+   */
+  public ZipfianGenerator(long items, double theta) {
+    Validate.isTrue(items > 0L, "invalid number of items: %d", items);
+    Validate.exclusiveBetween(0.0D, 1.0D, theta, "invalid Zipfian constant: %f", theta);
+    this.theta = theta;
+    this.zeta2 = ZipfianGenerator.zeta(0L, 2L, theta, 0.0D);
+    this.alpha = 1.0D / (1.0D - theta);
+    this.state = new State(items, ZipfianGenerator.zeta(0L, items, theta, 0.0D));
+  }
+
+  /**
+   * Updates the zeta constant if the number of items changed.
+   *
+   * @author paouelle
+   *
+   * @param  n the new number of items
+   * @return the state for <code>n</code> items
+   */
+  private synchronized State resize(long n) {
+    final State s = state;
+
+    if (n > s.items) { // grow incrementally
+      this.state = new State(n, ZipfianGenerator.zeta(s.items, n, theta, s.zetan));
+    } else if (n < s.items) { // recompute from scratch
+      this.state = new State(n, ZipfianGenerator.zeta(0L, n, theta, 0.0D));
+    }
+    return state;
+  }
+
+  /**
+   * Generates the next item in the range [0, <code>n</code>) where the
+   * smallest values are the most popular.
+   *
+   * @author paouelle
+   *
+   * @param  n the current number of items
+   * @return the next item
+   * @throws IllegalArgumentException if <code>n</code> is not positive
+   */
+  public long next(long n) {
+    Validate.isTrue(n > 0L, "invalid number of items: %d", n);
+    State s = state;
+
+    if (s.items != n) {
+      s = resize(n);
+    }
+    final double u = ThreadLocalRandom.current().nextDouble();
+    final double uz = u * s.zetan;
+
+    if (uz < 1.0D) {
+      return 0L;
+    }
+    if (uz < 1.0D + Math.pow(0.5D, theta)) {
+      return Math.min(1L, n - 1L);
+    }
+    return Math.min(n - 1L, (long)(n * Math.pow(s.eta * u - s.eta + 1.0D, alpha)));
+  }
+
+  /**
+   * The <code>State</code> class keeps track of the pre-computed constants for
+   * a given number of items.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 10, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  private class State {
+    /**
+     * Holds the number of items the constants were computed for.
+     *
+     * @author paouelle
+     */
+    final long items;
+
+    /**
+     * Holds the zeta constant for the number of items.
+     *
+     * @author paouelle
+     */
+    final double zetan;
+
+    /**
+     * Holds the eta value for the number of items.
+     *
+     * @author paouelle
+     */
+    final double eta;
+
+    /**
+     * Instantiates a new <code>State</code> object.
+     *
+     * @author paouelle
+     *
+     * @param items the number of items
+     * @param zetan the zeta constant for the number of items
+     */
+    @SuppressWarnings("synthetic-access")
+    State(long items, double zetan) {
+      this.items = items;
+      this.zetan = zetan;
+      this.eta = (
+        (1.0D - Math.pow(2.0D / items, 1.0D - theta))
+        / (1.0D - zeta2 / zetan)
+      );
+    }
+  }
+}
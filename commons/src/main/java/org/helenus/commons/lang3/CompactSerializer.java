@@ -0,0 +1,539 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.commons.lang3;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.Serializable;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+import org.apache.commons.lang3.SerializationException;
+
+/**
+ * The <code>CompactSerializer</code> class provides a compact tagged binary
+ * format for the values most commonly stored in blobs. Each value is prefixed
+ * with a single tag byte, integral values are encoded as zig-zag variable
+ * length integers, and lists, sets, and maps are encoded element by element.
+ * Values which are not natively supported are encoded using Java serialization.
+ * <p>
+ * <i>Note:</i> Only the exact standard collection classes are encoded natively
+ * such that the decoded object is of the same class as the encoded one.
+ * {@link HashSet} and {@link HashMap} are decoded as {@link LinkedHashSet} and
+ * {@link LinkedHashMap} respectively.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+final class CompactSerializer {
+  // value tags; never renumber as they are persisted in blobs
+  private final static int NULL = 0;
+  private final static int FALSE = 1;
+  private final static int TRUE = 2;
+  private final static int BYTE = 3;
+  private final static int SHORT = 4;
+  private final static int INT = 5;
+  private final static int LONG = 6;
+  private final static int FLOAT = 7;
+  private final static int DOUBLE = 8;
+  private final static int CHAR = 9;
+  private final static int STRING = 10;
+  private final static int BYTES = 11;
+  private final static int UUID_ = 12;
+  private final static int DATE = 13;
+  private final static int INSTANT = 14;
+  private final static int BIG_INTEGER = 15;
+  private final static int BIG_DECIMAL = 16;
+  private final static int LIST = 17;
+  private final static int SET = 18;
+  private final static int SORTED_SET = 19;
+  private final static int MAP = 20;
+  private final static int SORTED_MAP = 21;
+  private final static int JAVA = 127;
+
+  /**
+   * Holds the maximum number of elements or bytes pre-allocated based on a
+   * size read from a blob such that a corrupted size fails when reaching the
+   * end of the blob instead of exhausting memory upfront.
+   *
+   * @author paouelle
+   */
+  private final static int MAX_PREALLOCATED = 8192;
+
+  /**
+   * Writes the specified value.
+   *
+   * @author paouelle
+   *
+   * @param  obj the value to write
+   * @param  out the output to write to
+   * @throws IOException if an I/O error occurs
+   * @throws SerializationException if a value cannot be serialized
+   */
+  static void write(Object obj, DataOutput out) throws IOException {
+    if (obj == null) {
+      out.writeByte(CompactSerializer.NULL);
+      return;
+    }
+    final Class<?> clazz = obj.getClass();
+
+    if (clazz == String.class) {
+      out.writeByte(CompactSerializer.STRING);
+      CompactSerializer.writeBytes(((String)obj).getBytes(StandardCharsets.UTF_8), out);
+    } else if (clazz == Integer.class) {
+      out.writeByte(CompactSerializer.INT);
+      CompactSerializer.writeVarLong((Integer)obj, out);
+    } else if (clazz == Long.class) {
+      out.writeByte(CompactSerializer.LONG);
+      CompactSerializer.writeVarLong((Long)obj, out);
+    } else if (clazz == Boolean.class) {
+      out.writeByte(
+        ((Boolean)obj).booleanValue() ? CompactSerializer.TRUE : CompactSerializer.FALSE
+      );
+    } else if (clazz == Byte.class) {
+      out.writeByte(CompactSerializer.BYTE);
+      out.writeByte((Byte)obj);
+    } else if (clazz == Short.class) {
+      out.writeByte(CompactSerializer.SHORT);
+      CompactSerializer.writeVarLong((Short)obj, out);
+    } else if (clazz == Float.class) {
+      out.writeByte(CompactSerializer.FLOAT);
+      out.writeFloat((Float)obj);
+    } else if (clazz == Double.class) {
+      out.writeByte(CompactSerializer.DOUBLE);
+      out.writeDouble((Double)obj);
+    } else if (clazz == Character.class) {
+      out.writeByte(CompactSerializer.CHAR);
+      out.writeChar((Character)obj);
+    } else if (clazz == byte[].class) {
+      out.writeByte(CompactSerializer.BYTES);
+      CompactSerializer.writeBytes((byte[])obj, out);
+    } else if (clazz == UUID.class) {
+      final UUID uuid = (UUID)obj;
+
+      out.writeByte(CompactSerializer.UUID_);
+      out.writeLong(uuid.getMostSignificantBits());
+      out.writeLong(uuid.getLeastSignificantBits());
+    } else if (clazz == Date.class) {
+      out.writeByte(CompactSerializer.DATE);
+      CompactSerializer.writeVarLong(((Date)obj).getTime(), out);
+    } else if (clazz == Instant.class) {
+      final Instant instant = (Instant)obj;
+
+      out.writeByte(CompactSerializer.INSTANT);
+      CompactSerializer.writeVarLong(instant.getEpochSecond(), out);
+      CompactSerializer.writeVarLong(instant.getNano(), out);
+    } else if (clazz == BigInteger.class) {
+      out.writeByte(CompactSerializer.BIG_INTEGER);
+      CompactSerializer.writeBytes(((BigInteger)obj).toByteArray(), out);
+    } else if (clazz == BigDecimal.class) {
+      final BigDecimal bd = (BigDecimal)obj;
+
+      out.writeByte(CompactSerializer.BIG_DECIMAL);
+      CompactSerializer.writeVarLong(bd.scale(), out);
+      CompactSerializer.writeBytes(bd.unscaledValue().toByteArray(), out);
+    } else if (clazz == ArrayList.class) {
+      out.writeByte(CompactSerializer.LIST);
+      CompactSerializer.writeCollection((Collection<?>)obj, out);
+    } else if ((clazz == HashSet.class) || (clazz == LinkedHashSet.class)) {
+      out.writeByte(CompactSerializer.SET);
+      CompactSerializer.writeCollection((Collection<?>)obj, out);
+    } else if ((clazz == TreeSet.class) && (((TreeSet<?>)obj).comparator() == null)) {
+      out.writeByte(CompactSerializer.SORTED_SET);
+      CompactSerializer.writeCollection((Collection<?>)obj, out);
+    } else if ((clazz == HashMap.class) || (clazz == LinkedHashMap.class)) {
+      out.writeByte(CompactSerializer.MAP);
+      CompactSerializer.writeMap((Map<?, ?>)obj, out);
+    } else if ((clazz == TreeMap.class) && (((TreeMap<?, ?>)obj).comparator() == null)) {
+      out.writeByte(CompactSerializer.SORTED_MAP);
+      CompactSerializer.writeMap((Map<?, ?>)obj, out);
+    } else if (obj instanceof Serializable) {
+      out.writeByte(CompactSerializer.JAVA);
+      CompactSerializer.writeBytes(
+        org.apache.commons.lang3.SerializationUtils.serialize((Serializable)obj), out
+      );
+    } else {
+      throw new SerializationException(
+        "unable to serialize object of class: " + clazz.getName()
+      );
+    }
+  }
+
+  /**
+   * Reads a value.
+   *
+   * @author paouelle
+   *
+   * @param  in the input to read from
+   * @return the corresponding value
+   * @throws IOException if an I/O error occurs or if the data is corrupted
+   * @throws SerializationException if a value cannot be deserialized
+   */
+  static Object read(DataInput in) throws IOException {
+    try {
+      return CompactSerializer.readValue(in);
+    } catch (SerializationException e) {
+      throw e;
+    } catch (RuntimeException e) { // e.g. mixed elements in a sorted set
+      throw new IOException("corrupted compact blob", e);
+    }
+  }
+
+  /**
+   * Reads a value recursively.
+   *
+   * @author paouelle
+   *
+   * @param  in the input to read from
+   * @return the corresponding value
+   * @throws IOException if an I/O error occurs or if the data is corrupted
+   * @throws SerializationException if a value cannot be deserialized
+   */
+  private static Object readValue(DataInput in) throws IOException {
+    final int tag = in.readUnsignedByte();
+
+    switch (tag) {
+      case CompactSerializer.NULL:
+        return null;
+      case CompactSerializer.FALSE:
+        return Boolean.FALSE;
+      case CompactSerializer.TRUE:
+        return Boolean.TRUE;
+      case CompactSerializer.BYTE:
+        return in.readByte();
+      case CompactSerializer.SHORT:
+        return (short)CompactSerializer.readVarLong(in);
+      case CompactSerializer.INT:
+        return (int)CompactSerializer.readVarLong(in);
+      case CompactSerializer.LONG:
+        return CompactSerializer.readVarLong(in);
+      case CompactSerializer.FLOAT:
+        return in.readFloat();
+      case CompactSerializer.DOUBLE:
+        return in.readDouble();
+      case CompactSerializer.CHAR:
+        return in.readChar();
+      case CompactSerializer.STRING:
+        return new String(CompactSerializer.readBytes(in), StandardCharsets.UTF_8);
+      case CompactSerializer.BYTES:
+        return CompactSerializer.readBytes(in);
+      case CompactSerializer.UUID_:
+        return new UUID(in.readLong(), in.readLong());
+      case CompactSerializer.DATE:
+        return new Date(CompactSerializer.readVarLong(in));
+      case CompactSerializer.INSTANT: {
+        final long secs = CompactSerializer.readVarLong(in);
+
+        return Instant.ofEpochSecond(secs, CompactSerializer.readVarLong(in));
+      }
+      case CompactSerializer.BIG_INTEGER:
+        return new BigInteger(CompactSerializer.readBytes(in));
+      case CompactSerializer.BIG_DECIMAL: {
+        final int scale = (int)CompactSerializer.readVarLong(in);
+
+        return new BigDecimal(new BigInteger(CompactSerializer.readBytes(in)), scale);
+      }
+      case CompactSerializer.LIST: {
+        final int size = CompactSerializer.readSize(in);
+
+        return CompactSerializer.readCollection(
+          in, new ArrayList<>(Math.min(size, CompactSerializer.MAX_PREALLOCATED)), size
+        );
+      }
+      case CompactSerializer.SET: {
+        final int size = CompactSerializer.readSize(in);
+
+        return CompactSerializer.readCollection(
+          in,
+          new LinkedHashSet<>(Math.min(size, CompactSerializer.MAX_PREALLOCATED) * 4 / 3 + 1),
+          size
+        );
+      }
+      case CompactSerializer.SORTED_SET:
+        return CompactSerializer.readCollection(
+          in, new TreeSet<>(), CompactSerializer.readSize(in)
+        );
+      case CompactSerializer.MAP: {
+        final int size = CompactSerializer.readSize(in);
+
+        return CompactSerializer.readMap(
+          in,
+          new LinkedHashMap<>(Math.min(size, CompactSerializer.MAX_PREALLOCATED) * 4 / 3 + 1),
+          size
+        );
+      }
+      case CompactSerializer.SORTED_MAP:
+        return CompactSerializer.readMap(
+          in, new TreeMap<>(), CompactSerializer.readSize(in)
+        );
+      case CompactSerializer.JAVA:
+        return org.apache.commons.lang3.SerializationUtils.deserialize(
+          CompactSerializer.readBytes(in)
+        );
+      default:
+        throw new IOException("corrupted compact blob; unknown tag: " + tag);
+    }
+  }
+
+  /**
+   * Writes a collection as its size followed by its elements.
+   *
+   * @author paouelle
+   *
+   * @param  c the collection to write
+   * @param  out the output to write to
+   * @throws IOException if an I/O error occurs
+   */
+  private static void writeCollection(Collection<?> c, DataOutput out)
+    throws IOException {
+    final int size = c.size();
+    int i = 0;
+
+    CompactSerializer.writeVarInt(size, out);
+    for (final Object e: c) {
+      if (++i > size) {
+        throw new SerializationException("collection modified while serializing");
+      }
+      CompactSerializer.write(e, out);
+    }
+    if (i != size) {
+      throw new SerializationException("collection modified while serializing");
+    }
+  }
+
+  /**
+   * Writes a map as its size followed by its keys and values.
+   *
+   * @author paouelle
+   *
+   * @param  m the map to write
+   * @param  out the output to write to
+   * @throws IOException if an I/O error occurs
+   */
+  private static void writeMap(Map<?, ?> m, DataOutput out) throws IOException {
+    final int size = m.size();
+    int i = 0;
+
+    CompactSerializer.writeVarInt(size, out);
+    for (final Map.Entry<?, ?> e: m.entrySet()) {
+      if (++i > size) {
+        throw new SerializationException("map modified while serializing");
+      }
+      CompactSerializer.write(e.getKey(), out);
+      CompactSerializer.write(e.getValue(), out);
+    }
+    if (i != size) {
+      throw new SerializationException("map modified while serializing");
+    }
+  }
+
+  /**
+   * Reads the elements of a collection.
+   *
+   * @author paouelle
+   *
+   * @param  in the input to read from
+   * @param  c the collection to populate
+   * @param  size the number of elements to read
+   * @return <code>c</code>
+   * @throws IOException if an I/O error occurs or if the data is corrupted
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private static Object readCollection(DataInput in, Collection c, int size)
+    throws IOException {
+    for (int i = 0; i < size; i++) {
+      c.add(CompactSerializer.readValue(in));
+    }
+    return c;
+  }
+
+  /**
+   * Reads the entries of a map.
+   *
+   * @author paouelle
+   *
+   * @param  in the input to read from
+   * @param  m the map to populate
+   * @param  size the number of entries to read
+   * @return <code>m</code>
+   * @throws IOException if an I/O error occurs or if the data is corrupted
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private static Object readMap(DataInput in, Map m, int size)
+    throws IOException {
+    for (int i = 0; i < size; i++) {
+      final Object key = CompactSerializer.readValue(in);
+
+      m.put(key, CompactSerializer.readValue(in));
+    }
+    return m;
+  }
+
+  /**
+   * Writes a byte array as its length followed by its content.
+   *
+   * @author paouelle
+   *
+   * @param  bytes the bytes to write
+   * @param  out the output to write to
+   * @throws IOException if an I/O error occurs
+   */
+  private static void writeBytes(byte[] bytes, DataOutput out)
+    throws IOException {
+    CompactSerializer.writeVarInt(bytes.length, out);
+    out.write(bytes);
+  }
+
+  /**
+   * Reads a byte array written by {@link #writeBytes}.
+   *
+   * @author paouelle
+   *
+   * @param  in the input to read from
+   * @return the corresponding bytes
+   * @throws IOException if an I/O error occurs or if the data is corrupted
+   */
+  private static byte[] readBytes(DataInput in) throws IOException {
+    final int size = CompactSerializer.readSize(in);
+    byte[] bytes = new byte[Math.min(size, CompactSerializer.MAX_PREALLOCATED)];
+    int n = 0;
+
+    // grow as bytes are actually read to not trust a corrupted size
+    while (true) {
+      in.readFully(bytes, n, bytes.length - n);
+      n = bytes.length;
+      if (n == size) {
+        return bytes;
+      }
+      bytes = Arrays.copyOf(bytes, (int)Math.min(size, 2L * n));
+    }
+  }
+
+  /**
+   * Writes an unsigned variable length integer.
+   *
+   * @author paouelle
+   *
+   * @param  v the non-negative value to write
+   * @param  out the output to write to
+   * @throws IOException if an I/O error occurs
+   */
+  private static void writeVarInt(int v, DataOutput out) throws IOException {
+    while ((v & ~0x7f) != 0) {
+      out.writeByte((v & 0x7f) | 0x80);
+      v >>>= 7;
+    }
+    out.writeByte(v);
+  }
+
+  /**
+   * Reads a size written as an unsigned variable length integer.
+   *
+   * @author paouelle
+   *
+   * @param  in the input to read from
+   * @return the corresponding size
+   * @throws IOException if an I/O error occurs or if the data is corrupted
+   */
+  private static int readSize(DataInput in) throws IOException {
+    int v = 0;
+
+    for (int shift = 0; shift < 32; shift += 7) {
+      final int b = in.readUnsignedByte();
+
+      v |= (b & 0x7f) << shift;
+      if ((b & 0x80) == 0) {
+        if (v < 0) {
+          break;
+        }
+        return v;
+      }
+    }
+    throw new IOException("corrupted compact blob; invalid size");
+  }
+
+  /**
+   * Writes a signed variable length integer using zig-zag encoding such that
+   * small negative values are as compact as small positive ones.
+   *
+   * @author paouelle
+   *
+   * @param  v the value to write
+   * @param  out the output to write to
+   * @throws IOException if an I/O error occurs
+   */
+  private static void writeVarLong(long v, DataOutput out) throws IOException {
+    v = (v << 1) ^ (v >> 63);
+    while ((v & ~0x7fL) != 0L) {
+      out.writeByte((int)((v & 0x7f) | 0x80));
+      v >>>= 7;
+    }
+    out.writeByte((int)v);
+  }
+
+  /**
+   * Reads a signed variable length integer written by {@link #writeVarLong}.
+   *
+   * @author paouelle
+   *
+   * @param  in the input to read from
+   * @return the corresponding value
+   * @throws IOException if an I/O error occurs or if the data is corrupted
+   */
+  private static long readVarLong(DataInput in) throws IOException {
+    long v = 0L;
+
+    for (int shift = 0; shift < 64; shift += 7) {
+      final int b = in.readUnsignedByte();
+
+      v |= (long)(b & 0x7f) << shift;
+      if ((b & 0x80) == 0) {
+        return (v >>> 1) ^ -(v & 1);
+      }
+    }
+    throw new IOException("corrupted compact blob; invalid integer");
+  }
+
+  /**
+   * Prevents instantiation.
+   *
+   * @author paouelle
+   */
+  private CompactSerializer() {}
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.commons.lang3;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * The <code>Compression</code> enumeration defines the built-in compression
+ * algorithms available when encoding objects into blobs. Additional algorithms
+ * can be provided by implementing {@link CompressionCodec}.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ *
+ * @see SerializationUtils#encode(java.io.Serializable, SerializationCodec, CompressionCodec)
+ */
+public enum Compression implements CompressionCodec {
+  /**
+   * No compression.
+   *
+   * @author paouelle
+   */
+  NONE(0) {
+    @Override
+    public void compress(byte[] data, int len, OutputStream os) throws IOException {
+      os.write(data, 0, len);
+    }
+    @Override
+    public InputStream decompress(byte[] data, int off, int len) {
+      return new ByteArrayInputStream(data, off, len);
+    }
+  },
+
+  /**
+   * GZIP compression which provides good compression ratios at a high CPU cost.
+   *
+   * @author paouelle
+   */
+  GZIP(1) {
+    @Override
+    public void compress(byte[] data, int len, OutputStream os) throws IOException {
+      final GZIPOutputStream gos = new GZIPOutputStream(os);
+
+      gos.write(data, 0, len);
+      gos.finish();
+    }
+    @Override
+    public InputStream decompress(byte[] data, int off, int len) throws IOException {
+      return new GZIPInputStream(new ByteArrayInputStream(data, off, len));
+    }
+  },
+
+  /**
+   * LZ4 compression which provides lower compression ratios at a fraction of
+   * the CPU cost of {@link #GZIP}.
+   *
+   * @author paouelle
+   */
+  LZ4(2) {
+    @Override
+    public void compress(byte[] data, int len, OutputStream os) throws IOException {
+      if (!(os instanceof PooledBuffer)) {
+        final PooledBuffer buf = PooledBuffer.acquire(1);
+
+        try {
+          compress(data, len, buf);
+          buf.writeTo(os);
+        } finally {
+          buf.release();
+        }
+        return;
+      }
+      // compress directly into the pooled buffer
+      final PooledBuffer out = (PooledBuffer)os;
+      final int hlen = out.size() + 4;
+      final byte[] bytes = out.buffer(hlen + LZ4Block.maxCompressedLength(len));
+
+      // prefix with the uncompressed length
+      bytes[hlen - 4] = (byte)(len >>> 24);
+      bytes[hlen - 3] = (byte)(len >>> 16);
+      bytes[hlen - 2] = (byte)(len >>> 8);
+      bytes[hlen - 1] = (byte)len;
+      out.size(hlen + LZ4Block.compress(data, len, bytes, hlen));
+    }
+    @Override
+    public InputStream decompress(byte[] data, int off, int len) throws IOException {
+      if (len < 4) {
+        throw new IOException("corrupted LZ4 blob; missing length");
+      }
+      final int dlen = (
+        ((data[off] & 0xff) << 24)
+        | ((data[off + 1] & 0xff) << 16)
+        | ((data[off + 2] & 0xff) << 8)
+        | (data[off + 3] & 0xff)
+      );
+
+      if (dlen < 0) {
+        throw new IOException("corrupted LZ4 blob; invalid length: " + dlen);
+      }
+      if (dlen > Compression.maxDecompressedSize) {
+        throw new IOException(
+          "LZ4 blob too large; "
+          + dlen
+          + " bytes exceeds the maximum of "
+          + Compression.maxDecompressedSize
+        );
+      }
+      return new ByteArrayInputStream(
+        LZ4Block.decompress(data, off + 4, len - 4, dlen)
+      );
+    }
+  };
+
+  /**
+   * Holds the default maximum number of bytes a blob can be decompressed to.
+   *
+   * @author paouelle
+   */
+  public final static int DEFAULT_MAX_DECOMPRESSED_SIZE = 64 * 1024 * 1024;
+
+  /**
+   * Holds the maximum number of bytes a blob can be decompressed to.
+   *
+   * @author paouelle
+   */
+  private static volatile int maxDecompressedSize
+    = Compression.DEFAULT_MAX_DECOMPRESSED_SIZE;
+
+  /**
+   * Gets the maximum number of bytes a blob can be decompressed to.
+   *
+   * @author paouelle
+   *
+   * @return the maximum number of bytes a blob can be decompressed to
+   */
+  public static int getMaxDecompressedSize() {
+    return Compression.maxDecompressedSize;
+  }
+
+  /**
+   * Sets the maximum number of bytes a blob can be decompressed to. Blobs
+   * whose header indicates a larger size are rejected before allocating any
+   * memory for them.
+   * <p>
+   * <i>Note:</i> This only applies to compressions which record their
+   * decompressed size (e.g. {@link #LZ4}).
+   *
+   * @author paouelle
+   *
+   * @param  size the maximum number of bytes a blob can be decompressed to
+   * @throws IllegalArgumentException if <code>size</code> is not positive
+   */
+  public static void setMaxDecompressedSize(int size) {
+    org.apache.commons.lang3.Validate.isTrue(
+      size > 0, "invalid maximum decompressed size: %d", size
+    );
+    Compression.maxDecompressedSize = size;
+  }
+
+  /**
+   * Holds the identifier for this compression as encoded in blob headers.
+   *
+   * @author paouelle
+   */
+  private final int id;
+
+  /**
+   * Instantiates a new <code>Compression</code> object.
+   *
+   * @author paouelle
+   *
+   * @param id the identifier for this compression as encoded in blob headers
+   */
+  private Compression(int id) {
+    this.id = id;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.commons.lang3.CompressionCodec#getId()
+   */
+  @Override
+  public int getId() {
+    return id;
+  }
+}
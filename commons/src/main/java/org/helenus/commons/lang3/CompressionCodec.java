@@ -0,0 +1,77 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.commons.lang3;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+/**
+ * The <code>CompressionCodec</code> interface defines a compression algorithm
+ * which can be used when encoding objects into blobs. Blobs record the
+ * identifier of the algorithm used such that they can be decoded with the
+ * corresponding codec found in the {@link EncodingRegistry}.
+ * <p>
+ * Additional algorithms can be provided via the {@link java.util.ServiceLoader}
+ * mechanism or registered explicitly with
+ * {@link EncodingRegistry#register(CompressionCodec)}. The algorithms defined
+ * by {@link Compression} are always available.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public interface CompressionCodec {
+  /**
+   * Gets the identifier for this compression algorithm as encoded in blob
+   * headers.
+   *
+   * @author paouelle
+   *
+   * @return the identifier for this compression algorithm (from 0 to
+   *         {@link EncodingRegistry#MAX_ID})
+   */
+  public int getId();
+
+  /**
+   * Compresses the specified data.
+   *
+   * @author paouelle
+   *
+   * @param  data the data to compress
+   * @param  len the number of bytes to compress from the start of
+   *         <code>data</code>
+   * @param  os the stream where to write the compressed data
+   * @throws IOException if an I/O error occurs
+   */
+  public void compress(byte[] data, int len, OutputStream os) throws IOException;
+
+  /**
+   * Decompresses the specified data.
+   *
+   * @author paouelle
+   *
+   * @param  data the blob to decompress
+   * @param  off the offset of the compressed data in <code>data</code>
+   * @param  len the length of the compressed data
+   * @return an input stream for the decompressed data
+   * @throws IOException if an I/O error occurs or if the data is corrupted
+   */
+  public InputStream decompress(byte[] data, int off, int len) throws IOException;
+}
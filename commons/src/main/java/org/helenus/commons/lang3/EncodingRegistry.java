@@ -0,0 +1,339 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.commons.lang3;
+
+import java.io.IOException;
+
+import java.util.Iterator;
+import java.util.ServiceConfigurationError;
+import java.util.ServiceLoader;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+/**
+ * The <code>EncodingRegistry</code> class keeps track of the serialization
+ * formats and compression algorithms available when encoding and decoding
+ * blobs keyed by the identifiers recorded in blob headers.
+ * <p>
+ * The built-in {@link Serialization} and {@link Compression} codecs are always
+ * registered. Additional codecs are discovered via {@link ServiceLoader} from
+ * <code>META-INF/services/org.helenus.commons.lang3.SerializationCodec</code>
+ * and <code>META-INF/services/org.helenus.commons.lang3.CompressionCodec</code>
+ * or can be registered explicitly. Discovered codecs which cannot be loaded or
+ * which conflict with already registered ones are logged and ignored.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public final class EncodingRegistry {
+  /**
+   * Holds the logger.
+   *
+   * @author paouelle
+   */
+  private final static Logger logger = LogManager.getFormatterLogger(EncodingRegistry.class);
+
+  /**
+   * Holds the maximum identifier for a codec since identifiers are encoded on
+   * 4 bits in blob headers.
+   *
+   * @author paouelle
+   */
+  public final static int MAX_ID = 0x0f;
+
+  /**
+   * Holds the registered serialization codecs keyed by their identifiers.
+   *
+   * @author paouelle
+   */
+  private final static AtomicReferenceArray<SerializationCodec> serializations
+    = new AtomicReferenceArray<>(EncodingRegistry.MAX_ID + 1);
+
+  /**
+   * Holds the registered compression codecs keyed by their identifiers.
+   *
+   * @author paouelle
+   */
+  private final static AtomicReferenceArray<CompressionCodec> compressions
+    = new AtomicReferenceArray<>(EncodingRegistry.MAX_ID + 1);
+
+  static {
+    for (final SerializationCodec s: Serialization.values()) {
+      EncodingRegistry.register(s);
+    }
+    for (final CompressionCodec c: Compression.values()) {
+      EncodingRegistry.register(c);
+    }
+    EncodingRegistry.load(SerializationCodec.class, EncodingRegistry::register);
+    EncodingRegistry.load(CompressionCodec.class, EncodingRegistry::register);
+  }
+
+  /**
+   * Discovers and registers codecs via {@link ServiceLoader}. Codecs that
+   * cannot be loaded or registered are logged and skipped such that a single
+   * bad provider on the classpath does not prevent the built-in ones from
+   * being used.
+   *
+   * @author paouelle
+   *
+   * @param <C> the type of codecs to discover
+   *
+   * @param clazz the class of codecs to discover
+   * @param register the consumer used to register discovered codecs
+   */
+  private static <C> void load(Class<C> clazz, Consumer<C> register) {
+    final Iterator<C> i = ServiceLoader.load(clazz).iterator();
+
+    while (true) {
+      final C codec;
+
+      try {
+        if (!i.hasNext()) {
+          break;
+        }
+        codec = i.next();
+      } catch (ServiceConfigurationError e) {
+        EncodingRegistry.logger.warn(
+          "failed to load %s provider; ignoring it", clazz.getSimpleName(), e
+        );
+        continue;
+      }
+      try {
+        register.accept(codec);
+      } catch (RuntimeException e) {
+        EncodingRegistry.logger.warn(
+          "failed to register %s provider '%s'; ignoring it",
+          clazz.getSimpleName(), codec.getClass().getName(), e
+        );
+      }
+    }
+  }
+
+  /**
+   * Validates the identifier of a codec.
+   *
+   * @author paouelle
+   *
+   * @param  id the identifier to validate
+   * @param  codec the codec being registered
+   * @return <code>id</code>
+   * @throws IllegalArgumentException if <code>id</code> is out of range
+   */
+  private static int validate(int id, Object codec) {
+    org.apache.commons.lang3.Validate.isTrue(
+      (id >= 0) && (id <= EncodingRegistry.MAX_ID),
+      "invalid identifier '%d' for codec: %s",
+      id, codec.getClass().getName()
+    );
+    return id;
+  }
+
+  /**
+   * Registers a serialization codec. Registering the same codec again has no
+   * effect.
+   *
+   * @author paouelle
+   *
+   * @param  codec the codec to register
+   * @throws NullPointerException if <code>codec</code> is <code>null</code>
+   * @throws IllegalArgumentException if the codec's identifier is out of range
+   *         or is already registered to a different codec
+   */
+  public static void register(SerializationCodec codec) {
+    org.apache.commons.lang3.Validate.notNull(codec, "invalid null codec");
+    final int id = EncodingRegistry.validate(codec.getId(), codec);
+    final SerializationCodec old = EncodingRegistry.serializations.accumulateAndGet(
+      id, codec, (o, n) -> (o != null) ? o : n
+    );
+
+    org.apache.commons.lang3.Validate.isTrue(
+      old.getClass() == codec.getClass(),
+      "serialization identifier '%d' is already registered to: %s",
+      id, old.getClass().getName()
+    );
+  }
+
+  /**
+   * Registers a compression codec. Registering the same codec again has no
+   * effect.
+   *
+   * @author paouelle
+   *
+   * @param  codec the codec to register
+   * @throws NullPointerException if <code>codec</code> is <code>null</code>
+   * @throws IllegalArgumentException if the codec's identifier is out of range
+   *         or is already registered to a different codec
+   */
+  public static void register(CompressionCodec codec) {
+    org.apache.commons.lang3.Validate.notNull(codec, "invalid null codec");
+    final int id = EncodingRegistry.validate(codec.getId(), codec);
+    final CompressionCodec old = EncodingRegistry.compressions.accumulateAndGet(
+      id, codec, (o, n) -> (o != null) ? o : n
+    );
+
+    org.apache.commons.lang3.Validate.isTrue(
+      old.getClass() == codec.getClass(),
+      "compression identifier '%d' is already registered to: %s",
+      id, old.getClass().getName()
+    );
+  }
+
+  /**
+   * Checks if the specified serialization codec is the one registered for its
+   * identifier such that blobs it encodes can later be decoded.
+   *
+   * @author paouelle
+   *
+   * @param  codec the codec to check
+   * @return <code>true</code> if the codec is registered; <code>false</code>
+   *         otherwise
+   */
+  public static boolean isRegistered(SerializationCodec codec) {
+    final int id = codec.getId();
+
+    return (
+      (id >= 0)
+      && (id <= EncodingRegistry.MAX_ID)
+      && (EncodingRegistry.serializations.get(id) == codec)
+    );
+  }
+
+  /**
+   * Checks if the specified compression codec is the one registered for its
+   * identifier such that blobs it encodes can later be decoded.
+   *
+   * @author paouelle
+   *
+   * @param  codec the codec to check
+   * @return <code>true</code> if the codec is registered; <code>false</code>
+   *         otherwise
+   */
+  public static boolean isRegistered(CompressionCodec codec) {
+    final int id = codec.getId();
+
+    return (
+      (id >= 0)
+      && (id <= EncodingRegistry.MAX_ID)
+      && (EncodingRegistry.compressions.get(id) == codec)
+    );
+  }
+
+  /**
+   * Gets the serialization codec corresponding to the specified identifier.
+   *
+   * @author paouelle
+   *
+   * @param  id the serialization identifier
+   * @return the corresponding codec
+   * @throws IOException if the identifier is not registered
+   */
+  public static SerializationCodec getSerialization(int id) throws IOException {
+    final SerializationCodec codec = (
+      ((id >= 0) && (id <= EncodingRegistry.MAX_ID))
+      ? EncodingRegistry.serializations.get(id)
+      : null
+    );
+
+    if (codec == null) {
+      throw new IOException("unsupported blob serialization: " + id);
+    }
+    return codec;
+  }
+
+  /**
+   * Gets the compression codec corresponding to the specified identifier.
+   *
+   * @author paouelle
+   *
+   * @param  id the compression identifier
+   * @return the corresponding codec
+   * @throws IOException if the identifier is not registered
+   */
+  public static CompressionCodec getCompression(int id) throws IOException {
+    final CompressionCodec codec = (
+      ((id >= 0) && (id <= EncodingRegistry.MAX_ID))
+      ? EncodingRegistry.compressions.get(id)
+      : null
+    );
+
+    if (codec == null) {
+      throw new IOException("unsupported blob compression: " + id);
+    }
+    return codec;
+  }
+
+  /**
+   * Gets the registered serialization codec of the specified class.
+   *
+   * @author paouelle
+   *
+   * @param  clazz the class of the codec
+   * @return the corresponding codec
+   * @throws IllegalArgumentException if no codec of that class is registered
+   */
+  public static SerializationCodec getSerialization(
+    Class<? extends SerializationCodec> clazz
+  ) {
+    for (int i = 0; i <= EncodingRegistry.MAX_ID; i++) {
+      final SerializationCodec codec = EncodingRegistry.serializations.get(i);
+
+      if ((codec != null) && (codec.getClass() == clazz)) {
+        return codec;
+      }
+    }
+    throw new IllegalArgumentException(
+      "unregistered serialization codec: " + clazz.getName()
+    );
+  }
+
+  /**
+   * Gets the registered compression codec of the specified class.
+   *
+   * @author paouelle
+   *
+   * @param  clazz the class of the codec
+   * @return the corresponding codec
+   * @throws IllegalArgumentException if no codec of that class is registered
+   */
+  public static CompressionCodec getCompression(
+    Class<? extends CompressionCodec> clazz
+  ) {
+    for (int i = 0; i <= EncodingRegistry.MAX_ID; i++) {
+      final CompressionCodec codec = EncodingRegistry.compressions.get(i);
+
+      if ((codec != null) && (codec.getClass() == clazz)) {
+        return codec;
+      }
+    }
+    throw new IllegalArgumentException(
+      "unregistered compression codec: " + clazz.getName()
+    );
+  }
+
+  /**
+   * Prevents instantiation of a new <code>EncodingRegistry</code> object.
+   *
+   * @author paouelle
+   */
+  private EncodingRegistry() {}
+}
@@ -0,0 +1,352 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.commons.lang3;
+
+import java.io.IOException;
+
+import java.util.Arrays;
+
+/**
+ * The <code>LZ4Block</code> class provides a pure Java implementation of the
+ * LZ4 block format. It favors compression and decompression speed over
+ * compression ratio by using a single-probe hash table to find matches.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ *
+ * @see <a href="https://github.com/lz4/lz4/blob/master/doc/lz4_Block_format.md">LZ4 Block Format</a>
+ */
+final class LZ4Block {
+  /**
+   * Holds the maximum ratio between the decompressed and compressed lengths
+   * of a block as each compressed byte can at most expand to 255 bytes.
+   *
+   * @author paouelle
+   */
+  private final static int MAX_RATIO = 255;
+
+  /**
+   * Holds the minimum length of a match.
+   *
+   * @author paouelle
+   */
+  private final static int MIN_MATCH = 4;
+
+  /**
+   * Holds the number of bytes at the end of a block which must be literals.
+   *
+   * @author paouelle
+   */
+  private final static int LAST_LITERALS = 5;
+
+  /**
+   * Holds the minimum distance from the end of a block a match can start at.
+   *
+   * @author paouelle
+   */
+  private final static int MF_LIMIT = 12;
+
+  /**
+   * Holds the maximum offset of a match.
+   *
+   * @author paouelle
+   */
+  private final static int MAX_DISTANCE = 65535;
+
+  /**
+   * Holds the number of bits used for the hash table.
+   *
+   * @author paouelle
+   */
+  private final static int HASH_LOG = 12;
+
+  /**
+   * Holds the thread-local hash tables used during compression.
+   *
+   * @author paouelle
+   */
+  private final static ThreadLocal<int[]> tables
+    = ThreadLocal.withInitial(() -> new int[1 << LZ4Block.HASH_LOG]);
+
+  /**
+   * Gets the maximum length a block of the specified length can be compressed
+   * to.
+   *
+   * @author paouelle
+   *
+   * @param  length the length of the data to compress
+   * @return the maximum compressed length
+   */
+  static int maxCompressedLength(int length) {
+    return length + (length / 255) + 16;
+  }
+
+  /**
+   * Reads 4 bytes in little-endian order.
+   *
+   * @author paouelle
+   *
+   * @param  buf the buffer to read from
+   * @param  i the index where to read
+   * @return the corresponding integer
+   */
+  private static int readInt(byte[] buf, int i) {
+    return (
+      (buf[i] & 0xff)
+      | ((buf[i + 1] & 0xff) << 8)
+      | ((buf[i + 2] & 0xff) << 16)
+      | ((buf[i + 3] & 0xff) << 24)
+    );
+  }
+
+  /**
+   * Hashes the specified 4 bytes sequence.
+   *
+   * @author paouelle
+   *
+   * @param  seq the sequence to hash
+   * @return the corresponding hash table index
+   */
+  private static int hash(int seq) {
+    return (seq * -1640531535) >>> (32 - LZ4Block.HASH_LOG);
+  }
+
+  /**
+   * Writes a length using the LZ4 variable length encoding for lengths of 15
+   * or more.
+   *
+   * @author paouelle
+   *
+   * @param  len the remaining length to write (already reduced by 15)
+   * @param  dst the buffer to write to
+   * @param  op the index where to write
+   * @return the index following the written length
+   */
+  private static int writeLength(int len, byte[] dst, int op) {
+    while (len >= 255) {
+      dst[op++] = (byte)255;
+      len -= 255;
+    }
+    dst[op++] = (byte)len;
+    return op;
+  }
+
+  /**
+   * Writes a sequence of literals optionally followed by a match.
+   *
+   * @author paouelle
+   *
+   * @param  src the source buffer
+   * @param  anchor the index of the first literal
+   * @param  llen the number of literals
+   * @param  offset the match offset or <code>0</code> if no match follows
+   * @param  mlen the match length
+   * @param  dst the buffer to write to
+   * @param  op the index where to write
+   * @return the index following the written sequence
+   */
+  private static int writeSequence(
+    byte[] src, int anchor, int llen, int offset, int mlen, byte[] dst, int op
+  ) {
+    final int token = op++;
+    final int ml = (offset != 0) ? mlen - LZ4Block.MIN_MATCH : 0;
+
+    dst[token] = (byte)((Math.min(llen, 15) << 4) | Math.min(ml, 15));
+    if (llen >= 15) {
+      op = LZ4Block.writeLength(llen - 15, dst, op);
+    }
+    System.arraycopy(src, anchor, dst, op, llen);
+    op += llen;
+    if (offset != 0) {
+      dst[op++] = (byte)offset;
+      dst[op++] = (byte)(offset >>> 8);
+      if (ml >= 15) {
+        op = LZ4Block.writeLength(ml - 15, dst, op);
+      }
+    }
+    return op;
+  }
+
+  /**
+   * Compresses the specified data.
+   *
+   * @author paouelle
+   *
+   * @param  src the data to compress
+   * @param  len the number of bytes to compress from the start of
+   *         <code>src</code>
+   * @param  dst the buffer where to compress the data which must have at least
+   *         {@link #maxCompressedLength} bytes available after <code>off</code>
+   * @param  off the offset in <code>dst</code> where to compress the data
+   * @return the length of the compressed data
+   */
+  static int compress(byte[] src, int len, byte[] dst, int off) {
+    int op = off;
+    int anchor = 0;
+
+    if (len > LZ4Block.MF_LIMIT) {
+      final int[] table = LZ4Block.tables.get();
+      final int limit = len - LZ4Block.MF_LIMIT;
+      final int mlimit = len - LZ4Block.LAST_LITERALS;
+      int ip = 0;
+
+      Arrays.fill(table, -1);
+      while (ip < limit) {
+        final int seq = LZ4Block.readInt(src, ip);
+        final int h = LZ4Block.hash(seq);
+        int ref = table[h];
+
+        table[h] = ip;
+        if ((ref < 0)
+            || (ip - ref > LZ4Block.MAX_DISTANCE)
+            || (LZ4Block.readInt(src, ref) != seq)) {
+          ip++;
+          continue;
+        }
+        // extend the match backward
+        while ((ip > anchor) && (ref > 0) && (src[ip - 1] == src[ref - 1])) {
+          ip--;
+          ref--;
+        }
+        // extend the match forward
+        int mlen = LZ4Block.MIN_MATCH;
+
+        while ((ip + mlen < mlimit) && (src[ip + mlen] == src[ref + mlen])) {
+          mlen++;
+        }
+        op = LZ4Block.writeSequence(src, anchor, ip - anchor, ip - ref, mlen, dst, op);
+        ip += mlen;
+        anchor = ip;
+      }
+    }
+    // last literals
+    return LZ4Block.writeSequence(src, anchor, len - anchor, 0, 0, dst, op) - off;
+  }
+
+  /**
+   * Reads an unsigned byte from a block making sure not to read past its end.
+   *
+   * @author paouelle
+   *
+   * @param  src the compressed data
+   * @param  i the index of the byte to read
+   * @param  end the end of the compressed data in <code>src</code>
+   * @return the corresponding unsigned byte
+   * @throws IOException if <code>i</code> is past the end of the block
+   */
+  private static int readByte(byte[] src, int i, int end) throws IOException {
+    if (i >= end) {
+      throw new IOException("corrupted LZ4 block; truncated");
+    }
+    return src[i] & 0xff;
+  }
+
+  /**
+   * Decompresses the specified data.
+   *
+   * @author paouelle
+   *
+   * @param  src the compressed data
+   * @param  off the offset of the compressed data in <code>src</code>
+   * @param  len the length of the compressed data
+   * @param  dlen the length of the decompressed data
+   * @return the decompressed data
+   * @throws IOException if the compressed data is corrupted or if
+   *         <code>dlen</code> cannot possibly be decompressed from
+   *         <code>len</code> bytes
+   */
+  static byte[] decompress(byte[] src, int off, int len, int dlen)
+    throws IOException {
+    if ((dlen < 0) || (dlen > (long)len * LZ4Block.MAX_RATIO)) {
+      throw new IOException(
+        "corrupted LZ4 block; invalid length " + dlen + " for " + len + " bytes"
+      );
+    }
+    final byte[] dst = new byte[dlen];
+    final int end = off + len;
+    int ip = off;
+    int op = 0;
+
+    try {
+      while (ip < end) {
+        final int token = src[ip++] & 0xff;
+        int llen = token >>> 4;
+
+        if (llen == 15) {
+          int b;
+
+          do {
+            b = LZ4Block.readByte(src, ip++, end);
+            llen += b;
+          } while (b == 255);
+        }
+        if ((llen > end - ip) || (llen > dlen - op)) {
+          throw new IOException("corrupted LZ4 block; invalid literals length: " + llen);
+        }
+        System.arraycopy(src, ip, dst, op, llen);
+        ip += llen;
+        op += llen;
+        if (ip >= end) { // last literals
+          break;
+        }
+        final int offset = (
+          LZ4Block.readByte(src, ip, end) | (LZ4Block.readByte(src, ip + 1, end) << 8)
+        );
+
+        ip += 2;
+        if ((offset == 0) || (offset > op)) {
+          throw new IOException("corrupted LZ4 block; invalid offset: " + offset);
+        }
+        int mlen = token & 0x0f;
+
+        if (mlen == 15) {
+          int b;
+
+          do {
+            b = LZ4Block.readByte(src, ip++, end);
+            mlen += b;
+          } while (b == 255);
+        }
+        mlen += LZ4Block.MIN_MATCH;
+        if (mlen > dlen - op) {
+          throw new IOException("corrupted LZ4 block; invalid match length: " + mlen);
+        }
+        for (int ref = op - offset, mend = op + mlen; op < mend; ) {
+          dst[op++] = dst[ref++]; // byte by byte as the match may overlap
+        }
+      }
+    } catch (IndexOutOfBoundsException e) {
+      throw new IOException("corrupted LZ4 block", e);
+    }
+    if (op != dlen) {
+      throw new IOException(
+        "corrupted LZ4 block; expecting " + dlen + " bytes but got " + op
+      );
+    }
+    return dst;
+  }
+
+  /**
+   * Prevents instantiation of a new <code>LZ4Block</code> object.
+   *
+   * @author paouelle
+   */
+  private LZ4Block() {}
+}
@@ -0,0 +1,207 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.commons.lang3;
+
+import java.io.ByteArrayOutputStream;
+
+import java.util.Arrays;
+
+/**
+ * The <code>PooledBuffer</code> class extends on {@link ByteArrayOutputStream}
+ * to provide thread-local buffers which are reused across calls in order to
+ * avoid growing a new buffer each time an object is encoded.
+ * <p>
+ * <i>Note:</i> A new buffer is allocated whenever the thread-local one is
+ * already in use (e.g. when encoding an object re-entrantly encodes another)
+ * and buffers which grew too large are not retained.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+final class PooledBuffer extends ByteArrayOutputStream {
+  /**
+   * Holds the initial size for buffers.
+   *
+   * @author paouelle
+   */
+  private final static int INITIAL_SIZE = 1024;
+
+  /**
+   * Holds the default maximum size for a buffer to be retained once released.
+   *
+   * @author paouelle
+   */
+  final static int DEFAULT_MAX_RETAINED_SIZE = 1024 * 1024;
+
+  /**
+   * Holds the maximum size for a buffer to be retained once released.
+   *
+   * @author paouelle
+   */
+  static volatile int maxRetainedSize = PooledBuffer.DEFAULT_MAX_RETAINED_SIZE;
+
+  /**
+   * Holds the thread-local buffers.
+   *
+   * @author paouelle
+   */
+  private final static ThreadLocal<PooledBuffer[]> buffers
+    = ThreadLocal.withInitial(() -> new PooledBuffer[2]);
+
+  /**
+   * Acquires a buffer for the current thread.
+   *
+   * @author paouelle
+   *
+   * @param  slot the thread-local slot to acquire from (0 or 1)
+   * @return a non-<code>null</code> empty buffer
+   */
+  static PooledBuffer acquire(int slot) {
+    final PooledBuffer[] bufs = PooledBuffer.buffers.get();
+    final PooledBuffer buf = bufs[slot];
+
+    if ((buf != null) && !buf.inUse) {
+      buf.inUse = true;
+      return buf;
+    }
+    if (buf == null) {
+      final PooledBuffer nbuf = new PooledBuffer(bufs, slot);
+
+      bufs[slot] = nbuf;
+      nbuf.inUse = true;
+      return nbuf;
+    }
+    return new PooledBuffer(null, slot); // already in use so not pooled
+  }
+
+  /**
+   * Holds the thread-local buffers this buffer is pooled in or
+   * <code>null</code> if not pooled.
+   *
+   * @author paouelle
+   */
+  private final PooledBuffer[] pool;
+
+  /**
+   * Holds the thread-local slot for this buffer.
+   *
+   * @author paouelle
+   */
+  private final int slot;
+
+  /**
+   * Flag indicating if this buffer is currently in use.
+   *
+   * @author paouelle
+   */
+  private boolean inUse = false;
+
+  /**
+   * Instantiates a new <code>PooledBuffer</code> object.
+   *
+   * @author paouelle
+   *
+   * @param pool the thread-local buffers this buffer is pooled in or
+   *        <code>null</code> if not pooled
+   * @param slot the thread-local slot for this buffer
+   */
+  private PooledBuffer(PooledBuffer[] pool, int slot) {
+    super(PooledBuffer.INITIAL_SIZE);
+    this.pool = pool;
+    this.slot = slot;
+  }
+
+  /**
+   * Gets the internal buffer for this stream. Only the first {@link #size}
+   * bytes are valid.
+   *
+   * @author paouelle
+   *
+   * @return the internal buffer
+   */
+  byte[] buffer() {
+    return buf;
+  }
+
+  /**
+   * Ensures the internal buffer can hold at least the specified number of bytes
+   * while preserving its current content such that it can be written to
+   * directly.
+   *
+   * @author paouelle
+   *
+   * @param  size the number of bytes required
+   * @return the internal buffer
+   */
+  byte[] buffer(int size) {
+    if (buf.length < size) {
+      this.buf = Arrays.copyOf(buf, size);
+    }
+    return buf;
+  }
+
+  /**
+   * Sets the number of valid bytes in this buffer after it was written to
+   * directly.
+   *
+   * @author paouelle
+   *
+   * @param  size the number of valid bytes
+   * @throws IndexOutOfBoundsException if <code>size</code> is negative or
+   *         larger than the internal buffer
+   */
+  void size(int size) {
+    if ((size < 0) || (size > buf.length)) {
+      throw new IndexOutOfBoundsException("invalid size: " + size);
+    }
+    this.count = size;
+  }
+
+  /**
+   * Releases this buffer back to its pool.
+   *
+   * @author paouelle
+   */
+  void release() {
+    reset();
+    this.inUse = false;
+    if (buf.length > PooledBuffer.maxRetainedSize) {
+      if (pool != null) { // drop it from the pool
+        pool[slot] = null;
+      }
+    }
+  }
+
+  /**
+   * Creates a newly allocated byte array containing the valid bytes of this
+   * buffer prefixed with the specified header.
+   *
+   * @author paouelle
+   *
+   * @param  header the header bytes
+   * @return the corresponding byte array
+   */
+  byte[] toByteArray(byte... header) {
+    final byte[] bytes = Arrays.copyOf(header, header.length + count);
+
+    System.arraycopy(buf, 0, bytes, header.length, count);
+    return bytes;
+  }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.commons.lang3;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+
+/**
+ * The <code>Serialization</code> enumeration defines the built-in serialization
+ * formats available when encoding objects into blobs. Additional formats can
+ * be provided by implementing {@link SerializationCodec}.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ *
+ * @see SerializationUtils#encode(java.io.Serializable, SerializationCodec, CompressionCodec)
+ */
+public enum Serialization implements SerializationCodec {
+  /**
+   * Standard Java serialization.
+   *
+   * @author paouelle
+   */
+  JAVA(0) {
+    @Override
+    public void serialize(Serializable obj, OutputStream os) {
+      org.apache.commons.lang3.SerializationUtils.serialize(obj, os);
+    }
+    @Override
+    public Object deserialize(InputStream is) {
+      return org.apache.commons.lang3.SerializationUtils.deserialize(is);
+    }
+  },
+
+  /**
+   * Compact tagged binary format which encodes primitive wrappers, strings,
+   * byte arrays, UUIDs, dates, big numbers, and standard lists, sets, and maps
+   * of those natively and falls back to Java serialization for anything else.
+   *
+   * @author paouelle
+   */
+  COMPACT(1) {
+    @Override
+    public void serialize(Serializable obj, OutputStream os) throws IOException {
+      final DataOutputStream dos = new DataOutputStream(os);
+
+      CompactSerializer.write(obj, dos);
+      dos.flush();
+    }
+    @Override
+    public Object deserialize(InputStream is) throws IOException {
+      return CompactSerializer.read(new DataInputStream(is));
+    }
+  };
+
+  /**
+   * Holds the identifier for this serialization as encoded in blob headers.
+   *
+   * @author paouelle
+   */
+  private final int id;
+
+  /**
+   * Instantiates a new <code>Serialization</code> object.
+   *
+   * @author paouelle
+   *
+   * @param id the identifier for this serialization as encoded in blob headers
+   */
+  private Serialization(int id) {
+    this.id = id;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.commons.lang3.SerializationCodec#getId()
+   */
+  @Override
+  public int getId() {
+    return id;
+  }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.commons.lang3;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+
+/**
+ * The <code>SerializationCodec</code> interface defines a serialization format
+ * which can be used when encoding objects into blobs. Blobs record the
+ * identifier of the format used such that they can be decoded with the
+ * corresponding codec found in the {@link EncodingRegistry}.
+ * <p>
+ * Additional formats can be provided via the {@link java.util.ServiceLoader}
+ * mechanism or registered explicitly with
+ * {@link EncodingRegistry#register(SerializationCodec)}. The formats defined
+ * by {@link Serialization} are always available.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public interface SerializationCodec {
+  /**
+   * Gets the identifier for this serialization format as encoded in blob
+   * headers.
+   *
+   * @author paouelle
+   *
+   * @return the identifier for this serialization format (from 0 to
+   *         {@link EncodingRegistry#MAX_ID})
+   */
+  public int getId();
+
+  /**
+   * Serializes the specified object to the given stream.
+   *
+   * @author paouelle
+   *
+   * @param  obj the object to serialize
+   * @param  os the stream to serialize to
+   * @throws IOException if an I/O error occurs
+   * @throws org.apache.commons.lang3.SerializationException (runtime) if the
+   *         serialization fails
+   */
+  public void serialize(Serializable obj, OutputStream os) throws IOException;
+
+  /**
+   * Deserializes an object from the specified stream.
+   *
+   * @author paouelle
+   *
+   * @param  is the stream to deserialize from
+   * @return the corresponding object
+   * @throws IOException if an I/O error occurs or if the data is corrupted
+   * @throws org.apache.commons.lang3.SerializationException (runtime) if the
+   *         deserialization fails
+   */
+  public Object deserialize(InputStream is) throws IOException;
+}
@@ -22,14 +22,22 @@ import java.io.InputStream;
 import java.io.OutputStream;
 import java.io.Serializable;
 
+import java.util.Arrays;
 import java.util.zip.GZIPInputStream;
 import java.util.zip.GZIPOutputStream;
 
+import java.nio.ByteBuffer;
+
 import org.apache.commons.lang3.SerializationException;
 
 /**
  * The <code>SerializationUtils</code> class defines helper methods for
  * serialization.
+ * <p>
+ * Blobs produced by {@link #encode} are prefixed with a 2-byte header
+ * identifying the serialization format and the compression algorithm used
+ * such that {@link #decode} can handle them as well as blobs produced by
+ * {@link #serializeAndCompress} or by plain Java serialization.
  *
  * @copyright 2015-2015 The Helenus Driver Project Authors
  *
@@ -39,6 +47,271 @@ import org.apache.commons.lang3.SerializationException;
  * @since 1.0
  */
 public class SerializationUtils extends org.apache.commons.lang3.SerializationUtils {
+  /**
+   * Holds the magic byte prefixing encoded blobs. It cannot be confused with
+   * the first byte of GZIP (0x1f) or Java serialization (0xac) streams.
+   *
+   * @author paouelle
+   */
+  private final static byte MAGIC = (byte)0xe5;
+
+  /**
+   * Gets the maximum size of the thread-local buffers retained between calls
+   * when encoding objects.
+   *
+   * @author paouelle
+   *
+   * @return the maximum size in bytes of retained buffers
+   */
+  public static int getMaxRetainedBufferSize() {
+    return PooledBuffer.maxRetainedSize;
+  }
+
+  /**
+   * Sets the maximum size of the thread-local buffers retained between calls
+   * when encoding objects. Buffers which grew larger while encoding are
+   * released once done. This should be sized to the largest objects
+   * frequently encoded by the application (defaults to 1MB).
+   *
+   * @author paouelle
+   *
+   * @param  size the maximum size in bytes of retained buffers
+   * @throws IllegalArgumentException if <code>size</code> is negative
+   */
+  public static void setMaxRetainedBufferSize(int size) {
+    org.apache.commons.lang3.Validate.isTrue(
+      size >= 0, "invalid maximum retained buffer size: %d", size
+    );
+    PooledBuffer.maxRetainedSize = size;
+  }
+
+  /**
+   * The <code>Transformer</code> interface defines a function used to further
+   * process an encoded blob (e.g. to encrypt it) directly from the buffer it
+   * was encoded into.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 18, 2017 - paouelle - Creation
+   *
+   * @param <R> the type of result produced
+   *
+   * @since 1.0
+   */
+  @FunctionalInterface
+  public interface Transformer<R> {
+    /**
+     * Transforms the specified encoded blob.
+     * <p>
+     * <i>Note:</i> The array is reused once this method returns and must
+     * therefore not be retained.
+     *
+     * @author paouelle
+     *
+     * @param  data the array containing the encoded blob
+     * @param  off the offset of the encoded blob in <code>data</code>
+     * @param  len the length of the encoded blob
+     * @return the result of the transformation
+     * @throws IOException if an I/O error occurs
+     */
+    public R transform(byte[] data, int off, int len) throws IOException;
+  }
+
+  /**
+   * Encodes a given object using the specified serialization format and
+   * compression algorithm.
+   *
+   * @author paouelle
+   *
+   * @param  obj the object to encode
+   * @param  serialization the serialization format to use
+   * @param  compression the compression algorithm to use
+   * @return an array of bytes representing the encoded object prefixed with a
+   *         header describing how it was encoded
+   * @throws NullPointerException if <code>serialization</code> or
+   *         <code>compression</code> is <code>null</code>
+   * @throws IllegalArgumentException if <code>serialization</code> or
+   *         <code>compression</code> is not registered with the
+   *         {@link EncodingRegistry}
+   * @throws SerializationException (runtime) if the serialization fails
+   */
+  public static byte[] encode(
+    Serializable obj,
+    SerializationCodec serialization,
+    CompressionCodec compression
+  ) {
+    try {
+      return SerializationUtils.encode(
+        obj,
+        serialization,
+        compression,
+        (d, off, len) -> Arrays.copyOfRange(d, off, off + len)
+      );
+    } catch (IOException e) { // should not happen
+      throw new SerializationException(e);
+    }
+  }
+
+  /**
+   * Encodes a given object using the specified serialization format and
+   * compression algorithm and hands the resulting blob over to the specified
+   * transformer directly from the thread-local buffers it was encoded into.
+   * This avoids allocating an intermediate array when the blob is to be
+   * further processed (e.g. encrypted).
+   *
+   * @author paouelle
+   *
+   * @param <R> the type of result produced
+   *
+   * @param  obj the object to encode
+   * @param  serialization the serialization format to use
+   * @param  compression the compression algorithm to use
+   * @param  transformer the transformer to apply to the encoded blob
+   * @return the result from the transformer
+   * @throws NullPointerException if <code>serialization</code>,
+   *         <code>compression</code>, or <code>transformer</code> is
+   *         <code>null</code>
+   * @throws IllegalArgumentException if <code>serialization</code> or
+   *         <code>compression</code> is not registered with the
+   *         {@link EncodingRegistry}
+   * @throws IOException if the transformer fails
+   * @throws SerializationException (runtime) if the serialization fails
+   */
+  public static <R> R encode(
+    Serializable obj,
+    SerializationCodec serialization,
+    CompressionCodec compression,
+    Transformer<R> transformer
+  ) throws IOException {
+    org.apache.commons.lang3.Validate.notNull(serialization, "invalid null serialization");
+    org.apache.commons.lang3.Validate.notNull(compression, "invalid null compression");
+    org.apache.commons.lang3.Validate.notNull(transformer, "invalid null transformer");
+    org.apache.commons.lang3.Validate.isTrue(
+      EncodingRegistry.isRegistered(serialization),
+      "unregistered serialization codec: %s", serialization
+    );
+    org.apache.commons.lang3.Validate.isTrue(
+      EncodingRegistry.isRegistered(compression),
+      "unregistered compression codec: %s", compression
+    );
+    final PooledBuffer buf = PooledBuffer.acquire(0);
+    final PooledBuffer out = PooledBuffer.acquire(1);
+
+    try {
+      try {
+        serialization.serialize(obj, buf);
+        out.write(SerializationUtils.MAGIC);
+        out.write((serialization.getId() << 4) | compression.getId());
+        compression.compress(buf.buffer(), buf.size(), out);
+      } catch (IOException e) {
+        throw new SerializationException(e);
+      }
+      return transformer.transform(out.buffer(), 0, out.size());
+    } finally {
+      out.release();
+      buf.release();
+    }
+  }
+
+  /**
+   * Encodes a given object using the {@link Serialization#COMPACT} format and
+   * {@link Compression#LZ4} compression.
+   *
+   * @author paouelle
+   *
+   * @param  obj the object to encode
+   * @return an array of bytes representing the encoded object
+   * @throws SerializationException (runtime) if the serialization fails
+   */
+  public static byte[] encode(Serializable obj) {
+    return SerializationUtils.encode(obj, Serialization.COMPACT, Compression.LZ4);
+  }
+
+  /**
+   * Decodes a blob back into the original object. The blob can either be one
+   * produced by {@link #encode}, by {@link #serializeAndCompress}, or by plain
+   * Java serialization.
+   *
+   * @author paouelle
+   *
+   * @param  data the blob to decode
+   * @return the corresponding object
+   * @throws NullPointerException if <code>data</code> is <code>null</code>
+   * @throws SerializationException (runtime) if the deserialization fails
+   */
+  public static Object decode(byte[] data) {
+    org.apache.commons.lang3.Validate.notNull(data, "invalid null data");
+    return SerializationUtils.decode(data, 0, data.length);
+  }
+
+  /**
+   * Decodes a blob back into the original object directly from the specified
+   * buffer. The buffer's position is not modified.
+   * <p>
+   * <i>Note:</i> Decoding is performed directly from the buffer's backing
+   * array without copying it when the buffer is not a direct buffer.
+   *
+   * @author paouelle
+   *
+   * @param  data the blob to decode
+   * @return the corresponding object
+   * @throws NullPointerException if <code>data</code> is <code>null</code>
+   * @throws SerializationException (runtime) if the deserialization fails
+   *
+   * @see #decode(byte[])
+   */
+  public static Object decode(ByteBuffer data) {
+    org.apache.commons.lang3.Validate.notNull(data, "invalid null data");
+    if (data.hasArray()) {
+      return SerializationUtils.decode(
+        data.array(), data.arrayOffset() + data.position(), data.remaining()
+      );
+    }
+    final byte[] bytes = new byte[data.remaining()];
+
+    data.duplicate().get(bytes);
+    return SerializationUtils.decode(bytes, 0, bytes.length);
+  }
+
+  /**
+   * Decodes a blob back into the original object.
+   *
+   * @author paouelle
+   *
+   * @param  data the array containing the blob to decode
+   * @param  off the offset of the blob in <code>data</code>
+   * @param  len the length of the blob
+   * @return the corresponding object
+   * @throws SerializationException (runtime) if the deserialization fails
+   */
+  private static Object decode(byte[] data, int off, int len) {
+    if ((len >= 2) && (data[off] == SerializationUtils.MAGIC)) {
+      try {
+        final SerializationCodec serialization = EncodingRegistry.getSerialization(
+          (data[off + 1] >>> 4) & EncodingRegistry.MAX_ID
+        );
+        final CompressionCodec compression = EncodingRegistry.getCompression(
+          data[off + 1] & EncodingRegistry.MAX_ID
+        );
+
+        try (final InputStream is = compression.decompress(data, off + 2, len - 2)) {
+          return serialization.deserialize(is);
+        }
+      } catch (IOException e) {
+        throw new SerializationException(e);
+      }
+    }
+    final InputStream is = new ByteArrayInputStream(data, off, len);
+
+    if ((len >= 2)
+        && (data[off] == (byte)0xac)
+        && (data[off + 1] == (byte)0xed)) { // plain Java serialization
+      return org.apache.commons.lang3.SerializationUtils.deserialize(is);
+    }
+    return SerializationUtils.decompressAndDeserialize(is);
+  }
+
   /**
    * Serializes and compresses a given object to the specified stream.
    * <p>
@@ -114,6 +387,8 @@ public class SerializationUtils extends org.apache.commons.lang3.SerializationUt
 
   /**
    * Decompresses and deserializes the blob back into the original object.
+   * <p>
+   * <i>Note:</i> Blobs produced by {@link #encode} are also supported.
    *
    * @author paouelle
    *
@@ -122,8 +397,6 @@ public class SerializationUtils extends org.apache.commons.lang3.SerializationUt
    * @throws SerializationException (runtime) if the serialization fails
    */
   public static Object decompressAndDeserialize(byte[] data) {
-    return SerializationUtils.decompressAndDeserialize(
-      new ByteArrayInputStream(data)
-    );
+    return SerializationUtils.decode(data);
   }
 }
@@ -0,0 +1,301 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.commons.lang3;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.Serializable;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.UUID;
+
+import java.time.Instant;
+
+import org.apache.commons.lang3.SerializationException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * The <code>CompactSerializerTest</code> class tests the compact serialization
+ * format.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class CompactSerializerTest {
+  /**
+   * Writes the specified value using the compact format.
+   *
+   * @author paouelle
+   *
+   * @param  obj the value to write
+   * @return the corresponding bytes
+   * @throws IOException if an I/O error occurs
+   */
+  private static byte[] write(Object obj) throws IOException {
+    final ByteArrayOutputStream baos = new ByteArrayOutputStream();
+    final DataOutputStream dos = new DataOutputStream(baos);
+
+    CompactSerializer.write(obj, dos);
+    dos.flush();
+    return baos.toByteArray();
+  }
+
+  /**
+   * Reads a value from the specified bytes using the compact format.
+   *
+   * @author paouelle
+   *
+   * @param  bytes the bytes to read from
+   * @return the corresponding value
+   * @throws IOException if an I/O error occurs or if the data is corrupted
+   */
+  private static Object read(byte[] bytes) throws IOException {
+    return CompactSerializer.read(
+      new DataInputStream(new ByteArrayInputStream(bytes))
+    );
+  }
+
+  /**
+   * Round-trips the specified value and verifies the result is equal and of
+   * the expected class.
+   *
+   * @author paouelle
+   *
+   * @param  obj the value to round-trip
+   * @param  clazz the class expected once decoded
+   * @throws IOException if the test fails
+   */
+  private static void roundTrip(Object obj, Class<?> clazz) throws IOException {
+    final Object r = CompactSerializerTest.read(CompactSerializerTest.write(obj));
+
+    if (obj instanceof byte[]) {
+      Assert.assertArrayEquals((byte[])obj, (byte[])r);
+    } else {
+      Assert.assertEquals(obj, r);
+    }
+    if (clazz != null) {
+      Assert.assertEquals(clazz, r.getClass());
+    }
+  }
+
+  /**
+   * Tests round-trips of all natively supported values.
+   *
+   * @author paouelle
+   *
+   * @throws IOException if the test fails
+   */
+  @Test
+  public void testRoundTrip() throws IOException {
+    CompactSerializerTest.roundTrip(null, null);
+    CompactSerializerTest.roundTrip(Boolean.TRUE, Boolean.class);
+    CompactSerializerTest.roundTrip(Boolean.FALSE, Boolean.class);
+    CompactSerializerTest.roundTrip((byte)-3, Byte.class);
+    CompactSerializerTest.roundTrip(Short.MIN_VALUE, Short.class);
+    CompactSerializerTest.roundTrip(Integer.MIN_VALUE, Integer.class);
+    CompactSerializerTest.roundTrip(-1, Integer.class);
+    CompactSerializerTest.roundTrip(Long.MAX_VALUE, Long.class);
+    CompactSerializerTest.roundTrip(Long.MIN_VALUE, Long.class);
+    CompactSerializerTest.roundTrip(3.5f, Float.class);
+    CompactSerializerTest.roundTrip(Double.NaN, Double.class);
+    CompactSerializerTest.roundTrip('\u00e9', Character.class);
+    CompactSerializerTest.roundTrip("h\u00e9lenus \ud83d\ude00", String.class);
+    CompactSerializerTest.roundTrip(new byte[] { 0, -1, 127 }, byte[].class);
+    CompactSerializerTest.roundTrip(UUID.randomUUID(), UUID.class);
+    CompactSerializerTest.roundTrip(new Date(-1234567L), Date.class);
+    CompactSerializerTest.roundTrip(Instant.ofEpochSecond(-5L, 999999999L), Instant.class);
+    CompactSerializerTest.roundTrip(new BigInteger("-123456789012345678901234567890"), BigInteger.class);
+    CompactSerializerTest.roundTrip(new BigDecimal("-12345.678900"), BigDecimal.class);
+  }
+
+  /**
+   * Tests round-trips of nested collections.
+   *
+   * @author paouelle
+   *
+   * @throws IOException if the test fails
+   */
+  @Test
+  public void testCollectionsRoundTrip() throws IOException {
+    final List<Object> list = new ArrayList<>(Arrays.asList(1, "a", null, 2L));
+    final Map<String, Object> map = new HashMap<>(8);
+
+    map.put("list", list);
+    map.put("set", new LinkedHashSet<>(Arrays.asList("x", "y")));
+    map.put("sorted", new TreeSet<>(Arrays.asList(3, 1, 2)));
+    map.put("null", null);
+    CompactSerializerTest.roundTrip(list, ArrayList.class);
+    CompactSerializerTest.roundTrip(map, LinkedHashMap.class);
+    CompactSerializerTest.roundTrip(new TreeMap<>(map), TreeMap.class);
+  }
+
+  /**
+   * Tests that values which are not natively supported fallback to Java
+   * serialization.
+   *
+   * @author paouelle
+   *
+   * @throws IOException if the test fails
+   */
+  @Test
+  public void testJavaFallback() throws IOException {
+    final List<Integer> list = Arrays.asList(1, 2, 3); // not an ArrayList
+
+    CompactSerializerTest.roundTrip(list, list.getClass());
+  }
+
+  /**
+   * Tests that objects which are not serializable are rejected.
+   *
+   * @author paouelle
+   *
+   * @throws IOException if the test fails
+   */
+  @Test(expected=SerializationException.class)
+  public void testNotSerializable() throws IOException {
+    CompactSerializerTest.write(new ArrayList<>(Arrays.asList(new Object())));
+  }
+
+  /**
+   * Tests that truncated data is reported as corrupted.
+   *
+   * @author paouelle
+   *
+   * @throws IOException if the test fails
+   */
+  @Test
+  public void testTruncated() throws IOException {
+    final byte[] bytes = CompactSerializerTest.write(
+      new ArrayList<>(Arrays.asList("helenus", 12345L, UUID.randomUUID()))
+    );
+
+    for (int i = 0; i < bytes.length; i++) {
+      try {
+        CompactSerializerTest.read(Arrays.copyOf(bytes, i));
+        Assert.fail("expected IOException when truncated at " + i);
+      } catch (IOException e) { // expected
+      }
+    }
+  }
+
+  /**
+   * Tests that unknown tags are reported as corrupted.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testUnknownTag() {
+    try {
+      CompactSerializerTest.read(new byte[] { 100 });
+      Assert.fail("expected IOException");
+    } catch (IOException e) { // expected
+    }
+  }
+
+  /**
+   * Tests that corrupted sizes fail when reaching the end of the data instead
+   * of pre-allocating them.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testCorruptedSize() {
+    // string, list, and map tags followed by a size of Integer.MAX_VALUE
+    for (final int tag: new int[] { 10, 11, 17, 18, 20 }) {
+      try {
+        CompactSerializerTest.read(new byte[] {
+          (byte)tag, (byte)0xff, (byte)0xff, (byte)0xff, (byte)0xff, 0x07, 0
+        });
+        Assert.fail("expected IOException for tag " + tag);
+      } catch (IOException e) { // expected
+      }
+    }
+    // size overflowing an int
+    try {
+      CompactSerializerTest.read(new byte[] {
+        10, (byte)0xff, (byte)0xff, (byte)0xff, (byte)0xff, (byte)0xff, 0
+      });
+      Assert.fail("expected IOException");
+    } catch (IOException e) { // expected
+    }
+  }
+
+  /**
+   * Tests that random garbage never fails with anything else than a
+   * corrupted data or serialization error.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testGarbage() {
+    final Random random = new Random(11L);
+
+    for (int i = 0; i < 10000; i++) {
+      final byte[] garbage = new byte[1 + random.nextInt(32)];
+
+      random.nextBytes(garbage);
+      garbage[0] &= 0x1f; // mostly valid tags
+      try {
+        CompactSerializerTest.read(garbage);
+      } catch (IOException|SerializationException e) { // expected
+      }
+    }
+  }
+
+  /**
+   * Tests round-trips through the compact blob encoding with every built-in
+   * compression.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testEncodeDecode() {
+    final Map<String, Serializable> map = new LinkedHashMap<>(8);
+
+    map.put("id", UUID.randomUUID());
+    map.put("when", Instant.now());
+    map.put("tags", new ArrayList<>(Arrays.asList("a", "b")));
+    for (final Compression c: Compression.values()) {
+      Assert.assertEquals(
+        map,
+        SerializationUtils.decode(
+          SerializationUtils.encode((Serializable)map, Serialization.COMPACT, c)
+        )
+      );
+    }
+  }
+}
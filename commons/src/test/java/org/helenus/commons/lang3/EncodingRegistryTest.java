@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.commons.lang3;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * The <code>EncodingRegistryTest</code> class tests the registration of
+ * encoding codecs. The test resources declare a provider conflicting with
+ * {@link Compression#GZIP} and a provider which cannot be loaded.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class EncodingRegistryTest {
+  /**
+   * Tests that bad providers are skipped without preventing the built-in
+   * codecs from being registered.
+   *
+   * @author paouelle
+   *
+   * @throws IOException if the test fails
+   */
+  @Test
+  public void testBadProvidersSkipped() throws IOException {
+    Assert.assertSame(Compression.GZIP, EncodingRegistry.getCompression(1));
+    Assert.assertSame(Compression.LZ4, EncodingRegistry.getCompression(2));
+    Assert.assertFalse(EncodingRegistry.isRegistered(new ConflictingCompression()));
+  }
+
+  /**
+   * Tests that explicitly registering a conflicting codec fails.
+   *
+   * @author paouelle
+   */
+  @Test(expected=IllegalArgumentException.class)
+  public void testConflictingRegistration() {
+    EncodingRegistry.register(new ConflictingCompression());
+  }
+
+  /**
+   * Tests that registering the same codec again has no effect.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testReregistration() {
+    EncodingRegistry.register(Compression.LZ4);
+    Assert.assertTrue(EncodingRegistry.isRegistered(Compression.LZ4));
+  }
+
+  /**
+   * Tests that unknown identifiers are reported when decoding.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testUnknownIdentifier() {
+    try {
+      EncodingRegistry.getCompression(EncodingRegistry.MAX_ID);
+      Assert.fail("expected IOException");
+    } catch (IOException e) { // expected
+    }
+  }
+
+  /**
+   * The <code>ConflictingCompression</code> class defines a compression codec
+   * whose identifier conflicts with {@link Compression#GZIP}.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 18, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  public static class ConflictingCompression implements CompressionCodec {
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.commons.lang3.CompressionCodec#getId()
+     */
+    @Override
+    public int getId() {
+      return Compression.GZIP.getId();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.commons.lang3.CompressionCodec#compress(byte[], int, java.io.OutputStream)
+     */
+    @Override
+    public void compress(byte[] data, int len, OutputStream os)
+      throws IOException {
+      os.write(data, 0, len);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.commons.lang3.CompressionCodec#decompress(byte[], int, int)
+     */
+    @Override
+    public InputStream decompress(byte[] data, int off, int len) {
+      return new ByteArrayInputStream(data, off, len);
+    }
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.commons.lang3;
+
+import java.io.IOException;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+
+import java.nio.charset.StandardCharsets;
+
+import org.apache.commons.lang3.SerializationException;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * The <code>LZ4BlockTest</code> class tests the LZ4 block compression and the
+ * {@link Compression#LZ4} blob format.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class LZ4BlockTest {
+  /**
+   * Compresses the specified data into a new array.
+   *
+   * @author paouelle
+   *
+   * @param  data the data to compress
+   * @return the compressed data
+   */
+  private static byte[] compress(byte[] data) {
+    final byte[] dst = new byte[LZ4Block.maxCompressedLength(data.length)];
+
+    return Arrays.copyOf(dst, LZ4Block.compress(data, data.length, dst, 0));
+  }
+
+  /**
+   * Round-trips the specified data through the block format.
+   *
+   * @author paouelle
+   *
+   * @param  data the data to round-trip
+   * @throws IOException if the decompression fails
+   */
+  private static void roundTrip(byte[] data) throws IOException {
+    final byte[] c = LZ4BlockTest.compress(data);
+
+    Assert.assertArrayEquals(data, LZ4Block.decompress(c, 0, c.length, data.length));
+  }
+
+  /**
+   * Tests round-trips of empty, tiny, repetitive, and random data.
+   *
+   * @author paouelle
+   *
+   * @throws IOException if the test fails
+   */
+  @Test
+  public void testRoundTrip() throws IOException {
+    final Random random = new Random(42L);
+    final byte[] rnd = new byte[100000];
+
+    random.nextBytes(rnd);
+    LZ4BlockTest.roundTrip(new byte[0]);
+    LZ4BlockTest.roundTrip(new byte[] { 1, 2, 3 });
+    LZ4BlockTest.roundTrip(new byte[70000]); // long overlapping matches
+    LZ4BlockTest.roundTrip(rnd); // mostly literals
+    final StringBuilder sb = new StringBuilder(200000);
+
+    for (int i = 0; sb.length() < 200000; i++) {
+      sb.append("key-").append(i % 97).append('=').append(i).append(';');
+    }
+    LZ4BlockTest.roundTrip(sb.toString().getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Tests that repetitive data actually compresses.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testCompresses() {
+    Assert.assertTrue(LZ4BlockTest.compress(new byte[65536]).length < 1024);
+  }
+
+  /**
+   * Tests that lengths which cannot possibly be decompressed from the
+   * compressed data are rejected before allocating them.
+   *
+   * @author paouelle
+   *
+   * @throws IOException if the test fails
+   */
+  @Test
+  public void testImpossibleLength() throws IOException {
+    final byte[] c = LZ4BlockTest.compress(new byte[] { 1, 2, 3 });
+
+    try {
+      LZ4Block.decompress(c, 0, c.length, Integer.MAX_VALUE);
+      Assert.fail("expected IOException");
+    } catch (IOException e) { // expected
+    }
+    try {
+      LZ4Block.decompress(c, 0, c.length, -1);
+      Assert.fail("expected IOException");
+    } catch (IOException e) { // expected
+    }
+  }
+
+  /**
+   * Tests that truncated, mismatched, or garbage blocks are reported as
+   * corrupted.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testCorrupted() {
+    final byte[] data = new byte[1000];
+
+    Arrays.fill(data, 500, 1000, (byte)7);
+    final byte[] c = LZ4BlockTest.compress(data);
+
+    try {
+      LZ4Block.decompress(c, 0, c.length - 3, data.length);
+      Assert.fail("expected IOException for truncated block");
+    } catch (IOException e) { // expected
+    }
+    try {
+      LZ4Block.decompress(c, 0, c.length, data.length - 1);
+      Assert.fail("expected IOException for mismatched length");
+    } catch (IOException e) { // expected
+    }
+    final Random random = new Random(7L);
+
+    for (int i = 0; i < 1000; i++) {
+      final byte[] garbage = new byte[1 + random.nextInt(64)];
+
+      random.nextBytes(garbage);
+      try {
+        LZ4Block.decompress(garbage, 0, garbage.length, random.nextInt(1024));
+      } catch (IOException e) { // expected
+      }
+    }
+  }
+
+  /**
+   * Tests round-trips through the LZ4 blob encoding.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testEncodeDecode() {
+    final String s = String.join(",", Collections.nCopies(1000, "helenus"));
+    final byte[] blob = SerializationUtils.encode(s, Serialization.COMPACT, Compression.LZ4);
+
+    Assert.assertTrue(blob.length < s.length());
+    Assert.assertEquals(s, SerializationUtils.decode(blob));
+  }
+
+  /**
+   * Tests that blobs whose header indicates a decompressed size larger than
+   * the configured maximum are rejected.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testMaxDecompressedSize() {
+    final byte[] blob = SerializationUtils.encode(
+      new byte[4096], Serialization.COMPACT, Compression.LZ4
+    );
+    final int max = Compression.getMaxDecompressedSize();
+
+    Compression.setMaxDecompressedSize(1024);
+    try {
+      SerializationUtils.decode(blob);
+      Assert.fail("expected SerializationException");
+    } catch (SerializationException e) { // expected
+    } finally {
+      Compression.setMaxDecompressedSize(max);
+    }
+    Assert.assertArrayEquals(new byte[4096], (byte[])SerializationUtils.decode(blob));
+  }
+
+  /**
+   * Tests that a corrupted length in the blob header is rejected.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testCorruptedHeader() {
+    final byte[] blob = SerializationUtils.encode(
+      "helenus", Serialization.COMPACT, Compression.LZ4
+    );
+
+    blob[2] = (byte)0x7f; // uncompressed length follows the 2 bytes header
+    try {
+      SerializationUtils.decode(blob);
+      Assert.fail("expected SerializationException");
+    } catch (SerializationException e) { // expected
+    }
+  }
+}
@@ -61,7 +61,7 @@ import org.helenus.driver.persistence.Table;
  *
  * @see <a href="http://www.datastax.com/documentation/cql/3.1/cql/ddl/ddl_music_service_c.html">Datastax Music Service Example</a>
  */
-@Keyspace(keys=Constants.MUSIC)
+@Keyspace(name=Constants.MUSIC)
 @Table(name=Constants.PLAYLISTS)
 @Entity
 public class PlaylistEntry {
@@ -205,6 +205,61 @@ public class PlaylistEntry {
   @Mandatory
   private String artist;
 
+  /**
+   * Instantiates a new <code>PlaylistEntry</code> object.
+   *
+   * @author paouelle
+   *
+   * @param  id the unique playlist id
+   * @param  songOrder the song order in the playlist for this entry
+   * @param  song the song for this entry
+   * @throws NullPointerException if <code>id</code> or <code>song</code> is
+   *         <code>null</code>
+   */
+  public PlaylistEntry(UUID id, int songOrder, Song song) {
+    org.apache.commons.lang3.Validate.notNull(id, "invalid null id");
+    org.apache.commons.lang3.Validate.notNull(song, "invalid null song");
+    this.id = id;
+    this.songOrder = songOrder;
+    this.songId = song.getId();
+    this.title = song.getTitle();
+    this.album = song.getAlbum();
+    this.artist = song.getArtist();
+  }
+
+  /**
+   * Gets the unique playlist id.
+   *
+   * @author paouelle
+   *
+   * @return the unique playlist id
+   */
+  public UUID getId() {
+    return id;
+  }
+
+  /**
+   * Gets the song order in the playlist for this entry.
+   *
+   * @author paouelle
+   *
+   * @return the song order in the playlist for this entry
+   */
+  public int getSongOrder() {
+    return songOrder;
+  }
+
+  /**
+   * Gets the song's id.
+   *
+   * @author paouelle
+   *
+   * @return the song's id
+   */
+  public UUID getSongId() {
+    return songId;
+  }
+
   /**
    * Saves this playlist entry directly in the database.
    *
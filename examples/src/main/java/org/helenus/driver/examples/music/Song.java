@@ -60,7 +60,7 @@ import org.helenus.driver.persistence.Table;
  *
  * @see <a href="http://www.datastax.com/documentation/cql/3.1/cql/ddl/ddl_music_service_c.html">Datastax Music Service Example</a>
  */
-@Keyspace(keys=Constants.MUSIC)
+@Keyspace(name=Constants.MUSIC)
 @Table(name=Constants.SONGS)
 @Entity
 public class Song {
@@ -162,6 +162,99 @@ public class Song {
   @Column(name=Constants.DATA)
   private ByteBuffer data;
 
+  /**
+   * Instantiates a new <code>Song</code> object.
+   *
+   * @author paouelle
+   *
+   * @param  id the unique song id
+   * @param  title the song's title
+   * @param  album the song's album
+   * @param  artist the song's artist
+   * @param  data the song's data
+   * @throws NullPointerException if <code>id</code>, <code>title</code>,
+   *         <code>album</code>, or <code>artist</code> is <code>null</code>
+   */
+  public Song(UUID id, String title, String album, String artist, ByteBuffer data) {
+    org.apache.commons.lang3.Validate.notNull(id, "invalid null id");
+    org.apache.commons.lang3.Validate.notNull(title, "invalid null title");
+    org.apache.commons.lang3.Validate.notNull(album, "invalid null album");
+    org.apache.commons.lang3.Validate.notNull(artist, "invalid null artist");
+    this.id = id;
+    this.title = title;
+    this.album = album;
+    this.artist = artist;
+    this.data = data;
+  }
+
+  /**
+   * Gets the unique song id.
+   *
+   * @author paouelle
+   *
+   * @return the unique song id
+   */
+  public UUID getId() {
+    return id;
+  }
+
+  /**
+   * Gets the song's title.
+   *
+   * @author paouelle
+   *
+   * @return the song's title
+   */
+  public String getTitle() {
+    return title;
+  }
+
+  /**
+   * Sets the song's title.
+   *
+   * @author paouelle
+   *
+   * @param  title the song's new title
+   * @throws NullPointerException if <code>title</code> is <code>null</code>
+   */
+  public void setTitle(String title) {
+    org.apache.commons.lang3.Validate.notNull(title, "invalid null title");
+    this.title = title;
+  }
+
+  /**
+   * Gets the song's album.
+   *
+   * @author paouelle
+   *
+   * @return the song's album
+   */
+  public String getAlbum() {
+    return album;
+  }
+
+  /**
+   * Gets the song's artist.
+   *
+   * @author paouelle
+   *
+   * @return the song's artist
+   */
+  public String getArtist() {
+    return artist;
+  }
+
+  /**
+   * Gets the song's data.
+   *
+   * @author paouelle
+   *
+   * @return the song's data or <code>null</code> if none
+   */
+  public ByteBuffer getData() {
+    return data;
+  }
+
   /**
    * Saves this song directly in the database.
    *
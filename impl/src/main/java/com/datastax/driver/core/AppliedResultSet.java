@@ -0,0 +1,265 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.datastax.driver.core;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+
+/**
+ * The <code>AppliedResultSet</code> class defines a result set reporting a
+ * lightweight transaction as applied when its outcome was resolved without a
+ * response from the lightweight transaction itself (e.g. by reading back the
+ * affected row at the serial consistency level). It provides a single row with
+ * the <code>[applied]</code> column set to <code>true</code> just like the
+ * response Cassandra returns for an applied lightweight transaction.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class AppliedResultSet implements ResultSet {
+  /**
+   * Holds the name of the column reporting if a lightweight transaction was
+   * applied.
+   *
+   * @author paouelle
+   */
+  private final static String APPLIED = "[applied]";
+
+  /**
+   * Holds the column definitions for the result set.
+   *
+   * @author paouelle
+   */
+  private final ColumnDefinitions definitions;
+
+  /**
+   * Holds the single row reporting the lightweight transaction as applied.
+   *
+   * @author paouelle
+   */
+  private final Row row;
+
+  /**
+   * Holds the execution info of the request which resolved the outcome or
+   * <code>null</code> if none was required.
+   *
+   * @author paouelle
+   */
+  private final ExecutionInfo info;
+
+  /**
+   * Flag indicating if the row was retrieved.
+   *
+   * @author paouelle
+   */
+  private boolean exhausted = false;
+
+  /**
+   * Instantiates a new <code>AppliedResultSet</code> object.
+   *
+   * @author paouelle
+   *
+   * @param keyspace the keyspace for the table affected
+   * @param table the table affected
+   * @param protocolVersion the protocol version in use
+   * @param codecRegistry the codec registry in use
+   * @param resolution the result set for the request which resolved the
+   *        outcome (e.g. the serial read) or <code>null</code> if none was
+   *        required
+   */
+  public AppliedResultSet(
+    String keyspace,
+    String table,
+    ProtocolVersion protocolVersion,
+    CodecRegistry codecRegistry,
+    ResultSet resolution
+  ) {
+    this.definitions = new ColumnDefinitions(
+      new ColumnDefinitions.Definition[] {
+        new ColumnDefinitions.Definition(
+          keyspace, table, AppliedResultSet.APPLIED, DataType.cboolean()
+        )
+      },
+      codecRegistry
+    );
+    this.row = ArrayBackedRow.fromData(
+      definitions,
+      null,
+      protocolVersion,
+      Collections.singletonList(TypeCodec.cboolean().serialize(true, protocolVersion))
+    );
+    this.info = (resolution != null) ? resolution.getExecutionInfo() : null;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.ResultSet#getColumnDefinitions()
+   */
+  @Override
+  public ColumnDefinitions getColumnDefinitions() {
+    return definitions;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.ResultSet#isExhausted()
+   */
+  @Override
+  public boolean isExhausted() {
+    return exhausted;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.ResultSet#one()
+   */
+  @Override
+  public Row one() {
+    if (exhausted) {
+      return null;
+    }
+    this.exhausted = true;
+    return row;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.ResultSet#all()
+   */
+  @Override
+  public List<Row> all() {
+    final Row r = one();
+
+    return (r != null) ? Collections.singletonList(r) : Collections.emptyList();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.ResultSet#iterator()
+   */
+  @Override
+  public Iterator<Row> iterator() {
+    return new Iterator<Row>() {
+      @Override
+      public boolean hasNext() {
+        return !isExhausted();
+      }
+      @Override
+      public Row next() {
+        if (isExhausted()) {
+          throw new NoSuchElementException();
+        }
+        return one();
+      }
+    };
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.ResultSet#getAvailableWithoutFetching()
+   */
+  @Override
+  public int getAvailableWithoutFetching() {
+    return exhausted ? 0 : 1;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.ResultSet#isFullyFetched()
+   */
+  @Override
+  public boolean isFullyFetched() {
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.ResultSet#fetchMoreResults()
+   */
+  @Override
+  public ListenableFuture<ResultSet> fetchMoreResults() {
+    return Futures.immediateFuture(this);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.ResultSet#getExecutionInfo()
+   */
+  @Override
+  public ExecutionInfo getExecutionInfo() {
+    return info;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.ResultSet#getAllExecutionInfo()
+   */
+  @Override
+  public List<ExecutionInfo> getAllExecutionInfo() {
+    return (info != null) ? Collections.singletonList(info) : Collections.emptyList();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.ResultSet#wasApplied()
+   */
+  @Override
+  public boolean wasApplied() {
+    return true;
+  }
+}
@@ -169,6 +169,22 @@ public class DataTypeParser extends DataTypeClassNameParser {
     );
   }
 
+  /**
+   * Converts the specified data type as reported by the cluster's metadata to
+   * a CQL data type.
+   *
+   * @author paouelle
+   *
+   * @param  mgr the non-<code>null</code> statement manager
+   * @param  type the data type to be converted
+   * @return the corresponding CQL data type
+   */
+  public static CQLDataType dataTypeToCQL(
+    StatementManagerImpl mgr, DataType type
+  ) {
+    return DataTypeParser.toCQL(mgr, type, type.isFrozen());
+  }
+
   /**
    * Converts the specified validator string to a CQL data type.
    *
@@ -222,7 +222,7 @@ public class AlterCreateTableImpl<T> extends CreateTableImpl<T> {
     }
     // check if there are any new columns left
     columns.forEach((n, t) -> columns0.add("ADD " + n + " " + t.toCQL()));
-    if (columns.isEmpty()) { // nothing to do!!!!
+    if (columns0.isEmpty()) { // nothing to do!!!!
       return null;
     }
     final StringBuilder builder = new StringBuilder();
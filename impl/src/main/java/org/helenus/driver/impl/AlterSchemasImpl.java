@@ -15,6 +15,7 @@
  */
 package org.helenus.driver.impl;
 
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Modifier;
 
 import java.util.ArrayList;
@@ -27,6 +28,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -46,7 +48,6 @@ import org.helenus.driver.VoidFuture;
 import org.helenus.driver.info.ClassInfo;
 import org.helenus.driver.persistence.Keyspace;
 import org.helenus.driver.persistence.Table;
-import org.reflections.Reflections;
 
 /**
  * The <code>AlterSchemasImpl</code> class provides support for a statement
@@ -146,7 +147,10 @@ public class AlterSchemasImpl
    */
   private Map<Keyspace, List<ClassInfoImpl<?>>> findKeyspaces() {
     final Map<String, Keyspace> keyspaces = new LinkedHashMap<>(25);
-    final Reflections reflections = new Reflections(pkgs);
+    final Function<Class<? extends Annotation>, Set<Class<?>>> finder
+      = StatementManagerImpl.findTypesAnnotatedWith(
+          Stream.of(pkgs).map(String::valueOf).toArray(String[]::new)
+        );
     // search for all POJO annotated classes with @UDTEntity
     // because of interdependencies between UDT, we need to build a graph
     // to detect circular dependencies and also to ensure a proper creation
@@ -154,8 +158,8 @@ public class AlterSchemasImpl
     final Map<Keyspace, DirectedGraph<UDTClassInfoImpl<?>>> udtcinfos
       = new HashMap<>(25);
 
-    for (final Class<?> clazz: reflections.getTypesAnnotatedWith(
-      org.helenus.driver.persistence.UDTEntity.class, true
+    for (final Class<?> clazz: finder.apply(
+      org.helenus.driver.persistence.UDTEntity.class
     )) {
       // skip abstract POJO classes
       if (Modifier.isAbstract(clazz.getModifiers())) {
@@ -185,8 +189,8 @@ public class AlterSchemasImpl
       }
     }
     // search for all POJO annotated classes with @UDTRootEntity
-    for (final Class<?> clazz: reflections.getTypesAnnotatedWith(
-      org.helenus.driver.persistence.UDTRootEntity.class, true
+    for (final Class<?> clazz: finder.apply(
+      org.helenus.driver.persistence.UDTRootEntity.class
     )) {
       // skip classes that are not directly annotated
       if (ReflectionUtils.findFirstClassAnnotatedWith(
@@ -242,8 +246,8 @@ public class AlterSchemasImpl
         ));
 
     // search for all POJO annotated classes with @Entity
-    for (final Class<?> clazz: reflections.getTypesAnnotatedWith(
-      org.helenus.driver.persistence.Entity.class, true
+    for (final Class<?> clazz: finder.apply(
+      org.helenus.driver.persistence.Entity.class
     )) {
       // skip abstract POJO classes
       if (Modifier.isAbstract(clazz.getModifiers())) {
@@ -272,8 +276,8 @@ public class AlterSchemasImpl
       }
     }
     // search for all POJO annotated classes with @RootEntity
-    for (final Class<?> clazz: reflections.getTypesAnnotatedWith(
-      org.helenus.driver.persistence.RootEntity.class, true
+    for (final Class<?> clazz: finder.apply(
+      org.helenus.driver.persistence.RootEntity.class
     )) {
       // skip classes that are not directly annotated
       if (ReflectionUtils.findFirstClassAnnotatedWith(
@@ -386,6 +390,26 @@ public class AlterSchemasImpl
     return contexts;
   }
 
+  /**
+   * Computes the minimal set of statements required to bring the schemas
+   * defined in Cassandra in line with the POJOs of this statement based on the
+   * cluster's current schema metadata. The result can be reported as a dry-run
+   * or applied with independent keyspaces altered in parallel.
+   *
+   * @author paouelle
+   *
+   * @return the non-<code>null</code> schema differences
+   * @throws IllegalArgumentException if a column cannot be altered to its new
+   *         type or if the primary key of an existing table has changed or if
+   *         the value for a provided keyspace key doesn't match the POJO's
+   *         definition for that keyspace key
+   */
+  public SchemaDiffImpl diff() {
+    return new SchemaDiffImpl(
+      isEnabled() ? getContexts() : Collections.emptyList(), mgr, bridge
+    );
+  }
+
   /**
    * {@inheritDoc}
    *
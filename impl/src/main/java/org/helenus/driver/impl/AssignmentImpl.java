@@ -242,21 +242,35 @@ public abstract class AssignmentImpl
      * @throws NullPointerException if <code>name</code> is <code>null</code>
      */
     SetAssignmentImpl(CharSequence name, Triple<Object, CQLDataType, TypeCodec<?>> tvalue) {
-      super(name);
-      if (tvalue != null) {
-        Object value = tvalue.getLeft();
+      this(
+        name,
+        (tvalue != null) ? tvalue.getLeft() : null,
+        (tvalue != null) ? tvalue.getMiddle() : null,
+        (tvalue != null) ? tvalue.getRight() : null
+      );
+    }
 
-        if (value instanceof Optional) {
-          value = ((Optional<?>)value).orElse(null);
-        }
-        this.value = value;
-        this.definition = tvalue.getMiddle();
-        this.codec = tvalue.getRight();
-      } else {
-        this.value = null;
-        this.definition = null;
-        this.codec = null;
+    /**
+     * Instantiates a new <code>SetAssignmentImpl</code> object.
+     *
+     * @author paouelle
+     *
+     * @param  name the column name for this assignment
+     * @param  value the value for this assignment
+     * @param  definition the definition associated with the value if any
+     * @param  codec the codec associated with the value if any
+     * @throws NullPointerException if <code>name</code> is <code>null</code>
+     */
+    SetAssignmentImpl(
+      CharSequence name, Object value, CQLDataType definition, TypeCodec<?> codec
+    ) {
+      super(name);
+      if (value instanceof Optional) {
+        value = ((Optional<?>)value).orElse(null);
       }
+      this.value = value;
+      this.definition = definition;
+      this.codec = codec;
     }
 
     /**
@@ -355,6 +369,29 @@ public abstract class AssignmentImpl
     Object getValue() {
       return value;
     }
+
+    /**
+     * Gets the codec associated with the value if any.
+     *
+     * @author paouelle
+     *
+     * @return the codec associated with the value or <code>null</code> if none
+     */
+    TypeCodec<?> getCodec() {
+      return codec;
+    }
+
+    /**
+     * Creates a copy of this assignment with a different value to set.
+     *
+     * @author paouelle
+     *
+     * @param  value the new value to set
+     * @return a new assignment for the same column and definition
+     */
+    SetAssignmentImpl withValue(Object value) {
+      return new SetAssignmentImpl(name, Triple.of(value, definition, codec));
+    }
   }
 
   /**
@@ -910,11 +947,10 @@ public abstract class AssignmentImpl
         // get a POJO context for the POJO passed on the setAllFrom()
         context = context.getClassInfo().newContext((T)object);
       }
-      for (final Map.Entry<String, Triple<Object, CQLDataType, TypeCodec<?>>> e: context.getNonPrimaryKeyColumnValues(
-        table.getName()
-      ).entrySet()) {
-        assignments.add(new SetAssignmentImpl(e.getKey(), e.getValue()));
-      }
+      ColumnValuesImpl.forEach(
+        context.getNonPrimaryKeyColumnValues(table.getName()),
+        (n, v, d, c) -> assignments.add(new SetAssignmentImpl(n, v, d, c))
+      );
       return assignments;
     }
 
@@ -1087,6 +1123,20 @@ public abstract class AssignmentImpl
     void validate(TableInfoImpl<?> table) {
       table.validateCounterColumn(name);
     }
+
+    /**
+     * Gets the signed amount by which to increment the counter.
+     *
+     * @author paouelle
+     *
+     * @return the amount to add to the counter (negative for a decrement)
+     * @throws ClassCastException if the value is a bind marker
+     */
+    long getDelta() {
+      final long v = ((Number)value).longValue();
+
+      return isIncr ? v : -v;
+    }
   }
 
   /**
@@ -1190,6 +1240,17 @@ public abstract class AssignmentImpl
     void validate(TableInfoImpl<?> table) {
       table.validateListColumnAndValue(name, value);
     }
+
+    /**
+     * Gets the elements to be prepended to the list.
+     *
+     * @author paouelle
+     *
+     * @return the elements to be prepended to the list
+     */
+    Object getValue() {
+      return value;
+    }
   }
 
   /**
@@ -1299,6 +1360,28 @@ public abstract class AssignmentImpl
     void validate(TableInfoImpl<?> table) {
       table.validateListColumnAndValue(name, value);
     }
+
+    /**
+     * Gets the index in the list to replace.
+     *
+     * @author paouelle
+     *
+     * @return the index in the list to replace
+     */
+    int getIndex() {
+      return idx;
+    }
+
+    /**
+     * Gets the value to set at the index.
+     *
+     * @author paouelle
+     *
+     * @return the value to set at the index
+     */
+    Object getValue() {
+      return value;
+    }
   }
 
   /**
@@ -1474,6 +1557,29 @@ public abstract class AssignmentImpl
         }
       }
     }
+
+    /**
+     * Gets the elements to be appended/discarded to/from the collection.
+     *
+     * @author paouelle
+     *
+     * @return the elements to be appended/discarded to/from the collection
+     */
+    Object getCollection() {
+      return collection;
+    }
+
+    /**
+     * Checks if the elements are appended or discarded.
+     *
+     * @author paouelle
+     *
+     * @return <code>true</code> if the elements are appended; <code>false</code>
+     *         if they are discarded
+     */
+    boolean isAdd() {
+      return isAdd;
+    }
   }
 
   /**
@@ -1591,5 +1697,27 @@ public abstract class AssignmentImpl
     void validate(TableInfoImpl<?> table) {
       table.validateMapColumnAndKeyValue(name, key, value);
     }
+
+    /**
+     * Gets the key of the mapping to be added.
+     *
+     * @author paouelle
+     *
+     * @return the key of the mapping to be added
+     */
+    Object getKey() {
+      return key;
+    }
+
+    /**
+     * Gets the value of the mapping to be added.
+     *
+     * @author paouelle
+     *
+     * @return the value of the mapping to be added
+     */
+    Object getValue() {
+      return value;
+    }
   }
 }
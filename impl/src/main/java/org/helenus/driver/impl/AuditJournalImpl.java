@@ -0,0 +1,765 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.impl;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.SimpleStatement;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import org.helenus.driver.BatchableStatement;
+import org.helenus.driver.GenericStatement;
+
+/**
+ * The <code>AuditJournalImpl</code> class provides a local journal for the
+ * rows written to AUDIT tables (see
+ * {@link org.helenus.driver.persistence.Table.Type#AUDIT}). Audit rows are
+ * appended to a memory-mapped file before the statement (or batch) that
+ * generated them is sent and are drained in the background as unlogged
+ * batches grouped by partition. Audit rows remain in the journal until
+ * acknowledged by Cassandra such that they are replayed when the journal is
+ * re-opened after a restart. Since audit rows are journaled before the
+ * statement is acknowledged, they are kept even if the statement later fails.
+ * <p>
+ * The journal file starts with a header recording the position of the first
+ * pending record and of the end of the journal followed by records of the
+ * form:
+ * <pre>
+ *   [length:int][timestamp:long][group length:int][group][query]
+ * </pre>
+ * where the group identifies the partition of the audit row and the query is
+ * the corresponding CQL INSERT statement. Once everything has been drained,
+ * the journal starts back at the beginning of the file. Audit rows that do not
+ * fit in the journal are sent directly.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class AuditJournalImpl extends WriteBufferImpl {
+  /**
+   * Holds the logger.
+   *
+   * @author paouelle
+   */
+  private final static Logger logger = LogManager.getFormatterLogger(AuditJournalImpl.class);
+
+  /**
+   * Holds the magic number identifying journal files ("HAJ1").
+   *
+   * @author paouelle
+   */
+  private final static int MAGIC = 0x48414a31;
+
+  /**
+   * Holds the offset in the header of the position of the first pending record.
+   *
+   * @author paouelle
+   */
+  private final static int HEAD_OFFSET = 8;
+
+  /**
+   * Holds the offset in the header of the position of the end of the journal.
+   *
+   * @author paouelle
+   */
+  private final static int TAIL_OFFSET = 16;
+
+  /**
+   * Holds the size of the header.
+   *
+   * @author paouelle
+   */
+  private final static int HEADER_SIZE = 32;
+
+  /**
+   * Holds the size of the fixed part of a record.
+   *
+   * @author paouelle
+   */
+  private final static int RECORD_OVERHEAD = 16;
+
+  /**
+   * The <code>Entry</code> class keeps track of an audit row to be journaled.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 18, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  static final class Entry {
+    /**
+     * Holds the group identifying the partition of the audit row.
+     *
+     * @author paouelle
+     */
+    final String group;
+
+    /**
+     * Holds the query string for the audit row.
+     *
+     * @author paouelle
+     */
+    final String query;
+
+    /**
+     * Instantiates a new <code>Entry</code> object.
+     *
+     * @author paouelle
+     *
+     * @param group the non-<code>null</code> group identifying the partition of
+     *        the audit row
+     * @param query the non-<code>null</code> query string for the audit row
+     */
+    Entry(String group, String query) {
+      this.group = group;
+      this.query = query;
+    }
+  }
+
+  /**
+   * Holds the journal file.
+   *
+   * @author paouelle
+   */
+  private final File file;
+
+  /**
+   * Holds the channel for the journal file.
+   *
+   * @author paouelle
+   */
+  private final FileChannel channel;
+
+  /**
+   * Holds the memory-mapped journal.
+   *
+   * @author paouelle
+   */
+  private final MappedByteBuffer buffer;
+
+  /**
+   * Holds the lock protecting the journal positions.
+   *
+   * @author paouelle
+   */
+  private final Object lock = new Object();
+
+  /**
+   * Holds the position of the first pending record.
+   *
+   * @author paouelle
+   */
+  private int head;
+
+  /**
+   * Holds the position of the end of the journal.
+   *
+   * @author paouelle
+   */
+  private int tail;
+
+  /**
+   * Holds the number of pending records.
+   *
+   * @author paouelle
+   */
+  private volatile int pending = 0;
+
+  /**
+   * Holds the number of pending records triggering a drain.
+   *
+   * @author paouelle
+   */
+  private volatile int flushAt = 1000;
+
+  /**
+   * Holds the number of records replayed when the journal was opened.
+   *
+   * @author paouelle
+   */
+  private final int replayed;
+
+  /**
+   * Holds the number of records journaled.
+   *
+   * @author paouelle
+   */
+  private final LongAdder journaled = new LongAdder();
+
+  /**
+   * Holds the number of records drained.
+   *
+   * @author paouelle
+   */
+  private final LongAdder drained = new LongAdder();
+
+  /**
+   * Holds the number of audit rows sent directly as they did not fit in the
+   * journal.
+   *
+   * @author paouelle
+   */
+  private final LongAdder overflowed = new LongAdder();
+
+  /**
+   * Instantiates a new <code>AuditJournalImpl</code> object.
+   *
+   * @author paouelle
+   *
+   * @param  mgr the non-<code>null</code> statement manager
+   * @param  file the non-<code>null</code> journal file to create or re-open
+   * @param  capacity the capacity in bytes of the journal
+   * @throws IllegalArgumentException if <code>capacity</code> is invalid
+   * @throws IOException if an I/O error occurs while opening the journal or if
+   *         an existing journal is corrupted
+   */
+  AuditJournalImpl(StatementManagerImpl mgr, File file, int capacity)
+    throws IOException {
+    super(mgr);
+    org.apache.commons.lang3.Validate.isTrue(
+      capacity > HEADER_SIZE, "invalid audit journal capacity: %d", capacity
+    );
+    this.file = file;
+    this.channel = FileChannel.open(
+      file.toPath(),
+      StandardOpenOption.CREATE,
+      StandardOpenOption.READ,
+      StandardOpenOption.WRITE
+    );
+    try {
+      // never shrink an existing journal as it might have pending records
+      final long size = Math.max(channel.size(), capacity);
+
+      if (size > Integer.MAX_VALUE) {
+        throw new IOException("audit journal too large: " + file);
+      }
+      this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0L, size);
+      this.replayed = recover();
+    } catch (IOException|RuntimeException|Error e) {
+      try {
+        channel.close();
+      } catch (IOException ee) {
+        e.addSuppressed(ee);
+      }
+      throw e;
+    }
+    if (replayed > 0) {
+      AuditJournalImpl.logger.info(
+        "replaying %d audit row(s) from journal: %s", replayed, file
+      );
+    }
+    schedule(TimeUnit.MILLISECONDS.toNanos(100L));
+  }
+
+  /**
+   * Recovers the journal positions from the header, validating all pending
+   * records.
+   *
+   * @author paouelle
+   *
+   * @return the number of pending records
+   * @throws IOException if the journal is corrupted
+   */
+  private int recover() throws IOException {
+    final int capacity = buffer.capacity();
+
+    if (buffer.getInt(0) != AuditJournalImpl.MAGIC) {
+      if (buffer.getLong(AuditJournalImpl.TAIL_OFFSET) != 0L) {
+        throw new IOException("not an audit journal: " + file);
+      }
+      buffer.putInt(0, AuditJournalImpl.MAGIC);
+      this.head = AuditJournalImpl.HEADER_SIZE;
+      this.tail = AuditJournalImpl.HEADER_SIZE;
+      writeHeader();
+      return 0;
+    }
+    final long h = buffer.getLong(AuditJournalImpl.HEAD_OFFSET);
+    final long t = buffer.getLong(AuditJournalImpl.TAIL_OFFSET);
+
+    if ((h < AuditJournalImpl.HEADER_SIZE) || (h > t) || (t > capacity)) {
+      throw new IOException("corrupted audit journal: " + file);
+    }
+    int pos = (int)h;
+    int n = 0;
+
+    while (pos < t) {
+      final int len = buffer.getInt(pos);
+
+      if ((len < AuditJournalImpl.RECORD_OVERHEAD - 4) || (pos + 4 + len > t)) {
+        // partially written record so truncate the journal there
+        AuditJournalImpl.logger.warn(
+          "truncating corrupted audit journal %s at %d", file, pos
+        );
+        break;
+      }
+      pos += 4 + len;
+      n++;
+    }
+    this.head = (int)h;
+    this.tail = pos;
+    this.pending = n;
+    writeHeader();
+    return n;
+  }
+
+  /**
+   * Records the journal positions in the header.
+   * <p>
+   * <i>Note:</i> This method must be called while holding the lock.
+   *
+   * @author paouelle
+   */
+  private void writeHeader() {
+    buffer.putLong(AuditJournalImpl.HEAD_OFFSET, head);
+    buffer.putLong(AuditJournalImpl.TAIL_OFFSET, tail);
+  }
+
+  /**
+   * Reserves space at the end of the journal for a record, moving pending
+   * records back to the beginning of the journal if required and possible.
+   * <p>
+   * <i>Note:</i> This method must be called while holding the lock.
+   *
+   * @author paouelle
+   *
+   * @param  len the size of the record to append
+   * @return <code>true</code> if the record fits in the journal;
+   *         <code>false</code> otherwise
+   */
+  private boolean reserve(int len) {
+    final int capacity = buffer.capacity();
+
+    if (len <= capacity - tail) {
+      return true;
+    }
+    final int size = tail - head;
+
+    // only compact when pending records do not overlap their new location
+    // such that a crash while compacting never loses pending records
+    if ((head - AuditJournalImpl.HEADER_SIZE < size)
+        || (len > capacity - AuditJournalImpl.HEADER_SIZE - size)) {
+      return false;
+    }
+    final byte[] data = new byte[size];
+    final ByteBuffer src = buffer.duplicate();
+    final ByteBuffer dst = buffer.duplicate();
+
+    src.position(head);
+    src.get(data);
+    dst.position(AuditJournalImpl.HEADER_SIZE);
+    dst.put(data);
+    this.head = AuditJournalImpl.HEADER_SIZE;
+    this.tail = AuditJournalImpl.HEADER_SIZE + size;
+    writeHeader();
+    return true;
+  }
+
+  /**
+   * Appends the specified audit rows to this journal. Audit rows that do not
+   * fit in the journal or that are appended after it was closed are sent
+   * directly.
+   *
+   * @author paouelle
+   *
+   * @param entries the non-<code>null</code> audit rows to append
+   */
+  void append(List<Entry> entries) {
+    final long now = System.currentTimeMillis();
+    List<Entry> overflow = null;
+    int n = 0;
+
+    synchronized (lock) {
+      final ByteBuffer b = buffer.duplicate();
+
+      for (final Entry e: entries) {
+        final byte[] group = e.group.getBytes(StandardCharsets.UTF_8);
+        final byte[] query = e.query.getBytes(StandardCharsets.UTF_8);
+        final int len = AuditJournalImpl.RECORD_OVERHEAD + group.length + query.length;
+
+        if (closed || !reserve(len)) {
+          if (overflow == null) {
+            overflow = new ArrayList<>(entries.size());
+          }
+          overflow.add(e);
+          continue;
+        }
+        b.position(tail);
+        b.putInt(len - 4)
+          .putLong(now)
+          .putInt(group.length)
+          .put(group)
+          .put(query);
+        this.tail += len;
+        n++;
+      }
+      if (n > 0) {
+        this.pending += n;
+        writeHeader();
+      }
+    }
+    journaled.add(n);
+    if (overflow != null) {
+      overflowed.add(overflow.size());
+      for (final Entry e: overflow) {
+        execute(mgr.regular(new SimpleStatement(e.query)));
+      }
+    }
+    if (pending >= flushAt) {
+      trigger();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Pending records are only removed from the journal once all of them have
+   * been acknowledged. Otherwise, they will be replayed by the next drain.
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.impl.WriteBufferImpl#drain()
+   */
+  @Override
+  protected void drain() {
+    final byte[] data;
+    final int n;
+
+    synchronized (lock) {
+      if (head == tail) {
+        return;
+      }
+      final ByteBuffer b = buffer.duplicate();
+
+      data = new byte[tail - head];
+      n = pending;
+      b.position(head);
+      b.get(data);
+    }
+    buffer.force(); // make sure what we are about to drain is on disk
+    final Map<String, List<BatchableStatement<?, ?>>> groups = new LinkedHashMap<>(n * 2);
+    final ByteBuffer b = ByteBuffer.wrap(data);
+
+    while (b.hasRemaining()) {
+      final int len = b.getInt();
+      final int start = b.position();
+
+      b.getLong(); // skip timestamp
+      final int glen = b.getInt();
+      final String group = new String(data, b.position(), glen, StandardCharsets.UTF_8);
+      final int qstart = b.position() + glen;
+      final String query = new String(
+        data, qstart, start + len - qstart, StandardCharsets.UTF_8
+      );
+
+      b.position(start + len);
+      groups.computeIfAbsent(group, g -> new ArrayList<>(4))
+        .add(mgr.regular(new SimpleStatement(query)));
+    }
+    final int size = batchSize;
+    final List<ListenableFuture<ResultSet>> futures = new ArrayList<>(groups.size());
+
+    for (final List<BatchableStatement<?, ?>> group: groups.values()) {
+      for (int i = 0; i < group.size(); i += size) {
+        final List<BatchableStatement<?, ?>> chunk
+          = group.subList(i, Math.min(i + size, group.size()));
+        final ListenableFuture<ResultSet> future = execute((chunk.size() == 1)
+          ? (GenericStatement<?, ?>)chunk.get(0)
+          : mgr.unloggedBatch(Optional.empty(), new ArrayList<>(chunk))
+        );
+
+        if (future == null) { // failure already recorded
+          return;
+        }
+        futures.add(future);
+      }
+    }
+    try {
+      Uninterruptibles.getUninterruptibly(Futures.allAsList(futures));
+    } catch (ExecutionException e) { // failure already recorded
+      return;
+    }
+    synchronized (lock) {
+      this.head += data.length;
+      this.pending -= n;
+      if (head == tail) { // start back at the beginning
+        this.head = AuditJournalImpl.HEADER_SIZE;
+        this.tail = AuditJournalImpl.HEADER_SIZE;
+      }
+      writeHeader();
+    }
+    drained.add(n);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.impl.WriteBufferImpl#hasPending()
+   */
+  @Override
+  protected boolean hasPending() {
+    return pending > 0;
+  }
+
+  /**
+   * Gets the journal file.
+   *
+   * @author paouelle
+   *
+   * @return the non-<code>null</code> journal file
+   */
+  public File getFile() {
+    return file;
+  }
+
+  /**
+   * Gets the capacity in bytes of this journal.
+   *
+   * @author paouelle
+   *
+   * @return the capacity in bytes of this journal
+   */
+  public int getCapacity() {
+    return buffer.capacity();
+  }
+
+  /**
+   * Sets the delay between background drains.
+   *
+   * @author paouelle
+   *
+   * @param  delay the delay between drains or 0 to only drain when the number
+   *         of pending records is reached or on explicit flushes
+   * @param  unit the non-<code>null</code> unit for the delay
+   * @return this journal
+   * @throws IllegalStateException if this journal was closed
+   * @throws IllegalArgumentException if <code>delay</code> is negative
+   * @throws NullPointerException if <code>unit</code> is <code>null</code>
+   */
+  public AuditJournalImpl flushEvery(long delay, TimeUnit unit) {
+    validateNotClosed();
+    org.apache.commons.lang3.Validate.isTrue(delay >= 0L, "invalid flush delay: %d", delay);
+    org.apache.commons.lang3.Validate.notNull(unit, "invalid null unit");
+    schedule(unit.toNanos(delay));
+    return this;
+  }
+
+  /**
+   * Sets the number of pending records triggering a background drain.
+   *
+   * @author paouelle
+   *
+   * @param  records the number of pending records triggering a drain
+   * @return this journal
+   * @throws IllegalStateException if this journal was closed
+   * @throws IllegalArgumentException if <code>records</code> is not positive
+   */
+  public AuditJournalImpl flushAt(int records) {
+    validateNotClosed();
+    org.apache.commons.lang3.Validate.isTrue(records > 0, "invalid number of records: %d", records);
+    this.flushAt = records;
+    return this;
+  }
+
+  /**
+   * Sets the maximum number of audit rows per batch when draining.
+   *
+   * @author paouelle
+   *
+   * @param  size the maximum number of audit rows per batch
+   * @return this journal
+   * @throws IllegalStateException if this journal was closed
+   * @throws IllegalArgumentException if <code>size</code> is not positive
+   */
+  public AuditJournalImpl batchSize(int size) {
+    validateNotClosed();
+    org.apache.commons.lang3.Validate.isTrue(size > 0, "invalid batch size: %d", size);
+    this.batchSize = size;
+    return this;
+  }
+
+  /**
+   * Gets the number of records pending in this journal.
+   *
+   * @author paouelle
+   *
+   * @return the number of records pending in this journal
+   */
+  public int getPendingRecords() {
+    return pending;
+  }
+
+  /**
+   * Gets the number of bytes pending in this journal.
+   *
+   * @author paouelle
+   *
+   * @return the number of bytes pending in this journal
+   */
+  public int getPendingBytes() {
+    synchronized (lock) {
+      return tail - head;
+    }
+  }
+
+  /**
+   * Gets how long the oldest pending record has been waiting in this journal.
+   *
+   * @author paouelle
+   *
+   * @param  unit the non-<code>null</code> unit for the lag
+   * @return the age of the oldest pending record or 0 if none are pending
+   * @throws NullPointerException if <code>unit</code> is <code>null</code>
+   */
+  public long getLag(TimeUnit unit) {
+    org.apache.commons.lang3.Validate.notNull(unit, "invalid null unit");
+    final long timestamp;
+
+    synchronized (lock) {
+      if (head == tail) {
+        return 0L;
+      }
+      timestamp = buffer.getLong(head + 4);
+    }
+    return unit.convert(
+      Math.max(0L, System.currentTimeMillis() - timestamp), TimeUnit.MILLISECONDS
+    );
+  }
+
+  /**
+   * Gets the number of records that were pending when this journal was opened.
+   *
+   * @author paouelle
+   *
+   * @return the number of records replayed when this journal was opened
+   */
+  public int getReplayedRecords() {
+    return replayed;
+  }
+
+  /**
+   * Gets the number of records appended to this journal since it was opened.
+   *
+   * @author paouelle
+   *
+   * @return the number of records journaled
+   */
+  public long getJournaledRecords() {
+    return journaled.sum();
+  }
+
+  /**
+   * Gets the number of records acknowledged by Cassandra and removed from
+   * this journal since it was opened.
+   *
+   * @author paouelle
+   *
+   * @return the number of records drained
+   */
+  public long getDrainedRecords() {
+    return drained.sum();
+  }
+
+  /**
+   * Gets the number of audit rows sent directly since this journal was opened
+   * as they did not fit in the journal.
+   *
+   * @author paouelle
+   *
+   * @return the number of audit rows that overflowed this journal
+   */
+  public long getOverflowedRecords() {
+    return overflowed.sum();
+  }
+
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Records that could not be drained are kept in the journal file to be
+   * replayed the next time it is opened.
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.impl.WriteBufferImpl#close()
+   */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    try {
+      super.close();
+    } finally {
+      synchronized (lock) {
+        buffer.force();
+      }
+      try {
+        channel.close();
+      } catch (IOException e) {
+        AuditJournalImpl.logger.warn("failed to close audit journal: %s", file, e);
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see java.lang.Object#toString()
+   */
+  @Override
+  public String toString() {
+    return (
+      getClass().getSimpleName()
+      + "[file=" + file
+      + ",pending=" + pending
+      + ",journaled=" + journaled
+      + ",drained=" + drained
+      + ",overflowed=" + overflowed
+      + "]"
+    );
+  }
+}
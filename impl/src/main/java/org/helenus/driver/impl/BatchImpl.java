@@ -355,6 +355,35 @@ public class BatchImpl
    */
   @Override
   protected StringBuilder[] buildQueryStrings() {
+    final List<AuditJournalImpl.Entry> audits = this.audits;
+
+    if (audits != null) { // build without caching to divert audit rows
+      final List<StringBuilder> builders = new ArrayList<>(32);
+
+      for (final StatementImpl<?, ?, ?> statement: buildStatements()) {
+        final boolean journal = statement.canJournalAudits();
+
+        if (journal) {
+          statement.audits = audits;
+        }
+        try {
+          final StringBuilder[] sbs = statement.buildQueryStrings();
+
+          if (sbs != null) {
+            for (final StringBuilder sb: sbs) {
+              if (sb != null) {
+                builders.add(sb);
+              }
+            }
+          }
+        } finally {
+          if (journal) {
+            statement.audits = null;
+          }
+        }
+      }
+      return builders.isEmpty() ? null : builders.toArray(new StringBuilder[builders.size()]);
+    }
     if (isDirty() || (cacheSB == null)) {
       final List<StatementImpl<?, ?, ?>> slist = buildStatements();
 
@@ -381,6 +410,36 @@ public class BatchImpl
     return ((cacheSB != null) && (cacheSB.length > 0)) ? cacheSB : null;
   }
 
+  /**
+   * {@inheritDoc}
+   * <p>
+   * Audit rows can only be diverted when none of the batched statements are
+   * conditional since the whole batch might then not be applied.
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.impl.StatementImpl#canJournalAudits()
+   */
+  @Override
+  protected boolean canJournalAudits() {
+    final List<StatementImpl<?, ?, ?>> slist = buildStatements();
+
+    return slist.stream().anyMatch(StatementImpl::canJournalAudits)
+      && slist.stream().noneMatch(StatementImpl::isConditional);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.impl.StatementImpl#isConditional()
+   */
+  @Override
+  protected boolean isConditional() {
+    return buildStatements().stream().anyMatch(StatementImpl::isConditional);
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -0,0 +1,997 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+
+import org.apache.commons.lang3.tuple.Triple;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.TypeCodec;
+import com.datastax.driver.core.exceptions.NoHostAvailableException;
+import com.datastax.driver.core.exceptions.OperationTimedOutException;
+import com.datastax.driver.core.exceptions.OverloadedException;
+import com.datastax.driver.core.exceptions.UnavailableException;
+import com.datastax.driver.core.exceptions.WriteTimeoutException;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.MoreExecutors;
+
+import org.helenus.driver.BatchableStatement;
+import org.helenus.driver.BulkInsert;
+import org.helenus.driver.GenericStatement;
+import org.helenus.driver.info.TableInfo;
+import org.helenus.driver.persistence.CQLDataType;
+
+/**
+ * The <code>BulkInsertImpl</code> class provides the implementation for
+ * streaming a large number of POJOs into Cassandra.
+ * <p>
+ * POJOs are pulled from the source one window at a time. Insert statements
+ * are created for each POJO and each table and grouped by keyspace, table,
+ * and partition key values. Statements sharing a partition are then sent as
+ * unlogged batches of a bounded size while others are sent individually.
+ * A semaphore bounds the number of requests in flight, blocking the producer
+ * while the limit is reached. Failed idempotent requests are queued for a
+ * delayed retry which is resubmitted by the producer thread while it waits
+ * for permits.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 12, 2017 - paouelle - Creation
+ *
+ * @param <T> The type of POJO to insert
+ *
+ * @since 1.0
+ */
+public class BulkInsertImpl<T> implements BulkInsert<T> {
+  /**
+   * Holds the logger.
+   *
+   * @author paouelle
+   */
+  private final static Logger logger = LogManager.getFormatterLogger(BulkInsertImpl.class);
+
+  /**
+   * Holds the number of milliseconds to wait for a permit before checking for
+   * requests to retry or progress to report.
+   *
+   * @author paouelle
+   */
+  private final static long POLL_MS = 10L;
+
+  /**
+   * Checks if the specified failure is transient and can be retried.
+   *
+   * @author paouelle
+   *
+   * @param  t the failure to check
+   * @return <code>true</code> if the failure is transient
+   */
+  private static boolean isRetriable(Throwable t) {
+    return (t instanceof WriteTimeoutException)
+      || (t instanceof OperationTimedOutException)
+      || (t instanceof UnavailableException)
+      || (t instanceof OverloadedException)
+      || (t instanceof NoHostAvailableException);
+  }
+
+  /**
+   * Holds the statement manager.
+   *
+   * @author paouelle
+   */
+  private final StatementManagerImpl mgr;
+
+  /**
+   * Holds the source of POJOs.
+   *
+   * @author paouelle
+   */
+  private final Iterator<T> objects;
+
+  /**
+   * Holds the tables in which to insert or <code>null</code> for all tables.
+   *
+   * @author paouelle
+   */
+  private String[] tables = null;
+
+  /**
+   * Holds the maximum number of statements per batch.
+   *
+   * @author paouelle
+   */
+  private int batchSize = 20;
+
+  /**
+   * Holds the number of POJOs to read ahead.
+   *
+   * @author paouelle
+   */
+  private int window = 1000;
+
+  /**
+   * Holds the maximum number of requests in flight.
+   *
+   * @author paouelle
+   */
+  private int inflight;
+
+  /**
+   * Holds the maximum number of retries.
+   *
+   * @author paouelle
+   */
+  private int retries = 3;
+
+  /**
+   * Holds the initial delay in nanoseconds between retries.
+   *
+   * @author paouelle
+   */
+  private long delay = TimeUnit.MILLISECONDS.toNanos(100L);
+
+  /**
+   * Holds the progress listener or <code>null</code> if none registered.
+   *
+   * @author paouelle
+   */
+  private Consumer<? super Progress> listener = null;
+
+  /**
+   * Holds the interval in nanoseconds between progress notifications.
+   *
+   * @author paouelle
+   */
+  private long interval = 0L;
+
+  /**
+   * Holds the next time in nanoseconds to notify the progress listener.
+   *
+   * @author paouelle
+   */
+  private long nextReport = 0L;
+
+  /**
+   * Holds a flag indicating if this bulk insert was executed.
+   *
+   * @author paouelle
+   */
+  private final AtomicBoolean executed = new AtomicBoolean(false);
+
+  /**
+   * Holds the semaphore bounding the number of requests in flight.
+   *
+   * @author paouelle
+   */
+  private volatile Semaphore permits = null;
+
+  /**
+   * Holds the requests waiting to be retried.
+   *
+   * @author paouelle
+   */
+  private final DelayQueue<Request> pending = new DelayQueue<>();
+
+  /**
+   * Holds the first failure that could not be retried.
+   *
+   * @author paouelle
+   */
+  private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+  /**
+   * Holds the time in nanoseconds when execution started.
+   *
+   * @author paouelle
+   */
+  private volatile long start = 0L;
+
+  /**
+   * Holds the time in nanoseconds when execution ended.
+   *
+   * @author paouelle
+   */
+  private volatile long end = 0L;
+
+  /**
+   * Holds the progress counters.
+   *
+   * @author paouelle
+   */
+  private final AtomicLong numObjects = new AtomicLong(),
+    numStatements = new AtomicLong(),
+    numCompleted = new AtomicLong(),
+    numFailed = new AtomicLong(),
+    numRequests = new AtomicLong(),
+    numRetries = new AtomicLong();
+
+  /**
+   * Instantiates a new <code>BulkInsertImpl</code> object.
+   *
+   * @author paouelle
+   *
+   * @param  objects the source of POJOs to insert
+   * @param  mgr the non-<code>null</code> statement manager
+   * @throws NullPointerException if <code>objects</code> is <code>null</code>
+   */
+  public BulkInsertImpl(Iterator<T> objects, StatementManagerImpl mgr) {
+    org.apache.commons.lang3.Validate.notNull(objects, "invalid null objects");
+    this.mgr = mgr;
+    this.objects = objects;
+    initInflight();
+  }
+
+  /**
+   * Initializes the maximum number of requests in flight to its default value.
+   *
+   * @author paouelle
+   */
+  private void initInflight() {
+    try {
+      this.inflight = Math.max(1, mgr.getNumHosts()) * 32;
+    } catch (Exception e) { // defaults to 32 if we cannot get the info from the cluster
+      this.inflight = 32;
+    }
+  }
+
+  /**
+   * Verifies that this bulk insert was not already executed.
+   *
+   * @author paouelle
+   *
+   * @throws IllegalStateException if the bulk insert was already executed
+   */
+  private void validateNotExecuted() {
+    org.apache.commons.lang3.Validate.validState(
+      !executed.get(), "bulk insert already executed"
+    );
+  }
+
+  /**
+   * Creates the insert statements for a given POJO and adds them to their
+   * corresponding partition groups.
+   *
+   * @author paouelle
+   *
+   * @param object the POJO to insert
+   * @param groups the partition groups to update
+   */
+  private void add(T object, Map<List<Object>, List<BatchableStatement<?, ?>>> groups) {
+    final Collection<String> tnames;
+
+    if (tables != null) {
+      tnames = Arrays.asList(tables);
+    } else {
+      tnames = new ArrayList<>(4);
+      for (final TableInfo<?> table: mgr.getClassInfoImpl(object.getClass()).getTables()) {
+        tnames.add(table.getName());
+      }
+    }
+    for (final String tname: tnames) {
+      final InsertImpl<T> insert = (InsertImpl<T>)mgr.insert(object).into(tname);
+      final Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> pkeys
+        = insert.getPOJOContext().getKeyspaceAndPartitionKeyColumnValues(tname);
+      final List<Object> key = new ArrayList<>(pkeys.size() + 2);
+
+      key.add(insert.getKeyspace());
+      key.add(tname);
+      for (final Triple<Object, CQLDataType, TypeCodec<?>> t: pkeys.values()) {
+        key.add(t.getLeft());
+      }
+      groups.computeIfAbsent(key, k -> new ArrayList<>(4)).add(insert);
+      numStatements.incrementAndGet();
+    }
+  }
+
+  /**
+   * Acquires a permit to send a new request while processing retries and
+   * progress notifications.
+   *
+   * @author paouelle
+   *
+   * @param  n the number of permits to acquire
+   * @param  abort <code>true</code> to stop waiting if a failure occurred
+   * @return <code>true</code> if acquired; <code>false</code> if a failure
+   *         occurred while waiting
+   */
+  private boolean acquire(int n, boolean abort) {
+    try {
+      while (!permits.tryAcquire(n, BulkInsertImpl.POLL_MS, TimeUnit.MILLISECONDS)) {
+        resubmit();
+        report(false);
+        if (abort && (error.get() != null)) {
+          return false;
+        }
+      }
+    } catch (InterruptedException e) {
+      error.compareAndSet(null, e);
+      Thread.currentThread().interrupt();
+      return false;
+    }
+    return true;
+  }
+
+  /**
+   * Resubmits all requests for which the retry delay has expired. Pending
+   * requests are abandoned instead once a failure has occurred.
+   *
+   * @author paouelle
+   */
+  private void resubmit() {
+    if (error.get() != null) {
+      Request r;
+
+      while ((r = pending.poll()) != null) {
+        numFailed.addAndGet(r.size);
+        permits.release();
+      }
+      return;
+    }
+    Request r;
+
+    while ((r = pending.poll()) != null) {
+      numRetries.incrementAndGet();
+      send(r);
+    }
+  }
+
+  /**
+   * Notifies the progress listener if it is time to do so.
+   *
+   * @author paouelle
+   *
+   * @param force <code>true</code> to notify regardless of the interval
+   */
+  private void report(boolean force) {
+    if (listener != null) {
+      final long now = System.nanoTime();
+
+      if (force || (now - nextReport >= 0L)) {
+        this.nextReport = now + interval;
+        listener.accept(getProgress());
+      }
+    }
+  }
+
+  /**
+   * Sends the specified request which already holds a permit.
+   *
+   * @author paouelle
+   *
+   * @param request the request to send
+   */
+  private void send(Request request) {
+    final ListenableFuture<ResultSet> future;
+
+    try {
+      future = request.statement.executeAsyncRaw();
+    } catch (Throwable t) {
+      request.failed(t);
+      return;
+    }
+    Futures.addCallback(future, request, mgr.getDirectExecutor());
+  }
+
+  /**
+   * Pulls all POJOs from the source and sends their statements. This method
+   * returns once all requests have completed.
+   *
+   * @author paouelle
+   *
+   * @return the final progress
+   * @throws IllegalStateException if the bulk insert was already executed
+   */
+  private Progress run() {
+    org.apache.commons.lang3.Validate.validState(
+      executed.compareAndSet(false, true), "bulk insert already executed"
+    );
+    this.permits = new Semaphore(inflight);
+    this.start = System.nanoTime();
+    this.nextReport = start + interval;
+    try {
+      final Map<List<Object>, List<BatchableStatement<?, ?>>> groups
+        = new LinkedHashMap<>(window * 2);
+
+      while ((error.get() == null) && objects.hasNext()) {
+        for (int i = 0; (i < window) && objects.hasNext(); i++) {
+          numObjects.incrementAndGet();
+          add(objects.next(), groups);
+        }
+        for (final List<BatchableStatement<?, ?>> group: groups.values()) {
+          for (int i = 0; i < group.size(); i += batchSize) {
+            final List<BatchableStatement<?, ?>> chunk
+              = group.subList(i, Math.min(i + batchSize, group.size()));
+            final GenericStatement<?, ?> statement = (chunk.size() == 1)
+              ? (GenericStatement<?, ?>)chunk.get(0)
+              : mgr.unloggedBatch(Optional.empty(), new ArrayList<>(chunk));
+
+            if (!acquire(1, true)) {
+              break;
+            }
+            numRequests.incrementAndGet();
+            send(new Request(statement, chunk.size()));
+          }
+          if (error.get() != null) {
+            break;
+          }
+        }
+        groups.clear();
+      }
+    } catch (RuntimeException|Error e) { // failed pulling or building statements
+      error.compareAndSet(null, e);
+    }
+    if (acquire(inflight, false)) { // wait for all requests and retries to complete
+      permits.release(inflight);
+    }
+    this.end = System.nanoTime();
+    report(true);
+    final Throwable t = error.get();
+
+    if (t != null) {
+      if (t instanceof RuntimeException) {
+        if (t instanceof com.datastax.driver.core.exceptions.DriverException) {
+          throw StatementImpl.propagateCause(new ExecutionException(t));
+        }
+        throw (RuntimeException)t;
+      } else if (t instanceof Error) {
+        throw (Error)t;
+      }
+      throw StatementImpl.propagateCause(new ExecutionException(t));
+    }
+    return getProgress();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.BulkInsert#into(java.lang.String[])
+   */
+  @Override
+  public BulkInsert<T> into(String... tables) {
+    validateNotExecuted();
+    org.apache.commons.lang3.Validate.notEmpty(tables, "invalid null or empty tables");
+    org.apache.commons.lang3.Validate.noNullElements(tables, "invalid null table");
+    this.tables = tables.clone();
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.BulkInsert#intoAll()
+   */
+  @Override
+  public BulkInsert<T> intoAll() {
+    validateNotExecuted();
+    this.tables = null;
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.BulkInsert#batchSize(int)
+   */
+  @Override
+  public BulkInsert<T> batchSize(int size) {
+    validateNotExecuted();
+    org.apache.commons.lang3.Validate.isTrue(size > 0, "invalid batch size: %d", size);
+    this.batchSize = size;
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.BulkInsert#window(int)
+   */
+  @Override
+  public BulkInsert<T> window(int size) {
+    validateNotExecuted();
+    org.apache.commons.lang3.Validate.isTrue(size > 0, "invalid window size: %d", size);
+    this.window = size;
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.BulkInsert#inflight(int)
+   */
+  @Override
+  public BulkInsert<T> inflight(int max) {
+    validateNotExecuted();
+    org.apache.commons.lang3.Validate.isTrue(max > 0, "invalid in-flight limit: %d", max);
+    this.inflight = max;
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.BulkInsert#retries(int, long, java.util.concurrent.TimeUnit)
+   */
+  @Override
+  public BulkInsert<T> retries(int retries, long delay, TimeUnit unit) {
+    validateNotExecuted();
+    org.apache.commons.lang3.Validate.isTrue(
+      retries >= 0, "invalid number of retries: %d", retries
+    );
+    org.apache.commons.lang3.Validate.isTrue(delay >= 0L, "invalid retry delay: %d", delay);
+    org.apache.commons.lang3.Validate.notNull(unit, "invalid null unit");
+    this.retries = retries;
+    this.delay = unit.toNanos(delay);
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.BulkInsert#progress(java.util.function.Consumer, long, java.util.concurrent.TimeUnit)
+   */
+  @Override
+  public BulkInsert<T> progress(
+    Consumer<? super Progress> listener, long interval, TimeUnit unit
+  ) {
+    validateNotExecuted();
+    org.apache.commons.lang3.Validate.notNull(listener, "invalid null listener");
+    org.apache.commons.lang3.Validate.isTrue(interval >= 0L, "invalid interval: %d", interval);
+    org.apache.commons.lang3.Validate.notNull(unit, "invalid null unit");
+    this.listener = listener;
+    this.interval = unit.toNanos(interval);
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.BulkInsert#getProgress()
+   */
+  @Override
+  public Progress getProgress() {
+    final Semaphore p = permits;
+    final long s = start;
+    final long e = end;
+
+    return new ProgressImpl(
+      numObjects.get(),
+      numStatements.get(),
+      numCompleted.get(),
+      numFailed.get(),
+      numRequests.get(),
+      numRetries.get(),
+      (p != null) ? Math.max(0, inflight - p.availablePermits()) : 0,
+      (s == 0L) ? 0L : ((e != 0L) ? e : System.nanoTime()) - s,
+      e != 0L
+    );
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.BulkInsert#execute()
+   */
+  @Override
+  public Progress execute() {
+    return run();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.BulkInsert#executeAsync()
+   */
+  @Override
+  public ListenableFuture<Progress> executeAsync() {
+    validateNotExecuted();
+    return MoreExecutors.listeningDecorator(mgr.getPoolExecutor()).submit(this::run);
+  }
+
+  /**
+   * The <code>Request</code> class keeps track of a request sent to Cassandra
+   * which might need to be retried.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 12, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  private class Request implements FutureCallback<ResultSet>, Delayed {
+    /**
+     * Holds the statement to execute.
+     *
+     * @author paouelle
+     */
+    private final GenericStatement<?, ?> statement;
+
+    /**
+     * Holds the number of insert statements included in this request.
+     *
+     * @author paouelle
+     */
+    private final int size;
+
+    /**
+     * Holds the number of times this request was attempted.
+     *
+     * @author paouelle
+     */
+    private int attempts = 0;
+
+    /**
+     * Holds the time in nanoseconds at which this request should be retried.
+     *
+     * @author paouelle
+     */
+    private volatile long due = 0L;
+
+    /**
+     * Instantiates a new <code>Request</code> object.
+     *
+     * @author paouelle
+     *
+     * @param statement the statement to execute
+     * @param size the number of insert statements included
+     */
+    Request(GenericStatement<?, ?> statement, int size) {
+      this.statement = statement;
+      this.size = size;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see com.google.common.util.concurrent.FutureCallback#onSuccess(java.lang.Object)
+     */
+    @SuppressWarnings("synthetic-access")
+    @Override
+    public void onSuccess(ResultSet result) {
+      numCompleted.addAndGet(size);
+      permits.release();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see com.google.common.util.concurrent.FutureCallback#onFailure(java.lang.Throwable)
+     */
+    @Override
+    public void onFailure(Throwable t) {
+      failed(t);
+    }
+
+    /**
+     * Called when this request failed to either schedule it for a retry or
+     * record the failure.
+     *
+     * @author paouelle
+     *
+     * @param t the failure
+     */
+    @SuppressWarnings("synthetic-access")
+    void failed(Throwable t) {
+      if ((attempts < retries)
+          && (error.get() == null)
+          && Boolean.TRUE.equals(statement.isIdempotent())
+          && BulkInsertImpl.isRetriable(t)) {
+        this.due = System.nanoTime() + (delay << Math.min(attempts, 20));
+        this.attempts++;
+        BulkInsertImpl.logger.debug("retrying bulk insert request after failure: %s", t);
+        pending.add(this); // keeps its permit until resubmitted
+        return;
+      }
+      numFailed.addAndGet(size);
+      error.compareAndSet(null, t);
+      permits.release();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see java.util.concurrent.Delayed#getDelay(java.util.concurrent.TimeUnit)
+     */
+    @Override
+    public long getDelay(TimeUnit unit) {
+      return unit.convert(due - System.nanoTime(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see java.lang.Comparable#compareTo(java.lang.Object)
+     */
+    @Override
+    public int compareTo(Delayed o) {
+      return Long.compare(
+        getDelay(TimeUnit.NANOSECONDS), o.getDelay(TimeUnit.NANOSECONDS)
+      );
+    }
+  }
+
+  /**
+   * The <code>ProgressImpl</code> class provides an immutable snapshot of the
+   * progress of a bulk insert.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 12, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  private static class ProgressImpl implements Progress {
+    /**
+     * Holds the progress counters.
+     *
+     * @author paouelle
+     */
+    private final long objects, statements, completed, failed, requests, retries;
+
+    /**
+     * Holds the number of requests in flight.
+     *
+     * @author paouelle
+     */
+    private final int inflight;
+
+    /**
+     * Holds the elapsed time in nanoseconds.
+     *
+     * @author paouelle
+     */
+    private final long elapsed;
+
+    /**
+     * Holds a flag indicating if the bulk insert is done.
+     *
+     * @author paouelle
+     */
+    private final boolean done;
+
+    /**
+     * Instantiates a new <code>ProgressImpl</code> object.
+     *
+     * @author paouelle
+     *
+     * @param objects the number of POJOs pulled
+     * @param statements the number of statements built
+     * @param completed the number of statements completed
+     * @param failed the number of statements failed
+     * @param requests the number of requests sent
+     * @param retries the number of retries
+     * @param inflight the number of requests in flight
+     * @param elapsed the elapsed time in nanoseconds
+     * @param done <code>true</code> if the bulk insert is done
+     */
+    ProgressImpl(
+      long objects,
+      long statements,
+      long completed,
+      long failed,
+      long requests,
+      long retries,
+      int inflight,
+      long elapsed,
+      boolean done
+    ) {
+      this.objects = objects;
+      this.statements = statements;
+      this.completed = completed;
+      this.failed = failed;
+      this.requests = requests;
+      this.retries = retries;
+      this.inflight = inflight;
+      this.elapsed = elapsed;
+      this.done = done;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.driver.BulkInsert.Progress#getObjects()
+     */
+    @Override
+    public long getObjects() {
+      return objects;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.driver.BulkInsert.Progress#getStatements()
+     */
+    @Override
+    public long getStatements() {
+      return statements;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.driver.BulkInsert.Progress#getCompleted()
+     */
+    @Override
+    public long getCompleted() {
+      return completed;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.driver.BulkInsert.Progress#getFailed()
+     */
+    @Override
+    public long getFailed() {
+      return failed;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.driver.BulkInsert.Progress#getRequests()
+     */
+    @Override
+    public long getRequests() {
+      return requests;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.driver.BulkInsert.Progress#getRetries()
+     */
+    @Override
+    public long getRetries() {
+      return retries;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.driver.BulkInsert.Progress#getInflight()
+     */
+    @Override
+    public int getInflight() {
+      return inflight;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.driver.BulkInsert.Progress#getElapsed(java.util.concurrent.TimeUnit)
+     */
+    @Override
+    public long getElapsed(TimeUnit unit) {
+      return unit.convert(elapsed, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.driver.BulkInsert.Progress#getThroughput()
+     */
+    @Override
+    public double getThroughput() {
+      return (elapsed > 0L) ? completed * 1.0E9D / elapsed : 0.0D;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.driver.BulkInsert.Progress#isDone()
+     */
+    @Override
+    public boolean isDone() {
+      return done;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see java.lang.Object#toString()
+     */
+    @Override
+    public String toString() {
+      return String.format(
+        "%d objects, %d/%d statements completed, %d failed, %d requests, "
+        + "%d retries, %d in flight, %.1f statements/s",
+        objects,
+        completed,
+        statements,
+        failed,
+        requests,
+        retries,
+        inflight,
+        getThroughput()
+      );
+    }
+  }
+}
@@ -38,6 +38,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 import org.apache.commons.lang3.ArrayUtils;
@@ -64,6 +65,7 @@ import org.helenus.driver.persistence.Entity;
 import org.helenus.driver.persistence.InitialObjects;
 import org.helenus.driver.persistence.Keyspace;
 import org.helenus.driver.persistence.KeyspaceKey;
+import org.helenus.driver.persistence.OmitNulls;
 import org.helenus.driver.persistence.Table;
 import org.helenus.driver.persistence.UDTEntity;
 import org.helenus.driver.persistence.UDTRootEntity;
@@ -223,7 +225,12 @@ public class ClassInfoImpl<T> implements ClassInfo<T> {
      */
     @Override
     public T getObject(Row row) {
-      return ClassInfoImpl.this.getObject(row, keyspaceKeys);
+      final T object = ClassInfoImpl.this.getObject(row, keyspaceKeys);
+
+      if ((object != null) && mgr.isSnapshotsEnabled()) {
+        mgr.snapshot(ClassInfoImpl.this.newContext(object));
+      }
+      return object;
     }
 
     /**
@@ -366,6 +373,43 @@ public class ClassInfoImpl<T> implements ClassInfo<T> {
       return table.getColumnValues(getKeyspace(), object);
     }
 
+    /**
+     * Retrieves all columns and their values from the POJO and the specified
+     * table for each row that must be written to the table. Case insensitive
+     * keys get an additional lower case column and multi-keys generate a
+     * separate row for each combination of their values. Nothing is reported
+     * if the POJO has an empty optional primary key.
+     * <p>
+     * <i>Note:</i> The same map instance might be passed to the consumer for
+     * each row; it should be copied if it needs to be retained.
+     *
+     * @author paouelle
+     *
+     * @param  tname the name of the table from which to retrieve columns
+     * @param  consumer the consumer to call with the column/value pairs of
+     *         each row
+     * @throws IllegalArgumentException if a mandatory column is missing from the POJO
+     */
+    public void forEachRowColumnValues(
+      String tname,
+      Consumer<Map<String, Triple<Object, CQLDataType, TypeCodec<?>>>> consumer
+    ) {
+      final TableInfoImpl<T> table = (TableInfoImpl<T>)getTable(tname);
+
+      if (table == null) { // table not defined so nothing to report
+        return;
+      }
+      final String keyspace = getKeyspace();
+      final Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> columns;
+
+      try {
+        columns = table.getColumnValues(keyspace, object);
+      } catch (EmptyOptionalPrimaryKeyException e) {
+        return;
+      }
+      table.forEachRowColumnValues(keyspace, columns, consumer);
+    }
+
     /**
      * Retrieves all partition key columns and their values from the POJO and the
      * specified table.
@@ -698,6 +742,14 @@ public class ClassInfoImpl<T> implements ClassInfo<T> {
    */
   private final Keyspace keyspace;
 
+  /**
+   * Flag indicating if non-mandatory columns with <code>null</code> values
+   * should be omitted when inserting POJOs of this class.
+   *
+   * @author paouelle
+   */
+  private final boolean omitNulls;
+
   /**
    * Holds the table information defined for the POJO.
    *
@@ -771,6 +823,7 @@ public class ClassInfoImpl<T> implements ClassInfo<T> {
     this.constructor = findDefaultCtor(entityAnnotationClass);
     this.finalFields = findFinalFields();
     this.keyspace = findKeyspace();
+    this.omitNulls = clazz.isAnnotationPresent(OmitNulls.class);
     this.primary = findTables(mgr);
     findColumns();
     findKeyspaceKeys();
@@ -814,6 +867,7 @@ public class ClassInfoImpl<T> implements ClassInfo<T> {
     this.constructor = cinfo.constructor;
     this.finalFields = cinfo.finalFields;
     this.keyspace = cinfo.keyspace;
+    this.omitNulls = cinfo.omitNulls;
     this.primary = cinfo.primary;
     this.columns = cinfo.columns;
     this.initials = cinfo.initials;
@@ -1194,10 +1248,8 @@ public class ClassInfoImpl<T> implements ClassInfo<T> {
    */
   private void findColumns() {
     // make sure to walk up the class hierarchy
-    for (final Map.Entry<Field, Column[]> e: ReflectionUtils.getAllAnnotationsForFieldsAnnotatedWith(
-      clazz, Column.class, true
-    ).entrySet()) {
-      for (final Column column: e.getValue()) {
+    for (final Field f: mgr.getColumnFields(clazz)) {
+      for (final Column column: f.getAnnotationsByType(Column.class)) {
         columns.add(column.name());
       }
     }
@@ -1252,9 +1304,7 @@ public class ClassInfoImpl<T> implements ClassInfo<T> {
         getEntityAnnotationClass().getSimpleName()
       );
       // make sure to walk up the class hierarchy
-      for (final Field f: ReflectionUtils.getAllFieldsAnnotatedWith(
-        clazz, KeyspaceKey.class, true
-      )) {
+      for (final Field f: mgr.getKeyspaceKeyFields(clazz)) {
         final FieldInfoImpl<T> field = new FieldInfoImpl<>(this, f);
         final KeyspaceKey key = field.getKeyspaceKey();
 
@@ -1460,6 +1510,20 @@ public class ClassInfoImpl<T> implements ClassInfo<T> {
     return true;
   }
 
+  /**
+   * Checks if non-mandatory columns with <code>null</code> values should be
+   * omitted when inserting POJOs of this class.
+   *
+   * @author paouelle
+   *
+   * @return <code>true</code> if <code>null</code> columns should be omitted
+   *         on inserts; <code>false</code> if they should be inserted as
+   *         <code>null</code>
+   */
+  public boolean areNullsOmitted() {
+    return omitNulls;
+  }
+
   /**
    * Gets all classes (including type classes if this is a root class) for
    * the POJO represented by this class info object.
@@ -1904,6 +1968,63 @@ public class ClassInfoImpl<T> implements ClassInfo<T> {
     field.validateValue(value);
   }
 
+  /**
+   * Instantiates an empty shell for the POJO where only the final fields are
+   * set back to their default values.
+   *
+   * @author paouelle
+   *
+   * @return a new blank POJO
+   * @throws IllegalAccessException if the serialization constructor is not
+   *         accessible
+   * @throws InstantiationException if the POJO class is abstract
+   * @throws InvocationTargetException if the serialization constructor
+   *         throws an exception
+   */
+  protected T newBlankObject()
+    throws IllegalAccessException, InstantiationException, InvocationTargetException {
+    final T object = constructor.newInstance();
+
+    // start by setting back all final fields' values
+    finalFields.forEach(
+      (field, value) -> {
+        try {
+          // set it in field directly
+          field.set(object, value);
+        } catch (IllegalAccessException e) { // should not happen
+          throw new IllegalStateException(e);
+        }
+      }
+    );
+    return object;
+  }
+
+  /**
+   * Instantiates a new POJO where only the final fields are initialized and
+   * all other fields are left to their Java default values.
+   *
+   * @author paouelle
+   *
+   * @return a new blank POJO
+   * @throws IllegalStateException if unable to instantiate the POJO
+   */
+  public T newObject() {
+    try {
+      return newBlankObject();
+    } catch (IllegalAccessException|InstantiationException e) {
+      throw new IllegalStateException(clazz.getName(), e);
+    } catch (InvocationTargetException e) {
+      final Throwable t = e.getTargetException();
+
+      if (t instanceof Error) {
+        throw (Error)t;
+      } else if (t instanceof RuntimeException) {
+        throw (RuntimeException)t;
+      }
+      throw new IllegalStateException(clazz.getName(), t);
+    }
+  }
+
   /**
    * Converts the specified result row into a POJO object defined by this
    * class information and keyspace key map.
@@ -1923,20 +2044,8 @@ public class ClassInfoImpl<T> implements ClassInfo<T> {
     }
     org.apache.commons.lang3.Validate.notNull(keyspaceKeys, "invalid null keyspace keys");
     try {
-      // create an empty shell for the pojo
-      final T object = constructor.newInstance();
-
-      // start by setting back all final fields' values
-      finalFields.forEach(
-        (field, value) -> {
-          try {
-            // set it in field directly
-            field.set(object, value);
-          } catch (IllegalAccessException e) { // should not happen
-            throw new IllegalStateException(e);
-          }
-        }
-      );
+      // create an empty shell for the pojo with all final fields' values set back
+      final T object = newBlankObject();
       // now set keyspace keys back into pojo
       setKeyspaceKeyFields(object, row, this.keyspaceKeysByName, keyspaceKeys);
       // now take care of the columns
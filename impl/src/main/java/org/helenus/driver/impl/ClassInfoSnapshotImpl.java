@@ -0,0 +1,1215 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.impl;
+
+import java.lang.reflect.Field;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+
+import java.net.JarURLConnection;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.net.URLConnection;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.jar.JarEntry;
+import java.util.stream.Collectors;
+
+import java.nio.ByteBuffer;
+
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.helenus.driver.persistence.CQLDataType;
+import org.helenus.driver.persistence.DataType;
+
+/**
+ * The <code>ClassInfoSnapshotImpl</code> class provides a persistent snapshot
+ * of the metadata derived from POJO classes when building their class info
+ * structures such that it doesn't have to be derived again using reflection
+ * the next time the JVM starts.
+ * <p>
+ * The snapshot records for each POJO class the layout of its column and
+ * keyspace key fields, for each of its tables the column fields along with
+ * the order of the primary keys and which keys are multi-keys or case
+ * insensitive, and for each column field its data type definition. Each entry
+ * is keyed by a stamp of the bytecode of the classes it was derived from
+ * (i.e. the CRC and size recorded in the jar or the modification time and
+ * size of the class file); entries for classes that have changed since are
+ * ignored and derived again from reflection.
+ * <p>
+ * The file format is versioned; a snapshot written by a different version is
+ * simply discarded.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public final class ClassInfoSnapshotImpl {
+  /**
+   * Holds the logger.
+   *
+   * @author paouelle
+   */
+  private final static Logger logger = LogManager.getFormatterLogger(ClassInfoSnapshotImpl.class);
+
+  /**
+   * Holds the magic number identifying a snapshot file.
+   *
+   * @author paouelle
+   */
+  private final static int MAGIC = 0x48435331; // HCS1
+
+  /**
+   * Holds the version of the snapshot format.
+   *
+   * @author paouelle
+   */
+  private final static int VERSION = 2;
+
+  /**
+   * Holds the tag identifying a standard data type in a definition.
+   *
+   * @author paouelle
+   */
+  private final static char DATA_TYPE = 'D';
+
+  /**
+   * Holds the tag identifying a user-defined type in a definition.
+   *
+   * @author paouelle
+   */
+  private final static char UDT = 'U';
+
+  /**
+   * Holds the stamp used to flag classes whose bytecode is not available.
+   *
+   * @author paouelle
+   */
+  private final static byte[] NO_STAMP = new byte[0];
+
+  /**
+   * Computes a stamp for the bytecode of a given class. The stamp is based on
+   * the CRC and size recorded in the jar for the class or on the modification
+   * time and size of the class file such that the bytecode never has to be
+   * read. Bytecode loaded from elsewhere is hashed instead.
+   *
+   * @author paouelle
+   *
+   * @param  clazz the class for which to compute a stamp
+   * @return the corresponding stamp or {@link #NO_STAMP} if the bytecode for
+   *         the class is not available
+   */
+  private static byte[] stamp(Class<?> clazz) {
+    final ClassLoader cl = (
+      (clazz.getClassLoader() != null)
+      ? clazz.getClassLoader()
+      : ClassLoader.getSystemClassLoader()
+    );
+    final URL url = cl.getResource(clazz.getName().replace('.', '/') + ".class");
+
+    if (url == null) {
+      return ClassInfoSnapshotImpl.NO_STAMP;
+    }
+    try {
+      if ("file".equals(url.getProtocol())) {
+        final File f = new File(url.toURI());
+
+        return ByteBuffer.allocate(16)
+          .putLong(f.lastModified())
+          .putLong(f.length())
+          .array();
+      }
+      final URLConnection c = url.openConnection();
+
+      if (c instanceof JarURLConnection) { // does not read the entry itself
+        final JarEntry e = ((JarURLConnection)c).getJarEntry();
+
+        if ((e != null) && (e.getCrc() != -1L)) {
+          return ByteBuffer.allocate(16)
+            .putLong(e.getCrc())
+            .putLong(e.getSize())
+            .array();
+        }
+      }
+      return ClassInfoSnapshotImpl.hash(c);
+    } catch (IOException|URISyntaxException|IllegalArgumentException e) {
+      return ClassInfoSnapshotImpl.NO_STAMP;
+    }
+  }
+
+  /**
+   * Computes the hash of the bytecode read from a given connection.
+   *
+   * @author paouelle
+   *
+   * @param  c the connection to the bytecode of a class
+   * @return the corresponding hash or {@link #NO_STAMP} if the bytecode
+   *         cannot be read
+   * @throws IOException if an I/O error occurs while reading the bytecode
+   */
+  private static byte[] hash(URLConnection c) throws IOException {
+    try (final InputStream is = c.getInputStream()) {
+      final MessageDigest md = MessageDigest.getInstance("SHA-1");
+      final byte[] buf = new byte[8192];
+      int n;
+
+      while ((n = is.read(buf)) != -1) {
+        md.update(buf, 0, n);
+      }
+      return md.digest();
+    } catch (NoSuchAlgorithmException e) {
+      return ClassInfoSnapshotImpl.NO_STAMP;
+    }
+  }
+
+  /**
+   * Resolves the specified fields against the actual class hierarchy.
+   *
+   * @author paouelle
+   *
+   * @param  hierarchy the classes in the hierarchy keyed by their names
+   * @param  fields the declaring class and field names to resolve
+   * @return the list of all resolved fields or <code>null</code> if one of
+   *         them no longer exists
+   */
+  private static List<Field> resolve(
+    Map<String, Class<?>> hierarchy, List<String[]> fields
+  ) {
+    final List<Field> resolved = new ArrayList<>(fields.size());
+
+    for (final String[] f: fields) {
+      final Class<?> c = hierarchy.get(f[0]);
+
+      if (c == null) {
+        return null;
+      }
+      try {
+        resolved.add(c.getDeclaredField(f[1]));
+      } catch (NoSuchFieldException e) {
+        return null;
+      }
+    }
+    return resolved;
+  }
+
+  /**
+   * Gets the declaring class and field names for the specified fields.
+   *
+   * @author paouelle
+   *
+   * @param  fields the fields
+   * @return the corresponding list of declaring class and field names
+   */
+  private static List<String[]> namesOf(Collection<Field> fields) {
+    final List<String[]> names = new ArrayList<>(fields.size());
+
+    for (final Field f: fields) {
+      names.add(new String[] { f.getDeclaringClass().getName(), f.getName() });
+    }
+    return names;
+  }
+
+  /**
+   * Gets the column names for the specified column fields.
+   *
+   * @author paouelle
+   *
+   * @param  fields the column fields
+   * @return the corresponding list of column names
+   */
+  private static List<String> columnNamesOf(Collection<? extends FieldInfoImpl<?>> fields) {
+    return fields.stream()
+      .map(FieldInfoImpl::getColumnName)
+      .collect(Collectors.toList());
+  }
+
+  /**
+   * The <code>TableLayout</code> class keeps track of the layout of a table
+   * for a POJO class.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 18, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  public static final class TableLayout {
+    /**
+     * Holds the declaring class and field names for all fields annotated as
+     * columns for the table in the order they were found.
+     *
+     * @author paouelle
+     */
+    private final List<String[]> columns;
+
+    /**
+     * Holds the names of the partition key columns in order.
+     *
+     * @author paouelle
+     */
+    private final List<String> partitionKeys;
+
+    /**
+     * Holds the names of the clustering key columns in order.
+     *
+     * @author paouelle
+     */
+    private final List<String> clusteringKeys;
+
+    /**
+     * Holds the names of the multi-key columns.
+     *
+     * @author paouelle
+     */
+    private final List<String> multiKeys;
+
+    /**
+     * Holds the names of the case insensitive key columns.
+     *
+     * @author paouelle
+     */
+    private final List<String> caseInsensitiveKeys;
+
+    /**
+     * Instantiates a new <code>TableLayout</code> object.
+     *
+     * @author paouelle
+     *
+     * @param columns the column fields
+     * @param partitionKeys the partition key column names in order
+     * @param clusteringKeys the clustering key column names in order
+     * @param multiKeys the multi-key column names
+     * @param caseInsensitiveKeys the case insensitive key column names
+     */
+    TableLayout(
+      List<String[]> columns,
+      List<String> partitionKeys,
+      List<String> clusteringKeys,
+      List<String> multiKeys,
+      List<String> caseInsensitiveKeys
+    ) {
+      this.columns = columns;
+      this.partitionKeys = partitionKeys;
+      this.clusteringKeys = clusteringKeys;
+      this.multiKeys = multiKeys;
+      this.caseInsensitiveKeys = caseInsensitiveKeys;
+    }
+
+    /**
+     * Gets all fields annotated as columns for the table in the order they
+     * were found.
+     *
+     * @author paouelle
+     *
+     * @param  clazz the POJO class
+     * @return the list of column fields or <code>null</code> if one of them
+     *         no longer exists
+     */
+    public List<Field> getColumnFields(Class<?> clazz) {
+      return ClassInfoSnapshotImpl.resolve(
+        ClassInfoSnapshotImpl.hierarchyOf(clazz), columns
+      );
+    }
+
+    /**
+     * Gets the names of the partition key columns in order.
+     *
+     * @author paouelle
+     *
+     * @return the non-<code>null</code> partition key column names
+     */
+    public List<String> getPartitionKeys() {
+      return partitionKeys;
+    }
+
+    /**
+     * Gets the names of the clustering key columns in order.
+     *
+     * @author paouelle
+     *
+     * @return the non-<code>null</code> clustering key column names
+     */
+    public List<String> getClusteringKeys() {
+      return clusteringKeys;
+    }
+
+    /**
+     * Checks if the multi-key and case insensitive key columns recorded in
+     * this layout match the ones derived for a given table.
+     *
+     * @author paouelle
+     *
+     * @param  tinfo the table derived from this layout
+     * @return <code>true</code> if they match; <code>false</code> otherwise
+     */
+    public boolean matches(TableInfoImpl<?> tinfo) {
+      return multiKeys.equals(ClassInfoSnapshotImpl.columnNamesOf(tinfo.getMultiKeys()))
+        && caseInsensitiveKeys.equals(
+             ClassInfoSnapshotImpl.columnNamesOf(tinfo.getCaseInsensitiveKeys())
+           );
+    }
+  }
+
+  /**
+   * The <code>Layout</code> class keeps track of the field layout of a POJO
+   * class.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 18, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  private static final class Layout {
+    /**
+     * Holds the names of all classes in the hierarchy from which the layout
+     * was derived.
+     *
+     * @author paouelle
+     */
+    private final List<String> hierarchy;
+
+    /**
+     * Holds the declaring class and field names for all column fields or
+     * <code>null</code> if not recorded yet.
+     *
+     * @author paouelle
+     */
+    private volatile List<String[]> columns;
+
+    /**
+     * Holds the declaring class and field names for all keyspace key fields
+     * or <code>null</code> if not recorded yet.
+     *
+     * @author paouelle
+     */
+    private volatile List<String[]> keyspaceKeys;
+
+    /**
+     * Holds the layouts of the tables keyed by their names.
+     *
+     * @author paouelle
+     */
+    private final Map<String, TableLayout> tables = new ConcurrentHashMap<>(4);
+
+    /**
+     * Instantiates a new <code>Layout</code> object.
+     *
+     * @author paouelle
+     *
+     * @param hierarchy the names of all classes in the hierarchy
+     * @param columns the column fields or <code>null</code>
+     * @param keyspaceKeys the keyspace key fields or <code>null</code>
+     */
+    Layout(
+      List<String> hierarchy, List<String[]> columns, List<String[]> keyspaceKeys
+    ) {
+      this.hierarchy = hierarchy;
+      this.columns = columns;
+      this.keyspaceKeys = keyspaceKeys;
+    }
+  }
+
+  /**
+   * Holds the snapshot file.
+   *
+   * @author paouelle
+   */
+  private final File file;
+
+  /**
+   * Holds the recorded stamps keyed by class names.
+   *
+   * @author paouelle
+   */
+  private final Map<String, byte[]> stamps = new ConcurrentHashMap<>(256);
+
+  /**
+   * Holds the current stamps computed so far keyed by class names.
+   *
+   * @author paouelle
+   */
+  private final Map<String, byte[]> current = new ConcurrentHashMap<>(256);
+
+  /**
+   * Holds the field layouts keyed by POJO class names.
+   *
+   * @author paouelle
+   */
+  private final Map<String, Layout> layouts = new ConcurrentHashMap<>(256);
+
+  /**
+   * Holds the data type definitions for column fields as the types names
+   * prefixed by the frozen flag keyed by their declaring class and field
+   * names.
+   *
+   * @author paouelle
+   */
+  private final Map<String, String[]> definitions = new ConcurrentHashMap<>(1024);
+
+  /**
+   * Holds the number of lookups answered from the snapshot.
+   *
+   * @author paouelle
+   */
+  private final LongAdder hits = new LongAdder();
+
+  /**
+   * Holds the number of lookups which had to fall back to reflection.
+   *
+   * @author paouelle
+   */
+  private final LongAdder misses = new LongAdder();
+
+  /**
+   * Flag indicating if the snapshot was modified since it was loaded or last
+   * saved.
+   *
+   * @author paouelle
+   */
+  private volatile boolean dirty = false;
+
+  /**
+   * Instantiates a new <code>ClassInfoSnapshotImpl</code> object and loads
+   * the specified snapshot file if it exists.
+   *
+   * @author paouelle
+   *
+   * @param  file the non-<code>null</code> snapshot file
+   * @throws IOException if an I/O error occurs while loading the snapshot
+   */
+  ClassInfoSnapshotImpl(File file) throws IOException {
+    this.file = file;
+    if (file.exists()) {
+      try (
+        final DataInputStream in = new DataInputStream(
+          new BufferedInputStream(new FileInputStream(file))
+        );
+      ) {
+        load(in);
+      } catch (EOFException|IllegalArgumentException e) {
+        logger.warn("ignoring corrupted class info snapshot: %s", file);
+        clear();
+      }
+    }
+  }
+
+  /**
+   * Loads the snapshot from the specified input stream.
+   *
+   * @author paouelle
+   *
+   * @param  in the input stream from which to load the snapshot
+   * @throws IOException if an I/O error occurs while loading the snapshot
+   */
+  private void load(DataInputStream in) throws IOException {
+    final int magic = in.readInt();
+    final int version = in.readInt();
+
+    if ((magic != ClassInfoSnapshotImpl.MAGIC) || (version != ClassInfoSnapshotImpl.VERSION)) {
+      logger.info("ignoring incompatible class info snapshot: %s", file);
+      this.dirty = true;
+      return;
+    }
+    for (int i = in.readInt(); i > 0; i--) {
+      final String name = in.readUTF();
+      final byte[] stamp = new byte[in.readUnsignedShort()];
+
+      in.readFully(stamp);
+      stamps.put(name, stamp);
+      for (int j = in.readInt(); j > 0; j--) {
+        final String field = in.readUTF();
+        final String[] types = new String[in.readUnsignedByte()];
+
+        for (int k = 0; k < types.length; k++) {
+          types[k] = in.readUTF();
+        }
+        definitions.put(name + '#' + field, types);
+      }
+    }
+    for (int i = in.readInt(); i > 0; i--) {
+      final String name = in.readUTF();
+      final List<String> hierarchy = new ArrayList<>(4);
+
+      for (int j = in.readInt(); j > 0; j--) {
+        hierarchy.add(in.readUTF());
+      }
+      final Layout layout = new Layout(hierarchy, readFields(in), readFields(in));
+
+      for (int j = in.readInt(); j > 0; j--) {
+        final String table = in.readUTF();
+        final List<String[]> columns = readFields(in);
+
+        if (columns == null) {
+          throw new IllegalArgumentException("missing table columns");
+        }
+        layout.tables.put(table, new TableLayout(
+          columns, readNames(in), readNames(in), readNames(in), readNames(in)
+        ));
+      }
+      layouts.put(name, layout);
+    }
+  }
+
+  /**
+   * Reads a list of fields from the specified input stream.
+   *
+   * @author paouelle
+   *
+   * @param  in the input stream from which to read fields
+   * @return the corresponding list of declaring class and field names or
+   *         <code>null</code> if none were recorded
+   * @throws IOException if an I/O error occurs while reading
+   */
+  private static List<String[]> readFields(DataInputStream in) throws IOException {
+    final int n = in.readInt();
+
+    if (n < 0) {
+      return null;
+    }
+    final List<String[]> fields = new ArrayList<>(n);
+
+    for (int i = 0; i < n; i++) {
+      fields.add(new String[] { in.readUTF(), in.readUTF() });
+    }
+    return fields;
+  }
+
+  /**
+   * Writes a list of fields to the specified output stream.
+   *
+   * @author paouelle
+   *
+   * @param  out the output stream where to write
+   * @param  fields the declaring class and field names to write or
+   *         <code>null</code> if none were recorded
+   * @throws IOException if an I/O error occurs while writing
+   */
+  private static void writeFields(DataOutputStream out, List<String[]> fields)
+    throws IOException {
+    if (fields == null) {
+      out.writeInt(-1);
+      return;
+    }
+    out.writeInt(fields.size());
+    for (final String[] f: fields) {
+      out.writeUTF(f[0]);
+      out.writeUTF(f[1]);
+    }
+  }
+
+  /**
+   * Reads a list of names from the specified input stream.
+   *
+   * @author paouelle
+   *
+   * @param  in the input stream from which to read names
+   * @return the corresponding list of names
+   * @throws IOException if an I/O error occurs while reading
+   */
+  private static List<String> readNames(DataInputStream in) throws IOException {
+    final int n = in.readUnsignedShort();
+    final List<String> names = new ArrayList<>(n);
+
+    for (int i = 0; i < n; i++) {
+      names.add(in.readUTF());
+    }
+    return names;
+  }
+
+  /**
+   * Writes a list of names to the specified output stream.
+   *
+   * @author paouelle
+   *
+   * @param  out the output stream where to write
+   * @param  names the names to write
+   * @throws IOException if an I/O error occurs while writing
+   */
+  private static void writeNames(DataOutputStream out, List<String> names)
+    throws IOException {
+    out.writeShort(names.size());
+    for (final String n: names) {
+      out.writeUTF(n);
+    }
+  }
+
+  /**
+   * Checks if the bytecode of a given class is unchanged since it was recorded
+   * in this snapshot.
+   *
+   * @author paouelle
+   *
+   * @param  clazz the class to check
+   * @return <code>true</code> if the class is unchanged; <code>false</code>
+   *         otherwise
+   */
+  private boolean isUnchanged(Class<?> clazz) {
+    final byte[] stamp = stamps.get(clazz.getName());
+
+    if (stamp == null) {
+      return false;
+    }
+    final byte[] cstamp = current.computeIfAbsent(
+      clazz.getName(), n -> ClassInfoSnapshotImpl.stamp(clazz)
+    );
+
+    if ((cstamp.length != 0) && Arrays.equals(stamp, cstamp)) {
+      return true;
+    }
+    forget(clazz.getName());
+    return false;
+  }
+
+  /**
+   * Forgets everything recorded about a class which has changed.
+   *
+   * @author paouelle
+   *
+   * @param name the name of the class to forget
+   */
+  private void forget(String name) {
+    stamps.remove(name);
+    definitions.keySet().removeIf(k -> k.startsWith(name + '#'));
+    layouts.values().removeIf(l -> l.hierarchy.contains(name));
+    this.dirty = true;
+  }
+
+  /**
+   * Records the current stamp of a given class.
+   *
+   * @author paouelle
+   *
+   * @param  clazz the class to record
+   * @return <code>true</code> if the class was recorded; <code>false</code>
+   *         if its bytecode is not available
+   */
+  private boolean record(Class<?> clazz) {
+    final byte[] cstamp = current.computeIfAbsent(
+      clazz.getName(), n -> ClassInfoSnapshotImpl.stamp(clazz)
+    );
+
+    if (cstamp.length == 0) {
+      return false;
+    }
+    final byte[] stamp = stamps.get(clazz.getName());
+
+    if ((stamp != null) && !Arrays.equals(stamp, cstamp)) {
+      forget(clazz.getName());
+    }
+    stamps.put(clazz.getName(), cstamp);
+    return true;
+  }
+
+  /**
+   * Gets the class hierarchy for a given POJO class as recorded in snapshots.
+   *
+   * @author paouelle
+   *
+   * @param  clazz the POJO class
+   * @return the non-<code>null</code> map of classes in the hierarchy keyed
+   *         by their names
+   */
+  private static Map<String, Class<?>> hierarchyOf(Class<?> clazz) {
+    final Map<String, Class<?>> hierarchy = new HashMap<>(8);
+
+    for (Class<?> c = clazz; c != null; c = c.getSuperclass()) {
+      if (c.getName().startsWith("java.")) {
+        break;
+      }
+      hierarchy.put(c.getName(), c);
+    }
+    return hierarchy;
+  }
+
+  /**
+   * Gets the layout recorded for a given POJO class provided none of the
+   * classes in its hierarchy has changed since it was recorded.
+   *
+   * @author paouelle
+   *
+   * @param  clazz the POJO class
+   * @param  hierarchy the actual class hierarchy of the POJO class
+   * @return the corresponding layout or <code>null</code> if not recorded or
+   *         if the class hierarchy has changed since it was recorded
+   */
+  private Layout layoutOf(Class<?> clazz, Map<String, Class<?>> hierarchy) {
+    final Layout layout = layouts.get(clazz.getName());
+
+    if (layout == null) {
+      return null;
+    }
+    if (!hierarchy.keySet().equals(new HashSet<>(layout.hierarchy))
+        || !hierarchy.values().stream().allMatch(this::isUnchanged)) {
+      layouts.remove(clazz.getName());
+      this.dirty = true;
+      return null;
+    }
+    return layout;
+  }
+
+  /**
+   * Resolves the recorded fields against the actual class hierarchy.
+   *
+   * @author paouelle
+   *
+   * @param  clazz the POJO class for which to resolve fields
+   * @param  which the function retrieving the fields to resolve from the
+   *         layout
+   * @return the list of all resolved fields or <code>null</code> if not
+   *         recorded or if the class hierarchy has changed since it was recorded
+   */
+  private List<Field> resolve(
+    Class<?> clazz, Function<Layout, List<String[]>> which
+  ) {
+    final Map<String, Class<?>> hierarchy = ClassInfoSnapshotImpl.hierarchyOf(clazz);
+    final Layout layout = layoutOf(clazz, hierarchy);
+    final List<String[]> fields = (layout != null) ? which.apply(layout) : null;
+
+    if (fields == null) {
+      misses.increment();
+      return null;
+    }
+    final List<Field> resolved = ClassInfoSnapshotImpl.resolve(hierarchy, fields);
+
+    if (resolved == null) {
+      layouts.remove(clazz.getName());
+      this.dirty = true;
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return resolved;
+  }
+
+  /**
+   * Gets the layout for a given POJO class in order to record information
+   * about it, creating it if required.
+   *
+   * @author paouelle
+   *
+   * @param  clazz the POJO class
+   * @return the corresponding layout or <code>null</code> if the POJO class
+   *         cannot be recorded as the bytecode for one of the classes in its
+   *         hierarchy is not available
+   */
+  private Layout record(Class<?> clazz, Map<String, Class<?>> hierarchy) {
+    if (!hierarchy.values().stream().allMatch(this::record)) {
+      return null; // cannot snapshot classes without bytecode
+    }
+    this.dirty = true;
+    return layouts.compute(clazz.getName(), (n, layout) -> {
+      if ((layout == null) || !hierarchy.keySet().equals(new HashSet<>(layout.hierarchy))) {
+        layout = new Layout(new ArrayList<>(hierarchy.keySet()), null, null);
+      }
+      return layout;
+    });
+  }
+
+  /**
+   * Gets the column fields recorded for a given POJO class in top-down
+   * hierarchy order.
+   *
+   * @author paouelle
+   *
+   * @param  clazz the POJO class
+   * @return the list of column fields or <code>null</code> if not recorded
+   *         or out of date
+   */
+  public List<Field> getColumnFields(Class<?> clazz) {
+    return resolve(clazz, l -> l.columns);
+  }
+
+  /**
+   * Gets the keyspace key fields recorded for a given POJO class in top-down
+   * hierarchy order.
+   *
+   * @author paouelle
+   *
+   * @param  clazz the POJO class
+   * @return the list of keyspace key fields or <code>null</code> if not
+   *         recorded or out of date
+   */
+  public List<Field> getKeyspaceKeyFields(Class<?> clazz) {
+    return resolve(clazz, l -> l.keyspaceKeys);
+  }
+
+  /**
+   * Records the column fields for a given POJO class.
+   *
+   * @author paouelle
+   *
+   * @param clazz the POJO class
+   * @param fields the column fields in top-down hierarchy order
+   */
+  public void recordColumnFields(Class<?> clazz, List<Field> fields) {
+    final Layout layout = record(clazz, ClassInfoSnapshotImpl.hierarchyOf(clazz));
+
+    if (layout != null) {
+      layout.columns = ClassInfoSnapshotImpl.namesOf(fields);
+    }
+  }
+
+  /**
+   * Records the keyspace key fields for a given POJO class.
+   *
+   * @author paouelle
+   *
+   * @param clazz the POJO class
+   * @param fields the keyspace key fields in top-down hierarchy order
+   */
+  public void recordKeyspaceKeyFields(Class<?> clazz, List<Field> fields) {
+    final Layout layout = record(clazz, ClassInfoSnapshotImpl.hierarchyOf(clazz));
+
+    if (layout != null) {
+      layout.keyspaceKeys = ClassInfoSnapshotImpl.namesOf(fields);
+    }
+  }
+
+  /**
+   * Gets the layout recorded for a given table of a POJO class.
+   *
+   * @author paouelle
+   *
+   * @param  clazz the POJO class
+   * @param  table the name of the table
+   * @return the corresponding table layout or <code>null</code> if not
+   *         recorded or out of date
+   */
+  public TableLayout getTableLayout(Class<?> clazz, String table) {
+    final Layout layout = layoutOf(clazz, ClassInfoSnapshotImpl.hierarchyOf(clazz));
+    final TableLayout tlayout = (layout != null) ? layout.tables.get(table) : null;
+
+    if (tlayout == null) {
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return tlayout;
+  }
+
+  /**
+   * Records the layout of a given table of a POJO class.
+   *
+   * @author paouelle
+   *
+   * @param clazz the POJO class
+   * @param fields the fields annotated as columns for the table in the order
+   *        they were found
+   * @param tinfo the table derived from these fields
+   */
+  public void recordTableLayout(
+    Class<?> clazz, Collection<Field> fields, TableInfoImpl<?> tinfo
+  ) {
+    final Layout layout = record(clazz, ClassInfoSnapshotImpl.hierarchyOf(clazz));
+
+    if (layout != null) {
+      layout.tables.put(tinfo.getName(), new TableLayout(
+        ClassInfoSnapshotImpl.namesOf(fields),
+        ClassInfoSnapshotImpl.columnNamesOf(tinfo.getPartitionKeys()),
+        ClassInfoSnapshotImpl.columnNamesOf(tinfo.getClusteringKeys()),
+        ClassInfoSnapshotImpl.columnNamesOf(tinfo.getMultiKeys()),
+        ClassInfoSnapshotImpl.columnNamesOf(tinfo.getCaseInsensitiveKeys())
+      ));
+    }
+  }
+
+  /**
+   * Gets the data type definition recorded for a given column field.
+   *
+   * @author paouelle
+   *
+   * @param  mgr the non-<code>null</code> statement manager
+   * @param  field the column field
+   * @param  isFrozen <code>true</code> if the data type is frozen;
+   *         <code>false</code> otherwise
+   * @return the corresponding definition or <code>null</code> if not recorded
+   *         or out of date
+   */
+  public DataTypeImpl.Definition getDefinition(
+    StatementManagerImpl mgr, Field field, boolean isFrozen
+  ) {
+    final String key = field.getDeclaringClass().getName() + '#' + field.getName();
+    final String[] types = definitions.get(key);
+
+    if ((types == null)
+        || !Boolean.toString(isFrozen).equals(types[0])
+        || !isUnchanged(field.getDeclaringClass())) {
+      misses.increment();
+      return null;
+    }
+    final List<CQLDataType> ctypes = new ArrayList<>(types.length - 1);
+
+    try {
+      for (int i = 1; i < types.length; i++) {
+        final String type = types[i];
+
+        if (type.charAt(0) == ClassInfoSnapshotImpl.UDT) {
+          final Class<?> clazz = Class.forName(
+            type.substring(1), true, field.getDeclaringClass().getClassLoader()
+          );
+
+          ctypes.add((UDTClassInfoImpl<?>)mgr.getClassInfoImpl(clazz));
+        } else {
+          ctypes.add(DataType.valueOf(type.substring(1)));
+        }
+      }
+    } catch (ClassNotFoundException|ClassCastException|IllegalArgumentException e) {
+      definitions.remove(key);
+      this.dirty = true;
+      misses.increment();
+      return null;
+    }
+    hits.increment();
+    return new DataTypeImpl.Definition(mgr, ctypes, isFrozen);
+  }
+
+  /**
+   * Records the data type definition for a given column field.
+   *
+   * @author paouelle
+   *
+   * @param field the column field
+   * @param isFrozen <code>true</code> if the data type is frozen;
+   *        <code>false</code> otherwise
+   * @param definition the data type definition to record
+   */
+  public void recordDefinition(
+    Field field, boolean isFrozen, DataTypeImpl.Definition definition
+  ) {
+    final List<CQLDataType> ctypes = new ArrayList<>(4);
+
+    ctypes.add(definition.getMainType());
+    ctypes.addAll(definition.getArgumentTypes());
+    final String[] types = new String[ctypes.size() + 1];
+
+    types[0] = Boolean.toString(isFrozen);
+    for (int i = 0; i < ctypes.size(); i++) {
+      final CQLDataType type = ctypes.get(i);
+
+      if (type instanceof UDTClassInfoImpl) {
+        types[i + 1] = (
+          ClassInfoSnapshotImpl.UDT
+          + ((UDTClassInfoImpl<?>)type).getObjectClass().getName()
+        );
+      } else if (type instanceof DataType) {
+        types[i + 1] = ClassInfoSnapshotImpl.DATA_TYPE + ((DataType)type).name();
+      } else {
+        return; // unsupported so don't snapshot it
+      }
+    }
+    if (!record(field.getDeclaringClass())) {
+      return; // cannot snapshot classes without bytecode
+    }
+    definitions.put(
+      field.getDeclaringClass().getName() + '#' + field.getName(), types
+    );
+    this.dirty = true;
+  }
+
+  /**
+   * Gets the snapshot file.
+   *
+   * @author paouelle
+   *
+   * @return the snapshot file
+   */
+  public File getFile() {
+    return file;
+  }
+
+  /**
+   * Gets the number of POJO classes with layouts in this snapshot.
+   *
+   * @author paouelle
+   *
+   * @return the number of POJO classes in this snapshot
+   */
+  public int getNumClasses() {
+    return layouts.size();
+  }
+
+  /**
+   * Gets the number of lookups answered from this snapshot.
+   *
+   * @author paouelle
+   *
+   * @return the number of lookups answered from this snapshot
+   */
+  public long getHits() {
+    return hits.sum();
+  }
+
+  /**
+   * Gets the number of lookups which had to fall back to reflection.
+   *
+   * @author paouelle
+   *
+   * @return the number of lookups which had to fall back to reflection
+   */
+  public long getMisses() {
+    return misses.sum();
+  }
+
+  /**
+   * Checks if this snapshot was modified since it was loaded or last saved.
+   *
+   * @author paouelle
+   *
+   * @return <code>true</code> if modified; <code>false</code> otherwise
+   */
+  public boolean isDirty() {
+    return dirty;
+  }
+
+  /**
+   * Clears this snapshot.
+   *
+   * @author paouelle
+   */
+  public void clear() {
+    stamps.clear();
+    layouts.clear();
+    definitions.clear();
+    this.dirty = true;
+  }
+
+  /**
+   * Saves this snapshot to its file if it was modified. The snapshot is first
+   * written to a temporary file which then atomically replaces the previous
+   * one.
+   *
+   * @author paouelle
+   *
+   * @throws IOException if an I/O error occurs while saving the snapshot
+   */
+  public synchronized void save() throws IOException {
+    if (!dirty) {
+      return;
+    }
+    this.dirty = false;
+    final File tmp = new File(file.getPath() + ".tmp");
+
+    try (
+      final DataOutputStream out = new DataOutputStream(
+        new BufferedOutputStream(new FileOutputStream(tmp))
+      );
+    ) {
+      final Map<String, List<Map.Entry<String, String[]>>> defs = new HashMap<>(stamps.size() * 3 / 2);
+
+      for (final Map.Entry<String, String[]> e: definitions.entrySet()) {
+        final String key = e.getKey();
+        final int i = key.indexOf('#');
+
+        defs.computeIfAbsent(key.substring(0, i), k -> new ArrayList<>(8))
+          .add(new AbstractMap.SimpleImmutableEntry<>(key.substring(i + 1), e.getValue()));
+      }
+      final Map<String, byte[]> hs = new HashMap<>(stamps);
+
+      out.writeInt(ClassInfoSnapshotImpl.MAGIC);
+      out.writeInt(ClassInfoSnapshotImpl.VERSION);
+      out.writeInt(hs.size());
+      for (final Map.Entry<String, byte[]> e: hs.entrySet()) {
+        final List<Map.Entry<String, String[]>> cdefs = defs.getOrDefault(
+          e.getKey(), Collections.emptyList()
+        );
+
+        out.writeUTF(e.getKey());
+        out.writeShort(e.getValue().length);
+        out.write(e.getValue());
+        out.writeInt(cdefs.size());
+        for (final Map.Entry<String, String[]> d: cdefs) {
+          out.writeUTF(d.getKey());
+          out.writeByte(d.getValue().length);
+          for (final String t: d.getValue()) {
+            out.writeUTF(t);
+          }
+        }
+      }
+      final Map<String, Layout> ls = new HashMap<>(layouts);
+
+      ls.values().removeIf(l -> !hs.keySet().containsAll(l.hierarchy));
+      out.writeInt(ls.size());
+      for (final Map.Entry<String, Layout> e: ls.entrySet()) {
+        final Layout layout = e.getValue();
+
+        out.writeUTF(e.getKey());
+        out.writeInt(layout.hierarchy.size());
+        for (final String h: layout.hierarchy) {
+          out.writeUTF(h);
+        }
+        ClassInfoSnapshotImpl.writeFields(out, layout.columns);
+        ClassInfoSnapshotImpl.writeFields(out, layout.keyspaceKeys);
+        final Map<String, TableLayout> tables = new HashMap<>(layout.tables);
+
+        out.writeInt(tables.size());
+        for (final Map.Entry<String, TableLayout> t: tables.entrySet()) {
+          final TableLayout tlayout = t.getValue();
+
+          out.writeUTF(t.getKey());
+          ClassInfoSnapshotImpl.writeFields(out, tlayout.columns);
+          ClassInfoSnapshotImpl.writeNames(out, tlayout.partitionKeys);
+          ClassInfoSnapshotImpl.writeNames(out, tlayout.clusteringKeys);
+          ClassInfoSnapshotImpl.writeNames(out, tlayout.multiKeys);
+          ClassInfoSnapshotImpl.writeNames(out, tlayout.caseInsensitiveKeys);
+        }
+      }
+    } catch (IOException e) {
+      this.dirty = true;
+      tmp.delete();
+      throw e;
+    }
+    Files.move(
+      tmp.toPath(),
+      file.toPath(),
+      StandardCopyOption.REPLACE_EXISTING,
+      StandardCopyOption.ATOMIC_MOVE
+    );
+    logger.debug("saved class info snapshot for %d POJO classes: %s", layouts.size(), file);
+  }
+}
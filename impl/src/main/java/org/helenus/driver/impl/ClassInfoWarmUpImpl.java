@@ -0,0 +1,556 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.impl;
+
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Modifier;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.helenus.driver.ObjectNotFoundException;
+import org.helenus.driver.info.TableInfo;
+import org.helenus.driver.persistence.Entity;
+import org.helenus.driver.persistence.RootEntity;
+import org.helenus.driver.persistence.TypeEntity;
+import org.helenus.driver.persistence.UDTEntity;
+import org.helenus.driver.persistence.UDTRootEntity;
+import org.helenus.driver.persistence.UDTTypeEntity;
+
+/**
+ * The <code>ClassInfoWarmUpImpl</code> class provides support for eagerly
+ * building the class info structures for a set of POJO classes concurrently
+ * such that the first requests do not pay for introspection and codec
+ * resolution.
+ * <p>
+ * Class infos are built in two phases on a fork/join pool. Root entities and
+ * user-defined types are built first since type entities and tables depend on
+ * them; all other entities are built afterward. Codecs are then resolved for
+ * all columns and user-defined types for each of the specified keyspaces
+ * which applies to a given POJO class.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public final class ClassInfoWarmUpImpl {
+  /**
+   * Holds the logger.
+   *
+   * @author paouelle
+   */
+  private final static Logger logger = LogManager.getFormatterLogger(ClassInfoWarmUpImpl.class);
+
+  /**
+   * Holds the annotations for POJO classes that must be built first.
+   *
+   * @author paouelle
+   */
+  private final static List<Class<? extends Annotation>> ROOTS = Collections.unmodifiableList(
+    Arrays.asList(RootEntity.class, UDTRootEntity.class, UDTEntity.class)
+  );
+
+  /**
+   * Holds the annotations for all POJO classes to warm up.
+   *
+   * @author paouelle
+   */
+  private final static List<Class<? extends Annotation>> ANNOTATIONS = Collections.unmodifiableList(
+    Arrays.asList(
+      RootEntity.class,
+      UDTRootEntity.class,
+      UDTEntity.class,
+      Entity.class,
+      TypeEntity.class,
+      UDTTypeEntity.class
+    )
+  );
+
+  /**
+   * Holds the statement manager.
+   *
+   * @author paouelle
+   */
+  private final StatementManagerImpl mgr;
+
+  /**
+   * Holds the keyspaces for which to resolve codecs.
+   *
+   * @author paouelle
+   */
+  private final Set<String> keyspaces;
+
+  /**
+   * Holds the root and user-defined type POJO classes to build first.
+   *
+   * @author paouelle
+   */
+  private final Set<Class<?>> roots = new LinkedHashSet<>(32);
+
+  /**
+   * Holds all other POJO classes to build.
+   *
+   * @author paouelle
+   */
+  private final Set<Class<?>> others = new LinkedHashSet<>(64);
+
+  /**
+   * Holds the time in nanoseconds it took to build each class info.
+   *
+   * @author paouelle
+   */
+  private final Map<Class<?>, Long> timings = new ConcurrentHashMap<>(64);
+
+  /**
+   * Holds the errors that occurred while building class infos.
+   *
+   * @author paouelle
+   */
+  private final Map<Class<?>, Throwable> failures = new ConcurrentHashMap<>(4);
+
+  /**
+   * Holds the number of codecs resolved.
+   *
+   * @author paouelle
+   */
+  private final LongAdder codecs = new LongAdder();
+
+  /**
+   * Holds the time in nanoseconds it took to find all POJO classes.
+   *
+   * @author paouelle
+   */
+  private final long discoveryTime;
+
+  /**
+   * Holds the time in nanoseconds it took to build the root class infos.
+   *
+   * @author paouelle
+   */
+  private volatile long rootsTime = 0L;
+
+  /**
+   * Holds the time in nanoseconds it took to build all other class infos.
+   *
+   * @author paouelle
+   */
+  private volatile long classesTime = 0L;
+
+  /**
+   * Holds the time in nanoseconds it took to resolve all codecs.
+   *
+   * @author paouelle
+   */
+  private volatile long codecsTime = 0L;
+
+  /**
+   * Instantiates a new <code>ClassInfoWarmUpImpl</code> object.
+   *
+   * @author paouelle
+   *
+   * @param  mgr the non-<code>null</code> statement manager
+   * @param  keyspaces the keyspaces for which to resolve codecs
+   * @param  pkgsOrClasses the packages and/or POJO classes to warm up
+   * @throws NullPointerException if <code>keyspaces</code> or
+   *         <code>pkgsOrClasses</code> is <code>null</code>
+   * @throws IllegalArgumentException if one of <code>pkgsOrClasses</code> is
+   *         neither a package name nor a class
+   */
+  ClassInfoWarmUpImpl(
+    StatementManagerImpl mgr,
+    Collection<String> keyspaces,
+    Object... pkgsOrClasses
+  ) {
+    org.apache.commons.lang3.Validate.notNull(keyspaces, "invalid null keyspaces");
+    org.apache.commons.lang3.Validate.notNull(pkgsOrClasses, "invalid null packages or classes");
+    final long start = System.nanoTime();
+    final List<String> pkgs = new ArrayList<>(pkgsOrClasses.length);
+
+    this.mgr = mgr;
+    this.keyspaces = new LinkedHashSet<>(keyspaces);
+    for (final Object o: pkgsOrClasses) {
+      if (o instanceof Class) {
+        add((Class<?>)o);
+      } else if (o instanceof String) {
+        pkgs.add((String)o);
+      } else {
+        org.apache.commons.lang3.Validate.isTrue(
+          o == null, "invalid package or class: %s", o
+        );
+      }
+    }
+    if (!pkgs.isEmpty()) {
+      final Function<Class<? extends Annotation>, Set<Class<?>>> finder
+        = StatementManagerImpl.findTypesAnnotatedWith(
+            pkgs.toArray(new String[pkgs.size()])
+          );
+
+      for (final Class<? extends Annotation> a: ClassInfoWarmUpImpl.ANNOTATIONS) {
+        finder.apply(a).forEach(this::add);
+      }
+    }
+    this.discoveryTime = System.nanoTime() - start;
+  }
+
+  /**
+   * Adds a POJO class to be warmed up.
+   *
+   * @author paouelle
+   *
+   * @param clazz the POJO class to add
+   */
+  private void add(Class<?> clazz) {
+    if (Modifier.isAbstract(clazz.getModifiers())) { // skip abstract POJO classes
+      return;
+    }
+    for (final Class<? extends Annotation> a: ClassInfoWarmUpImpl.ROOTS) {
+      if (clazz.isAnnotationPresent(a)) {
+        roots.add(clazz);
+        return;
+      }
+    }
+    others.add(clazz);
+  }
+
+  /**
+   * Builds the class info for a given POJO class.
+   *
+   * @author paouelle
+   *
+   * @param  clazz the POJO class to build
+   * @return the corresponding class info or <code>null</code> if it failed
+   */
+  private ClassInfoImpl<?> build(Class<?> clazz) {
+    final long start = System.nanoTime();
+
+    try {
+      return mgr.getClassInfoImpl(clazz);
+    } catch (OutOfMemoryError|StackOverflowError|ThreadDeath e) {
+      throw e;
+    } catch (Throwable t) {
+      failures.put(clazz, t);
+      return null;
+    } finally {
+      timings.put(clazz, System.nanoTime() - start);
+    }
+  }
+
+  /**
+   * Executes all the specified tasks concurrently and waits for them to
+   * complete.
+   *
+   * @author paouelle
+   *
+   * @param <V> the type of results
+   *
+   * @param  pool the pool where to execute the tasks
+   * @param  tasks the tasks to execute
+   * @return the list of all non-<code>null</code> results
+   * @throws InterruptedException if interrupted while waiting
+   */
+  private static <V> List<V> invokeAll(
+    ForkJoinPool pool, List<Callable<V>> tasks
+  ) throws InterruptedException {
+    final List<V> results = new ArrayList<>(tasks.size());
+
+    for (final Future<V> f: pool.invokeAll(tasks)) {
+      try {
+        final V v = f.get();
+
+        if (v != null) {
+          results.add(v);
+        }
+      } catch (ExecutionException e) { // only fatal errors are propagated
+        final Throwable t = e.getCause();
+
+        if (t instanceof Error) {
+          throw (Error)t;
+        }
+        throw new IllegalStateException(t);
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Checks if a given keyspace applies to the specified POJO class.
+   *
+   * @author paouelle
+   *
+   * @param  cinfo the class info for the POJO
+   * @param  keyspace the keyspace to check
+   * @return <code>true</code> if the keyspace name is compatible with the
+   *         POJO's keyspace definition; <code>false</code> otherwise
+   */
+  private boolean appliesTo(ClassInfoImpl<?> cinfo, String keyspace) {
+    final String name = cinfo.getKeyspace().name()
+      .replaceAll("[^a-zA-Z0-9_]", "_")
+      .toLowerCase();
+
+    if (cinfo.getKeyspace().keys().length == 0) {
+      return keyspace.equals(name);
+    }
+    return name.isEmpty() || keyspace.startsWith(name + '_');
+  }
+
+  /**
+   * Resolves all codecs for the given class info.
+   *
+   * @author paouelle
+   *
+   * @param cinfo the class info for which to resolve codecs
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private void resolveCodecs(ClassInfoImpl<?> cinfo) {
+    final Set<String> kss = new LinkedHashSet<>(keyspaces);
+
+    if (cinfo.getKeyspace().keys().length == 0) {
+      try { // also resolve for the POJO's own keyspace
+        kss.add(cinfo.newContext().getKeyspace());
+      } catch (ObjectNotFoundException e) { // ignore
+      }
+    }
+    try {
+      for (final String ks: kss) {
+        if (!appliesTo(cinfo, ks)) {
+          continue;
+        }
+        if (cinfo instanceof UDTClassInfoImpl) {
+          ((UDTClassInfoImpl<?>)cinfo).getCodec(ks);
+          codecs.increment();
+        }
+        for (final TableInfo t: cinfo.getTables()) {
+          for (final FieldInfoImpl<?> field: ((TableInfoImpl<?>)t).getColumnsImpl()) {
+            field.getCodec(ks);
+            codecs.increment();
+          }
+        }
+      }
+    } catch (OutOfMemoryError|StackOverflowError|ThreadDeath e) {
+      throw e;
+    } catch (Throwable t) {
+      failures.putIfAbsent(cinfo.getObjectClass(), t);
+    }
+  }
+
+  /**
+   * Runs the warm-up.
+   *
+   * @author paouelle
+   *
+   * @param  parallelism the maximum number of threads to use
+   * @return this for chaining
+   * @throws IllegalArgumentException if <code>parallelism</code> is not
+   *         positive
+   * @throws InterruptedException if interrupted while waiting
+   */
+  ClassInfoWarmUpImpl run(int parallelism) throws InterruptedException {
+    org.apache.commons.lang3.Validate.isTrue(
+      parallelism > 0, "invalid parallelism: %d", parallelism
+    );
+    final ForkJoinPool pool = new ForkJoinPool(parallelism);
+
+    try {
+      // roots must be available before their types and subclasses
+      long start = System.nanoTime();
+      final List<ClassInfoImpl<?>> cinfos = ClassInfoWarmUpImpl.invokeAll(
+        pool,
+        roots.stream()
+          .<Callable<ClassInfoImpl<?>>>map(c -> () -> build(c))
+          .collect(Collectors.toList())
+      );
+
+      this.rootsTime = System.nanoTime() - start;
+      start = System.nanoTime();
+      cinfos.addAll(ClassInfoWarmUpImpl.invokeAll(
+        pool,
+        others.stream()
+          .<Callable<ClassInfoImpl<?>>>map(c -> () -> build(c))
+          .collect(Collectors.toList())
+      ));
+      this.classesTime = System.nanoTime() - start;
+      start = System.nanoTime();
+      ClassInfoWarmUpImpl.invokeAll(
+        pool,
+        cinfos.stream()
+          .<Callable<Void>>map(c -> () -> {
+            resolveCodecs(c);
+            return null;
+          })
+          .collect(Collectors.toList())
+      );
+      this.codecsTime = System.nanoTime() - start;
+    } finally {
+      pool.shutdown();
+    }
+    logger.info(
+      "warmed up %d POJO classes (%d failed) and %d codecs in %dms (discovery: %dms, roots: %dms, classes: %dms, codecs: %dms)",
+      timings.size(),
+      failures.size(),
+      codecs.sum(),
+      getDuration(TimeUnit.MILLISECONDS),
+      TimeUnit.NANOSECONDS.toMillis(discoveryTime),
+      TimeUnit.NANOSECONDS.toMillis(rootsTime),
+      TimeUnit.NANOSECONDS.toMillis(classesTime),
+      TimeUnit.NANOSECONDS.toMillis(codecsTime)
+    );
+    failures.forEach((c, t) -> logger.warn("failed to warm up POJO class: " + c.getName(), t));
+    return this;
+  }
+
+  /**
+   * Gets the number of POJO classes warmed up.
+   *
+   * @author paouelle
+   *
+   * @return the number of POJO classes warmed up
+   */
+  public int getNumClasses() {
+    return timings.size();
+  }
+
+  /**
+   * Gets the number of codecs resolved.
+   *
+   * @author paouelle
+   *
+   * @return the number of codecs resolved
+   */
+  public long getNumCodecs() {
+    return codecs.sum();
+  }
+
+  /**
+   * Gets the errors that occurred while warming up POJO classes.
+   *
+   * @author paouelle
+   *
+   * @return a non-<code>null</code> map of errors keyed by POJO classes
+   */
+  public Map<Class<?>, Throwable> getFailures() {
+    return Collections.unmodifiableMap(failures);
+  }
+
+  /**
+   * Gets the time it took to build each class info, slowest first.
+   *
+   * @author paouelle
+   *
+   * @param  unit the unit in which to report the times
+   * @return a non-<code>null</code> ordered map of times keyed by POJO classes
+   */
+  public Map<Class<?>, Long> getTimings(TimeUnit unit) {
+    return timings.entrySet().stream()
+      .sorted(Map.Entry.<Class<?>, Long>comparingByValue().reversed())
+      .collect(Collectors.toMap(
+        Map.Entry::getKey,
+        e -> unit.convert(e.getValue(), TimeUnit.NANOSECONDS),
+        (a, b) -> a,
+        LinkedHashMap::new
+      ));
+  }
+
+  /**
+   * Gets the time it took to find all POJO classes.
+   *
+   * @author paouelle
+   *
+   * @param  unit the unit in which to report the time
+   * @return the time it took to find all POJO classes
+   */
+  public long getDiscoveryDuration(TimeUnit unit) {
+    return unit.convert(discoveryTime, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Gets the time it took to build all class infos.
+   *
+   * @author paouelle
+   *
+   * @param  unit the unit in which to report the time
+   * @return the time it took to build all class infos
+   */
+  public long getClassInfosDuration(TimeUnit unit) {
+    return unit.convert(rootsTime + classesTime, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Gets the time it took to resolve all codecs.
+   *
+   * @author paouelle
+   *
+   * @param  unit the unit in which to report the time
+   * @return the time it took to resolve all codecs
+   */
+  public long getCodecsDuration(TimeUnit unit) {
+    return unit.convert(codecsTime, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Gets the total time it took to warm up.
+   *
+   * @author paouelle
+   *
+   * @param  unit the unit in which to report the time
+   * @return the total time it took to warm up
+   */
+  public long getDuration(TimeUnit unit) {
+    return unit.convert(
+      discoveryTime + rootsTime + classesTime + codecsTime, TimeUnit.NANOSECONDS
+    );
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see java.lang.Object#toString()
+   */
+  @Override
+  public String toString() {
+    return (
+      getClass().getSimpleName()
+      + "[classes=" + getNumClasses()
+      + ",failed=" + failures.size()
+      + ",codecs=" + getNumCodecs()
+      + ",duration=" + getDuration(TimeUnit.MILLISECONDS)
+      + "ms]"
+    );
+  }
+}
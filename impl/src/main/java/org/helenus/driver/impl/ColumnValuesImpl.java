@@ -0,0 +1,967 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.impl;
+
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.BiPredicate;
+
+import org.apache.commons.lang3.tuple.Triple;
+
+import com.datastax.driver.core.CodecRegistry;
+import com.datastax.driver.core.TypeCodec;
+
+import org.helenus.driver.persistence.CQLDataType;
+
+/**
+ * The <code>ColumnValuesImpl</code> class provides a compact map of column
+ * values extracted from a POJO. The values are kept in an array indexed by
+ * column ordinals while the column names, data types, and codecs are shared
+ * through a {@link Layout} cached by the table for each set of columns and
+ * keyspace. Statement builders are expected to visit the columns by ordinal
+ * using {@link #forEach(Map, ColumnConsumer)} such that no triples or entries
+ * are created; the {@link Map} interface is only provided for compatibility.
+ * <p>
+ * <i>Note:</i> Modifications are applied in place: replacing or removing a
+ * column from the layout updates its ordinal slot while additional columns
+ * (e.g. case insensitive or multi-key columns) are kept in a small array of
+ * extra slots iterated after the layout's columns.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @param <T> The type of POJO the values were extracted from
+ *
+ * @since 1.0
+ */
+final class ColumnValuesImpl<T>
+  extends AbstractMap<String, Triple<Object, CQLDataType, TypeCodec<?>>> {
+  /**
+   * The <code>ColumnConsumer</code> interface defines a consumer for column
+   * values visited by ordinal.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 18, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  @FunctionalInterface
+  interface ColumnConsumer {
+    /**
+     * Performs this operation on the specified column value.
+     *
+     * @author paouelle
+     *
+     * @param name the column name
+     * @param value the column value
+     * @param definition the column data type
+     * @param codec the column codec
+     */
+    public void accept(
+      String name, Object value, CQLDataType definition, TypeCodec<?> codec
+    );
+  }
+
+  /**
+   * The <code>ColumnAppender</code> interface defines a callback used when
+   * appending column values as CQL literals.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 18, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  @FunctionalInterface
+  interface ColumnAppender {
+    /**
+     * Called before appending the value of the specified column.
+     *
+     * @author paouelle
+     *
+     * @param  name the column name
+     * @return the non-<code>null</code> string builder where to append the
+     *         column value
+     */
+    public StringBuilder append(String name);
+  }
+
+  /**
+   * Holds the marker used for columns which were removed from the map. It can
+   * also be used as the default value when looking up values to detect
+   * columns which are not in a map.
+   *
+   * @author paouelle
+   */
+  final static Object ABSENT = new Object();
+
+  /**
+   * Visits all column values in the specified map in order without creating
+   * triples or entries when the map is a <code>ColumnValuesImpl</code>.
+   *
+   * @author paouelle
+   *
+   * @param columns the non-<code>null</code> columns and their values
+   * @param consumer the consumer to call for each column value
+   */
+  static void forEach(
+    Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> columns,
+    ColumnConsumer consumer
+  ) {
+    if (columns instanceof ColumnValuesImpl) {
+      ((ColumnValuesImpl<?>)columns).forEach(consumer);
+    } else {
+      for (final Map.Entry<String, Triple<Object, CQLDataType, TypeCodec<?>>> e: columns.entrySet()) {
+        final Triple<Object, CQLDataType, TypeCodec<?>> t = e.getValue();
+
+        consumer.accept(e.getKey(), t.getLeft(), t.getMiddle(), t.getRight());
+      }
+    }
+  }
+
+  /**
+   * The <code>Layout</code> class keeps track of the column fields, names,
+   * data types, and codecs shared by all maps of values extracted for a given
+   * set of columns and keyspace.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 18, 2017 - paouelle - Creation
+   *
+   * @param <T> The type of POJO for this layout
+   *
+   * @since 1.0
+   */
+  static final class Layout<T> {
+    /**
+     * Holds the column fields indexed by column ordinals.
+     *
+     * @author paouelle
+     */
+    final FieldInfoImpl<T>[] fields;
+
+    /**
+     * Holds the column names indexed by column ordinals.
+     *
+     * @author paouelle
+     */
+    final String[] names;
+
+    /**
+     * Holds the column data types indexed by column ordinals.
+     *
+     * @author paouelle
+     */
+    final CQLDataType[] definitions;
+
+    /**
+     * Holds the column codecs indexed by column ordinals.
+     *
+     * @author paouelle
+     */
+    final TypeCodec<?>[] codecs;
+
+    /**
+     * Holds the column ordinals keyed by column names.
+     *
+     * @author paouelle
+     */
+    private final Map<String, Integer> ordinals;
+
+    /**
+     * Flag indicating if at least one of the columns is declared with a
+     * primitive type.
+     *
+     * @author paouelle
+     */
+    final boolean primitives;
+
+    /**
+     * Instantiates a new <code>Layout</code> object.
+     *
+     * @author paouelle
+     *
+     * @param  keyspace the keyspace for which to encode
+     * @param  columns the non-<code>null</code> column fields keyed by the
+     *         column names
+     * @throws IllegalStateException if a codec cannot be retrieved for one of
+     *         the columns
+     */
+    @SuppressWarnings("unchecked")
+    Layout(String keyspace, Map<String, FieldInfoImpl<T>> columns) {
+      final int size = columns.size();
+
+      this.fields = new FieldInfoImpl[size];
+      this.names = new String[size];
+      this.definitions = new CQLDataType[size];
+      this.codecs = new TypeCodec<?>[size];
+      this.ordinals = new HashMap<>(size * 2);
+      boolean primitives = false;
+      int i = 0;
+
+      for (final Map.Entry<String, FieldInfoImpl<T>> e: columns.entrySet()) {
+        final FieldInfoImpl<T> field = e.getValue();
+
+        fields[i] = field;
+        names[i] = e.getKey();
+        definitions[i] = field.getDataType();
+        codecs[i] = field.getCodec(keyspace);
+        ordinals.put(e.getKey(), i++);
+        primitives |= field.getType().isPrimitive();
+      }
+      this.primitives = primitives;
+    }
+
+    /**
+     * Gets the number of columns in this layout.
+     *
+     * @author paouelle
+     *
+     * @return the number of columns in this layout
+     */
+    int size() {
+      return fields.length;
+    }
+  }
+
+  /**
+   * Appends all column values in the specified map in order as CQL literals
+   * without creating triples or entries when the map is a
+   * <code>ColumnValuesImpl</code> and without boxing primitive values
+   * captured from the POJO.
+   *
+   * @author paouelle
+   *
+   * @param columns the non-<code>null</code> columns and their values
+   * @param codec the codec to use instead of the column codecs or
+   *        <code>null</code> to use the column codecs
+   * @param codecRegistry the codec registry to use
+   * @param variables the list of variables to collect serializable values or
+   *        <code>null</code> to inline them
+   * @param appender the appender to call for each column
+   */
+  static void appendValues(
+    Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> columns,
+    TypeCodec<?> codec,
+    CodecRegistry codecRegistry,
+    List<Object> variables,
+    ColumnAppender appender
+  ) {
+    if (columns instanceof ColumnValuesImpl) {
+      ((ColumnValuesImpl<?>)columns).appendValues(codec, codecRegistry, variables, appender);
+    } else {
+      ColumnValuesImpl.forEach(columns, (n, v, d, c) -> Utils.appendValue(
+        d, (codec != null) ? codec : c, codecRegistry, appender.append(n), v, variables
+      ));
+    }
+  }
+
+  /**
+   * Gets the value for the specified column without creating a triple when the
+   * map is a <code>ColumnValuesImpl</code>.
+   *
+   * @author paouelle
+   *
+   * @param  columns the non-<code>null</code> columns and their values
+   * @param  name the column name
+   * @param  dflt the value to return if the column is not in the map
+   * @return the corresponding value or <code>dflt</code> if not in the map
+   */
+  static Object valueOf(
+    Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> columns,
+    String name,
+    Object dflt
+  ) {
+    if (columns instanceof ColumnValuesImpl) {
+      return ((ColumnValuesImpl<?>)columns).getValue(name, dflt);
+    }
+    final Triple<Object, CQLDataType, TypeCodec<?>> t = columns.get(name);
+
+    return (t != null) ? t.getLeft() : dflt;
+  }
+
+  /**
+   * Sets the value for the specified column without creating a triple when the
+   * map is a <code>ColumnValuesImpl</code>.
+   *
+   * @author paouelle
+   *
+   * @param columns the non-<code>null</code> columns and their values
+   * @param name the column name
+   * @param value the column value
+   * @param definition the column data type
+   * @param codec the column codec
+   */
+  static void putValue(
+    Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> columns,
+    String name,
+    Object value,
+    CQLDataType definition,
+    TypeCodec<?> codec
+  ) {
+    if (columns instanceof ColumnValuesImpl) {
+      ((ColumnValuesImpl<?>)columns).set(name, value, definition, codec);
+    } else {
+      columns.put(name, Triple.of(value, definition, codec));
+    }
+  }
+
+  /**
+   * Removes the specified column without creating a triple when the map is a
+   * <code>ColumnValuesImpl</code>.
+   *
+   * @author paouelle
+   *
+   * @param  columns the non-<code>null</code> columns and their values
+   * @param  name the column name
+   * @param  dflt the value to return if the column is not in the map
+   * @return the value removed or <code>dflt</code> if not in the map
+   */
+  static Object removeValue(
+    Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> columns,
+    String name,
+    Object dflt
+  ) {
+    if (columns instanceof ColumnValuesImpl) {
+      return ((ColumnValuesImpl<?>)columns).removeValue(name, dflt);
+    }
+    final Triple<Object, CQLDataType, TypeCodec<?>> t = columns.remove(name);
+
+    return (t != null) ? t.getLeft() : dflt;
+  }
+
+  /**
+   * Holds the layout for the columns.
+   *
+   * @author paouelle
+   */
+  private final Layout<T> layout;
+
+  /**
+   * Holds the column values indexed by column ordinals (entries are
+   * {@link #ABSENT} for removed columns).
+   *
+   * @author paouelle
+   */
+  private final Object[] values;
+
+  /**
+   * Holds the raw bits of primitive values captured without boxing them
+   * indexed by column ordinals or <code>null</code> if the layout has no
+   * primitive columns. The corresponding entries in {@link #values} are the
+   * {@link FieldInfoImpl.PrimitiveAccessor} used to capture them.
+   *
+   * @author paouelle
+   */
+  private final long[] bits;
+
+  /**
+   * Holds the column data types indexed by column ordinals. This is the
+   * layout's array until a column is replaced with a different data type.
+   *
+   * @author paouelle
+   */
+  private CQLDataType[] definitions;
+
+  /**
+   * Holds the column codecs indexed by column ordinals. This is the layout's
+   * array until a column is replaced with a different codec.
+   *
+   * @author paouelle
+   */
+  private TypeCodec<?>[] codecs;
+
+  /**
+   * Holds the number of columns from the layout which were not removed.
+   *
+   * @author paouelle
+   */
+  private int count;
+
+  /**
+   * Holds the names of additional columns not part of the layout or
+   * <code>null</code> if none were added.
+   *
+   * @author paouelle
+   */
+  private String[] xnames = null;
+
+  /**
+   * Holds the values of additional columns.
+   *
+   * @author paouelle
+   */
+  private Object[] xvalues = null;
+
+  /**
+   * Holds the data types of additional columns.
+   *
+   * @author paouelle
+   */
+  private CQLDataType[] xdefinitions = null;
+
+  /**
+   * Holds the codecs of additional columns.
+   *
+   * @author paouelle
+   */
+  private TypeCodec<?>[] xcodecs = null;
+
+  /**
+   * Holds the number of additional columns.
+   *
+   * @author paouelle
+   */
+  private int xcount = 0;
+
+  /**
+   * Holds the cached entry set view.
+   *
+   * @author paouelle
+   */
+  private Set<Map.Entry<String, Triple<Object, CQLDataType, TypeCodec<?>>>> entries = null;
+
+  /**
+   * Instantiates a new <code>ColumnValuesImpl</code> object.
+   *
+   * @author paouelle
+   *
+   * @param layout the non-<code>null</code> column layout
+   * @param values the non-<code>null</code> column values indexed by column
+   *        ordinals
+   */
+  ColumnValuesImpl(Layout<T> layout, Object[] values) {
+    this.layout = layout;
+    this.values = values;
+    this.bits = null;
+    this.definitions = layout.definitions;
+    this.codecs = layout.codecs;
+    this.count = values.length;
+  }
+
+  /**
+   * Instantiates a new <code>ColumnValuesImpl</code> object whose values are
+   * meant to be captured with {@link #capture}.
+   *
+   * @author paouelle
+   *
+   * @param layout the non-<code>null</code> column layout
+   */
+  ColumnValuesImpl(Layout<T> layout) {
+    this.layout = layout;
+    this.values = new Object[layout.size()];
+    this.bits = layout.primitives ? new long[values.length] : null;
+    this.definitions = layout.definitions;
+    this.codecs = layout.codecs;
+    this.count = values.length;
+  }
+
+  /**
+   * Captures the value of the column at the specified ordinal from the given
+   * POJO. Values of columns declared with a primitive type supported by their
+   * codec are captured without boxing them.
+   *
+   * @author paouelle
+   *
+   * @param  i the column ordinal
+   * @param  object the non-<code>null</code> POJO object
+   * @return the captured value which is never <code>null</code> for primitive
+   *         values
+   */
+  Object capture(int i, T object) {
+    final FieldInfoImpl<T> field = layout.fields[i];
+
+    if (bits != null) {
+      final FieldInfoImpl.PrimitiveAccessor accessor
+        = field.getPrimitiveAccessor(object, codecs[i]);
+
+      if (accessor != null) {
+        bits[i] = accessor.getBits(object);
+        values[i] = accessor;
+        return accessor;
+      }
+    }
+    final Object value = field.getValue(object);
+
+    values[i] = value;
+    return value;
+  }
+
+  /**
+   * Gets the value of the column at the specified ordinal, boxing it if it
+   * was captured as a primitive value.
+   *
+   * @author paouelle
+   *
+   * @param  i the column ordinal
+   * @return the corresponding value
+   */
+  private Object valueAt(int i) {
+    final Object value = values[i];
+
+    if ((bits != null) && (value instanceof FieldInfoImpl.PrimitiveAccessor)) {
+      return ((FieldInfoImpl.PrimitiveAccessor)value).box(bits[i]);
+    }
+    return value;
+  }
+
+  /**
+   * Gets the index of the specified additional column.
+   *
+   * @author paouelle
+   *
+   * @param  name the column name
+   * @return the index of the additional column or <code>-1</code> if not found
+   */
+  private int indexOfExtra(Object name) {
+    for (int j = 0; j < xcount; j++) {
+      if (xnames[j].equals(name)) {
+        return j;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Gets a triple for the column at the specified ordinal.
+   *
+   * @author paouelle
+   *
+   * @param  i the column ordinal
+   * @return the corresponding non-<code>null</code> triple
+   */
+  private Triple<Object, CQLDataType, TypeCodec<?>> triple(int i) {
+    return Triple.of(valueAt(i), definitions[i], codecs[i]);
+  }
+
+  /**
+   * Gets a triple for the additional column at the specified index.
+   *
+   * @author paouelle
+   *
+   * @param  j the index of the additional column
+   * @return the corresponding non-<code>null</code> triple
+   */
+  private Triple<Object, CQLDataType, TypeCodec<?>> xtriple(int j) {
+    return Triple.of(xvalues[j], xdefinitions[j], xcodecs[j]);
+  }
+
+  /**
+   * Removes the additional column at the specified index.
+   *
+   * @author paouelle
+   *
+   * @param j the index of the additional column to remove
+   */
+  private void removeExtra(int j) {
+    final int n = --xcount - j;
+
+    if (n > 0) {
+      System.arraycopy(xnames, j + 1, xnames, j, n);
+      System.arraycopy(xvalues, j + 1, xvalues, j, n);
+      System.arraycopy(xdefinitions, j + 1, xdefinitions, j, n);
+      System.arraycopy(xcodecs, j + 1, xcodecs, j, n);
+    }
+    xnames[xcount] = null;
+    xvalues[xcount] = null;
+    xdefinitions[xcount] = null;
+    xcodecs[xcount] = null;
+  }
+
+  /**
+   * Visits all column values in order.
+   *
+   * @author paouelle
+   *
+   * @param consumer the consumer to call for each column value
+   */
+  void forEach(ColumnConsumer consumer) {
+    for (int i = 0; i < values.length; i++) {
+      if (values[i] != ColumnValuesImpl.ABSENT) {
+        consumer.accept(layout.names[i], valueAt(i), definitions[i], codecs[i]);
+      }
+    }
+    for (int j = 0; j < xcount; j++) {
+      consumer.accept(xnames[j], xvalues[j], xdefinitions[j], xcodecs[j]);
+    }
+  }
+
+  /**
+   * Appends all column values in order as CQL literals.
+   *
+   * @author paouelle
+   *
+   * @param codec the codec to use instead of the column codecs or
+   *        <code>null</code> to use the column codecs
+   * @param codecRegistry the codec registry to use
+   * @param variables the list of variables to collect serializable values or
+   *        <code>null</code> to inline them
+   * @param appender the appender to call for each column
+   */
+  void appendValues(
+    TypeCodec<?> codec,
+    CodecRegistry codecRegistry,
+    List<Object> variables,
+    ColumnAppender appender
+  ) {
+    for (int i = 0; i < values.length; i++) {
+      final Object value = values[i];
+
+      if (value == ColumnValuesImpl.ABSENT) {
+        continue;
+      }
+      final StringBuilder sb = appender.append(layout.names[i]);
+      final TypeCodec<?> c = (codec != null) ? codec : codecs[i];
+
+      if ((bits != null) && (value instanceof FieldInfoImpl.PrimitiveAccessor)) {
+        final FieldInfoImpl.PrimitiveAccessor accessor
+          = (FieldInfoImpl.PrimitiveAccessor)value;
+
+        // numbers are never bound as variables so format them in place
+        if (accessor.format(c, bits[i], sb)) {
+          continue;
+        }
+        Utils.appendValue(
+          definitions[i], c, codecRegistry, sb, accessor.box(bits[i]), variables
+        );
+      } else {
+        Utils.appendValue(definitions[i], c, codecRegistry, sb, value, variables);
+      }
+    }
+    for (int j = 0; j < xcount; j++) {
+      Utils.appendValue(
+        xdefinitions[j],
+        (codec != null) ? codec : xcodecs[j],
+        codecRegistry,
+        appender.append(xnames[j]),
+        xvalues[j],
+        variables
+      );
+    }
+  }
+
+  /**
+   * Gets the value for the specified column.
+   *
+   * @author paouelle
+   *
+   * @param  name the column name
+   * @param  dflt the value to return if the column is not in this map
+   * @return the corresponding value or <code>dflt</code> if not in this map
+   */
+  Object getValue(String name, Object dflt) {
+    final Integer i = layout.ordinals.get(name);
+
+    if (i != null) {
+      return (values[i] != ColumnValuesImpl.ABSENT) ? valueAt(i) : dflt;
+    }
+    final int j = indexOfExtra(name);
+
+    return (j != -1) ? xvalues[j] : dflt;
+  }
+
+  /**
+   * Removes the specified column.
+   *
+   * @author paouelle
+   *
+   * @param  name the column name
+   * @param  dflt the value to return if the column is not in this map
+   * @return the value removed or <code>dflt</code> if not in this map
+   */
+  Object removeValue(String name, Object dflt) {
+    final Integer i = layout.ordinals.get(name);
+
+    if (i != null) {
+      if (values[i] == ColumnValuesImpl.ABSENT) {
+        return dflt;
+      }
+      final Object value = valueAt(i);
+
+      values[i] = ColumnValuesImpl.ABSENT;
+      count--;
+      return value;
+    }
+    final int j = indexOfExtra(name);
+
+    if (j == -1) {
+      return dflt;
+    }
+    final Object value = xvalues[j];
+
+    removeExtra(j);
+    return value;
+  }
+
+  /**
+   * Sets the specified column value.
+   *
+   * @author paouelle
+   *
+   * @param name the column name
+   * @param value the column value
+   * @param definition the column data type
+   * @param codec the column codec
+   */
+  void set(String name, Object value, CQLDataType definition, TypeCodec<?> codec) {
+    final Integer i = layout.ordinals.get(name);
+
+    if (i != null) {
+      if (values[i] == ColumnValuesImpl.ABSENT) {
+        count++;
+      }
+      values[i] = value;
+      if (definitions[i] != definition) {
+        if (definitions == layout.definitions) {
+          this.definitions = definitions.clone();
+        }
+        definitions[i] = definition;
+      }
+      if (codecs[i] != codec) {
+        if (codecs == layout.codecs) {
+          this.codecs = codecs.clone();
+        }
+        codecs[i] = codec;
+      }
+      return;
+    }
+    int j = indexOfExtra(name);
+
+    if (j == -1) {
+      if (xnames == null) {
+        this.xnames = new String[4];
+        this.xvalues = new Object[4];
+        this.xdefinitions = new CQLDataType[4];
+        this.xcodecs = new TypeCodec<?>[4];
+      } else if (xcount == xnames.length) {
+        final int n = xcount * 2;
+
+        this.xnames = Arrays.copyOf(xnames, n);
+        this.xvalues = Arrays.copyOf(xvalues, n);
+        this.xdefinitions = Arrays.copyOf(xdefinitions, n);
+        this.xcodecs = Arrays.copyOf(xcodecs, n);
+      }
+      j = xcount++;
+      xnames[j] = name;
+    }
+    xvalues[j] = value;
+    xdefinitions[j] = definition;
+    xcodecs[j] = codec;
+  }
+
+  /**
+   * Removes all columns from the layout for which the specified predicate
+   * returns <code>true</code>.
+   *
+   * @author paouelle
+   *
+   * @param filter the predicate receiving the column field and value
+   */
+  void removeIf(BiPredicate<FieldInfoImpl<T>, Object> filter) {
+    for (int i = 0; i < values.length; i++) {
+      final Object value = values[i];
+
+      if ((value == ColumnValuesImpl.ABSENT)
+          || ((bits != null) && (value instanceof FieldInfoImpl.PrimitiveAccessor))) {
+        continue; // primitive values are never null
+      }
+      if (filter.test(layout.fields[i], value)) {
+        values[i] = ColumnValuesImpl.ABSENT;
+        count--;
+      }
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see java.util.AbstractMap#size()
+   */
+  @Override
+  public int size() {
+    return count + xcount;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see java.util.AbstractMap#containsKey(java.lang.Object)
+   */
+  @Override
+  public boolean containsKey(Object key) {
+    final Integer i = layout.ordinals.get(key);
+
+    if (i != null) {
+      return values[i] != ColumnValuesImpl.ABSENT;
+    }
+    return indexOfExtra(key) != -1;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see java.util.AbstractMap#get(java.lang.Object)
+   */
+  @Override
+  public Triple<Object, CQLDataType, TypeCodec<?>> get(Object key) {
+    final Integer i = layout.ordinals.get(key);
+
+    if (i != null) {
+      return (values[i] != ColumnValuesImpl.ABSENT) ? triple(i) : null;
+    }
+    final int j = indexOfExtra(key);
+
+    return (j != -1) ? xtriple(j) : null;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see java.util.AbstractMap#put(java.lang.Object, java.lang.Object)
+   */
+  @Override
+  public Triple<Object, CQLDataType, TypeCodec<?>> put(
+    String key, Triple<Object, CQLDataType, TypeCodec<?>> value
+  ) {
+    final Triple<Object, CQLDataType, TypeCodec<?>> old = get(key);
+
+    set(key, value.getLeft(), value.getMiddle(), value.getRight());
+    return old;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see java.util.AbstractMap#remove(java.lang.Object)
+   */
+  @Override
+  public Triple<Object, CQLDataType, TypeCodec<?>> remove(Object key) {
+    final Integer i = layout.ordinals.get(key);
+
+    if (i != null) {
+      if (values[i] == ColumnValuesImpl.ABSENT) {
+        return null;
+      }
+      final Triple<Object, CQLDataType, TypeCodec<?>> old = triple(i);
+
+      values[i] = ColumnValuesImpl.ABSENT;
+      count--;
+      return old;
+    }
+    final int j = indexOfExtra(key);
+
+    if (j == -1) {
+      return null;
+    }
+    final Triple<Object, CQLDataType, TypeCodec<?>> old = xtriple(j);
+
+    removeExtra(j);
+    return old;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see java.util.AbstractMap#clear()
+   */
+  @Override
+  public void clear() {
+    Arrays.fill(values, ColumnValuesImpl.ABSENT);
+    this.count = 0;
+    while (xcount > 0) {
+      removeExtra(xcount - 1);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see java.util.AbstractMap#entrySet()
+   */
+  @Override
+  public Set<Map.Entry<String, Triple<Object, CQLDataType, TypeCodec<?>>>> entrySet() {
+    if (entries == null) {
+      this.entries = new AbstractSet<Map.Entry<String, Triple<Object, CQLDataType, TypeCodec<?>>>>() {
+        @Override
+        public int size() {
+          return ColumnValuesImpl.this.size();
+        }
+        @SuppressWarnings("synthetic-access")
+        @Override
+        public Iterator<Map.Entry<String, Triple<Object, CQLDataType, TypeCodec<?>>>> iterator() {
+          return new Iterator<Map.Entry<String, Triple<Object, CQLDataType, TypeCodec<?>>>>() {
+            private int i = skip(0);
+
+            private int skip(int k) {
+              while ((k < values.length) && (values[k] == ColumnValuesImpl.ABSENT)) {
+                k++;
+              }
+              return k;
+            }
+            @Override
+            public boolean hasNext() {
+              return i < values.length + xcount;
+            }
+            @Override
+            public Map.Entry<String, Triple<Object, CQLDataType, TypeCodec<?>>> next() {
+              if (!hasNext()) {
+                throw new NoSuchElementException();
+              }
+              final int k = i;
+
+              if (k < values.length) {
+                this.i = skip(k + 1);
+                return new AbstractMap.SimpleImmutableEntry<>(layout.names[k], triple(k));
+              }
+              this.i++;
+              final int j = k - values.length;
+
+              return new AbstractMap.SimpleImmutableEntry<>(xnames[j], xtriple(j));
+            }
+          };
+        }
+      };
+    }
+    return entries;
+  }
+}
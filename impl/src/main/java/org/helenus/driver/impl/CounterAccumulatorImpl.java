@@ -0,0 +1,472 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.impl;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+import org.apache.commons.lang3.tuple.Triple;
+
+import com.datastax.driver.core.TypeCodec;
+
+import org.helenus.driver.Assignment;
+import org.helenus.driver.BatchableStatement;
+import org.helenus.driver.CounterAccumulator;
+import org.helenus.driver.Update;
+import org.helenus.driver.info.TableInfo;
+import org.helenus.driver.persistence.CQLDataType;
+
+/**
+ * The <code>CounterAccumulatorImpl</code> class provides the implementation
+ * for the {@link CounterAccumulator} interface.
+ * <p>
+ * Deltas are accumulated in {@link LongAdder} cells organized by epoch. Each
+ * flush swaps in a new epoch and seals the previous one. Threads recording
+ * deltas hold the epoch's read lock while checking whether it was sealed and
+ * recording such that the flushing thread, by acquiring the write lock after
+ * sealing, is guaranteed all recordings are complete before summing the cells.
+ * Recording threads never contend with each other on the read lock.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 15, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class CounterAccumulatorImpl
+  extends WriteBufferImpl
+  implements CounterAccumulator {
+  /**
+   * Holds the current epoch.
+   *
+   * @author paouelle
+   */
+  private volatile Epoch epoch = new Epoch();
+
+  /**
+   * Holds the maximum staleness in nanoseconds or 0 if disabled.
+   *
+   * @author paouelle
+   */
+  private volatile long maxStaleness = 0L;
+
+  /**
+   * Instantiates a new <code>CounterAccumulatorImpl</code> object.
+   *
+   * @author paouelle
+   *
+   * @param mgr the non-<code>null</code> statement manager
+   */
+  CounterAccumulatorImpl(StatementManagerImpl mgr) {
+    super(mgr);
+    schedule(TimeUnit.SECONDS.toNanos(1L));
+  }
+
+  /**
+   * Extracts the deltas for the specified table from the given assignments.
+   *
+   * @author paouelle
+   *
+   * @param <T> The type of POJO
+   *
+   * @param  table the table being updated
+   * @param  assignments the assignments to extract deltas from
+   * @return the deltas keyed by counter column names
+   * @throws IllegalArgumentException if any of the assignments are not
+   *         supported
+   */
+  private <T> Map<String, Long> deltas(TableInfoImpl<T> table, Assignment[] assignments) {
+    final Map<String, Long> deltas = new LinkedHashMap<>(assignments.length * 2);
+
+    for (final Assignment assignment: assignments) {
+      org.apache.commons.lang3.Validate.isTrue(
+        assignment instanceof AssignmentImpl.CounterAssignmentImpl,
+        "only counter increments or decrements can be accumulated: %s", assignment
+      );
+      final AssignmentImpl.CounterAssignmentImpl a = (AssignmentImpl.CounterAssignmentImpl)assignment;
+      final String name = a.getColumnName().toString();
+
+      if (table.getColumnImpl(name) == null) { // column not defined in this table
+        continue;
+      }
+      org.apache.commons.lang3.Validate.isTrue(
+        !a.containsBindMarker(), "bind markers cannot be accumulated: %s", name
+      );
+      a.validate(table);
+      deltas.merge(name, a.getDelta(), Long::sum);
+    }
+    return deltas;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.impl.WriteBufferImpl#hasPending()
+   */
+  @Override
+  protected boolean hasPending() {
+    return !epoch.rows.isEmpty();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.impl.WriteBufferImpl#drain()
+   */
+  @Override
+  protected void drain() {
+    final Epoch e = epoch;
+
+    if (e.rows.isEmpty()) {
+      return;
+    }
+    this.epoch = new Epoch();
+    e.sealed = true;
+    // wait for threads still recording; new ones will see the epoch sealed
+    e.lock.unlockWrite(e.lock.writeLock());
+    final Map<List<Object>, List<BatchableStatement<?, ?>>> groups
+      = new LinkedHashMap<>(e.rows.size() * 2);
+
+    for (final Row row: e.rows.values()) {
+      final Update<?> update = row.build();
+
+      if (update != null) {
+        groups.computeIfAbsent(row.partition, k -> new ArrayList<>(4)).add(update);
+      }
+    }
+    send(groups);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.CounterAccumulator#flushEvery(long, java.util.concurrent.TimeUnit)
+   */
+  @Override
+  public CounterAccumulator flushEvery(long interval, TimeUnit unit) {
+    validateNotClosed();
+    org.apache.commons.lang3.Validate.isTrue(
+      interval >= 0L, "invalid flush interval: %d", interval
+    );
+    org.apache.commons.lang3.Validate.notNull(unit, "invalid null unit");
+    schedule(unit.toNanos(interval));
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.CounterAccumulator#maxStaleness(long, java.util.concurrent.TimeUnit)
+   */
+  @Override
+  public CounterAccumulator maxStaleness(long staleness, TimeUnit unit) {
+    validateNotClosed();
+    org.apache.commons.lang3.Validate.isTrue(
+      staleness >= 0L, "invalid maximum staleness: %d", staleness
+    );
+    org.apache.commons.lang3.Validate.notNull(unit, "invalid null unit");
+    this.maxStaleness = unit.toNanos(staleness);
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.CounterAccumulator#batchSize(int)
+   */
+  @Override
+  public CounterAccumulator batchSize(int size) {
+    validateNotClosed();
+    org.apache.commons.lang3.Validate.isTrue(size > 0, "invalid batch size: %d", size);
+    this.batchSize = size;
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.CounterAccumulator#update(java.lang.Object, org.helenus.driver.Assignment[])
+   */
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> CounterAccumulator update(T object, Assignment... assignments) {
+    validateNotClosed();
+    org.apache.commons.lang3.Validate.notNull(object, "invalid null object");
+    org.apache.commons.lang3.Validate.noNullElements(assignments, "invalid null assignment");
+    final ClassInfoImpl<T> cinfo = mgr.getClassInfoImpl((Class<T>)object.getClass());
+
+    org.apache.commons.lang3.Validate.isTrue(
+      cinfo.supportsTablesAndIndexes(),
+      "unsupported %s POJO class '%s' for counter accumulation",
+      cinfo.getEntityAnnotationClass().getSimpleName(), object.getClass().getSimpleName()
+    );
+    final ClassInfoImpl<T>.POJOContext pctx = cinfo.newContext(object);
+    final List<Object[]> records = new ArrayList<>(cinfo.getTables().size());
+
+    // extract all deltas first so nothing is recorded if any are invalid
+    for (final TableInfo<T> t: cinfo.getTables()) {
+      final TableInfoImpl<T> table = (TableInfoImpl<T>)t;
+      final Map<String, Long> deltas = deltas(table, assignments);
+
+      if (!deltas.isEmpty()) {
+        final Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> pkeys
+          = pctx.getPrimaryKeyColumnValues(table.getName());
+        final List<Object> key = new ArrayList<>(pkeys.size() + 2);
+
+        key.add(pctx.getKeyspace());
+        key.add(table.getName());
+        for (final Triple<Object, CQLDataType, TypeCodec<?>> pk: pkeys.values()) {
+          key.add(pk.getLeft());
+        }
+        records.add(new Object[] { key, table, deltas });
+      }
+    }
+    if (records.isEmpty()) {
+      return this;
+    }
+    Epoch e;
+
+    while (true) {
+      e = epoch;
+      final long stamp = e.lock.readLock();
+
+      try {
+        if (!e.sealed) {
+          for (final Object[] r: records) {
+            e.record(
+              (List<Object>)r[0], pctx, (TableInfoImpl<T>)r[1], (Map<String, Long>)r[2]
+            );
+          }
+          break;
+        }
+      } finally {
+        e.lock.unlockRead(stamp);
+      }
+    }
+    final long staleness = maxStaleness;
+
+    if ((staleness > 0L) && (System.nanoTime() - e.first.get() >= staleness)) {
+      trigger();
+    }
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.CounterAccumulator#getPending()
+   */
+  @Override
+  public int getPending() {
+    return epoch.rows.size();
+  }
+
+  /**
+   * The <code>Epoch</code> class keeps track of all deltas accumulated
+   * between two flushes.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 15, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  private class Epoch {
+    /**
+     * Holds the rows keyed by keyspace, table, and primary key values.
+     *
+     * @author paouelle
+     */
+    final Map<List<Object>, Row> rows = new ConcurrentHashMap<>(256);
+
+    /**
+     * Holds the lock shared by threads recording deltas and acquired
+     * exclusively by the flushing thread once sealed.
+     *
+     * @author paouelle
+     */
+    final StampedLock lock = new StampedLock();
+
+    /**
+     * Holds the time in nanoseconds when the first delta was recorded.
+     *
+     * @author paouelle
+     */
+    final AtomicLong first = new AtomicLong(Long.MAX_VALUE);
+
+    /**
+     * Flag indicating if this epoch was sealed by a flush.
+     *
+     * @author paouelle
+     */
+    volatile boolean sealed = false;
+
+    /**
+     * Records the specified deltas.
+     *
+     * @author paouelle
+     *
+     * @param <T> The type of POJO
+     *
+     * @param key the row key
+     * @param pctx the POJO context
+     * @param table the table being updated
+     * @param deltas the deltas to record keyed by counter column names
+     */
+    @SuppressWarnings("synthetic-access")
+    <T> void record(
+      List<Object> key,
+      ClassInfoImpl<T>.POJOContext pctx,
+      TableInfoImpl<T> table,
+      Map<String, Long> deltas
+    ) {
+      Row row = rows.get(key); // avoids locking on the fast path
+
+      if (row == null) {
+        row = rows.computeIfAbsent(key, k -> new Row(pctx, table));
+        if (first.get() == Long.MAX_VALUE) {
+          first.compareAndSet(Long.MAX_VALUE, System.nanoTime());
+        }
+      }
+      for (final Map.Entry<String, Long> d: deltas.entrySet()) {
+        LongAdder cell = row.cells.get(d.getKey());
+
+        if (cell == null) {
+          cell = row.cells.computeIfAbsent(d.getKey(), k -> new LongAdder());
+        }
+        cell.add(d.getValue());
+      }
+    }
+  }
+
+  /**
+   * The <code>Row</code> class keeps track of the deltas accumulated for the
+   * counter columns of a given row.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 15, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  private class Row {
+    /**
+     * Holds the POJO identifying the row.
+     *
+     * @author paouelle
+     */
+    private final Object object;
+
+    /**
+     * Holds the table for the row.
+     *
+     * @author paouelle
+     */
+    private final TableInfoImpl<?> table;
+
+    /**
+     * Holds the keyspace, table, and partition key values for the row.
+     *
+     * @author paouelle
+     */
+    final List<Object> partition;
+
+    /**
+     * Holds the accumulated deltas keyed by counter column names.
+     *
+     * @author paouelle
+     */
+    final Map<String, LongAdder> cells = new ConcurrentHashMap<>(8);
+
+    /**
+     * Instantiates a new <code>Row</code> object.
+     *
+     * @author paouelle
+     *
+     * @param <T> The type of POJO
+     *
+     * @param pctx the POJO context
+     * @param table the table for the row
+     */
+    <T> Row(ClassInfoImpl<T>.POJOContext pctx, TableInfoImpl<T> table) {
+      final Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> pkeys
+        = pctx.getPartitionKeyColumnValues(table.getName());
+
+      this.object = pctx.getObject();
+      this.table = table;
+      this.partition = new ArrayList<>(pkeys.size() + 2);
+      partition.add(pctx.getKeyspace());
+      partition.add(table.getName());
+      for (final Triple<Object, CQLDataType, TypeCodec<?>> t: pkeys.values()) {
+        partition.add(t.getLeft());
+      }
+    }
+
+    /**
+     * Builds the counter update statement for this row.
+     *
+     * @author paouelle
+     *
+     * @return the update statement or <code>null</code> if all deltas cancel
+     *         out
+     */
+    @SuppressWarnings("synthetic-access")
+    Update<?> build() {
+      final List<Assignment> assignments = new ArrayList<>(cells.size());
+
+      cells.forEach((name, cell) -> {
+        final long delta = cell.sum();
+
+        if (delta != 0L) {
+          assignments.add(new AssignmentImpl.CounterAssignmentImpl(
+            name, Math.abs(delta), delta > 0L
+          ));
+        }
+      });
+      if (assignments.isEmpty()) {
+        return null;
+      }
+      final Update<Object> update = mgr.update(object, table.getName());
+
+      update.with(assignments.toArray(new Assignment[assignments.size()]));
+      return update;
+    }
+  }
+}
@@ -136,7 +136,7 @@ public class CreateIndexImpl<T>
    * @return the the string builder used to build the index query string
    */
   @SuppressWarnings("synthetic-access")
-  private StringBuilder buildIndexQueryString(
+  StringBuilder buildIndexQueryString(
     FieldInfoImpl<T> field, TableInfoImpl<T> table
   ) {
     final StringBuilder builder = new StringBuilder(80);
@@ -150,8 +150,9 @@ public class CreateIndexImpl<T>
     if (!StringUtils.isEmpty(customClass)) {
       builder.append("CUSTOM ");
     }
+    builder.append("INDEX");
     if (ifNotExists) {
-      builder.append("INDEX IF NOT EXISTS");
+      builder.append(" IF NOT EXISTS");
     }
     if (!StringUtils.isEmpty(iname)) {
       builder.append(' ').append(iname);
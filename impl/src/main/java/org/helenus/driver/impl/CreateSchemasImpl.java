@@ -15,6 +15,7 @@
  */
 package org.helenus.driver.impl;
 
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Modifier;
 
 import java.util.ArrayList;
@@ -27,6 +28,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -46,7 +48,6 @@ import org.helenus.driver.VoidFuture;
 import org.helenus.driver.info.ClassInfo;
 import org.helenus.driver.persistence.Keyspace;
 import org.helenus.driver.persistence.Table;
-import org.reflections.Reflections;
 
 /**
  * The <code>CreateSchemasImpl</code> class provides support for a statement
@@ -153,7 +154,10 @@ public class CreateSchemasImpl
    */
   private Map<Keyspace, List<ClassInfoImpl<?>>> findKeyspaces() {
     final Map<String, Keyspace> keyspaces = new HashMap<>(25);
-    final Reflections reflections = new Reflections(pkgs);
+    final Function<Class<? extends Annotation>, Set<Class<?>>> finder
+      = StatementManagerImpl.findTypesAnnotatedWith(
+          Stream.of(pkgs).map(String::valueOf).toArray(String[]::new)
+        );
     // search for all POJO annotated classes with @UDTEntity
     // because of interdependencies between UDT, we need to build a graph
     // to detect circular dependencies and also to ensure a proper creation
@@ -161,8 +165,8 @@ public class CreateSchemasImpl
     final Map<Keyspace, DirectedGraph<UDTClassInfoImpl<?>>> udtcinfos
       = new LinkedHashMap<>(25);
 
-    for (final Class<?> clazz: reflections.getTypesAnnotatedWith(
-      org.helenus.driver.persistence.UDTEntity.class, true
+    for (final Class<?> clazz: finder.apply(
+      org.helenus.driver.persistence.UDTEntity.class
     )) {
       // skip abstract POJO classes
       if (Modifier.isAbstract(clazz.getModifiers())) {
@@ -192,8 +196,8 @@ public class CreateSchemasImpl
       }
     }
     // search for all POJO annotated classes with @UDTRootEntity
-    for (final Class<?> clazz: reflections.getTypesAnnotatedWith(
-      org.helenus.driver.persistence.UDTRootEntity.class, true
+    for (final Class<?> clazz: finder.apply(
+      org.helenus.driver.persistence.UDTRootEntity.class
     )) {
       // skip classes that are not directly annotated
       if (ReflectionUtils.findFirstClassAnnotatedWith(
@@ -229,8 +233,8 @@ public class CreateSchemasImpl
         .forEach(tcinfo -> fcs.add(tcinfo, tcinfo.udts()));
     }
     // search for all POJO annotated classes with @UDTTypeEntity
-    for (final Class<?> clazz: reflections.getTypesAnnotatedWith(
-      org.helenus.driver.persistence.UDTTypeEntity.class, true
+    for (final Class<?> clazz: finder.apply(
+      org.helenus.driver.persistence.UDTTypeEntity.class
     )) {
       // skip classes that are not directly annotated
       if (ReflectionUtils.findFirstClassAnnotatedWith(
@@ -285,8 +289,8 @@ public class CreateSchemasImpl
         ));
 
     // search for all POJO annotated classes with @Entity
-    for (final Class<?> clazz: reflections.getTypesAnnotatedWith(
-      org.helenus.driver.persistence.Entity.class, true
+    for (final Class<?> clazz: finder.apply(
+      org.helenus.driver.persistence.Entity.class
     )) {
       // skip abstract POJO classes
       if (Modifier.isAbstract(clazz.getModifiers())) {
@@ -315,8 +319,8 @@ public class CreateSchemasImpl
       }
     }
     // search for all POJO annotated classes with @RootEntity
-    for (final Class<?> clazz: reflections.getTypesAnnotatedWith(
-      org.helenus.driver.persistence.RootEntity.class, true
+    for (final Class<?> clazz: finder.apply(
+      org.helenus.driver.persistence.RootEntity.class
     )) {
       // skip classes that are not directly annotated
       if (ReflectionUtils.findFirstClassAnnotatedWith(
@@ -352,8 +356,8 @@ public class CreateSchemasImpl
         .forEach(tcinfo -> fcs.add(tcinfo));
     }
     // search for all POJO annotated classes with @TypeEntity
-    for (final Class<?> clazz: reflections.getTypesAnnotatedWith(
-      org.helenus.driver.persistence.TypeEntity.class, true
+    for (final Class<?> clazz: finder.apply(
+      org.helenus.driver.persistence.TypeEntity.class
     )) {
       // skip classes that are not directly annotated
       if (ReflectionUtils.findFirstClassAnnotatedWith(
@@ -64,6 +64,7 @@ import org.helenus.driver.codecs.TripleCodec;
 import org.helenus.driver.persistence.CQLDataType;
 import org.helenus.driver.persistence.Column;
 import org.helenus.driver.persistence.DataType;
+import org.helenus.driver.persistence.Encoded;
 import org.helenus.driver.persistence.UDTEntity;
 import org.helenus.driver.persistence.UDTRootEntity;
 
@@ -435,7 +436,7 @@ public class DataTypeImpl {
             final TypeCodec<?> acodec = Definition.getCodec(
               trace, keyspace, arguments.get(0), atype, mandatory, codecRegistry
             );
-            final TypeCodec<?> codec = TypeCodec.list(acodec);
+            final TypeCodec<?> codec = PackedCollectionCodecImpl.wrap(TypeCodec.list(acodec), acodec);
 
             return new ArgumentsCodec(
               !mandatory ? codec : new MandatoryCollectionCodec(codec, () -> new ArrayList<>(8)),
@@ -452,7 +453,9 @@ public class DataTypeImpl {
             final TypeCodec<?> acodec = Definition.getCodec(
               trace, keyspace, arguments.get(0), atype, mandatory, codecRegistry
             );
-            final TypeCodec<?> codec = new LinkedHashSetCodec((CollectionType)dtype, token, acodec);
+            final TypeCodec<?> codec = PackedCollectionCodecImpl.wrap(
+              new LinkedHashSetCodec((CollectionType)dtype, token, acodec), acodec
+            );
 
             return new ArgumentsCodec(
               !mandatory ? codec : new MandatoryCollectionCodec(codec, () -> new LinkedHashSet<>(8)),
@@ -471,7 +474,9 @@ public class DataTypeImpl {
             final TypeCodec<?> acodec = Definition.getCodec(
               trace, keyspace, arguments.get(0), atype, mandatory, codecRegistry
             );
-            final TypeCodec<?> codec = new SortedSetCodec((CollectionType)dtype, token, acodec);
+            final TypeCodec<?> codec = PackedCollectionCodecImpl.wrap(
+              new SortedSetCodec((CollectionType)dtype, token, acodec), acodec
+            );
 
             return new ArgumentsCodec(
               !mandatory ? codec : new MandatoryCollectionCodec(codec, () -> new TreeSet<>()),
@@ -488,7 +493,7 @@ public class DataTypeImpl {
             final TypeCodec<?> acodec = Definition.getCodec(
               trace, keyspace, arguments.get(0), atype, mandatory, codecRegistry
             );
-            final TypeCodec<?> codec = TypeCodec.set(acodec);
+            final TypeCodec<?> codec = PackedCollectionCodecImpl.wrap(TypeCodec.set(acodec), acodec);
 
             return new ArgumentsCodec(
               !mandatory ? codec : new MandatoryCollectionCodec(codec, () -> new LinkedHashSet<>(8)),
@@ -511,7 +516,9 @@ public class DataTypeImpl {
             final TypeCodec<?> vcodec = Definition.getCodec(
               trace, keyspace, arguments.get(1), vtype, mandatory, codecRegistry
             );
-            final TypeCodec<?> codec = new SortedMapCodec((CollectionType)dtype, token, kcodec, vcodec);
+            final TypeCodec<?> codec = PackedCollectionCodecImpl.wrap(
+              new SortedMapCodec((CollectionType)dtype, token, kcodec, vcodec), kcodec, vcodec
+            );
 
             return new ArgumentsCodec(
               !mandatory ? codec : new MandatoryMapCodec(codec, () -> new TreeMap<>()),
@@ -537,19 +544,25 @@ public class DataTypeImpl {
 
             if (kclazz.isEnum()) {
               // for enums, let's make sure the codec creates enum maps instead of standard maps
-              final TypeCodec<?> codec = new AbstractMapCodec(kcodec, vcodec) {
-                @Override
-                protected Map<?, ?> newInstance(int size) {
-                  return new EnumMap(kclazz);
-                }
-              };
+              final TypeCodec<?> codec = PackedCollectionCodecImpl.wrap(
+                new AbstractMapCodec(kcodec, vcodec) {
+                  @Override
+                  protected Map<?, ?> newInstance(int size) {
+                    return new EnumMap(kclazz);
+                  }
+                },
+                kcodec,
+                vcodec
+              );
               return new ArgumentsCodec(
                 !mandatory ? codec : new MandatoryMapCodec(codec, () -> new EnumMap(kclazz)),
                 kcodec,
                 vcodec
               );
             } // else - standard maps
-            final TypeCodec<?> codec = TypeCodec.map(kcodec, vcodec);
+            final TypeCodec<?> codec = PackedCollectionCodecImpl.wrap(
+              TypeCodec.map(kcodec, vcodec), kcodec, vcodec
+            );
 
             return new ArgumentsCodec(
               !mandatory ? codec : new MandatoryMapCodec(codec, () -> new HashMap<>(8)),
@@ -1148,6 +1161,18 @@ public class DataTypeImpl {
     org.apache.commons.lang3.Validate.notNull(field, "invalid null field");
     final Column.Data cdata = field.getAnnotation(Column.Data.class);
 
+    if (field.isAnnotationPresent(Encoded.class)) { // encoded values are always blobs
+      org.apache.commons.lang3.Validate.isTrue(
+        (cdata == null)
+        || (cdata.type() == DataType.INFERRED)
+        || (cdata.type() == DataType.BLOB),
+        "encoded field must be of data type '%s': %s.%s",
+        DataType.BLOB.CQL,
+        field.getDeclaringClass().getName(),
+        field.getName()
+      );
+      return new Definition(DataType.BLOB);
+    }
     if (cdata != null) {
       final List<CQLDataType> itypes = new ArrayList<>(3); // full set o inferred type if processed
       final List<CQLDataType> atypes
@@ -659,6 +659,7 @@ public class DeleteImpl<T>
           // otherwise, simply add this table to the list of tables to handle
           if (insert == null) {
             insert = init(new InsertImpl<>(getPOJOContext(), table, usings.usings, mgr, bridge));
+            insert.audits = audits;
           } else { // add this table to the mix
             insert.into(table);
           }
@@ -676,6 +677,53 @@ public class DeleteImpl<T>
     return builders.toArray(new StringBuilder[builders.size()]);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.impl.StatementImpl#canJournalAudits()
+   */
+  @SuppressWarnings("synthetic-access")
+  @Override
+  protected boolean canJournalAudits() {
+    return !isConditional()
+      && (columnNames == null)
+      && where.clauses.isEmpty()
+      && tables.stream().anyMatch(t -> (t.getTable().type() == Table.Type.AUDIT));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.impl.StatementImpl#isConditional()
+   */
+  @SuppressWarnings("synthetic-access")
+  @Override
+  protected boolean isConditional() {
+    return !conditions.conditions.isEmpty() || ifExists;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.impl.StatementImpl#canSpool()
+   */
+  @SuppressWarnings("synthetic-access")
+  @Override
+  protected boolean canSpool() {
+    final List<Object> names = columnNames;
+
+    // deleting list elements by index is not idempotent
+    return !isConditional()
+      && !Boolean.FALSE.equals(isIdempotent())
+      && ((names == null) || names.stream().noneMatch(n -> n instanceof Utils.CNameIndex));
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -16,9 +16,13 @@
 package org.helenus.driver.impl;
 
 import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.Field;
 import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Member;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
 import java.lang.reflect.ParameterizedType;
@@ -34,32 +38,42 @@ import java.util.function.BiConsumer;
 import java.util.function.Function;
 import java.util.stream.Stream;
 
+import java.nio.ByteBuffer;
+
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.ClassUtils;
 import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 import org.apache.commons.lang3.text.WordUtils;
 
+import com.datastax.driver.core.ProtocolVersion;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.TypeCodec;
 import com.datastax.driver.core.UDTValue;
 import com.datastax.driver.core.exceptions.InvalidTypeException;
 
+import org.helenus.commons.lang3.CompressionCodec;
+import org.helenus.commons.lang3.EncodingRegistry;
+import org.helenus.commons.lang3.SerializationCodec;
 import org.helenus.commons.lang3.reflect.ReflectionUtils;
 import org.helenus.driver.ExcludedKeyspaceKeyException;
 import org.helenus.driver.ObjectConversionException;
 import org.helenus.driver.ObjectMissingException;
 import org.helenus.driver.codecs.ArgumentsCodec;
+import org.helenus.driver.codecs.EncodedCodec;
+import org.helenus.driver.codecs.provider.BlobCodecProvider;
 import org.helenus.driver.info.ClassInfo;
 import org.helenus.driver.info.FieldInfo;
 import org.helenus.driver.info.TableInfo;
 import org.helenus.driver.persistence.ClusteringKey;
 import org.helenus.driver.persistence.Column;
 import org.helenus.driver.persistence.DataType;
+import org.helenus.driver.persistence.Encoded;
 import org.helenus.driver.persistence.Index;
 import org.helenus.driver.persistence.KeyspaceKey;
 import org.helenus.driver.persistence.Mandatory;
 import org.helenus.driver.persistence.PartitionKey;
+import org.helenus.driver.persistence.ReadOnlyBlob;
 import org.helenus.driver.persistence.Table;
 import org.helenus.driver.persistence.TypeKey;
 
@@ -510,7 +524,7 @@ public class FieldInfoImpl<T> implements FieldInfo<T> {
       }
     }
     if (isColumn()) {
-      this.definition = DataTypeImpl.inferDataTypeFrom(mgr, field, column.isFrozen());
+      this.definition = mgr.inferDataTypeFrom(field, column.isFrozen());
       this.codecs = new ConcurrentHashMap<>(8);
       this.icodec = getCodec("");
       if (isInTable
@@ -797,8 +811,7 @@ public class FieldInfoImpl<T> implements FieldInfo<T> {
     }
     if (getter != null) {
       final Method g = getter;
-
-      getters.put(cinfo.getObjectClass(), obj -> {
+      final Function<Object, Object> f = obj -> {
         try {
           return g.invoke(obj);
         } catch (IllegalAccessException e) { // should not happen
@@ -814,15 +827,33 @@ public class FieldInfoImpl<T> implements FieldInfo<T> {
             throw new IllegalStateException(declaringClass.getName(), t);
           }
         }
-      });
+      };
+
+      if (g.getReturnType().isPrimitive()) {
+        getters.put(
+          cinfo.getObjectClass(),
+          PrimitiveAccessor.getter(g.getReturnType(), g, f)
+        );
+      } else {
+        getters.put(cinfo.getObjectClass(), f);
+      }
     } else {
-      getters.put(cinfo.getObjectClass(), obj -> {
+      final Function<Object, Object> f = obj -> {
         try {
           return field.get(obj);
         } catch (IllegalAccessException e) { // should not happen
           throw new IllegalStateException(declaringClass.getName(), e);
         }
-      });
+      };
+
+      if (field.getType().isPrimitive()) {
+        getters.put(
+          cinfo.getObjectClass(),
+          PrimitiveAccessor.getter(field.getType(), field, f)
+        );
+      } else {
+        getters.put(cinfo.getObjectClass(), f);
+      }
     }
   }
 
@@ -910,7 +941,7 @@ public class FieldInfoImpl<T> implements FieldInfo<T> {
         );
       }
       m.setAccessible(true);
-      setters.put(cinfo.getObjectClass(), (obj, val) -> {
+      final BiConsumer<Object, Object> c = (obj, val) -> {
         try {
           m.invoke(obj, val);
         } catch (IllegalAccessException e) { // should not happen
@@ -926,17 +957,35 @@ public class FieldInfoImpl<T> implements FieldInfo<T> {
             throw new IllegalStateException(t);
           }
         }
-      });
+      };
+
+      if (field.getType().isPrimitive()) {
+        setters.put(
+          cinfo.getObjectClass(),
+          PrimitiveAccessor.setter(field.getType(), m, c)
+        );
+      } else {
+        setters.put(cinfo.getObjectClass(), c);
+      }
     } catch (NoSuchMethodException e) {
       // fallback to the field itself unless it is marked final
       if (!isFinal) {
-        setters.put(cinfo.getObjectClass(), (obj, val) -> {
+        final BiConsumer<Object, Object> c = (obj, val) -> {
           try {
             field.set(obj, val);
           } catch (IllegalAccessException iae) { // should not happen
             throw new IllegalStateException(iae);
           }
-        });
+        };
+
+        if (field.getType().isPrimitive()) {
+          setters.put(
+            cinfo.getObjectClass(),
+            PrimitiveAccessor.setter(field.getType(), field, c)
+          );
+        } else {
+          setters.put(cinfo.getObjectClass(), c);
+        }
       }
     }
   }
@@ -1423,7 +1472,7 @@ public class FieldInfoImpl<T> implements FieldInfo<T> {
     }
     if (isColumn()) {
       if (value != null) {
-        if (!((definition.getMainType() == DataType.BLOB) ? byte[].class : type).isInstance(value)) { // persisted columns will be serialized later
+        if (!(((definition.getMainType() == DataType.BLOB) && !isEncoded() && (type != ByteBuffer.class)) ? byte[].class : type).isInstance(value)) { // persisted columns will be serialized later
           if (isMultiKey()) {
             // in such case, the value can also be an element of the set
             if (!multiKeyType.isInstance(value)) {
@@ -1507,6 +1556,18 @@ public class FieldInfoImpl<T> implements FieldInfo<T> {
     );
   }
 
+  /**
+   * Checks if this field is encoded as a blob.
+   *
+   * @author paouelle
+   *
+   * @return <code>true</code> if this field is annotated with {@link Encoded};
+   *         <code>false</code> otherwise
+   */
+  public boolean isEncoded() {
+    return (field != null) && field.isAnnotationPresent(Encoded.class);
+  }
+
   /**
    * Gets the default codec for this field.
    *
@@ -1532,6 +1593,11 @@ public class FieldInfoImpl<T> implements FieldInfo<T> {
     if (codecs == null) {
       throw new IllegalStateException("should not be called");
     }
+    final TypeCodec<?> codec = codecs.get(ks); // avoid locking when already cached
+
+    if (codec != null) {
+      return codec;
+    }
     if (field == null) {
       return codecs.compute(ks, (k, old) -> {
         if (old == null) {
@@ -1542,6 +1608,29 @@ public class FieldInfoImpl<T> implements FieldInfo<T> {
     } else if (isColumn()) {
       return codecs.compute(ks, (k, old) -> {
         if (old == null) {
+          final Encoded encoded = field.getAnnotation(Encoded.class);
+
+          if (encoded != null) {
+            return new EncodedCodec<>(
+              type,
+              (encoded.serializationCodec() != SerializationCodec.class)
+                ? EncodingRegistry.getSerialization(encoded.serializationCodec())
+                : encoded.serialization(),
+              (encoded.compressionCodec() != CompressionCodec.class)
+                ? EncodingRegistry.getCompression(encoded.compressionCodec())
+                : encoded.compression()
+            );
+          }
+          if (field.isAnnotationPresent(ReadOnlyBlob.class)) {
+            org.apache.commons.lang3.Validate.isTrue(
+              (type == ByteBuffer.class) && (definition.getMainType() == DataType.BLOB),
+              "@ReadOnlyBlob field must be a ByteBuffer persisted as a '%s': %s.%s",
+              DataType.BLOB.CQL,
+              declaringClass.getName(),
+              getName()
+            );
+            return BlobCodecProvider.readonlybytebuffer();
+          }
           old = definition.getCodec(
             k,
             field,
@@ -1717,6 +1806,29 @@ public class FieldInfoImpl<T> implements FieldInfo<T> {
     return val;
   }
 
+  /**
+   * Gets the accessor capable of writing the field's value from the specified
+   * POJO without boxing it when the field is declared with a primitive type
+   * supported by the given codec.
+   *
+   * @author paouelle
+   *
+   * @param  object the POJO from which to retrieve the field's value
+   * @param  codec the codec the value would be serialized with
+   * @return the corresponding primitive accessor or <code>null</code> if the
+   *         value must be retrieved and serialized generically
+   * @throws NullPointerException if <code>object</code> is <code>null</code>
+   */
+  PrimitiveAccessor getPrimitiveAccessor(T object, TypeCodec<?> codec) {
+    final Function<Object, Object> getter = getGetter(object.getClass());
+
+    if ((getter instanceof PrimitiveAccessor)
+        && ((PrimitiveAccessor)getter).supports(codec)) {
+      return (PrimitiveAccessor)getter;
+    }
+    return null;
+  }
+
   /**
    * Sets the field's value in the specified POJO with the given value.
    *
@@ -2006,6 +2118,35 @@ public class FieldInfoImpl<T> implements FieldInfo<T> {
    */
   public void decodeAndSetValue(T object, Row row) {
     org.apache.commons.lang3.Validate.notNull(object, "invalid null object");
+    final BiConsumer<Object, Object> setter = getSetter(object.getClass());
+
+    if (setter instanceof PrimitiveAccessor) {
+      final int index = row.getColumnDefinitions().getIndexOf(getColumnName());
+
+      if (index != -1) {
+        try {
+          if (((PrimitiveAccessor)setter).decodeAndSet(
+            object,
+            getCodec(row.getColumnDefinitions().getKeyspace(index)),
+            row.getBytesUnsafe(index),
+            cinfo.mgr.getProtocolVersion()
+          )) {
+            return;
+          } // else - fallback to the generic path
+        } catch (IllegalArgumentException|InvalidTypeException e) {
+          throw new ObjectConversionException(
+            clazz,
+            row,
+            "unable to decode value for field '"
+            + declaringClass.getName()
+            + "."
+            + name
+            + "'",
+            e
+          );
+        }
+      }
+    }
     Object val;
 
     try {
@@ -2079,6 +2220,77 @@ public class FieldInfoImpl<T> implements FieldInfo<T> {
     }
   }
 
+  /**
+   * Decodes and sets the field's value in the specified POJO based on the given
+   * serialized UDT field value.
+   *
+   * @author paouelle
+   *
+   * @param  object the POJO in which to set the field's decoded value
+   * @param  codec the codec to use to decode the value
+   * @param  bytes the serialized value or <code>null</code> if none
+   * @param  protocolVersion the protocol version to use
+   * @throws NullPointerException if <code>object</code> is <code>null</code>
+   * @throws ObjectConversionException if unable to decode the value and store
+   *         the corresponding value into the POJO object
+   * @throws ObjectMissingException if the value is not defined and is
+   *         mandatory
+   */
+  public void decodeAndSetValue(
+    T object,
+    TypeCodec<?> codec,
+    ByteBuffer bytes,
+    ProtocolVersion protocolVersion
+  ) {
+    org.apache.commons.lang3.Validate.notNull(object, "invalid null object");
+    final BiConsumer<Object, Object> setter = getSetter(object.getClass());
+    Object val;
+
+    try {
+      try {
+        if ((setter instanceof PrimitiveAccessor)
+            && ((PrimitiveAccessor)setter).decodeAndSet(
+                 object, codec, bytes, protocolVersion
+               )) {
+          return;
+        } // else - fallback to the generic path
+        val = verifyValue(
+          codec.deserialize(bytes, protocolVersion), false, "UDT value"
+        );
+      } catch (IllegalArgumentException|InvalidTypeException e) {
+        throw new ObjectConversionException(
+          clazz,
+          "unable to decode value for field '"
+          + declaringClass.getName()
+          + "."
+          + name
+          + "'",
+          e
+        );
+      }
+    } catch (ObjectMissingException e) {
+      // verify if the column is not mandatory in which case we just skip it
+      if (isMandatory()) {
+        throw e;
+      } // else - not mandatory and not defined in the value so skip it
+      return;
+    }
+    try {
+      setValue(object, val);
+    } catch (NullPointerException|IllegalArgumentException e) {
+      throw new ObjectConversionException(
+        clazz,
+        "unable to set field '"
+        + declaringClass.getName()
+        + "."
+        + name
+        + "' with: "
+        + val,
+        e
+      );
+    }
+  }
+
   /**
    * Decodes and sets the field's value in the specified POJO based on the given
    * UDT value.
@@ -2196,4 +2408,382 @@ public class FieldInfoImpl<T> implements FieldInfo<T> {
     sb.setExcludeFieldNames("cinfo", "tinfo");
     return sb.toString();
   }
+
+  /**
+   * The <code>PrimitiveAccessor</code> class provides access to a field
+   * declared with a primitive type either directly or through its getter or
+   * setter method. In addition to the boxed accessors, it keeps an exactly
+   * typed method handle which is used to decode, encode, or format the field's
+   * value without boxing it when used with the driver's primitive codecs.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 18, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  static class PrimitiveAccessor
+    implements Function<Object, Object>, BiConsumer<Object, Object> {
+    /**
+     * Holds the lookup used to create method handles.
+     *
+     * @author paouelle
+     */
+    private final static MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    /**
+     * Creates an accessor for retrieving values of the specified type.
+     *
+     * @author paouelle
+     *
+     * @param  type the primitive type of the values
+     * @param  member the non-<code>null</code> accessible field or getter
+     *         method
+     * @param  getter the boxed getter to use
+     * @return the corresponding accessor
+     */
+    static PrimitiveAccessor getter(
+      Class<?> type, Member member, Function<Object, Object> getter
+    ) {
+      try {
+        final MethodHandle handle = (
+          (member instanceof Field)
+          ? PrimitiveAccessor.LOOKUP.unreflectGetter((Field)member)
+          : PrimitiveAccessor.LOOKUP.unreflect((Method)member)
+        );
+
+        return new PrimitiveAccessor(
+          type,
+          handle.asType(MethodType.methodType(type, Object.class)),
+          getter,
+          null
+        );
+      } catch (IllegalAccessException e) { // should not happen
+        throw new IllegalStateException(member.getDeclaringClass().getName(), e);
+      }
+    }
+
+    /**
+     * Creates an accessor for setting values of the specified type.
+     *
+     * @author paouelle
+     *
+     * @param  type the primitive type of the values
+     * @param  member the non-<code>null</code> accessible field or setter
+     *         method
+     * @param  setter the boxed setter to use
+     * @return the corresponding accessor
+     */
+    static PrimitiveAccessor setter(
+      Class<?> type, Member member, BiConsumer<Object, Object> setter
+    ) {
+      try {
+        final MethodHandle handle = (
+          (member instanceof Field)
+          ? PrimitiveAccessor.LOOKUP.unreflectSetter((Field)member)
+          : PrimitiveAccessor.LOOKUP.unreflect((Method)member)
+        );
+
+        return new PrimitiveAccessor(
+          type,
+          handle.asType(MethodType.methodType(Void.TYPE, Object.class, type)),
+          null,
+          setter
+        );
+      } catch (IllegalAccessException e) { // should not happen
+        throw new IllegalStateException(member.getDeclaringClass().getName(), e);
+      }
+    }
+
+    /**
+     * Rethrows the specified exception raised while invoking a method handle.
+     *
+     * @author paouelle
+     *
+     * @param  t the exception to rethrow
+     * @return never returns
+     * @throws Error if <code>t</code> is an error
+     * @throws RuntimeException if <code>t</code> is a runtime exception
+     * @throws IllegalStateException for all other exceptions
+     */
+    private static IllegalStateException rethrow(Throwable t) {
+      if (t instanceof Error) {
+        throw (Error)t;
+      } else if (t instanceof RuntimeException) {
+        throw (RuntimeException)t;
+      } // else - we don't expect any of those
+      throw new IllegalStateException(t);
+    }
+
+    /**
+     * Holds the primitive type of the field.
+     *
+     * @author paouelle
+     */
+    private final Class<?> type;
+
+    /**
+     * Holds the method handle typed exactly as <code>(Object)type</code> for
+     * getters or <code>(Object,type)void</code> for setters.
+     *
+     * @author paouelle
+     */
+    private final MethodHandle handle;
+
+    /**
+     * Holds the boxed getter or <code>null</code> if this is a setter.
+     *
+     * @author paouelle
+     */
+    private final Function<Object, Object> getter;
+
+    /**
+     * Holds the boxed setter or <code>null</code> if this is a getter.
+     *
+     * @author paouelle
+     */
+    private final BiConsumer<Object, Object> setter;
+
+    /**
+     * Instantiates a new <code>PrimitiveAccessor</code> object.
+     *
+     * @author paouelle
+     *
+     * @param type the primitive type of the field
+     * @param handle the exactly typed method handle
+     * @param getter the boxed getter or <code>null</code> if this is a setter
+     * @param setter the boxed setter or <code>null</code> if this is a getter
+     */
+    private PrimitiveAccessor(
+      Class<?> type,
+      MethodHandle handle,
+      Function<Object, Object> getter,
+      BiConsumer<Object, Object> setter
+    ) {
+      this.type = type;
+      this.handle = handle;
+      this.getter = getter;
+      this.setter = setter;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see java.util.function.Function#apply(java.lang.Object)
+     */
+    @Override
+    public Object apply(Object obj) {
+      return getter.apply(obj);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see java.util.function.BiConsumer#accept(java.lang.Object, java.lang.Object)
+     */
+    @Override
+    public void accept(Object obj, Object val) {
+      setter.accept(obj, val);
+    }
+
+    /**
+     * Checks if the specified codec serializes values of the field's primitive
+     * type.
+     *
+     * @author paouelle
+     *
+     * @param  codec the codec to check
+     * @return <code>true</code> if the field's value can be encoded without
+     *         boxing it in place of the given codec; <code>false</code>
+     *         otherwise
+     */
+    boolean supports(TypeCodec<?> codec) {
+      if (type == Integer.TYPE) {
+        return codec instanceof TypeCodec.PrimitiveIntCodec;
+      } else if (type == Long.TYPE) {
+        return codec instanceof TypeCodec.PrimitiveLongCodec;
+      } else if (type == Double.TYPE) {
+        return codec instanceof TypeCodec.PrimitiveDoubleCodec;
+      } else if (type == Float.TYPE) {
+        return codec instanceof TypeCodec.PrimitiveFloatCodec;
+      } else if (type == Boolean.TYPE) {
+        return codec instanceof TypeCodec.PrimitiveBooleanCodec;
+      } else if (type == Short.TYPE) {
+        return codec instanceof TypeCodec.PrimitiveShortCodec;
+      } else if (type == Byte.TYPE) {
+        return codec instanceof TypeCodec.PrimitiveByteCodec;
+      }
+      return false;
+    }
+
+    /**
+     * Decodes the specified value and sets it in the given object without
+     * boxing it.
+     *
+     * @author paouelle
+     *
+     * @param  obj the object in which to set the field's value
+     * @param  codec the codec to decode the value with
+     * @param  bytes the value to decode
+     * @param  protocolVersion the protocol version to use
+     * @return <code>true</code> if the value was decoded and set;
+     *         <code>false</code> if the value is <code>null</code> or the
+     *         codec doesn't support decoding primitive values for the field's
+     *         type in which case the value must be decoded generically
+     * @throws InvalidTypeException if unable to decode the value
+     */
+    boolean decodeAndSet(
+      Object obj, TypeCodec<?> codec, ByteBuffer bytes, ProtocolVersion protocolVersion
+    ) {
+      if ((bytes == null) || !bytes.hasRemaining() || !supports(codec)) {
+        return false; // let the generic path deal with it
+      }
+      try {
+        if (type == Integer.TYPE) {
+          handle.invokeExact(obj, ((TypeCodec.PrimitiveIntCodec)codec).deserializeNoBoxing(bytes, protocolVersion));
+        } else if (type == Long.TYPE) {
+          handle.invokeExact(obj, ((TypeCodec.PrimitiveLongCodec)codec).deserializeNoBoxing(bytes, protocolVersion));
+        } else if (type == Double.TYPE) {
+          handle.invokeExact(obj, ((TypeCodec.PrimitiveDoubleCodec)codec).deserializeNoBoxing(bytes, protocolVersion));
+        } else if (type == Float.TYPE) {
+          handle.invokeExact(obj, ((TypeCodec.PrimitiveFloatCodec)codec).deserializeNoBoxing(bytes, protocolVersion));
+        } else if (type == Boolean.TYPE) {
+          handle.invokeExact(obj, ((TypeCodec.PrimitiveBooleanCodec)codec).deserializeNoBoxing(bytes, protocolVersion));
+        } else if (type == Short.TYPE) {
+          handle.invokeExact(obj, ((TypeCodec.PrimitiveShortCodec)codec).deserializeNoBoxing(bytes, protocolVersion));
+        } else {
+          handle.invokeExact(obj, ((TypeCodec.PrimitiveByteCodec)codec).deserializeNoBoxing(bytes, protocolVersion));
+        }
+      } catch (Throwable t) {
+        throw PrimitiveAccessor.rethrow(t);
+      }
+      return true;
+    }
+
+    /**
+     * Writes the field's value from the given object directly in the
+     * specified buffer without boxing it using the driver's encoding for
+     * primitive values.
+     *
+     * @author paouelle
+     *
+     * @param obj the object from which to retrieve the field's value
+     * @param out the buffer where to write the value
+     */
+    void write(Object obj, ByteBuffer out) {
+      try {
+        if (type == Integer.TYPE) {
+          out.putInt((int)handle.invokeExact(obj));
+        } else if (type == Long.TYPE) {
+          out.putLong((long)handle.invokeExact(obj));
+        } else if (type == Double.TYPE) {
+          out.putDouble((double)handle.invokeExact(obj));
+        } else if (type == Float.TYPE) {
+          out.putFloat((float)handle.invokeExact(obj));
+        } else if (type == Boolean.TYPE) {
+          out.put((byte)((boolean)handle.invokeExact(obj) ? 1 : 0));
+        } else if (type == Short.TYPE) {
+          out.putShort((short)handle.invokeExact(obj));
+        } else {
+          out.put((byte)handle.invokeExact(obj));
+        }
+      } catch (Throwable t) {
+        throw PrimitiveAccessor.rethrow(t);
+      }
+    }
+
+    /**
+     * Retrieves the field's value from the given object without boxing it.
+     *
+     * @author paouelle
+     *
+     * @param  obj the object from which to retrieve the field's value
+     * @return the raw bits for the field's value
+     */
+    long getBits(Object obj) {
+      try {
+        if (type == Integer.TYPE) {
+          return (int)handle.invokeExact(obj);
+        } else if (type == Long.TYPE) {
+          return (long)handle.invokeExact(obj);
+        } else if (type == Double.TYPE) {
+          return Double.doubleToRawLongBits((double)handle.invokeExact(obj));
+        } else if (type == Float.TYPE) {
+          return Float.floatToRawIntBits((float)handle.invokeExact(obj));
+        } else if (type == Boolean.TYPE) {
+          return (boolean)handle.invokeExact(obj) ? 1L : 0L;
+        } else if (type == Short.TYPE) {
+          return (short)handle.invokeExact(obj);
+        }
+        return (byte)handle.invokeExact(obj);
+      } catch (Throwable t) {
+        throw PrimitiveAccessor.rethrow(t);
+      }
+    }
+
+    /**
+     * Boxes the specified raw bits retrieved with {@link #getBits}.
+     *
+     * @author paouelle
+     *
+     * @param  bits the raw bits for the field's value
+     * @return the corresponding boxed value
+     */
+    Object box(long bits) {
+      if (type == Integer.TYPE) {
+        return (int)bits;
+      } else if (type == Long.TYPE) {
+        return bits;
+      } else if (type == Double.TYPE) {
+        return Double.longBitsToDouble(bits);
+      } else if (type == Float.TYPE) {
+        return Float.intBitsToFloat((int)bits);
+      } else if (type == Boolean.TYPE) {
+        return bits != 0L;
+      } else if (type == Short.TYPE) {
+        return (short)bits;
+      }
+      return (byte)bits;
+    }
+
+    /**
+     * Formats the specified raw bits retrieved with {@link #getBits} as a CQL
+     * literal the same way the given codec would without boxing the value.
+     *
+     * @author paouelle
+     *
+     * @param  codec the codec for the field
+     * @param  bits the raw bits for the field's value
+     * @param  sb the string builder where to append the literal
+     * @return <code>true</code> if the literal was appended; <code>false</code>
+     *         if the codec is not one of the driver's numeric or boolean codecs
+     *         in which case the value must be formatted with the codec
+     */
+    boolean format(TypeCodec<?> codec, long bits, StringBuilder sb) {
+      if ((type == Integer.TYPE) && (codec == TypeCodec.cint())) {
+        sb.append((int)bits);
+      } else if ((type == Long.TYPE)
+                 && ((codec == TypeCodec.bigint()) || (codec == TypeCodec.counter()))) {
+        sb.append(bits);
+      } else if ((type == Double.TYPE) && (codec == TypeCodec.cdouble())) {
+        sb.append(Double.longBitsToDouble(bits));
+      } else if ((type == Float.TYPE) && (codec == TypeCodec.cfloat())) {
+        sb.append(Float.intBitsToFloat((int)bits));
+      } else if ((type == Boolean.TYPE) && (codec == TypeCodec.cboolean())) {
+        sb.append(bits != 0L);
+      } else if ((type == Short.TYPE) && (codec == TypeCodec.smallInt())) {
+        sb.append((short)bits);
+      } else if ((type == Byte.TYPE) && (codec == TypeCodec.tinyInt())) {
+        sb.append((byte)bits);
+      } else {
+        return false;
+      }
+      return true;
+    }
+  }
 }
@@ -20,7 +20,6 @@ import java.util.List;
 
 import com.datastax.driver.core.EmptyResultSetFuture;
 import com.datastax.driver.core.LastResultParallelSetFuture;
-import com.datastax.driver.core.MetadataBridge;
 import com.datastax.driver.core.ResultSetFuture;
 import com.google.common.util.concurrent.ListenableFuture;
 
@@ -140,7 +139,7 @@ public abstract class GroupStatementImpl<R, F extends ListenableFuture<R>, T>
   private void initParallelFactor() {
     try {
       this.parallelFactor = (
-        Math.max(1, MetadataBridge.getNumHosts(mgr.getCluster().getMetadata())) * 32
+        Math.max(1, mgr.getNumHosts()) * 32
       );
     } catch (Exception e) { // defaults to 32 if we cannot get the info from the cluster
       this.parallelFactor = 32;
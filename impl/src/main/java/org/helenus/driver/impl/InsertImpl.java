@@ -17,34 +17,31 @@ package org.helenus.driver.impl;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
-import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
-import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.tuple.Triple;
 
+import com.datastax.driver.core.CodecRegistry;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.TypeCodec;
 
-import org.helenus.commons.collections.iterators.CombinationIterator;
 import org.helenus.driver.ExcludedKeyspaceKeyException;
 import org.helenus.driver.Insert;
 import org.helenus.driver.ObjectExistException;
 import org.helenus.driver.StatementBridge;
 import org.helenus.driver.Using;
 import org.helenus.driver.VoidFuture;
-import org.helenus.driver.codecs.ArgumentsCodec;
 import org.helenus.driver.info.TableInfo;
 import org.helenus.driver.persistence.CQLDataType;
+import org.helenus.driver.persistence.Table;
 
 /**
  * The <code>InsertImpl</code> class extends the functionality of Cassandra's
@@ -98,6 +95,14 @@ public class InsertImpl<T>
    */
   private volatile boolean ifNotExists;
 
+  /**
+   * Flag indicating if non-mandatory columns with <code>null</code> values
+   * extracted from the POJO should be omitted.
+   *
+   * @author paouelle
+   */
+  private volatile boolean omitNulls;
+
   /**
    * Flag indicating if all values were added already.
    *
@@ -105,6 +110,21 @@ public class InsertImpl<T>
    */
   private volatile boolean allValuesAdded;
 
+  /**
+   * Holds the target of this INSERT statement when executed as a lightweight
+   * transaction affecting a single row or <code>null</code> if unknown.
+   *
+   * @author paouelle
+   */
+  private volatile LWTExecutionImpl.Target lwtTarget;
+
+  /**
+   * Holds the number of rows inserted by the query strings last built.
+   *
+   * @author paouelle
+   */
+  private int lwtRows;
+
   /**
    * Instantiates a new <code>InsertImpl</code> object.
    *
@@ -136,6 +156,7 @@ public class InsertImpl<T>
       this.tables.addAll(context.getClassInfo().getTablesImpl());
     }
     this.usings = new OptionsImpl<>(this);
+    this.omitNulls = context.getClassInfo().areNullsOmitted();
   }
 
   /**
@@ -163,6 +184,7 @@ public class InsertImpl<T>
     super(Void.class, context, mgr, bridge);
     tables.add(table);
     this.usings = new OptionsImpl<>(this, usings);
+    this.omitNulls = context.getClassInfo().areNullsOmitted();
   }
 
   /**
@@ -176,6 +198,64 @@ public class InsertImpl<T>
     tables.add(table);
   }
 
+  /**
+   * Checks if the specified column value can be omitted from the insert.
+   *
+   * @author paouelle
+   *
+   * @param <T> the type of POJO
+   *
+   * @param  finfo the field for the column or <code>null</code> if unknown
+   * @param  v the column value
+   * @return <code>true</code> if the column can be omitted; <code>false</code>
+   *         otherwise
+   */
+  private static <T> boolean isOmittable(FieldInfoImpl<T> finfo, Object v) {
+    if ((v != null) && !((v instanceof Optional) && !((Optional<?>)v).isPresent())) {
+      return false;
+    }
+    // keys and mandatory columns would have been validated already but
+    // keep them just in case
+    return !((finfo == null)
+             || finfo.isPartitionKey()
+             || finfo.isClusteringKey()
+             || finfo.isTypeKey()
+             || finfo.isMandatory());
+  }
+
+  /**
+   * Removes all non-mandatory columns with <code>null</code> values from the
+   * specified columns if requested.
+   *
+   * @author paouelle
+   *
+   * @param  table the non-<code>null</code> table for the columns
+   * @param  columns the non-<code>null</code> columns and their values
+   * @return a map of the columns to insert
+   */
+  @SuppressWarnings("unchecked")
+  private Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> withoutNulls(
+    TableInfoImpl<T> table, Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> columns
+  ) {
+    if (!omitNulls) {
+      return columns;
+    }
+    if (columns instanceof ColumnValuesImpl) {
+      // filter in place by ordinals
+      ((ColumnValuesImpl<T>)columns).removeIf(InsertImpl::isOmittable);
+      return columns;
+    }
+    final Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> cs
+      = new LinkedHashMap<>(columns.size());
+
+    columns.forEach((n, t) -> {
+      if (!InsertImpl.isOmittable(table.getColumnImpl(n), t.getLeft())) {
+        cs.put(n, t);
+      } // else - omit it
+    });
+    return cs;
+  }
+
   /**
    * Builds a query string for the specified table.
    *
@@ -198,26 +278,33 @@ public class InsertImpl<T>
       if (allValuesAdded || this.columns.isEmpty()) {
         // either all columns were added so just get all of them from the table
         // or again no columns were added so fallback to all
-        columns = getPOJOContext().getColumnValues(table.getName());
+        columns = withoutNulls(table, getPOJOContext().getColumnValues(table.getName()));
       } else {
         // we need to make sure all primary and mandatory columns are in there first
+        // (updated in place as it is freshly extracted from the POJO)
         final Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> mpkcolumns
           = getPOJOContext().getMandatoryAndPrimaryKeyColumnValues(table.getName());
 
-        columns = new LinkedHashMap<>(mpkcolumns.size() + this.columns.size());
-        columns.putAll(mpkcolumns);
+        columns = (mpkcolumns instanceof ColumnValuesImpl)
+          ? mpkcolumns
+          : new LinkedHashMap<>(mpkcolumns);
         // now add those that were manually added
-        columns.putAll(getPOJOContext().getColumnValues(
-          table.getName(), (Collection<CharSequence>)(Collection)this.columns)
+        ColumnValuesImpl.forEach(
+          withoutNulls(table, getPOJOContext().getColumnValues(
+            table.getName(), (Collection<CharSequence>)(Collection)this.columns
+          )),
+          (n, v, d, c) -> ColumnValuesImpl.putValue(columns, n, v, d, c)
         );
         // finally add the specific values for this statement
         values.forEach((n, v) -> {
           final FieldInfoImpl finfo = table.getColumnImpl(n);
 
           if (finfo != null) {
-            columns.put(n, Triple.of(v, finfo.getDataType(), finfo.getCodec(getKeyspace())));
+            ColumnValuesImpl.putValue(
+              columns, n, v, finfo.getDataType(), finfo.getCodec(getKeyspace())
+            );
           } else {
-            columns.put(n, Triple.of(v, null, null));
+            ColumnValuesImpl.putValue(columns, n, v, null, null);
           }
         });
       }
@@ -225,77 +312,10 @@ public class InsertImpl<T>
       // ignore and continue without updating this table
       return;
     }
-    // check if the table has multi-keys in which case we need to iterate all
-    // possible combinations/values for all keys and generate separate insert
-    // statements
-    // also check if we have case insensitive keys as we need to convert values
-    // to lower case and change the column name being queried
-    final Collection<FieldInfoImpl<T>> multiKeys = table.getMultiKeys();
-    final Collection<FieldInfoImpl<T>> caseInsensitiveKeys = table.getCaseInsensitiveKeys();
-
-    // if we have case insensitive keys then we need to process those first
-    // and then address the multi keys combinations
-    if (!caseInsensitiveKeys.isEmpty()) {
-      for (final FieldInfoImpl<T> finfo: caseInsensitiveKeys) {
-        if (finfo.isMultiKey()) { // will be handled separately after this
-          continue;
-        }
-        final Triple<Object, CQLDataType, TypeCodec<?>> pset = columns.get(finfo.getColumnName()); // we need to leave the original column there as is
-
-        if (pset != null) {
-          final Object v = pset.getLeft();
-
-          columns.put(
-            StatementImpl.CI_PREFIX + finfo.getColumnName(),
-            Triple.of(
-              (v != null) ? StringUtils.lowerCase(v.toString()) : null,
-              pset.getMiddle(),
-              pset.getRight()
-            )
-          );
-        }
-      }
-    }
-    if (!multiKeys.isEmpty()) {
-      // prepare sets of values for all multi-keys
-      final Collection<Object>[] sets = new Collection[multiKeys.size()];
-      int j = -1;
-
-      for (final FieldInfoImpl<T> finfo: multiKeys) {
-        final Triple<Object, CQLDataType, TypeCodec<?>> pset = columns.get(finfo.getColumnName());
-
-        if (pset != null) {
-          final boolean ci = finfo.isCaseInsensitiveKey();
-
-          if (ci) {
-            sets[++j] = ((Collection<Object>)pset.getLeft()).stream()
-              .map(v -> (v != null) ? StringUtils.lowerCase(v.toString()) : null)
-              .collect(Collectors.toCollection(LinkedHashSet::new));
-          } else {
-            sets[++j] = (Collection<Object>)pset.getLeft();
-          }
-        } else {
-          sets[++j] = null;
-        }
-      }
-      // now iterate all combination of these sets
-      for (final Iterator<List<Object>> i = new CombinationIterator<>(Object.class, sets); i.hasNext(); ) {
-        final List<Object> ckeys = i.next();
-
-        j = -1;
-        // add all multi-key column values from this combination to the column map
-        for (final FieldInfoImpl<T> finfo: multiKeys) {
-          columns.put(
-            StatementImpl.MK_PREFIX + finfo.getColumnName(),
-            Triple.of(ckeys.get(++j), finfo.getDataType().getElementType(), ((ArgumentsCodec<?>)finfo.getCodec(getKeyspace())).codec(0))
-          );
-        }
-        // finally build the query for this combination
-        buildQueryString(table, columns, builders);
-      }
-    } else { // only one statement to generate!
-      buildQueryString(table, columns, builders);
-    }
+    // expand case insensitive and multi-keys into all the rows to be inserted
+    table.forEachRowColumnValues(
+      getKeyspace(), columns, c -> buildQueryString(table, c, builders)
+    );
   }
 
   /**
@@ -340,16 +360,34 @@ public class InsertImpl<T>
     }
     Utils.appendName(builder, table.getName());
     builder.append("(");
-    Utils.joinAndAppendNames(
-      table, null, mgr.getCodecRegistry(), builder, ",", columns.keySet()
-    );
-    builder.append(") VALUES (");
-    Utils.joinAndAppendValues(
-      null, mgr.getCodecRegistry(), builder, ",", columns.values(), null
-    );
-    builder.append(")");
+    final CodecRegistry registry = mgr.getCodecRegistry();
+    final StringBuilder vbuilder = new StringBuilder(16 * columns.size());
+
+    // append names and values in a single pass over the column ordinals
+    ColumnValuesImpl.appendValues(columns, null, registry, null, n -> {
+      if (vbuilder.length() > 0) {
+        builder.append(',');
+        vbuilder.append(',');
+      }
+      Utils.appendName(builder, n);
+      return vbuilder;
+    });
+    builder.append(") VALUES (").append(vbuilder).append(")");
     if (ifNotExists) {
       builder.append(" IF NOT EXISTS");
+      if (++lwtRows == 1) {
+        final Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> pkeys
+          = new LinkedHashMap<>(table.getPrimaryKeys().size());
+
+        ColumnValuesImpl.forEach(columns, (n, v, d, c) -> {
+          if (table.getPrimaryKey(n) != null) {
+            pkeys.put(n, Triple.of(v, d, c));
+          }
+        });
+        this.lwtTarget = LWTExecutionImpl.Target.of(getKeyspace(), table, pkeys, columns);
+      } else { // more than one row so we cannot identify the row affected
+        this.lwtTarget = null;
+      }
     }
     if (!usings.usings.isEmpty()) {
       builder.append(" USING ");
@@ -357,7 +395,22 @@ public class InsertImpl<T>
         getKeyspace(), table, null, mgr.getCodecRegistry(), builder, " AND ", usings.usings, null
       );
     }
-    builders.add(builder);
+    final List<AuditJournalImpl.Entry> audits = this.audits;
+
+    if ((audits != null) && (table.getTable().type() == Table.Type.AUDIT)) {
+      // divert it to the audit journal
+      final StringBuilder group = new StringBuilder(64);
+
+      group.append(getKeyspace()).append('.').append(table.getName());
+      for (final FieldInfoImpl<T> finfo: table.getPartitionKeys()) {
+        group.append(':').append(
+          ColumnValuesImpl.valueOf(columns, finfo.getColumnName(), null)
+        );
+      }
+      audits.add(new AuditJournalImpl.Entry(group.toString(), builder.toString()));
+    } else {
+      builders.add(builder);
+    }
   }
 
   /**
@@ -393,6 +446,8 @@ public class InsertImpl<T>
     }
     final List<StringBuilder> builders = new ArrayList<>(tables.size());
 
+    this.lwtTarget = null;
+    this.lwtRows = 0;
     buildQueryStrings(builders);
     if (builders.isEmpty()) {
       return null;
@@ -400,6 +455,43 @@ public class InsertImpl<T>
     return builders.toArray(new StringBuilder[builders.size()]);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.impl.StatementImpl#canJournalAudits()
+   */
+  @Override
+  protected boolean canJournalAudits() {
+    return !isConditional()
+      && tables.stream().anyMatch(t -> (t.getTable().type() == Table.Type.AUDIT));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.impl.StatementImpl#isConditional()
+   */
+  @Override
+  protected boolean isConditional() {
+    return ifNotExists;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.impl.StatementImpl#canSpool()
+   */
+  @Override
+  protected boolean canSpool() {
+    return !ifNotExists && !Boolean.FALSE.equals(isIdempotent());
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -436,10 +528,20 @@ public class InsertImpl<T>
   @Override
   protected VoidFuture executeAsync0() {
     // if we are disabled or have no conditions then no need for special treatment of the response
-    if (!isEnabled() || !ifNotExists) {
+    if (!isEnabled() || !ifNotExists || tables.isEmpty()) {
       return super.executeAsync0();
     }
-    return bridge.newVoidFuture(executeAsyncRaw0(), new VoidFuture.PostProcessor() {
+    // the query string must be built first to know which row is affected
+    final String query = getQueryString();
+    final LWTExecutionImpl lwt = new LWTExecutionImpl(
+      this,
+      this::executeAsyncRaw0,
+      getKeyspace(),
+      tables.get(0).getName(),
+      (query != null) ? lwtTarget : null
+    ).execute();
+
+    return bridge.newVoidFuture(lwt, new VoidFuture.PostProcessor() {
       @Override
       public void postProcess(ResultSet result) {
         // update result set when using conditions have only one row
@@ -452,7 +554,10 @@ public class InsertImpl<T>
         if (row == null) {
           throw new ObjectExistException("no result row returned");
         }
-        if (!row.getBool("[applied]")) {
+        final boolean applied = row.getBool("[applied]");
+
+        lwt.report(applied);
+        if (!applied) {
           throw new ObjectExistException(row, "insert not applied");
         }
         // else all good
@@ -678,6 +783,20 @@ public class InsertImpl<T>
     return this;
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.Insert#omitNulls()
+   */
+  @Override
+  public Insert<T> omitNulls() {
+    this.omitNulls = true;
+    setDirty();
+    return this;
+  }
+
   /**
    * The <code>BuilderImpl</code> class defines an in-construction INSERT statement.
    *
@@ -0,0 +1,717 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.impl;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Supplier;
+
+import java.nio.ByteBuffer;
+
+import org.apache.commons.lang3.tuple.Triple;
+
+import com.datastax.driver.core.AppliedResultSet;
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.Row;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.TypeCodec;
+import com.datastax.driver.core.WriteType;
+import com.datastax.driver.core.exceptions.UnavailableException;
+import com.datastax.driver.core.exceptions.WriteTimeoutException;
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import org.helenus.driver.persistence.CQLDataType;
+
+/**
+ * The <code>LWTExecutionImpl</code> class executes a lightweight transaction
+ * according to the {@link LWTPolicy} configured with the statement manager.
+ * <p>
+ * Write timeouts reported while running the Paxos rounds leave the outcome of
+ * the lightweight transaction unknown. When the row affected by the statement
+ * is known (see {@link Target}), it is read back at the serial consistency
+ * level which completes any in-progress Paxos round. The lightweight
+ * transaction is considered applied if the row reflects all the values it was
+ * writing; otherwise it is retried after a randomized exponential backoff.
+ * Without a target, the lightweight transaction is only retried if the
+ * statement is marked idempotent.
+ * <p>
+ * Write timeouts reported while committing an accepted proposal are considered
+ * applied when the policy resolves unknown outcomes (they are otherwise
+ * reported as is) and unavailable errors at the serial consistency level are
+ * retried.
+ * <p>
+ * <i>Note:</i> When the outcome is resolved as applied without a response from
+ * the lightweight transaction itself, this future completes with an
+ * {@link AppliedResultSet} whose single row reports <code>[applied]</code> as
+ * <code>true</code> just like Cassandra would have (see
+ * {@link #isResolvedAsApplied}).
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+final class LWTExecutionImpl
+  extends AbstractFuture<ResultSet> implements ResultSetFuture {
+  /**
+   * The <code>Target</code> class identifies the row affected by a lightweight
+   * transaction and the values it writes.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 18, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  static final class Target {
+    /**
+     * Creates a new target for a lightweight transaction.
+     *
+     * @author paouelle
+     *
+     * @param  keyspace the keyspace for the table
+     * @param  table the non-<code>null</code> table affected
+     * @param  pkeys the non-<code>null</code> primary key column values
+     *         identifying the row affected
+     * @param  values the non-<code>null</code> column values written
+     * @return the corresponding target or <code>null</code> if the row cannot
+     *         be identified or if the values written cannot be compared
+     */
+    static Target of(
+      String keyspace,
+      TableInfoImpl<?> table,
+      Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> pkeys,
+      Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> values
+    ) {
+      if (!table.getMultiKeys().isEmpty()
+          || !table.getCaseInsensitiveKeys().isEmpty()
+          || (pkeys.size() != table.getPrimaryKeys().size())) {
+        return null;
+      }
+      for (final Triple<Object, CQLDataType, TypeCodec<?>> t: values.values()) {
+        if (t.getRight() == null) {
+          return null;
+        }
+      }
+      return new Target(keyspace, table, pkeys, values);
+    }
+
+    /**
+     * Holds the keyspace for the table.
+     *
+     * @author paouelle
+     */
+    private final String keyspace;
+
+    /**
+     * Holds the table affected.
+     *
+     * @author paouelle
+     */
+    private final TableInfoImpl<?> table;
+
+    /**
+     * Holds the primary key column values identifying the row affected.
+     *
+     * @author paouelle
+     */
+    private final Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> pkeys;
+
+    /**
+     * Holds the column values written.
+     *
+     * @author paouelle
+     */
+    private final Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> values;
+
+    /**
+     * Instantiates a new <code>Target</code> object.
+     *
+     * @author paouelle
+     *
+     * @param keyspace the keyspace for the table
+     * @param table the non-<code>null</code> table affected
+     * @param pkeys the non-<code>null</code> primary key column values
+     * @param values the non-<code>null</code> column values written
+     */
+    private Target(
+      String keyspace,
+      TableInfoImpl<?> table,
+      Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> pkeys,
+      Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> values
+    ) {
+      this.keyspace = keyspace;
+      this.table = table;
+      this.pkeys = new LinkedHashMap<>(pkeys);
+      this.values = new LinkedHashMap<>(values);
+    }
+
+    /**
+     * Gets the keyspace for the table.
+     *
+     * @author paouelle
+     *
+     * @return the keyspace for the table
+     */
+    String getKeyspace() {
+      return keyspace;
+    }
+
+    /**
+     * Gets the table affected.
+     *
+     * @author paouelle
+     *
+     * @return the non-<code>null</code> table affected
+     */
+    TableInfoImpl<?> getTable() {
+      return table;
+    }
+
+    /**
+     * Gets a hash of the row affected used to select a lock stripe.
+     *
+     * @author paouelle
+     *
+     * @return a hash for the row affected
+     */
+    int rowHash() {
+      int h = Objects.hash(keyspace, table.getName());
+
+      for (final Triple<Object, CQLDataType, TypeCodec<?>> t: pkeys.values()) {
+        h = 31 * h + Objects.hashCode(t.getLeft());
+      }
+      return h ^ (h >>> 16);
+    }
+
+    /**
+     * Builds the query string used to read back the row affected.
+     *
+     * @author paouelle
+     *
+     * @param  mgr the non-<code>null</code> statement manager
+     * @return the non-<code>null</code> query string
+     */
+    String buildSerialReadQueryString(StatementManagerImpl mgr) {
+      final StringBuilder builder = new StringBuilder();
+
+      builder.append("SELECT * FROM ");
+      if (keyspace != null) {
+        Utils.appendName(builder, keyspace).append(".");
+      }
+      Utils.appendName(builder, table.getName());
+      builder.append(" WHERE ");
+      Utils.joinAndAppendNamesAndValues(
+        null, mgr.getCodecRegistry(), builder, " AND ", "=", pkeys, null
+      );
+      return builder.toString();
+    }
+
+    /**
+     * Checks if the specified row reflects all the values written.
+     *
+     * @author paouelle
+     *
+     * @param  row the non-<code>null</code> row read back
+     * @param  pv the protocol version to use for encoding
+     * @return <code>true</code> if the row reflects all the values written;
+     *         <code>false</code> otherwise
+     * @throws IllegalStateException if a value written cannot be compared
+     */
+    @SuppressWarnings("unchecked")
+    boolean isReflectedBy(Row row, ProtocolVersion pv) {
+      for (final Map.Entry<String, Triple<Object, CQLDataType, TypeCodec<?>>> e: values.entrySet()) {
+        final String name = e.getKey();
+
+        if (!row.getColumnDefinitions().contains(name)) {
+          return false;
+        }
+        final TypeCodec<Object> codec = (TypeCodec<Object>)e.getValue().getRight();
+        Object value = e.getValue().getLeft();
+        final ByteBuffer actual = row.getBytesUnsafe(name);
+
+        if (value instanceof Optional) {
+          value = ((Optional<?>)value).orElse(null);
+        }
+        if ((value == null)
+            || ((value instanceof Collection) && ((Collection<?>)value).isEmpty())
+            || ((value instanceof Map) && ((Map<?, ?>)value).isEmpty())) {
+          // empty collections are not stored by Cassandra
+          if ((actual != null) && actual.hasRemaining()) {
+            return false;
+          }
+          continue;
+        }
+        if (actual == null) {
+          return false;
+        }
+        try {
+          final ByteBuffer expected = codec.serialize(e.getValue().getLeft(), pv);
+
+          // values such as sets are not necessarily encoded in the same order
+          if (!actual.equals(expected)
+              && !Objects.equals(e.getValue().getLeft(), codec.deserialize(actual.duplicate(), pv))) {
+            return false;
+          }
+        } catch (RuntimeException ee) {
+          throw new IllegalStateException(
+            "unable to compare value for column '" + name + "'", ee
+          );
+        }
+      }
+      return true;
+    }
+  }
+
+  /**
+   * Holds the statement being executed.
+   *
+   * @author paouelle
+   */
+  private final StatementImpl<?, ?, ?> statement;
+
+  /**
+   * Holds the supplier used to send one attempt to the cluster.
+   *
+   * @author paouelle
+   */
+  private final Supplier<ResultSetFuture> executor;
+
+  /**
+   * Holds the target of the lightweight transaction or <code>null</code> if
+   * unknown.
+   *
+   * @author paouelle
+   */
+  private final Target target;
+
+  /**
+   * Holds the keyspace for the table affected.
+   *
+   * @author paouelle
+   */
+  private final String keyspace;
+
+  /**
+   * Holds the name of the table affected.
+   *
+   * @author paouelle
+   */
+  private final String table;
+
+  /**
+   * Holds the policy in effect.
+   *
+   * @author paouelle
+   */
+  private final LWTPolicy policy;
+
+  /**
+   * Holds the metrics for the table.
+   *
+   * @author paouelle
+   */
+  private final LWTMetrics metrics;
+
+  /**
+   * Flag indicating if the outcome was already reported in the metrics.
+   *
+   * @author paouelle
+   */
+  private final AtomicBoolean reported = new AtomicBoolean();
+
+  /**
+   * Holds the future for the request currently in flight if any.
+   *
+   * @author paouelle
+   */
+  private volatile ListenableFuture<ResultSet> current = null;
+
+  /**
+   * Flag indicating if the outcome was resolved as applied.
+   *
+   * @author paouelle
+   */
+  private volatile boolean resolvedApplied = false;
+
+  /**
+   * Holds the number of retries so far. Only updated sequentially from the
+   * completion of previous attempts.
+   *
+   * @author paouelle
+   */
+  private volatile int retries = 0;
+
+  /**
+   * Instantiates a new <code>LWTExecutionImpl</code> object.
+   *
+   * @author paouelle
+   *
+   * @param statement the non-<code>null</code> statement being executed
+   * @param executor the non-<code>null</code> supplier used to send one
+   *        attempt to the cluster
+   * @param keyspace the keyspace for the metrics
+   * @param table the table name for the metrics
+   * @param target the target of the lightweight transaction or
+   *        <code>null</code> if unknown
+   */
+  LWTExecutionImpl(
+    StatementImpl<?, ?, ?> statement,
+    Supplier<ResultSetFuture> executor,
+    String keyspace,
+    String table,
+    Target target
+  ) {
+    this.statement = statement;
+    this.executor = executor;
+    this.target = target;
+    this.keyspace = keyspace;
+    this.table = table;
+    this.policy = statement.mgr.getLWTPolicy();
+    this.metrics = statement.mgr.getLWTMetrics(keyspace, table);
+  }
+
+  /**
+   * Starts executing the lightweight transaction once conflicting ones issued
+   * from this JVM have completed if client-side locking is enabled.
+   *
+   * @author paouelle
+   *
+   * @return this for chaining
+   */
+  LWTExecutionImpl execute() {
+    final AtomicReferenceArray<ListenableFuture<?>> stripes
+      = statement.mgr.getLWTStripes();
+
+    metrics.executions.increment();
+    if ((stripes == null) || (target == null)) {
+      attempt();
+      return this;
+    }
+    final int i = target.rowHash() & (stripes.length() - 1);
+    final ListenableFuture<?> previous = stripes.getAndSet(i, this);
+
+    addListener(
+      () -> stripes.compareAndSet(i, this, null), statement.mgr.getDirectExecutor()
+    );
+    if ((previous == null) || previous.isDone()) {
+      attempt();
+    } else {
+      metrics.lockWaits.increment();
+      previous.addListener(this::attempt, statement.mgr.getDirectExecutor());
+    }
+    return this;
+  }
+
+  /**
+   * Checks if the outcome of the lightweight transaction was resolved as
+   * applied without a response from the lightweight transaction itself.
+   *
+   * @author paouelle
+   *
+   * @return <code>true</code> if the outcome was resolved as applied;
+   *         <code>false</code> otherwise
+   */
+  boolean isResolvedAsApplied() {
+    return resolvedApplied;
+  }
+
+  /**
+   * Reports the outcome of the lightweight transaction in the metrics. Only the
+   * first report is recorded.
+   *
+   * @author paouelle
+   *
+   * @param applied <code>true</code> if the lightweight transaction was
+   *        applied; <code>false</code> if its conditions were not met
+   */
+  void report(boolean applied) {
+    if (reported.compareAndSet(false, true)) {
+      if (applied) {
+        metrics.applied.increment();
+      } else {
+        metrics.notApplied.increment();
+      }
+    }
+  }
+
+  /**
+   * Sends an attempt to the cluster.
+   *
+   * @author paouelle
+   */
+  private void attempt() {
+    if (isDone()) {
+      return;
+    }
+    final ResultSetFuture future;
+
+    metrics.attempts.increment();
+    try {
+      future = executor.get();
+    } catch (Error|RuntimeException e) {
+      fail(e);
+      return;
+    }
+    this.current = future;
+    future.addListener(() -> completed(future), statement.mgr.getDirectExecutor());
+  }
+
+  /**
+   * Called when an attempt completes.
+   *
+   * @author paouelle
+   *
+   * @param future the non-<code>null</code> completed future for the attempt
+   */
+  private void completed(ResultSetFuture future) {
+    try {
+      set(Uninterruptibles.getUninterruptibly(future));
+    } catch (CancellationException e) {
+      cancel(false);
+    } catch (ExecutionException e) {
+      final Throwable t = e.getCause();
+
+      if (t instanceof WriteTimeoutException) {
+        final WriteType type = ((WriteTimeoutException)t).getWriteType();
+
+        if (type == WriteType.CAS) { // timed out while running the Paxos rounds
+          metrics.contentions.increment();
+          unknown(t);
+          return;
+        } else if (type == WriteType.SIMPLE) { // timed out while committing
+          metrics.commitTimeouts.increment();
+          // the Paxos rounds succeeded so the write will eventually be applied
+          // but only report it as such when the policy asks to resolve unknown
+          // outcomes; otherwise surface the timeout as the driver always did
+          if (policy.isResolvingUnknownOutcomes()) {
+            applied(null);
+            return;
+          }
+        }
+      } else if ((t instanceof UnavailableException)
+                 && ((UnavailableException)t).getConsistencyLevel().isSerial()) {
+        // Paxos was not even started so it is safe to retry
+        metrics.unavailables.increment();
+        retry(t);
+        return;
+      }
+      fail(t);
+    }
+  }
+
+  /**
+   * Handles an unknown outcome.
+   *
+   * @author paouelle
+   *
+   * @param t the error reported by the attempt
+   */
+  private void unknown(Throwable t) {
+    if ((target != null) && policy.isResolvingUnknownOutcomes()) {
+      resolve(t);
+    } else if (Boolean.TRUE.equals(statement.isIdempotent())) {
+      retry(t);
+    } else {
+      metrics.unresolved.increment();
+      fail(t);
+    }
+  }
+
+  /**
+   * Resolves an unknown outcome by reading back the target row at the serial
+   * consistency level.
+   *
+   * @author paouelle
+   *
+   * @param t the error reported by the attempt
+   */
+  private void resolve(Throwable t) {
+    final StatementManagerImpl mgr = statement.mgr;
+    final SimpleStatement s = new SimpleStatement(target.buildSerialReadQueryString(mgr));
+    ConsistencyLevel cl = statement.getSerialConsistencyLevel();
+
+    if (cl == null) {
+      cl = mgr.getCluster().getConfiguration().getQueryOptions().getSerialConsistencyLevel();
+    }
+    s.setConsistencyLevel(cl);
+    metrics.serialReads.increment();
+    final ResultSetFuture future;
+
+    try {
+      future = mgr.getSession().executeAsync(s);
+    } catch (Error|RuntimeException e) {
+      metrics.unresolved.increment();
+      fail(t);
+      return;
+    }
+    this.current = future;
+    future.addListener(() -> {
+      try {
+        final ResultSet result = Uninterruptibles.getUninterruptibly(future);
+        final Row row = result.one();
+
+        if ((row != null) && target.isReflectedBy(row, mgr.getProtocolVersion())) {
+          metrics.resolvedApplied.increment();
+          applied(result);
+          return;
+        }
+      } catch (CancellationException e) {
+        cancel(false);
+        return;
+      } catch (ExecutionException|IllegalStateException e) {
+        metrics.unresolved.increment();
+        fail(t);
+        return;
+      }
+      // the serial read completed any in-progress rounds so it is safe to retry
+      retry(t);
+    }, mgr.getDirectExecutor());
+  }
+
+  /**
+   * Completes this future as applied without a response from the lightweight
+   * transaction. The future completes with a result set reporting the
+   * lightweight transaction as applied.
+   *
+   * @author paouelle
+   *
+   * @param resolution the result set for the request which resolved the
+   *        outcome (i.e. the serial read) or <code>null</code> if none was
+   *        required
+   */
+  private void applied(ResultSet resolution) {
+    final StatementManagerImpl mgr = statement.mgr;
+
+    this.resolvedApplied = true;
+    report(true);
+    set(new AppliedResultSet(
+      keyspace, table, mgr.getProtocolVersion(), mgr.getCodecRegistry(), resolution
+    ));
+  }
+
+  /**
+   * Schedules a retry after a randomized exponential backoff unless the
+   * maximum number of retries was reached.
+   *
+   * @author paouelle
+   *
+   * @param t the error reported by the attempt
+   */
+  private void retry(Throwable t) {
+    final int retry = retries;
+
+    if ((retry >= policy.getMaxRetries()) || isDone()) {
+      fail(t);
+      return;
+    }
+    this.retries = retry + 1;
+    metrics.retries.increment();
+    try {
+      statement.mgr.getScheduledExecutor().schedule(
+        this::attempt,
+        policy.computeDelay(retry, ThreadLocalRandom.current().nextDouble()),
+        TimeUnit.MILLISECONDS
+      );
+    } catch (RejectedExecutionException e) { // manager is shutting down
+      fail(t);
+    }
+  }
+
+  /**
+   * Completes this future with the specified error.
+   *
+   * @author paouelle
+   *
+   * @param t the error to report
+   */
+  private void fail(Throwable t) {
+    metrics.failures.increment();
+    setException(t);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.google.common.util.concurrent.AbstractFuture#cancel(boolean)
+   */
+  @Override
+  public boolean cancel(boolean mayInterruptIfRunning) {
+    if (!super.cancel(mayInterruptIfRunning)) {
+      return false;
+    }
+    final ListenableFuture<ResultSet> future = current;
+
+    if (future != null) {
+      future.cancel(mayInterruptIfRunning);
+    }
+    return true;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.ResultSetFuture#getUninterruptibly()
+   */
+  @Override
+  public ResultSet getUninterruptibly() {
+    try {
+      return Uninterruptibles.getUninterruptibly(this);
+    } catch (ExecutionException e) {
+      throw StatementImpl.propagateCause(e);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.ResultSetFuture#getUninterruptibly(long, java.util.concurrent.TimeUnit)
+   */
+  @Override
+  public ResultSet getUninterruptibly(long timeout, TimeUnit unit)
+    throws TimeoutException {
+    try {
+      return Uninterruptibles.getUninterruptibly(this, timeout, unit);
+    } catch (ExecutionException e) {
+      throw StatementImpl.propagateCause(e);
+    }
+  }
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.impl;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The <code>LWTMetrics</code> class keeps track of the execution of lightweight
+ * transactions against a given table.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public final class LWTMetrics {
+  /**
+   * Holds the keyspace name.
+   *
+   * @author paouelle
+   */
+  private final String keyspace;
+
+  /**
+   * Holds the table name.
+   *
+   * @author paouelle
+   */
+  private final String table;
+
+  /**
+   * Holds the number of executions.
+   *
+   * @author paouelle
+   */
+  final LongAdder executions = new LongAdder();
+
+  /**
+   * Holds the number of attempts sent to the cluster.
+   *
+   * @author paouelle
+   */
+  final LongAdder attempts = new LongAdder();
+
+  /**
+   * Holds the number of executions that were applied.
+   *
+   * @author paouelle
+   */
+  final LongAdder applied = new LongAdder();
+
+  /**
+   * Holds the number of executions that were not applied.
+   *
+   * @author paouelle
+   */
+  final LongAdder notApplied = new LongAdder();
+
+  /**
+   * Holds the number of write timeouts reported while running Paxos rounds.
+   *
+   * @author paouelle
+   */
+  final LongAdder contentions = new LongAdder();
+
+  /**
+   * Holds the number of unavailable errors reported at the serial consistency
+   * level.
+   *
+   * @author paouelle
+   */
+  final LongAdder unavailables = new LongAdder();
+
+  /**
+   * Holds the number of write timeouts reported while committing.
+   *
+   * @author paouelle
+   */
+  final LongAdder commitTimeouts = new LongAdder();
+
+  /**
+   * Holds the number of retries.
+   *
+   * @author paouelle
+   */
+  final LongAdder retries = new LongAdder();
+
+  /**
+   * Holds the number of serial reads issued to resolve unknown outcomes.
+   *
+   * @author paouelle
+   */
+  final LongAdder serialReads = new LongAdder();
+
+  /**
+   * Holds the number of unknown outcomes resolved as applied.
+   *
+   * @author paouelle
+   */
+  final LongAdder resolvedApplied = new LongAdder();
+
+  /**
+   * Holds the number of unknown outcomes that could not be resolved.
+   *
+   * @author paouelle
+   */
+  final LongAdder unresolved = new LongAdder();
+
+  /**
+   * Holds the number of executions that waited for a client-side lock.
+   *
+   * @author paouelle
+   */
+  final LongAdder lockWaits = new LongAdder();
+
+  /**
+   * Holds the number of executions that failed.
+   *
+   * @author paouelle
+   */
+  final LongAdder failures = new LongAdder();
+
+  /**
+   * Instantiates a new <code>LWTMetrics</code> object.
+   *
+   * @author paouelle
+   *
+   * @param keyspace the keyspace name
+   * @param table the table name
+   */
+  LWTMetrics(String keyspace, String table) {
+    this.keyspace = keyspace;
+    this.table = table;
+  }
+
+  /**
+   * Gets the keyspace name.
+   *
+   * @author paouelle
+   *
+   * @return the keyspace name
+   */
+  public String getKeyspace() {
+    return keyspace;
+  }
+
+  /**
+   * Gets the table name.
+   *
+   * @author paouelle
+   *
+   * @return the table name
+   */
+  public String getTable() {
+    return table;
+  }
+
+  /**
+   * Gets the number of lightweight transactions executed.
+   *
+   * @author paouelle
+   *
+   * @return the number of executions
+   */
+  public long getExecutions() {
+    return executions.sum();
+  }
+
+  /**
+   * Gets the number of attempts sent to the cluster including retries.
+   *
+   * @author paouelle
+   *
+   * @return the number of attempts
+   */
+  public long getAttempts() {
+    return attempts.sum();
+  }
+
+  /**
+   * Gets the number of lightweight transactions that were applied.
+   *
+   * @author paouelle
+   *
+   * @return the number of applied executions
+   */
+  public long getApplied() {
+    return applied.sum();
+  }
+
+  /**
+   * Gets the number of lightweight transactions that were not applied because
+   * their conditions were not met.
+   *
+   * @author paouelle
+   *
+   * @return the number of executions not applied
+   */
+  public long getNotApplied() {
+    return notApplied.sum();
+  }
+
+  /**
+   * Gets the number of write timeouts reported while running the Paxos rounds
+   * which typically indicates contention on the rows.
+   *
+   * @author paouelle
+   *
+   * @return the number of contentions
+   */
+  public long getContentions() {
+    return contentions.sum();
+  }
+
+  /**
+   * Gets the number of unavailable errors reported at the serial consistency
+   * level.
+   *
+   * @author paouelle
+   *
+   * @return the number of unavailable errors
+   */
+  public long getUnavailables() {
+    return unavailables.sum();
+  }
+
+  /**
+   * Gets the number of write timeouts reported while committing accepted
+   * proposals. Such writes are considered applied.
+   *
+   * @author paouelle
+   *
+   * @return the number of commit timeouts
+   */
+  public long getCommitTimeouts() {
+    return commitTimeouts.sum();
+  }
+
+  /**
+   * Gets the number of retries.
+   *
+   * @author paouelle
+   *
+   * @return the number of retries
+   */
+  public long getRetries() {
+    return retries.sum();
+  }
+
+  /**
+   * Gets the number of serial reads issued to resolve unknown outcomes.
+   *
+   * @author paouelle
+   *
+   * @return the number of serial reads
+   */
+  public long getSerialReads() {
+    return serialReads.sum();
+  }
+
+  /**
+   * Gets the number of unknown outcomes resolved as applied.
+   *
+   * @author paouelle
+   *
+   * @return the number of unknown outcomes resolved as applied
+   */
+  public long getResolvedApplied() {
+    return resolvedApplied.sum();
+  }
+
+  /**
+   * Gets the number of unknown outcomes that could not be resolved and were
+   * reported back as errors.
+   *
+   * @author paouelle
+   *
+   * @return the number of unresolved outcomes
+   */
+  public long getUnresolved() {
+    return unresolved.sum();
+  }
+
+  /**
+   * Gets the number of lightweight transactions that had to wait for a
+   * conflicting one issued from this JVM to complete.
+   *
+   * @author paouelle
+   *
+   * @return the number of lock waits
+   */
+  public long getLockWaits() {
+    return lockWaits.sum();
+  }
+
+  /**
+   * Gets the number of lightweight transactions that failed with an error.
+   *
+   * @author paouelle
+   *
+   * @return the number of failures
+   */
+  public long getFailures() {
+    return failures.sum();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see java.lang.Object#toString()
+   */
+  @Override
+  public String toString() {
+    return (
+      "LWTMetrics[" + keyspace + "." + table
+      + ", executions=" + getExecutions()
+      + ", attempts=" + getAttempts()
+      + ", applied=" + getApplied()
+      + ", notApplied=" + getNotApplied()
+      + ", contentions=" + getContentions()
+      + ", unavailables=" + getUnavailables()
+      + ", commitTimeouts=" + getCommitTimeouts()
+      + ", retries=" + getRetries()
+      + ", serialReads=" + getSerialReads()
+      + ", resolvedApplied=" + getResolvedApplied()
+      + ", unresolved=" + getUnresolved()
+      + ", lockWaits=" + getLockWaits()
+      + ", failures=" + getFailures()
+      + "]"
+    );
+  }
+}
@@ -0,0 +1,334 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.impl;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The <code>LWTPolicy</code> class defines how lightweight transactions (i.e.
+ * <code>INSERT ... IF NOT EXISTS</code> and conditional <code>UPDATE</code>
+ * statements) are executed by the statement manager.
+ * <p>
+ * Writes that timed out while Cassandra was running the Paxos rounds (which is
+ * how contention between conflicting lightweight transactions manifests itself)
+ * and writes rejected because not enough replicas were available at the serial
+ * consistency level are retried after a randomized exponential backoff. Since
+ * the outcome of a write that timed out is unknown, the row is first read back
+ * at the serial consistency level which completes any in-progress Paxos round
+ * and allows to determine if the write was applied before retrying it.
+ * <p>
+ * Conflicting lightweight transactions issued from the same JVM can also be
+ * serialized client-side using a striped lock keyed by the primary key of the
+ * row they affect before they even reach the cluster.
+ * <p>
+ * Policies are immutable; the <code>with</code> methods return new policies.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public final class LWTPolicy {
+  /**
+   * Holds a policy which executes lightweight transactions like any other
+   * statements without any retries. This is the policy used by the statement
+   * manager unless configured otherwise.
+   *
+   * @author paouelle
+   */
+  public final static LWTPolicy NONE = new LWTPolicy(0, 0L, 0L, false, 0);
+
+  /**
+   * Holds the recommended policy which retries lightweight transactions up to
+   * 3 times with a backoff starting at 10ms and capped at 500ms while resolving
+   * unknown outcomes with serial reads and without client-side locking. It
+   * must be explicitly configured via
+   * {@link StatementManagerImpl#setLWTPolicy(LWTPolicy)}.
+   *
+   * @author paouelle
+   */
+  public final static LWTPolicy DEFAULT = new LWTPolicy(3, 10L, 500L, true, 0);
+
+  /**
+   * Holds the maximum number of times a lightweight transaction is retried.
+   *
+   * @author paouelle
+   */
+  private final int maxRetries;
+
+  /**
+   * Holds the base delay in milliseconds for the exponential backoff.
+   *
+   * @author paouelle
+   */
+  private final long baseDelay;
+
+  /**
+   * Holds the maximum delay in milliseconds for the exponential backoff.
+   *
+   * @author paouelle
+   */
+  private final long maxDelay;
+
+  /**
+   * Flag indicating if unknown outcomes should be resolved with serial reads.
+   *
+   * @author paouelle
+   */
+  private final boolean resolveUnknownOutcomes;
+
+  /**
+   * Holds the number of lock stripes used to serialize conflicting lightweight
+   * transactions client-side or <code>0</code> if disabled.
+   *
+   * @author paouelle
+   */
+  private final int lockStripes;
+
+  /**
+   * Instantiates a new <code>LWTPolicy</code> object.
+   *
+   * @author paouelle
+   *
+   * @param maxRetries the maximum number of retries
+   * @param baseDelay the base backoff delay in milliseconds
+   * @param maxDelay the maximum backoff delay in milliseconds
+   * @param resolveUnknownOutcomes <code>true</code> to resolve unknown outcomes
+   *        with serial reads
+   * @param lockStripes the number of lock stripes (a power of 2) or
+   *        <code>0</code> if disabled
+   */
+  private LWTPolicy(
+    int maxRetries,
+    long baseDelay,
+    long maxDelay,
+    boolean resolveUnknownOutcomes,
+    int lockStripes
+  ) {
+    this.maxRetries = maxRetries;
+    this.baseDelay = baseDelay;
+    this.maxDelay = maxDelay;
+    this.resolveUnknownOutcomes = resolveUnknownOutcomes;
+    this.lockStripes = lockStripes;
+  }
+
+  /**
+   * Checks if this policy alters the way lightweight transactions are executed
+   * in any way (retries, resolution of unknown outcomes, or client-side
+   * locking).
+   *
+   * @author paouelle
+   *
+   * @return <code>true</code> if this policy alters the execution of
+   *         lightweight transactions; <code>false</code> if they are executed
+   *         like any other statements
+   */
+  public boolean isEnabled() {
+    return (maxRetries > 0) || resolveUnknownOutcomes || (lockStripes > 0);
+  }
+
+  /**
+   * Gets the maximum number of times a lightweight transaction is retried.
+   *
+   * @author paouelle
+   *
+   * @return the maximum number of retries
+   */
+  public int getMaxRetries() {
+    return maxRetries;
+  }
+
+  /**
+   * Gets the base delay for the exponential backoff.
+   *
+   * @author paouelle
+   *
+   * @param  unit the non-<code>null</code> unit for the returned delay
+   * @return the base backoff delay in the specified unit
+   */
+  public long getBaseDelay(TimeUnit unit) {
+    return unit.convert(baseDelay, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Gets the maximum delay for the exponential backoff.
+   *
+   * @author paouelle
+   *
+   * @param  unit the non-<code>null</code> unit for the returned delay
+   * @return the maximum backoff delay in the specified unit
+   */
+  public long getMaxDelay(TimeUnit unit) {
+    return unit.convert(maxDelay, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Checks if unknown outcomes are resolved with serial reads.
+   *
+   * @author paouelle
+   *
+   * @return <code>true</code> if unknown outcomes are resolved with serial
+   *         reads; <code>false</code> otherwise
+   */
+  public boolean isResolvingUnknownOutcomes() {
+    return resolveUnknownOutcomes;
+  }
+
+  /**
+   * Gets the number of lock stripes used to serialize conflicting lightweight
+   * transactions client-side.
+   *
+   * @author paouelle
+   *
+   * @return the number of lock stripes or <code>0</code> if disabled
+   */
+  public int getLockStripes() {
+    return lockStripes;
+  }
+
+  /**
+   * Computes a randomized backoff delay for the specified retry. The delay is
+   * uniformly distributed between 0 and the base delay doubled for each
+   * previous retry while never exceeding the maximum delay.
+   *
+   * @author paouelle
+   *
+   * @param  retry the retry number (0-based)
+   * @param  random a random number between 0 (inclusive) and 1 (exclusive)
+   * @return the corresponding delay in milliseconds
+   */
+  long computeDelay(int retry, double random) {
+    long max = maxDelay;
+
+    if ((retry < 62) && (((baseDelay << retry) >>> retry) == baseDelay)) { // no overflow
+      max = Math.min(maxDelay, baseDelay << retry);
+    }
+    return (long)(max * random);
+  }
+
+  /**
+   * Gets a new policy with the specified maximum number of retries.
+   *
+   * @author paouelle
+   *
+   * @param  maxRetries the maximum number of retries
+   * @return a new policy with the specified maximum number of retries
+   * @throws IllegalArgumentException if <code>maxRetries</code> is negative
+   */
+  public LWTPolicy withMaxRetries(int maxRetries) {
+    org.apache.commons.lang3.Validate.isTrue(
+      maxRetries >= 0, "invalid negative max retries: %d", maxRetries
+    );
+    return new LWTPolicy(
+      maxRetries, baseDelay, maxDelay, resolveUnknownOutcomes, lockStripes
+    );
+  }
+
+  /**
+   * Gets a new policy with the specified exponential backoff delays.
+   *
+   * @author paouelle
+   *
+   * @param  baseDelay the base backoff delay
+   * @param  maxDelay the maximum backoff delay
+   * @param  unit the non-<code>null</code> unit for the delays
+   * @return a new policy with the specified backoff delays
+   * @throws NullPointerException if <code>unit</code> is <code>null</code>
+   * @throws IllegalArgumentException if a delay is negative or if
+   *         <code>maxDelay</code> is smaller than <code>baseDelay</code>
+   */
+  public LWTPolicy withBackoff(long baseDelay, long maxDelay, TimeUnit unit) {
+    org.apache.commons.lang3.Validate.notNull(unit, "invalid null unit");
+    org.apache.commons.lang3.Validate.isTrue(
+      baseDelay >= 0L, "invalid negative base delay: %d", baseDelay
+    );
+    org.apache.commons.lang3.Validate.isTrue(
+      maxDelay >= baseDelay,
+      "max delay %d must be greater than or equal to base delay %d",
+      maxDelay, baseDelay
+    );
+    return new LWTPolicy(
+      maxRetries,
+      unit.toMillis(baseDelay),
+      unit.toMillis(maxDelay),
+      resolveUnknownOutcomes,
+      lockStripes
+    );
+  }
+
+  /**
+   * Gets a new policy which resolves or not unknown outcomes with serial reads.
+   * <p>
+   * <i>Note:</i> Without resolution, writes that timed out while running the
+   * Paxos rounds are only retried if the statement is marked idempotent.
+   *
+   * @author paouelle
+   *
+   * @param  resolveUnknownOutcomes <code>true</code> to resolve unknown
+   *         outcomes with serial reads
+   * @return a new policy with the specified resolution setting
+   */
+  public LWTPolicy withUnknownOutcomeResolution(boolean resolveUnknownOutcomes) {
+    return new LWTPolicy(
+      maxRetries, baseDelay, maxDelay, resolveUnknownOutcomes, lockStripes
+    );
+  }
+
+  /**
+   * Gets a new policy which serializes conflicting lightweight transactions
+   * client-side using the specified number of lock stripes. The number of
+   * stripes is rounded up to the next power of 2.
+   *
+   * @author paouelle
+   *
+   * @param  stripes the number of lock stripes or <code>0</code> to disable
+   *         client-side locking
+   * @return a new policy with the specified number of lock stripes
+   * @throws IllegalArgumentException if <code>stripes</code> is negative or
+   *         larger than 2^30
+   */
+  public LWTPolicy withClientSideLocking(int stripes) {
+    org.apache.commons.lang3.Validate.isTrue(
+      (stripes >= 0) && (stripes <= (1 << 30)), "invalid number of stripes: %d", stripes
+    );
+    final int s = (stripes <= 1) ? stripes : Integer.highestOneBit(stripes - 1) << 1;
+
+    return new LWTPolicy(
+      maxRetries, baseDelay, maxDelay, resolveUnknownOutcomes, s
+    );
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see java.lang.Object#toString()
+   */
+  @Override
+  public String toString() {
+    return (
+      "LWTPolicy[maxRetries=" + maxRetries
+      + ", baseDelay=" + baseDelay
+      + "ms, maxDelay=" + maxDelay
+      + "ms, resolveUnknownOutcomes=" + resolveUnknownOutcomes
+      + ", lockStripes=" + lockStripes
+      + "]"
+    );
+  }
+}
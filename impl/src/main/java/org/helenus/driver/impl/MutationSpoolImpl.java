@@ -0,0 +1,1205 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.impl;
+
+import java.io.File;
+import java.io.IOException;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.EmptyResultSetFuture;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.ResultSetFuture;
+import com.datastax.driver.core.SimpleStatement;
+import com.datastax.driver.core.exceptions.NoHostAvailableException;
+import com.datastax.driver.core.exceptions.OperationTimedOutException;
+import com.datastax.driver.core.exceptions.OverloadedException;
+import com.datastax.driver.core.exceptions.UnavailableException;
+import com.datastax.driver.core.exceptions.WriteTimeoutException;
+import com.google.common.util.concurrent.AbstractFuture;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.RateLimiter;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+/**
+ * The <code>MutationSpoolImpl</code> class provides a local write-ahead spool
+ * for idempotent mutations that fail because the cluster is unavailable.
+ * Such mutations are appended to memory-mapped segment files on local disk
+ * and reported as successful to the caller. They are replayed in the order
+ * they were spooled once hosts become available again, with a bounded number
+ * of requests in flight and an optional rate limit.
+ * <p>
+ * Each segment file starts with a header recording the position of the next
+ * record to replay followed by records of the form:
+ * <pre>
+ *   [length:int][spooled time:long][timestamp:long][consistency:byte][query]
+ * </pre>
+ * Mutations are replayed with the timestamp of their original execution such
+ * that a replayed mutation never overrides a more recent write to the same
+ * columns regardless of the order in which concurrent replays complete.
+ * Segments are deleted once all their records have been replayed. Mutations
+ * that cannot be spooled because the spool is full are failed with their
+ * original error.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class MutationSpoolImpl {
+  /**
+   * Holds the logger.
+   *
+   * @author paouelle
+   */
+  private final static Logger logger = LogManager.getFormatterLogger(MutationSpoolImpl.class);
+
+  /**
+   * Holds the magic number identifying segment files ("HMS1").
+   *
+   * @author paouelle
+   */
+  private final static int MAGIC = 0x484d5331;
+
+  /**
+   * Holds the offset in the header of the position of the next record to
+   * replay.
+   *
+   * @author paouelle
+   */
+  private final static int READ_OFFSET = 8;
+
+  /**
+   * Holds the size of the segment header.
+   *
+   * @author paouelle
+   */
+  private final static int HEADER_SIZE = 16;
+
+  /**
+   * Holds the size of the fixed part of a record.
+   *
+   * @author paouelle
+   */
+  private final static int RECORD_OVERHEAD = 21;
+
+  /**
+   * Holds the suffix for segment files.
+   *
+   * @author paouelle
+   */
+  private final static String SUFFIX = ".spool";
+
+  /**
+   * Checks if the specified failure indicates that the cluster is unavailable
+   * such that the failed mutation should be spooled.
+   *
+   * @author paouelle
+   *
+   * @param  t the failure to check
+   * @return <code>true</code> if the failure is an availability failure
+   */
+  static boolean isUnavailable(Throwable t) {
+    return (t instanceof NoHostAvailableException)
+      || (t instanceof UnavailableException);
+  }
+
+  /**
+   * Checks if the specified failure is transient such that a replayed
+   * mutation should be kept in the spool and retried later.
+   *
+   * @author paouelle
+   *
+   * @param  t the failure to check
+   * @return <code>true</code> if the failure is transient
+   */
+  private static boolean isTransient(Throwable t) {
+    return MutationSpoolImpl.isUnavailable(t)
+      || (t instanceof WriteTimeoutException)
+      || (t instanceof OperationTimedOutException)
+      || (t instanceof OverloadedException);
+  }
+
+  /**
+   * The <code>Record</code> class keeps track of a spooled mutation read back
+   * for replay.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 18, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  private static final class Record {
+    /**
+     * Holds the position following this record in its segment.
+     *
+     * @author paouelle
+     */
+    final int end;
+
+    /**
+     * Holds the timestamp in microseconds of the original execution.
+     *
+     * @author paouelle
+     */
+    final long timestamp;
+
+    /**
+     * Holds the consistency level of the original execution or
+     * <code>null</code> if none was set.
+     *
+     * @author paouelle
+     */
+    final ConsistencyLevel consistency;
+
+    /**
+     * Holds the query string of the mutation.
+     *
+     * @author paouelle
+     */
+    final String query;
+
+    /**
+     * Instantiates a new <code>Record</code> object.
+     *
+     * @author paouelle
+     *
+     * @param end the position following this record in its segment
+     * @param timestamp the timestamp in microseconds of the original execution
+     * @param consistency the consistency level of the original execution or
+     *        <code>null</code> if none was set
+     * @param query the query string of the mutation
+     */
+    Record(int end, long timestamp, ConsistencyLevel consistency, String query) {
+      this.end = end;
+      this.timestamp = timestamp;
+      this.consistency = consistency;
+      this.query = query;
+    }
+  }
+
+  /**
+   * The <code>Segment</code> class keeps track of a memory-mapped segment
+   * file.
+   * <p>
+   * <i>Note:</i> All methods must be called while holding the spool's lock.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 18, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  private static final class Segment {
+    /**
+     * Holds the segment file.
+     *
+     * @author paouelle
+     */
+    final File file;
+
+    /**
+     * Holds the channel for the segment file.
+     *
+     * @author paouelle
+     */
+    private final FileChannel channel;
+
+    /**
+     * Holds the memory-mapped segment.
+     *
+     * @author paouelle
+     */
+    private final MappedByteBuffer buffer;
+
+    /**
+     * Holds the position of the next record to replay.
+     *
+     * @author paouelle
+     */
+    int read;
+
+    /**
+     * Holds the position where to append the next record.
+     *
+     * @author paouelle
+     */
+    int write;
+
+    /**
+     * Holds the number of records left to replay in this segment.
+     *
+     * @author paouelle
+     */
+    int pending = 0;
+
+    /**
+     * Opens or creates the specified segment.
+     *
+     * @author paouelle
+     *
+     * @param  file the segment file
+     * @param  size the size of the segment when created
+     * @throws IOException if an I/O error occurs or if the segment is corrupted
+     */
+    Segment(File file, int size) throws IOException {
+      this.file = file;
+      this.channel = FileChannel.open(
+        file.toPath(),
+        StandardOpenOption.CREATE,
+        StandardOpenOption.READ,
+        StandardOpenOption.WRITE
+      );
+      try {
+        final long length = Math.max(channel.size(), size);
+
+        if (length > Integer.MAX_VALUE) {
+          throw new IOException("spool segment too large: " + file);
+        }
+        this.buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0L, length);
+        recover();
+      } catch (IOException|RuntimeException|Error e) {
+        try {
+          channel.close();
+        } catch (IOException ee) {
+          e.addSuppressed(ee);
+        }
+        throw e;
+      }
+    }
+
+    /**
+     * Recovers the positions of this segment.
+     *
+     * @author paouelle
+     *
+     * @throws IOException if the segment is corrupted
+     */
+    private void recover() throws IOException {
+      if (buffer.getInt(0) != MutationSpoolImpl.MAGIC) {
+        if (buffer.getLong(MutationSpoolImpl.READ_OFFSET) != 0L) {
+          throw new IOException("not a spool segment: " + file);
+        }
+        buffer.putInt(0, MutationSpoolImpl.MAGIC);
+        this.read = MutationSpoolImpl.HEADER_SIZE;
+        this.write = MutationSpoolImpl.HEADER_SIZE;
+        buffer.putLong(MutationSpoolImpl.READ_OFFSET, read);
+        return;
+      }
+      final long r = buffer.getLong(MutationSpoolImpl.READ_OFFSET);
+      int pos = MutationSpoolImpl.HEADER_SIZE;
+      int n = 0;
+
+      while (pos <= buffer.capacity() - 4) {
+        final int len = buffer.getInt(pos);
+
+        if ((len < MutationSpoolImpl.RECORD_OVERHEAD - 4)
+            || (len > buffer.capacity() - pos - 4)) {
+          break; // end of segment or partially written record
+        }
+        if (pos >= r) {
+          n++;
+        }
+        pos += 4 + len;
+      }
+      if ((r < MutationSpoolImpl.HEADER_SIZE) || (r > pos)) {
+        throw new IOException("corrupted spool segment: " + file);
+      }
+      this.read = (int)r;
+      this.write = pos;
+      this.pending = n;
+    }
+
+    /**
+     * Appends a record to this segment if it fits.
+     *
+     * @author paouelle
+     *
+     * @param  spooled the time in milliseconds the mutation was spooled
+     * @param  timestamp the timestamp in microseconds of the original execution
+     * @param  consistency the consistency level or <code>null</code> if none
+     * @param  query the query string of the mutation
+     * @return <code>true</code> if appended; <code>false</code> if it doesn't fit
+     */
+    boolean append(
+      long spooled, long timestamp, ConsistencyLevel consistency, byte[] query
+    ) {
+      final int len = MutationSpoolImpl.RECORD_OVERHEAD + query.length;
+
+      // keep room for an end marker
+      if (len > buffer.capacity() - write - 4) {
+        return false;
+      }
+      final ByteBuffer b = buffer.duplicate();
+
+      b.position(write + 4);
+      b.putLong(spooled)
+        .putLong(timestamp)
+        .put((byte)((consistency != null) ? consistency.ordinal() : -1))
+        .put(query);
+      buffer.putInt(write + len, 0); // end marker
+      buffer.putInt(write, len - 4); // commit the record last
+      this.write += len;
+      this.pending++;
+      return true;
+    }
+
+    /**
+     * Reads records to replay from this segment.
+     *
+     * @author paouelle
+     *
+     * @param  max the maximum number of records to read
+     * @return a non-<code>null</code> list of records to replay
+     */
+    List<Record> read(int max) {
+      final List<Record> records = new ArrayList<>(Math.min(max, pending));
+      final ByteBuffer b = buffer.duplicate();
+      final ConsistencyLevel[] levels = ConsistencyLevel.values();
+      int pos = read;
+
+      while ((pos < write) && (records.size() < max)) {
+        final int len = buffer.getInt(pos);
+        final byte[] query = new byte[len + 4 - MutationSpoolImpl.RECORD_OVERHEAD];
+
+        b.position(pos + 12);
+        final long timestamp = b.getLong();
+        final int cl = b.get();
+
+        b.get(query);
+        pos += 4 + len;
+        records.add(new Record(
+          pos,
+          timestamp,
+          ((cl >= 0) && (cl < levels.length)) ? levels[cl] : null,
+          new String(query, StandardCharsets.UTF_8)
+        ));
+      }
+      return records;
+    }
+
+    /**
+     * Gets the time in milliseconds the oldest record left to replay was
+     * spooled.
+     *
+     * @author paouelle
+     *
+     * @return the time the oldest record was spooled or <code>-1</code> if none
+     */
+    long oldest() {
+      return (read < write) ? buffer.getLong(read + 4) : -1L;
+    }
+
+    /**
+     * Marks all records up to the specified position as replayed.
+     *
+     * @author paouelle
+     *
+     * @param end the position following the last record replayed
+     * @param n the number of records replayed
+     */
+    void replayed(int end, int n) {
+      this.read = end;
+      this.pending -= n;
+      buffer.putLong(MutationSpoolImpl.READ_OFFSET, read);
+    }
+
+    /**
+     * Closes this segment and optionally deletes its file.
+     *
+     * @author paouelle
+     *
+     * @param delete <code>true</code> to delete the segment file
+     */
+    void close(boolean delete) {
+      if (!delete) {
+        buffer.force();
+      }
+      try {
+        channel.close();
+      } catch (IOException e) {
+        MutationSpoolImpl.logger.warn("failed to close spool segment: %s", file, e);
+      }
+      if (delete && !file.delete()) {
+        MutationSpoolImpl.logger.warn("failed to delete spool segment: %s", file);
+      }
+    }
+  }
+
+  /**
+   * The <code>SpoolingFuture</code> class provides a result set future which
+   * spools the mutation when the original request fails because the cluster
+   * is unavailable.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 18, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  private final class SpoolingFuture
+    extends AbstractFuture<ResultSet> implements ResultSetFuture {
+    /**
+     * Holds the future for the original request.
+     *
+     * @author paouelle
+     */
+    private final ResultSetFuture future;
+
+    /**
+     * Instantiates a new <code>SpoolingFuture</code> object.
+     *
+     * @author paouelle
+     *
+     * @param future the non-<code>null</code> future for the original request
+     * @param query the non-<code>null</code> query string for the mutation
+     * @param consistency the consistency level for the mutation or
+     *        <code>null</code> if none set
+     * @param timestamp the timestamp in microseconds for the mutation
+     */
+    @SuppressWarnings("synthetic-access")
+    SpoolingFuture(
+      ResultSetFuture future,
+      String query,
+      ConsistencyLevel consistency,
+      long timestamp
+    ) {
+      this.future = future;
+      future.addListener(() -> {
+        try {
+          set(Uninterruptibles.getUninterruptibly(future));
+        } catch (ExecutionException e) {
+          final Throwable t = e.getCause();
+
+          if (MutationSpoolImpl.isUnavailable(t)
+              && append(query, consistency, timestamp)) {
+            set(new EmptyResultSetFuture(mgr).getUninterruptibly());
+          } else {
+            setException(t);
+          }
+        } catch (CancellationException e) {
+          super.cancel(false);
+        } catch (Throwable t) {
+          setException(t);
+        }
+      }, mgr.getDirectExecutor());
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see com.google.common.util.concurrent.AbstractFuture#cancel(boolean)
+     */
+    @Override
+    public boolean cancel(boolean mayInterruptIfRunning) {
+      if (!super.cancel(mayInterruptIfRunning)) {
+        return false;
+      }
+      future.cancel(mayInterruptIfRunning);
+      return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see com.datastax.driver.core.ResultSetFuture#getUninterruptibly()
+     */
+    @Override
+    public ResultSet getUninterruptibly() {
+      try {
+        return Uninterruptibles.getUninterruptibly(this);
+      } catch (ExecutionException e) {
+        throw StatementImpl.propagateCause(e);
+      }
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see com.datastax.driver.core.ResultSetFuture#getUninterruptibly(long, java.util.concurrent.TimeUnit)
+     */
+    @Override
+    public ResultSet getUninterruptibly(long timeout, TimeUnit unit)
+      throws TimeoutException {
+      try {
+        return Uninterruptibles.getUninterruptibly(this, timeout, unit);
+      } catch (ExecutionException e) {
+        throw StatementImpl.propagateCause(e);
+      }
+    }
+  }
+
+  /**
+   * Holds the statement manager.
+   *
+   * @author paouelle
+   */
+  private final StatementManagerImpl mgr;
+
+  /**
+   * Holds the directory where segment files are stored.
+   *
+   * @author paouelle
+   */
+  private final File directory;
+
+  /**
+   * Holds the size in bytes of each segment.
+   *
+   * @author paouelle
+   */
+  private final int segmentSize;
+
+  /**
+   * Holds the maximum number of bytes used by all segments.
+   *
+   * @author paouelle
+   */
+  private final long maxSize;
+
+  /**
+   * Holds the lock protecting the segments.
+   *
+   * @author paouelle
+   */
+  private final Object lock = new Object();
+
+  /**
+   * Holds the segments in the order they were created.
+   *
+   * @author paouelle
+   */
+  private final Deque<Segment> segments = new ArrayDeque<>(8);
+
+  /**
+   * Holds the identifier for the next segment.
+   *
+   * @author paouelle
+   */
+  private long nextId = 0L;
+
+  /**
+   * Holds the number of mutations left to replay.
+   *
+   * @author paouelle
+   */
+  private volatile int pending = 0;
+
+  /**
+   * Flag indicating if a replay is currently scheduled.
+   *
+   * @author paouelle
+   */
+  private final AtomicBoolean replaying = new AtomicBoolean();
+
+  /**
+   * Holds the maximum number of mutations replayed concurrently.
+   *
+   * @author paouelle
+   */
+  private volatile int concurrency = 32;
+
+  /**
+   * Holds the rate limiter for replayed mutations or <code>null</code> if
+   * unlimited.
+   *
+   * @author paouelle
+   */
+  private volatile RateLimiter limiter = null;
+
+  /**
+   * Holds the periodic replay task if any.
+   *
+   * @author paouelle
+   */
+  private ScheduledFuture<?> timer = null;
+
+  /**
+   * Flag indicating if this spool was closed.
+   *
+   * @author paouelle
+   */
+  private volatile boolean closed = false;
+
+  /**
+   * Holds the number of mutations recovered when the spool was opened.
+   *
+   * @author paouelle
+   */
+  private final int recovered;
+
+  /**
+   * Holds the number of mutations spooled.
+   *
+   * @author paouelle
+   */
+  private final LongAdder spooled = new LongAdder();
+
+  /**
+   * Holds the number of mutations replayed successfully.
+   *
+   * @author paouelle
+   */
+  private final LongAdder replayed = new LongAdder();
+
+  /**
+   * Holds the number of mutations that could not be spooled.
+   *
+   * @author paouelle
+   */
+  private final LongAdder rejected = new LongAdder();
+
+  /**
+   * Holds the number of replayed mutations dropped after failing with a
+   * non-transient error.
+   *
+   * @author paouelle
+   */
+  private final LongAdder dropped = new LongAdder();
+
+  /**
+   * Instantiates a new <code>MutationSpoolImpl</code> object.
+   *
+   * @author paouelle
+   *
+   * @param  mgr the non-<code>null</code> statement manager
+   * @param  directory the non-<code>null</code> directory where to store
+   *         segment files
+   * @param  segmentSize the size in bytes of each segment
+   * @param  maxSize the maximum number of bytes used by all segments
+   * @throws IllegalArgumentException if <code>segmentSize</code> or
+   *         <code>maxSize</code> are invalid
+   * @throws IOException if an I/O error occurs while opening existing segments
+   *         or if one is corrupted
+   */
+  MutationSpoolImpl(
+    StatementManagerImpl mgr, File directory, int segmentSize, long maxSize
+  ) throws IOException {
+    org.apache.commons.lang3.Validate.isTrue(
+      segmentSize > MutationSpoolImpl.HEADER_SIZE + MutationSpoolImpl.RECORD_OVERHEAD,
+      "invalid spool segment size: %d", segmentSize
+    );
+    org.apache.commons.lang3.Validate.isTrue(
+      maxSize >= segmentSize, "invalid spool size: %d", maxSize
+    );
+    this.mgr = mgr;
+    this.directory = directory;
+    this.segmentSize = segmentSize;
+    this.maxSize = maxSize;
+    if (!directory.isDirectory() && !directory.mkdirs()) {
+      throw new IOException("failed to create spool directory: " + directory);
+    }
+    final File[] files = directory.listFiles(
+      (d, n) -> n.endsWith(MutationSpoolImpl.SUFFIX)
+    );
+    int n = 0;
+
+    if (files != null) {
+      Arrays.sort(files); // names are zero-padded identifiers
+      try {
+        for (final File file: files) {
+          final String name = file.getName();
+          final long id = Long.parseLong(
+            name.substring(0, name.length() - MutationSpoolImpl.SUFFIX.length()), 16
+          );
+          final Segment s = new Segment(file, segmentSize);
+
+          segments.addLast(s);
+          n += s.pending;
+          this.nextId = Math.max(nextId, id + 1L);
+        }
+      } catch (IOException|RuntimeException|Error e) {
+        segments.forEach(s -> s.close(false));
+        segments.clear();
+        throw e;
+      }
+    }
+    this.pending = n;
+    this.recovered = n;
+    if (n > 0) {
+      MutationSpoolImpl.logger.info(
+        "replaying %d spooled mutation(s) from: %s", n, directory
+      );
+    }
+    replayEvery(1L, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Wraps the specified future for a mutation such that it gets spooled if it
+   * fails because the cluster is unavailable.
+   *
+   * @author paouelle
+   *
+   * @param  future the non-<code>null</code> future for the mutation
+   * @param  query the non-<code>null</code> query string for the mutation
+   * @param  consistency the consistency level for the mutation or
+   *         <code>null</code> if none set
+   * @param  timestamp the timestamp in microseconds for the mutation
+   * @return a non-<code>null</code> future which succeeds when the mutation is
+   *         executed or spooled
+   */
+  @SuppressWarnings("synthetic-access")
+  ResultSetFuture spoolOnFailure(
+    ResultSetFuture future, String query, ConsistencyLevel consistency, long timestamp
+  ) {
+    return new SpoolingFuture(future, query, consistency, timestamp);
+  }
+
+  /**
+   * Appends the specified mutation to this spool.
+   *
+   * @author paouelle
+   *
+   * @param  query the non-<code>null</code> query string for the mutation
+   * @param  consistency the consistency level for the mutation or
+   *         <code>null</code> if none set
+   * @param  timestamp the timestamp in microseconds for the mutation
+   * @return <code>true</code> if the mutation was spooled; <code>false</code>
+   *         if this spool is full or closed
+   */
+  boolean append(String query, ConsistencyLevel consistency, long timestamp) {
+    final byte[] q = query.getBytes(StandardCharsets.UTF_8);
+    final long now = System.currentTimeMillis();
+
+    synchronized (lock) {
+      Segment s = segments.peekLast();
+
+      if (closed) {
+        rejected.increment();
+        return false;
+      }
+      if ((s == null) || !s.append(now, timestamp, consistency, q)) {
+        if ((long)(segments.size() + 1) * segmentSize > maxSize) { // full
+          rejected.increment();
+          return false;
+        }
+        try {
+          s = new Segment(new File(
+            directory,
+            String.format("%016x", nextId) + MutationSpoolImpl.SUFFIX
+          ), segmentSize);
+        } catch (IOException e) {
+          MutationSpoolImpl.logger.warn("failed to create spool segment", e);
+          rejected.increment();
+          return false;
+        }
+        this.nextId++;
+        segments.addLast(s);
+        if (!s.append(now, timestamp, consistency, q)) { // too large for a segment
+          rejected.increment();
+          return false;
+        }
+      }
+      this.pending++;
+    }
+    spooled.increment();
+    return true;
+  }
+
+  /**
+   * Triggers a replay in the background unless one is already scheduled.
+   *
+   * @author paouelle
+   */
+  public void trigger() {
+    if ((pending > 0) && !closed && replaying.compareAndSet(false, true)) {
+      try {
+        mgr.getPoolExecutor().execute(() -> {
+          try {
+            replay();
+          } catch (Throwable t) {
+            MutationSpoolImpl.logger.warn("failed to replay spooled mutations", t);
+          } finally {
+            replaying.set(false);
+          }
+        });
+      } catch (Throwable t) { // most likely the executor was shut down
+        replaying.set(false);
+      }
+    }
+  }
+
+  /**
+   * Replays spooled mutations in order until none are left or until the
+   * cluster is found to still be unavailable.
+   *
+   * @author paouelle
+   */
+  private void replay() {
+    while (!closed) {
+      final Segment s;
+      final List<Record> records;
+
+      synchronized (lock) {
+        s = segments.peekFirst();
+        if (s == null) {
+          return;
+        }
+        if (s.pending == 0) {
+          if ((s == segments.peekLast()) && (s.write < segmentSize / 2)) {
+            return; // keep appending to it
+          }
+          segments.removeFirst();
+          s.close(true);
+          continue;
+        }
+        records = s.read(concurrency);
+      }
+      final List<ResultSetFuture> futures = new ArrayList<>(records.size());
+
+      for (final Record r: records) {
+        final RateLimiter l = limiter;
+
+        if (l != null) {
+          l.acquire();
+        }
+        final SimpleStatement raw = new SimpleStatement(r.query);
+
+        raw.setDefaultTimestamp(r.timestamp);
+        raw.setIdempotent(true);
+        if (r.consistency != null) {
+          raw.setConsistencyLevel(r.consistency);
+        }
+        futures.add(mgr.getSession().executeAsync(raw));
+      }
+      try { // wait for all of them
+        Uninterruptibles.getUninterruptibly(Futures.successfulAsList(futures));
+      } catch (ExecutionException e) { // should not happen with successfulAsList()
+      }
+      int end = -1;
+      int n = 0;
+      boolean retry = false;
+
+      for (int i = 0; i < futures.size(); i++) {
+        try {
+          Uninterruptibles.getUninterruptibly(futures.get(i));
+          replayed.increment();
+        } catch (ExecutionException e) {
+          final Throwable t = e.getCause();
+
+          if (MutationSpoolImpl.isTransient(t)) {
+            // keep this one and the following ones for the next replay
+            retry = true;
+            break;
+          }
+          dropped.increment();
+          MutationSpoolImpl.logger.error(
+            "dropping spooled mutation: %s", records.get(i).query, t
+          );
+        } catch (CancellationException e) { // should not happen
+          retry = true;
+          break;
+        }
+        end = records.get(i).end;
+        n++;
+      }
+      if (n > 0) {
+        synchronized (lock) {
+          s.replayed(end, n);
+          this.pending -= n;
+        }
+      }
+      if (retry) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * Gets the directory where segment files are stored.
+   *
+   * @author paouelle
+   *
+   * @return the non-<code>null</code> spool directory
+   */
+  public File getDirectory() {
+    return directory;
+  }
+
+  /**
+   * Sets the delay between attempts to replay spooled mutations.
+   *
+   * @author paouelle
+   *
+   * @param  delay the delay between replays or 0 to only replay when triggered
+   * @param  unit the non-<code>null</code> unit for the delay
+   * @return this spool
+   * @throws IllegalArgumentException if <code>delay</code> is negative
+   * @throws NullPointerException if <code>unit</code> is <code>null</code>
+   */
+  public synchronized MutationSpoolImpl replayEvery(long delay, TimeUnit unit) {
+    org.apache.commons.lang3.Validate.isTrue(delay >= 0L, "invalid replay delay: %d", delay);
+    org.apache.commons.lang3.Validate.notNull(unit, "invalid null unit");
+    if (timer != null) {
+      timer.cancel(false);
+      this.timer = null;
+    }
+    if ((delay > 0L) && !closed) {
+      this.timer = mgr.getScheduledExecutor().scheduleWithFixedDelay(
+        this::trigger, delay, delay, unit
+      );
+    }
+    return this;
+  }
+
+  /**
+   * Sets the maximum number of mutations replayed concurrently.
+   *
+   * @author paouelle
+   *
+   * @param  concurrency the maximum number of mutations replayed concurrently
+   * @return this spool
+   * @throws IllegalArgumentException if <code>concurrency</code> is not positive
+   */
+  public MutationSpoolImpl concurrency(int concurrency) {
+    org.apache.commons.lang3.Validate.isTrue(
+      concurrency > 0, "invalid concurrency: %d", concurrency
+    );
+    this.concurrency = concurrency;
+    return this;
+  }
+
+  /**
+   * Sets the maximum rate at which mutations are replayed.
+   *
+   * @author paouelle
+   *
+   * @param  permitsPerSecond the maximum number of mutations replayed per
+   *         second or 0 for unlimited
+   * @return this spool
+   * @throws IllegalArgumentException if <code>permitsPerSecond</code> is
+   *         negative
+   */
+  public MutationSpoolImpl rateLimit(double permitsPerSecond) {
+    org.apache.commons.lang3.Validate.isTrue(
+      permitsPerSecond >= 0.0D, "invalid rate: %s", permitsPerSecond
+    );
+    this.limiter = (permitsPerSecond > 0.0D) ? RateLimiter.create(permitsPerSecond) : null;
+    return this;
+  }
+
+  /**
+   * Gets the number of mutations left to replay.
+   *
+   * @author paouelle
+   *
+   * @return the number of mutations left to replay
+   */
+  public int getPendingMutations() {
+    return pending;
+  }
+
+  /**
+   * Gets the number of segment files currently used by this spool.
+   *
+   * @author paouelle
+   *
+   * @return the number of segments
+   */
+  public int getSegments() {
+    synchronized (lock) {
+      return segments.size();
+    }
+  }
+
+  /**
+   * Gets the number of bytes currently reserved on disk by this spool.
+   *
+   * @author paouelle
+   *
+   * @return the number of bytes used by all segments
+   */
+  public long getSize() {
+    synchronized (lock) {
+      return (long)segments.size() * segmentSize;
+    }
+  }
+
+  /**
+   * Gets the maximum number of bytes that can be used by this spool after
+   * which failed mutations are no longer spooled.
+   *
+   * @author paouelle
+   *
+   * @return the maximum number of bytes used by all segments
+   */
+  public long getMaxSize() {
+    return maxSize;
+  }
+
+  /**
+   * Gets how long the oldest mutation left to replay has been spooled.
+   *
+   * @author paouelle
+   *
+   * @param  unit the non-<code>null</code> unit for the lag
+   * @return the age of the oldest mutation left to replay or 0 if none
+   * @throws NullPointerException if <code>unit</code> is <code>null</code>
+   */
+  public long getLag(TimeUnit unit) {
+    org.apache.commons.lang3.Validate.notNull(unit, "invalid null unit");
+    long oldest = -1L;
+
+    synchronized (lock) {
+      for (final Segment s: segments) {
+        oldest = s.oldest();
+        if (oldest != -1L) {
+          break;
+        }
+      }
+    }
+    if (oldest == -1L) {
+      return 0L;
+    }
+    return unit.convert(
+      Math.max(0L, System.currentTimeMillis() - oldest), TimeUnit.MILLISECONDS
+    );
+  }
+
+  /**
+   * Gets the number of mutations that were left to replay when this spool was
+   * opened.
+   *
+   * @author paouelle
+   *
+   * @return the number of mutations recovered
+   */
+  public int getRecoveredMutations() {
+    return recovered;
+  }
+
+  /**
+   * Gets the number of mutations spooled since this spool was opened.
+   *
+   * @author paouelle
+   *
+   * @return the number of mutations spooled
+   */
+  public long getSpooledMutations() {
+    return spooled.sum();
+  }
+
+  /**
+   * Gets the number of mutations replayed successfully since this spool was
+   * opened.
+   *
+   * @author paouelle
+   *
+   * @return the number of mutations replayed
+   */
+  public long getReplayedMutations() {
+    return replayed.sum();
+  }
+
+  /**
+   * Gets the number of failed mutations that could not be spooled since this
+   * spool was opened because it was full.
+   *
+   * @author paouelle
+   *
+   * @return the number of mutations rejected
+   */
+  public long getRejectedMutations() {
+    return rejected.sum();
+  }
+
+  /**
+   * Gets the number of spooled mutations dropped since this spool was opened
+   * because their replay failed with a non-transient error.
+   *
+   * @author paouelle
+   *
+   * @return the number of mutations dropped
+   */
+  public long getDroppedMutations() {
+    return dropped.sum();
+  }
+
+  /**
+   * Stops replaying mutations and closes all segments. Mutations left to
+   * replay remain on disk and are replayed the next time a spool is opened
+   * on the same directory.
+   *
+   * @author paouelle
+   */
+  public void close() {
+    synchronized (this) {
+      if (closed) {
+        return;
+      }
+      this.closed = true;
+      replayEvery(0L, TimeUnit.SECONDS);
+    }
+    synchronized (lock) {
+      segments.forEach(s -> s.close(s.pending == 0));
+      segments.clear();
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see java.lang.Object#toString()
+   */
+  @Override
+  public String toString() {
+    return (
+      getClass().getSimpleName()
+      + "[directory=" + directory
+      + ",pending=" + pending
+      + ",spooled=" + spooled
+      + ",replayed=" + replayed
+      + ",rejected=" + rejected
+      + ",dropped=" + dropped
+      + "]"
+    );
+  }
+}
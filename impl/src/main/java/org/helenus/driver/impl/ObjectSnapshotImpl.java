@@ -0,0 +1,146 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.impl;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * The <code>ObjectSnapshotImpl</code> class keeps track of the state of a POJO
+ * as it was last read from or written to the database. It keeps a compact
+ * fingerprint for each non primary key column value and a copy of the
+ * elements of non-frozen collection columns such that updates can be reduced
+ * to the columns or collection elements that actually changed since.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 17, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+final class ObjectSnapshotImpl {
+  /**
+   * Holds the fingerprints for the column values keyed by column names.
+   *
+   * @author paouelle
+   */
+  private final Map<String, Long> fingerprints;
+
+  /**
+   * Holds copies of the non-frozen collection column values keyed by column
+   * names.
+   *
+   * @author paouelle
+   */
+  private final Map<String, Object> collections;
+
+  /**
+   * Instantiates a new <code>ObjectSnapshotImpl</code> object.
+   *
+   * @author paouelle
+   *
+   * @param fingerprints the non-<code>null</code> column fingerprints
+   * @param collections the non-<code>null</code> copies of the collection
+   *        column values
+   */
+  ObjectSnapshotImpl(
+    Map<String, Long> fingerprints, Map<String, Object> collections
+  ) {
+    this.fingerprints = fingerprints;
+    this.collections = collections;
+  }
+
+  /**
+   * Checks if this snapshot is empty.
+   *
+   * @author paouelle
+   *
+   * @return <code>true</code> if no columns are recorded in this snapshot;
+   *         <code>false</code> otherwise
+   */
+  boolean isEmpty() {
+    return fingerprints.isEmpty();
+  }
+
+  /**
+   * Gets the number of columns recorded in this snapshot.
+   *
+   * @author paouelle
+   *
+   * @return the number of columns recorded in this snapshot
+   */
+  int size() {
+    return fingerprints.size();
+  }
+
+  /**
+   * Gets the fingerprint recorded for the specified column.
+   *
+   * @author paouelle
+   *
+   * @param  name the column name
+   * @return the corresponding fingerprint or <code>null</code> if none recorded
+   */
+  Long getFingerprint(String name) {
+    return fingerprints.get(name);
+  }
+
+  /**
+   * Checks if a copy of the collection value was recorded for the specified
+   * column.
+   *
+   * @author paouelle
+   *
+   * @param  name the column name
+   * @return <code>true</code> if a copy of the collection value was recorded;
+   *         <code>false</code> otherwise
+   */
+  boolean hasCollection(String name) {
+    return collections.containsKey(name);
+  }
+
+  /**
+   * Gets the copy of the collection value recorded for the specified column.
+   *
+   * @author paouelle
+   *
+   * @param  name the column name
+   * @return the corresponding collection value or <code>null</code> if none
+   *         recorded or if it was <code>null</code>
+   */
+  Object getCollection(String name) {
+    return collections.get(name);
+  }
+
+  /**
+   * Creates a new snapshot with the columns from the specified snapshot
+   * replacing the ones from this snapshot.
+   *
+   * @author paouelle
+   *
+   * @param  snapshot the non-<code>null</code> snapshot to merge in
+   * @return a new merged snapshot
+   */
+  ObjectSnapshotImpl merge(ObjectSnapshotImpl snapshot) {
+    final Map<String, Long> fps = new HashMap<>(fingerprints);
+    final Map<String, Object> colls = new HashMap<>(collections);
+
+    fps.putAll(snapshot.fingerprints);
+    colls.putAll(snapshot.collections);
+    return new ObjectSnapshotImpl(fps, colls);
+  }
+}
@@ -0,0 +1,443 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.impl;
+
+import java.util.Collection;
+import java.util.Map;
+
+import java.nio.ByteBuffer;
+
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.TypeCodec;
+import com.datastax.driver.core.exceptions.InvalidTypeException;
+
+/**
+ * The <code>PackedCollectionCodecImpl</code> class wraps around a collection
+ * or map codec whose elements, keys, or values are UDTs, fixed-size numeric
+ * values, or text in order to serialize all of them directly into a single
+ * pre-sized buffer instead of having each element serialized into its own
+ * buffer before being packed into the collection's buffer. Parsing,
+ * formatting, and deserialization are delegated to the wrapped codec.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @param <C> The type of collection or map represented by this codec
+ *
+ * @since 3.0
+ */
+public class PackedCollectionCodecImpl<C> extends TypeCodec<C> {
+  /**
+   * Wraps the specified collection codec if its elements can be packed
+   * directly.
+   *
+   * @author paouelle
+   *
+   * @param <C> the type of collection
+   *
+   * @param  codec the collection codec to wrap
+   * @param  ecodec the codec for the elements of the collection
+   * @return the wrapped codec or <code>codec</code> if the elements can only
+   *         be serialized with their codec
+   */
+  static <C> TypeCodec<C> wrap(TypeCodec<C> codec, TypeCodec<?> ecodec) {
+    if (PackedCollectionCodecImpl.isPackable(ecodec)) {
+      return new PackedCollectionCodecImpl<>(codec, null, ecodec);
+    }
+    return codec;
+  }
+
+  /**
+   * Wraps the specified map codec if its keys or values can be packed
+   * directly.
+   *
+   * @author paouelle
+   *
+   * @param <C> the type of map
+   *
+   * @param  codec the map codec to wrap
+   * @param  kcodec the codec for the keys of the map
+   * @param  vcodec the codec for the values of the map
+   * @return the wrapped codec or <code>codec</code> if both the keys and the
+   *         values can only be serialized with their codec
+   */
+  static <C> TypeCodec<C> wrap(
+    TypeCodec<C> codec, TypeCodec<?> kcodec, TypeCodec<?> vcodec
+  ) {
+    if (PackedCollectionCodecImpl.isPackable(kcodec)
+        || PackedCollectionCodecImpl.isPackable(vcodec)) {
+      return new PackedCollectionCodecImpl<>(codec, kcodec, vcodec);
+    }
+    return codec;
+  }
+
+  /**
+   * Checks if elements serialized with the specified codec can be packed
+   * directly.
+   *
+   * @author paouelle
+   *
+   * @param  codec the codec for the elements
+   * @return <code>true</code> if the elements are UDTs, fixed-size values, or
+   *         text; <code>false</code> otherwise
+   */
+  private static boolean isPackable(TypeCodec<?> codec) {
+    return (codec instanceof UDTCodecImpl)
+      || (UDTCodecImpl.sizeOf(codec) != UDTCodecImpl.GENERIC);
+  }
+
+  /**
+   * Gets the layout to serialize elements with the specified codec.
+   *
+   * @author paouelle
+   *
+   * @param  codec the codec for the elements
+   * @return the corresponding layout or <code>null</code> if the elements
+   *         must be serialized with the codec
+   * @throws InvalidTypeException if the elements are UDTs for which no
+   *         cluster-defined definition was registered
+   */
+  @SuppressWarnings("unchecked")
+  private static UDTCodecImpl.Layout<Object> getLayout(TypeCodec<Object> codec) {
+    if (codec instanceof UDTCodecImpl) {
+      return ((UDTCodecImpl<Object>)codec).getSerializationLayout();
+    }
+    return null;
+  }
+
+  /**
+   * Prepares the serialization of the specified element.
+   *
+   * @author paouelle
+   *
+   * @param  codec the codec for the element
+   * @param  layout the layout to serialize the element with or
+   *         <code>null</code> if it is not a UDT
+   * @param  fsize the fixed size of the element, {@link UDTCodecImpl#UTF8}
+   *         for text, or {@link UDTCodecImpl#GENERIC} if it must be
+   *         serialized with the codec
+   * @param  e the non-<code>null</code> element to serialize
+   * @param  slots the slots where to keep the prepared element
+   * @param  sizes the sizes where to keep the serialized size of the element
+   * @param  i the index for the element in <code>slots</code> and
+   *         <code>sizes</code>
+   * @param  protocolVersion the protocol version to use
+   * @return the number of bytes required to write the element and its size
+   * @throws InvalidTypeException if unable to serialize the element
+   */
+  @SuppressWarnings("unchecked")
+  private static int prepare(
+    TypeCodec<Object> codec,
+    UDTCodecImpl.Layout<Object> layout,
+    int fsize,
+    Object e,
+    Object[] slots,
+    int[] sizes,
+    int i,
+    ProtocolVersion protocolVersion
+  ) {
+    if (layout != null) {
+      final Object[] values = new Object[layout.getFieldCount()];
+
+      sizes[i] = ((UDTCodecImpl<Object>)codec).prepare(
+        layout, e, values, protocolVersion
+      );
+      slots[i] = values;
+      return 4 + sizes[i];
+    } else if ((fsize > 0) && codec.accepts(e)) {
+      sizes[i] = fsize;
+      slots[i] = e;
+      return 4 + fsize;
+    } else if ((fsize == UDTCodecImpl.UTF8) && (e instanceof String)) {
+      sizes[i] = UDTCodecImpl.utf8Length((String)e);
+      slots[i] = e;
+      return 4 + sizes[i];
+    }
+    final ByteBuffer bb;
+
+    try {
+      bb = codec.serialize(e, protocolVersion);
+    } catch (ClassCastException ce) {
+      throw new InvalidTypeException(
+        "invalid type for element, expecting " + codec.getJavaType(), ce
+      );
+    }
+    slots[i] = bb;
+    if (bb == null) {
+      sizes[i] = -1;
+      return 4;
+    }
+    sizes[i] = bb.remaining();
+    return 4 + sizes[i];
+  }
+
+  /**
+   * Writes the specified prepared element.
+   *
+   * @author paouelle
+   *
+   * @param codec the codec for the element
+   * @param layout the layout the element was prepared with or
+   *        <code>null</code> if it is not a UDT
+   * @param e the element to write
+   * @param slot the prepared element
+   * @param size the serialized size of the element
+   * @param out the buffer where to write the element
+   */
+  @SuppressWarnings("unchecked")
+  private static void write(
+    TypeCodec<Object> codec,
+    UDTCodecImpl.Layout<Object> layout,
+    Object e,
+    Object slot,
+    int size,
+    ByteBuffer out
+  ) {
+    out.putInt(size);
+    if (layout != null) {
+      ((UDTCodecImpl<Object>)codec).write(layout, e, (Object[])slot, out);
+    } else if (slot instanceof ByteBuffer) {
+      out.put(((ByteBuffer)slot).duplicate());
+    } else if (slot instanceof String) {
+      UDTCodecImpl.writeUTF8((String)slot, out);
+    } else if (slot != null) {
+      UDTCodecImpl.writeFixed(slot, out);
+    }
+  }
+
+  /**
+   * Holds the codec being wrapped.
+   *
+   * @author paouelle
+   */
+  private final TypeCodec<C> codec;
+
+  /**
+   * Holds the codec for the keys of a map or <code>null</code> if wrapping a
+   * collection codec.
+   *
+   * @author paouelle
+   */
+  private final TypeCodec<Object> kcodec;
+
+  /**
+   * Holds the codec for the elements of a collection or the values of a map.
+   *
+   * @author paouelle
+   */
+  private final TypeCodec<Object> ecodec;
+
+  /**
+   * Holds the fixed size of the keys of a map or one of the size markers
+   * defined by {@link UDTCodecImpl}.
+   *
+   * @author paouelle
+   */
+  private final int ksize;
+
+  /**
+   * Holds the fixed size of the elements of a collection or the values of a
+   * map or one of the size markers defined by {@link UDTCodecImpl}.
+   *
+   * @author paouelle
+   */
+  private final int esize;
+
+  /**
+   * Instantiates a new <code>PackedCollectionCodecImpl</code> object.
+   *
+   * @author paouelle
+   *
+   * @param codec the codec to wrap
+   * @param kcodec the codec for the keys of a map or <code>null</code> if
+   *        wrapping a collection codec
+   * @param ecodec the codec for the elements of a collection or the values of
+   *        a map
+   */
+  @SuppressWarnings("unchecked")
+  private PackedCollectionCodecImpl(
+    TypeCodec<C> codec, TypeCodec<?> kcodec, TypeCodec<?> ecodec
+  ) {
+    super(codec.getCqlType(), codec.getJavaType());
+    this.codec = codec;
+    this.kcodec = (TypeCodec<Object>)kcodec;
+    this.ecodec = (TypeCodec<Object>)ecodec;
+    this.ksize = UDTCodecImpl.sizeOf(kcodec);
+    this.esize = UDTCodecImpl.sizeOf(ecodec);
+  }
+
+  /**
+   * Serializes the specified collection.
+   *
+   * @author paouelle
+   *
+   * @param  value the non-<code>null</code> collection to serialize
+   * @param  protocolVersion the protocol version to use
+   * @return the serialized collection
+   * @throws InvalidTypeException if unable to serialize an element
+   */
+  private ByteBuffer serialize(
+    Collection<?> value, ProtocolVersion protocolVersion
+  ) {
+    final UDTCodecImpl.Layout<Object> layout = PackedCollectionCodecImpl.getLayout(ecodec);
+    final int n = value.size();
+    final Object[] slots = new Object[n];
+    final int[] sizes = new int[n];
+    int size = 4;
+    int i = 0;
+
+    for (final Object e: value) {
+      if (e == null) {
+        throw new NullPointerException("Collection elements cannot be null");
+      }
+      size += PackedCollectionCodecImpl.prepare(
+        ecodec, layout, esize, e, slots, sizes, i++, protocolVersion
+      );
+    }
+    final ByteBuffer bytes = ByteBuffer.allocate(size);
+
+    bytes.putInt(n);
+    i = 0;
+    for (final Object e: value) {
+      PackedCollectionCodecImpl.write(ecodec, layout, e, slots[i], sizes[i], bytes);
+      i++;
+    }
+    bytes.flip();
+    return bytes;
+  }
+
+  /**
+   * Serializes the specified map.
+   *
+   * @author paouelle
+   *
+   * @param  value the non-<code>null</code> map to serialize
+   * @param  protocolVersion the protocol version to use
+   * @return the serialized map
+   * @throws InvalidTypeException if unable to serialize a key or a value
+   */
+  private ByteBuffer serialize(Map<?, ?> value, ProtocolVersion protocolVersion) {
+    final UDTCodecImpl.Layout<Object> klayout = PackedCollectionCodecImpl.getLayout(kcodec);
+    final UDTCodecImpl.Layout<Object> vlayout = PackedCollectionCodecImpl.getLayout(ecodec);
+    final int n = value.size();
+    final Object[] slots = new Object[n * 2];
+    final int[] sizes = new int[n * 2];
+    int size = 4;
+    int i = 0;
+
+    for (final Map.Entry<?, ?> e: value.entrySet()) {
+      final Object k = e.getKey();
+      final Object v = e.getValue();
+
+      if (k == null) {
+        throw new NullPointerException("Map keys cannot be null");
+      }
+      if (v == null) {
+        throw new NullPointerException("Map values cannot be null");
+      }
+      size += PackedCollectionCodecImpl.prepare(
+        kcodec, klayout, ksize, k, slots, sizes, i++, protocolVersion
+      );
+      size += PackedCollectionCodecImpl.prepare(
+        ecodec, vlayout, esize, v, slots, sizes, i++, protocolVersion
+      );
+    }
+    final ByteBuffer bytes = ByteBuffer.allocate(size);
+
+    bytes.putInt(n);
+    i = 0;
+    for (final Map.Entry<?, ?> e: value.entrySet()) {
+      PackedCollectionCodecImpl.write(kcodec, klayout, e.getKey(), slots[i], sizes[i], bytes);
+      i++;
+      PackedCollectionCodecImpl.write(ecodec, vlayout, e.getValue(), slots[i], sizes[i], bytes);
+      i++;
+    }
+    bytes.flip();
+    return bytes;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.TypeCodec#accepts(java.lang.Object)
+   */
+  @Override
+  public boolean accepts(Object value) {
+    return codec.accepts(value);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.TypeCodec#parse(java.lang.String)
+   */
+  @Override
+  public C parse(String value) throws InvalidTypeException {
+    return codec.parse(value);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.TypeCodec#format(java.lang.Object)
+   */
+  @Override
+  public String format(C value) throws InvalidTypeException {
+    return codec.format(value);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.TypeCodec#serialize(java.lang.Object, com.datastax.driver.core.ProtocolVersion)
+   */
+  @Override
+  public ByteBuffer serialize(C value, ProtocolVersion protocolVersion)
+    throws InvalidTypeException {
+    if (value == null) {
+      return null;
+    } else if (protocolVersion.compareTo(ProtocolVersion.V3) < 0) {
+      // older protocols encode sizes on 2 bytes
+      return codec.serialize(value, protocolVersion);
+    } else if (value instanceof Map) {
+      return serialize((Map<?, ?>)value, protocolVersion);
+    }
+    return serialize((Collection<?>)value, protocolVersion);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see com.datastax.driver.core.TypeCodec#deserialize(java.nio.ByteBuffer, com.datastax.driver.core.ProtocolVersion)
+   */
+  @Override
+  public C deserialize(ByteBuffer bytes, ProtocolVersion protocolVersion)
+    throws InvalidTypeException {
+    return codec.deserialize(bytes, protocolVersion);
+  }
+}
@@ -0,0 +1,1026 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import javax.json.JsonObject;
+import javax.json.JsonString;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.datastax.driver.core.Cluster;
+import com.datastax.driver.core.ClusteringOrder;
+import com.datastax.driver.core.ColumnMetadata;
+import com.datastax.driver.core.DataTypeParser;
+import com.datastax.driver.core.IndexMetadata;
+import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.ResultSet;
+import com.datastax.driver.core.TableMetadata;
+import com.datastax.driver.core.UserType;
+
+import org.helenus.driver.ExcludedKeyspaceKeyException;
+import org.helenus.driver.StatementBridge;
+import org.helenus.driver.persistence.CQLDataType;
+import org.helenus.driver.persistence.Index;
+import org.helenus.driver.persistence.Ordering;
+
+/**
+ * The <code>SchemaDiffImpl</code> class computes the minimal set of CQL
+ * statements required to bring the schemas defined in Cassandra in line with
+ * the definitions of a set of POJO classes.
+ * <p>
+ * The cluster's schema metadata is read once and diffed against the keyspace,
+ * user-defined types, tables, and indexes defined by the POJOs. Only missing
+ * elements are created and only modified columns or fields are altered;
+ * indexes are only dropped when they are no longer defined or their definition
+ * changed. The resulting statements are organized per keyspace in phases which
+ * must be executed in order. Different keyspaces are independent from each
+ * other and are altered in parallel while schema agreement is verified in
+ * between the phases of a given keyspace.
+ * <p>
+ * The computed statements can be reported without being executed in order to
+ * perform a dry-run.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public final class SchemaDiffImpl {
+  /**
+   * Holds the logger.
+   *
+   * @author paouelle
+   */
+  private final static Logger logger = LogManager.getFormatterLogger(SchemaDiffImpl.class);
+
+  /**
+   * Holds the pattern used to extract the column name from an index target.
+   *
+   * @author paouelle
+   */
+  private final static Pattern INDEX_TARGET = Pattern.compile(
+    "^(?:keys|values|entries|full)\\((.+)\\)$"
+  );
+
+  /**
+   * Holds the interval in milliseconds at which schema agreement is polled.
+   *
+   * @author paouelle
+   */
+  private final static long SCHEMA_AGREEMENT_POLL_INTERVAL = 200L;
+
+  /**
+   * The <code>Phase</code> enumeration defines the ordered phases in which
+   * statements for a given keyspace are executed. Each phase depends on the
+   * schema changes performed by the previous ones.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 18, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  public enum Phase {
+    /**
+     * Creates or alters the keyspace.
+     *
+     * @author paouelle
+     */
+    KEYSPACE,
+
+    /**
+     * Creates or alters user-defined types in definition order.
+     *
+     * @author paouelle
+     */
+    TYPES,
+
+    /**
+     * Drops indexes that are no longer defined or have changed.
+     *
+     * @author paouelle
+     */
+    DROP_INDEXES,
+
+    /**
+     * Creates or alters tables.
+     *
+     * @author paouelle
+     */
+    TABLES,
+
+    /**
+     * Creates missing indexes.
+     *
+     * @author paouelle
+     */
+    CREATE_INDEXES;
+  }
+
+  /**
+   * Holds the statement manager.
+   *
+   * @author paouelle
+   */
+  private final StatementManagerImpl mgr;
+
+  /**
+   * Holds the statement bridge.
+   *
+   * @author paouelle
+   */
+  private final StatementBridge bridge;
+
+  /**
+   * Holds the statements to execute for each phase keyed by keyspace names.
+   *
+   * @author paouelle
+   */
+  private final Map<String, Map<Phase, List<String>>> statements;
+
+  /**
+   * Holds the failures that occurred while applying the changes keyed by
+   * keyspace names.
+   *
+   * @author paouelle
+   */
+  private final Map<String, Throwable> failures = new ConcurrentHashMap<>(8);
+
+  /**
+   * Holds the number of statements that were executed.
+   *
+   * @author paouelle
+   */
+  private final LongAdder executed = new LongAdder();
+
+  /**
+   * Holds the time in nanoseconds it took to compute the differences.
+   *
+   * @author paouelle
+   */
+  private final long diffTime;
+
+  /**
+   * Holds the time in nanoseconds it took to apply the differences.
+   *
+   * @author paouelle
+   */
+  private volatile long applyTime = 0L;
+
+  /**
+   * Instantiates a new <code>SchemaDiffImpl</code> object.
+   *
+   * @author paouelle
+   *
+   * @param  contexts the non-<code>null</code> contexts for all POJO classes
+   *         to diff with user-defined types first
+   * @param  mgr the non-<code>null</code> statement manager
+   * @param  bridge the non-<code>null</code> statement bridge
+   * @throws NullPointerException if <code>contexts</code> is <code>null</code>
+   * @throws IllegalArgumentException if a column cannot be altered to its new
+   *         type or if the primary key of an existing table has changed
+   */
+  SchemaDiffImpl(
+    List<ClassInfoImpl<?>.Context> contexts,
+    StatementManagerImpl mgr,
+    StatementBridge bridge
+  ) {
+    org.apache.commons.lang3.Validate.notNull(contexts, "invalid null contexts");
+    final long start = System.nanoTime();
+
+    this.mgr = mgr;
+    this.bridge = bridge;
+    this.statements = diff(contexts);
+    this.diffTime = System.nanoTime() - start;
+  }
+
+  /**
+   * Adds the specified query strings to the given phase.
+   *
+   * @author paouelle
+   *
+   * @param  phases the phases where to add the query strings
+   * @param  phase the phase to add the query strings to
+   * @param  builders the query strings to add (<code>null</code> or empty
+   *         ones are ignored)
+   */
+  private static void add(
+    Map<Phase, List<String>> phases, Phase phase, StringBuilder... builders
+  ) {
+    if (builders == null) {
+      return;
+    }
+    for (final StringBuilder b: builders) {
+      if ((b != null) && (b.length() != 0)) {
+        phases.computeIfAbsent(phase, p -> new ArrayList<>(8)).add(b.toString());
+      }
+    }
+  }
+
+  /**
+   * Adds ALTER statements for the specified instructions to the given phase.
+   *
+   * @author paouelle
+   *
+   * @param  phases the phases where to add the statements
+   * @param  phase the phase to add the statements to
+   * @param  what the type of element being altered (e.g. "TABLE")
+   * @param  keyspace the keyspace of the element being altered
+   * @param  name the name of the element being altered
+   * @param  instructions the alter instructions (e.g. "ADD col text")
+   */
+  private static void alter(
+    Map<Phase, List<String>> phases,
+    Phase phase,
+    String what,
+    String keyspace,
+    String name,
+    List<String> instructions
+  ) {
+    if (instructions.isEmpty()) { // nothing to do
+      return;
+    }
+    final StringBuilder builder = new StringBuilder();
+
+    builder.append("ALTER ").append(what).append(' ');
+    Utils.appendName(builder, keyspace).append('.');
+    Utils.appendName(builder, name);
+    builder.append(' ');
+    add(
+      phases,
+      phase,
+      instructions.stream()
+        .map(inst -> new StringBuilder(builder).append(inst))
+        .toArray(StringBuilder[]::new)
+    );
+  }
+
+  /**
+   * Computes the alter instruction for a column or field if its type changed.
+   *
+   * @author paouelle
+   *
+   * @param  cinfo the class info for the POJO defining the column or field
+   * @param  name the column or field name
+   * @param  type0 the type currently defined in Cassandra
+   * @param  type the type defined by the POJO
+   * @return the corresponding alter instruction or <code>null</code> if the
+   *         type hasn't changed
+   * @throws IllegalArgumentException if the column cannot be altered to its
+   *         new type
+   */
+  private static String alterType(
+    ClassInfoImpl<?> cinfo, String name, CQLDataType type0, CQLDataType type
+  ) {
+    final String type0_cql = type0.toCQL();
+    final String type_cql = type.toCQL();
+
+    if (type_cql.equals(type0_cql)) { // no change for the column
+      return null;
+    }
+    org.apache.commons.lang3.Validate.isTrue(
+      type0.isAlterableTo(type),
+      "column '%s' for entity '%s' cannot be altered from %s to %s",
+      name, cinfo.getObjectClass().getName(), type0_cql, type_cql
+    );
+    return "ALTER " + name + " TYPE " + type_cql;
+  }
+
+  /**
+   * Finds the index field that corresponds to the specified index defined in
+   * Cassandra.
+   *
+   * @author paouelle
+   *
+   * @param  imdata the index currently defined in Cassandra
+   * @param  indexes the index fields defined by the POJO
+   * @return the corresponding index field or <code>null</code> if the index is
+   *         no longer defined or its definition changed
+   */
+  private static FieldInfoImpl<?> findIndex(
+    IndexMetadata imdata, List<FieldInfoImpl<?>> indexes
+  ) {
+    String target = imdata.getTarget();
+
+    if (target == null) {
+      return null;
+    }
+    final Matcher m = SchemaDiffImpl.INDEX_TARGET.matcher(target);
+
+    if (m.matches()) {
+      target = m.group(1);
+    }
+    if ((target.length() > 1) && target.startsWith("\"") && target.endsWith("\"")) {
+      target = target.substring(1, target.length() - 1).replace("\"\"", "\"");
+    }
+    for (final FieldInfoImpl<?> field: indexes) {
+      final Index index = field.getIndex();
+
+      if (!target.equals(field.getColumnName())) {
+        continue;
+      }
+      if (!StringUtils.isEmpty(index.name()) && !index.name().equals(imdata.getName())) {
+        continue;
+      }
+      if (StringUtils.isEmpty(index.customClass())
+          ? !imdata.isCustomIndex()
+          : index.customClass().equals(imdata.getIndexClassName())) {
+        return field;
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Computes the statements required for all the specified contexts.
+   *
+   * @author paouelle
+   *
+   * @param  contexts the contexts for all POJO classes to diff
+   * @return the statements to execute for each phase keyed by keyspace names
+   * @throws IllegalArgumentException if a column cannot be altered to its new
+   *         type or if the primary key of an existing table has changed
+   */
+  private Map<String, Map<Phase, List<String>>> diff(
+    List<ClassInfoImpl<?>.Context> contexts
+  ) {
+    final Metadata metadata = mgr.getCluster().getMetadata();
+    final Map<String, Map<Phase, List<String>>> statements = new LinkedHashMap<>(16);
+    final Map<String, KeyspaceMetadata> kmdatas = new HashMap<>(16);
+    // do not diff the same types or tables twice
+    final Set<String> types = new HashSet<>(contexts.size() * 3);
+    final Set<String> tables = new HashSet<>(contexts.size() * 3);
+
+    for (final ClassInfoImpl<?>.Context context: contexts) {
+      final String keyspace;
+
+      try {
+        keyspace = context.getKeyspace();
+      } catch (ExcludedKeyspaceKeyException e) { // skip it
+        continue;
+      }
+      final Map<Phase, List<String>> phases = statements.computeIfAbsent(
+        keyspace, k -> new EnumMap<>(Phase.class)
+      );
+      final KeyspaceMetadata kmdata;
+
+      if (kmdatas.containsKey(keyspace)) {
+        kmdata = kmdatas.get(keyspace);
+      } else { // first time we see this keyspace
+        kmdata = metadata.getKeyspace(keyspace);
+        kmdatas.put(keyspace, kmdata);
+        diffKeyspace(context, kmdata, phases);
+      }
+      ClassInfoImpl<?> cinfo = context.getClassInfo();
+
+      if (cinfo.supportsTablesAndIndexes()) {
+        if (cinfo instanceof TypeClassInfoImpl) {
+          // fallback to root entity to get the proper tables
+          cinfo = ((TypeClassInfoImpl<?>)cinfo).getRoot();
+        }
+        for (final TableInfoImpl<?> table: cinfo.getTablesImpl()) {
+          if (tables.add(keyspace + '.' + table.getName())) {
+            diffTable(context, table, kmdata, phases);
+          }
+        }
+      } else if (cinfo instanceof UDTClassInfoImpl) {
+        final UDTClassInfoImpl<?> ucinfo = (UDTClassInfoImpl<?>)cinfo;
+
+        if (types.add(keyspace + '.' + ucinfo.getName())) {
+          diffType(context, ucinfo, kmdata, phases);
+        }
+      }
+    }
+    // only keep keyspaces for which we have something to do
+    statements.values().removeIf(Map::isEmpty);
+    return statements;
+  }
+
+  /**
+   * Computes the statements required for the keyspace of the specified context.
+   *
+   * @author paouelle
+   *
+   * @param  context the context for the POJO
+   * @param  kmdata the keyspace currently defined in Cassandra or
+   *         <code>null</code> if it doesn't exist
+   * @param  phases the phases where to add the statements
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private void diffKeyspace(
+    ClassInfoImpl<?>.Context context,
+    KeyspaceMetadata kmdata,
+    Map<Phase, List<String>> phases
+  ) {
+    final CreateKeyspaceImpl<?> ck = new CreateKeyspaceImpl(context, mgr, bridge);
+
+    if (kmdata == null) {
+      ck.ifNotExists();
+      add(phases, Phase.KEYSPACE, ck.buildQueryString());
+      return;
+    }
+    final ClassInfoImpl<?> cinfo = context.getClassInfo();
+    final JsonObject json = (JsonObject)new WithOptionsImpl.ReplicationWithImpl(
+      cinfo, mgr
+    ).getValue();
+    final Map<String, String> replication = new HashMap<>(json.size() * 3 / 2);
+    final Map<String, String> replication0 = new HashMap<>(json.size() * 3 / 2);
+
+    json.forEach((n, v) -> replication.put(
+      n, (v instanceof JsonString) ? ((JsonString)v).getString() : v.toString()
+    ));
+    // Cassandra reports fully qualified strategy classes
+    kmdata.getReplication().forEach((n, v) -> replication0.put(
+      n, "class".equals(n) ? v.substring(v.lastIndexOf('.') + 1) : v
+    ));
+    if (!replication.equals(replication0)
+        || (kmdata.isDurableWrites() != cinfo.getKeyspace().durableWrites())) {
+      final StringBuilder builder = ck.buildQueryString();
+
+      builder.replace(0, "CREATE".length(), "ALTER");
+      add(phases, Phase.KEYSPACE, builder);
+    }
+  }
+
+  /**
+   * Computes the statements required for the specified user-defined type.
+   *
+   * @author paouelle
+   *
+   * @param  context the context for the POJO
+   * @param  ucinfo the user-defined type class info for the POJO
+   * @param  kmdata the keyspace currently defined in Cassandra or
+   *         <code>null</code> if it doesn't exist
+   * @param  phases the phases where to add the statements
+   * @throws IllegalArgumentException if a field cannot be altered to its new
+   *         type
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private void diffType(
+    ClassInfoImpl<?>.Context context,
+    UDTClassInfoImpl<?> ucinfo,
+    KeyspaceMetadata kmdata,
+    Map<Phase, List<String>> phases
+  ) {
+    final UserType utype = (kmdata != null) ? kmdata.getUserType(ucinfo.getName()) : null;
+
+    if (utype == null) { // doesn't exist so create it brand new
+      final CreateTypeImpl ct = new CreateTypeImpl(context, mgr, bridge);
+
+      ct.ifNotExists();
+      add(phases, Phase.TYPES, ct.buildQueryStrings(ucinfo));
+      return;
+    }
+    final TableInfoImpl<?> table = ucinfo.getTableImpl();
+    final Map<String, CQLDataType> columns = new LinkedHashMap<>(table.getColumns().size() * 3 / 2);
+
+    for (final FieldInfoImpl<?> field: table.getColumnsImpl()) {
+      if (field.isTypeKey() && (ucinfo instanceof UDTTypeClassInfoImpl)) {
+        // don't persist type keys for those (only for UDT root entities)
+        continue;
+      }
+      columns.put(field.getColumnName(), field.getDataType());
+    }
+    final List<String> instructions = new ArrayList<>(4);
+
+    for (final String name0: utype.getFieldNames()) {
+      final CQLDataType type = columns.remove(name0);
+
+      if (type != null) {
+        final String inst = SchemaDiffImpl.alterType(
+          ucinfo, name0, DataTypeParser.dataTypeToCQL(mgr, utype.getFieldType(name0)), type
+        );
+
+        if (inst != null) {
+          instructions.add(inst);
+        }
+      } // else - no longer exist - ignore and leave field there!!!
+    }
+    // check if there are any new fields left
+    columns.forEach((n, t) -> instructions.add("ADD " + n + " " + t.toCQL()));
+    SchemaDiffImpl.alter(
+      phases, Phase.TYPES, "TYPE", context.getKeyspace(), ucinfo.getName(), instructions
+    );
+  }
+
+  /**
+   * Computes the statements required for the specified table and its indexes.
+   *
+   * @author paouelle
+   *
+   * @param  context the context for the POJO
+   * @param  table the table to diff
+   * @param  kmdata the keyspace currently defined in Cassandra or
+   *         <code>null</code> if it doesn't exist
+   * @param  phases the phases where to add the statements
+   * @throws IllegalArgumentException if a column cannot be altered to its new
+   *         type or if the primary key of the table has changed
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private void diffTable(
+    ClassInfoImpl<?>.Context context,
+    TableInfoImpl<?> table,
+    KeyspaceMetadata kmdata,
+    Map<Phase, List<String>> phases
+  ) {
+    final TableMetadata tmdata = (kmdata != null) ? kmdata.getTable(table.getName()) : null;
+
+    if (tmdata == null) { // doesn't exist so create it brand new
+      final CreateTableImpl ct = new CreateTableImpl(context, mgr, bridge);
+
+      ct.ifNotExists();
+      add(phases, Phase.TABLES, ct.buildQueryStrings(table));
+    } else {
+      diffColumns(context, table, tmdata, phases);
+    }
+    final List<FieldInfoImpl<?>> indexes = new ArrayList<>(table.getIndexes());
+
+    if (tmdata != null) {
+      for (final IndexMetadata imdata: tmdata.getIndexes()) {
+        final FieldInfoImpl<?> field = SchemaDiffImpl.findIndex(imdata, indexes);
+
+        if (field != null) { // already defined as expected
+          indexes.remove(field);
+        } else { // no longer defined or changed
+          final StringBuilder builder = new StringBuilder("DROP INDEX IF EXISTS ");
+
+          Utils.appendName(builder, context.getKeyspace()).append('.');
+          Utils.appendName(builder, imdata.getName());
+          builder.append(';');
+          add(phases, Phase.DROP_INDEXES, builder);
+        }
+      }
+    }
+    if (!indexes.isEmpty()) {
+      final CreateIndexImpl ci = new CreateIndexImpl(context, null, null, mgr, bridge);
+
+      ci.ifNotExists();
+      for (final FieldInfoImpl<?> field: indexes) {
+        add(
+          phases,
+          Phase.CREATE_INDEXES,
+          ci.buildIndexQueryString((FieldInfoImpl)field, (TableInfoImpl)table)
+        );
+      }
+    }
+  }
+
+  /**
+   * Computes the statements required for the columns of the specified existing
+   * table.
+   *
+   * @author paouelle
+   *
+   * @param  context the context for the POJO
+   * @param  table the table to diff
+   * @param  tmdata the table currently defined in Cassandra
+   * @param  phases the phases where to add the statements
+   * @throws IllegalArgumentException if a column cannot be altered to its new
+   *         type or if the primary key of the table has changed
+   */
+  private void diffColumns(
+    ClassInfoImpl<?>.Context context,
+    TableInfoImpl<?> table,
+    TableMetadata tmdata,
+    Map<Phase, List<String>> phases
+  ) {
+    final Map<String, CQLDataType> columns = new LinkedHashMap<>(table.getColumns().size() * 3 / 2);
+    final List<String> pkeys = new ArrayList<>(table.getPartitionKeys().size());
+    final Map<String, Ordering> ckeys = new LinkedHashMap<>(table.getClusteringKeys().size() * 3 / 2);
+
+    for (final FieldInfoImpl<?> field: table.getColumnsImpl()) {
+      columns.put(field.getColumnName(), field.getDataType());
+      if (field.isMultiKey()) {
+        // we need to add a new column to represent a single value from the set
+        // to be the clustering key in addition to the field's column
+        columns.put(
+          StatementImpl.MK_PREFIX + field.getColumnName(),
+          field.getDataType().getFirstArgumentType()
+        );
+      } else if (field.isCaseInsensitiveKey()) {
+        // we need to add a new column to represent the lower case value of
+        // the key in addition to the field's column
+        columns.put(
+          StatementImpl.CI_PREFIX + field.getColumnName(),
+          field.getDataType().getFirstArgumentType()
+        );
+      }
+    }
+    for (final FieldInfoImpl<?> field: table.getPartitionKeys()) {
+      if (field.isMultiKey()) {
+        pkeys.add(StatementImpl.MK_PREFIX + field.getColumnName());
+      } else if (field.isCaseInsensitiveKey()) {
+        pkeys.add(StatementImpl.CI_PREFIX + field.getColumnName());
+      } else {
+        pkeys.add(field.getColumnName());
+      }
+    }
+    for (final FieldInfoImpl<?> field: table.getClusteringKeys()) {
+      if (field.isMultiKey()) {
+        ckeys.put(
+          StatementImpl.MK_PREFIX + field.getColumnName(),
+          field.getClusteringKey().order()
+        );
+      } else if (field.isCaseInsensitiveKey()) {
+        ckeys.put(
+          StatementImpl.CI_PREFIX + field.getColumnName(),
+          field.getClusteringKey().order()
+        );
+      } else {
+        ckeys.put(field.getColumnName(), field.getClusteringKey().order());
+      }
+    }
+    // validate partition keys
+    final List<String> pkeys0 = tmdata.getPartitionKey().stream()
+      .map(ColumnMetadata::getName)
+      .collect(Collectors.toList());
+
+    org.apache.commons.lang3.Validate.isTrue(
+      pkeys0.equals(pkeys),
+      "partition key definition for table '%s' has changed; expecting '%s'",
+      table.getName(), pkeys0
+    );
+    // validate clustering keys
+    final List<ColumnMetadata> ccolumns0 = tmdata.getClusteringColumns();
+    final List<ClusteringOrder> corders0 = tmdata.getClusteringOrder();
+    final Map<String, Ordering> ckeys0 = new LinkedHashMap<>(ccolumns0.size() * 3 / 2);
+
+    for (int i = 0; i < ccolumns0.size(); i++) {
+      ckeys0.put(
+        ccolumns0.get(i).getName(),
+        (corders0.get(i) == ClusteringOrder.DESC) ? Ordering.DESCENDING : Ordering.ASCENDING
+      );
+    }
+    org.apache.commons.lang3.Validate.isTrue(
+      new ArrayList<>(ckeys0.entrySet()).equals(new ArrayList<>(ckeys.entrySet())),
+      "clustering key definition for table '%s' has changed; expecting '%s'",
+      table.getName(), ckeys0
+    );
+    final List<String> instructions = new ArrayList<>(8);
+
+    for (final ColumnMetadata cmdata: tmdata.getColumns()) {
+      final String name0 = cmdata.getName();
+      final CQLDataType type = columns.remove(name0);
+
+      if (type == null) { // no longer exist
+        instructions.add("DROP " + name0);
+      } else { // still exist
+        final String inst = SchemaDiffImpl.alterType(
+          context.getClassInfo(), name0, DataTypeParser.dataTypeToCQL(mgr, cmdata.getType()), type
+        );
+
+        if (inst != null) {
+          instructions.add(inst);
+        }
+      }
+    }
+    // check if there are any new columns left
+    columns.forEach((n, t) -> instructions.add("ADD " + n + " " + t.toCQL()));
+    SchemaDiffImpl.alter(
+      phases, Phase.TABLES, "TABLE", context.getKeyspace(), table.getName(), instructions
+    );
+  }
+
+  /**
+   * Waits for all nodes in the cluster to agree on the schema before
+   * proceeding with the specified phase.
+   *
+   * @author paouelle
+   *
+   * @param  keyspace the keyspace being altered
+   * @param  phase the phase about to be executed
+   * @throws InterruptedException if interrupted while waiting
+   * @throws IllegalStateException if schema agreement is not reached in time
+   */
+  private void awaitSchemaAgreement(String keyspace, Phase phase)
+    throws InterruptedException {
+    final Cluster cluster = mgr.getCluster();
+    final long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(
+      cluster.getConfiguration().getProtocolOptions().getMaxSchemaAgreementWaitSeconds()
+    );
+
+    while (!cluster.getMetadata().checkSchemaAgreement()) {
+      if (System.currentTimeMillis() >= deadline) {
+        throw new IllegalStateException(
+          "schema agreement not reached for keyspace '"
+          + keyspace
+          + "' before "
+          + phase
+        );
+      }
+      Thread.sleep(SchemaDiffImpl.SCHEMA_AGREEMENT_POLL_INTERVAL);
+    }
+  }
+
+  /**
+   * Applies the differences computed for the specified keyspace one phase at
+   * a time.
+   *
+   * @author paouelle
+   *
+   * @param  keyspace the keyspace to alter
+   * @param  phases the statements to execute for each phase
+   * @return <code>null</code>
+   * @throws InterruptedException if interrupted while waiting
+   * @throws IllegalStateException if schema agreement is not reached in time
+   */
+  private Void apply(String keyspace, Map<Phase, List<String>> phases)
+    throws InterruptedException {
+    boolean agreed = true;
+
+    for (final Map.Entry<Phase, List<String>> e: phases.entrySet()) {
+      if (!agreed) { // the following phase depends on the previous one
+        awaitSchemaAgreement(keyspace, e.getKey());
+      }
+      for (final String cql: e.getValue()) {
+        logger.debug("altering keyspace '%s': %s", keyspace, cql);
+        final ResultSet result = new SimpleStatementImpl(cql, mgr, bridge).executeRaw();
+
+        // the driver already waits a bit for schema agreement after each change
+        agreed = result.getExecutionInfo().isSchemaInAgreement();
+        executed.increment();
+      }
+    }
+    return null;
+  }
+
+  /**
+   * Applies the computed differences using as many threads as there are
+   * available processors.
+   *
+   * @author paouelle
+   *
+   * @return this for chaining
+   * @throws InterruptedException if interrupted while waiting for the changes
+   *         to be applied
+   */
+  public SchemaDiffImpl apply() throws InterruptedException {
+    return apply(Runtime.getRuntime().availableProcessors());
+  }
+
+  /**
+   * Applies the computed differences. Keyspaces are altered in parallel while
+   * the phases for a given keyspace are executed in order after verifying
+   * schema agreement. Failures for a given keyspace do not prevent others from
+   * being altered and are reported via {@link #getFailures}.
+   *
+   * @author paouelle
+   *
+   * @param  parallelism the maximum number of keyspaces to alter concurrently
+   * @return this for chaining
+   * @throws IllegalArgumentException if <code>parallelism</code> is not positive
+   * @throws InterruptedException if interrupted while waiting for the changes
+   *         to be applied
+   */
+  public SchemaDiffImpl apply(int parallelism) throws InterruptedException {
+    org.apache.commons.lang3.Validate.isTrue(
+      parallelism > 0, "invalid parallelism: %d", parallelism
+    );
+    if (statements.isEmpty()) {
+      logger.info("schemas are up to date");
+      return this;
+    }
+    final long start = System.nanoTime();
+    final ExecutorService pool = Executors.newFixedThreadPool(
+      Math.min(parallelism, statements.size())
+    );
+
+    try {
+      final Map<String, Future<Void>> futures = new LinkedHashMap<>(statements.size() * 3 / 2);
+
+      statements.forEach((k, phases) -> futures.put(k, pool.submit(() -> apply(k, phases))));
+      for (final Map.Entry<String, Future<Void>> e: futures.entrySet()) {
+        try {
+          e.getValue().get();
+        } catch (ExecutionException ee) {
+          final Throwable t = ee.getCause();
+
+          if (t instanceof Error) {
+            throw (Error)t;
+          }
+          failures.put(e.getKey(), t);
+        }
+      }
+    } finally {
+      pool.shutdownNow();
+      this.applyTime = System.nanoTime() - start;
+    }
+    logger.info(
+      "executed %d schema statements in %d keyspaces (%d failed) in %dms (diff: %dms)",
+      executed.intValue(),
+      statements.size(),
+      failures.size(),
+      TimeUnit.NANOSECONDS.toMillis(applyTime),
+      TimeUnit.NANOSECONDS.toMillis(diffTime)
+    );
+    failures.forEach((k, t) -> logger.warn("failed to alter keyspace: " + k, t));
+    return this;
+  }
+
+  /**
+   * Checks if the schemas defined in Cassandra are up to date.
+   *
+   * @author paouelle
+   *
+   * @return <code>true</code> if there are no statements to execute;
+   *         <code>false</code> otherwise
+   */
+  public boolean isEmpty() {
+    return statements.isEmpty();
+  }
+
+  /**
+   * Gets the total number of statements to execute.
+   *
+   * @author paouelle
+   *
+   * @return the total number of statements to execute
+   */
+  public int size() {
+    return statements.values().stream()
+      .flatMap(p -> p.values().stream())
+      .mapToInt(List::size)
+      .sum();
+  }
+
+  /**
+   * Gets the names of all keyspaces that need to be created or altered.
+   *
+   * @author paouelle
+   *
+   * @return a non-<code>null</code> set of keyspace names
+   */
+  public Set<String> getKeyspaces() {
+    return Collections.unmodifiableSet(statements.keySet());
+  }
+
+  /**
+   * Gets all the statements to execute in order keyed by keyspace names.
+   *
+   * @author paouelle
+   *
+   * @return a non-<code>null</code> map of all statements to execute
+   */
+  public Map<String, List<String>> getStatements() {
+    final Map<String, List<String>> all = new LinkedHashMap<>(statements.size() * 3 / 2);
+
+    statements.forEach((k, phases) -> all.put(
+      k,
+      Collections.unmodifiableList(phases.values().stream()
+        .flatMap(List::stream)
+        .collect(Collectors.toList()))
+    ));
+    return Collections.unmodifiableMap(all);
+  }
+
+  /**
+   * Gets the statements to execute for a given keyspace and phase.
+   *
+   * @author paouelle
+   *
+   * @param  keyspace the keyspace for which to get the statements
+   * @param  phase the phase for which to get the statements
+   * @return a non-<code>null</code> list of statements to execute
+   */
+  public List<String> getStatements(String keyspace, Phase phase) {
+    final Map<Phase, List<String>> phases = statements.get(keyspace);
+
+    if (phases == null) {
+      return Collections.emptyList();
+    }
+    return Collections.unmodifiableList(
+      phases.getOrDefault(phase, Collections.emptyList())
+    );
+  }
+
+  /**
+   * Gets the failures that occurred while applying the differences.
+   *
+   * @author paouelle
+   *
+   * @return a non-<code>null</code> map of failures keyed by keyspace names
+   */
+  public Map<String, Throwable> getFailures() {
+    return Collections.unmodifiableMap(failures);
+  }
+
+  /**
+   * Gets the number of statements that were executed.
+   *
+   * @author paouelle
+   *
+   * @return the number of statements that were executed
+   */
+  public int getNumExecuted() {
+    return executed.intValue();
+  }
+
+  /**
+   * Gets the time it took to compute the differences.
+   *
+   * @author paouelle
+   *
+   * @param  unit the unit in which to report the duration
+   * @return the time it took to compute the differences
+   */
+  public long getDiffDuration(TimeUnit unit) {
+    return unit.convert(diffTime, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Gets the time it took to apply the differences.
+   *
+   * @author paouelle
+   *
+   * @param  unit the unit in which to report the duration
+   * @return the time it took to apply the differences or <code>0</code> if
+   *         they were not applied yet
+   */
+  public long getApplyDuration(TimeUnit unit) {
+    return unit.convert(applyTime, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * Gets a dry-run report of all statements to execute in order grouped by
+   * keyspace and phase.
+   *
+   * @author paouelle
+   *
+   * @return a non-<code>null</code> CQL script of all statements to execute
+   */
+  public String getReport() {
+    final StringBuilder sb = new StringBuilder(size() * 80);
+
+    statements.forEach((k, phases) -> phases.forEach((p, cqls) -> {
+      sb.append("-- ").append(k).append(": ").append(p).append('\n');
+      cqls.forEach(cql -> {
+        sb.append(cql);
+        if (!cql.endsWith(";")) {
+          sb.append(';');
+        }
+        sb.append('\n');
+      });
+    }));
+    return sb.toString();
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see java.lang.Object#toString()
+   */
+  @Override
+  public String toString() {
+    return (
+      getClass().getSimpleName()
+      + "[keyspaces=" + statements.size()
+      + ",statements=" + size()
+      + ",executed=" + getNumExecuted()
+      + ",failed=" + failures.size()
+      + ",diff=" + getDiffDuration(TimeUnit.MILLISECONDS)
+      + "ms,apply=" + getApplyDuration(TimeUnit.MILLISECONDS)
+      + "ms]"
+    );
+  }
+}
@@ -15,6 +15,7 @@
  */
 package org.helenus.driver.impl;
 
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
@@ -307,6 +308,14 @@ public abstract class StatementImpl<R, F extends ListenableFuture<R>, T>
    */
   private volatile Object data = null;
 
+  /**
+   * Holds the audit rows diverted to the audit journal while building the
+   * query string for execution or <code>null</code> if not journaling.
+   *
+   * @author paouelle
+   */
+  volatile List<AuditJournalImpl.Entry> audits = null;
+
   /**
    * Instantiates a new <code>StatementImpl</code> object.
    *
@@ -739,6 +748,71 @@ public abstract class StatementImpl<R, F extends ListenableFuture<R>, T>
    */
   protected void appendOptions(StringBuilder builder) {}
 
+  /**
+   * Checks if rows for AUDIT tables generated by this statement can be
+   * diverted to the audit journal when executed directly.
+   *
+   * @author paouelle
+   *
+   * @return <code>true</code> if audit rows can be journaled; <code>false</code>
+   *         otherwise
+   */
+  protected boolean canJournalAudits() {
+    return false;
+  }
+
+  /**
+   * Checks if this statement is conditional (e.g. <code>IF EXISTS</code>) in
+   * which case it might not be applied.
+   *
+   * @author paouelle
+   *
+   * @return <code>true</code> if this statement is conditional;
+   *         <code>false</code> otherwise
+   */
+  protected boolean isConditional() {
+    return false;
+  }
+
+  /**
+   * Checks if this statement is an idempotent mutation which can be spooled
+   * when it fails because the cluster is unavailable.
+   *
+   * @author paouelle
+   *
+   * @return <code>true</code> if this statement can be spooled;
+   *         <code>false</code> otherwise
+   */
+  protected boolean canSpool() {
+    return false;
+  }
+
+  /**
+   * Finishes the specified query string by removing trailing whitespaces and
+   * making sure it ends with a semicolon.
+   *
+   * @author paouelle
+   *
+   * @param  sb the non-<code>null</code> query string to finish
+   * @return <code>sb</code>
+   */
+  private static StringBuilder finishQueryString(StringBuilder sb) {
+    // Use the same test that String#trim() uses to determine
+    // if a character is a whitespace character.
+    int l = sb.length();
+
+    while (l > 0 && sb.charAt(l - 1) <= ' ') {
+      l -= 1;
+    }
+    if (l != sb.length()) {
+      sb.setLength(l);
+    }
+    if (l == 0 || sb.charAt(l - 1) != ';') {
+      sb.append(';');
+    }
+    return sb;
+  }
+
   /**
    * Builds the query string.
    *
@@ -933,16 +1007,48 @@ public abstract class StatementImpl<R, F extends ListenableFuture<R>, T>
     if (!enabled) {
       return new EmptyResultSetFuture(mgr);
     }
-    final String query = getQueryString();
-
+    final AuditJournalImpl journal = canJournalAudits() ? mgr.getAuditJournal() : null;
+    final List<AuditJournalImpl.Entry> audits;
+    final String query;
+
+    if (journal != null) {
+      // build without caching such that audit rows are diverted to the journal
+      audits = new ArrayList<>(4);
+      this.audits = audits;
+      try {
+        final StringBuilder sb = buildQueryString();
+
+        query = (sb != null) ? StatementImpl.finishQueryString(sb).toString() : null;
+      } finally {
+        this.audits = null;
+      }
+    } else {
+      audits = null;
+      query = getQueryString();
+    }
+    if ((audits != null) && !audits.isEmpty()) {
+      // journal audit rows before sending the statement such that they survive
+      // a crash before the statement is acknowledged
+      journal.append(audits);
+    }
     try {
       if (StringUtils.isEmpty(query)) { // nothing to query
         return new EmptyResultSetFuture(mgr);
       }
       final SimpleStatement raw = init(new SimpleStatement(query));
+      final MutationSpoolImpl spool = canSpool() ? mgr.getMutationSpool() : null;
 
+      if ((spool != null) && (raw.getDefaultTimestamp() == Long.MIN_VALUE)) {
+        // generate the timestamp now such that it is preserved if spooled
+        raw.setDefaultTimestamp(
+          mgr.getCluster().getConfiguration().getPolicies().getTimestampGenerator().next()
+        );
+      }
       debugExecution(query);
-      final ResultSetFuture f = mgr.sent(this, mgr.getSession().executeAsync(raw));
+      final ResultSetFuture sent = mgr.sent(this, mgr.getSession().executeAsync(raw));
+      final ResultSetFuture f = (spool != null)
+        ? spool.spoolOnFailure(sent, query, raw.getConsistencyLevel(), raw.getDefaultTimestamp())
+        : sent;
 
       return new ResultSetFuture() {
         @Override
@@ -1503,24 +1609,7 @@ public abstract class StatementImpl<R, F extends ListenableFuture<R>, T>
     if (dirty || (cache == null)) {
       final StringBuilder sb = buildQueryString();
 
-      if (sb == null) {
-        this.cache = null;
-      } else {
-        // Use the same test that String#trim() uses to determine
-        // if a character is a whitespace character.
-        int l = sb.length();
-
-        while (l > 0 && sb.charAt(l - 1) <= ' ') {
-          l -= 1;
-        }
-        if (l != sb.length()) {
-          sb.setLength(l);
-        }
-        if (l == 0 || sb.charAt(l - 1) != ';') {
-          sb.append(';');
-        }
-        this.cache = sb;
-      }
+      this.cache = (sb != null) ? StatementImpl.finishQueryString(sb) : null;
       this.dirty = false;
     }
     return (cache != null) ? cache.toString() : null;
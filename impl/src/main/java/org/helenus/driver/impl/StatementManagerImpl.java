@@ -15,12 +15,18 @@
  */
 package org.helenus.driver.impl;
 
+import java.lang.annotation.Annotation;
 import java.lang.reflect.Field;
 
+import java.io.File;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
 import java.util.List;
@@ -28,13 +34,20 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Function;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import java.nio.ByteBuffer;
+
 import javax.json.JsonObject;
 
 import org.apache.logging.log4j.Level;
@@ -46,12 +59,18 @@ import com.datastax.driver.core.Cluster;
 import com.datastax.driver.core.CodecRegistry;
 import com.datastax.driver.core.KeyspaceMetadata;
 import com.datastax.driver.core.Metadata;
+import com.datastax.driver.core.MetadataBridge;
 import com.datastax.driver.core.ProtocolVersion;
 import com.datastax.driver.core.ResultSetFuture;
 import com.datastax.driver.core.SchemaChangeListenerBase;
 import com.datastax.driver.core.Session;
+import com.datastax.driver.core.TypeCodec;
 import com.datastax.driver.core.UserType;
 import com.datastax.driver.core.exceptions.NoHostAvailableException;
+import com.datastax.driver.core.utils.Bytes;
+import com.google.common.collect.MapMaker;
+import com.google.common.hash.Hashing;
+import com.google.common.util.concurrent.ListenableFuture;
 import com.google.common.util.concurrent.MoreExecutors;
 
 import org.helenus.commons.collections.iterators.SnapshotIterator;
@@ -62,7 +81,9 @@ import org.helenus.driver.Assignment;
 import org.helenus.driver.Batch;
 import org.helenus.driver.BatchableStatement;
 import org.helenus.driver.BindMarker;
+import org.helenus.driver.BulkInsert;
 import org.helenus.driver.Clause;
+import org.helenus.driver.CounterAccumulator;
 import org.helenus.driver.CreateIndex;
 import org.helenus.driver.CreateKeyspace;
 import org.helenus.driver.CreateSchema;
@@ -87,19 +108,24 @@ import org.helenus.driver.Truncate;
 import org.helenus.driver.Update;
 import org.helenus.driver.Using;
 import org.helenus.driver.WithOptions;
+import org.helenus.driver.WriteBehind;
 import org.helenus.driver.impl.Utils.CNameSequence;
 import org.helenus.driver.impl.WithOptionsImpl.CompactionWithImpl;
 import org.helenus.driver.impl.WithOptionsImpl.ReplicationWithImpl;
 import org.helenus.driver.info.ClassInfo;
 import org.helenus.driver.info.EntityFilter;
 import org.helenus.driver.info.TableInfo;
+import org.helenus.driver.persistence.Column;
 import org.helenus.driver.persistence.DataType;
 import org.helenus.driver.persistence.Entity;
+import org.helenus.driver.persistence.KeyspaceKey;
 import org.helenus.driver.persistence.RootEntity;
 import org.helenus.driver.persistence.TypeEntity;
 import org.helenus.driver.persistence.UDTEntity;
 import org.helenus.driver.persistence.UDTRootEntity;
 import org.helenus.driver.persistence.UDTTypeEntity;
+import org.helenus.driver.processing.EntityIndex;
+import org.reflections.Reflections;
 
 /**
  * The <code>StatementManagerImpl</code> class provides an implementation
@@ -120,6 +146,13 @@ public class StatementManagerImpl extends StatementManager {
    */
   private final static Logger logger = LogManager.getFormatterLogger(StatementManagerImpl.class);
 
+  /**
+   * Holds the fingerprint used for <code>null</code> column values.
+   *
+   * @author paouelle
+   */
+  private final static Long NULL_FINGERPRINT = 0L;
+
   /**
    * Holds the bridge.
    *
@@ -202,6 +235,14 @@ public class StatementManagerImpl extends StatementManager {
    */
   private final ExecutorService poolExecutor;
 
+  /**
+   * Holds a scheduled executor used for processing internal periodic tasks
+   * such as flushing write-behind buffers.
+   *
+   * @author paouelle
+   */
+  private final ScheduledExecutorService scheduledExecutor;
+
   /**
    * Holds a flag to control whether to trace the full statement or part of it
    * when it exceeds 2K in size.
@@ -218,6 +259,73 @@ public class StatementManagerImpl extends StatementManager {
    */
   private volatile boolean allStatementTraces = false;
 
+  /**
+   * Holds a flag indicating if POJOs hydrated from rows should be snapshotted
+   * such that updates can be reduced to the columns that actually changed.
+   *
+   * @author paouelle
+   */
+  private volatile boolean snapshots = false;
+
+  /**
+   * Holds the snapshots recorded for POJOs keyed by POJO identity. Entries are
+   * automatically discarded once their POJO is garbage collected.
+   *
+   * @author paouelle
+   */
+  private final ConcurrentMap<Object, ObjectSnapshotImpl> objectSnapshots
+    = new MapMaker().weakKeys().makeMap();
+
+  /**
+   * Holds the policy used to execute lightweight transactions. Defaults to
+   * {@link LWTPolicy#NONE} such that lightweight transactions behave as they
+   * always did unless a policy is explicitly configured.
+   *
+   * @author paouelle
+   */
+  private volatile LWTPolicy lwtPolicy = LWTPolicy.NONE;
+
+  /**
+   * Holds the lock stripes used to serialize conflicting lightweight
+   * transactions client-side or <code>null</code> if disabled. Each stripe
+   * references the last lightweight transaction executed for it.
+   *
+   * @author paouelle
+   */
+  private volatile AtomicReferenceArray<ListenableFuture<?>> lwtStripes = null;
+
+  /**
+   * Holds the lightweight transaction metrics keyed by keyspace and table names.
+   *
+   * @author paouelle
+   */
+  private final Map<String, LWTMetrics> lwtMetrics = new ConcurrentHashMap<>(16);
+
+  /**
+   * Holds the journal where rows for AUDIT tables are diverted or
+   * <code>null</code> if audit rows are written along with the statements
+   * generating them.
+   *
+   * @author paouelle
+   */
+  private volatile AuditJournalImpl auditJournal = null;
+
+  /**
+   * Holds the spool where idempotent mutations failing because the cluster is
+   * unavailable are kept for later replay or <code>null</code> if disabled.
+   *
+   * @author paouelle
+   */
+  private volatile MutationSpoolImpl mutationSpool = null;
+
+  /**
+   * Holds the persistent snapshot of class info metadata or <code>null</code>
+   * if disabled.
+   *
+   * @author paouelle
+   */
+  private volatile ClassInfoSnapshotImpl classInfoSnapshot = null;
+
   /**
    * Instantiates a new <code>StatementManagerImpl</code> object.
    *
@@ -250,6 +358,9 @@ public class StatementManagerImpl extends StatementManager {
         new LinkedBlockingQueue<Runnable>()
       )
     );
+    this.scheduledExecutor = MoreExecutors.getExitingScheduledExecutorService(
+      new ScheduledThreadPoolExecutor(1)
+    );
     cluster.register(new SchemaChangeListenerBase() {
       @Override
       public void onUserTypeAdded(UserType type) {
@@ -1092,6 +1203,42 @@ public class StatementManagerImpl extends StatementManager {
     return new GroupImpl(recorder, statements, this, bridge);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.StatementManager#bulkInsert(java.util.Iterator)
+   */
+  @Override
+  protected <T> BulkInsert<T> bulkInsert(Iterator<T> objects) {
+    return new BulkInsertImpl<>(objects, this);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.StatementManager#writeBehind()
+   */
+  @Override
+  protected WriteBehind writeBehind() {
+    return new WriteBehindImpl(this);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.StatementManager#counterAccumulator()
+   */
+  @Override
+  protected CounterAccumulator counterAccumulator() {
+    return new CounterAccumulatorImpl(this);
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -2274,6 +2421,57 @@ public class StatementManagerImpl extends StatementManager {
     return classInfo;
   }
 
+  /**
+   * Eagerly builds the class info structures for all POJO classes found in the
+   * specified packages or classes and resolves their codecs for the given
+   * keyspaces using as many threads as there are available processors.
+   *
+   * @author paouelle
+   *
+   * @param  keyspaces the keyspaces for which to pre-resolve codecs
+   * @param  pkgsOrClasses the packages and/or POJO classes to warm up
+   * @return the non-<code>null</code> warm-up report
+   * @throws NullPointerException if <code>keyspaces</code> or
+   *         <code>pkgsOrClasses</code> is <code>null</code>
+   * @throws IllegalArgumentException if one of <code>pkgsOrClasses</code> is
+   *         neither a package name nor a class
+   * @throws InterruptedException if interrupted while waiting for the warm-up
+   *         to complete
+   */
+  public ClassInfoWarmUpImpl warmUp(
+    Collection<String> keyspaces, Object... pkgsOrClasses
+  ) throws InterruptedException {
+    return warmUp(
+      Runtime.getRuntime().availableProcessors(), keyspaces, pkgsOrClasses
+    );
+  }
+
+  /**
+   * Eagerly builds the class info structures for all POJO classes found in the
+   * specified packages or classes and resolves their codecs for the given
+   * keyspaces. Root entities and user-defined types are built before the
+   * entities that depend on them.
+   *
+   * @author paouelle
+   *
+   * @param  parallelism the maximum number of threads to use
+   * @param  keyspaces the keyspaces for which to pre-resolve codecs
+   * @param  pkgsOrClasses the packages and/or POJO classes to warm up
+   * @return the non-<code>null</code> warm-up report
+   * @throws NullPointerException if <code>keyspaces</code> or
+   *         <code>pkgsOrClasses</code> is <code>null</code>
+   * @throws IllegalArgumentException if <code>parallelism</code> is not
+   *         positive or if one of <code>pkgsOrClasses</code> is neither a
+   *         package name nor a class
+   * @throws InterruptedException if interrupted while waiting for the warm-up
+   *         to complete
+   */
+  public ClassInfoWarmUpImpl warmUp(
+    int parallelism, Collection<String> keyspaces, Object... pkgsOrClasses
+  ) throws InterruptedException {
+    return new ClassInfoWarmUpImpl(this, keyspaces, pkgsOrClasses).run(parallelism);
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -2322,6 +2520,34 @@ public class StatementManagerImpl extends StatementManager {
     return cluster.getConfiguration().getProtocolOptions().getProtocolVersion();
   }
 
+  /**
+   * Gets the number of known hosts in the cluster.
+   * <p>
+   * <i>Note:</i> This will initialize the cluster if not already done.
+   *
+   * @author paouelle
+   *
+   * @return the number of known hosts in the cluster
+   */
+  public int getNumHosts() {
+    return MetadataBridge.getNumHosts(cluster.getMetadata());
+  }
+
+  /**
+   * Gets the cluster's meta data for the specified keyspace.
+   * <p>
+   * <i>Note:</i> This will initialize the cluster if not already done.
+   *
+   * @author paouelle
+   *
+   * @param  keyspace the keyspace for which to get its meta data
+   * @return the corresponding keyspace meta data or <code>null</code> if the
+   *         keyspace doesn't exist
+   */
+  public KeyspaceMetadata getKeyspaceMetadata(String keyspace) {
+    return cluster.getMetadata().getKeyspace(keyspace);
+  }
+
   /**
    * Gets the maximum replication factor defined for the specified keyspace.
    *
@@ -2332,7 +2558,7 @@ public class StatementManagerImpl extends StatementManager {
    *         if the keyspace doesn't exist
    */
   public int getMaximumKeyspaceReplicationFactor(String keyspace) {
-    final KeyspaceMetadata mdata = cluster.getMetadata().getKeyspace(keyspace);
+    final KeyspaceMetadata mdata = getKeyspaceMetadata(keyspace);
 
     if (mdata == null) {
       return 0;
@@ -2395,6 +2621,21 @@ public class StatementManagerImpl extends StatementManager {
     return directExecutor;
   }
 
+  /**
+   * Gets a scheduled executor used for processing internal periodic tasks
+   * such as flushing write-behind buffers.
+   * <p>
+   * <i>Note:</i> Tasks executed by this executor must be short lived as it
+   * is backed by a single thread.
+   *
+   * @author paouelle
+   *
+   * @return a non-<code>null</code> scheduled executor service
+   */
+  public ScheduledExecutorService getScheduledExecutor() {
+    return scheduledExecutor;
+  }
+
   /**
    * Gets the default replication factor to use when POJOS are defined with the
    * SIMPLE strategy and do not specify a factor.
@@ -2534,6 +2775,583 @@ public class StatementManagerImpl extends StatementManager {
     this.allStatementTraces = false;
   }
 
+  /**
+   * Checks if POJOs hydrated from rows are snapshotted such that updating them
+   * with all their columns only sets the columns that actually changed since.
+   *
+   * @author paouelle
+   *
+   * @return <code>true</code> if hydrated POJOs are snapshotted;
+   *         <code>false</code> otherwise
+   */
+  public boolean isSnapshotsEnabled() {
+    return snapshots;
+  }
+
+  /**
+   * Enables snapshotting POJOs hydrated from rows. Once enabled, each hydrated
+   * POJO keeps a compact fingerprint of its column values and updating it with
+   * all its columns (see {@link StatementBuilder#setAllFromObject}) only sets
+   * the columns that changed since or skips the update entirely when nothing
+   * changed.
+   * <p>
+   * <i>Note:</i> Snapshots assume the rows of all tables for a given POJO were
+   * consistent with the POJO when it was hydrated.
+   *
+   * @author paouelle
+   */
+  public void enableSnapshots() {
+    this.snapshots = true;
+  }
+
+  /**
+   * Disables snapshotting POJOs hydrated from rows and discards all recorded
+   * snapshots.
+   *
+   * @author paouelle
+   */
+  public void disableSnapshots() {
+    this.snapshots = false;
+    objectSnapshots.clear();
+  }
+
+  /**
+   * Gets the policy used to execute lightweight transactions.
+   *
+   * @author paouelle
+   *
+   * @return the non-<code>null</code> policy used to execute lightweight
+   *         transactions ({@link LWTPolicy#NONE} unless configured otherwise)
+   */
+  public LWTPolicy getLWTPolicy() {
+    return lwtPolicy;
+  }
+
+  /**
+   * Sets the policy used to execute lightweight transactions (i.e.
+   * <code>INSERT ... IF NOT EXISTS</code> and conditional <code>UPDATE</code>
+   * statements).
+   *
+   * @author paouelle
+   *
+   * @param  policy the non-<code>null</code> policy to use
+   * @return this for chaining
+   * @throws NullPointerException if <code>policy</code> is <code>null</code>
+   */
+  public synchronized StatementManagerImpl setLWTPolicy(LWTPolicy policy) {
+    org.apache.commons.lang3.Validate.notNull(policy, "invalid null policy");
+    final AtomicReferenceArray<ListenableFuture<?>> stripes = lwtStripes;
+    final int n = policy.getLockStripes();
+
+    if (n == 0) {
+      this.lwtStripes = null;
+    } else if ((stripes == null) || (stripes.length() != n)) {
+      this.lwtStripes = new AtomicReferenceArray<>(n);
+    }
+    this.lwtPolicy = policy;
+    return this;
+  }
+
+  /**
+   * Gets the lock stripes used to serialize conflicting lightweight
+   * transactions client-side.
+   *
+   * @author paouelle
+   *
+   * @return the lock stripes or <code>null</code> if disabled
+   */
+  AtomicReferenceArray<ListenableFuture<?>> getLWTStripes() {
+    return lwtStripes;
+  }
+
+  /**
+   * Gets the metrics for lightweight transactions executed against all tables.
+   *
+   * @author paouelle
+   *
+   * @return a non-<code>null</code> map of all lightweight transaction metrics
+   *         keyed by keyspace and table names (e.g. "keyspace.table")
+   */
+  public Map<String, LWTMetrics> getLWTMetrics() {
+    return Collections.unmodifiableMap(lwtMetrics);
+  }
+
+  /**
+   * Gets the metrics for lightweight transactions executed against the
+   * specified table.
+   *
+   * @author paouelle
+   *
+   * @param  keyspace the keyspace name
+   * @param  table the table name
+   * @return the non-<code>null</code> corresponding metrics
+   */
+  public LWTMetrics getLWTMetrics(String keyspace, String table) {
+    final String name = (keyspace != null) ? keyspace + "." + table : table;
+    final LWTMetrics metrics = lwtMetrics.get(name);
+
+    if (metrics != null) {
+      return metrics;
+    }
+    return lwtMetrics.computeIfAbsent(name, n -> new LWTMetrics(keyspace, table));
+  }
+
+  /**
+   * Gets the journal where rows for AUDIT tables are diverted.
+   *
+   * @author paouelle
+   *
+   * @return the audit journal or <code>null</code> if disabled
+   */
+  public AuditJournalImpl getAuditJournal() {
+    return auditJournal;
+  }
+
+  /**
+   * Enables journaling rows for AUDIT tables. Once enabled, rows generated for
+   * AUDIT tables by INSERT, UPDATE, and DELETE statements executed on their
+   * own (i.e. not as part of a batch) are appended to the specified local
+   * journal once the statement completes instead of being written along with
+   * it and are written asynchronously in the background. Audit rows left in
+   * an existing journal file are replayed.
+   * <p>
+   * <i>Note:</i> Conditional statements always write their audit rows along
+   * with the statement.
+   *
+   * @author paouelle
+   *
+   * @param  file the non-<code>null</code> journal file to create or re-open
+   * @param  capacity the capacity in bytes of the journal
+   * @return the non-<code>null</code> audit journal
+   * @throws NullPointerException if <code>file</code> is <code>null</code>
+   * @throws IllegalArgumentException if <code>capacity</code> is invalid
+   * @throws IOException if an I/O error occurs while opening the journal or if
+   *         an existing journal is corrupted
+   */
+  public synchronized AuditJournalImpl enableAuditJournal(File file, int capacity)
+    throws IOException {
+    org.apache.commons.lang3.Validate.notNull(file, "invalid null file");
+    disableAuditJournal();
+    this.auditJournal = new AuditJournalImpl(this, file, capacity);
+    return auditJournal;
+  }
+
+  /**
+   * Disables journaling rows for AUDIT tables and closes the current journal
+   * after draining it.
+   *
+   * @author paouelle
+   *
+   * @throws com.datastax.driver.core.exceptions.DriverException if the journal
+   *         failed to be drained in which case the remaining audit rows will be
+   *         replayed the next time the journal is enabled
+   */
+  public synchronized void disableAuditJournal() {
+    final AuditJournalImpl journal = auditJournal;
+
+    if (journal != null) {
+      this.auditJournal = null;
+      journal.close();
+    }
+  }
+
+  /**
+   * Gets the spool where idempotent mutations failing because the cluster is
+   * unavailable are kept for later replay.
+   *
+   * @author paouelle
+   *
+   * @return the mutation spool or <code>null</code> if disabled
+   */
+  public MutationSpoolImpl getMutationSpool() {
+    return mutationSpool;
+  }
+
+  /**
+   * Enables spooling idempotent mutations that fail because the cluster is
+   * unavailable. Once enabled, INSERT, UPDATE, and DELETE statements without
+   * conditions which are executed on their own (i.e. not as part of a batch)
+   * and fail with a {@link com.datastax.driver.core.exceptions.NoHostAvailableException}
+   * or an {@link com.datastax.driver.core.exceptions.UnavailableException}
+   * are appended to segment files in the specified directory and reported as
+   * successful. Spooled mutations are replayed in the background once hosts
+   * become available again, including those left in the directory by a
+   * previous spool.
+   * <p>
+   * <i>Note:</i> Once the spool has reached its maximum size, failed mutations
+   * are reported with their original error.
+   *
+   * @author paouelle
+   *
+   * @param  directory the non-<code>null</code> directory where to store
+   *         segment files
+   * @param  segmentSize the size in bytes of each segment file
+   * @param  maxSize the maximum number of bytes to use for all segment files
+   * @return the non-<code>null</code> mutation spool
+   * @throws NullPointerException if <code>directory</code> is <code>null</code>
+   * @throws IllegalArgumentException if <code>segmentSize</code> or
+   *         <code>maxSize</code> are invalid
+   * @throws IOException if an I/O error occurs while opening existing segments
+   *         or if one is corrupted
+   */
+  public synchronized MutationSpoolImpl enableMutationSpool(
+    File directory, int segmentSize, long maxSize
+  ) throws IOException {
+    org.apache.commons.lang3.Validate.notNull(directory, "invalid null directory");
+    disableMutationSpool();
+    this.mutationSpool = new MutationSpoolImpl(this, directory, segmentSize, maxSize);
+    return mutationSpool;
+  }
+
+  /**
+   * Disables spooling mutations and closes the current spool. Mutations left
+   * to replay remain on disk and are replayed the next time the spool is
+   * enabled with the same directory.
+   *
+   * @author paouelle
+   */
+  public synchronized void disableMutationSpool() {
+    final MutationSpoolImpl spool = mutationSpool;
+
+    if (spool != null) {
+      this.mutationSpool = null;
+      spool.close();
+    }
+  }
+
+  /**
+   * Gets the persistent snapshot of class info metadata.
+   *
+   * @author paouelle
+   *
+   * @return the class info snapshot or <code>null</code> if disabled
+   */
+  public ClassInfoSnapshotImpl getClassInfoSnapshot() {
+    return classInfoSnapshot;
+  }
+
+  /**
+   * Enables a persistent snapshot of the metadata derived from POJO classes
+   * when building their class info structures. The snapshot is loaded from
+   * the specified file if it exists and is consulted before reflecting on
+   * POJO classes; metadata derived for classes that are not in the snapshot
+   * or whose bytecode has changed is recorded and saved back to the file
+   * when the snapshot is disabled or the manager is closed.
+   * <p>
+   * <i>Note:</i> This should be called at startup before any class info
+   * structures are built.
+   *
+   * @author paouelle
+   *
+   * @param  file the non-<code>null</code> snapshot file
+   * @return the non-<code>null</code> class info snapshot
+   * @throws NullPointerException if <code>file</code> is <code>null</code>
+   * @throws IOException if an I/O error occurs while loading the snapshot
+   */
+  public synchronized ClassInfoSnapshotImpl enableClassInfoSnapshot(File file)
+    throws IOException {
+    org.apache.commons.lang3.Validate.notNull(file, "invalid null file");
+    disableClassInfoSnapshot();
+    this.classInfoSnapshot = new ClassInfoSnapshotImpl(file);
+    return classInfoSnapshot;
+  }
+
+  /**
+   * Disables the persistent snapshot of class info metadata after saving it
+   * if it was modified, logging failures.
+   *
+   * @author paouelle
+   */
+  public synchronized void disableClassInfoSnapshot() {
+    final ClassInfoSnapshotImpl snapshot = classInfoSnapshot;
+
+    if (snapshot != null) {
+      this.classInfoSnapshot = null;
+      try {
+        snapshot.save();
+      } catch (IOException e) {
+        StatementManagerImpl.logger.warn(
+          "failed to save the class info snapshot: " + snapshot.getFile(), e
+        );
+      }
+    }
+  }
+
+  /**
+   * Gets all fields annotated as columns in the class hierarchy of a given
+   * POJO class in top-down hierarchy order. The class info snapshot is
+   * consulted first, followed by the compile-time entity index before
+   * reflecting on the class.
+   *
+   * @author paouelle
+   *
+   * @param  clazz the POJO class
+   * @return the non-<code>null</code> list of column fields
+   */
+  protected List<Field> getColumnFields(Class<?> clazz) {
+    final ClassInfoSnapshotImpl snapshot = classInfoSnapshot;
+    List<Field> fields = (snapshot != null) ? snapshot.getColumnFields(clazz) : null;
+
+    if (fields == null) {
+      fields = EntityIndex.get(clazz).getColumnFields(clazz);
+      if (fields == null) { // make sure to walk up the class hierarchy
+        fields = ReflectionUtils.getAllFieldsAnnotatedWith(clazz, Column.class, true);
+      }
+      if (snapshot != null) {
+        snapshot.recordColumnFields(clazz, fields);
+      }
+    }
+    return fields;
+  }
+
+  /**
+   * Gets all fields annotated as keyspace keys in the class hierarchy of a
+   * given POJO class in top-down hierarchy order. The class info snapshot is
+   * consulted first, followed by the compile-time entity index before
+   * reflecting on the class.
+   *
+   * @author paouelle
+   *
+   * @param  clazz the POJO class
+   * @return the non-<code>null</code> list of keyspace key fields
+   */
+  protected List<Field> getKeyspaceKeyFields(Class<?> clazz) {
+    final ClassInfoSnapshotImpl snapshot = classInfoSnapshot;
+    List<Field> fields = (snapshot != null) ? snapshot.getKeyspaceKeyFields(clazz) : null;
+
+    if (fields == null) {
+      fields = EntityIndex.get(clazz).getKeyspaceKeyFields(clazz);
+      if (fields == null) { // make sure to walk up the class hierarchy
+        fields = ReflectionUtils.getAllFieldsAnnotatedWith(clazz, KeyspaceKey.class, true);
+      }
+      if (snapshot != null) {
+        snapshot.recordKeyspaceKeyFields(clazz, fields);
+      }
+    }
+    return fields;
+  }
+
+  /**
+   * Infers the data type definition for a given column field. The class info
+   * snapshot is consulted first before inferring it from the field.
+   *
+   * @author paouelle
+   *
+   * @param  field the non-<code>null</code> column field
+   * @param  isFrozen <code>true</code> if the data type is frozen;
+   *         <code>false</code> otherwise
+   * @return a non-<code>null</code> data type definition
+   * @throws IllegalArgumentException if the data type cannot be inferred from
+   *         the field or it is persisted but the persister cannot be instantiate
+   */
+  protected DataTypeImpl.Definition inferDataTypeFrom(Field field, boolean isFrozen) {
+    final ClassInfoSnapshotImpl snapshot = classInfoSnapshot;
+    DataTypeImpl.Definition definition = (
+      (snapshot != null) ? snapshot.getDefinition(this, field, isFrozen) : null
+    );
+
+    if (definition == null) {
+      definition = DataTypeImpl.inferDataTypeFrom(this, field, isFrozen);
+      if (snapshot != null) {
+        snapshot.recordDefinition(field, isFrozen, definition);
+      }
+    }
+    return definition;
+  }
+
+  /**
+   * Closes the current audit journal if any, logging failures.
+   *
+   * @author paouelle
+   */
+  private void closeAuditJournal() {
+    try {
+      disableAuditJournal();
+    } catch (Exception e) {
+      StatementManagerImpl.logger.warn("failed to drain the audit journal", e);
+    }
+  }
+
+  /**
+   * Records a snapshot of all non primary key column values for the specified
+   * POJO context. Copies of non-frozen collection column values are also
+   * recorded such that updates can be reduced to the elements that changed.
+   *
+   * @author paouelle
+   *
+   * @param <T> the type of POJO to snapshot
+   *
+   * @param  context the non-<code>null</code> POJO context to snapshot
+   */
+  <T> void snapshot(ClassInfoImpl<T>.POJOContext context) {
+    final Map<String, Long> fps = new HashMap<>(32);
+    final Map<String, Object> colls = new HashMap<>(8);
+
+    for (final TableInfoImpl<T> table: context.getClassInfo().getTablesImpl()) {
+      try {
+        ColumnValuesImpl.forEach(
+          context.getNonPrimaryKeyColumnValues(table.getName()),
+          (name, v, type, codec) -> {
+            final Object value = (v instanceof Optional) ? ((Optional<?>)v).orElse(null) : v;
+            final Long fp = fingerprint(value, codec);
+
+            if (fp != null) {
+              fps.put(name, fp);
+              if ((type != null) && type.isCollection() && !type.isFrozen()) {
+                colls.put(name, copy(value, codec));
+              }
+            } // else - cannot be fingerprinted so it will always be considered changed
+          }
+        );
+      } catch (IllegalArgumentException e) { // missing mandatory columns
+        // ignore the table as its columns will always be considered changed
+      }
+    }
+    objectSnapshots.put(context.getObject(), new ObjectSnapshotImpl(fps, colls));
+  }
+
+  /**
+   * Gets the snapshot previously recorded for the specified POJO.
+   *
+   * @author paouelle
+   *
+   * @param  object the POJO for which to get the snapshot
+   * @return the corresponding snapshot or <code>null</code> if snapshots are
+   *         disabled or if none were recorded for the POJO
+   */
+  ObjectSnapshotImpl getSnapshot(Object object) {
+    if (!snapshots || (object == null)) {
+      return null;
+    }
+    return objectSnapshots.get(object);
+  }
+
+  /**
+   * Updates the snapshot previously recorded for the specified POJO with the
+   * columns from the specified snapshot.
+   *
+   * @author paouelle
+   *
+   * @param  object the non-<code>null</code> POJO for which to update the snapshot
+   * @param  snapshot the non-<code>null</code> snapshot of the columns to
+   *         update the POJO's snapshot with
+   */
+  void updateSnapshot(Object object, ObjectSnapshotImpl snapshot) {
+    if (!snapshots || snapshot.isEmpty()) {
+      return;
+    }
+    objectSnapshots.computeIfPresent(object, (o, old) -> old.merge(snapshot));
+  }
+
+  /**
+   * Creates a deep copy of the specified collection column value by
+   * round-tripping it through its codec such that elements later modified in
+   * place in the POJO do not affect the copy.
+   *
+   * @author paouelle
+   *
+   * @param  value the column value to copy
+   * @param  codec the codec for the value
+   * @return a deep copy of <code>value</code> or a shallow copy if it cannot
+   *         be serialized
+   */
+  @SuppressWarnings("unchecked")
+  Object copy(Object value, TypeCodec<?> codec) {
+    if ((value == null) || (codec == null)) {
+      return WriteBehindImpl.copy(value);
+    }
+    try {
+      final ProtocolVersion pversion = getProtocolVersion();
+
+      return ((TypeCodec<Object>)codec).deserialize(
+        ((TypeCodec<Object>)codec).serialize(value, pversion), pversion
+      );
+    } catch (Exception e) { // fallback to a shallow copy
+      return WriteBehindImpl.copy(value);
+    }
+  }
+
+  /**
+   * Computes a compact fingerprint for the specified column value based on
+   * its serialized form.
+   *
+   * @author paouelle
+   *
+   * @param  value the column value to fingerprint
+   * @param  codec the codec for the value
+   * @return the corresponding fingerprint or <code>null</code> if the value
+   *         cannot be fingerprinted
+   */
+  Long fingerprint(Object value, TypeCodec<?> codec) {
+    return StatementManagerImpl.fingerprint(value, codec, getProtocolVersion());
+  }
+
+  /**
+   * Computes a compact fingerprint for the specified column value based on
+   * its serialized form using the given protocol version.
+   *
+   * @author paouelle
+   *
+   * @param  value the column value to fingerprint
+   * @param  codec the codec for the value
+   * @param  pversion the non-<code>null</code> protocol version to serialize with
+   * @return the corresponding fingerprint or <code>null</code> if the value
+   *         cannot be fingerprinted
+   */
+  @SuppressWarnings("unchecked")
+  static Long fingerprint(
+    Object value, TypeCodec<?> codec, ProtocolVersion pversion
+  ) {
+    if (value instanceof Optional) {
+      value = ((Optional<?>)value).orElse(null);
+    }
+    if (value == null) {
+      return StatementManagerImpl.NULL_FINGERPRINT;
+    }
+    if ((codec == null) || Utils.containsBindMarker(value)) {
+      return null;
+    }
+    try {
+      final ByteBuffer bb = ((TypeCodec<Object>)codec).serialize(value, pversion);
+
+      if (bb == null) {
+        return StatementManagerImpl.NULL_FINGERPRINT;
+      }
+      return Hashing.murmur3_128().hashBytes(Bytes.getArray(bb)).asLong();
+    } catch (Exception e) { // cannot be serialized so cannot be fingerprinted
+      return null;
+    }
+  }
+
+  /**
+   * Gets a function to find all classes annotated with a given annotation in
+   * the specified packages or their sub-packages. The compile-time entity
+   * index is used when it covers all packages; otherwise the classpath is
+   * scanned once and the scan is shared by all searches done through the
+   * returned function.
+   *
+   * @author paouelle
+   *
+   * @param  pkgs the packages to search in
+   * @return a non-<code>null</code> function to find annotated classes
+   * @throws UncheckedIOException if an I/O error occurs while loading the
+   *         entity index
+   */
+  public static Function<Class<? extends Annotation>, Set<Class<?>>> findTypesAnnotatedWith(
+    String... pkgs
+  ) {
+    final EntityIndex index = EntityIndex.get(
+      Thread.currentThread().getContextClassLoader()
+    );
+
+    if (index.covers(pkgs)) {
+      return a -> index.getTypesAnnotatedWith(a, pkgs);
+    }
+    final Reflections reflections = new Reflections((Object[])pkgs);
+
+    return a -> reflections.getTypesAnnotatedWith(a, true);
+  }
+
   /**
    * Initiates a shutdown of this cluster instance.
    * <p>
@@ -2555,12 +3373,16 @@ public class StatementManagerImpl extends StatementManager {
    *         process
    */
   public CloseFuture closeAsync() {
+    closeAuditJournal();
+    disableMutationSpool();
+    disableClassInfoSnapshot();
     final CloseFuture future = cluster.closeAsync();
 
     future.addListener(new Runnable() { // wait for it to be done before shutting down the pool
       @SuppressWarnings("synthetic-access")
       @Override
       public void run() {
+        scheduledExecutor.shutdown();
         poolExecutor.shutdown();
       }
     }, directExecutor);
@@ -2577,7 +3399,11 @@ public class StatementManagerImpl extends StatementManager {
    * @author paouelle
    */
   public void close() {
+    closeAuditJournal();
+    disableMutationSpool();
+    disableClassInfoSnapshot();
     cluster.close();
+    scheduledExecutor.shutdown();
     poolExecutor.shutdown();
   }
 }
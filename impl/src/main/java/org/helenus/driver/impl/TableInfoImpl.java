@@ -18,16 +18,23 @@ package org.helenus.driver.impl;
 import java.lang.reflect.Field;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.Iterator;
 import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
+import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.builder.ReflectionToStringBuilder;
 import org.apache.commons.lang3.builder.ToStringStyle;
 import org.apache.commons.lang3.mutable.MutableObject;
@@ -36,7 +43,8 @@ import org.apache.commons.lang3.tuple.Triple;
 
 import com.datastax.driver.core.TypeCodec;
 
-import org.helenus.commons.lang3.reflect.ReflectionUtils;
+import org.helenus.commons.collections.iterators.CombinationIterator;
+import org.helenus.driver.codecs.ArgumentsCodec;
 import org.helenus.driver.info.ClassInfo;
 import org.helenus.driver.info.FieldInfo;
 import org.helenus.driver.info.TableInfo;
@@ -90,6 +98,62 @@ public class TableInfoImpl<T> implements TableInfo<T> {
    */
   private final ClassInfoImpl<T> cinfo;
 
+  /**
+   * Column group identifying all columns.
+   *
+   * @author paouelle
+   */
+  private final static int ALL_COLUMNS = 0;
+
+  /**
+   * Column group identifying partition key columns.
+   *
+   * @author paouelle
+   */
+  private final static int PARTITION_KEY_COLUMNS = 1;
+
+  /**
+   * Column group identifying keyspace keys and partition key columns.
+   *
+   * @author paouelle
+   */
+  private final static int KEYSPACE_AND_PARTITION_KEY_COLUMNS = 2;
+
+  /**
+   * Column group identifying primary key columns.
+   *
+   * @author paouelle
+   */
+  private final static int PRIMARY_KEY_COLUMNS = 3;
+
+  /**
+   * Column group identifying keyspace keys and primary key columns.
+   *
+   * @author paouelle
+   */
+  private final static int KEYSPACE_AND_PRIMARY_KEY_COLUMNS = 4;
+
+  /**
+   * Column group identifying mandatory and primary key columns.
+   *
+   * @author paouelle
+   */
+  private final static int MANDATORY_AND_PRIMARY_KEY_COLUMNS = 5;
+
+  /**
+   * Column group identifying non primary key columns.
+   *
+   * @author paouelle
+   */
+  private final static int NON_PRIMARY_KEY_COLUMNS = 6;
+
+  /**
+   * Holds the number of column groups.
+   *
+   * @author paouelle
+   */
+  private final static int NUM_COLUMN_GROUPS = 7;
+
   /**
    * Holds the table annotation.
    *
@@ -214,6 +278,15 @@ public class TableInfoImpl<T> implements TableInfo<T> {
   private final Map<String, FieldInfoImpl<T>> caseInsensitiveKeyColumns
     = new LinkedHashMap<>(4);
 
+  /**
+   * Holds the cached column value layouts keyed by keyspace and indexed by
+   * column groups (see {@link #ALL_COLUMNS} and friends).
+   *
+   * @author paouelle
+   */
+  private final Map<String, AtomicReferenceArray<ColumnValuesImpl.Layout<T>>> layouts
+    = new ConcurrentHashMap<>(4);
+
   /**
    * Flag indicating if at least one column is defined as a collection.
    *
@@ -264,7 +337,9 @@ public class TableInfoImpl<T> implements TableInfo<T> {
   }
 
   /**
-   * Finds and record all fields annotated as columns for this table.
+   * Finds and record all fields annotated as columns for this table. The
+   * class info snapshot is consulted first for the fields and primary key
+   * order of this table before considering all column fields of the POJO.
    *
    * @author paouelle
    *
@@ -273,13 +348,17 @@ public class TableInfoImpl<T> implements TableInfo<T> {
    *         method for the field of if improperly annotated
    */
   private void findColumnFields(StatementManagerImpl mgr) {
+    final ClassInfoSnapshotImpl snapshot = (name != null) ? mgr.getClassInfoSnapshot() : null;
+    final ClassInfoSnapshotImpl.TableLayout tlayout = (
+      (snapshot != null) ? snapshot.getTableLayout(clazz, name) : null
+    );
+    final List<Field> tfields = (tlayout != null) ? tlayout.getColumnFields(clazz) : null;
     // make sure to walk up the class hierarchy
+    final List<Field> cfields = (tfields != null) ? tfields : mgr.getColumnFields(clazz);
     FieldInfoImpl<T> lastPartitionKey = null;
     FieldInfoImpl<T> lastClusteringKey = null;
 
-    for (final Field f: ReflectionUtils.getAllFieldsAnnotatedWith(
-      clazz, Column.class, true
-    )) {
+    for (final Field f: cfields) {
       final Pair<String, Class<?>> pf = Pair.of(f.getName(), f.getDeclaringClass());
       FieldInfoImpl<T> field = fields.get(pf);
 
@@ -391,26 +470,44 @@ public class TableInfoImpl<T> implements TableInfo<T> {
         table.name()
       );
     }
+    final List<Field> recorded = (snapshot != null)
+      ? cfields.stream()
+        .filter(f -> fields.containsKey(Pair.of(f.getName(), f.getDeclaringClass())))
+        .collect(Collectors.toList())
+      : null;
+
     // filters out columns if need be
     mgr.filter(this);
     // finalize table keys
-    reorderPrimaryKeys();
+    if (tfields != null) {
+      reorderPrimaryKeys(tlayout.getPartitionKeys(), tlayout.getClusteringKeys());
+    } else if (table != null) {
+      reorderPrimaryKeys(Arrays.asList(table.partition()), Arrays.asList(table.clustering()));
+    }
     if (lastPartitionKey != null) {
       lastPartitionKey.setLast();
     }
     if (lastClusteringKey != null) {
       lastClusteringKey.setLast();
     }
+    if ((snapshot != null) && ((tfields == null) || !tlayout.matches(this))) {
+      snapshot.recordTableLayout(clazz, recorded, this);
+    }
   }
 
   /**
-   * Re-order primary keys based on @Table annotation specifications.
+   * Re-order primary keys based on @Table annotation specifications or on the
+   * order recorded in the class info snapshot.
    *
    * @author paouelle
+   *
+   * @param partitionKeys the partition key column names in order
+   * @param clusteringKeys the clustering key column names in order
    */
-  private void reorderPrimaryKeys() {
-    if ((table == null)
-        || ((table.partition().length == 0) && (table.clustering().length == 0))) {
+  private void reorderPrimaryKeys(
+    List<String> partitionKeys, List<String> clusteringKeys
+  ) {
+    if (partitionKeys.isEmpty() && clusteringKeys.isEmpty()) {
       return; // nothing to do so keep original order
     }
     // clone keys map so we can modify the original ones
@@ -421,7 +518,7 @@ public class TableInfoImpl<T> implements TableInfo<T> {
     partitionKeyColumns.clear();
     clusteringKeyColumns.clear();
     // start with partition keys specified in @Table
-    for (final String columnName: table.partition()) {
+    for (final String columnName: partitionKeys) {
       final FieldInfoImpl<T> field = partition.remove(columnName);
 
       org.apache.commons.lang3.Validate.isTrue(
@@ -438,7 +535,7 @@ public class TableInfoImpl<T> implements TableInfo<T> {
     primaryKeyColumns.putAll(partition);
     partitionKeyColumns.putAll(partition);
     // now deal with clustering keys specified in @Table
-    for (final String columnName: table.clustering()) {
+    for (final String columnName: clusteringKeys) {
       final FieldInfoImpl<T> field = clustering.remove(columnName);
 
       org.apache.commons.lang3.Validate.isTrue(
@@ -556,6 +653,7 @@ public class TableInfoImpl<T> implements TableInfo<T> {
       } else {
         nonPrimaryKeyColumns.put(col.getColumnName(), col);
       }
+      layouts.clear();
     }
     return col;
   }
@@ -652,6 +750,80 @@ public class TableInfoImpl<T> implements TableInfo<T> {
     } else {
       nonPrimaryKeyColumns.put(rcol.getColumnName(), rcol);
     }
+    layouts.clear();
+  }
+
+  /**
+   * Gets the column fields for the specified column group.
+   *
+   * @author paouelle
+   *
+   * @param  group the column group
+   * @return a non-<code>null</code> map of all column fields in the group keyed
+   *         by the column names
+   */
+  private Map<String, FieldInfoImpl<T>> getColumnGroup(int group) {
+    switch (group) {
+      case TableInfoImpl.ALL_COLUMNS:
+        return columns;
+      case TableInfoImpl.PARTITION_KEY_COLUMNS:
+        return partitionKeyColumns;
+      case TableInfoImpl.PRIMARY_KEY_COLUMNS:
+        return primaryKeyColumns;
+      case TableInfoImpl.MANDATORY_AND_PRIMARY_KEY_COLUMNS:
+        return mandatoryAndPrimaryKeyColumns;
+      case TableInfoImpl.NON_PRIMARY_KEY_COLUMNS:
+        return nonPrimaryKeyColumns;
+      case TableInfoImpl.KEYSPACE_AND_PARTITION_KEY_COLUMNS:
+      case TableInfoImpl.KEYSPACE_AND_PRIMARY_KEY_COLUMNS:
+      default:
+        final Map<String, FieldInfoImpl<T>> skeys = cinfo.getKeyspaceKeys();
+        final Map<String, FieldInfoImpl<T>> keys = new LinkedHashMap<>(
+          primaryKeyColumns.size() + skeys.size()
+        );
+
+        // start with keyspace keys
+        keys.putAll(skeys);
+        // now add partition or primary keys (overriding keyspace keys if names clashes!!!)
+        keys.putAll(
+          (group == TableInfoImpl.KEYSPACE_AND_PARTITION_KEY_COLUMNS)
+          ? partitionKeyColumns
+          : primaryKeyColumns
+        );
+        return keys;
+    }
+  }
+
+  /**
+   * Gets the column value layout for the specified column group and keyspace.
+   * Layouts are computed once and shared by all extracted column values until
+   * the columns of this table are modified.
+   *
+   * @author paouelle
+   *
+   * @param  group the column group
+   * @param  keyspace the keyspace for which to encode
+   * @return the non-<code>null</code> corresponding layout
+   */
+  private ColumnValuesImpl.Layout<T> getLayout(int group, String keyspace) {
+    final String ks = (keyspace != null) ? keyspace : "";
+    AtomicReferenceArray<ColumnValuesImpl.Layout<T>> ls = layouts.get(ks);
+
+    if (ls == null) {
+      ls = layouts.computeIfAbsent(
+        ks, k -> new AtomicReferenceArray<>(TableInfoImpl.NUM_COLUMN_GROUPS)
+      );
+    }
+    final ColumnValuesImpl.Layout<T> layout = ls.get(group);
+
+    if (layout != null) {
+      return layout;
+    }
+    final ColumnValuesImpl.Layout<T> nlayout
+      = new ColumnValuesImpl.Layout<>(keyspace, getColumnGroup(group));
+
+    // publish it safely; if another thread beat us to it then use theirs
+    return ls.compareAndSet(group, null, nlayout) ? nlayout : ls.get(group);
   }
 
   /**
@@ -667,13 +839,14 @@ public class TableInfoImpl<T> implements TableInfo<T> {
   Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> getColumnValues(
     String keyspace, T object
   ) {
-    final Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> values
-      = new LinkedHashMap<>(columns.size());
+    final ColumnValuesImpl.Layout<T> layout
+      = getLayout(TableInfoImpl.ALL_COLUMNS, keyspace);
+    final ColumnValuesImpl<T> cvalues = new ColumnValuesImpl<>(layout);
 
-    for (final Map.Entry<String, FieldInfoImpl<T>> e: columns.entrySet()) {
-      final String name = e.getKey();
-      final FieldInfoImpl<T> field = e.getValue();
-      final Object value = field.getValue(object);
+    for (int i = 0; i < layout.size(); i++) {
+      final String name = layout.names[i];
+      final FieldInfoImpl<T> field = layout.fields[i];
+      final Object value = cvalues.capture(i, object);
 
       if (value == null) {
         if (table != null) {
@@ -717,9 +890,8 @@ public class TableInfoImpl<T> implements TableInfo<T> {
           );
         }
       }
-      values.put(name, Triple.of(value, field.getDataType(), field.getCodec(keyspace)));
     }
-    return values;
+    return cvalues;
   }
 
   /**
@@ -739,13 +911,14 @@ public class TableInfoImpl<T> implements TableInfo<T> {
     if (table == null) {
       return Collections.emptyMap();
     }
-    final Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> values
-      = new LinkedHashMap<>(primaryKeyColumns.size());
+    final ColumnValuesImpl.Layout<T> layout
+      = getLayout(TableInfoImpl.PARTITION_KEY_COLUMNS, keyspace);
+    final ColumnValuesImpl<T> cvalues = new ColumnValuesImpl<>(layout);
 
-    for (final Map.Entry<String, FieldInfoImpl<T>> e: partitionKeyColumns.entrySet()) {
-      final String name = e.getKey();
-      final FieldInfoImpl<T> field = e.getValue();
-      final Object value = field.getValue(object);
+    for (int i = 0; i < layout.size(); i++) {
+      final String name = layout.names[i];
+      final FieldInfoImpl<T> field = layout.fields[i];
+      final Object value = cvalues.capture(i, object);
 
       org.apache.commons.lang3.Validate.isTrue(
         value != null,
@@ -754,9 +927,8 @@ public class TableInfoImpl<T> implements TableInfo<T> {
         table.name(),
         clazz.getSimpleName()
       );
-      values.put(name, Triple.of(value, field.getDataType(), field.getCodec(keyspace)));
     }
-    return values;
+    return cvalues;
   }
 
   /**
@@ -789,22 +961,14 @@ public class TableInfoImpl<T> implements TableInfo<T> {
     if (table == null) {
       return Collections.emptyMap();
     }
-    final Map<String, FieldInfoImpl<T>> skeys = cinfo.getKeyspaceKeys();
-    final Map<String, FieldInfoImpl<T>> keys = new LinkedHashMap<>(
-      primaryKeyColumns.size() + skeys.size()
-    );
+    final ColumnValuesImpl.Layout<T> layout
+      = getLayout(TableInfoImpl.KEYSPACE_AND_PARTITION_KEY_COLUMNS, keyspace);
+    final ColumnValuesImpl<T> cvalues = new ColumnValuesImpl<>(layout);
 
-    // start with keyspace keys
-    keys.putAll(skeys);
-    // now add partition keys (overriding keyspace keys if names clashes!!!)
-    keys.putAll(partitionKeyColumns);
-    final Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> values
-      = new LinkedHashMap<>(keys.size());
-
-    for (final Map.Entry<String, FieldInfoImpl<T>> e: keys.entrySet()) {
-      final String name = e.getKey();
-      final FieldInfoImpl<T> field = e.getValue();
-      final Object value = field.getValue(object);
+    for (int i = 0; i < layout.size(); i++) {
+      final String name = layout.names[i];
+      final FieldInfoImpl<T> field = layout.fields[i];
+      final Object value = cvalues.capture(i, object);
 
       org.apache.commons.lang3.Validate.isTrue(
         value != null,
@@ -813,9 +977,8 @@ public class TableInfoImpl<T> implements TableInfo<T> {
         table.name(),
         clazz.getSimpleName()
       );
-      values.put(name, Triple.of(value, field.getDataType(), field.getCodec(keyspace)));
     }
-    return values;
+    return cvalues;
   }
 
   /**
@@ -835,12 +998,14 @@ public class TableInfoImpl<T> implements TableInfo<T> {
     if (table == null) {
       return Collections.emptyMap();
     }
-    final Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> values = new LinkedHashMap<>(primaryKeyColumns.size());
+    final ColumnValuesImpl.Layout<T> layout
+      = getLayout(TableInfoImpl.PRIMARY_KEY_COLUMNS, keyspace);
+    final ColumnValuesImpl<T> cvalues = new ColumnValuesImpl<>(layout);
 
-    for (final Map.Entry<String, FieldInfoImpl<T>> e: primaryKeyColumns.entrySet()) {
-      final String name = e.getKey();
-      final FieldInfoImpl<T> field = e.getValue();
-      final Object value = field.getValue(object);
+    for (int i = 0; i < layout.size(); i++) {
+      final String name = layout.names[i];
+      final FieldInfoImpl<T> field = layout.fields[i];
+      final Object value = cvalues.capture(i, object);
 
       if (value == null) {
         if (field.isOptional()) {
@@ -864,9 +1029,8 @@ public class TableInfoImpl<T> implements TableInfo<T> {
           + "'"
         );
       }
-      values.put(name, Triple.of(value, field.getDataType(), field.getCodec(keyspace)));
     }
-    return values;
+    return cvalues;
   }
 
   /**
@@ -889,12 +1053,13 @@ public class TableInfoImpl<T> implements TableInfo<T> {
     if (table == null) {
       return Collections.emptyMap();
     }
-    final Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> values
-      = new LinkedHashMap<>(primaryKeyColumns.size());
+    final ColumnValuesImpl.Layout<T> layout
+      = getLayout(TableInfoImpl.PRIMARY_KEY_COLUMNS, keyspace);
+    final Object[] values = new Object[layout.size()];
 
-    for (final Map.Entry<String, FieldInfoImpl<T>> e: primaryKeyColumns.entrySet()) {
-      final String name = e.getKey();
-      final FieldInfoImpl<T> field = e.getValue();
+    for (int i = 0; i < values.length; i++) {
+      final String name = layout.names[i];
+      final FieldInfoImpl<T> field = layout.fields[i];
       Object value = pkeys_override.getOrDefault(name, this);
 
       if (value == this) { // special case to detect that no override was provided
@@ -922,9 +1087,9 @@ public class TableInfoImpl<T> implements TableInfo<T> {
           + "'"
         );
       }
-      values.put(name, Triple.of(value, field.getDataType(), field.getCodec(keyspace)));
+      values[i] = value;
     }
-    return values;
+    return new ColumnValuesImpl<>(layout, values);
   }
 
   /**
@@ -945,22 +1110,14 @@ public class TableInfoImpl<T> implements TableInfo<T> {
     if (table == null) {
       return Collections.emptyMap();
     }
-    final Map<String, FieldInfoImpl<T>> skeys = cinfo.getKeyspaceKeys();
-    final Map<String, FieldInfoImpl<T>> keys = new LinkedHashMap<>(
-      primaryKeyColumns.size() + skeys.size()
-    );
-
-    // start with keyspace keys
-    keys.putAll(skeys);
-    // now add primary keys (overriding keyspace keys if names clashes!!!)
-    keys.putAll(primaryKeyColumns);
-    final Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> values
-      = new LinkedHashMap<>(keys.size());
+    final ColumnValuesImpl.Layout<T> layout
+      = getLayout(TableInfoImpl.KEYSPACE_AND_PRIMARY_KEY_COLUMNS, keyspace);
+    final ColumnValuesImpl<T> cvalues = new ColumnValuesImpl<>(layout);
 
-    for (final Map.Entry<String, FieldInfoImpl<T>> e: keys.entrySet()) {
-      final String name = e.getKey();
-      final FieldInfoImpl<T> field = e.getValue();
-      final Object value = field.getValue(object);
+    for (int i = 0; i < layout.size(); i++) {
+      final String name = layout.names[i];
+      final FieldInfoImpl<T> field = layout.fields[i];
+      final Object value = cvalues.capture(i, object);
 
       org.apache.commons.lang3.Validate.isTrue(
         value != null,
@@ -969,9 +1126,8 @@ public class TableInfoImpl<T> implements TableInfo<T> {
         table.name(),
         clazz.getSimpleName()
       );
-      values.put(name, Triple.of(value, field.getDataType(), field.getCodec(keyspace)));
     }
-    return values;
+    return cvalues;
   }
 
   /**
@@ -989,13 +1145,14 @@ public class TableInfoImpl<T> implements TableInfo<T> {
   Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> getMandatoryAndPrimaryKeyColumnValues(
     String keyspace, T object
   ) {
-    final Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> values
-      = new LinkedHashMap<>(mandatoryAndPrimaryKeyColumns.size());
+    final ColumnValuesImpl.Layout<T> layout
+      = getLayout(TableInfoImpl.MANDATORY_AND_PRIMARY_KEY_COLUMNS, keyspace);
+    final ColumnValuesImpl<T> cvalues = new ColumnValuesImpl<>(layout);
 
-    for (final Map.Entry<String, FieldInfoImpl<T>> e: mandatoryAndPrimaryKeyColumns.entrySet()) {
-      final String name = e.getKey();
-      final FieldInfoImpl<T> field = e.getValue();
-      final Object value = field.getValue(object);
+    for (int i = 0; i < layout.size(); i++) {
+      final String name = layout.names[i];
+      final FieldInfoImpl<T> field = layout.fields[i];
+      final Object value = cvalues.capture(i, object);
 
       if (value == null) {
         if (table != null) {
@@ -1039,9 +1196,8 @@ public class TableInfoImpl<T> implements TableInfo<T> {
           );
         }
       }
-      values.put(name, Triple.of(value, field.getDataType(), field.getCodec(keyspace)));
     }
-    return values;
+    return cvalues;
   }
 
   /**
@@ -1059,13 +1215,14 @@ public class TableInfoImpl<T> implements TableInfo<T> {
   Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> getNonPrimaryKeyColumnValues(
     String keyspace, T object
   ) {
-    final Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> values
-      = new LinkedHashMap<>(nonPrimaryKeyColumns.size());
+    final ColumnValuesImpl.Layout<T> layout
+      = getLayout(TableInfoImpl.NON_PRIMARY_KEY_COLUMNS, keyspace);
+    final ColumnValuesImpl<T> cvalues = new ColumnValuesImpl<>(layout);
 
-    for (final Map.Entry<String, FieldInfoImpl<T>> e: nonPrimaryKeyColumns.entrySet()) {
-      final String name = e.getKey();
-      final FieldInfoImpl<T> field = e.getValue();
-      final Object value = field.getValue(object);
+    for (int i = 0; i < layout.size(); i++) {
+      final String name = layout.names[i];
+      final FieldInfoImpl<T> field = layout.fields[i];
+      final Object value = cvalues.capture(i, object);
 
       if (table != null) {
         org.apache.commons.lang3.Validate.isTrue(
@@ -1082,9 +1239,8 @@ public class TableInfoImpl<T> implements TableInfo<T> {
           name, clazz.getSimpleName()
         );
       }
-      values.put(name, Triple.of(value, field.getDataType(), field.getCodec(keyspace)));
     }
-    return values;
+    return cvalues;
   }
 
   /**
@@ -1238,6 +1394,112 @@ public class TableInfoImpl<T> implements TableInfo<T> {
     return values;
   }
 
+  /**
+   * Expands the specified columns and their values into all rows that must be
+   * written to this table. Case insensitive keys get an additional lower case
+   * column and multi-keys generate a separate row for each combination of
+   * their values.
+   * <p>
+   * <i>Note:</i> The map of columns is updated in place and passed to the
+   * consumer for each row; it should be copied if it needs to be retained.
+   *
+   * @author paouelle
+   *
+   * @param keyspace the keyspace for which to encode
+   * @param columns the non-<code>null</code> columns and values to expand
+   * @param consumer the consumer to call for each row to be written
+   */
+  @SuppressWarnings("unchecked")
+  void forEachRowColumnValues(
+    String keyspace,
+    Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> columns,
+    Consumer<Map<String, Triple<Object, CQLDataType, TypeCodec<?>>>> consumer
+  ) {
+    // check if the table has multi-keys in which case we need to iterate all
+    // possible combinations/values for all keys and generate separate rows
+    // also check if we have case insensitive keys as we need to convert values
+    // to lower case and change the column name being queried
+    final Collection<FieldInfoImpl<T>> multiKeys = getMultiKeys();
+    final Collection<FieldInfoImpl<T>> caseInsensitiveKeys = getCaseInsensitiveKeys();
+
+    // if we have case insensitive keys then we need to process those first
+    // and then address the multi keys combinations
+    if (!caseInsensitiveKeys.isEmpty()) {
+      for (final FieldInfoImpl<T> finfo: caseInsensitiveKeys) {
+        if (finfo.isMultiKey()) { // will be handled separately after this
+          continue;
+        }
+        // we need to leave the original column there as is
+        final String name = finfo.getColumnName();
+        final Object v = ColumnValuesImpl.valueOf(columns, name, ColumnValuesImpl.ABSENT);
+
+        if (v != ColumnValuesImpl.ABSENT) {
+          final Triple<Object, CQLDataType, TypeCodec<?>> pset
+            = (columns instanceof ColumnValuesImpl) ? null : columns.get(name);
+
+          ColumnValuesImpl.putValue(
+            columns,
+            StatementImpl.CI_PREFIX + name,
+            (v != null) ? StringUtils.lowerCase(v.toString()) : null,
+            (pset != null) ? pset.getMiddle() : finfo.getDataType(),
+            (pset != null) ? pset.getRight() : finfo.getCodec(keyspace)
+          );
+        }
+      }
+    }
+    if (!multiKeys.isEmpty()) {
+      // prepare sets of values for all multi-keys
+      final Collection<Object>[] sets = new Collection[multiKeys.size()];
+      int j = -1;
+
+      for (final FieldInfoImpl<T> finfo: multiKeys) {
+        final Object pset = ColumnValuesImpl.valueOf(
+          columns, finfo.getColumnName(), ColumnValuesImpl.ABSENT
+        );
+
+        if (pset != ColumnValuesImpl.ABSENT) {
+          final boolean ci = finfo.isCaseInsensitiveKey();
+
+          if (ci) {
+            sets[++j] = ((Collection<Object>)pset).stream()
+              .map(v -> (v != null) ? StringUtils.lowerCase(v.toString()) : null)
+              .collect(Collectors.toCollection(LinkedHashSet::new));
+          } else {
+            sets[++j] = (Collection<Object>)pset;
+          }
+        } else {
+          sets[++j] = null;
+        }
+      }
+      // resolve the multi-key column names, types, and codecs only once
+      final String[] names = new String[sets.length];
+      final CQLDataType[] definitions = new CQLDataType[sets.length];
+      final TypeCodec<?>[] codecs = new TypeCodec<?>[sets.length];
+
+      j = -1;
+      for (final FieldInfoImpl<T> finfo: multiKeys) {
+        names[++j] = StatementImpl.MK_PREFIX + finfo.getColumnName();
+        definitions[j] = finfo.getDataType().getElementType();
+        codecs[j] = ((ArgumentsCodec<?>)finfo.getCodec(keyspace)).codec(0);
+      }
+      // now iterate all combination of these sets
+      for (final Iterator<List<Object>> i = new CombinationIterator<>(Object.class, sets); i.hasNext(); ) {
+        final List<Object> ckeys = i.next();
+
+        // add all multi-key column values from this combination to the column map
+        for (j = 0; j < names.length; j++) {
+          ColumnValuesImpl.putValue(
+            columns, names[j], ckeys.get(j), definitions[j], codecs[j]
+          );
+        }
+        // finally report the row for this combination
+        consumer.accept(columns);
+      }
+    } else { // only one row to generate!
+      consumer.accept(columns);
+    }
+  }
+
   /**
    * Gets the set of column fields for the POJO in this table.
    *
@@ -1685,6 +1947,7 @@ public class TableInfoImpl<T> implements TableInfo<T> {
         mandatoryAndPrimaryKeyColumns.remove(cname);
         nonPrimaryKeyColumns.remove(cname);
         fields.remove(Pair.of(current.getName(), current.getDeclaringClass()));
+        layouts.clear();
         this.current = null; // clear the current pointer since it was removed!
       }
     };
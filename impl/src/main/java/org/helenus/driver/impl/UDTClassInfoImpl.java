@@ -29,10 +29,13 @@ import java.util.SortedSet;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Stream;
 
+import java.nio.ByteBuffer;
+
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.tuple.Triple;
 
 import com.datastax.driver.core.KeyspaceMetadata;
+import com.datastax.driver.core.ProtocolVersion;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.TypeCodec;
 import com.datastax.driver.core.UDTValue;
@@ -559,7 +562,7 @@ public abstract class UDTClassInfoImpl<T>
       if (old == null) {
         // check if we can find the real definition for the keyspace as long as the session is opened
         if (mgr.getSession() != null) {
-          final KeyspaceMetadata km = mgr.getCluster().getMetadata().getKeyspace(keyspace);
+          final KeyspaceMetadata km = mgr.getKeyspaceMetadata(keyspace);
 
           if (km != null) {
             final UserType definition = km.getUserType(name);
@@ -885,20 +888,8 @@ public abstract class UDTClassInfoImpl<T>
    */
   public T newObject() {
     try {
-      // create an empty shell for the pojo
-      final T object = constructor.newInstance();
-
-      // start by setting back all final fields' values
-      finalFields.forEach(
-        (field, value) -> {
-          try {
-            // set it in field directly
-            field.set(object, value);
-          } catch (IllegalAccessException e) { // should not happen
-            throw new IllegalStateException(e);
-          }
-        }
-      );
+      // create an empty shell for the pojo with all final fields' values set back
+      final T object = newBlankObject();
       return object;
     } catch (IllegalAccessException|InstantiationException e) {
       throw new IllegalStateException(clazz.getName(), e);
@@ -932,20 +923,8 @@ public abstract class UDTClassInfoImpl<T>
       return null;
     }
     try {
-      // create an empty shell for the pojo
-      final T object = constructor.newInstance();
-
-      // start by setting back all final fields' values
-      finalFields.forEach(
-        (field, value) -> {
-          try {
-            // set it in field directly
-            field.set(object, value);
-          } catch (IllegalAccessException e) { // should not happen
-            throw new IllegalStateException(e);
-          }
-        }
-      );
+      // create an empty shell for the pojo with all final fields' values set back
+      final T object = newBlankObject();
       // now take care of the columns
       decodeAndSetColumnFields(object, uval);
       return object;
@@ -969,6 +948,60 @@ public abstract class UDTClassInfoImpl<T>
     }
   }
 
+  /**
+   * Converts the specified serialized UDT field values directly into a POJO
+   * object defined by this class information without going through an
+   * intermediate {@link UDTValue}.
+   *
+   * @author paouelle
+   *
+   * @param  fields the column fields corresponding to each UDT field (entries
+   *         are <code>null</code> for UDT fields not defined by the POJO)
+   * @param  codecs the codecs to use to decode each UDT field
+   * @param  values the serialized values for each UDT field (entries are
+   *         <code>null</code> for <code>null</code> values)
+   * @param  protocolVersion the protocol version to use
+   * @return the POJO object corresponding to the given values
+   * @throws ObjectConversionException if unable to convert to a POJO
+   */
+  T getObject(
+    FieldInfoImpl<T>[] fields,
+    TypeCodec<?>[] codecs,
+    ByteBuffer[] values,
+    ProtocolVersion protocolVersion
+  ) {
+    try {
+      // create an empty shell for the pojo with all final fields' values set back
+      final T object = newBlankObject();
+
+      // now take care of the columns
+      for (int i = 0; i < fields.length; i++) {
+        final FieldInfoImpl<T> field = fields[i];
+
+        if (field != null) {
+          field.decodeAndSetValue(object, codecs[i], values[i], protocolVersion);
+        }
+      }
+      return object;
+    } catch (IllegalAccessException|InstantiationException e) {
+      throw new IllegalStateException(clazz.getName(), e);
+    } catch (InvocationTargetException e) {
+      final Throwable t = e.getTargetException();
+
+      if (t instanceof Error) {
+        throw (Error)t;
+      } else if (t instanceof RuntimeException) {
+        throw (RuntimeException)t;
+      } else {
+        throw new ObjectConversionException(
+          clazz,
+          "failed to instantiate blank POJO",
+          t
+        );
+      }
+    }
+  }
+
   /**
    * Converts the specified parsed values into a POJO object defined by this
    * class information.
@@ -985,20 +1018,8 @@ public abstract class UDTClassInfoImpl<T>
       return null;
     }
     try {
-      // create an empty shell for the pojo
-      final T object = constructor.newInstance();
-
-      // start by setting back all final fields' values
-      finalFields.forEach(
-        (field, value) -> {
-          try {
-            // set it in field directly
-            field.set(object, value);
-          } catch (IllegalAccessException e) { // should not happen
-            throw new IllegalStateException(e);
-          }
-        }
-      );
+      // create an empty shell for the pojo with all final fields' values set back
+      final T object = newBlankObject();
       // now take care of the columns
       decodeAndSetColumnFields(object, keyspace, values);
       return object;
@@ -15,8 +15,10 @@
  */
 package org.helenus.driver.impl;
 
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.UUID;
 
 import java.nio.ByteBuffer;
 
@@ -47,6 +49,160 @@ import org.helenus.driver.ObjectConversionException;
  * @since 3.0
  */
 public class UDTCodecImpl<T> extends TypeCodec<T> {
+  /**
+   * Holds the size marker for fields which must be serialized with their
+   * codecs.
+   *
+   * @author paouelle
+   */
+  final static int GENERIC = -1;
+
+  /**
+   * Holds the size marker for text fields which can be encoded directly in
+   * UTF-8.
+   *
+   * @author paouelle
+   */
+  final static int UTF8 = -2;
+
+  /**
+   * Gets the serialized size for values encoded with the specified codec when
+   * it is one of the driver's fixed-size codecs.
+   *
+   * @author paouelle
+   *
+   * @param  codec the codec to get the serialized size for
+   * @return the fixed number of bytes produced by the codec, {@link #UTF8}
+   *         for the driver's varchar codec, or {@link #GENERIC} if the values
+   *         must be serialized with the codec
+   */
+  static int sizeOf(TypeCodec<?> codec) {
+    if ((codec == TypeCodec.cint()) || (codec == TypeCodec.cfloat())) {
+      return 4;
+    } else if ((codec == TypeCodec.bigint())
+               || (codec == TypeCodec.counter())
+               || (codec == TypeCodec.time())
+               || (codec == TypeCodec.cdouble())
+               || (codec == TypeCodec.timestamp())) {
+      return 8;
+    } else if (codec == TypeCodec.smallInt()) {
+      return 2;
+    } else if ((codec == TypeCodec.cboolean()) || (codec == TypeCodec.tinyInt())) {
+      return 1;
+    } else if ((codec == TypeCodec.uuid()) || (codec == TypeCodec.timeUUID())) {
+      return 16;
+    } else if (codec == TypeCodec.varchar()) {
+      return UDTCodecImpl.UTF8;
+    }
+    return UDTCodecImpl.GENERIC;
+  }
+
+  /**
+   * Computes the number of bytes required to encode the specified string in
+   * UTF-8 the same way {@link String#getBytes(java.nio.charset.Charset)} does.
+   *
+   * @author paouelle
+   *
+   * @param  s the string to encode
+   * @return the corresponding number of bytes
+   */
+  static int utf8Length(String s) {
+    final int len = s.length();
+    int n = 0;
+
+    for (int i = 0; i < len; i++) {
+      final char c = s.charAt(i);
+
+      if (c < 0x80) {
+        n++;
+      } else if (c < 0x800) {
+        n += 2;
+      } else if (Character.isHighSurrogate(c)
+                 && (i + 1 < len)
+                 && Character.isLowSurrogate(s.charAt(i + 1))) {
+        n += 4;
+        i++;
+      } else if (Character.isSurrogate(c)) { // malformed; replaced with '?'
+        n++;
+      } else {
+        n += 3;
+      }
+    }
+    return n;
+  }
+
+  /**
+   * Encodes the specified string in UTF-8 directly in the given buffer the
+   * same way {@link String#getBytes(java.nio.charset.Charset)} does.
+   *
+   * @author paouelle
+   *
+   * @param s the string to encode
+   * @param out the buffer where to write the encoded string
+   */
+  static void writeUTF8(String s, ByteBuffer out) {
+    final int len = s.length();
+
+    for (int i = 0; i < len; i++) {
+      final char c = s.charAt(i);
+
+      if (c < 0x80) {
+        out.put((byte)c);
+      } else if (c < 0x800) {
+        out.put((byte)(0xc0 | (c >> 6)));
+        out.put((byte)(0x80 | (c & 0x3f)));
+      } else if (Character.isHighSurrogate(c)
+                 && (i + 1 < len)
+                 && Character.isLowSurrogate(s.charAt(i + 1))) {
+        final int cp = Character.toCodePoint(c, s.charAt(++i));
+
+        out.put((byte)(0xf0 | (cp >> 18)));
+        out.put((byte)(0x80 | ((cp >> 12) & 0x3f)));
+        out.put((byte)(0x80 | ((cp >> 6) & 0x3f)));
+        out.put((byte)(0x80 | (cp & 0x3f)));
+      } else if (Character.isSurrogate(c)) { // malformed; replaced with '?'
+        out.put((byte)'?');
+      } else {
+        out.put((byte)(0xe0 | (c >> 12)));
+        out.put((byte)(0x80 | ((c >> 6) & 0x3f)));
+        out.put((byte)(0x80 | (c & 0x3f)));
+      }
+    }
+  }
+
+  /**
+   * Writes the specified value accepted by one of the driver's fixed-size
+   * codecs directly in the given buffer the same way the codec would have
+   * serialized it.
+   *
+   * @author paouelle
+   *
+   * @param v the non-<code>null</code> value to write
+   * @param out the buffer where to write the value
+   */
+  static void writeFixed(Object v, ByteBuffer out) {
+    if (v instanceof Integer) {
+      out.putInt((Integer)v);
+    } else if (v instanceof Long) {
+      out.putLong((Long)v);
+    } else if (v instanceof Double) {
+      out.putDouble((Double)v);
+    } else if (v instanceof Float) {
+      out.putFloat((Float)v);
+    } else if (v instanceof Boolean) {
+      out.put((byte)(((Boolean)v) ? 1 : 0));
+    } else if (v instanceof Short) {
+      out.putShort((Short)v);
+    } else if (v instanceof Byte) {
+      out.put((Byte)v);
+    } else if (v instanceof UUID) {
+      out.putLong(((UUID)v).getMostSignificantBits());
+      out.putLong(((UUID)v).getLeastSignificantBits());
+    } else {
+      out.putLong(((Date)v).getTime());
+    }
+  }
+
   /**
    * Holds the class info for the udt.
    *
@@ -75,6 +231,14 @@ public class UDTCodecImpl<T> extends TypeCodec<T> {
    */
   private volatile boolean registered;
 
+  /**
+   * Holds the precomputed column fields and codecs for the fields of the
+   * registered definition or <code>null</code> if not computed yet.
+   *
+   * @author paouelle
+   */
+  private volatile Layout<T> layout = null;
+
   /**
    * Instantiates a new default <code>UDTCodecImpl</code> object.
    *
@@ -111,42 +275,45 @@ public class UDTCodecImpl<T> extends TypeCodec<T> {
   }
 
   /**
-   * Gets a {@link UDTValue} corresponding to the given object based on the
-   * user defined type for this codec.
+   * Gets the precomputed column fields and codecs for the fields of the
+   * registered definition.
    *
    * @author paouelle
    *
-   * @param  object the pojo object from which to create a user-defined value
-   * @return the {@link UDTValue} corresponding to the specified pojo
-   * @throws IllegalArgumentException if the combination of fields and data types
-   *         is not supported
+   * @return the non-<code>null</code> layout for the registered definition
    */
-  @SuppressWarnings("unchecked")
-  private UDTValue getUDTValue(T object) {
-    if (object == null) {
-      return null;
-    }
-    // get the table for this UDT
-    final TableInfoImpl<T> table = cinfo.getTableImpl();
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  private Layout<T> getLayout() {
+    final TypeCodec<UDTValue> icodec = this.icodec;
+    Layout<T> layout = this.layout;
 
-    if (table == null) {
-      return null;
-    }
-    final UDTValue uval = getUserType().newValue();
-    int i = -1;
-
-    for (final UserType.Field coldef: uval.getType()) {
-      i++;
-      // find the field in the table for this column
-      final String cname = coldef.getName();
-      final FieldInfoImpl<T> field = table.getColumnImpl(cname);
-
-      if (field != null) {
-        // now let's set the value for this column
-        uval.set(i, field.getValue(object), (TypeCodec<Object>)field.getCodec(keyspace));
+    if ((layout == null) || (layout.icodec != icodec)) { // (re)compute it
+      final UserType definition = (UserType)icodec.getCqlType();
+      final TableInfoImpl<T> table = cinfo.getTableImpl();
+      final FieldInfoImpl<T>[] fields = new FieldInfoImpl[definition.size()];
+      final TypeCodec<Object>[] codecs = new TypeCodec[fields.length];
+      int i = -1;
+
+      for (final UserType.Field coldef: definition) {
+        i++;
+        final FieldInfoImpl<T> field = (
+          (table != null) ? table.getColumnImpl(coldef.getName()) : null
+        );
+
+        if (field != null) {
+          fields[i] = field;
+          codecs[i] = (TypeCodec<Object>)field.getCodec(keyspace);
+        }
+      }
+      final int[] sizes = new int[fields.length];
+
+      for (int j = 0; j < sizes.length; j++) {
+        sizes[j] = UDTCodecImpl.sizeOf(codecs[j]);
       }
+      layout = new Layout<>(icodec, fields, codecs, sizes);
+      this.layout = layout;
     }
-    return uval;
+    return layout;
   }
 
   /**
@@ -418,6 +585,34 @@ public class UDTCodecImpl<T> extends TypeCodec<T> {
   @Override
   public ByteBuffer serialize(T value, ProtocolVersion protocolVersion)
     throws InvalidTypeException {
+    final Layout<T> layout = getSerializationLayout();
+
+    if ((value == null) || (layout == null)) {
+      return null;
+    }
+    // size all fields first and then write them straight into a single
+    // pre-sized buffer instead of going through a UDTValue
+    final Object[] values = new Object[layout.fields.length];
+    final ByteBuffer bytes = ByteBuffer.allocate(
+      prepare(layout, value, values, protocolVersion)
+    );
+
+    write(layout, value, values, bytes);
+    bytes.flip();
+    return bytes;
+  }
+
+  /**
+   * Gets the layout to use when serializing POJOs with this codec.
+   *
+   * @author paouelle
+   *
+   * @return the layout to use or <code>null</code> if the POJO doesn't define
+   *         any columns in which case POJOs are serialized as <code>null</code>
+   * @throws InvalidTypeException if no cluster-defined definition was
+   *         registered
+   */
+  Layout<T> getSerializationLayout() throws InvalidTypeException {
     if (!registered) {
       throw new InvalidTypeException(
         "failed to serialize '"
@@ -427,7 +622,113 @@ public class UDTCodecImpl<T> extends TypeCodec<T> {
         + "'; no cluster-defined definition registered"
       );
     }
-    return icodec.serialize(getUDTValue(value), protocolVersion);
+    return (cinfo.getTableImpl() != null) ? getLayout() : null;
+  }
+
+  /**
+   * Prepares the serialization of the specified POJO by retrieving each of
+   * its field values once and computing the total serialized size. Values
+   * with a fixed size or strings are kept as is so they can later be written
+   * directly to the output buffer, primitive fields are represented by their
+   * accessor so they can be written without being boxed, and all others are
+   * serialized with their codec.
+   *
+   * @author paouelle
+   *
+   * @param  layout the layout to serialize with
+   * @param  value the non-<code>null</code> POJO to serialize
+   * @param  values an array sized for the layout where to keep the prepared
+   *         field values
+   * @param  protocolVersion the protocol version to use
+   * @return the number of bytes required to serialize the POJO
+   * @throws InvalidTypeException if unable to serialize a field
+   */
+  int prepare(
+    Layout<T> layout, T value, Object[] values, ProtocolVersion protocolVersion
+  ) {
+    int size = 0;
+
+    for (int i = 0; i < values.length; i++) {
+      final FieldInfoImpl<T> field = layout.fields[i];
+
+      size += 4;
+      if (field == null) {
+        values[i] = null;
+        continue;
+      }
+      final TypeCodec<Object> codec = layout.codecs[i];
+      final int fsize = layout.sizes[i];
+
+      if (fsize > 0) {
+        final FieldInfoImpl.PrimitiveAccessor accessor = field.getPrimitiveAccessor(
+          value, codec
+        );
+
+        if (accessor != null) {
+          values[i] = accessor;
+          size += fsize;
+          continue;
+        }
+      }
+      final Object v = field.getValue(value);
+
+      if (v == null) {
+        values[i] = null;
+      } else if ((fsize > 0) && codec.accepts(v)) {
+        values[i] = v;
+        size += fsize;
+      } else if ((fsize == UDTCodecImpl.UTF8) && (v instanceof String)) {
+        values[i] = v;
+        size += UDTCodecImpl.utf8Length((String)v);
+      } else {
+        final ByteBuffer bb = codec.serialize(v, protocolVersion);
+
+        values[i] = bb;
+        if (bb != null) {
+          size += bb.remaining();
+        }
+      }
+    }
+    return size;
+  }
+
+  /**
+   * Writes the field values prepared for the specified POJO directly to the
+   * given buffer.
+   *
+   * @author paouelle
+   *
+   * @param  layout the layout the values were prepared with
+   * @param  value the POJO the values were prepared for
+   * @param  values the prepared field values
+   * @param  out the buffer where to write the serialized POJO
+   * @throws java.nio.BufferOverflowException if the buffer is too small
+   */
+  void write(Layout<T> layout, T value, Object[] values, ByteBuffer out) {
+    for (int i = 0; i < values.length; i++) {
+      final Object v = values[i];
+
+      if (v == null) {
+        out.putInt(-1);
+      } else if (v instanceof ByteBuffer) {
+        final ByteBuffer bb = (ByteBuffer)v;
+
+        out.putInt(bb.remaining());
+        out.put(bb.duplicate());
+      } else if (v instanceof FieldInfoImpl.PrimitiveAccessor) {
+        out.putInt(layout.sizes[i]);
+        ((FieldInfoImpl.PrimitiveAccessor)v).write(value, out);
+      } else if (v instanceof String) {
+        final int pos = out.position();
+
+        out.position(pos + 4); // length is patched once encoded
+        UDTCodecImpl.writeUTF8((String)v, out);
+        out.putInt(pos, out.position() - pos - 4);
+      } else {
+        out.putInt(layout.sizes[i]);
+        UDTCodecImpl.writeFixed(v, out);
+      }
+    }
   }
 
   /**
@@ -450,7 +751,39 @@ public class UDTCodecImpl<T> extends TypeCodec<T> {
       );
     }
     try {
-      return cinfo.getObject(icodec.deserialize(bytes, protocolVersion));
+      if (bytes == null) {
+        return null;
+      } else if (cinfo instanceof UDTRootClassInfoImpl) {
+        // the POJO type must first be extracted from the type key column
+        return cinfo.getObject(icodec.deserialize(bytes, protocolVersion));
+      }
+      // slice each field from the input and decode it directly into the POJO
+      final Layout<T> layout = getLayout();
+      final ByteBuffer input = bytes.duplicate();
+      final ByteBuffer[] values = new ByteBuffer[layout.fields.length];
+
+      for (int i = 0; (i < values.length) && input.hasRemaining(); i++) {
+        final int n = input.getInt();
+
+        if (n >= 0) {
+          if (n > input.remaining()) {
+            throw new InvalidTypeException(
+              "failed to deserialize '"
+              + keyspace
+              + "."
+              + cinfo.getName()
+              + "'; not enough bytes to read field "
+              + i
+            );
+          }
+          final ByteBuffer bb = input.slice();
+
+          bb.limit(n);
+          input.position(input.position() + n);
+          values[i] = bb;
+        }
+      }
+      return cinfo.getObject(layout.fields, layout.codecs, values, protocolVersion);
     } catch (ObjectConversionException e) {
       throw new InvalidTypeException(
         "failed to deserialize '"
@@ -462,4 +795,83 @@ public class UDTCodecImpl<T> extends TypeCodec<T> {
       );
     }
   }
+
+  /**
+   * The <code>Layout</code> class keeps track of the column fields, codecs,
+   * and serialized sizes corresponding to each field of a registered user
+   * type definition.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 18, 2017 - paouelle - Creation
+   *
+   * @param <T> The type of POJO represented by the codec
+   *
+   * @since 3.0
+   */
+  static class Layout<T> {
+    /**
+     * Holds the internal codec this layout was computed for.
+     *
+     * @author paouelle
+     */
+    private final TypeCodec<UDTValue> icodec;
+
+    /**
+     * Holds the column fields for each field of the definition (entries are
+     * <code>null</code> for fields not defined by the POJO).
+     *
+     * @author paouelle
+     */
+    private final FieldInfoImpl<T>[] fields;
+
+    /**
+     * Holds the codecs for each field of the definition.
+     *
+     * @author paouelle
+     */
+    private final TypeCodec<Object>[] codecs;
+
+    /**
+     * Holds the fixed serialized sizes for each field of the definition or
+     * one of the size markers if the values are not of a fixed size.
+     *
+     * @author paouelle
+     */
+    private final int[] sizes;
+
+    /**
+     * Instantiates a new <code>Layout</code> object.
+     *
+     * @author paouelle
+     *
+     * @param icodec the internal codec this layout was computed for
+     * @param fields the column fields for each field of the definition
+     * @param codecs the codecs for each field of the definition
+     * @param sizes the fixed serialized sizes for each field of the definition
+     */
+    Layout(
+      TypeCodec<UDTValue> icodec,
+      FieldInfoImpl<T>[] fields,
+      TypeCodec<Object>[] codecs,
+      int[] sizes
+    ) {
+      this.icodec = icodec;
+      this.fields = fields;
+      this.codecs = codecs;
+      this.sizes = sizes;
+    }
+
+    /**
+     * Gets the number of fields in the definition.
+     *
+     * @author paouelle
+     *
+     * @return the number of fields in the definition
+     */
+    int getFieldCount() {
+      return fields.length;
+    }
+  }
 }
@@ -23,6 +23,7 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -242,9 +243,10 @@ public class UDTRootClassInfoImpl<T>
       Modifier.isAbstract(clazz.getModifiers()),
       "UDT root entity class '%s', must be abstract", clazz.getSimpleName()
     );
-    this.ctypes = findTypeInfos(mgr);
+    // concurrent maps as types not listed in the annotation can be added later
+    this.ctypes = new ConcurrentHashMap<>(findTypeInfos(mgr));
     this.ntypes = ctypes.values().stream()
-      .collect(Collectors.toMap(tcinfo -> tcinfo.getType(), tcinfo -> tcinfo));
+      .collect(Collectors.toConcurrentMap(tcinfo -> tcinfo.getType(), tcinfo -> tcinfo));
     validateAndComplementSchema();
   }
 
@@ -366,6 +368,31 @@ public class UDTRootClassInfoImpl<T>
    * @throws IllegalArgumentException if the type class is invalid
    */
   UDTTypeClassInfoImpl<? extends T> addType(StatementManagerImpl mgr, Class<?> type) {
+    // types can be added concurrently by different threads (e.g. when warming
+    // up class infos) so serialize them on the maps shared with subclasses
+    synchronized (ctypes) {
+      final UDTTypeClassInfoImpl<? extends T> tcinfo = ctypes.get(type);
+
+      if (tcinfo != null) { // already added by another thread
+        return tcinfo;
+      }
+      return addType0(mgr, type);
+    }
+  }
+
+  /**
+   * Adds a new type POJO class to this UDT root entity while holding the lock
+   * on the type maps.
+   *
+   * @author paouelle
+   *
+   * @param  mgr the non-<code>null</code> statement manager
+   * @param  type the type POJO class
+   * @return the non-<code>null</code> class info for the specified type
+   * @throws NullPointerException if <code>clazz</code> is <code>null</code>
+   * @throws IllegalArgumentException if the type class is invalid
+   */
+  private UDTTypeClassInfoImpl<? extends T> addType0(StatementManagerImpl mgr, Class<?> type) {
     org.apache.commons.lang3.Validate.isTrue(
       clazz.isAssignableFrom(type),
       "type class '%s' must extends UDT root element class: %s",
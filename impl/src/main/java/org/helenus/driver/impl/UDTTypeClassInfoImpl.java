@@ -19,6 +19,10 @@ import java.lang.reflect.Modifier;
 
 import java.util.Map;
 
+import java.nio.ByteBuffer;
+
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.TypeCodec;
 import com.datastax.driver.core.UDTValue;
 
 import org.helenus.commons.lang3.reflect.ReflectionUtils;
@@ -236,6 +240,28 @@ public class UDTTypeClassInfoImpl<T>
     return t;
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.impl.UDTClassInfoImpl#getObject(org.helenus.driver.impl.FieldInfoImpl[], com.datastax.driver.core.TypeCodec[], java.nio.ByteBuffer[], com.datastax.driver.core.ProtocolVersion)
+   */
+  @Override
+  T getObject(
+    FieldInfoImpl<T>[] fields,
+    TypeCodec<?>[] codecs,
+    ByteBuffer[] values,
+    ProtocolVersion protocolVersion
+  ) {
+    // create as an instance of this type (ignore any type column persisted - in fact there should be none)
+    final T t = super.getObject(fields, codecs, values, protocolVersion);
+
+    // set the type key manually
+    getTableImpl().getTypeKey().ifPresent(f -> f.setValue(t, getType()));
+    return t;
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -17,6 +17,7 @@ package org.helenus.driver.impl;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
@@ -25,8 +26,11 @@ import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.ListIterator;
 import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -36,6 +40,7 @@ import org.apache.commons.lang3.tuple.Triple;
 import com.datastax.driver.core.ResultSet;
 import com.datastax.driver.core.Row;
 import com.datastax.driver.core.TypeCodec;
+import com.google.common.util.concurrent.Uninterruptibles;
 
 import org.helenus.commons.collections.iterators.CombinationIterator;
 import org.helenus.driver.Assignment;
@@ -50,6 +55,7 @@ import org.helenus.driver.codecs.ArgumentsCodec;
 import org.helenus.driver.impl.AssignmentImpl.CounterAssignmentImpl;
 import org.helenus.driver.info.TableInfo;
 import org.helenus.driver.persistence.CQLDataType;
+import org.helenus.driver.persistence.DataType;
 import org.helenus.driver.persistence.Table;
 
 /**
@@ -118,6 +124,50 @@ public class UpdateImpl<T>
    */
   private volatile boolean ifExists;
 
+  /**
+   * Holds the snapshot recorded for the POJO when it was hydrated if we are
+   * to only set the columns that changed since (computed when building the
+   * query strings).
+   *
+   * @author paouelle
+   */
+  private volatile ObjectSnapshotImpl snapshot = null;
+
+  /**
+   * Holds the fingerprints of the columns that changed since the POJO was
+   * snapshotted and which are being set by this statement (computed when
+   * building the query strings).
+   *
+   * @author paouelle
+   */
+  private volatile Map<String, Long> fingerprints = null;
+
+  /**
+   * Holds copies of the collection columns that changed since the POJO was
+   * snapshotted and which are being updated by this statement (computed when
+   * building the query strings).
+   *
+   * @author paouelle
+   */
+  private volatile Map<String, Object> collections = null;
+
+  /**
+   * Flag indicating if all the assignments actually built for this statement
+   * are idempotent (computed when building the query strings).
+   *
+   * @author paouelle
+   */
+  private volatile boolean idempotent = true;
+
+  /**
+   * Holds the target of this UPDATE statement when executed as a lightweight
+   * transaction affecting a single row or <code>null</code> if unknown
+   * (computed when building the query strings).
+   *
+   * @author paouelle
+   */
+  private volatile LWTExecutionImpl.Target lwtTarget = null;
+
   /**
    * Instantiates a new <code>UpdateImpl</code> object.
    *
@@ -203,7 +253,44 @@ public class UpdateImpl<T>
     // process it with the POJO and continue with the resulting list of
     // assignments instead of it
     if (assignment instanceof AssignmentImpl.DelayedWithObject) {
+      // only diff against the snapshot when setting all columns from our POJO
+      final boolean diff = (
+        (snapshot != null)
+        && (assignment instanceof AssignmentImpl.DelayedSetAllAssignmentImpl)
+        && (((AssignmentImpl.DelayedSetAllAssignmentImpl)assignment).object == null)
+      );
+
       for (final AssignmentImpl a: ((AssignmentImpl.DelayedWithObject)assignment).processWith(table, getPOJOContext())) {
+        if (diff && (a instanceof AssignmentImpl.SetAssignmentImpl)) {
+          final AssignmentImpl.SetAssignmentImpl sa = (AssignmentImpl.SetAssignmentImpl)a;
+          final String name = sa.getColumnName().toString();
+          final Long fp = mgr.fingerprint(sa.getValue(), sa.getCodec());
+
+          if (fp != null) {
+            if (fp.equals(snapshot.getFingerprint(name))) { // unchanged since snapshotted
+              continue;
+            }
+            if (snapshot.hasCollection(name)) {
+              // try to only add/remove the elements that changed in the collection
+              // instead of overwriting it completely
+              final List<AssignmentImpl> deltas = diffCollection(
+                table, name, snapshot.getCollection(name), sa.getValue()
+              );
+
+              if (deltas != null) {
+                for (final AssignmentImpl d: deltas) {
+                  andAssignment(table, assignments, d);
+                }
+                // only record the new fingerprint once the change was emitted
+                changed(name, fp, sa.getValue(), sa.getCodec());
+                continue;
+              }
+            }
+            andAssignment(table, assignments, a);
+            changed(name, fp, sa.getValue(), sa.getCodec());
+            continue;
+          }
+        }
         andAssignment(table, assignments, a); // recurse to add the processed assignment
       }
     } else {
@@ -221,11 +308,211 @@ public class UpdateImpl<T>
             throw e;
           }
         }
+        if (!assignment.isIdempotent()) {
+          // e.g. list appends or prepends computed from the snapshot
+          this.idempotent = false;
+        }
         assignments.add(assignment);
       }
     }
   }
 
+  /**
+   * Checks if none of the non primary key columns for the specified table have
+   * changed since the POJO was snapshotted. The fingerprints of the columns
+   * that changed are recorded.
+   *
+   * @author paouelle
+   *
+   * @param  table the non-<code>null</code> table to check
+   * @return <code>true</code> if the POJO was snapshotted and none of the
+   *         columns changed since; <code>false</code> otherwise
+   */
+  private boolean isUnchanged(TableInfoImpl<T> table) {
+    if (snapshot == null) {
+      return false;
+    }
+    final boolean[] unchanged = { true };
+
+    ColumnValuesImpl.forEach(
+      getPOJOContext().getNonPrimaryKeyColumnValues(table.getName()),
+      (name, v, d, codec) -> {
+        final Object value = (v instanceof Optional) ? ((Optional<?>)v).orElse(null) : v;
+        final Long fp = mgr.fingerprint(value, codec);
+
+        if (fp == null) {
+          unchanged[0] = false;
+        } else if (!fp.equals(snapshot.getFingerprint(name))) {
+          unchanged[0] = false;
+          changed(name, fp, value, codec);
+        }
+      }
+    );
+    return unchanged[0];
+  }
+
+  /**
+   * Records that the specified column changed since the POJO was snapshotted
+   * such that the snapshot can be refreshed once updated.
+   *
+   * @author paouelle
+   *
+   * @param name the non-<code>null</code> column name
+   * @param fp the new fingerprint for the column value
+   * @param value the new column value
+   * @param codec the codec for the column value
+   */
+  private void changed(String name, Long fp, Object value, TypeCodec<?> codec) {
+    fingerprints.put(name, fp);
+    if (snapshot.hasCollection(name)) {
+      collections.put(name, mgr.copy(value, codec));
+    }
+  }
+
+  /**
+   * Computes the minimal assignments required to transform the previously
+   * snapshotted elements of a collection column into its new elements. This
+   * avoids overwriting the whole collection which generates a range tombstone
+   * on every update.
+   * <p>
+   * Sets and maps are always reduced to the elements added, put, or removed.
+   * Lists are only reduced if elements were only appended, only prepended, or
+   * only discarded (as discarding removes all occurrences of a value).
+   *
+   * @author paouelle
+   *
+   * @param  table the non-<code>null</code> table for which to compute the
+   *         assignments
+   * @param  name the non-<code>null</code> collection column name
+   * @param  old the previously snapshotted collection value
+   * @param  value the new collection value
+   * @return the minimal non-empty list of assignments to update the collection
+   *         or <code>null</code> if the collection should be overwritten
+   */
+  private List<AssignmentImpl> diffCollection(
+    TableInfoImpl<T> table, String name, Object old, Object value
+  ) {
+    final FieldInfoImpl<T> field = table.getColumnImpl(name);
+
+    if (field == null) {
+      return null;
+    }
+    return UpdateImpl.diffCollection(
+      field.getDataType().getMainType(), name, old, value
+    );
+  }
+
+  /**
+   * Computes the minimal assignments required to transform the previously
+   * snapshotted elements of a collection column of the specified type into
+   * its new elements.
+   *
+   * @author paouelle
+   *
+   * @param  mtype the non-<code>null</code> main type of the collection column
+   * @param  name the non-<code>null</code> collection column name
+   * @param  old the previously snapshotted collection value
+   * @param  value the new collection value
+   * @return the minimal non-empty list of assignments to update the collection
+   *         or <code>null</code> if the collection should be overwritten
+   */
+  static List<AssignmentImpl> diffCollection(
+    CQLDataType mtype, String name, Object old, Object value
+  ) {
+    if (value == null) { // let null delete the collection
+      return null;
+    }
+    final List<AssignmentImpl> deltas = new ArrayList<>(2);
+
+    if ((mtype == DataType.SET) || (mtype == DataType.SORTED_SET)) {
+      if (!(value instanceof Set) || ((old != null) && !(old instanceof Set))) {
+        return null;
+      }
+      final Set<?> oset = (old != null) ? (Set<?>)old : Collections.emptySet();
+      final Set<Object> adds = new LinkedHashSet<>((Set<?>)value);
+      final Set<Object> removes = new LinkedHashSet<>(oset);
+
+      adds.removeAll(oset);
+      removes.removeAll((Set<?>)value);
+      if (!adds.isEmpty()) {
+        deltas.add(new AssignmentImpl.CollectionAssignmentImpl(
+          DataType.SET, name, adds, true
+        ));
+      }
+      if (!removes.isEmpty()) {
+        deltas.add(new AssignmentImpl.CollectionAssignmentImpl(
+          DataType.SET, name, removes, false
+        ));
+      }
+    } else if ((mtype == DataType.MAP) || (mtype == DataType.SORTED_MAP)) {
+      if (!(value instanceof Map) || ((old != null) && !(old instanceof Map))) {
+        return null;
+      }
+      final Map<?, ?> omap = (old != null) ? (Map<?, ?>)old : Collections.emptyMap();
+      final Map<Object, Object> puts = new LinkedHashMap<>(16);
+      final Set<Object> removes = new LinkedHashSet<>(omap.keySet());
+
+      for (final Map.Entry<?, ?> e: ((Map<?, ?>)value).entrySet()) {
+        final Object key = e.getKey();
+
+        removes.remove(key);
+        if (!omap.containsKey(key) || !Objects.equals(omap.get(key), e.getValue())) {
+          puts.put(key, e.getValue());
+        }
+      }
+      if (!puts.isEmpty()) {
+        deltas.add(new AssignmentImpl.CollectionAssignmentImpl(
+          DataType.MAP, name, puts, true
+        ));
+      }
+      if (!removes.isEmpty()) {
+        deltas.add(new AssignmentImpl.CollectionAssignmentImpl(
+          DataType.SET, name, removes, false
+        ));
+      }
+    } else if ((mtype == DataType.LIST) || (mtype == DataType.ORDERED_SET)) {
+      if (!(value instanceof Collection) || ((old != null) && !(old instanceof Collection))) {
+        return null;
+      }
+      final DataType ctype = (mtype == DataType.LIST) ? DataType.LIST : DataType.ORDERED_SET;
+      final List<?> olist = (old != null) ? new ArrayList<>((Collection<?>)old) : Collections.emptyList();
+      final List<?> nlist = new ArrayList<>((Collection<?>)value);
+      final int osize = olist.size();
+      final int nsize = nlist.size();
+
+      if ((nsize >= osize) && nlist.subList(0, osize).equals(olist)) {
+        if (nsize > osize) { // only appended
+          deltas.add(new AssignmentImpl.CollectionAssignmentImpl(
+            ctype, name, new ArrayList<>(nlist.subList(osize, nsize)), true, false
+          ));
+        }
+      } else if ((ctype == DataType.LIST)
+                 && (nsize > osize)
+                 && nlist.subList(nsize - osize, nsize).equals(olist)) { // only prepended
+        deltas.add(new AssignmentImpl.ListPrependAssignmentImpl(
+          name, new ArrayList<>(nlist.subList(0, nsize - osize))
+        ));
+      } else { // check if only discarded
+        final Set<Object> removes = new LinkedHashSet<>(olist);
+        final List<Object> kept = new ArrayList<>(olist);
+
+        removes.removeAll(nlist);
+        kept.removeAll(removes);
+        if (removes.isEmpty() || !kept.equals(nlist)) {
+          return null;
+        }
+        deltas.add(new AssignmentImpl.CollectionAssignmentImpl(
+          ctype, name, new ArrayList<>(removes), false
+        ));
+      }
+    } else {
+      return null;
+    }
+    // if nothing could be reduced even though the fingerprint changed then
+    // fallback to overwriting the collection completely
+    return deltas.isEmpty() ? null : deltas;
+  }
+
   /**
    * Ands the specified clause along with others while validating them.
    * <p>
@@ -278,6 +565,65 @@ public class UpdateImpl<T>
     }
   }
 
+  /**
+   * Checks if this statement must be executed through an
+   * {@link LWTExecutionImpl}. Statements with conditions always are while
+   * statements with only <code>IF EXISTS</code> are only when an
+   * {@link LWTPolicy} is enabled on the statement manager; otherwise they keep
+   * being executed like any other statements.
+   *
+   * @author paouelle
+   *
+   * @return <code>true</code> if this statement is to be executed as a
+   *         lightweight transaction; <code>false</code> otherwise
+   */
+  @SuppressWarnings("synthetic-access")
+  private boolean isExecutedAsLWT() {
+    return (
+      !conditions.conditions.isEmpty()
+      || (ifExists && mgr.getLWTPolicy().isEnabled())
+    );
+  }
+
+  /**
+   * Gets the column values written by the specified assignments when executed
+   * as a lightweight transaction.
+   *
+   * @author paouelle
+   *
+   * @param  table the non-<code>null</code> table being updated
+   * @param  as the non-<code>null</code> assignments for the table
+   * @return the corresponding column values or <code>null</code> if not all
+   *         assignments are setting values for known columns
+   */
+  private Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> getLWTValues(
+    TableInfoImpl<T> table, List<AssignmentImpl> as
+  ) {
+    final Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> values
+      = new LinkedHashMap<>(as.size() * 3 / 2);
+
+    for (final AssignmentImpl a: as) {
+      if (!(a instanceof AssignmentImpl.SetAssignmentImpl) || a.containsBindMarker()) {
+        return null;
+      }
+      final AssignmentImpl.SetAssignmentImpl sa = (AssignmentImpl.SetAssignmentImpl)a;
+      final String name = sa.getColumnName().toString();
+      final FieldInfoImpl<T> finfo = table.getColumnImpl(name);
+
+      if (finfo == null) {
+        return null;
+      }
+      final TypeCodec<?> codec = sa.getCodec();
+
+      values.put(name, Triple.of(
+        sa.getValue(),
+        finfo.getDataType(),
+        (codec != null) ? codec : finfo.getCodec(getKeyspace())
+      ));
+    }
+    return values;
+  }
+
   /**
    * Builds a query string for the specified table.
    *
@@ -313,6 +659,7 @@ public class UpdateImpl<T>
     final Collection<FieldInfoImpl<T>> multiKeys = table.getMultiKeys();
     final Collection<FieldInfoImpl<T>> caseInsensitiveKeys = table.getCaseInsensitiveKeys();
     AssignmentsImpl<T> assignments = this.assignments;
+    Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> lwtValues = null;
 
     if (assignments.isEmpty()) {
       // if it is empty then fallback to all non-primary columns
@@ -510,6 +857,9 @@ public class UpdateImpl<T>
       Utils.joinAndAppendWithNoDuplicates(
         getKeyspace(), table, null, mgr.getCodecRegistry(), builder, ",", as, null
       );
+      if (isExecutedAsLWT()) {
+        lwtValues = getLWTValues(table, as);
+      }
     } else { // nothing to set for this table
       return;
     }
@@ -633,18 +983,15 @@ public class UpdateImpl<T>
                 continue;
               }
               final String name = finfo.getColumnName();
-              final Triple<Object, CQLDataType, TypeCodec<?>> pset = pkeys.remove(name);
+              final Object v = ColumnValuesImpl.removeValue(pkeys, name, ColumnValuesImpl.ABSENT);
 
-              if (pset != null) {
-                final Object v = pset.getLeft();
-
-                pkeys.put(
+              if (v != ColumnValuesImpl.ABSENT) {
+                ColumnValuesImpl.putValue(
+                  pkeys,
                   StatementImpl.CI_PREFIX + name,
-                  Triple.of(
-                    (v != null) ? StringUtils.lowerCase(v.toString()) : null,
-                    pset.getMiddle(),
-                    pset.getRight()
-                  )
+                  (v != null) ? StringUtils.lowerCase(v.toString()) : null,
+                  finfo.getDataType(),
+                  finfo.getCodec(getKeyspace())
                 );
               }
             }
@@ -655,11 +1002,13 @@ public class UpdateImpl<T>
             final List<Collection<Object>> sets = new ArrayList<>(multiKeys.size());
 
             for (final FieldInfoImpl<T> finfo: multiKeys) {
-              final Triple<Object, CQLDataType, TypeCodec<?>> pset = pkeys.remove(finfo.getColumnName());
+              final Object pset = ColumnValuesImpl.removeValue(
+                pkeys, finfo.getColumnName(), ColumnValuesImpl.ABSENT
+              );
 
-              if (pset != null) {
+              if (pset != ColumnValuesImpl.ABSENT) {
                 @SuppressWarnings("unchecked")
-                final Set<Object> set = (Set<Object>)pset.getLeft();
+                final Set<Object> set = (Set<Object>)pset;
 
                 if (set != null) { // we have keys for this multi-key column
                   cfinfos.add(finfo);
@@ -679,16 +1028,25 @@ public class UpdateImpl<T>
               // for each combination
               @SuppressWarnings("unchecked")
               final Collection<Object>[] asets = new Collection[sets.size()];
+              // resolve the multi-key column names, types, and codecs only once
+              final String[] names = new String[asets.length];
+              final CQLDataType[] definitions = new CQLDataType[asets.length];
+              final TypeCodec<?>[] codecs = new TypeCodec<?>[asets.length];
+
+              for (int j = 0; j < names.length; j++) {
+                final FieldInfoImpl<T> finfo = cfinfos.get(j);
+
+                names[j] = StatementImpl.MK_PREFIX + finfo.getColumnName();
+                definitions[j] = finfo.getDataType().getElementType();
+                codecs[j] = ((ArgumentsCodec<?>)finfo.getCodec(getKeyspace())).codec(0);
+              }
 
               for (final Iterator<List<Object>> i = new CombinationIterator<>(Object.class, sets.toArray(asets)); i.hasNext(); ) {
                 // add the multi-key clause values from this combination to the map of primary keys
                 int j = -1;
                 for (final Object k: i.next()) {
-                  final FieldInfoImpl<T> finfo = cfinfos.get(++j);
-
-                  pkeys.put(
-                    StatementImpl.MK_PREFIX + finfo.getColumnName(),
-                    Triple.of(k, finfo.getDataType().getElementType(), ((ArgumentsCodec<?>)finfo.getCodec(getKeyspace())).codec(0))
+                  ColumnValuesImpl.putValue(
+                    pkeys, names[++j], k, definitions[j], codecs[j]
                   );
                 }
                 final StringBuilder sb = new StringBuilder(builder);
@@ -702,6 +1060,9 @@ public class UpdateImpl<T>
           // we didn't have any multi-keys in the list (unlikely) so just update it
           // based on the provided list
           Utils.joinAndAppendNamesAndValues(null, mgr.getCodecRegistry(), builder, " AND ", "=", pkeys, null);
+          if (lwtValues != null) {
+            this.lwtTarget = LWTExecutionImpl.Target.of(getKeyspace(), table, pkeys, lwtValues);
+          }
         }
       } catch (EmptyOptionalPrimaryKeyException e) {
         // ignore and continue without updating this table
@@ -777,16 +1138,34 @@ public class UpdateImpl<T>
     final List<StringBuilder> builders = new ArrayList<>(tables.size());
     InsertImpl<T> insert = null;
 
+    // snapshots only apply when updating all columns of the POJO's own rows
+    // without options that would make re-setting unchanged columns significant
+    if (assignments.hasAllFromObject()
+        && where.clauses.isEmpty()
+        && conditions.conditions.isEmpty()
+        && usings.usings.isEmpty()) {
+      this.snapshot = mgr.getSnapshot(getPOJOContext().getObject());
+    } else {
+      this.snapshot = null;
+    }
+    this.fingerprints = (snapshot != null) ? new HashMap<>(snapshot.size() * 2) : null;
+    this.collections = (snapshot != null) ? new HashMap<>(8) : null;
+    this.idempotent = true;
+    this.lwtTarget = null;
     for (final TableInfoImpl<T> table: tables) {
       if (table.getTable().type() == Table.Type.AUDIT) {
         // deal with AUDIT tables only if we were updating all from the POJO
         // with no clauses
         // otherwise leave it to the statements to deal with it
         if (assignments.hasAllFromObject() && where.clauses.isEmpty()) {
+          if (isUnchanged(table)) { // nothing changed since snapshotted so skip
+            continue;
+          }
           // we must create an insert for this table if not already done
           // otherwise, simply add this table to the list of tables to handle
           if (insert == null) {
             insert = init(new InsertImpl<>(getPOJOContext(), table, usings.usings, mgr, bridge));
+            insert.audits = audits;
           } else { // add this table to the mix
             insert.into(table);
           }
@@ -798,12 +1177,62 @@ public class UpdateImpl<T>
     if (insert != null) {
       insert.buildQueryStrings(builders);
     }
+    if (builders.size() != 1) { // the row affected is only known for a single query
+      this.lwtTarget = null;
+    }
     if (builders.isEmpty()) {
       return null;
     }
     return builders.toArray(new StringBuilder[builders.size()]);
   }
 
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.impl.StatementImpl#canJournalAudits()
+   */
+  @SuppressWarnings("synthetic-access")
+  @Override
+  protected boolean canJournalAudits() {
+    return !isConditional()
+      && assignments.hasAllFromObject()
+      && where.clauses.isEmpty()
+      && tables.stream().anyMatch(t -> (t.getTable().type() == Table.Type.AUDIT));
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.impl.StatementImpl#isConditional()
+   */
+  @SuppressWarnings("synthetic-access")
+  @Override
+  protected boolean isConditional() {
+    return !conditions.conditions.isEmpty() || ifExists;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.impl.StatementImpl#canSpool()
+   */
+  @SuppressWarnings("synthetic-access")
+  @Override
+  protected boolean canSpool() {
+    // rely on the assignments actually built rather than the ones provided
+    // as setting all from the POJO can be reduced to non-idempotent deltas
+    return !isConditional()
+      && !Boolean.FALSE.equals(isIdempotent())
+      && assignments.assignments.stream().allMatch(AssignmentImpl::isIdempotent)
+      && idempotent;
+  }
+
   /**
    * {@inheritDoc}
    *
@@ -1019,10 +1448,19 @@ public class UpdateImpl<T>
   @Override
   public VoidFuture executeAsync0() {
     // if we have no conditions then no need for special treatment of the response
-    if (conditions.conditions.isEmpty()) {
-      return super.executeAsync0();
+    if (!isExecutedAsLWT() || tables.isEmpty()) {
+      return refreshSnapshotWhenDone(super.executeAsync0());
     }
-    return bridge.newVoidFuture(executeAsyncRaw0(), new VoidFuture.PostProcessor() {
+    final String query = getQueryString();
+    final LWTExecutionImpl lwt = new LWTExecutionImpl(
+      this,
+      this::executeAsyncRaw0,
+      getKeyspace(),
+      tables.get(0).getName(),
+      (query != null) ? lwtTarget : null
+    ).execute();
+    final boolean conditional = !conditions.conditions.isEmpty();
+    final VoidFuture future = bridge.newVoidFuture(lwt, new VoidFuture.PostProcessor() {
       @Override
       public void postProcess(ResultSet result) {
         // update result set when using conditions have only one row
@@ -1034,14 +1472,51 @@ public class UpdateImpl<T>
         final Row row = result.one();
 
         if (row == null) {
-          throw new UpdateNotAppliedException("no result row returned");
+          if (conditional) {
+            throw new UpdateNotAppliedException("no result row returned");
+          }
+          return;
         }
-        if (!row.getBool("[applied]")) {
+        final boolean applied = row.getBool("[applied]");
+
+        lwt.report(applied);
+        if (!applied && conditional) {
           throw new UpdateNotAppliedException(row, "update not applied");
         }
         // else all good
       }
     });
+
+    return conditional ? future : refreshSnapshotWhenDone(future);
+  }
+
+  /**
+   * Refreshes the snapshot of the POJO with the columns set by this statement
+   * once the specified future completes successfully.
+   *
+   * @author paouelle
+   *
+   * @param  future the non-<code>null</code> future for this statement
+   * @return <code>future</code>
+   */
+  private VoidFuture refreshSnapshotWhenDone(VoidFuture future) {
+    final Map<String, Long> fps = fingerprints;
+
+    if ((fps != null) && !fps.isEmpty()) {
+      // refresh the snapshot with what was set once successfully updated
+      final Object object = getPOJOContext().getObject();
+      final ObjectSnapshotImpl changes = new ObjectSnapshotImpl(fps, collections);
+
+      future.addListener(() -> {
+        try {
+          Uninterruptibles.getUninterruptibly(future);
+          mgr.updateSnapshot(object, changes);
+        } catch (ExecutionException|CancellationException e) {
+          // leave the snapshot as is so the columns will be set again
+        }
+      }, mgr.getDirectExecutor());
+    }
+    return future;
   }
 
   /**
@@ -64,24 +64,14 @@ public abstract class Utils {
     Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> mappings,
     List<Object> variables
   ) {
-    boolean first = true;
+    final int start = sb.length();
 
-    for (final Map.Entry<String, Triple<Object, CQLDataType, TypeCodec<?>>> e: mappings.entrySet()) {
-      if (!first) {
+    ColumnValuesImpl.appendValues(mappings, codec, codecRegistry, variables, n -> {
+      if (sb.length() > start) {
         sb.append(separator);
-      } else {
-        first = false;
       }
-      Utils.appendName(sb, e.getKey()).append(keySeparator);
-      Utils.appendValue(
-        e.getValue().getMiddle(),
-        ((codec != null) ? codec : e.getValue().getRight()),
-        codecRegistry,
-        sb,
-        e.getValue().getLeft(),
-        variables
-      );
-    }
+      return Utils.appendName(sb, n).append(keySeparator);
+    });
     return sb;
   }
 
@@ -407,20 +397,16 @@ public abstract class Utils {
         } else {
           // the value is meant to be forcefully appended to the query string:
           // format it with the appropriate codec and append it now
-          if (codec != null) {
-            sb.append(((TypeCodec<Object>)codec).format(value));
-          } else {
-            sb.append(codecRegistry.codecFor(value).format(value));
-          }
+          Utils.appendFormatted(
+            (codec != null) ? codec : codecRegistry.codecFor(value), sb, value
+          );
         }
       } else if (variables == null) {
         // we are not collecting statement values (variables == null):
         // format it with the appropriate codec and append it now
-        if (codec != null) {
-          sb.append(((TypeCodec<Object>)codec).format(value));
-        } else {
-          sb.append(codecRegistry.codecFor(value).format(value));
-        }
+        Utils.appendFormatted(
+          (codec != null) ? codec : codecRegistry.codecFor(value), sb, value
+        );
       } else {
         // do not format the value nor append it to the query string:
         // use a bind marker instead,
@@ -432,6 +418,42 @@ public abstract class Utils {
     return sb;
   }
 
+  /**
+   * Appends the specified value formatted with the given codec. Numbers and
+   * booleans formatted with the driver's codecs are appended directly to
+   * avoid creating intermediate strings for each of them (e.g. when
+   * formatting numeric collections).
+   *
+   * @author paouelle
+   *
+   * @param  codec the non-<code>null</code> codec to format the value with
+   * @param  sb the string builder where to append the formatted value
+   * @param  value the non-<code>null</code> value to format
+   * @return <code>sb</code>
+   */
+  @SuppressWarnings("unchecked")
+  private static StringBuilder appendFormatted(
+    TypeCodec<?> codec, StringBuilder sb, Object value
+  ) {
+    if ((value instanceof Integer) && (codec == TypeCodec.cint())) {
+      return sb.append(((Integer)value).intValue());
+    } else if ((value instanceof Long)
+               && ((codec == TypeCodec.bigint()) || (codec == TypeCodec.counter()))) {
+      return sb.append(((Long)value).longValue());
+    } else if ((value instanceof Double) && (codec == TypeCodec.cdouble())) {
+      return sb.append(((Double)value).doubleValue());
+    } else if ((value instanceof Float) && (codec == TypeCodec.cfloat())) {
+      return sb.append(((Float)value).floatValue());
+    } else if ((value instanceof Boolean) && (codec == TypeCodec.cboolean())) {
+      return sb.append(((Boolean)value).booleanValue());
+    } else if ((value instanceof Short) && (codec == TypeCodec.smallInt())) {
+      return sb.append(((Short)value).shortValue());
+    } else if ((value instanceof Byte) && (codec == TypeCodec.tinyInt())) {
+      return sb.append(((Byte)value).byteValue());
+    }
+    return sb.append(((TypeCodec<Object>)codec).format(value));
+  }
+
   static StringBuilder appendList(
     CQLDataType definition,
     TypeCodec<?> codec,
@@ -148,6 +148,17 @@ public class WithOptionsImpl
     return name;
   }
 
+  /**
+   * Gets the value of the option.
+   *
+   * @author paouelle
+   *
+   * @return the value of the option
+   */
+  public Object getValue() {
+    return value;
+  }
+
   /**
    * The <code>ReplicationWithImpl</code> class defines the "REPLICATION"
    * option for the "CREATE KEYSPACE" statement.
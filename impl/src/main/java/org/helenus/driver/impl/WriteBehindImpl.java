@@ -0,0 +1,1259 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.impl;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.commons.lang3.tuple.Triple;
+
+import com.datastax.driver.core.TypeCodec;
+
+import org.helenus.driver.Assignment;
+import org.helenus.driver.BatchableStatement;
+import org.helenus.driver.StatementBuilder;
+import org.helenus.driver.Update;
+import org.helenus.driver.WriteBehind;
+import org.helenus.driver.info.TableInfo;
+import org.helenus.driver.persistence.CQLDataType;
+import org.helenus.driver.persistence.DataType;
+
+/**
+ * The <code>WriteBehindImpl</code> class provides the implementation for
+ * the {@link WriteBehind} interface.
+ * <p>
+ * Pending rows are kept in a concurrent map keyed by keyspace, table, and
+ * primary key values such that updates to different rows never contend while
+ * updates to the same row are merged atomically. Rows are removed from the map
+ * as they are flushed which gives the flushing thread exclusive ownership of
+ * them; any subsequent updates to the same row simply start a new pending row.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 14, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class WriteBehindImpl extends WriteBufferImpl implements WriteBehind {
+  /**
+   * Creates a copy of the specified collection or map value preserving its
+   * general type such that further modifications to the POJO do not affect
+   * pending updates.
+   *
+   * @author paouelle
+   *
+   * @param  value the value to copy
+   * @return a copy of <code>value</code> if it is a collection or a map;
+   *         <code>value</code> otherwise
+   */
+  @SuppressWarnings({"rawtypes", "unchecked"})
+  static Object copy(Object value) {
+    if (value instanceof List) {
+      return new ArrayList<>((List<?>)value);
+    } else if (value instanceof SortedSet) {
+      return new TreeSet<>((SortedSet)value);
+    } else if (value instanceof Set) {
+      return new LinkedHashSet<>((Set<?>)value);
+    } else if (value instanceof SortedMap) {
+      return new TreeMap<>((SortedMap)value);
+    } else if (value instanceof Map) {
+      return new LinkedHashMap<>((Map<?, ?>)value);
+    }
+    return value;
+  }
+
+  /**
+   * Holds the pending rows keyed by keyspace, table, and primary key values.
+   *
+   * @author paouelle
+   */
+  private final Map<List<Object>, Row> rows = new ConcurrentHashMap<>(256);
+
+  /**
+   * Holds the number of pending rows.
+   *
+   * @author paouelle
+   */
+  private final AtomicInteger pending = new AtomicInteger();
+
+  /**
+   * Holds the number of pending rows triggering a flush.
+   *
+   * @author paouelle
+   */
+  private volatile int flushAt = 1000;
+
+  /**
+   * Instantiates a new <code>WriteBehindImpl</code> object.
+   *
+   * @author paouelle
+   *
+   * @param mgr the non-<code>null</code> statement manager
+   */
+  WriteBehindImpl(StatementManagerImpl mgr) {
+    super(mgr);
+    schedule(TimeUnit.SECONDS.toNanos(1L));
+  }
+
+  /**
+   * Records the specified assignment into the given operations for a table.
+   *
+   * @author paouelle
+   *
+   * @param <T> The type of POJO
+   *
+   * @param  table the table being updated
+   * @param  pctx the POJO context
+   * @param  a the assignment to record
+   * @param  ops the operations recorded so far keyed by column names
+   * @throws IllegalArgumentException if the assignment is not supported
+   */
+  private <T> void record(
+    TableInfoImpl<T> table,
+    ClassInfoImpl<T>.POJOContext pctx,
+    AssignmentImpl a,
+    Map<String, Op> ops
+  ) {
+    if (a instanceof AssignmentImpl.DelayedWithObject) {
+      for (final AssignmentImpl da: ((AssignmentImpl.DelayedWithObject)a).processWith(table, pctx)) {
+        record(table, pctx, da, ops);
+      }
+      return;
+    }
+    final String name = a.getColumnName().toString();
+    final FieldInfoImpl<T> field = table.getColumnImpl(name);
+
+    if (field == null) { // column not defined in this table
+      return;
+    }
+    org.apache.commons.lang3.Validate.isTrue(
+      !field.isCounter() && !(a instanceof AssignmentImpl.CounterAssignmentImpl),
+      "counter columns are not supported by write-behind: %s", name
+    );
+    org.apache.commons.lang3.Validate.isTrue(
+      !(a instanceof AssignmentImpl.WithOldValue) && (table.getPrimaryKey(name) == null),
+      "primary key columns cannot be updated by write-behind: %s", name
+    );
+    org.apache.commons.lang3.Validate.isTrue(
+      !a.containsBindMarker(),
+      "bind markers are not supported by write-behind: %s", name
+    );
+    a.validate(table);
+    final Op op = Op.of(field, a);
+    final Op old = ops.get(name);
+
+    if (old == null) {
+      ops.put(name, op);
+    } else {
+      final Op merged = old.merge(op);
+
+      org.apache.commons.lang3.Validate.isTrue(
+        merged != null, "incompatible assignments for column: %s", name
+      );
+      ops.put(name, merged);
+    }
+  }
+
+  /**
+   * Merges the specified operations with the pending row for the POJO in the
+   * given table.
+   *
+   * @author paouelle
+   *
+   * @param <T> The type of POJO
+   *
+   * @param  table the table being updated
+   * @param  pctx the POJO context
+   * @param  ops the operations to merge keyed by column names
+   * @throws IllegalArgumentException if a primary key column is missing from
+   *         the POJO
+   */
+  private <T> void merge(
+    TableInfoImpl<T> table, ClassInfoImpl<T>.POJOContext pctx, Map<String, Op> ops
+  ) {
+    final String tname = table.getName();
+    final Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> pkeys
+      = pctx.getPrimaryKeyColumnValues(tname);
+    final List<Object> key = new ArrayList<>(pkeys.size() + 2);
+
+    key.add(pctx.getKeyspace());
+    key.add(tname);
+    for (final Triple<Object, CQLDataType, TypeCodec<?>> t: pkeys.values()) {
+      key.add(t.getLeft());
+    }
+    final Row[] sealed = new Row[1];
+
+    rows.compute(key, (k, row) -> {
+      if (row == null) {
+        pending.incrementAndGet();
+        return new Row(pctx, table, ops);
+      } else if (!row.merge(ops)) { // write the pending one first
+        sealed[0] = row;
+        return new Row(pctx, table, ops);
+      }
+      return row;
+    });
+    if (sealed[0] != null) {
+      send(Collections.singletonList(sealed[0]));
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.impl.WriteBufferImpl#drain()
+   */
+  @Override
+  protected void drain() {
+    final List<Row> list = new ArrayList<>(pending.get());
+
+    for (final List<Object> key: rows.keySet()) {
+      final Row row = rows.remove(key);
+
+      if (row != null) {
+        pending.decrementAndGet();
+        list.add(row);
+      }
+    }
+    if (!list.isEmpty()) {
+      send(list);
+    }
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.impl.WriteBufferImpl#hasPending()
+   */
+  @Override
+  protected boolean hasPending() {
+    return pending.get() > 0;
+  }
+
+  /**
+   * Sends the specified rows as unlogged batches grouped by partition.
+   *
+   * @author paouelle
+   *
+   * @param rows the rows to send
+   */
+  private void send(Collection<Row> rows) {
+    final Map<List<Object>, List<BatchableStatement<?, ?>>> groups
+      = new LinkedHashMap<>(rows.size() * 2);
+
+    for (final Row row: rows) {
+      final Update<?> update = row.build();
+
+      if (update != null) {
+        groups.computeIfAbsent(row.partition, k -> new ArrayList<>(4)).add(update);
+      }
+    }
+    send(groups);
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.WriteBehind#flushEvery(long, java.util.concurrent.TimeUnit)
+   */
+  @Override
+  public WriteBehind flushEvery(long delay, TimeUnit unit) {
+    validateNotClosed();
+    org.apache.commons.lang3.Validate.isTrue(delay >= 0L, "invalid flush delay: %d", delay);
+    org.apache.commons.lang3.Validate.notNull(unit, "invalid null unit");
+    schedule(unit.toNanos(delay));
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.WriteBehind#flushAt(int)
+   */
+  @Override
+  public WriteBehind flushAt(int rows) {
+    validateNotClosed();
+    org.apache.commons.lang3.Validate.isTrue(rows > 0, "invalid number of rows: %d", rows);
+    this.flushAt = rows;
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.WriteBehind#batchSize(int)
+   */
+  @Override
+  public WriteBehind batchSize(int size) {
+    validateNotClosed();
+    org.apache.commons.lang3.Validate.isTrue(size > 0, "invalid batch size: %d", size);
+    this.batchSize = size;
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.WriteBehind#update(java.lang.Object)
+   */
+  @Override
+  public <T> WriteBehind update(T object) {
+    return update(object, StatementBuilder.setAllFromObject());
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.WriteBehind#update(java.lang.Object, org.helenus.driver.Assignment[])
+   */
+  @SuppressWarnings("unchecked")
+  @Override
+  public <T> WriteBehind update(T object, Assignment... assignments) {
+    validateNotClosed();
+    org.apache.commons.lang3.Validate.notNull(object, "invalid null object");
+    org.apache.commons.lang3.Validate.noNullElements(assignments, "invalid null assignment");
+    final ClassInfoImpl<T> cinfo = mgr.getClassInfoImpl((Class<T>)object.getClass());
+
+    org.apache.commons.lang3.Validate.isTrue(
+      cinfo.supportsTablesAndIndexes(),
+      "unsupported %s POJO class '%s' for write-behind",
+      cinfo.getEntityAnnotationClass().getSimpleName(), object.getClass().getSimpleName()
+    );
+    final ClassInfoImpl<T>.POJOContext pctx = cinfo.newContext(object);
+    final List<Map<String, Op>> tops = new ArrayList<>(cinfo.getTables().size());
+
+    // record all assignments first so nothing is merged if any are invalid
+    for (final TableInfo<T> t: cinfo.getTables()) {
+      final Map<String, Op> ops = new LinkedHashMap<>(assignments.length * 2);
+
+      for (final Assignment a: assignments) {
+        record((TableInfoImpl<T>)t, pctx, (AssignmentImpl)a, ops);
+      }
+      tops.add(ops);
+    }
+    int i = 0;
+
+    for (final TableInfo<T> t: cinfo.getTables()) {
+      final Map<String, Op> ops = tops.get(i++);
+
+      if (!ops.isEmpty()) {
+        merge((TableInfoImpl<T>)t, pctx, ops);
+      }
+    }
+    if (pending.get() >= flushAt) {
+      trigger();
+    }
+    return this;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * @author paouelle
+   *
+   * @see org.helenus.driver.WriteBehind#getPending()
+   */
+  @Override
+  public int getPending() {
+    return pending.get();
+  }
+
+  /**
+   * The <code>Row</code> class keeps track of the operations pending for a
+   * given row.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 14, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  private class Row {
+    /**
+     * Holds the POJO identifying the row.
+     *
+     * @author paouelle
+     */
+    private final Object object;
+
+    /**
+     * Holds the table for the row.
+     *
+     * @author paouelle
+     */
+    private final TableInfoImpl<?> table;
+
+    /**
+     * Holds the keyspace, table, and partition key values for the row.
+     *
+     * @author paouelle
+     */
+    final List<Object> partition;
+
+    /**
+     * Holds the pending operations keyed by column names.
+     *
+     * @author paouelle
+     */
+    private final Map<String, Op> ops;
+
+    /**
+     * Instantiates a new <code>Row</code> object.
+     *
+     * @author paouelle
+     *
+     * @param <T> The type of POJO
+     *
+     * @param pctx the POJO context
+     * @param table the table for the row
+     * @param ops the initial operations for the row
+     */
+    <T> Row(ClassInfoImpl<T>.POJOContext pctx, TableInfoImpl<T> table, Map<String, Op> ops) {
+      final Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> pkeys
+        = pctx.getPartitionKeyColumnValues(table.getName());
+
+      this.object = pctx.getObject();
+      this.table = table;
+      this.partition = new ArrayList<>(pkeys.size() + 2);
+      this.ops = new LinkedHashMap<>(ops);
+      partition.add(pctx.getKeyspace());
+      partition.add(table.getName());
+      for (final Triple<Object, CQLDataType, TypeCodec<?>> t: pkeys.values()) {
+        partition.add(t.getLeft());
+      }
+    }
+
+    /**
+     * Merges the specified operations into this row. Either all or none of the
+     * operations are merged.
+     *
+     * @author paouelle
+     *
+     * @param  ops the operations to merge keyed by column names
+     * @return <code>true</code> if all operations were merged; <code>false</code>
+     *         if one of them cannot be combined with a pending operation
+     */
+    boolean merge(Map<String, Op> ops) {
+      final Map<String, Op> merged = new LinkedHashMap<>(ops.size() * 2);
+
+      for (final Map.Entry<String, Op> e: ops.entrySet()) {
+        final Op old = this.ops.get(e.getKey());
+        final Op op = (old != null) ? old.merge(e.getValue()) : e.getValue();
+
+        if (op == null) {
+          return false;
+        }
+        merged.put(e.getKey(), op);
+      }
+      this.ops.putAll(merged);
+      return true;
+    }
+
+    /**
+     * Builds the update statement for this row.
+     *
+     * @author paouelle
+     *
+     * @return the update statement or <code>null</code> if there is nothing to
+     *         update
+     */
+    @SuppressWarnings("synthetic-access")
+    Update<?> build() {
+      final List<Assignment> assignments = new ArrayList<>(ops.size() + 4);
+
+      for (final Op op: ops.values()) {
+        op.addTo(assignments);
+      }
+      if (assignments.isEmpty()) {
+        return null;
+      }
+      final Update<Object> update = mgr.update(object, table.getName());
+
+      update.with(assignments.toArray(new Assignment[assignments.size()]));
+      return update;
+    }
+  }
+
+  /**
+   * The <code>Op</code> class defines a pending operation on a column which
+   * can be combined with subsequent ones.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 14, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  private static abstract class Op {
+    /**
+     * Creates a pending operation for the specified assignment.
+     *
+     * @author paouelle
+     *
+     * @param  field the column being assigned
+     * @param  a the assignment
+     * @return the corresponding operation
+     * @throws IllegalArgumentException if the assignment is not supported
+     */
+    @SuppressWarnings("unchecked")
+    static Op of(FieldInfoImpl<?> field, AssignmentImpl a) {
+      final String name = field.getColumnName();
+
+      if (a instanceof AssignmentImpl.SetAssignmentImpl) {
+        final AssignmentImpl.SetAssignmentImpl sa = (AssignmentImpl.SetAssignmentImpl)a;
+
+        return new SetOp(sa.withValue(WriteBehindImpl.copy(sa.getValue())));
+      }
+      final DataType type = field.getDataType().getMainType();
+
+      if (a instanceof AssignmentImpl.CollectionAssignmentImpl) {
+        final AssignmentImpl.CollectionAssignmentImpl ca = (AssignmentImpl.CollectionAssignmentImpl)a;
+
+        if ((type == DataType.MAP) || (type == DataType.SORTED_MAP)) {
+          return ca.isAdd()
+            ? new MapOp(name, new LinkedHashMap<>((Map<Object, Object>)ca.getCollection()), null)
+            : new MapOp(name, null, Op.toSet(ca.getCollection()));
+        } else if ((type == DataType.SET) || (type == DataType.SORTED_SET)) {
+          return ca.isAdd()
+            ? new SetDeltaOp(name, Op.toSet(ca.getCollection()), null)
+            : new SetDeltaOp(name, null, Op.toSet(ca.getCollection()));
+        }
+        return ca.isAdd() // list or ordered set
+          ? new ListOp(name, null, Op.toList(ca.getCollection()))
+          : new DiscardOp(name, Op.toSet(ca.getCollection()));
+      } else if (a instanceof AssignmentImpl.MapPutAssignmentImpl) {
+        final AssignmentImpl.MapPutAssignmentImpl ma = (AssignmentImpl.MapPutAssignmentImpl)a;
+        final Map<Object, Object> puts = new LinkedHashMap<>(4);
+
+        puts.put(ma.getKey(), ma.getValue());
+        return new MapOp(name, puts, null);
+      } else if (a instanceof AssignmentImpl.ListPrependAssignmentImpl) {
+        return new ListOp(
+          name, Op.toList(((AssignmentImpl.ListPrependAssignmentImpl)a).getValue()), null
+        );
+      } else if (a instanceof AssignmentImpl.ListSetIdxAssignmentImpl) {
+        final AssignmentImpl.ListSetIdxAssignmentImpl la = (AssignmentImpl.ListSetIdxAssignmentImpl)a;
+        final SortedMap<Integer, Object> values = new TreeMap<>();
+
+        values.put(la.getIndex(), la.getValue());
+        return new SetIdxOp(name, values);
+      }
+      throw new IllegalArgumentException(
+        "unsupported assignment for write-behind: " + a
+      );
+    }
+
+    /**
+     * Copies the specified elements into a new ordered set.
+     *
+     * @author paouelle
+     *
+     * @param  elements the elements to copy
+     * @return a new ordered set with all elements
+     */
+    static Set<Object> toSet(Object elements) {
+      final Set<Object> set = new LinkedHashSet<>(8);
+
+      ((Iterable<?>)elements).forEach(set::add);
+      return set;
+    }
+
+    /**
+     * Copies the specified elements into a new list.
+     *
+     * @author paouelle
+     *
+     * @param  elements the elements to copy
+     * @return a new list with all elements
+     */
+    static List<Object> toList(Object elements) {
+      final List<Object> list = new ArrayList<>(8);
+
+      ((Iterable<?>)elements).forEach(list::add);
+      return list;
+    }
+
+    /**
+     * Holds the column name.
+     *
+     * @author paouelle
+     */
+    final String name;
+
+    /**
+     * Instantiates a new <code>Op</code> object.
+     *
+     * @author paouelle
+     *
+     * @param name the column name
+     */
+    Op(String name) {
+      this.name = name;
+    }
+
+    /**
+     * Combines this operation with a subsequent one.
+     *
+     * @author paouelle
+     *
+     * @param  op the subsequent operation
+     * @return the combined operation or <code>null</code> if they cannot be
+     *         combined
+     */
+    abstract Op merge(Op op);
+
+    /**
+     * Applies this operation to a collection value in memory.
+     *
+     * @author paouelle
+     *
+     * @param  value the current collection value (may be <code>null</code>)
+     * @return the resulting value or <code>null</code> if it cannot be applied
+     */
+    abstract Object apply(Object value);
+
+    /**
+     * Adds the assignments corresponding to this operation.
+     *
+     * @author paouelle
+     *
+     * @param assignments the list where to add assignments
+     */
+    abstract void addTo(List<Assignment> assignments);
+  }
+
+  /**
+   * The <code>SetOp</code> class defines an operation that sets a column to
+   * a given value.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 14, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  private static class SetOp extends Op {
+    /**
+     * Holds the assignment.
+     *
+     * @author paouelle
+     */
+    private final AssignmentImpl.SetAssignmentImpl assignment;
+
+    /**
+     * Instantiates a new <code>SetOp</code> object.
+     *
+     * @author paouelle
+     *
+     * @param assignment the set assignment
+     */
+    SetOp(AssignmentImpl.SetAssignmentImpl assignment) {
+      super(assignment.getColumnName().toString());
+      this.assignment = assignment;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.driver.impl.WriteBehindImpl.Op#merge(org.helenus.driver.impl.WriteBehindImpl.Op)
+     */
+    @SuppressWarnings("synthetic-access")
+    @Override
+    Op merge(Op op) {
+      if (op instanceof SetOp) { // last one wins
+        return op;
+      }
+      final Object value = op.apply(assignment.getValue());
+
+      return (value != null) ? new SetOp(assignment.withValue(value)) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.driver.impl.WriteBehindImpl.Op#apply(java.lang.Object)
+     */
+    @Override
+    Object apply(Object value) {
+      return assignment.getValue();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.driver.impl.WriteBehindImpl.Op#addTo(java.util.List)
+     */
+    @SuppressWarnings("synthetic-access")
+    @Override
+    void addTo(List<Assignment> assignments) {
+      assignments.add(assignment);
+    }
+  }
+
+  /**
+   * The <code>SetDeltaOp</code> class defines an operation that adds and/or
+   * removes elements to/from a set.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 14, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  private static class SetDeltaOp extends Op {
+    /**
+     * Holds the elements to add.
+     *
+     * @author paouelle
+     */
+    private final Set<Object> adds;
+
+    /**
+     * Holds the elements to remove.
+     *
+     * @author paouelle
+     */
+    private final Set<Object> removes;
+
+    /**
+     * Instantiates a new <code>SetDeltaOp</code> object.
+     *
+     * @author paouelle
+     *
+     * @param name the column name
+     * @param adds the elements to add or <code>null</code> if none
+     * @param removes the elements to remove or <code>null</code> if none
+     */
+    SetDeltaOp(String name, Set<Object> adds, Set<Object> removes) {
+      super(name);
+      this.adds = (adds != null) ? adds : new LinkedHashSet<>(4);
+      this.removes = (removes != null) ? removes : new LinkedHashSet<>(4);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.driver.impl.WriteBehindImpl.Op#merge(org.helenus.driver.impl.WriteBehindImpl.Op)
+     */
+    @SuppressWarnings("synthetic-access")
+    @Override
+    Op merge(Op op) {
+      if (op instanceof SetOp) {
+        return op;
+      } else if (!(op instanceof SetDeltaOp)) {
+        return null;
+      }
+      final SetDeltaOp sop = (SetDeltaOp)op;
+      final Set<Object> a = new LinkedHashSet<>(adds);
+      final Set<Object> r = new LinkedHashSet<>(removes);
+
+      a.removeAll(sop.removes);
+      a.addAll(sop.adds);
+      r.removeAll(sop.adds);
+      r.addAll(sop.removes);
+      return new SetDeltaOp(name, a, r);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.driver.impl.WriteBehindImpl.Op#apply(java.lang.Object)
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    Object apply(Object value) {
+      if ((value != null) && !(value instanceof Set)) {
+        return null;
+      }
+      final Set<Object> set = (value != null)
+        ? (Set<Object>)WriteBehindImpl.copy(value)
+        : new LinkedHashSet<>(adds.size() * 2);
+
+      set.removeAll(removes);
+      set.addAll(adds);
+      return set;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.driver.impl.WriteBehindImpl.Op#addTo(java.util.List)
+     */
+    @Override
+    void addTo(List<Assignment> assignments) {
+      if (!adds.isEmpty()) {
+        assignments.add(new AssignmentImpl.CollectionAssignmentImpl(
+          DataType.SET, name, adds, true
+        ));
+      }
+      if (!removes.isEmpty()) {
+        assignments.add(new AssignmentImpl.CollectionAssignmentImpl(
+          DataType.SET, name, removes, false
+        ));
+      }
+    }
+  }
+
+  /**
+   * The <code>MapOp</code> class defines an operation that puts mappings into
+   * and/or removes keys from a map.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 14, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  private static class MapOp extends Op {
+    /**
+     * Holds the mappings to put.
+     *
+     * @author paouelle
+     */
+    private final Map<Object, Object> puts;
+
+    /**
+     * Holds the keys to remove.
+     *
+     * @author paouelle
+     */
+    private final Set<Object> removes;
+
+    /**
+     * Instantiates a new <code>MapOp</code> object.
+     *
+     * @author paouelle
+     *
+     * @param name the column name
+     * @param puts the mappings to put or <code>null</code> if none
+     * @param removes the keys to remove or <code>null</code> if none
+     */
+    MapOp(String name, Map<Object, Object> puts, Set<Object> removes) {
+      super(name);
+      this.puts = (puts != null) ? puts : new LinkedHashMap<>(4);
+      this.removes = (removes != null) ? removes : new LinkedHashSet<>(4);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.driver.impl.WriteBehindImpl.Op#merge(org.helenus.driver.impl.WriteBehindImpl.Op)
+     */
+    @SuppressWarnings("synthetic-access")
+    @Override
+    Op merge(Op op) {
+      if (op instanceof SetOp) {
+        return op;
+      } else if (!(op instanceof MapOp)) {
+        return null;
+      }
+      final MapOp mop = (MapOp)op;
+      final Map<Object, Object> p = new LinkedHashMap<>(puts);
+      final Set<Object> r = new LinkedHashSet<>(removes);
+
+      p.keySet().removeAll(mop.removes);
+      p.putAll(mop.puts);
+      r.removeAll(mop.puts.keySet());
+      r.addAll(mop.removes);
+      return new MapOp(name, p, r);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.driver.impl.WriteBehindImpl.Op#apply(java.lang.Object)
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    Object apply(Object value) {
+      if ((value != null) && !(value instanceof Map)) {
+        return null;
+      }
+      final Map<Object, Object> map = (value != null)
+        ? (Map<Object, Object>)WriteBehindImpl.copy(value)
+        : new LinkedHashMap<>(puts.size() * 2);
+
+      map.keySet().removeAll(removes);
+      map.putAll(puts);
+      return map;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.driver.impl.WriteBehindImpl.Op#addTo(java.util.List)
+     */
+    @Override
+    void addTo(List<Assignment> assignments) {
+      if (!puts.isEmpty()) {
+        assignments.add(new AssignmentImpl.CollectionAssignmentImpl(
+          DataType.MAP, name, puts, true
+        ));
+      }
+      if (!removes.isEmpty()) {
+        assignments.add(new AssignmentImpl.CollectionAssignmentImpl(
+          DataType.SET, name, removes, false
+        ));
+      }
+    }
+  }
+
+  /**
+   * The <code>ListOp</code> class defines an operation that prepends and/or
+   * appends elements to a list.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 14, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  private static class ListOp extends Op {
+    /**
+     * Holds the elements to prepend.
+     *
+     * @author paouelle
+     */
+    private final List<Object> prepends;
+
+    /**
+     * Holds the elements to append.
+     *
+     * @author paouelle
+     */
+    private final List<Object> appends;
+
+    /**
+     * Instantiates a new <code>ListOp</code> object.
+     *
+     * @author paouelle
+     *
+     * @param name the column name
+     * @param prepends the elements to prepend or <code>null</code> if none
+     * @param appends the elements to append or <code>null</code> if none
+     */
+    ListOp(String name, List<Object> prepends, List<Object> appends) {
+      super(name);
+      this.prepends = (prepends != null) ? prepends : new ArrayList<>(4);
+      this.appends = (appends != null) ? appends : new ArrayList<>(4);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.driver.impl.WriteBehindImpl.Op#merge(org.helenus.driver.impl.WriteBehindImpl.Op)
+     */
+    @SuppressWarnings("synthetic-access")
+    @Override
+    Op merge(Op op) {
+      if (op instanceof SetOp) {
+        return op;
+      } else if (!(op instanceof ListOp)) {
+        return null;
+      }
+      final ListOp lop = (ListOp)op;
+      final List<Object> p = new ArrayList<>(lop.prepends.size() + prepends.size());
+      final List<Object> a = new ArrayList<>(appends.size() + lop.appends.size());
+
+      p.addAll(lop.prepends); // later prepends end up in front
+      p.addAll(prepends);
+      a.addAll(appends);
+      a.addAll(lop.appends);
+      return new ListOp(name, p, a);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.driver.impl.WriteBehindImpl.Op#apply(java.lang.Object)
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    Object apply(Object value) {
+      if (value == null) {
+        final List<Object> list = new ArrayList<>(prepends.size() + appends.size());
+
+        list.addAll(prepends);
+        list.addAll(appends);
+        return list;
+      } else if (value instanceof List) {
+        final List<Object> list = (List<Object>)WriteBehindImpl.copy(value);
+
+        list.addAll(0, prepends);
+        list.addAll(appends);
+        return list;
+      } else if ((value instanceof Set) && !(value instanceof SortedSet)) { // ordered set
+        final Set<Object> set = new LinkedHashSet<>(prepends);
+
+        set.addAll((Set<Object>)value);
+        set.addAll(appends);
+        return set;
+      }
+      return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.driver.impl.WriteBehindImpl.Op#addTo(java.util.List)
+     */
+    @Override
+    void addTo(List<Assignment> assignments) {
+      if (!prepends.isEmpty()) {
+        assignments.add(new AssignmentImpl.ListPrependAssignmentImpl(name, prepends));
+      }
+      if (!appends.isEmpty()) {
+        assignments.add(new AssignmentImpl.CollectionAssignmentImpl(
+          DataType.LIST, name, appends, true, false
+        ));
+      }
+    }
+  }
+
+  /**
+   * The <code>DiscardOp</code> class defines an operation that discards
+   * elements from a list.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 14, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  private static class DiscardOp extends Op {
+    /**
+     * Holds the elements to discard.
+     *
+     * @author paouelle
+     */
+    private final Set<Object> discards;
+
+    /**
+     * Instantiates a new <code>DiscardOp</code> object.
+     *
+     * @author paouelle
+     *
+     * @param name the column name
+     * @param discards the elements to discard
+     */
+    DiscardOp(String name, Set<Object> discards) {
+      super(name);
+      this.discards = discards;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.driver.impl.WriteBehindImpl.Op#merge(org.helenus.driver.impl.WriteBehindImpl.Op)
+     */
+    @SuppressWarnings("synthetic-access")
+    @Override
+    Op merge(Op op) {
+      if (op instanceof SetOp) {
+        return op;
+      } else if (!(op instanceof DiscardOp)) {
+        return null;
+      }
+      final Set<Object> d = new LinkedHashSet<>(discards);
+
+      d.addAll(((DiscardOp)op).discards);
+      return new DiscardOp(name, d);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.driver.impl.WriteBehindImpl.Op#apply(java.lang.Object)
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    Object apply(Object value) {
+      if (value == null) {
+        return new ArrayList<>(0);
+      } else if (!(value instanceof Collection)) {
+        return null;
+      }
+      final Collection<Object> c = (Collection<Object>)WriteBehindImpl.copy(value);
+
+      c.removeAll(discards);
+      return c;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.driver.impl.WriteBehindImpl.Op#addTo(java.util.List)
+     */
+    @Override
+    void addTo(List<Assignment> assignments) {
+      assignments.add(new AssignmentImpl.CollectionAssignmentImpl(
+        DataType.LIST, name, new ArrayList<>(discards), false
+      ));
+    }
+  }
+
+  /**
+   * The <code>SetIdxOp</code> class defines an operation that replaces
+   * elements at specific indexes in a list.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 14, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  private static class SetIdxOp extends Op {
+    /**
+     * Holds the values to set keyed by indexes.
+     *
+     * @author paouelle
+     */
+    private final SortedMap<Integer, Object> values;
+
+    /**
+     * Instantiates a new <code>SetIdxOp</code> object.
+     *
+     * @author paouelle
+     *
+     * @param name the column name
+     * @param values the values to set keyed by indexes
+     */
+    SetIdxOp(String name, SortedMap<Integer, Object> values) {
+      super(name);
+      this.values = values;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.driver.impl.WriteBehindImpl.Op#merge(org.helenus.driver.impl.WriteBehindImpl.Op)
+     */
+    @SuppressWarnings("synthetic-access")
+    @Override
+    Op merge(Op op) {
+      if (op instanceof SetOp) {
+        return op;
+      } else if (!(op instanceof SetIdxOp)) {
+        return null;
+      }
+      final SortedMap<Integer, Object> v = new TreeMap<>(values);
+
+      v.putAll(((SetIdxOp)op).values);
+      return new SetIdxOp(name, v);
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.driver.impl.WriteBehindImpl.Op#apply(java.lang.Object)
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    Object apply(Object value) {
+      if (!(value instanceof List) || (values.lastKey() >= ((List<?>)value).size())) {
+        return null; // let Cassandra report the error
+      }
+      final List<Object> list = (List<Object>)WriteBehindImpl.copy(value);
+
+      values.forEach(list::set);
+      return list;
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see org.helenus.driver.impl.WriteBehindImpl.Op#addTo(java.util.List)
+     */
+    @Override
+    void addTo(List<Assignment> assignments) {
+      values.forEach((i, v) -> assignments.add(
+        new AssignmentImpl.ListSetIdxAssignmentImpl(name, i, v)
+      ));
+    }
+  }
+}
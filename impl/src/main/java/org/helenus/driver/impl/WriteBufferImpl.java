@@ -0,0 +1,326 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import com.datastax.driver.core.ResultSet;
+import com.google.common.util.concurrent.FutureCallback;
+import com.google.common.util.concurrent.Futures;
+import com.google.common.util.concurrent.ListenableFuture;
+import com.google.common.util.concurrent.Uninterruptibles;
+
+import org.helenus.driver.BatchableStatement;
+import org.helenus.driver.GenericStatement;
+
+/**
+ * The <code>WriteBufferImpl</code> abstract class provides the common support
+ * for buffers which accumulate writes in memory and flush them periodically
+ * or on demand as unlogged batches grouped by partition.
+ * <p>
+ * Failures from background flushes are kept and reported by the next explicit
+ * flush. Explicit flushes wait for all requests in flight including those
+ * sent by background flushes.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 15, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+abstract class WriteBufferImpl {
+  /**
+   * Holds the logger.
+   *
+   * @author paouelle
+   */
+  private final static Logger logger = LogManager.getFormatterLogger(WriteBufferImpl.class);
+
+  /**
+   * Holds the statement manager.
+   *
+   * @author paouelle
+   */
+  protected final StatementManagerImpl mgr;
+
+  /**
+   * Holds the requests currently in flight.
+   *
+   * @author paouelle
+   */
+  private final Set<ListenableFuture<ResultSet>> inflight
+    = Collections.newSetFromMap(new ConcurrentHashMap<>(64));
+
+  /**
+   * Flag indicating if a background flush is currently scheduled.
+   *
+   * @author paouelle
+   */
+  private final AtomicBoolean flushing = new AtomicBoolean();
+
+  /**
+   * Holds the first error that occurred since the last explicit flush.
+   *
+   * @author paouelle
+   */
+  private final AtomicReference<Throwable> error = new AtomicReference<>();
+
+  /**
+   * Holds the maximum number of statements per batch.
+   *
+   * @author paouelle
+   */
+  protected volatile int batchSize = 20;
+
+  /**
+   * Holds the periodic flush task if any.
+   *
+   * @author paouelle
+   */
+  private ScheduledFuture<?> timer = null;
+
+  /**
+   * Flag indicating if this buffer was closed.
+   *
+   * @author paouelle
+   */
+  protected volatile boolean closed = false;
+
+  /**
+   * Instantiates a new <code>WriteBufferImpl</code> object.
+   *
+   * @author paouelle
+   *
+   * @param mgr the non-<code>null</code> statement manager
+   */
+  WriteBufferImpl(StatementManagerImpl mgr) {
+    this.mgr = mgr;
+  }
+
+  /**
+   * Removes everything pending from this buffer and sends it using
+   * {@link #send}.
+   * <p>
+   * <i>Note:</i> This method is always called while synchronized on this
+   * buffer such that an explicit flush waits for whatever was drained by a
+   * concurrent background flush to be sent.
+   *
+   * @author paouelle
+   */
+  protected abstract void drain();
+
+  /**
+   * Checks if anything is pending in this buffer.
+   *
+   * @author paouelle
+   *
+   * @return <code>true</code> if something is pending; <code>false</code>
+   *         otherwise
+   */
+  protected abstract boolean hasPending();
+
+  /**
+   * Validates that this buffer was not closed.
+   *
+   * @author paouelle
+   *
+   * @throws IllegalStateException if this buffer was closed
+   */
+  protected void validateNotClosed() {
+    org.apache.commons.lang3.Validate.validState(!closed, "buffer closed");
+  }
+
+  /**
+   * Schedules the periodic flush, cancelling any previous one.
+   *
+   * @author paouelle
+   *
+   * @param nanos the delay between flushes in nanoseconds or 0 to disable
+   */
+  protected synchronized void schedule(long nanos) {
+    if (timer != null) {
+      timer.cancel(false);
+      this.timer = null;
+    }
+    if (nanos > 0L) {
+      this.timer = mgr.getScheduledExecutor().scheduleWithFixedDelay(
+        this::trigger, nanos, nanos, TimeUnit.NANOSECONDS
+      );
+    }
+  }
+
+  /**
+   * Triggers a flush in the background unless one is already scheduled.
+   *
+   * @author paouelle
+   */
+  protected void trigger() {
+    if (hasPending() && flushing.compareAndSet(false, true)) {
+      try {
+        mgr.getPoolExecutor().execute(() -> {
+          try {
+            synchronized (this) {
+              drain();
+            }
+          } catch (Throwable t) {
+            failed(t);
+          } finally {
+            flushing.set(false);
+          }
+        });
+      } catch (Throwable t) { // most likely the executor was shut down
+        flushing.set(false);
+        failed(t);
+      }
+    }
+  }
+
+  /**
+   * Records a failure to be reported by the next explicit flush.
+   *
+   * @author paouelle
+   *
+   * @param t the failure
+   */
+  protected void failed(Throwable t) {
+    if (!error.compareAndSet(null, t)) {
+      WriteBufferImpl.logger.warn("%s flush failed", getClass().getSimpleName(), t);
+    }
+  }
+
+  /**
+   * Sends the specified statements as unlogged batches of at most the
+   * configured batch size.
+   *
+   * @author paouelle
+   *
+   * @param groups the statements to send grouped by partition
+   */
+  protected void send(Map<List<Object>, List<BatchableStatement<?, ?>>> groups) {
+    final int size = batchSize;
+
+    for (final List<BatchableStatement<?, ?>> group: groups.values()) {
+      for (int i = 0; i < group.size(); i += size) {
+        final List<BatchableStatement<?, ?>> chunk
+          = group.subList(i, Math.min(i + size, group.size()));
+
+        execute((chunk.size() == 1)
+          ? (GenericStatement<?, ?>)chunk.get(0)
+          : mgr.unloggedBatch(Optional.empty(), new ArrayList<>(chunk))
+        );
+      }
+    }
+  }
+
+  /**
+   * Executes the specified statement and tracks it until it completes.
+   *
+   * @author paouelle
+   *
+   * @param  statement the statement to execute
+   * @return the future for the statement's execution or <code>null</code> if
+   *         it failed to be sent
+   */
+  protected ListenableFuture<ResultSet> execute(GenericStatement<?, ?> statement) {
+    final ListenableFuture<ResultSet> future;
+
+    try {
+      future = statement.executeAsyncRaw();
+    } catch (Throwable t) {
+      failed(t);
+      return null;
+    }
+    inflight.add(future);
+    Futures.addCallback(future, new FutureCallback<ResultSet>() {
+      @SuppressWarnings("synthetic-access")
+      @Override
+      public void onSuccess(ResultSet result) {
+        inflight.remove(future);
+      }
+      @SuppressWarnings("synthetic-access")
+      @Override
+      public void onFailure(Throwable t) {
+        inflight.remove(future);
+        failed(t);
+      }
+    }, mgr.getDirectExecutor());
+    return future;
+  }
+
+  /**
+   * Sends everything pending, waits for all requests in flight to complete,
+   * and reports the first failure that occurred since the last explicit flush.
+   *
+   * @author paouelle
+   *
+   * @throws com.datastax.driver.core.exceptions.DriverException if a request
+   *         failed
+   */
+  public void flush() {
+    synchronized (this) {
+      drain();
+    }
+    try { // wait for everything in flight including background flushes
+      Uninterruptibles.getUninterruptibly(Futures.successfulAsList(inflight));
+    } catch (ExecutionException e) { // should not happen with successfulAsList()
+      error.compareAndSet(null, e.getCause());
+    }
+    final Throwable t = error.getAndSet(null);
+
+    if (t != null) {
+      if (t instanceof Error) {
+        throw (Error)t;
+      } else if ((t instanceof RuntimeException)
+                 && !(t instanceof com.datastax.driver.core.exceptions.DriverException)) {
+        throw (RuntimeException)t;
+      }
+      throw StatementImpl.propagateCause(new ExecutionException(t));
+    }
+  }
+
+  /**
+   * Stops the periodic flush and flushes everything pending. No more writes
+   * can be recorded afterward.
+   *
+   * @author paouelle
+   *
+   * @throws com.datastax.driver.core.exceptions.DriverException if a request
+   *         failed
+   */
+  public void close() {
+    if (closed) {
+      return;
+    }
+    this.closed = true;
+    schedule(0L);
+    flush();
+  }
+}
@@ -1191,10 +1191,13 @@ public class Tool {
       if (pkg == null) {
         continue;
       }
-      // search for all object creator classes
-      for (final Class<?> clazz: new Reflections(pkg).getTypesAnnotatedWith(
-        org.helenus.driver.persistence.ObjectCreator.class, true
-      )) {
+      // search for all object creator classes using the compile-time index
+      // if it covers the package
+      final Set<Class<?>> creators = StatementManagerImpl.findTypesAnnotatedWith(
+        pkg
+      ).apply(org.helenus.driver.persistence.ObjectCreator.class);
+
+      for (final Class<?> clazz: creators) {
         final Map<Method, Class<?>[]> initials = Tool.findInitials(clazz);
 
         if (initials.isEmpty()) {
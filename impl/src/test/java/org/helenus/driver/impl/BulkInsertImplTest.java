@@ -0,0 +1,211 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.impl;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import mockit.Mocked;
+
+import org.helenus.driver.BulkInsert;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * The <code>BulkInsertImplTest</code> class tests the configuration and the
+ * life cycle of bulk inserts.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class BulkInsertImplTest {
+  /**
+   * Holds the statement manager. No statements are ever sent since the tests
+   * never provide any POJOs.
+   *
+   * @author paouelle
+   */
+  @Mocked
+  private StatementManagerImpl mgr;
+
+  /**
+   * Creates a bulk insert for an empty source of POJOs.
+   *
+   * @author paouelle
+   *
+   * @return the corresponding bulk insert
+   */
+  private BulkInsertImpl<Object> empty() {
+    return new BulkInsertImpl<>(Collections.emptyIterator(), mgr);
+  }
+
+  /**
+   * Tests that a <code>null</code> source is rejected.
+   *
+   * @author paouelle
+   */
+  @Test(expected=NullPointerException.class)
+  public void testNullObjects() {
+    new BulkInsertImpl<>(null, mgr);
+  }
+
+  /**
+   * Tests that invalid settings are rejected.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testInvalidSettings() {
+    final BulkInsertImpl<Object> bulk = empty();
+
+    try {
+      bulk.batchSize(0);
+      Assert.fail("expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) { // expected
+    }
+    try {
+      bulk.window(0);
+      Assert.fail("expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) { // expected
+    }
+    try {
+      bulk.inflight(0);
+      Assert.fail("expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) { // expected
+    }
+    try {
+      bulk.retries(-1, 1L, TimeUnit.SECONDS);
+      Assert.fail("expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) { // expected
+    }
+    try {
+      bulk.retries(1, -1L, TimeUnit.SECONDS);
+      Assert.fail("expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) { // expected
+    }
+    try {
+      bulk.progress(p -> {}, -1L, TimeUnit.SECONDS);
+      Assert.fail("expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) { // expected
+    }
+    try {
+      bulk.into();
+      Assert.fail("expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) { // expected
+    }
+    try {
+      bulk.into("t", null);
+      Assert.fail("expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) { // expected
+    }
+    try {
+      bulk.retries(1, 1L, null);
+      Assert.fail("expected NullPointerException");
+    } catch (NullPointerException e) { // expected
+    }
+  }
+
+  /**
+   * Tests that an empty source completes right away and reports its final
+   * progress.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testEmpty() {
+    final List<BulkInsert.Progress> reports = new ArrayList<>(2);
+    final BulkInsertImpl<Object> bulk = empty();
+
+    bulk.batchSize(10).window(100).inflight(4).progress(reports::add, 1L, TimeUnit.HOURS);
+    Assert.assertFalse(bulk.getProgress().isDone());
+    final BulkInsert.Progress progress = bulk.execute();
+
+    Assert.assertTrue(progress.isDone());
+    Assert.assertEquals(0L, progress.getObjects());
+    Assert.assertEquals(0L, progress.getStatements());
+    Assert.assertEquals(0L, progress.getRequests());
+    Assert.assertEquals(0, progress.getInflight());
+    Assert.assertEquals(1, reports.size()); // final report is always sent
+    Assert.assertTrue(reports.get(0).isDone());
+  }
+
+  /**
+   * Tests that a bulk insert can only be configured and executed once.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testExecutedOnce() {
+    final BulkInsertImpl<Object> bulk = empty();
+
+    bulk.execute();
+    try {
+      bulk.execute();
+      Assert.fail("expected IllegalStateException");
+    } catch (IllegalStateException e) { // expected
+    }
+    try {
+      bulk.batchSize(10);
+      Assert.fail("expected IllegalStateException");
+    } catch (IllegalStateException e) { // expected
+    }
+    try {
+      bulk.executeAsync();
+      Assert.fail("expected IllegalStateException");
+    } catch (IllegalStateException e) { // expected
+    }
+  }
+
+  /**
+   * Tests that a failure while pulling POJOs from the source is propagated.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testSourceFailure() {
+    final IllegalStateException failure = new IllegalStateException("source failed");
+    final BulkInsertImpl<Object> bulk = new BulkInsertImpl<>(
+      new Iterator<Object>() {
+        @Override
+        public boolean hasNext() {
+          return true;
+        }
+        @Override
+        public Object next() {
+          throw failure;
+        }
+      },
+      mgr
+    );
+
+    try {
+      bulk.execute();
+      Assert.fail("expected IllegalStateException");
+    } catch (IllegalStateException e) {
+      Assert.assertSame(failure, e);
+    }
+    Assert.assertTrue(bulk.getProgress().isDone());
+    Assert.assertEquals(1L, bulk.getProgress().getObjects());
+    Assert.assertEquals(0L, bulk.getProgress().getRequests());
+  }
+}
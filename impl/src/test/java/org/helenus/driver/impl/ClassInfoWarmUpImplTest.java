@@ -0,0 +1,176 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import mockit.Delegate;
+import mockit.Expectations;
+import mockit.Mocked;
+
+import org.helenus.driver.persistence.RootEntity;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * The <code>ClassInfoWarmUpImplTest</code> class tests the warm-up of POJO
+ * class infos.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class ClassInfoWarmUpImplTest {
+  /**
+   * The <code>Root</code> class defines a root POJO class.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 18, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  @RootEntity(types=Child.class)
+  static class Root {}
+
+  /**
+   * The <code>Child</code> class defines a type POJO class of a root.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 18, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  static class Child extends Root {}
+
+  /**
+   * The <code>Abstract</code> class defines an abstract POJO class.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 18, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  abstract static class Abstract {}
+
+  /**
+   * The <code>Failing</code> class defines a POJO class whose class info
+   * cannot be built.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 18, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  static class Failing {}
+
+  /**
+   * Holds the statement manager used to build class infos.
+   *
+   * @author paouelle
+   */
+  @Mocked
+  private StatementManagerImpl mgr;
+
+  /**
+   * Tests that invalid arguments are rejected.
+   *
+   * @author paouelle
+   *
+   * @throws InterruptedException if the test fails
+   */
+  @Test
+  public void testInvalidArguments() throws InterruptedException {
+    try {
+      new ClassInfoWarmUpImpl(mgr, null, Root.class);
+      Assert.fail("expected NullPointerException");
+    } catch (NullPointerException e) { // expected
+    }
+    try {
+      new ClassInfoWarmUpImpl(mgr, Collections.emptyList(), Root.class, 42);
+      Assert.fail("expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) { // expected
+    }
+    try {
+      new ClassInfoWarmUpImpl(mgr, Collections.emptyList(), Root.class).run(0);
+      Assert.fail("expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) { // expected
+    }
+  }
+
+  /**
+   * Tests that roots are built before other classes, that abstract classes
+   * are skipped, and that failures are reported without aborting the
+   * warm-up.
+   *
+   * @author paouelle
+   *
+   * @throws InterruptedException if the test fails
+   */
+  @Test
+  public void testRun() throws InterruptedException {
+    final IllegalArgumentException failure = new IllegalArgumentException("invalid POJO");
+    final List<Class<?>> built = Collections.synchronizedList(new ArrayList<>(4));
+
+    new Expectations() {{
+      mgr.getClassInfoImpl((Class<?>)any);
+      result = new Delegate<ClassInfoImpl<?>>() {
+        @SuppressWarnings("unused")
+        ClassInfoImpl<?> getClassInfoImpl(Class<?> clazz) {
+          built.add(clazz);
+          if (clazz == Failing.class) {
+            throw failure;
+          }
+          return null; // no codecs to resolve
+        }
+      };
+    }};
+    final ClassInfoWarmUpImpl warmup = new ClassInfoWarmUpImpl(
+      mgr,
+      Collections.singletonList("test"),
+      Failing.class, Child.class, Abstract.class, null, Root.class
+    ).run(2);
+
+    Assert.assertEquals(3, built.size());
+    Assert.assertEquals(Root.class, built.get(0));
+    Assert.assertEquals(3, warmup.getNumClasses());
+    Assert.assertEquals(0L, warmup.getNumCodecs());
+    Assert.assertEquals(Collections.singletonMap(Failing.class, failure), warmup.getFailures());
+    Assert.assertEquals(
+      new LinkedHashSet<>(Arrays.asList(Root.class, Child.class, Failing.class)),
+      new LinkedHashSet<>(warmup.getTimings(TimeUnit.NANOSECONDS).keySet())
+    );
+    Assert.assertTrue(
+      warmup.getDuration(TimeUnit.NANOSECONDS)
+      >= warmup.getClassInfosDuration(TimeUnit.NANOSECONDS)
+    );
+  }
+}
@@ -0,0 +1,318 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.impl;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import java.nio.charset.StandardCharsets;
+
+import com.datastax.driver.core.ConsistencyLevel;
+import com.datastax.driver.core.WriteType;
+import com.datastax.driver.core.exceptions.NoHostAvailableException;
+import com.datastax.driver.core.exceptions.UnavailableException;
+import com.datastax.driver.core.exceptions.WriteTimeoutException;
+
+import mockit.Mocked;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+/**
+ * The <code>MutationSpoolImplTest</code> class tests the spooling of mutations
+ * to disk and their recovery when the spool is reopened.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class MutationSpoolImplTest {
+  /**
+   * Holds the size of a segment's header.
+   *
+   * @author paouelle
+   */
+  private final static int HEADER_SIZE = 16;
+
+  /**
+   * Holds the number of bytes used by a record in addition to its query.
+   *
+   * @author paouelle
+   */
+  private final static int RECORD_OVERHEAD = 21;
+
+  /**
+   * Holds the statement manager used to schedule replays. Replays never run
+   * since the scheduled executor is mocked.
+   *
+   * @author paouelle
+   */
+  @Mocked
+  private StatementManagerImpl mgr;
+
+  /**
+   * Holds the temporary folder where to store segments.
+   *
+   * @author paouelle
+   */
+  @Rule
+  public final TemporaryFolder folder = new TemporaryFolder();
+
+  /**
+   * Gets a query string of the specified length.
+   *
+   * @author paouelle
+   *
+   * @param  length the length of the query
+   * @return the corresponding query string
+   */
+  private static String query(int length) {
+    final StringBuilder sb = new StringBuilder(length);
+
+    while (sb.length() < length) {
+      sb.append('x');
+    }
+    return sb.toString();
+  }
+
+  /**
+   * Gets the number of segment files in the specified directory.
+   *
+   * @author paouelle
+   *
+   * @param  dir the directory to check
+   * @return the number of segment files
+   */
+  private static int segments(File dir) {
+    return dir.list((d, n) -> n.endsWith(".spool")).length;
+  }
+
+  /**
+   * Tests that invalid sizes are rejected.
+   *
+   * @author paouelle
+   *
+   * @throws IOException if the test fails
+   */
+  @Test
+  public void testInvalidSizes() throws IOException {
+    final File dir = folder.newFolder();
+
+    try {
+      new MutationSpoolImpl(
+        mgr,
+        dir,
+        MutationSpoolImplTest.HEADER_SIZE + MutationSpoolImplTest.RECORD_OVERHEAD,
+        4096L
+      );
+      Assert.fail("expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) { // expected
+    }
+    try {
+      new MutationSpoolImpl(mgr, dir, 1024, 1023L);
+      Assert.fail("expected IllegalArgumentException");
+    } catch (IllegalArgumentException e) { // expected
+    }
+  }
+
+  /**
+   * Tests that availability failures are distinguished from other failures.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testIsUnavailable() {
+    Assert.assertTrue(MutationSpoolImpl.isUnavailable(
+      new NoHostAvailableException(Collections.emptyMap())
+    ));
+    Assert.assertTrue(MutationSpoolImpl.isUnavailable(
+      new UnavailableException(ConsistencyLevel.QUORUM, 2, 1)
+    ));
+    Assert.assertFalse(MutationSpoolImpl.isUnavailable(
+      new WriteTimeoutException(ConsistencyLevel.QUORUM, WriteType.SIMPLE, 1, 2)
+    ));
+    Assert.assertFalse(MutationSpoolImpl.isUnavailable(new IllegalStateException()));
+  }
+
+  /**
+   * Tests that spooled mutations are kept on disk when closed and recovered
+   * when reopened.
+   *
+   * @author paouelle
+   *
+   * @throws IOException if the test fails
+   */
+  @Test
+  public void testRecover() throws IOException {
+    final File dir = folder.newFolder();
+    final MutationSpoolImpl spool = new MutationSpoolImpl(mgr, dir, 1024, 4096L);
+
+    Assert.assertEquals(0, spool.getRecoveredMutations());
+    Assert.assertEquals(0L, spool.getLag(TimeUnit.MILLISECONDS));
+    for (int i = 0; i < 3; i++) {
+      Assert.assertTrue(spool.append(
+        "UPDATE t SET v=" + i + " WHERE k=1", ConsistencyLevel.QUORUM, i
+      ));
+    }
+    Assert.assertEquals(3, spool.getPendingMutations());
+    Assert.assertEquals(3L, spool.getSpooledMutations());
+    Assert.assertEquals(1, spool.getSegments());
+    Assert.assertTrue(spool.getLag(TimeUnit.MILLISECONDS) >= 0L);
+    spool.close();
+    Assert.assertFalse(spool.append("DELETE FROM t WHERE k=1", null, 3L));
+    Assert.assertEquals(1L, spool.getRejectedMutations());
+    Assert.assertEquals(1, MutationSpoolImplTest.segments(dir));
+    final MutationSpoolImpl reopened = new MutationSpoolImpl(mgr, dir, 1024, 4096L);
+
+    try {
+      Assert.assertEquals(3, reopened.getRecoveredMutations());
+      Assert.assertEquals(3, reopened.getPendingMutations());
+      Assert.assertEquals(0L, reopened.getSpooledMutations());
+      // appends continue after the recovered mutations
+      Assert.assertTrue(reopened.append("DELETE FROM t WHERE k=1", null, 3L));
+      Assert.assertEquals(4, reopened.getPendingMutations());
+      Assert.assertEquals(1, reopened.getSegments());
+    } finally {
+      reopened.close();
+    }
+  }
+
+  /**
+   * Tests that new segments are allocated as needed until the spool is full.
+   *
+   * @author paouelle
+   *
+   * @throws IOException if the test fails
+   */
+  @Test
+  public void testFull() throws IOException {
+    final File dir = folder.newFolder();
+    // only one 50 bytes query fits in each segment
+    final MutationSpoolImpl spool = new MutationSpoolImpl(mgr, dir, 128, 256L);
+    final String query = MutationSpoolImplTest.query(50);
+
+    try {
+      Assert.assertTrue(spool.append(query, ConsistencyLevel.ONE, 1L));
+      Assert.assertTrue(spool.append(query, ConsistencyLevel.ONE, 2L));
+      Assert.assertEquals(2, spool.getSegments());
+      Assert.assertEquals(256L, spool.getSize());
+      Assert.assertFalse(spool.append(query, ConsistencyLevel.ONE, 3L));
+      Assert.assertEquals(2, spool.getPendingMutations());
+      Assert.assertEquals(2L, spool.getSpooledMutations());
+      Assert.assertEquals(1L, spool.getRejectedMutations());
+    } finally {
+      spool.close();
+    }
+    Assert.assertEquals(2, MutationSpoolImplTest.segments(dir));
+  }
+
+  /**
+   * Tests that mutations too large for a segment are rejected and that empty
+   * segments are deleted when closed.
+   *
+   * @author paouelle
+   *
+   * @throws IOException if the test fails
+   */
+  @Test
+  public void testTooLarge() throws IOException {
+    final File dir = folder.newFolder();
+    final MutationSpoolImpl spool = new MutationSpoolImpl(mgr, dir, 128, 4096L);
+
+    try {
+      Assert.assertFalse(spool.append(MutationSpoolImplTest.query(128), null, 1L));
+      Assert.assertEquals(0, spool.getPendingMutations());
+      Assert.assertEquals(1L, spool.getRejectedMutations());
+    } finally {
+      spool.close();
+    }
+    Assert.assertEquals(0, MutationSpoolImplTest.segments(dir));
+  }
+
+  /**
+   * Tests that a partially written record is discarded when recovering.
+   *
+   * @author paouelle
+   *
+   * @throws IOException if the test fails
+   */
+  @Test
+  public void testPartiallyWritten() throws IOException {
+    final File dir = folder.newFolder();
+    final MutationSpoolImpl spool = new MutationSpoolImpl(mgr, dir, 1024, 4096L);
+    final String query = "UPDATE t SET v=1 WHERE k=1";
+
+    Assert.assertTrue(spool.append(query, ConsistencyLevel.ONE, 1L));
+    Assert.assertTrue(spool.append(query, ConsistencyLevel.ONE, 2L));
+    spool.close();
+    // the length of a record is written last; clear it for the 2nd record
+    try (
+      final RandomAccessFile raf = new RandomAccessFile(
+        dir.listFiles((d, n) -> n.endsWith(".spool"))[0], "rw"
+      );
+    ) {
+      raf.seek(
+        MutationSpoolImplTest.HEADER_SIZE
+        + MutationSpoolImplTest.RECORD_OVERHEAD
+        + query.getBytes(StandardCharsets.UTF_8).length
+      );
+      raf.writeInt(0);
+    }
+    final MutationSpoolImpl reopened = new MutationSpoolImpl(mgr, dir, 1024, 4096L);
+
+    try {
+      Assert.assertEquals(1, reopened.getRecoveredMutations());
+    } finally {
+      reopened.close();
+    }
+  }
+
+  /**
+   * Tests that files which are not segments are reported as corrupted.
+   *
+   * @author paouelle
+   *
+   * @throws IOException if the test fails
+   */
+  @Test
+  public void testCorrupted() throws IOException {
+    final File dir = folder.newFolder();
+
+    try (
+      final RandomAccessFile raf = new RandomAccessFile(
+        new File(dir, "0000000000000000.spool"), "rw"
+      );
+    ) {
+      raf.writeInt(0xcafebabe);
+      raf.writeInt(0);
+      raf.writeLong(12345L);
+    }
+    try {
+      new MutationSpoolImpl(mgr, dir, 1024, 4096L);
+      Assert.fail("expected IOException");
+    } catch (IOException e) { // expected
+    }
+  }
+}
@@ -0,0 +1,292 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.impl;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.TypeCodec;
+
+import org.helenus.driver.persistence.DataType;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * The <code>UpdateImplDiffTest</code> class tests the reduction of snapshotted
+ * collection columns to minimal element assignments and the detection of
+ * unchanged column values.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 18, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class UpdateImplDiffTest {
+  /**
+   * Holds the protocol version used to fingerprint values.
+   *
+   * @author paouelle
+   */
+  private final static ProtocolVersion PVERSION = ProtocolVersion.V4;
+
+  /**
+   * Gets the single assignment from the specified list.
+   *
+   * @author paouelle
+   *
+   * @param <A> the type of assignment expected
+   *
+   * @param  deltas the list of assignments
+   * @param  clazz the class of assignment expected
+   * @return the single assignment
+   */
+  private static <A extends AssignmentImpl> A single(
+    List<AssignmentImpl> deltas, Class<A> clazz
+  ) {
+    Assert.assertNotNull("expected deltas", deltas);
+    Assert.assertEquals(1, deltas.size());
+    Assert.assertTrue(clazz.isInstance(deltas.get(0)));
+    return clazz.cast(deltas.get(0));
+  }
+
+  /**
+   * Tests that elements appended to a list are reduced to a non-idempotent
+   * append.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testListAppend() {
+    final AssignmentImpl.CollectionAssignmentImpl a = single(
+      UpdateImpl.diffCollection(
+        DataType.LIST, "l", Arrays.asList(1, 2), Arrays.asList(1, 2, 3, 4)
+      ),
+      AssignmentImpl.CollectionAssignmentImpl.class
+    );
+
+    Assert.assertTrue(a.isAdd());
+    Assert.assertEquals(Arrays.asList(3, 4), a.getCollection());
+    Assert.assertFalse(a.isIdempotent());
+  }
+
+  /**
+   * Tests that elements prepended to a list are reduced to a non-idempotent
+   * prepend.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testListPrepend() {
+    final AssignmentImpl.ListPrependAssignmentImpl a = single(
+      UpdateImpl.diffCollection(
+        DataType.LIST, "l", Arrays.asList(3), Arrays.asList(1, 2, 3)
+      ),
+      AssignmentImpl.ListPrependAssignmentImpl.class
+    );
+
+    Assert.assertEquals(Arrays.asList(1, 2), a.getValue());
+    Assert.assertFalse(a.isIdempotent());
+  }
+
+  /**
+   * Tests that values removed from a list are reduced to an idempotent
+   * discard when all their occurrences were removed.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testListDiscard() {
+    final AssignmentImpl.CollectionAssignmentImpl a = single(
+      UpdateImpl.diffCollection(
+        DataType.LIST, "l", Arrays.asList(1, 2, 1, 3), Arrays.asList(2, 3)
+      ),
+      AssignmentImpl.CollectionAssignmentImpl.class
+    );
+
+    Assert.assertFalse(a.isAdd());
+    Assert.assertEquals(Arrays.asList(1), a.getCollection());
+    Assert.assertTrue(a.isIdempotent());
+  }
+
+  /**
+   * Tests that list changes which cannot be reduced fallback to overwriting
+   * the list.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testListOverwrite() {
+    // reordered
+    Assert.assertNull(UpdateImpl.diffCollection(
+      DataType.LIST, "l", Arrays.asList(1, 2), Arrays.asList(2, 1)
+    ));
+    // only one of many occurrences removed
+    Assert.assertNull(UpdateImpl.diffCollection(
+      DataType.LIST, "l", Arrays.asList(1, 2, 1), Arrays.asList(2, 1)
+    ));
+    // appended and prepended
+    Assert.assertNull(UpdateImpl.diffCollection(
+      DataType.LIST, "l", Arrays.asList(2), Arrays.asList(1, 2, 3)
+    ));
+    // set to null
+    Assert.assertNull(UpdateImpl.diffCollection(
+      DataType.LIST, "l", Arrays.asList(1), null
+    ));
+  }
+
+  /**
+   * Tests that ordered sets are never reduced to prepends.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testOrderedSetPrepend() {
+    Assert.assertNull(UpdateImpl.diffCollection(
+      DataType.ORDERED_SET, "os", Arrays.asList(3), Arrays.asList(1, 2, 3)
+    ));
+  }
+
+  /**
+   * Tests that set changes are reduced to idempotent additions and removals.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testSetAddAndRemove() {
+    final List<AssignmentImpl> deltas = UpdateImpl.diffCollection(
+      DataType.SET,
+      "s",
+      new LinkedHashSet<>(Arrays.asList("a", "b")),
+      new LinkedHashSet<>(Arrays.asList("b", "c"))
+    );
+
+    Assert.assertNotNull(deltas);
+    Assert.assertEquals(2, deltas.size());
+    final AssignmentImpl.CollectionAssignmentImpl add
+      = (AssignmentImpl.CollectionAssignmentImpl)deltas.get(0);
+    final AssignmentImpl.CollectionAssignmentImpl remove
+      = (AssignmentImpl.CollectionAssignmentImpl)deltas.get(1);
+
+    Assert.assertTrue(add.isAdd());
+    Assert.assertEquals(Collections.singleton("c"), add.getCollection());
+    Assert.assertTrue(add.isIdempotent());
+    Assert.assertFalse(remove.isAdd());
+    Assert.assertEquals(Collections.singleton("a"), remove.getCollection());
+    Assert.assertTrue(remove.isIdempotent());
+  }
+
+  /**
+   * Tests that keys removed from a map are reduced to an idempotent key
+   * removal.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testMapKeyRemoval() {
+    final Map<String, Integer> old = new LinkedHashMap<>(4);
+
+    old.put("a", 1);
+    old.put("b", 2);
+    final AssignmentImpl.CollectionAssignmentImpl a = single(
+      UpdateImpl.diffCollection(
+        DataType.MAP, "m", old, Collections.singletonMap("a", 1)
+      ),
+      AssignmentImpl.CollectionAssignmentImpl.class
+    );
+
+    Assert.assertFalse(a.isAdd());
+    Assert.assertEquals(Collections.singleton("b"), a.getCollection());
+    Assert.assertTrue(a.isIdempotent());
+  }
+
+  /**
+   * Tests that new or changed mappings are reduced to an idempotent put.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testMapPut() {
+    final Map<String, Integer> value = new LinkedHashMap<>(4);
+
+    value.put("a", 3);
+    value.put("b", 2);
+    final AssignmentImpl.CollectionAssignmentImpl a = single(
+      UpdateImpl.diffCollection(
+        DataType.MAP, "m", Collections.singletonMap("a", 1), value
+      ),
+      AssignmentImpl.CollectionAssignmentImpl.class
+    );
+
+    Assert.assertTrue(a.isAdd());
+    Assert.assertEquals(value, a.getCollection());
+    Assert.assertTrue(a.isIdempotent());
+  }
+
+  /**
+   * Tests that an unchanged collection yields no deltas such that the caller
+   * falls back to the fingerprint comparison.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testUnchangedCollection() {
+    Assert.assertNull(UpdateImpl.diffCollection(
+      DataType.LIST, "l", Arrays.asList(1, 2), Arrays.asList(1, 2)
+    ));
+    Assert.assertNull(UpdateImpl.diffCollection(
+      DataType.SET,
+      "s",
+      new LinkedHashSet<>(Arrays.asList(1, 2)),
+      new LinkedHashSet<>(Arrays.asList(2, 1))
+    ));
+  }
+
+  /**
+   * Tests that unchanged values are detected through their fingerprints and
+   * that values mutated in place are not.
+   *
+   * @author paouelle
+   */
+  @Test
+  public void testUnchangedDetection() {
+    final TypeCodec<List<Integer>> codec = TypeCodec.list(TypeCodec.cint());
+    final List<Integer> list = new ArrayList<>(Arrays.asList(1, 2, 3));
+    final Long fp = StatementManagerImpl.fingerprint(list, codec, PVERSION);
+
+    Assert.assertNotNull(fp);
+    Assert.assertEquals(
+      fp, StatementManagerImpl.fingerprint(new ArrayList<>(list), codec, PVERSION)
+    );
+    list.add(4);
+    Assert.assertNotEquals(
+      fp, StatementManagerImpl.fingerprint(list, codec, PVERSION)
+    );
+    Assert.assertEquals(
+      StatementManagerImpl.fingerprint(null, codec, PVERSION),
+      StatementManagerImpl.fingerprint(Optional.empty(), codec, PVERSION)
+    );
+    Assert.assertNull(StatementManagerImpl.fingerprint(list, null, PVERSION));
+  }
+}
@@ -0,0 +1,779 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.sstable;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import java.nio.ByteBuffer;
+
+import org.apache.commons.lang3.Validate;
+import org.apache.commons.lang3.tuple.Triple;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+import org.apache.cassandra.db.marshal.CompositeType;
+import org.apache.cassandra.dht.Murmur3Partitioner;
+import org.apache.cassandra.exceptions.SyntaxException;
+import org.apache.cassandra.io.sstable.CQLSSTableWriter;
+import org.apache.cassandra.utils.ByteBufferUtil;
+
+import com.datastax.driver.core.ProtocolVersion;
+import com.datastax.driver.core.TypeCodec;
+
+import org.helenus.driver.Clause;
+import org.helenus.driver.CreateTable;
+import org.helenus.driver.CreateType;
+import org.helenus.driver.StatementBuilder;
+import org.helenus.driver.impl.ClassInfoImpl;
+import org.helenus.driver.impl.FieldInfoImpl;
+import org.helenus.driver.impl.StatementImpl;
+import org.helenus.driver.impl.StatementManagerImpl;
+import org.helenus.driver.impl.TableInfoImpl;
+import org.helenus.driver.impl.UDTClassInfoImpl;
+import org.helenus.driver.info.TableInfo;
+import org.helenus.driver.persistence.CQLDataType;
+
+/**
+ * The <code>ObjectSSTableWriter</code> class writes POJOs directly into
+ * SSTables using Cassandra's {@link CQLSSTableWriter}, bypassing the CQL write
+ * path altogether. The resulting SSTables can then be streamed into a live
+ * cluster using <code>sstableloader</code>.
+ * <p>
+ * A separate set of SSTables is written for each keyspace and table the POJOs
+ * are persisted to and for each token range of the Murmur3 ring. Rows are
+ * routed to the writer of the token range their partition falls in such that
+ * writers for different ranges can be fed concurrently from a parallel
+ * stream. SSTables are organized as:
+ * <pre>
+ *   &lt;directory&gt;/&lt;range&gt;/&lt;keyspace&gt;/&lt;table&gt;
+ * </pre>
+ * <p>
+ * The schema of each table is the one generated by
+ * {@link StatementBuilder#createTable} and the rows are extracted from the
+ * POJOs exactly like {@link StatementBuilder#insert} would; including the
+ * additional lower case columns for case insensitive keys and the separate
+ * rows for each value of multi-keys.
+ * <p>
+ * <i>Note:</i> Null values are written as unset columns rather than
+ * tombstones. Tables with counter columns cannot be written this way and are
+ * skipped. User-defined type columns require the statement manager to have
+ * access to the keyspace metadata in order to encode their values.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 13, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class ObjectSSTableWriter implements Closeable {
+  /**
+   * Holds the logger.
+   *
+   * @author paouelle
+   */
+  private final static Logger logger = LogManager.getFormatterLogger(ObjectSSTableWriter.class);
+
+  /**
+   * Holds the pattern for unquoted CQL identifiers.
+   *
+   * @author paouelle
+   */
+  private final static Pattern UNQUOTED = Pattern.compile("[a-z][a-z0-9_]*");
+
+  /**
+   * Creates a new builder for an SSTable writer.
+   *
+   * @author paouelle
+   *
+   * @param  mgr the statement manager to use for POJO metadata
+   * @return a new builder
+   * @throws NullPointerException if <code>mgr</code> is <code>null</code>
+   */
+  public static Builder builder(StatementManagerImpl mgr) {
+    Validate.notNull(mgr, "invalid null statement manager");
+    return new Builder(mgr);
+  }
+
+  /**
+   * Appends a CQL identifier to the specified builder, quoting it if needed.
+   *
+   * @author paouelle
+   *
+   * @param  sb the builder to append to
+   * @param  name the identifier to append
+   * @return <code>sb</code>
+   */
+  private static StringBuilder appendName(StringBuilder sb, String name) {
+    if (ObjectSSTableWriter.UNQUOTED.matcher(name).matches()) {
+      return sb.append(name);
+    }
+    return sb.append('"').append(name.replace("\"", "\"\"")).append('"');
+  }
+
+  /**
+   * Holds the statement manager.
+   *
+   * @author paouelle
+   */
+  private final StatementManagerImpl mgr;
+
+  /**
+   * Holds the output directory.
+   *
+   * @author paouelle
+   */
+  private final File directory;
+
+  /**
+   * Holds the number of token ranges.
+   *
+   * @author paouelle
+   */
+  private final int ranges;
+
+  /**
+   * Holds the number of tokens covered by each range.
+   *
+   * @author paouelle
+   */
+  private final long step;
+
+  /**
+   * Holds the buffer size in megabytes for each writer.
+   *
+   * @author paouelle
+   */
+  private final int bufferSize;
+
+  /**
+   * Holds the protocol version used to serialize values.
+   *
+   * @author paouelle
+   */
+  private final ProtocolVersion version;
+
+  /**
+   * Holds the table writers keyed by keyspace and table names.
+   *
+   * @author paouelle
+   */
+  private final Map<String, TableWriter> writers = new ConcurrentHashMap<>(16);
+
+  /**
+   * Holds the number of POJOs written.
+   *
+   * @author paouelle
+   */
+  private final AtomicLong numObjects = new AtomicLong();
+
+  /**
+   * Holds the number of rows written.
+   *
+   * @author paouelle
+   */
+  private final AtomicLong numRows = new AtomicLong();
+
+  /**
+   * Holds a flag indicating if this writer was closed.
+   *
+   * @author paouelle
+   */
+  private volatile boolean closed = false;
+
+  /**
+   * Instantiates a new <code>ObjectSSTableWriter</code> object.
+   *
+   * @author paouelle
+   *
+   * @param builder the builder with all settings
+   */
+  ObjectSSTableWriter(Builder builder) {
+    this.mgr = builder.mgr;
+    this.directory = builder.directory;
+    this.ranges = builder.ranges;
+    this.step = Long.divideUnsigned(-1L, ranges) + 1L;
+    this.bufferSize = builder.bufferSize;
+    this.version = builder.version;
+  }
+
+  /**
+   * Gets the token range index for a given token.
+   *
+   * @author paouelle
+   *
+   * @param  token the Murmur3 token
+   * @return the corresponding token range index
+   */
+  private int rangeOf(long token) {
+    return (int)Math.min(
+      ranges - 1L, Long.divideUnsigned(token - Long.MIN_VALUE, step)
+    );
+  }
+
+  /**
+   * Gets the number of POJOs written so far.
+   *
+   * @author paouelle
+   *
+   * @return the number of POJOs written
+   */
+  public long getNumObjects() {
+    return numObjects.get();
+  }
+
+  /**
+   * Gets the number of rows written so far.
+   *
+   * @author paouelle
+   *
+   * @return the number of rows written
+   */
+  public long getNumRows() {
+    return numRows.get();
+  }
+
+  /**
+   * Writes the specified POJO to all tables it is persisted to.
+   * <p>
+   * <i>Note:</i> This method is thread-safe.
+   *
+   * @author paouelle
+   *
+   * @param <T> The type of POJO to write
+   *
+   * @param  object the POJO to write
+   * @throws NullPointerException if <code>object</code> is <code>null</code>
+   * @throws IllegalArgumentException if the POJO is invalid
+   * @throws IllegalStateException if this writer was closed
+   */
+  @SuppressWarnings("unchecked")
+  public <T> void write(T object) {
+    Validate.notNull(object, "invalid null object");
+    Validate.validState(!closed, "writer is closed");
+    final ClassInfoImpl<T> cinfo = mgr.getClassInfoImpl((Class<T>)object.getClass());
+    final ClassInfoImpl<T>.POJOContext pctx = cinfo.newContext(object);
+    final String keyspace = pctx.getKeyspace();
+
+    for (final TableInfo<T> table: cinfo.getTables()) {
+      final TableWriter writer = writers.computeIfAbsent(
+        keyspace + '.' + table.getName(),
+        k -> new TableWriter(pctx, (TableInfoImpl<T>)table)
+      );
+
+      if (writer.skip) {
+        continue;
+      }
+      pctx.forEachRowColumnValues(table.getName(), writer::add);
+    }
+    numObjects.incrementAndGet();
+  }
+
+  /**
+   * Writes all POJOs from the specified stream. The stream can be parallel in
+   * which case rows will be written concurrently.
+   *
+   * @author paouelle
+   *
+   * @param  objects the stream of POJOs to write
+   * @return the number of POJOs written from the stream
+   * @throws NullPointerException if <code>objects</code> is <code>null</code>
+   * @throws IllegalArgumentException if a POJO is invalid
+   * @throws IllegalStateException if this writer was closed
+   */
+  public long write(Stream<?> objects) {
+    Validate.notNull(objects, "invalid null objects");
+    final AtomicLong count = new AtomicLong();
+
+    objects.forEach(o -> {
+      write(o);
+      count.incrementAndGet();
+    });
+    return count.get();
+  }
+
+  /**
+   * Closes all writers and flushes any buffered rows to disk.
+   *
+   * @author paouelle
+   *
+   * @throws IOException if an I/O error occurs while closing any writers
+   *
+   * @see java.io.Closeable#close()
+   */
+  @Override
+  public void close() throws IOException {
+    if (closed) {
+      return;
+    }
+    this.closed = true;
+    IOException error = null;
+
+    for (final TableWriter writer: writers.values()) {
+      try {
+        writer.close();
+      } catch (IOException e) {
+        if (error == null) {
+          error = e;
+        } else {
+          error.addSuppressed(e);
+        }
+      }
+    }
+    if (error != null) {
+      throw error;
+    }
+  }
+
+  /**
+   * The <code>TableWriter</code> class manages the SSTable writers for a given
+   * keyspace and table across all token ranges.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 13, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  private class TableWriter implements Closeable {
+    /**
+     * Holds the keyspace name.
+     *
+     * @author paouelle
+     */
+    private final String keyspace;
+
+    /**
+     * Holds the table name.
+     *
+     * @author paouelle
+     */
+    private final String table;
+
+    /**
+     * Holds a flag indicating if rows for this table should be skipped.
+     *
+     * @author paouelle
+     */
+    private final boolean skip;
+
+    /**
+     * Holds the names of all columns written in insert order.
+     *
+     * @author paouelle
+     */
+    private final String[] columns;
+
+    /**
+     * Holds the positions of the partition key columns in {@link #columns}.
+     *
+     * @author paouelle
+     */
+    private final int[] pkeys;
+
+    /**
+     * Holds the CREATE TABLE statement.
+     *
+     * @author paouelle
+     */
+    private final String schema;
+
+    /**
+     * Holds the INSERT statement.
+     *
+     * @author paouelle
+     */
+    private final String insert;
+
+    /**
+     * Holds the CREATE TYPE statements for all user-defined types the table
+     * depends on.
+     *
+     * @author paouelle
+     */
+    private final List<String> types;
+
+    /**
+     * Holds the SSTable writers for each token range; lazily created.
+     *
+     * @author paouelle
+     */
+    private final CQLSSTableWriter[] writers;
+
+    /**
+     * Instantiates a new <code>TableWriter</code> object.
+     *
+     * @author paouelle
+     *
+     * @param <T> The type of POJO
+     *
+     * @param pctx the context of the first POJO written to this table
+     * @param tinfo the table info
+     */
+    <T> TableWriter(ClassInfoImpl<T>.POJOContext pctx, TableInfoImpl<T> tinfo) {
+      this.keyspace = pctx.getKeyspace();
+      this.table = tinfo.getName();
+      this.skip = tinfo.getColumnsImpl().stream().anyMatch(FieldInfoImpl::isCounter);
+      this.writers = new CQLSSTableWriter[ranges];
+      if (skip) {
+        ObjectSSTableWriter.logger.warn(
+          "skipping counter table '%s.%s'; counters cannot be written offline",
+          keyspace,
+          table
+        );
+        this.columns = null;
+        this.pkeys = null;
+        this.schema = null;
+        this.insert = null;
+        this.types = null;
+        return;
+      }
+      final List<String> cols = new ArrayList<>(tinfo.getColumnsImpl().size() + 4);
+
+      for (final FieldInfoImpl<T> field: tinfo.getColumnsImpl()) {
+        cols.add(field.getColumnName());
+        if (field.isMultiKey()) {
+          cols.add(StatementImpl.MK_PREFIX + field.getColumnName());
+        } else if (field.isCaseInsensitiveKey()) {
+          cols.add(StatementImpl.CI_PREFIX + field.getColumnName());
+        }
+      }
+      this.columns = cols.toArray(new String[cols.size()]);
+      final List<FieldInfoImpl<T>> pfields = new ArrayList<>(tinfo.getPartitionKeys());
+
+      this.pkeys = new int[pfields.size()];
+      for (int i = 0; i < pkeys.length; i++) {
+        final FieldInfoImpl<T> field = pfields.get(i);
+        final String name;
+
+        if (field.isMultiKey()) {
+          name = StatementImpl.MK_PREFIX + field.getColumnName();
+        } else if (field.isCaseInsensitiveKey()) {
+          name = StatementImpl.CI_PREFIX + field.getColumnName();
+        } else {
+          name = field.getColumnName();
+        }
+        pkeys[i] = cols.indexOf(name);
+      }
+      final Clause[] kkeys = pctx.getKeyspaceKeyValues().entrySet().stream()
+        .map(e -> StatementBuilder.eq(e.getKey(), e.getValue().getLeft()))
+        .toArray(Clause[]::new);
+      final CreateTable<T> create = StatementBuilder.createTable(
+        pctx.getClassInfo().getObjectClass(), table
+      );
+
+      for (final Clause c: kkeys) {
+        create.where(c);
+      }
+      this.schema = create.getQueryString();
+      this.types = pctx.getClassInfo().udts()
+        .map(u -> createType(u, pctx))
+        .collect(Collectors.toList());
+      final StringBuilder sb = new StringBuilder(256).append("INSERT INTO ");
+
+      ObjectSSTableWriter.appendName(sb, keyspace).append('.');
+      ObjectSSTableWriter.appendName(sb, table).append(" (");
+      for (int i = 0; i < columns.length; i++) {
+        if (i > 0) {
+          sb.append(',');
+        }
+        ObjectSSTableWriter.appendName(sb, columns[i]);
+      }
+      sb.append(") VALUES (");
+      for (int i = 0; i < columns.length; i++) {
+        sb.append((i > 0) ? ",?" : "?");
+      }
+      this.insert = sb.append(')').toString();
+    }
+
+    /**
+     * Generates the CREATE TYPE statement for a given user-defined type.
+     *
+     * @author paouelle
+     *
+     * @param <T> The type of POJO
+     *
+     * @param  ucinfo the user-defined type class info
+     * @param  pctx the context of the POJO referencing the type
+     * @return the corresponding CREATE TYPE statement
+     */
+    private <T> String createType(UDTClassInfoImpl<?> ucinfo, ClassInfoImpl<T>.POJOContext pctx) {
+      final CreateType<?> create = StatementBuilder.createType(ucinfo.getObjectClass());
+
+      pctx.getKeyspaceKeyValues().forEach((n, v) -> {
+        if (ucinfo.isKeyspaceKey(n)) {
+          create.where(StatementBuilder.eq(n, v.getLeft()));
+        }
+      });
+      return create.getQueryString();
+    }
+
+    /**
+     * Gets the SSTable writer for the specified token range.
+     *
+     * @author paouelle
+     *
+     * @param  range the token range index
+     * @return the corresponding SSTable writer
+     */
+    private synchronized CQLSSTableWriter writer(int range) {
+      CQLSSTableWriter w = writers[range];
+
+      if (w == null) {
+        final File dir = new File(
+          new File(new File(directory, String.valueOf(range)), keyspace), table
+        );
+
+        Validate.validState(
+          dir.isDirectory() || dir.mkdirs(), "unable to create directory: %s", dir
+        );
+        final CQLSSTableWriter.Builder builder = CQLSSTableWriter.builder()
+          .inDirectory(dir)
+          .withPartitioner(Murmur3Partitioner.instance)
+          .withBufferSizeInMB(bufferSize);
+
+        for (final String type: types) {
+          try {
+            builder.withType(type);
+          } catch (SyntaxException e) {
+            throw new IllegalStateException("invalid type definition: " + type, e);
+          }
+        }
+        w = builder.forTable(schema).using(insert).build();
+        writers[range] = w;
+      }
+      return w;
+    }
+
+    /**
+     * Adds a row to the SSTable writer for its token range.
+     *
+     * @author paouelle
+     *
+     * @param  row the column/value pairs for the row
+     * @throws IllegalStateException if the row cannot be written
+     */
+    @SuppressWarnings("unchecked")
+    void add(Map<String, Triple<Object, CQLDataType, TypeCodec<?>>> row) {
+      final List<ByteBuffer> values = new ArrayList<>(columns.length);
+
+      for (final String column: columns) {
+        final Triple<Object, CQLDataType, TypeCodec<?>> t = row.get(column);
+        Object v = (t != null) ? t.getLeft() : null;
+
+        if (v instanceof Optional) {
+          v = ((Optional<Object>)v).orElse(null);
+        }
+        if (v == null) {
+          values.add(ByteBufferUtil.UNSET_BYTE_BUFFER);
+        } else {
+          values.add(((TypeCodec<Object>)t.getRight()).serialize(v, version));
+        }
+      }
+      final ByteBuffer key;
+
+      if (pkeys.length == 1) {
+        key = values.get(pkeys[0]);
+      } else {
+        final ByteBuffer[] parts = new ByteBuffer[pkeys.length];
+
+        for (int i = 0; i < parts.length; i++) {
+          parts[i] = values.get(pkeys[i]);
+        }
+        key = CompositeType.build(parts);
+      }
+      final long token = (Long)Murmur3Partitioner.instance.getToken(key).getTokenValue();
+      final CQLSSTableWriter w = writer(rangeOf(token));
+
+      try {
+        synchronized (w) {
+          w.rawAddRow(values);
+        }
+      } catch (Exception e) { // IOException or InvalidRequestException
+        throw new IllegalStateException(
+          "failed to write row to '" + keyspace + "." + table + "'", e
+        );
+      }
+      numRows.incrementAndGet();
+    }
+
+    /**
+     * {@inheritDoc}
+     *
+     * @author paouelle
+     *
+     * @see java.io.Closeable#close()
+     */
+    @Override
+    public synchronized void close() throws IOException {
+      for (int i = 0; i < writers.length; i++) {
+        final CQLSSTableWriter w = writers[i];
+
+        if (w != null) {
+          writers[i] = null;
+          synchronized (w) {
+            w.close();
+          }
+        }
+      }
+    }
+  }
+
+  /**
+   * The <code>Builder</code> class is used to configure and create SSTable
+   * writers.
+   *
+   * @copyright 2015-2017 The Helenus Driver Project Authors
+   *
+   * @author  The Helenus Driver Project Authors
+   * @version 1 - Feb 13, 2017 - paouelle - Creation
+   *
+   * @since 1.0
+   */
+  public static class Builder {
+    /**
+     * Holds the statement manager.
+     *
+     * @author paouelle
+     */
+    private final StatementManagerImpl mgr;
+
+    /**
+     * Holds the output directory.
+     *
+     * @author paouelle
+     */
+    private File directory = new File("sstables");
+
+    /**
+     * Holds the number of token ranges.
+     *
+     * @author paouelle
+     */
+    private int ranges = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Holds the buffer size in megabytes for each writer.
+     *
+     * @author paouelle
+     */
+    private int bufferSize = 64;
+
+    /**
+     * Holds the protocol version used to serialize values.
+     *
+     * @author paouelle
+     */
+    private ProtocolVersion version = ProtocolVersion.NEWEST_SUPPORTED;
+
+    /**
+     * Instantiates a new <code>Builder</code> object.
+     *
+     * @author paouelle
+     *
+     * @param mgr the statement manager
+     */
+    Builder(StatementManagerImpl mgr) {
+      this.mgr = mgr;
+    }
+
+    /**
+     * Sets the directory where to write the SSTables.
+     *
+     * @author paouelle
+     *
+     * @param  directory the output directory
+     * @return this for chaining
+     * @throws NullPointerException if <code>directory</code> is <code>null</code>
+     */
+    public Builder inDirectory(File directory) {
+      Validate.notNull(directory, "invalid null directory");
+      this.directory = directory;
+      return this;
+    }
+
+    /**
+     * Sets the number of token ranges to split the ring into. A separate
+     * writer is used for each range allowing rows to be written concurrently.
+     *
+     * @author paouelle
+     *
+     * @param  ranges the number of token ranges
+     * @return this for chaining
+     * @throws IllegalArgumentException if <code>ranges</code> is not positive
+     */
+    public Builder ranges(int ranges) {
+      Validate.isTrue(ranges > 0, "invalid number of ranges: %d", ranges);
+      this.ranges = ranges;
+      return this;
+    }
+
+    /**
+     * Sets the amount of memory each writer buffers before flushing a new
+     * SSTable to disk.
+     *
+     * @author paouelle
+     *
+     * @param  size the buffer size in megabytes
+     * @return this for chaining
+     * @throws IllegalArgumentException if <code>size</code> is not positive
+     */
+    public Builder withBufferSizeInMB(int size) {
+      Validate.isTrue(size > 0, "invalid buffer size: %d", size);
+      this.bufferSize = size;
+      return this;
+    }
+
+    /**
+     * Sets the protocol version used to serialize values.
+     *
+     * @author paouelle
+     *
+     * @param  version the protocol version
+     * @return this for chaining
+     * @throws NullPointerException if <code>version</code> is <code>null</code>
+     */
+    public Builder withProtocolVersion(ProtocolVersion version) {
+      Validate.notNull(version, "invalid null protocol version");
+      this.version = version;
+      return this;
+    }
+
+    /**
+     * Builds a new SSTable writer.
+     *
+     * @author paouelle
+     *
+     * @return a new SSTable writer
+     */
+    public ObjectSSTableWriter build() {
+      return new ObjectSSTableWriter(this);
+    }
+  }
+}
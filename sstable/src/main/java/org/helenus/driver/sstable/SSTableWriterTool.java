@@ -0,0 +1,215 @@
+/*
+ * Copyright (C) 2015-2017 The Helenus Driver Project Authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.helenus.driver.sstable;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
+
+import org.apache.commons.cli.CommandLine;
+import org.apache.commons.cli.CommandLineParser;
+import org.apache.commons.cli.DefaultParser;
+import org.apache.commons.cli.HelpFormatter;
+import org.apache.commons.cli.Option;
+import org.apache.commons.cli.Options;
+import org.apache.commons.cli.ParseException;
+
+import com.datastax.driver.core.Cluster;
+
+import org.helenus.driver.impl.StatementManagerImpl;
+
+/**
+ * The <code>SSTableWriterTool</code> class provides a command-line tool for
+ * writing POJOs supplied by a user-provided class directly into SSTables that
+ * can then be loaded into a cluster using <code>sstableloader</code>.
+ * <p>
+ * The source class must implement {@link Supplier} and return a
+ * {@link Stream} of POJOs. It must also provide a public default constructor.
+ *
+ * @copyright 2015-2017 The Helenus Driver Project Authors
+ *
+ * @author  The Helenus Driver Project Authors
+ * @version 1 - Feb 13, 2017 - paouelle - Creation
+ *
+ * @since 1.0
+ */
+public class SSTableWriterTool {
+  /**
+   * Holds the source option.
+   *
+   * @author paouelle
+   */
+  private final static Option source = Option.builder("s")
+    .longOpt("source")
+    .desc("to specify the class supplying the stream of POJOs to write")
+    .hasArg()
+    .argName("class")
+    .required()
+    .build();
+
+  /**
+   * Holds the output directory option.
+   *
+   * @author paouelle
+   */
+  private final static Option output = Option.builder("o")
+    .longOpt("output")
+    .desc("to specify the directory where to write the SSTables (defaults to sstables)")
+    .hasArg()
+    .argName("dir")
+    .build();
+
+  /**
+   * Holds the token ranges option.
+   *
+   * @author paouelle
+   */
+  private final static Option ranges = Option.builder("r")
+    .longOpt("ranges")
+    .desc("to specify the number of token ranges to write separately (defaults to the number of processors)")
+    .hasArg()
+    .argName("number")
+    .build();
+
+  /**
+   * Holds the buffer size option.
+   *
+   * @author paouelle
+   */
+  private final static Option buffer = Option.builder("b")
+    .longOpt("buffer")
+    .desc("to specify the buffer size in MB before each SSTable is flushed (defaults to 64)")
+    .hasArg()
+    .argName("size")
+    .build();
+
+  /**
+   * Holds the parallel option.
+   *
+   * @author paouelle
+   */
+  private final static Option parallel = Option.builder("p")
+    .longOpt("parallel")
+    .desc("to write POJOs from the source stream in parallel")
+    .build();
+
+  /**
+   * Holds the help option.
+   *
+   * @author paouelle
+   */
+  private final static Option help = Option.builder("?")
+    .longOpt("help")
+    .desc("to print this message")
+    .build();
+
+  /**
+   * Holds the command-line options definition.
+   *
+   * @author paouelle
+   */
+  private final static Options options
+    = (new Options()
+       .addOption(SSTableWriterTool.source)
+       .addOption(SSTableWriterTool.output)
+       .addOption(SSTableWriterTool.ranges)
+       .addOption(SSTableWriterTool.buffer)
+       .addOption(SSTableWriterTool.parallel)
+       .addOption(SSTableWriterTool.help)
+      );
+
+  /**
+   * Main entry point for the tool.
+   *
+   * @author paouelle
+   *
+   * @param args the command-line arguments
+   */
+  @SuppressWarnings("unchecked")
+  public static void main(String[] args) {
+    try {
+      final CommandLineParser parser = new DefaultParser();
+      final CommandLine line = parser.parse(SSTableWriterTool.options, args);
+
+      if (line.hasOption(SSTableWriterTool.help.getLongOpt())) {
+        new HelpFormatter().printHelp(
+          SSTableWriterTool.class.getSimpleName() + " [options]",
+          SSTableWriterTool.options
+        );
+        System.exit(0);
+      }
+      final Class<?> clazz = Class.forName(
+        line.getOptionValue(SSTableWriterTool.source.getLongOpt())
+      );
+      final Supplier<Stream<?>> supplier
+        = (Supplier<Stream<?>>)clazz.asSubclass(Supplier.class).newInstance();
+      final File dir = new File(
+        line.getOptionValue(SSTableWriterTool.output.getLongOpt(), "sstables")
+      );
+      final ObjectSSTableWriter.Builder builder = ObjectSSTableWriter.builder(
+        // offline manager; only used for POJO metadata
+        new StatementManagerImpl(Cluster.builder().addContactPoint("127.0.0.1"), false)
+      ).inDirectory(dir);
+
+      if (line.hasOption(SSTableWriterTool.ranges.getLongOpt())) {
+        builder.ranges(Integer.parseInt(
+          line.getOptionValue(SSTableWriterTool.ranges.getLongOpt())
+        ));
+      }
+      if (line.hasOption(SSTableWriterTool.buffer.getLongOpt())) {
+        builder.withBufferSizeInMB(Integer.parseInt(
+          line.getOptionValue(SSTableWriterTool.buffer.getLongOpt())
+        ));
+      }
+      final long start = System.nanoTime();
+      final ObjectSSTableWriter writer = builder.build();
+
+      try (
+        final Stream<?> stream = supplier.get();
+      ) {
+        writer.write(
+          line.hasOption(SSTableWriterTool.parallel.getLongOpt())
+          ? stream.parallel()
+          : stream.sequential()
+        );
+      } finally {
+        writer.close();
+      }
+      System.out.printf(
+        "%d object(s) written as %d row(s) to %s in %d ms%n"
+        + "load with: sstableloader -d <host> %s/<range>/<keyspace>/<table>%n",
+        writer.getNumObjects(),
+        writer.getNumRows(),
+        dir,
+        (System.nanoTime() - start) / 1000000L,
+        dir
+      );
+      System.exit(0);
+    } catch (ParseException e) {
+      System.err.println(
+        SSTableWriterTool.class.getSimpleName() + ": " + e.getMessage()
+      );
+      System.exit(2);
+    } catch (IOException|ReflectiveOperationException|RuntimeException e) {
+      System.err.print(
+        SSTableWriterTool.class.getSimpleName() + ": unexpected exception: "
+      );
+      e.printStackTrace(System.err);
+      System.exit(1);
+    }
+  }
+}